@@ -0,0 +1,83 @@
+package no.mnemonic.act.platform.api.model.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Outcome of importing one Fact as part of a bulk import.")
+public class FactImportResult {
+
+  public enum Status {
+    Created, Refreshed, Failed
+  }
+
+  @ApiModelProperty(value = "Position of the imported Fact in the request (starting at 0)", example = "0", required = true)
+  private final int index;
+  @ApiModelProperty(value = "Whether a new Fact was created, an existing Fact was refreshed or the import failed", required = true)
+  private final Status status;
+  @ApiModelProperty(value = "Created or refreshed Fact (not set if the import failed)")
+  private final Fact.Info fact;
+  @ApiModelProperty(value = "Reason why the import failed (only set if the import failed)", example = "Object with type/value does not exist.")
+  private final String error;
+
+  private FactImportResult(int index, Status status, Fact.Info fact, String error) {
+    this.index = index;
+    this.status = status;
+    this.fact = fact;
+    this.error = error;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public Fact.Info getFact() {
+    return fact;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private int index;
+    private Status status;
+    private Fact.Info fact;
+    private String error;
+
+    private Builder() {
+    }
+
+    public FactImportResult build() {
+      return new FactImportResult(index, status, fact, error);
+    }
+
+    public Builder setIndex(int index) {
+      this.index = index;
+      return this;
+    }
+
+    public Builder setStatus(Status status) {
+      this.status = status;
+      return this;
+    }
+
+    public Builder setFact(Fact.Info fact) {
+      this.fact = fact;
+      return this;
+    }
+
+    public Builder setError(String error) {
+      this.error = error;
+      return this;
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import no.mnemonic.act.platform.api.request.ValidatingRequest;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@ApiModel(description = "Import multiple new Facts at once.")
+public class ImportFactsRequest implements ValidatingRequest {
+
+  public static final int MAX_FACTS = 1000;
+
+  @ApiModelProperty(value = "Facts to import (at most 1000 per request)", required = true)
+  @NotEmpty
+  @Size(max = MAX_FACTS)
+  private List<@Valid CreateFactRequest> facts;
+
+  public List<CreateFactRequest> getFacts() {
+    return facts;
+  }
+
+  public ImportFactsRequest setFacts(List<CreateFactRequest> facts) {
+    this.facts = ObjectUtils.ifNotNull(facts, ListUtils::list);
+    return this;
+  }
+
+  public ImportFactsRequest addFact(CreateFactRequest fact) {
+    this.facts = ListUtils.addToList(this.facts, fact);
+    return this;
+  }
+}
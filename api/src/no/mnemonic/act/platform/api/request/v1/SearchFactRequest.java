@@ -60,6 +60,9 @@ public class SearchFactRequest implements ValidatingRequest {
   @ApiModelProperty(value = "Limit the number of returned Facts (default 25, 0 means all)", example = "25")
   @Min(0)
   private Integer limit;
+  @ApiModelProperty(value = "Resume a search from the 'nextCursor' of a previous response ('*' starts a new resumable search). " +
+          "Results are returned sorted by timestamp when a cursor is given", example = "*")
+  private String cursor;
 
   public String getKeywords() {
     return keywords;
@@ -245,4 +248,13 @@ public class SearchFactRequest implements ValidatingRequest {
     return this;
   }
 
+  public String getCursor() {
+    return cursor;
+  }
+
+  public SearchFactRequest setCursor(String cursor) {
+    this.cursor = cursor;
+    return this;
+  }
+
 }
@@ -0,0 +1,48 @@
+package no.mnemonic.act.platform.api.serializer;
+
+/**
+ * Constants of the binary encoding used by {@link BinaryMessageSerializer}.
+ * <p>
+ * Every encoded message starts with {@link #MAGIC} followed by the format version. Afterwards the message is written
+ * as one value. Each value starts with a one-byte tag defining how the remaining bytes of the value are interpreted.
+ * Integral numbers and lengths are written as variable-length integers. Strings and class layouts which occur multiple
+ * times inside one message are only written once and referenced by index afterwards, which makes large batches of
+ * similar objects (e.g. Facts sharing the same type and Organization) compact.
+ * <p>
+ * Objects, arrays, collections and maps are tracked by identity. Every such value is numbered in the order it is
+ * started, and an instance occurring again is written as a reference to that number. This preserves shared instances
+ * and allows encoding object graphs containing cycles.
+ */
+final class BinaryFormat {
+
+  static final int MAGIC = 0x41435442; // "ACTB"
+
+  static final byte TAG_NULL = 0;
+  static final byte TAG_TRUE = 1;
+  static final byte TAG_FALSE = 2;
+  static final byte TAG_BYTE = 3;
+  static final byte TAG_SHORT = 4;
+  static final byte TAG_CHAR = 5;
+  static final byte TAG_INT = 6;
+  static final byte TAG_LONG = 7;
+  static final byte TAG_FLOAT = 8;
+  static final byte TAG_DOUBLE = 9;
+  static final byte TAG_STRING = 10;
+  static final byte TAG_STRING_REF = 11;
+  static final byte TAG_UUID = 12;
+  static final byte TAG_ENUM = 13;
+  static final byte TAG_BYTES = 14;
+  static final byte TAG_ARRAY = 15;
+  static final byte TAG_LIST = 16;
+  static final byte TAG_SET = 17;
+  static final byte TAG_MAP = 18;
+  static final byte TAG_OBJECT = 19;
+  static final byte TAG_THROWABLE = 20;
+  static final byte TAG_REFERENCE = 21;
+
+  // Only strings up to this length (in bytes) are added to the string table. Longer strings rarely repeat.
+  static final int MAX_INTERNED_STRING_LENGTH = 256;
+
+  private BinaryFormat() {
+  }
+}
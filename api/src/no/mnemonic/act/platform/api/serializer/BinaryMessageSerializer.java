@@ -0,0 +1,182 @@
+package no.mnemonic.act.platform.api.serializer;
+
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.metrics.MetricsData;
+import no.mnemonic.messaging.requestsink.Message;
+import no.mnemonic.messaging.requestsink.jms.IllegalDeserializationException;
+import no.mnemonic.messaging.requestsink.jms.serializer.MessageSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * {@link MessageSerializer} implementation using a compact binary encoding instead of the XML encoding of XStream.
+ * <p>
+ * Objects are encoded field by field (see {@link BinaryFormat}). Like with XStream only white-listed classes are
+ * decoded. The names of the fields of every class are written once per message, thus, both sides can
+ * evolve independently: fields unknown to the receiver are skipped and fields missing in the message stay unset.
+ * <p>
+ * The version of the encoding is part of the serializer ID. The Service Message Bus sends the serializer ID with
+ * every request and the server responds using the serializer requested by the client. A server can therefore serve
+ * clients using XStream and clients using this serializer (or different versions of it) at the same time, as long as
+ * all those serializers are registered on the server.
+ */
+public class BinaryMessageSerializer implements MessageSerializer {
+
+  /**
+   * Version of the binary encoding produced by this implementation.
+   */
+  public static final int VERSION = 1;
+  /**
+   * Serializer ID used to negotiate the serializer between client and server.
+   */
+  public static final String SERIALIZER_ID = "ACT-BINARY-V" + VERSION;
+
+  private static final int INITIAL_BUFFER_SIZE = 4096;
+
+  private final Set<String> allowedClasses;
+  private final Set<Pattern> allowedClassesRegex;
+
+  private final LongAdder serializeCount = new LongAdder();
+  private final LongAdder serializeError = new LongAdder();
+  private final LongAdder serializeTime = new LongAdder();
+  private final LongAdder serializeMsgSize = new LongAdder();
+  private final LongAdder deserializeCount = new LongAdder();
+  private final LongAdder deserializeError = new LongAdder();
+  private final LongAdder deserializeTime = new LongAdder();
+  private final LongAdder deserializeMsgSize = new LongAdder();
+
+  private BinaryMessageSerializer(Set<Class<?>> allowedClasses, Set<String> allowedClassesRegex) {
+    this.allowedClasses = Collections.unmodifiableSet(allowedClasses.stream()
+            .map(Class::getName)
+            .collect(Collectors.toSet()));
+    this.allowedClassesRegex = Collections.unmodifiableSet(allowedClassesRegex.stream()
+            .map(Pattern::compile)
+            .collect(Collectors.toSet()));
+  }
+
+  @Override
+  public String serializerID() {
+    return SERIALIZER_ID;
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return new MetricsData()
+            .addData("serializeCount", serializeCount.sum())
+            .addData("serializeError", serializeError.sum())
+            .addData("serializeTime", serializeTime.sum())
+            .addData("serializeMsgSize", serializeMsgSize.sum())
+            .addData("deserializeCount", deserializeCount.sum())
+            .addData("deserializeError", deserializeError.sum())
+            .addData("deserializeTime", deserializeTime.sum())
+            .addData("deserializeMsgSize", deserializeMsgSize.sum());
+  }
+
+  @Override
+  public byte[] serialize(Message msg) throws IOException {
+    long start = System.currentTimeMillis();
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+      DataOutputStream out = new DataOutputStream(bytes);
+      BinaryWriter writer = new BinaryWriter(out);
+      writer.writeHeader(VERSION);
+      writer.writeValue(msg);
+      out.flush();
+
+      byte[] result = bytes.toByteArray();
+      serializeCount.increment();
+      serializeMsgSize.add(result.length);
+      return result;
+    } catch (IOException | RuntimeException ex) {
+      serializeError.increment();
+      throw ex;
+    } finally {
+      serializeTime.add(System.currentTimeMillis() - start);
+    }
+  }
+
+  @Override
+  public <T extends Message> T deserialize(byte[] msgbytes, ClassLoader classLoader) throws IOException {
+    long start = System.currentTimeMillis();
+    try {
+      BinaryReader reader = new BinaryReader(new DataInputStream(new ByteArrayInputStream(msgbytes)), this::isAllowed, classLoader);
+      int version = reader.readHeader();
+      if (version != VERSION) {
+        throw new IllegalDeserializationException(String.format("Unsupported version %d of binary encoding.", version));
+      }
+
+      Object value = reader.readValue();
+      if (!(value instanceof Message)) {
+        throw new IllegalDeserializationException("Decoded value is not a message.");
+      }
+
+      deserializeCount.increment();
+      deserializeMsgSize.add(msgbytes.length);
+      //noinspection unchecked
+      return (T) value;
+    } catch (IOException | RuntimeException ex) {
+      deserializeError.increment();
+      throw ex;
+    } finally {
+      deserializeTime.add(System.currentTimeMillis() - start);
+    }
+  }
+
+  private boolean isAllowed(String className) {
+    if (allowedClasses.contains(className)) return true;
+    for (Pattern allowed : allowedClassesRegex) {
+      if (allowed.matcher(className).matches()) return true;
+    }
+    return false;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private final Set<Class<?>> allowedClasses = new HashSet<>();
+    private final Set<String> allowedClassesRegex = new HashSet<>();
+
+    private Builder() {
+    }
+
+    public BinaryMessageSerializer build() {
+      return new BinaryMessageSerializer(allowedClasses, allowedClassesRegex);
+    }
+
+    /**
+     * Allow decoding instances of a class.
+     *
+     * @param allowedClass Allowed class
+     * @return this
+     */
+    public Builder addAllowedClass(Class<?> allowedClass) {
+      this.allowedClasses.add(allowedClass);
+      return this;
+    }
+
+    /**
+     * Allow decoding instances of all classes matching a regular expression (same syntax as for
+     * XStreamMessageSerializer, e.g. "no.mnemonic.act.platform.api.model.*").
+     *
+     * @param allowedClassRegex Regular expression matching fully qualified class names
+     * @return this
+     */
+    public Builder addAllowedClass(String allowedClassRegex) {
+      this.allowedClassesRegex.add(allowedClassRegex);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,328 @@
+package no.mnemonic.act.platform.api.serializer;
+
+import no.mnemonic.messaging.requestsink.jms.IllegalDeserializationException;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static no.mnemonic.act.platform.api.serializer.BinaryFormat.*;
+
+/**
+ * Decodes one message from the binary format described in {@link BinaryFormat}. Only classes accepted by the
+ * white-list are instantiated. Classes are resolved by name before they are loaded, thus, a message cannot trigger
+ * loading arbitrary classes.
+ */
+class BinaryReader {
+
+  // Classes from the Java platform which are part of serialized Throwables.
+  private static final Set<String> THROWABLE_SUPPORT_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+          "java.lang.StackTraceElement",
+          "[Ljava.lang.StackTraceElement;",
+          "java.util.ArrayList",
+          "java.util.HashSet",
+          "java.util.Collections$EmptyList",
+          "java.util.Collections$UnmodifiableCollection",
+          "java.util.Collections$UnmodifiableList",
+          "java.util.Collections$UnmodifiableRandomAccessList"
+  )));
+
+  private final DataInputStream in;
+  private final Predicate<String> allowedClasses;
+  private final ClassLoader classLoader;
+  private final List<String> strings = new ArrayList<>();
+  private final List<DecodedLayout> classes = new ArrayList<>();
+  // Instances read so far in the order they were started, see BinaryWriter.
+  private final List<Object> references = new ArrayList<>();
+
+  BinaryReader(DataInputStream in, Predicate<String> allowedClasses, ClassLoader classLoader) {
+    this.in = in;
+    this.allowedClasses = allowedClasses;
+    this.classLoader = classLoader;
+  }
+
+  int readHeader() throws IOException {
+    if (in.readInt() != MAGIC) throw new IllegalDeserializationException("Message is not encoded in binary format.");
+    return in.readUnsignedByte();
+  }
+
+  Object readValue() throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_TRUE:
+        return Boolean.TRUE;
+      case TAG_FALSE:
+        return Boolean.FALSE;
+      case TAG_BYTE:
+        return in.readByte();
+      case TAG_SHORT:
+        return in.readShort();
+      case TAG_CHAR:
+        return in.readChar();
+      case TAG_INT:
+        return (int) unZigZag(readVarLong());
+      case TAG_LONG:
+        return unZigZag(readVarLong());
+      case TAG_FLOAT:
+        return in.readFloat();
+      case TAG_DOUBLE:
+        return in.readDouble();
+      case TAG_STRING:
+      case TAG_STRING_REF:
+        return readString(tag);
+      case TAG_UUID:
+        return new UUID(in.readLong(), in.readLong());
+      case TAG_ENUM:
+        return readEnum();
+      case TAG_BYTES:
+        return readBytes();
+      case TAG_ARRAY:
+        return readArray();
+      case TAG_LIST:
+        return readCollection(new ArrayList<>());
+      case TAG_SET:
+        return readCollection(new LinkedHashSet<>());
+      case TAG_MAP:
+        return readMap();
+      case TAG_OBJECT:
+        return readObject();
+      case TAG_THROWABLE:
+        return readThrowable();
+      case TAG_REFERENCE:
+        return readReference();
+      default:
+        throw new IllegalDeserializationException(String.format("Unknown value tag %d.", tag));
+    }
+  }
+
+  private Object readReference() throws IOException {
+    int index = readVarInt();
+    if (index >= references.size()) throw new IllegalDeserializationException("Invalid instance reference.");
+    return references.get(index);
+  }
+
+  private String readString() throws IOException {
+    return readString(in.readByte());
+  }
+
+  private String readString(byte tag) throws IOException {
+    if (tag == TAG_STRING_REF) {
+      int index = readVarInt();
+      if (index >= strings.size()) throw new IllegalDeserializationException("Invalid string reference.");
+      return strings.get(index);
+    }
+    if (tag != TAG_STRING) throw new IllegalDeserializationException(String.format("Expected string but found tag %d.", tag));
+
+    int length = readLength();
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    String value = new String(bytes, StandardCharsets.UTF_8);
+    if (length <= MAX_INTERNED_STRING_LENGTH) {
+      strings.add(value);
+    }
+    return value;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object readEnum() throws IOException {
+    Class<?> type = resolveClass(readString());
+    if (!type.isEnum()) throw new IllegalDeserializationException(String.format("Class %s is not an enum.", type.getName()));
+    try {
+      return Enum.valueOf((Class<? extends Enum>) type, readString());
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalDeserializationException(String.format("Unknown constant of enum %s.", type.getName()));
+    }
+  }
+
+  private byte[] readBytes() throws IOException {
+    byte[] bytes = new byte[readLength()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private Object readArray() throws IOException {
+    String componentName = readString();
+    Class<?> componentType;
+    if (Object.class.getName().equals(componentName)) {
+      componentType = Object.class;
+    } else if (String.class.getName().equals(componentName)) {
+      componentType = String.class;
+    } else if (UUID.class.getName().equals(componentName)) {
+      componentType = UUID.class;
+    } else {
+      componentType = resolveClass(componentName);
+    }
+
+    int length = readLength();
+    Object array = Array.newInstance(componentType, length);
+    references.add(array);
+    for (int i = 0; i < length; i++) {
+      Object element = readValue();
+      try {
+        Array.set(array, i, element);
+      } catch (IllegalArgumentException ex) {
+        throw new IllegalDeserializationException(String.format("Invalid element in array of %s.", componentName));
+      }
+    }
+    return array;
+  }
+
+  private <T extends Collection<Object>> T readCollection(T collection) throws IOException {
+    references.add(collection);
+    int size = readLength();
+    for (int i = 0; i < size; i++) {
+      collection.add(readValue());
+    }
+    return collection;
+  }
+
+  private Map<Object, Object> readMap() throws IOException {
+    Map<Object, Object> map = new LinkedHashMap<>();
+    references.add(map);
+    int size = readLength();
+    for (int i = 0; i < size; i++) {
+      map.put(readValue(), readValue());
+    }
+    return map;
+  }
+
+  private Object readObject() throws IOException {
+    DecodedLayout layout = readLayout();
+
+    Object instance;
+    try {
+      instance = layout.layout.newInstance();
+    } catch (ReflectiveOperationException | IOException | RuntimeException ex) {
+      throw new IOException(String.format("Could not create instance of class %s.", layout.layout.getType().getName()), ex);
+    }
+    // Register the instance before reading its fields, a field might refer back to it.
+    references.add(instance);
+
+    for (Field field : layout.fields) {
+      Object value = readValue();
+      // Fields unknown to this side (e.g. added in a newer version) are skipped.
+      if (field == null) continue;
+      try {
+        field.set(instance, value);
+      } catch (IllegalAccessException | IllegalArgumentException ex) {
+        throw new IllegalDeserializationException(String.format("Invalid value for field %s of class %s.",
+                field.getName(), layout.layout.getType().getName()));
+      }
+    }
+
+    return instance;
+  }
+
+  private DecodedLayout readLayout() throws IOException {
+    int reference = readVarInt();
+    if (reference > 0) {
+      if (reference > classes.size()) throw new IllegalDeserializationException("Invalid class reference.");
+      return classes.get(reference - 1);
+    }
+
+    Class<?> type = resolveClass(readString());
+    ClassLayout layout;
+    try {
+      layout = ClassLayout.of(type);
+    } catch (RuntimeException ex) {
+      throw new IOException(String.format("Could not decode instance of class %s.", type.getName()), ex);
+    }
+
+    int numberOfFields = readLength();
+    Field[] fields = new Field[numberOfFields];
+    for (int i = 0; i < numberOfFields; i++) {
+      fields[i] = layout.getField(readString());
+    }
+
+    DecodedLayout decoded = new DecodedLayout(layout, fields);
+    classes.add(decoded);
+    return decoded;
+  }
+
+  private Object readThrowable() throws IOException {
+    byte[] bytes = readBytes();
+    try (ObjectInputStream stream = new ThrowableInputStream(new ByteArrayInputStream(bytes))) {
+      Object value = stream.readObject();
+      if (!(value instanceof Throwable)) throw new IllegalDeserializationException("Encoded value is not a Throwable.");
+      return value;
+    } catch (ClassNotFoundException ex) {
+      throw new IOException("Could not decode Throwable.", ex);
+    }
+  }
+
+  private Class<?> resolveClass(String name) throws IOException {
+    // Verify the name before loading the class.
+    if (ClassLayout.isPlatformClass(name) || !allowedClasses.test(name)) {
+      throw new IllegalDeserializationException(String.format("Class %s is not allowed to be deserialized.", name));
+    }
+
+    try {
+      return Class.forName(name, false, classLoader);
+    } catch (ClassNotFoundException ex) {
+      throw new IOException(String.format("Could not resolve class %s.", name), ex);
+    }
+  }
+
+  private int readLength() throws IOException {
+    int length = readVarInt();
+    // Every element occupies at least one byte, thus, a valid length can never exceed the remaining input.
+    if (length < 0 || length > in.available()) throw new IllegalDeserializationException("Invalid length.");
+    return length;
+  }
+
+  private int readVarInt() throws IOException {
+    long value = readVarLong();
+    if (value > Integer.MAX_VALUE) throw new IllegalDeserializationException("Invalid length.");
+    return (int) value;
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw new IllegalDeserializationException("Malformed variable-length integer.");
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static class DecodedLayout {
+    private final ClassLayout layout;
+    private final Field[] fields;
+
+    private DecodedLayout(ClassLayout layout, Field[] fields) {
+      this.layout = layout;
+      this.fields = fields;
+    }
+  }
+
+  private class ThrowableInputStream extends ObjectInputStream {
+    private ThrowableInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      String name = desc.getName();
+      if (THROWABLE_SUPPORT_CLASSES.contains(name)) return super.resolveClass(desc);
+      if (ClassLayout.isPlatformClass(name)) {
+        // Standard exceptions such as IllegalStateException are accepted, but no other classes from the platform.
+        Class<?> type = Class.forName(name, false, null);
+        if (!Throwable.class.isAssignableFrom(type)) {
+          throw new IllegalDeserializationException(String.format("Class %s is not allowed to be deserialized.", name));
+        }
+        return type;
+      }
+      return BinaryReader.this.resolveClass(name);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package no.mnemonic.act.platform.api.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static no.mnemonic.act.platform.api.serializer.BinaryFormat.*;
+
+/**
+ * Encodes one message into the binary format described in {@link BinaryFormat}. An instance must only be used for
+ * one message because it keeps the string and class tables of that message. As with XStream the white-list is only
+ * enforced when decoding, but classes from the Java platform without dedicated encoding are rejected.
+ */
+class BinaryWriter {
+
+  private final DataOutputStream out;
+  private final Map<String, Integer> strings = new HashMap<>();
+  private final Map<Class<?>, Integer> classes = new HashMap<>();
+  // Instances written so far, used to write repeated instances (including cycles) as references.
+  private final Map<Object, Integer> references = new IdentityHashMap<>();
+
+  BinaryWriter(DataOutputStream out) {
+    this.out = out;
+  }
+
+  void writeHeader(int version) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeByte(version);
+  }
+
+  void writeValue(Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(TAG_NULL);
+    } else if (value instanceof String) {
+      writeString((String) value);
+    } else if (value instanceof UUID) {
+      out.writeByte(TAG_UUID);
+      out.writeLong(((UUID) value).getMostSignificantBits());
+      out.writeLong(((UUID) value).getLeastSignificantBits());
+    } else if (value instanceof Boolean) {
+      out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+    } else if (value instanceof Integer) {
+      out.writeByte(TAG_INT);
+      writeVarLong(zigZag((Integer) value));
+    } else if (value instanceof Long) {
+      out.writeByte(TAG_LONG);
+      writeVarLong(zigZag((Long) value));
+    } else if (value instanceof Float) {
+      out.writeByte(TAG_FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(TAG_DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Short) {
+      out.writeByte(TAG_SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(TAG_BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof Character) {
+      out.writeByte(TAG_CHAR);
+      out.writeChar((Character) value);
+    } else if (value instanceof Enum) {
+      writeEnum((Enum<?>) value);
+    } else if (value instanceof byte[]) {
+      out.writeByte(TAG_BYTES);
+      writeVarInt(((byte[]) value).length);
+      out.write((byte[]) value);
+    } else if (writeReference(value)) {
+      // Instance has been written before.
+    } else if (value instanceof Object[]) {
+      writeArray((Object[]) value);
+    } else if (value instanceof List) {
+      writeCollection(TAG_LIST, (Collection<?>) value);
+    } else if (value instanceof Set) {
+      writeCollection(TAG_SET, (Collection<?>) value);
+    } else if (value instanceof Collection) {
+      writeCollection(TAG_LIST, (Collection<?>) value);
+    } else if (value instanceof Map) {
+      writeMap((Map<?, ?>) value);
+    } else if (value instanceof Throwable) {
+      writeThrowable((Throwable) value);
+    } else {
+      writeObject(value);
+    }
+  }
+
+  private boolean writeReference(Object value) throws IOException {
+    // Throwables are encoded separately with Java serialization, which tracks identities itself.
+    if (value instanceof Throwable) return false;
+
+    Integer index = references.get(value);
+    if (index == null) {
+      // Number the instance before writing its content such that content referring back to it becomes a reference.
+      references.put(value, references.size());
+      return false;
+    }
+
+    out.writeByte(TAG_REFERENCE);
+    writeVarInt(index);
+    return true;
+  }
+
+  private void writeString(String value) throws IOException {
+    Integer index = strings.get(value);
+    if (index != null) {
+      out.writeByte(TAG_STRING_REF);
+      writeVarInt(index);
+      return;
+    }
+
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeByte(TAG_STRING);
+    writeVarInt(bytes.length);
+    out.write(bytes);
+    if (bytes.length <= MAX_INTERNED_STRING_LENGTH) {
+      strings.put(value, strings.size());
+    }
+  }
+
+  private void writeEnum(Enum<?> value) throws IOException {
+    Class<?> type = value.getDeclaringClass();
+    checkEncodable(type);
+    out.writeByte(TAG_ENUM);
+    writeString(type.getName());
+    writeString(value.name());
+  }
+
+  private void writeArray(Object[] value) throws IOException {
+    Class<?> componentType = value.getClass().getComponentType();
+    if (componentType != Object.class && componentType != String.class && componentType != UUID.class) {
+      checkEncodable(componentType);
+    }
+
+    out.writeByte(TAG_ARRAY);
+    writeString(componentType.getName());
+    writeVarInt(value.length);
+    for (Object element : value) {
+      writeValue(element);
+    }
+  }
+
+  private void writeCollection(byte tag, Collection<?> value) throws IOException {
+    out.writeByte(tag);
+    writeVarInt(value.size());
+    for (Object element : value) {
+      writeValue(element);
+    }
+  }
+
+  private void writeMap(Map<?, ?> value) throws IOException {
+    out.writeByte(TAG_MAP);
+    writeVarInt(value.size());
+    for (Map.Entry<?, ?> entry : value.entrySet()) {
+      writeValue(entry.getKey());
+      writeValue(entry.getValue());
+    }
+  }
+
+  private void writeThrowable(Throwable value) throws IOException {
+    // Throwables keep their state in private fields of java.lang.Throwable which cannot be accessed reflectively on
+    // newer Java versions. They are rare compared to regular responses, thus, fall back to Java serialization.
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+      stream.writeObject(value);
+    }
+
+    out.writeByte(TAG_THROWABLE);
+    writeVarInt(bytes.size());
+    bytes.writeTo(out);
+  }
+
+  private void writeObject(Object value) throws IOException {
+    Class<?> type = value.getClass();
+    checkEncodable(type);
+
+    ClassLayout layout;
+    try {
+      layout = ClassLayout.of(type);
+    } catch (RuntimeException ex) {
+      throw new IOException(String.format("Could not encode instance of class %s.", type.getName()), ex);
+    }
+
+    out.writeByte(TAG_OBJECT);
+    Integer index = classes.get(type);
+    if (index != null) {
+      writeVarInt(index + 1);
+    } else {
+      // Zero marks that the class layout follows, i.e. the class name and the names of all encoded fields.
+      writeVarInt(0);
+      writeString(type.getName());
+      writeVarInt(layout.getFieldNames().size());
+      for (String name : layout.getFieldNames()) {
+        writeString(name);
+      }
+      classes.put(type, classes.size());
+    }
+
+    for (Field field : layout.getFields()) {
+      try {
+        writeValue(field.get(value));
+      } catch (IllegalAccessException ex) {
+        throw new IOException(String.format("Could not read field %s of class %s.", field.getName(), type.getName()), ex);
+      }
+    }
+  }
+
+  private void checkEncodable(Class<?> type) throws IOException {
+    if (ClassLayout.isPlatformClass(type)) {
+      throw new IOException(String.format("Encoding instances of class %s is not supported.", type.getName()));
+    }
+  }
+
+  private void writeVarInt(int value) throws IOException {
+    writeVarLong(value & 0xFFFFFFFFL);
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+}
@@ -0,0 +1,226 @@
+package no.mnemonic.act.platform.api.serializer;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes how instances of a class are encoded by the {@link BinaryMessageSerializer}, i.e. which fields are written
+ * and how instances are created when decoding. Layouts are computed once per class and cached.
+ */
+class ClassLayout {
+
+  private static final Map<Class<?>, ClassLayout> CACHE = new ConcurrentHashMap<>();
+
+  private final Class<?> type;
+  private final List<String> fieldNames;
+  private final List<Field> fields;
+  private final Map<String, Field> fieldsByName;
+  private final Instantiator instantiator;
+
+  private ClassLayout(Class<?> type) {
+    this.type = type;
+
+    List<Field> declaredFields = new ArrayList<>();
+    collectFields(type, declaredFields);
+
+    List<String> names = new ArrayList<>();
+    Map<String, Field> byName = new LinkedHashMap<>();
+    for (Field field : declaredFields) {
+      // A subclass can hide a field of its superclass, qualify the hidden field by its declaring class.
+      String name = byName.containsKey(field.getName()) ? field.getDeclaringClass().getName() + "." + field.getName() : field.getName();
+      field.setAccessible(true);
+      names.add(name);
+      byName.put(name, field);
+    }
+
+    this.fieldNames = Collections.unmodifiableList(names);
+    this.fields = Collections.unmodifiableList(new ArrayList<>(byName.values()));
+    this.fieldsByName = Collections.unmodifiableMap(byName);
+    this.instantiator = resolveInstantiator(type);
+  }
+
+  /**
+   * Returns the layout of a class.
+   *
+   * @param type Class to encode or decode
+   * @return Layout of class
+   */
+  static ClassLayout of(Class<?> type) {
+    return CACHE.computeIfAbsent(type, ClassLayout::new);
+  }
+
+  Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Returns the names of all encoded fields in the order they are written.
+   *
+   * @return Names of encoded fields
+   */
+  List<String> getFieldNames() {
+    return fieldNames;
+  }
+
+  /**
+   * Returns all encoded fields in the same order as {@link #getFieldNames()}.
+   *
+   * @return Encoded fields
+   */
+  List<Field> getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns the field with the given name, or null if the class doesn't have such a field (anymore).
+   *
+   * @param name Name of field as returned by {@link #getFieldNames()}
+   * @return Field or null
+   */
+  Field getField(String name) {
+    return fieldsByName.get(name);
+  }
+
+  /**
+   * Creates a new instance without decoded field values. Fields are populated afterwards from the decoded values.
+   * <p>
+   * Instances are created in the first applicable way:
+   * <ol>
+   * <li>Using the no-argument constructor of the class.</li>
+   * <li>If the class is {@link Serializable}, the same way as Java serialization does, i.e. without invoking any
+   * constructor of the class itself (see {@link ObjectStreamClass}).</li>
+   * <li>Using the constructor with the fewest parameters, invoked with default values (null, zero or false) for all
+   * parameters. This applies to the immutable model classes whose private constructors only assign their fields.</li>
+   * </ol>
+   *
+   * @return New instance
+   * @throws ReflectiveOperationException If the instance cannot be created
+   * @throws IOException                  If the instance cannot be created from its serialized form
+   */
+  Object newInstance() throws ReflectiveOperationException, IOException {
+    return instantiator.newInstance();
+  }
+
+  private static void collectFields(Class<?> type, List<Field> fields) {
+    if (type == null || type == Object.class) return;
+    if (isPlatformClass(type)) {
+      throw new IllegalArgumentException(String.format("Class %s cannot be encoded.", type.getName()));
+    }
+
+    // Fields of superclasses first, then fields of the class itself.
+    collectFields(type.getSuperclass(), fields);
+    for (Field field : type.getDeclaredFields()) {
+      int modifiers = field.getModifiers();
+      if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+      fields.add(field);
+    }
+  }
+
+  private static Instantiator resolveInstantiator(Class<?> type) {
+    if (Modifier.isAbstract(type.getModifiers())) {
+      throw new IllegalArgumentException(String.format("Abstract class %s cannot be instantiated.", type.getName()));
+    }
+
+    try {
+      Constructor<?> noArgs = type.getDeclaredConstructor();
+      noArgs.setAccessible(true);
+      return noArgs::newInstance;
+    } catch (NoSuchMethodException ignored) {
+      // Try the other ways to create instances.
+    }
+
+    if (Serializable.class.isAssignableFrom(type)) {
+      return new SerializationInstantiator(type);
+    }
+
+    Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+            .filter(candidate -> !candidate.isSynthetic())
+            .min(Comparator.comparingInt(Constructor::getParameterCount))
+            .orElseThrow(() -> new IllegalArgumentException(String.format("Class %s does not have any constructor.", type.getName())));
+    constructor.setAccessible(true);
+    Object[] arguments = Arrays.stream(constructor.getParameterTypes())
+            .map(ClassLayout::defaultValue)
+            .toArray();
+    return () -> constructor.newInstance(arguments);
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (!type.isPrimitive()) return null;
+    if (type == boolean.class) return false;
+    if (type == char.class) return '\0';
+    if (type == byte.class) return (byte) 0;
+    if (type == short.class) return (short) 0;
+    if (type == int.class) return 0;
+    if (type == long.class) return 0L;
+    if (type == float.class) return 0f;
+    return 0d;
+  }
+
+  static boolean isPlatformClass(Class<?> type) {
+    return isPlatformClass(type.getName());
+  }
+
+  static boolean isPlatformClass(String name) {
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("jdk.");
+  }
+
+  @FunctionalInterface
+  private interface Instantiator {
+    Object newInstance() throws ReflectiveOperationException, IOException;
+  }
+
+  /**
+   * Creates instances of a {@link Serializable} class by reading a serialized instance without any field values.
+   * Java serialization only invokes the no-argument constructor of the first non-serializable superclass, thus, the
+   * constructor of the class itself (which might validate its arguments) isn't invoked.
+   */
+  private static class SerializationInstantiator implements Instantiator {
+    private final Class<?> type;
+    private final byte[] emptyInstance;
+
+    private SerializationInstantiator(Class<?> type) {
+      this.type = type;
+      this.emptyInstance = createEmptyInstance(type);
+    }
+
+    @Override
+    public Object newInstance() throws ReflectiveOperationException, IOException {
+      try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(emptyInstance)) {
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+          // The stream only contains the class itself which has already been resolved.
+          if (type.getName().equals(desc.getName())) return type;
+          throw new InvalidClassException(desc.getName(), "Unexpected class in serialized instance.");
+        }
+      }) {
+        return stream.readObject();
+      }
+    }
+
+    private static byte[] createEmptyInstance(Class<?> type) {
+      ObjectStreamClass descriptor = ObjectStreamClass.lookup(type);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        // Serialized form of an instance whose class descriptor doesn't declare any fields, see the Java Object
+        // Serialization Specification. All fields are left at their default values when reading it.
+        out.writeShort(ObjectStreamConstants.STREAM_MAGIC);
+        out.writeShort(ObjectStreamConstants.STREAM_VERSION);
+        out.writeByte(ObjectStreamConstants.TC_OBJECT);
+        out.writeByte(ObjectStreamConstants.TC_CLASSDESC);
+        out.writeUTF(type.getName());
+        out.writeLong(descriptor.getSerialVersionUID());
+        out.writeByte(ObjectStreamConstants.SC_SERIALIZABLE);
+        out.writeShort(0);
+        out.writeByte(ObjectStreamConstants.TC_ENDBLOCKDATA);
+        out.writeByte(ObjectStreamConstants.TC_NULL);
+      } catch (IOException ex) {
+        throw new IllegalStateException(String.format("Could not create serialized form of class %s.", type.getName()), ex);
+      }
+      return bytes.toByteArray();
+    }
+  }
+}
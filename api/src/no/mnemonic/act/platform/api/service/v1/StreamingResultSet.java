@@ -5,12 +5,17 @@ import no.mnemonic.services.common.api.ResultSet;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.function.Supplier;
 
 /**
  * The {@link ResultSet} is a general container holding the values returned from a service method. When a service method
  * produces multiple results, these results are transported to the REST layer wrapped inside a {@link ResultSet}.
  * <p>
  * {@link StreamingResultSet} is a {@link ResultSet} implementation which allows streaming of results to the REST layer.
+ * <p>
+ * A {@link StreamingResultSet} can optionally provide a cursor which resumes the search after the last streamed result.
+ * The cursor is only transported in-process, i.e. it is lost when the {@link ResultSet} is transported between service
+ * and REST layer via the service messaging bus.
  *
  * @param <T> Type of result values
  */
@@ -20,12 +25,14 @@ public class StreamingResultSet<T> implements ResultSet<T> {
   private final int count;
   private final int offset;
   private final Iterator<T> values;
+  private final Supplier<String> nextCursor;
 
-  private StreamingResultSet(int limit, int count, int offset, Iterator<T> values) {
+  private StreamingResultSet(int limit, int count, int offset, Iterator<T> values, Supplier<String> nextCursor) {
     this.limit = limit;
     this.count = count;
     this.offset = offset;
     this.values = ObjectUtils.ifNull(values, Collections.emptyIterator());
+    this.nextCursor = ObjectUtils.ifNull(nextCursor, () -> () -> null);
   }
 
   @Override
@@ -48,6 +55,16 @@ public class StreamingResultSet<T> implements ResultSet<T> {
     return values;
   }
 
+  /**
+   * Returns the cursor which resumes the search after the last result returned by {@link #iterator()}. It is only
+   * complete after all values have been consumed.
+   *
+   * @return Cursor of next result, or NULL if the search can't be resumed
+   */
+  public String getNextCursor() {
+    return nextCursor.get();
+  }
+
   public static <T> Builder<T> builder() {
     return new Builder<>();
   }
@@ -57,12 +74,13 @@ public class StreamingResultSet<T> implements ResultSet<T> {
     private int count;
     private int offset;
     private Iterator<T> values;
+    private Supplier<String> nextCursor;
 
     private Builder() {
     }
 
     public StreamingResultSet<T> build() {
-      return new StreamingResultSet<>(limit, count, offset, values);
+      return new StreamingResultSet<>(limit, count, offset, values, nextCursor);
     }
 
     public Builder<T> setLimit(int limit) {
@@ -89,6 +107,11 @@ public class StreamingResultSet<T> implements ResultSet<T> {
       this.values = ObjectUtils.ifNotNull(values, Iterable::iterator);
       return this;
     }
+
+    public Builder<T> setNextCursor(Supplier<String> nextCursor) {
+      this.nextCursor = nextCursor;
+      return this;
+    }
   }
 
 }
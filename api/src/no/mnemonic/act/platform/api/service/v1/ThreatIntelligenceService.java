@@ -242,6 +242,26 @@ public interface ThreatIntelligenceService extends Service {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Import multiple new Facts at once. Each Fact is handled in the same way as in
+   * {@link #createFact(RequestHeader, CreateFactRequest)}, i.e. an existing Fact is refreshed instead of creating a
+   * duplicate, but the Facts are written in batches.
+   * <p>
+   * Facts which cannot be imported, e.g. because of an invalid value or missing permissions, don't fail the whole
+   * request. Instead, the outcome is reported per Fact in the returned result.
+   *
+   * @param rh      Contains meta data about the request.
+   * @param request Request containing new Facts.
+   * @return One result per imported Fact.
+   * @throws AccessDeniedException         If the user is not allowed to perform this operation.
+   * @throws AuthenticationFailedException If the user could not be authenticated.
+   * @throws InvalidArgumentException      If the request contains invalid parameters.
+   */
+  default ResultSet<FactImportResult> importFacts(RequestHeader rh, ImportFactsRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Fetch meta Facts bound to another Fact.
    *
@@ -0,0 +1,47 @@
+package no.mnemonic.act.platform.api.model.v1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FactImportResultTest {
+
+  private static final ObjectMapper mapper = JsonMapper.builder().build();
+
+  @Test
+  public void testEncodeCreatedFactImportResult() {
+    FactImportResult result = FactImportResult.builder()
+            .setIndex(3)
+            .setStatus(FactImportResult.Status.Created)
+            .setFact(Fact.builder().setId(UUID.randomUUID()).setValue("value").build().toInfo())
+            .build();
+
+    JsonNode root = mapper.valueToTree(result);
+    assertEquals(3, root.get("index").intValue());
+    assertEquals("Created", root.get("status").textValue());
+    assertTrue(root.get("fact").isObject());
+    assertEquals(result.getFact().getId().toString(), root.get("fact").get("id").textValue());
+    assertTrue(root.get("error").isNull());
+  }
+
+  @Test
+  public void testEncodeFailedFactImportResult() {
+    FactImportResult result = FactImportResult.builder()
+            .setIndex(1)
+            .setStatus(FactImportResult.Status.Failed)
+            .setError("error")
+            .build();
+
+    JsonNode root = mapper.valueToTree(result);
+    assertEquals(1, root.get("index").intValue());
+    assertEquals("Failed", root.get("status").textValue());
+    assertTrue(root.get("fact").isNull());
+    assertEquals("error", root.get("error").textValue());
+  }
+
+}
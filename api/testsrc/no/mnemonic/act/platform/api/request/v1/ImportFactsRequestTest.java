@@ -0,0 +1,64 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import org.junit.Test;
+
+import javax.validation.ConstraintViolation;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ImportFactsRequestTest extends AbstractRequestTest {
+
+  @Test
+  public void testDecodeRequest() throws Exception {
+    String json = "{" +
+            "facts : [" +
+            "  { type : 'first', value : 'value', sourceObject : 'type/first' }," +
+            "  { type : 'second', value : 'value', destinationObject : 'type/second' }" +
+            "]" +
+            "}";
+
+    ImportFactsRequest request = getMapper().readValue(json, ImportFactsRequest.class);
+    assertEquals(2, request.getFacts().size());
+    assertEquals("first", request.getFacts().get(0).getType());
+    assertEquals("type/first", request.getFacts().get(0).getSourceObject());
+    assertEquals("second", request.getFacts().get(1).getType());
+    assertEquals("type/second", request.getFacts().get(1).getDestinationObject());
+  }
+
+  @Test
+  public void testRequestValidationFailsOnNull() {
+    Set<ConstraintViolation<ImportFactsRequest>> violations = getValidator().validate(new ImportFactsRequest());
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "facts");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnTooManyFacts() {
+    ImportFactsRequest request = new ImportFactsRequest();
+    for (int i = 0; i <= ImportFactsRequest.MAX_FACTS; i++) {
+      request.addFact(new CreateFactRequest().setType("type"));
+    }
+
+    Set<ConstraintViolation<ImportFactsRequest>> violations = getValidator().validate(request);
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "facts");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnInvalidFact() {
+    Set<ConstraintViolation<ImportFactsRequest>> violations = getValidator().validate(new ImportFactsRequest()
+            .addFact(new CreateFactRequest().setType("type"))
+            .addFact(new CreateFactRequest()));
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "type");
+  }
+
+  @Test
+  public void testRequestValidationSucceeds() {
+    assertTrue(getValidator().validate(new ImportFactsRequest()
+            .addFact(new CreateFactRequest().setType("type"))
+    ).isEmpty());
+  }
+}
@@ -33,7 +33,8 @@ public class SearchFactRequestTest extends AbstractRequestTest {
             "includeRetracted : true," +
             "before : '2016-11-30T15:47:00Z'," +
             "after : '2016-11-30T15:47:01Z'," +
-            "limit : 25" +
+            "limit : 25," +
+            "cursor : '*'" +
             "}", objectID, factID);
 
     SearchFactRequest request = getMapper().readValue(json, SearchFactRequest.class);
@@ -53,6 +54,7 @@ public class SearchFactRequestTest extends AbstractRequestTest {
     assertEquals(1480520820000L, request.getBefore().longValue());
     assertEquals(1480520821000L, request.getAfter().longValue());
     assertEquals(25, request.getLimit().intValue());
+    assertEquals("*", request.getCursor());
   }
 
   @Test
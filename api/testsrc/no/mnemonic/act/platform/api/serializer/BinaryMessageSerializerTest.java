@@ -0,0 +1,307 @@
+package no.mnemonic.act.platform.api.serializer;
+
+import no.mnemonic.act.platform.api.exceptions.*;
+import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.service.v1.RequestHeader;
+import no.mnemonic.messaging.requestsink.Message;
+import no.mnemonic.messaging.requestsink.jms.ExceptionMessage;
+import no.mnemonic.messaging.requestsink.jms.IllegalDeserializationException;
+import no.mnemonic.messaging.requestsink.jms.serializer.DefaultJavaMessageSerializer;
+import no.mnemonic.services.common.auth.model.Credentials;
+import no.mnemonic.services.common.messagebus.ServiceRequestMessage;
+import no.mnemonic.services.common.messagebus.ServiceResponseValueMessage;
+import no.mnemonic.services.common.messagebus.ServiceStreamingResultSetResponseMessage;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.*;
+import java.net.URISyntaxException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class BinaryMessageSerializerTest {
+
+  private static final String REQUEST_PACKAGE = "no.mnemonic.act.platform.api.request.v1";
+  private static final String MODEL_PACKAGE = "no.mnemonic.act.platform.api.model.v1";
+
+  private final BinaryMessageSerializer serverSerializer = BinaryMessageSerializer.builder()
+          .addAllowedClass(ServiceRequestMessage.class)
+          .addAllowedClass(RequestHeader.class)
+          .addAllowedClass(TestCredentials.class)
+          .addAllowedClass("no.mnemonic.act.platform.api.request.*")
+          .build();
+  private final BinaryMessageSerializer clientSerializer = BinaryMessageSerializer.builder()
+          .addAllowedClass(ServiceResponseValueMessage.class)
+          .addAllowedClass(ServiceStreamingResultSetResponseMessage.class)
+          .addAllowedClass(ExceptionMessage.class)
+          .addAllowedClass(TestNode.class)
+          .addAllowedClass("no.mnemonic.act.platform.api.model.*")
+          .addAllowedClass("no.mnemonic.act.platform.api.exceptions.*")
+          .build();
+
+  private int counter;
+
+  @Test
+  public void testSerializerIdContainsVersion() {
+    assertEquals("ACT-BINARY-V" + BinaryMessageSerializer.VERSION, serverSerializer.serializerID());
+  }
+
+  @Test
+  public void testRoundTripAllRequestClasses() throws Exception {
+    List<Class<?>> requestClasses = listClasses(REQUEST_PACKAGE);
+    assertFalse(requestClasses.isEmpty());
+
+    for (Class<?> requestClass : requestClasses) {
+      ServiceRequestMessage message = createRequestMessage(createInstance(requestClass, 0));
+      ServiceRequestMessage decoded = clientSerializeServerDeserialize(message);
+      assertDeepEquals(requestClass.getName(), message, decoded);
+    }
+  }
+
+  @Test
+  public void testRoundTripAllModelClasses() throws Exception {
+    List<Class<?>> modelClasses = listClasses(MODEL_PACKAGE);
+    assertFalse(modelClasses.isEmpty());
+
+    for (Class<?> modelClass : modelClasses) {
+      ServiceResponseValueMessage message = ServiceResponseValueMessage.create("callID", createInstance(modelClass, 0));
+      ServiceResponseValueMessage decoded = serverSerializeClientDeserialize(message);
+      assertDeepEquals(modelClass.getName(), message, decoded);
+    }
+  }
+
+  @Test
+  public void testRoundTripStreamingResultSetResponse() throws Exception {
+    ServiceStreamingResultSetResponseMessage message = createStreamingResponse(100);
+    ServiceStreamingResultSetResponseMessage decoded = serverSerializeClientDeserialize(message);
+
+    assertEquals(message.getCount(), decoded.getCount());
+    assertEquals(message.getIndex(), decoded.getIndex());
+    assertEquals(message.isLastMessage(), decoded.isLastMessage());
+    assertDeepEquals("batch", message.getBatch(), decoded.getBatch());
+  }
+
+  @Test
+  public void testRoundTripExceptions() throws Exception {
+    List<Throwable> exceptions = Arrays.asList(
+            new AccessDeniedException("denied"),
+            new AuthenticationFailedException("failed"),
+            new InvalidArgumentException().addValidationError("message", "template", "property", "value"),
+            new ObjectNotFoundException("message", "template", "property", "value"),
+            new OperationTimeoutException("message", "template"),
+            new UnexpectedAuthenticationFailedException("unexpected"),
+            new IllegalStateException("platform exception")
+    );
+
+    for (Throwable exception : exceptions) {
+      ExceptionMessage decoded = serverSerializeClientDeserialize(new ExceptionMessage("callID", exception));
+      assertEquals("callID", decoded.getCallID());
+      assertSame(exception.getClass(), decoded.getException().getClass());
+      assertEquals(exception.getMessage(), decoded.getException().getMessage());
+    }
+
+    InvalidArgumentException decoded = (InvalidArgumentException) this.<ExceptionMessage>serverSerializeClientDeserialize(
+            new ExceptionMessage("callID", new InvalidArgumentException().addValidationError("message", "template", "property", "value")))
+            .getException();
+    assertEquals(1, decoded.getValidationErrors().size());
+    assertEquals("property", decoded.getValidationErrors().iterator().next().getProperty());
+  }
+
+  @Test
+  public void testRoundTripSharedInstances() throws Exception {
+    TestNode shared = new TestNode();
+    TestNode root = new TestNode();
+    root.next = shared;
+    root.children.add(shared);
+
+    ServiceResponseValueMessage decoded = serverSerializeClientDeserialize(ServiceResponseValueMessage.create("callID", root));
+    TestNode decodedRoot = (TestNode) decoded.getReturnValue();
+    assertSame(decodedRoot.next, decodedRoot.children.get(0));
+  }
+
+  @Test
+  public void testRoundTripCyclicObjectGraph() throws Exception {
+    TestNode first = new TestNode();
+    TestNode second = new TestNode();
+    first.next = second;
+    second.next = first;
+    // A collection containing itself.
+    first.children.add(first.children);
+
+    ServiceResponseValueMessage decoded = serverSerializeClientDeserialize(ServiceResponseValueMessage.create("callID", first));
+    TestNode decodedFirst = (TestNode) decoded.getReturnValue();
+    assertSame(decodedFirst, decodedFirst.next.next);
+    assertSame(decodedFirst.children, decodedFirst.children.get(0));
+  }
+
+  @Test
+  public void testSerializeUnsupportedPlatformClassFails() {
+    ServiceResponseValueMessage message = ServiceResponseValueMessage.create("callID", new Date());
+    assertThrows(java.io.IOException.class, () -> serverSerializer.serialize(message));
+  }
+
+  @Test
+  public void testDeserializeNotAllowedClassFails() throws Exception {
+    byte[] bytes = serverSerializer.serialize(createRequestMessage(RequestHeader.builder().build()));
+    assertThrows(IllegalDeserializationException.class, () -> clientSerializer.deserialize(bytes, getClass().getClassLoader()));
+  }
+
+  @Test
+  public void testDeserializeUnsupportedVersionFails() throws Exception {
+    byte[] bytes = serverSerializer.serialize(ServiceResponseValueMessage.create("callID", "value"));
+    bytes[4] = (byte) (BinaryMessageSerializer.VERSION + 1);
+    assertThrows(IllegalDeserializationException.class, () -> clientSerializer.deserialize(bytes, getClass().getClassLoader()));
+  }
+
+  @Test
+  public void testDeserializeOtherEncodingFails() throws Exception {
+    byte[] bytes = new DefaultJavaMessageSerializer().serialize(ServiceResponseValueMessage.create("callID", "value"));
+    assertThrows(IllegalDeserializationException.class, () -> clientSerializer.deserialize(bytes, getClass().getClassLoader()));
+  }
+
+  @Test
+  public void testDeserializeTruncatedMessageFails() throws Exception {
+    byte[] bytes = serverSerializer.serialize(createStreamingResponse(10));
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+    assertThrows(java.io.IOException.class, () -> clientSerializer.deserialize(truncated, getClass().getClassLoader()));
+  }
+
+  private <T extends Message> T clientSerializeServerDeserialize(Message message) throws Exception {
+    byte[] bytes = clientSerializer.serialize(message);
+    return serverSerializer.deserialize(bytes, getClass().getClassLoader());
+  }
+
+  private <T extends Message> T serverSerializeClientDeserialize(Message message) throws Exception {
+    byte[] bytes = serverSerializer.serialize(message);
+    return clientSerializer.deserialize(bytes, getClass().getClassLoader());
+  }
+
+  private ServiceRequestMessage createRequestMessage(java.lang.Object request) throws Exception {
+    // The builder of ServiceRequestMessage isn't public, populate the fields the same way as the serializer does.
+    ClassLayout layout = ClassLayout.of(ServiceRequestMessage.class);
+    ServiceRequestMessage message = (ServiceRequestMessage) layout.newInstance();
+    layout.getField("messageTimestamp").set(message, 123456789L);
+    layout.getField("requestID").set(message, UUID.randomUUID().toString());
+    layout.getField("serviceName").set(message, "ThreatIntelligenceService");
+    layout.getField("methodName").set(message, "method");
+    layout.getField("argumentTypes").set(message, new String[]{RequestHeader.class.getName(), request.getClass().getName()});
+    layout.getField("arguments").set(message, new java.lang.Object[]{RequestHeader.builder().setCredentials(new TestCredentials()).build(), request});
+    return message;
+  }
+
+  private ServiceStreamingResultSetResponseMessage createStreamingResponse(int batchSize) throws Exception {
+    List<java.lang.Object> batch = new ArrayList<>();
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(createInstance(Fact.class, 0));
+    }
+    return ServiceStreamingResultSetResponseMessage.builder()
+            .setRequestID("callID")
+            .setCount(batchSize)
+            .build(0, batch, true);
+  }
+
+  private java.lang.Object createInstance(Class<?> type, int depth) throws Exception {
+    ClassLayout layout = ClassLayout.of(type);
+    java.lang.Object instance = layout.newInstance();
+    for (Field field : layout.getFields()) {
+      field.set(instance, createValue(field.getGenericType(), depth));
+    }
+    return instance;
+  }
+
+  private java.lang.Object createValue(Type type, int depth) throws Exception {
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      Class<?> raw = (Class<?>) parameterized.getRawType();
+      Type[] arguments = parameterized.getActualTypeArguments();
+      if (Map.class.isAssignableFrom(raw)) {
+        Map<java.lang.Object, java.lang.Object> map = new HashMap<>();
+        map.put(createValue(arguments[0], depth), createValue(arguments[1], depth));
+        return map;
+      }
+      Collection<java.lang.Object> collection = Set.class.isAssignableFrom(raw) ? new HashSet<>() : new ArrayList<>();
+      collection.add(createValue(arguments[0], depth));
+      return collection;
+    }
+
+    Class<?> clazz = (Class<?>) type;
+    if (clazz == String.class) return "value" + counter++;
+    if (clazz == UUID.class) return UUID.randomUUID();
+    if (clazz == Long.class || clazz == long.class) return 1_600_000_000_000L + counter++;
+    if (clazz == Integer.class || clazz == int.class) return counter++;
+    if (clazz == Float.class || clazz == float.class) return 0.5f;
+    if (clazz == Boolean.class || clazz == boolean.class) return true;
+    if (clazz.isEnum()) return clazz.getEnumConstants()[counter++ % clazz.getEnumConstants().length];
+    if (clazz == Credentials.class) return new TestCredentials();
+    if (clazz.getName().startsWith("no.mnemonic.act.platform.api.")) {
+      return depth < 3 ? createInstance(clazz, depth + 1) : null;
+    }
+    throw new IllegalArgumentException("Unsupported type in test: " + type);
+  }
+
+  private void assertDeepEquals(String path, java.lang.Object expected, java.lang.Object actual) throws Exception {
+    if (expected == null || actual == null) {
+      assertSame(path, expected, actual);
+    } else if (expected instanceof Collection) {
+      assertTrue(path, actual instanceof Collection);
+      List<?> expectedElements = new ArrayList<>((Collection<?>) expected);
+      List<?> actualElements = new ArrayList<>((Collection<?>) actual);
+      assertEquals(path, expectedElements.size(), actualElements.size());
+      for (int i = 0; i < expectedElements.size(); i++) {
+        assertDeepEquals(path + "[" + i + "]", expectedElements.get(i), actualElements.get(i));
+      }
+    } else if (expected instanceof Map) {
+      assertEquals(path, ((Map<?, ?>) expected).keySet(), ((Map<?, ?>) actual).keySet());
+      for (java.lang.Object key : ((Map<?, ?>) expected).keySet()) {
+        assertDeepEquals(path + "[" + key + "]", ((Map<?, ?>) expected).get(key), ((Map<?, ?>) actual).get(key));
+      }
+    } else if (expected.getClass().isArray()) {
+      assertEquals(path, expected.getClass(), actual.getClass());
+      assertEquals(path, Array.getLength(expected), Array.getLength(actual));
+      for (int i = 0; i < Array.getLength(expected); i++) {
+        assertDeepEquals(path + "[" + i + "]", Array.get(expected, i), Array.get(actual, i));
+      }
+    } else if (expected.getClass().getName().startsWith("java.") || expected instanceof Enum) {
+      assertEquals(path, expected, actual);
+    } else {
+      assertSame(path, expected.getClass(), actual.getClass());
+      ClassLayout layout = ClassLayout.of(expected.getClass());
+      for (Field field : layout.getFields()) {
+        assertDeepEquals(path + "." + field.getName(), field.get(expected), field.get(actual));
+      }
+    }
+  }
+
+  private static List<Class<?>> listClasses(String packageName) throws URISyntaxException, ClassNotFoundException {
+    File directory = new File(BinaryMessageSerializerTest.class.getClassLoader()
+            .getResource(packageName.replace('.', '/')).toURI());
+
+    List<Class<?>> classes = new ArrayList<>();
+    for (String file : Objects.requireNonNull(directory.list())) {
+      if (!file.endsWith(".class")) continue;
+      Class<?> clazz = Class.forName(packageName + "." + file.substring(0, file.length() - ".class".length()));
+      // Builders, enums and synthetic classes are not transmitted on their own.
+      if (clazz.isInterface() || clazz.isEnum() || clazz.isAnonymousClass() || clazz.isSynthetic()) continue;
+      if (Modifier.isAbstract(clazz.getModifiers()) || clazz.getSimpleName().equals("Builder")) continue;
+      classes.add(clazz);
+    }
+    return classes.stream()
+            .sorted(Comparator.comparing(Class::getName))
+            .collect(Collectors.toList());
+  }
+
+  public static class TestCredentials implements Credentials {
+    private final long subjectID = 42;
+
+    public long getSubjectID() {
+      return subjectID;
+    }
+  }
+
+  public static class TestNode {
+    private TestNode next;
+    private final List<java.lang.Object> children = new ArrayList<>();
+  }
+}
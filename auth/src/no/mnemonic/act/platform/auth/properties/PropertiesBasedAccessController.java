@@ -83,7 +83,7 @@ public class PropertiesBasedAccessController implements AccessController, Organi
     Set<PropertiesSubject> parents = state.get().getParentSubjects(subject.getInternalID());
 
     // Return subject itself and its parents.
-    return SetUtils.addToSet(parents, subject)
+    return SetUtils.addToSet(SetUtils.set(parents), subject)
             .stream()
             .map(s -> SubjectIdentifier.builder().setInternalID(s.getInternalID()).build())
             .collect(Collectors.toSet());
@@ -184,6 +184,8 @@ public class PropertiesBasedAccessController implements AccessController, Organi
   }
 
   private void readPropertiesFile() {
+    // Build and compile the complete new state before replacing the current state. Concurrent requests will either
+    // see the old or the new state, but never a partially initialized state.
     PropertiesFileParser parser = new PropertiesFileParser();
     parser.parse(propertiesFile);
 
@@ -229,102 +231,18 @@ public class PropertiesBasedAccessController implements AccessController, Organi
   }
 
   private boolean hasPermission(PropertiesSubject subject, String requestedFunction) {
-    boolean found = false;
-
-    // Check permissions directly granted to requesting subject regardless of organization.
-    Set<String> grantedFunctions = subject.getPermissions()
-            .values()
-            .stream()
-            .flatMap(Collection::stream)
-            .collect(Collectors.toSet());
-    if (checkFunctionTree(grantedFunctions, requestedFunction)) {
-      found = true;
-    }
-
-    if (!found) {
-      // Check if permission was granted to any parent subject group of the requesting subject.
-      for (PropertiesSubject parent : state.get().getParentSubjects(subject.getInternalID())) {
-        if (hasPermission(parent, requestedFunction)) {
-          found = true;
-          break;
-        }
-      }
-    }
-
-    return found;
+    // Permissions are precomputed by AccessControllerState, including permissions inherited from
+    // parent subject groups and function groups.
+    return state.get().hasPermission(subject.getInternalID(), requestedFunction);
   }
 
   private boolean hasPermission(PropertiesSubject subject, String requestedFunction, long requestedOrganizationID) {
-    boolean found = false;
-
-    // Check permissions directly granted to requesting subject for the requested organization.
-    if (checkFunctionTree(subject.getPermissions().get(requestedOrganizationID), requestedFunction)) {
-      found = true;
-    }
-
-    if (!found) {
-      // Check if permission was granted to any parent organization group of the requested organization.
-      for (PropertiesOrganization parent : state.get().getParentOrganizations(requestedOrganizationID)) {
-        if (hasPermission(subject, requestedFunction, parent.getInternalID())) {
-          found = true;
-          break;
-        }
-      }
-    }
-
-    if (!found) {
-      // Check if permission was granted to any parent subject group of the requesting subject.
-      for (PropertiesSubject parent : state.get().getParentSubjects(subject.getInternalID())) {
-        if (hasPermission(parent, requestedFunction, requestedOrganizationID)) {
-          found = true;
-          break;
-        }
-      }
-    }
-
-    return found;
-  }
-
-  private boolean checkFunctionTree(Set<String> grantedFunctions, String requestedFunction) {
-    boolean found = false;
-
-    for (String grantedFunction : SetUtils.set(grantedFunctions)) {
-      if (grantedFunction.equals(requestedFunction)) {
-        // Found a function or function group granted to subject directly.
-        found = true;
-        break;
-      }
-
-      // If 'grantedFunction' is a group check child functions recursively.
-      // If 'group' isn't defined it will just be skipped (i.e. it's not a group but a single function).
-      PropertiesFunction group = state.get().getFunction(grantedFunction);
-      if (group != null && group.isGroup() && checkFunctionTree(PropertiesFunctionGroup.class.cast(group).getMembers(), requestedFunction)) {
-        // Found a function or function group granted to subject indirectly via resolved function tree.
-        found = true;
-        break;
-      }
-    }
-
-    return found;
+    // Additionally, permissions granted for parent organization groups apply to the requested organization.
+    return state.get().hasPermission(subject.getInternalID(), requestedFunction, requestedOrganizationID);
   }
 
   private Set<Long> resolveAvailableOrganizations(PropertiesSubject subject) {
-    // All organizations the subject has direct access to.
-    Set<Long> directAccessibleOrganizations = SetUtils.set(subject.getPermissions().keySet());
-
-    // All child organizations for the directly accessible organizations.
-    Set<Long> childOrganizations = SetUtils.set();
-    for (Long id : directAccessibleOrganizations) {
-      childOrganizations = SetUtils.union(childOrganizations, SetUtils.set(state.get().getChildOrganizations(id), PropertiesOrganization::getInternalID));
-    }
-
-    // Also resolve all organizations for all parent subject groups.
-    Set<Long> parentSubjectsOrganizations = SetUtils.set();
-    for (PropertiesSubject parent : state.get().getParentSubjects(subject.getInternalID())) {
-      parentSubjectsOrganizations = SetUtils.union(parentSubjectsOrganizations, resolveAvailableOrganizations(parent));
-    }
-
-    return SetUtils.union(directAccessibleOrganizations, childOrganizations, parentSubjectsOrganizations);
+    return state.get().getAvailableOrganizations(subject.getInternalID());
   }
 
   private Organization createOrganization(UUID id, String name) {
@@ -4,13 +4,15 @@ import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.MapUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Class holding the state of the AccessController implementation and providing helper methods to access the state.
+ * <p>
+ * The state is immutable. When it is created all group hierarchies (SubjectGroups, OrganizationGroups and
+ * FunctionGroups) are resolved once and the effective permissions of every Subject are precomputed. Because of that
+ * permission checks are simple lookups, and a new state should be created whenever the configuration changes.
  */
 public class AccessControllerState {
 
@@ -19,6 +21,13 @@ public class AccessControllerState {
   private final Map<String, PropertiesOrganization> organizationByNameMap;
   private final Map<Long, PropertiesSubject> subjectMap;
   private final Map<String, PropertiesSubject> subjectByNameMap;
+  // The following maps are computed once when the state is created such that lookups don't need to walk the group trees.
+  private final Map<Long, Set<PropertiesOrganization>> parentOrganizationsMap;
+  private final Map<Long, Set<PropertiesOrganization>> childOrganizationsMap;
+  private final Map<Long, Set<Long>> childOrganizationIDsMap;
+  private final Map<Long, Set<PropertiesSubject>> parentSubjectsMap;
+  private final Map<String, Set<String>> functionClosureMap;
+  private final Map<Long, CompiledPermissions> compiledPermissionsMap;
 
   private AccessControllerState(Map<String, PropertiesFunction> functionMap, Map<Long, PropertiesOrganization> organizationMap, Map<Long, PropertiesSubject> subjectMap) {
     this.functionMap = ObjectUtils.ifNotNull(functionMap, Collections::unmodifiableMap, Collections.emptyMap());
@@ -26,6 +35,12 @@ public class AccessControllerState {
     this.organizationByNameMap = Collections.unmodifiableMap(MapUtils.map(this.organizationMap.values(), o -> MapUtils.Pair.T(o.getName(), o)));
     this.subjectMap = ObjectUtils.ifNotNull(subjectMap, Collections::unmodifiableMap, Collections.emptyMap());
     this.subjectByNameMap = Collections.unmodifiableMap(MapUtils.map(this.subjectMap.values(), s -> MapUtils.Pair.T(s.getName(), s)));
+    this.parentOrganizationsMap = computeParentOrganizations();
+    this.childOrganizationIDsMap = computeChildOrganizationIDs();
+    this.childOrganizationsMap = toObjectMap(childOrganizationIDsMap, this.organizationMap);
+    this.parentSubjectsMap = computeParentSubjects();
+    this.functionClosureMap = computeFunctionClosures();
+    this.compiledPermissionsMap = compilePermissions();
   }
 
   /**
@@ -97,19 +112,7 @@ public class AccessControllerState {
    * @return Parent OrganizationGroups
    */
   public Set<PropertiesOrganization> getParentOrganizations(long internalID) {
-    // Resolve the direct parents of the organization identified by 'internalID'.
-    Set<PropertiesOrganization> parents = organizationMap.values().stream()
-            .filter(PropertiesOrganization::isGroup)
-            .map(PropertiesOrganizationGroup.class::cast)
-            .filter(o -> o.getMembers().contains(internalID))
-            .collect(Collectors.toSet());
-
-    // Also resolve the parents of parents recursively.
-    for (PropertiesOrganization parent : SetUtils.set(parents)) {
-      parents.addAll(getParentOrganizations(parent.getInternalID()));
-    }
-
-    return parents;
+    return parentOrganizationsMap.getOrDefault(internalID, Collections.emptySet());
   }
 
   /**
@@ -121,25 +124,7 @@ public class AccessControllerState {
    * @return Child Organizations
    */
   public Set<PropertiesOrganization> getChildOrganizations(long internalID) {
-    Set<PropertiesOrganization> children = SetUtils.set();
-
-    // Fetch organization identified by 'internalID'.
-    PropertiesOrganization organization = organizationMap.get(internalID);
-    if (organization == null || !organization.isGroup()) {
-      // No group, no children.
-      return children;
-    }
-
-    // Resolve all direct children and recursively their children.
-    for (Long id : PropertiesOrganizationGroup.class.cast(organization).getMembers()) {
-      PropertiesOrganization child = organizationMap.get(id);
-      if (child != null) {
-        children.add(child);
-        children.addAll(getChildOrganizations(child.getInternalID()));
-      }
-    }
-
-    return children;
+    return childOrganizationsMap.getOrDefault(internalID, Collections.emptySet());
   }
 
   /**
@@ -151,19 +136,173 @@ public class AccessControllerState {
    * @return Parent SubjectGroups
    */
   public Set<PropertiesSubject> getParentSubjects(long internalID) {
-    // Resolve the direct parents of the subject identified by 'internalID'.
-    Set<PropertiesSubject> parents = subjectMap.values().stream()
+    return parentSubjectsMap.getOrDefault(internalID, Collections.emptySet());
+  }
+
+  /**
+   * Checks whether a Subject has been granted a Function regardless of Organization.
+   * <p>
+   * Permissions granted to a SubjectGroup are inherited by all members and a FunctionGroup grants all its members.
+   *
+   * @param subjectID Internal ID of Subject or SubjectGroup
+   * @param function  Name of Function or FunctionGroup
+   * @return True if Subject has been granted the Function
+   */
+  public boolean hasPermission(long subjectID, String function) {
+    CompiledPermissions permissions = compiledPermissionsMap.get(subjectID);
+    return permissions != null && permissions.getFunctions().contains(function);
+  }
+
+  /**
+   * Checks whether a Subject has been granted a Function for a specific Organization.
+   * <p>
+   * In addition to the rules of {@link #hasPermission(long, String)} permissions granted for an OrganizationGroup
+   * apply to all members of that group.
+   *
+   * @param subjectID      Internal ID of Subject or SubjectGroup
+   * @param function       Name of Function or FunctionGroup
+   * @param organizationID Internal ID of Organization or OrganizationGroup
+   * @return True if Subject has been granted the Function for the Organization
+   */
+  public boolean hasPermission(long subjectID, String function, long organizationID) {
+    CompiledPermissions permissions = compiledPermissionsMap.get(subjectID);
+    if (permissions == null) return false;
+
+    // Check the requested organization itself first, afterwards all organization groups it is a member of.
+    if (permissions.getFunctions(organizationID).contains(function)) return true;
+    for (PropertiesOrganization parent : getParentOrganizations(organizationID)) {
+      if (permissions.getFunctions(parent.getInternalID()).contains(function)) return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the internal IDs of all Organizations a Subject has access to, either because the Subject (or one of its
+   * parent SubjectGroups) has been granted access to the Organization directly or to a parent OrganizationGroup.
+   * <p>
+   * It will return an empty set if the Subject is not defined.
+   *
+   * @param subjectID Internal ID of Subject or SubjectGroup
+   * @return Internal IDs of available Organizations
+   */
+  public Set<Long> getAvailableOrganizations(long subjectID) {
+    CompiledPermissions permissions = compiledPermissionsMap.get(subjectID);
+    if (permissions == null) return Collections.emptySet();
+
+    // The children of every organization are precomputed and shared between all subjects. Only merge them here
+    // instead of storing a potentially large set of organizations for every single subject.
+    Set<Long> available = new HashSet<>(permissions.getGrantedOrganizations());
+    for (Long organizationID : permissions.getGrantedOrganizations()) {
+      available.addAll(childOrganizationIDsMap.getOrDefault(organizationID, Collections.emptySet()));
+    }
+
+    return available;
+  }
+
+  private Map<Long, Set<PropertiesOrganization>> computeParentOrganizations() {
+    // Index the direct parents of every organization, also for organizations which are referenced but not defined.
+    Map<Long, Set<Long>> directParents = new HashMap<>();
+    organizationMap.values().stream()
+            .filter(PropertiesOrganization::isGroup)
+            .map(PropertiesOrganizationGroup.class::cast)
+            .forEach(group -> group.getMembers().forEach(member -> directParents.computeIfAbsent(member, id -> new HashSet<>()).add(group.getInternalID())));
+
+    return toObjectMap(computeClosures(directParents), organizationMap);
+  }
+
+  private Map<Long, Set<Long>> computeChildOrganizationIDs() {
+    // Only defined organizations are considered children.
+    Map<Long, Set<Long>> directChildren = new HashMap<>();
+    organizationMap.values().stream()
+            .filter(PropertiesOrganization::isGroup)
+            .map(PropertiesOrganizationGroup.class::cast)
+            .forEach(group -> directChildren.put(group.getInternalID(), group.getMembers().stream()
+                    .filter(organizationMap::containsKey)
+                    .collect(Collectors.toSet())));
+
+    return computeClosures(directChildren);
+  }
+
+  private Map<Long, Set<PropertiesSubject>> computeParentSubjects() {
+    // Index the direct parents of every subject, also for subjects which are referenced but not defined.
+    Map<Long, Set<Long>> directParents = new HashMap<>();
+    subjectMap.values().stream()
             .filter(PropertiesSubject::isGroup)
             .map(PropertiesSubjectGroup.class::cast)
-            .filter(o -> o.getMembers().contains(internalID))
-            .collect(Collectors.toSet());
+            .forEach(group -> group.getMembers().forEach(member -> directParents.computeIfAbsent(member, id -> new HashSet<>()).add(group.getInternalID())));
+
+    return toObjectMap(computeClosures(directParents), subjectMap);
+  }
+
+  private Map<String, Set<String>> computeFunctionClosures() {
+    Map<String, Set<String>> directMembers = new HashMap<>();
+    functionMap.values().stream()
+            .filter(PropertiesFunction::isGroup)
+            .map(PropertiesFunctionGroup.class::cast)
+            .forEach(group -> directMembers.put(group.getName(), group.getMembers()));
+
+    return computeClosures(directMembers);
+  }
+
+  private Map<Long, CompiledPermissions> compilePermissions() {
+    // Many subjects share the same permissions (e.g. via the same SubjectGroup), thus, share the computed sets as well.
+    Map<Set<String>, Set<String>> expandedFunctions = new HashMap<>();
+
+    Map<Long, CompiledPermissions> compiled = new HashMap<>();
+    for (PropertiesSubject subject : subjectMap.values()) {
+      // Merge the permissions granted to the subject itself and to all of its parent subject groups.
+      Map<Long, Set<String>> granted = new HashMap<>();
+      for (PropertiesSubject grantee : SetUtils.addToSet(SetUtils.set(getParentSubjects(subject.getInternalID())), subject)) {
+        grantee.getPermissions().forEach((organizationID, functions) -> granted.computeIfAbsent(organizationID, id -> new HashSet<>()).addAll(SetUtils.set(functions)));
+      }
+
+      Map<Long, Set<String>> functionsPerOrganization = new HashMap<>();
+      granted.forEach((organizationID, functions) -> functionsPerOrganization.put(organizationID, expandedFunctions.computeIfAbsent(functions, this::expandFunctions)));
+      Set<String> functions = expandedFunctions.computeIfAbsent(
+              granted.values().stream().flatMap(Collection::stream).collect(Collectors.toSet()), this::expandFunctions);
+
+      compiled.put(subject.getInternalID(), new CompiledPermissions(functions, functionsPerOrganization, SetUtils.set(granted.keySet())));
+    }
 
-    // Also resolve the parents of parents recursively.
-    for (PropertiesSubject parent : SetUtils.set(parents)) {
-      parents.addAll(getParentSubjects(parent.getInternalID()));
+    return Collections.unmodifiableMap(compiled);
+  }
+
+  private Set<String> expandFunctions(Set<String> functions) {
+    // Granting a function group grants all of its members recursively.
+    Set<String> expanded = new HashSet<>(functions);
+    for (String function : functions) {
+      expanded.addAll(functionClosureMap.getOrDefault(function, Collections.emptySet()));
+    }
+
+    return Collections.unmodifiableSet(expanded);
+  }
+
+  private static <K> Map<K, Set<K>> computeClosures(Map<K, Set<K>> edges) {
+    // Compute for every key all transitively reachable keys. Keeping track of visited keys protects against cycles.
+    Map<K, Set<K>> closures = new HashMap<>();
+    for (K key : edges.keySet()) {
+      Set<K> reachable = new HashSet<>();
+      Deque<K> queue = new ArrayDeque<>(edges.get(key));
+      while (!queue.isEmpty()) {
+        K next = queue.poll();
+        if (reachable.add(next)) {
+          queue.addAll(edges.getOrDefault(next, Collections.emptySet()));
+        }
+      }
+      closures.put(key, reachable);
     }
 
-    return parents;
+    return closures;
+  }
+
+  private static <T> Map<Long, Set<T>> toObjectMap(Map<Long, Set<Long>> closures, Map<Long, T> objects) {
+    Map<Long, Set<T>> result = new HashMap<>();
+    closures.forEach((id, reachable) -> result.put(id, Collections.unmodifiableSet(reachable.stream()
+            .map(objects::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet()))));
+    return Collections.unmodifiableMap(result);
   }
 
   public static Builder builder() {
@@ -212,4 +351,31 @@ public class AccessControllerState {
       return this;
     }
   }
+
+  private static class CompiledPermissions {
+    // All functions granted regardless of organization.
+    private final Set<String> functions;
+    // Functions granted per organization (only for organizations with directly granted permissions).
+    private final Map<Long, Set<String>> functionsPerOrganization;
+    // Organizations with directly granted permissions.
+    private final Set<Long> grantedOrganizations;
+
+    private CompiledPermissions(Set<String> functions, Map<Long, Set<String>> functionsPerOrganization, Set<Long> grantedOrganizations) {
+      this.functions = functions;
+      this.functionsPerOrganization = functionsPerOrganization;
+      this.grantedOrganizations = grantedOrganizations;
+    }
+
+    private Set<String> getFunctions() {
+      return functions;
+    }
+
+    private Set<String> getFunctions(long organizationID) {
+      return functionsPerOrganization.getOrDefault(organizationID, Collections.emptySet());
+    }
+
+    private Set<Long> getGrantedOrganizations() {
+      return grantedOrganizations;
+    }
+  }
 }
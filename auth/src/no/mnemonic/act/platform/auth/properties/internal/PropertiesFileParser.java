@@ -28,11 +28,13 @@ public class PropertiesFileParser {
   private static final String SUBJECT_TYPE_KEY = "subject.{id}.type";
   private static final String SUBJECT_MEMBERS_KEY = "subject.{id}.members";
   private static final String SUBJECT_AFFILIATION_KEY = "subject.{id}.affiliation";
-  private static final String SUBJECT_PERMISSION_KEY = "subject.{id}.permission.(\\d+)";
+  private static final Pattern SUBJECT_PERMISSION_PATTERN = Pattern.compile("subject.(\\d+).permission.(\\d+)");
 
   private Set<PropertiesFunction> functions = new HashSet<>();
   private Set<PropertiesOrganization> organizations = new HashSet<>();
   private Set<PropertiesSubject> subjects = new HashSet<>();
+  // Key is internalID of subject and value are the subject's permissions.
+  private Map<Long, Map<Long, Set<String>>> subjectPermissions = new HashMap<>();
 
   /**
    * Returns the Functions and FunctionGroups defined in the properties file after parsing it.
@@ -68,7 +70,10 @@ public class PropertiesFileParser {
    */
   public void parse(String file) {
     Properties properties = loadProperties(file);
-    for (String key : properties.stringPropertyNames()) {
+    Set<String> keys = properties.stringPropertyNames();
+    // Index permissions first in order to avoid iterating over all keys for every subject.
+    indexSubjectPermissions(properties, keys);
+    for (String key : keys) {
       if (matchFunctionGroup(properties, key)) continue;
       if (matchOrganization(properties, key)) continue;
       matchSubject(properties, key);
@@ -147,7 +152,7 @@ public class PropertiesFileParser {
             .setInternalID(internalID)
             .setName(name)
             .setAffiliation(ObjectUtils.ifNull(affiliation, 0L))
-            .setPermissions(parseSubjectPermissions(properties, internalID))
+            .setPermissions(parseSubjectPermissions(internalID))
             .build()
     );
     return true;
@@ -186,18 +191,18 @@ public class PropertiesFileParser {
     return members;
   }
 
-  private Map<Long, Set<String>> parseSubjectPermissions(Properties properties, long subjectID) {
-    Map<Long, Set<String>> permissions = new HashMap<>();
-
-    Pattern permissionPattern = Pattern.compile(SUBJECT_PERMISSION_KEY.replace("{id}", String.valueOf(subjectID)));
-    for (String key : properties.stringPropertyNames()) {
-      Matcher matcher = permissionPattern.matcher(key);
+  private void indexSubjectPermissions(Properties properties, Set<String> keys) {
+    for (String key : keys) {
+      Matcher matcher = SUBJECT_PERMISSION_PATTERN.matcher(key);
       if (!matcher.matches()) continue;
-      // Extract organizationID from key and parse function (group) names.
-      permissions.put(Long.parseUnsignedLong(matcher.group(1)), parseStringMembers(properties, key));
+      // Extract subjectID and organizationID from key and parse function (group) names.
+      subjectPermissions.computeIfAbsent(Long.parseUnsignedLong(matcher.group(1)), id -> new HashMap<>())
+              .put(Long.parseUnsignedLong(matcher.group(2)), parseStringMembers(properties, key));
     }
+  }
 
-    return permissions;
+  private Map<Long, Set<String>> parseSubjectPermissions(long subjectID) {
+    return subjectPermissions.getOrDefault(subjectID, new HashMap<>());
   }
 
   private String getPropertyForID(Properties properties, long id, String key) {
@@ -389,6 +389,147 @@ public class AccessControllerStateTest {
     assertEquals(SetUtils.set(parent), state.getParentSubjects(subject.getInternalID()));
   }
 
+  @Test
+  public void testGetParentSubjectsWithCycle() {
+    PropertiesSubjectGroup group1 = PropertiesSubjectGroup.builder()
+            .setInternalID(10)
+            .addMember(11)
+            .build();
+    PropertiesSubjectGroup group2 = PropertiesSubjectGroup.builder()
+            .setInternalID(11)
+            .addMember(10)
+            .build();
+    AccessControllerState state = AccessControllerState.builder()
+            .setSubjects(SetUtils.set(group1, group2))
+            .build();
+
+    assertEquals(SetUtils.set(group1, group2), state.getParentSubjects(group1.getInternalID()));
+  }
+
+  @Test
+  public void testHasPermissionUnknownSubject() {
+    AccessControllerState state = AccessControllerState.builder().build();
+    assertFalse(state.hasPermission(1, "function"));
+    assertFalse(state.hasPermission(1, "function", 1));
+  }
+
+  @Test
+  public void testHasPermissionGrantedDirectly() {
+    PropertiesSubject subject = PropertiesSubject.builder()
+            .setInternalID(1)
+            .addPermission(1, SetUtils.set("function"))
+            .build();
+    AccessControllerState state = AccessControllerState.builder().addSubject(subject).build();
+
+    assertTrue(state.hasPermission(subject.getInternalID(), "function"));
+    assertTrue(state.hasPermission(subject.getInternalID(), "function", 1));
+    assertFalse(state.hasPermission(subject.getInternalID(), "function", 2));
+    assertFalse(state.hasPermission(subject.getInternalID(), "otherFunction"));
+  }
+
+  @Test
+  public void testHasPermissionGrantedViaFunctionGroup() {
+    PropertiesFunctionGroup parent = PropertiesFunctionGroup.builder()
+            .setName("parent")
+            .addMember("child")
+            .build();
+    PropertiesFunctionGroup child = PropertiesFunctionGroup.builder()
+            .setName("child")
+            .addMember("function")
+            .build();
+    PropertiesSubject subject = PropertiesSubject.builder()
+            .setInternalID(1)
+            .addPermission(1, SetUtils.set(parent.getName()))
+            .build();
+    AccessControllerState state = AccessControllerState.builder()
+            .setFunctions(SetUtils.set(parent, child))
+            .addSubject(subject)
+            .build();
+
+    assertTrue(state.hasPermission(subject.getInternalID(), "child"));
+    assertTrue(state.hasPermission(subject.getInternalID(), "function"));
+    assertTrue(state.hasPermission(subject.getInternalID(), "function", 1));
+  }
+
+  @Test
+  public void testHasPermissionGrantedViaSubjectGroup() {
+    PropertiesSubject subject = PropertiesSubject.builder().setInternalID(1).build();
+    PropertiesSubjectGroup directParent = PropertiesSubjectGroup.builder()
+            .setInternalID(10)
+            .addMember(subject.getInternalID())
+            .build();
+    PropertiesSubjectGroup indirectParent = PropertiesSubjectGroup.builder()
+            .setInternalID(11)
+            .addMember(directParent.getInternalID())
+            .addPermission(1, SetUtils.set("function"))
+            .build();
+    AccessControllerState state = AccessControllerState.builder()
+            .setSubjects(SetUtils.set(subject, directParent, indirectParent))
+            .build();
+
+    assertTrue(state.hasPermission(subject.getInternalID(), "function"));
+    assertTrue(state.hasPermission(subject.getInternalID(), "function", 1));
+    assertFalse(state.hasPermission(subject.getInternalID(), "function", 2));
+  }
+
+  @Test
+  public void testHasPermissionGrantedViaOrganizationGroup() {
+    PropertiesOrganization organization = PropertiesOrganization.builder().setInternalID(1).build();
+    PropertiesOrganizationGroup directParent = PropertiesOrganizationGroup.builder()
+            .setInternalID(10)
+            .addMember(organization.getInternalID())
+            .build();
+    PropertiesOrganizationGroup indirectParent = PropertiesOrganizationGroup.builder()
+            .setInternalID(11)
+            .addMember(directParent.getInternalID())
+            .build();
+    PropertiesSubject subject = PropertiesSubject.builder()
+            .setInternalID(1)
+            .addPermission(indirectParent.getInternalID(), SetUtils.set("function"))
+            .build();
+    AccessControllerState state = AccessControllerState.builder()
+            .setOrganizations(SetUtils.set(organization, directParent, indirectParent))
+            .addSubject(subject)
+            .build();
+
+    assertTrue(state.hasPermission(subject.getInternalID(), "function", organization.getInternalID()));
+    assertTrue(state.hasPermission(subject.getInternalID(), "function", directParent.getInternalID()));
+    assertTrue(state.hasPermission(subject.getInternalID(), "function", indirectParent.getInternalID()));
+    assertFalse(state.hasPermission(subject.getInternalID(), "function", 2));
+  }
+
+  @Test
+  public void testGetAvailableOrganizationsUnknownSubject() {
+    AccessControllerState state = AccessControllerState.builder().build();
+    assertEmpty(state.getAvailableOrganizations(1));
+  }
+
+  @Test
+  public void testGetAvailableOrganizations() {
+    PropertiesOrganization organization = PropertiesOrganization.builder().setInternalID(1).build();
+    PropertiesOrganizationGroup parent = PropertiesOrganizationGroup.builder()
+            .setInternalID(10)
+            .addMember(organization.getInternalID())
+            .build();
+    PropertiesSubject subject = PropertiesSubject.builder().setInternalID(1).build();
+    PropertiesSubjectGroup subjectGroup = PropertiesSubjectGroup.builder()
+            .setInternalID(20)
+            .addMember(subject.getInternalID())
+            .addPermission(parent.getInternalID(), SetUtils.set("function"))
+            .build();
+    PropertiesSubject otherSubject = PropertiesSubject.builder()
+            .setInternalID(2)
+            .addPermission(2, SetUtils.set("function"))
+            .build();
+    AccessControllerState state = AccessControllerState.builder()
+            .setOrganizations(SetUtils.set(organization, parent))
+            .setSubjects(SetUtils.set(subject, subjectGroup, otherSubject))
+            .build();
+
+    assertEquals(SetUtils.set(1L, 10L), state.getAvailableOrganizations(subject.getInternalID()));
+    assertEquals(SetUtils.set(2L), state.getAvailableOrganizations(otherSubject.getInternalID()));
+  }
+
   private void assertEmpty(Set<?> collection) {
     assertNotNull(collection);
     assertTrue(collection.isEmpty());
@@ -0,0 +1,144 @@
+package no.mnemonic.act.platform.auth.properties;
+
+import no.mnemonic.act.platform.auth.properties.model.FunctionIdentifier;
+import no.mnemonic.act.platform.auth.properties.model.OrganizationIdentifier;
+import no.mnemonic.act.platform.auth.properties.model.SubjectCredentials;
+import no.mnemonic.services.common.auth.model.Credentials;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks permission checks of {@link PropertiesBasedAccessController} using a generated configuration with
+ * thousands of Subjects and Organizations organized in groups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertiesBasedAccessControllerBenchmark {
+
+  private static final int SUBJECTS_PER_GROUP = 50;
+  private static final int ORGANIZATIONS_PER_GROUP = 25;
+  private static final int NUMBER_OF_FUNCTIONS = 50;
+  private static final int NUMBER_OF_REQUESTS = 1024; // Must be a power of two.
+
+  @Param({"5000"})
+  private int numberOfSubjects;
+  @Param({"5000"})
+  private int numberOfOrganizations;
+
+  private Path propertiesFile;
+  private PropertiesBasedAccessController accessController;
+  private Credentials[] credentials;
+  private FunctionIdentifier[] functions;
+  private OrganizationIdentifier[] organizations;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    propertiesFile = Files.createTempFile("PropertiesBasedAccessControllerBenchmark", ".properties");
+    writeConfiguration(propertiesFile, numberOfSubjects, numberOfOrganizations);
+
+    accessController = PropertiesBasedAccessController.builder()
+            .setPropertiesFile(propertiesFile.toString())
+            .build();
+    accessController.startComponent();
+
+    // Pre-compute random requests in order to not measure their creation.
+    Random random = new Random(42);
+    credentials = new Credentials[NUMBER_OF_REQUESTS];
+    functions = new FunctionIdentifier[NUMBER_OF_REQUESTS];
+    organizations = new OrganizationIdentifier[NUMBER_OF_REQUESTS];
+    for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+      credentials[i] = SubjectCredentials.builder().setSubjectID(random.nextInt(numberOfSubjects) + 1).build();
+      functions[i] = FunctionIdentifier.builder().setName("function" + random.nextInt(NUMBER_OF_FUNCTIONS)).build();
+      organizations[i] = OrganizationIdentifier.builder().setInternalID(random.nextInt(numberOfOrganizations) + 1).build();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    accessController.stopComponent();
+    Files.deleteIfExists(propertiesFile);
+  }
+
+  @Benchmark
+  public boolean hasPermission() throws Exception {
+    int i = next++ & (NUMBER_OF_REQUESTS - 1);
+    return accessController.hasPermission(credentials[i], functions[i]);
+  }
+
+  @Benchmark
+  public boolean hasPermissionForOrganization() throws Exception {
+    int i = next++ & (NUMBER_OF_REQUESTS - 1);
+    return accessController.hasPermission(credentials[i], functions[i], organizations[i]);
+  }
+
+  @Benchmark
+  public Set<?> getAvailableOrganizations() throws Exception {
+    int i = next++ & (NUMBER_OF_REQUESTS - 1);
+    return accessController.getAvailableOrganizations(credentials[i]);
+  }
+
+  private static void writeConfiguration(Path file, int numberOfSubjects, int numberOfOrganizations) throws Exception {
+    int numberOfSubjectGroups = Math.max(1, numberOfSubjects / SUBJECTS_PER_GROUP);
+    int numberOfOrganizationGroups = Math.max(1, numberOfOrganizations / ORGANIZATIONS_PER_GROUP);
+    // Group IDs are placed after the IDs of Subjects and Organizations.
+    long subjectGroupOffset = numberOfSubjects;
+    long organizationGroupOffset = numberOfOrganizations;
+
+    try (FileWriter writer = new FileWriter(file.toFile())) {
+      // Two-level function tree: 'functionGroup' -> 'functionGroupN' -> 'functionN'.
+      StringBuilder topLevelGroup = new StringBuilder();
+      for (int i = 0; i < NUMBER_OF_FUNCTIONS; i++) {
+        writer.write(String.format("function.functionGroup%d.members = function%d%n", i, i));
+        topLevelGroup.append(i > 0 ? "," : "").append("functionGroup").append(i);
+      }
+      writer.write(String.format("function.functionGroup.members = %s%n", topLevelGroup));
+
+      // Organizations are members of one organization group each, and all organization groups are members of one root.
+      StringBuilder rootMembers = new StringBuilder();
+      for (long group = 1; group <= numberOfOrganizationGroups; group++) {
+        long groupID = organizationGroupOffset + group;
+        StringBuilder members = new StringBuilder();
+        for (long id = (group - 1) * ORGANIZATIONS_PER_GROUP + 1; id <= Math.min(group * ORGANIZATIONS_PER_GROUP, numberOfOrganizations); id++) {
+          writer.write(String.format("organization.%d.name = organization%d%n", id, id));
+          members.append(members.length() > 0 ? "," : "").append(id);
+        }
+        writer.write(String.format("organization.%d.name = organizationGroup%d%n", groupID, group));
+        writer.write(String.format("organization.%d.type = group%n", groupID));
+        writer.write(String.format("organization.%d.members = %s%n", groupID, members));
+        rootMembers.append(rootMembers.length() > 0 ? "," : "").append(groupID);
+      }
+      long rootID = organizationGroupOffset + numberOfOrganizationGroups + 1;
+      writer.write(String.format("organization.%d.name = organizationRoot%n", rootID));
+      writer.write(String.format("organization.%d.type = group%n", rootID));
+      writer.write(String.format("organization.%d.members = %s%n", rootID, rootMembers));
+
+      // Subjects are members of one subject group each. Every subject group has access to one organization group,
+      // and every tenth subject group has access to the root organization group.
+      for (long group = 1; group <= numberOfSubjectGroups; group++) {
+        long groupID = subjectGroupOffset + group;
+        StringBuilder members = new StringBuilder();
+        for (long id = (group - 1) * SUBJECTS_PER_GROUP + 1; id <= Math.min(group * SUBJECTS_PER_GROUP, numberOfSubjects); id++) {
+          writer.write(String.format("subject.%d.name = subject%d%n", id, id));
+          writer.write(String.format("subject.%d.permission.%d = function%d%n", id, (id % numberOfOrganizations) + 1, id % NUMBER_OF_FUNCTIONS));
+          members.append(members.length() > 0 ? "," : "").append(id);
+        }
+        long organizationID = group % 10 == 0 ? rootID : organizationGroupOffset + (group % numberOfOrganizationGroups) + 1;
+        writer.write(String.format("subject.%d.name = subjectGroup%d%n", groupID, group));
+        writer.write(String.format("subject.%d.type = group%n", groupID));
+        writer.write(String.format("subject.%d.members = %s%n", groupID, members));
+        writer.write(String.format("subject.%d.permission.%d = functionGroup%n", groupID, organizationID));
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package no.mnemonic.act.platform.dao.cassandra.entity;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON (de-)serialization of the Object bindings of a {@link FactEntity}. Bindings are parsed every
+ * time a Fact is read from Cassandra and serialized every time a Fact is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactEntityBenchmark {
+
+  // One binding for one-legged Facts, two bindings for two-legged Facts.
+  @Param({"1", "2"})
+  private int numberOfBindings;
+
+  private List<FactEntity.FactObjectBinding> bindings;
+  private String bindingsStored;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    FactEntity entity = new FactEntity();
+    for (int i = 0; i < numberOfBindings; i++) {
+      entity.addBinding(new FactEntity.FactObjectBinding()
+              .setObjectID(UUID.randomUUID())
+              .setDirection(i == 0 ? Direction.FactIsDestination : Direction.FactIsSource));
+    }
+
+    bindings = entity.getBindings();
+    bindingsStored = entity.getBindingsStored();
+  }
+
+  @Benchmark
+  public List<FactEntity.FactObjectBinding> parseBindings() {
+    return new FactEntity().setBindingsStored(bindingsStored).getBindings();
+  }
+
+  @Benchmark
+  public String serializeBindings() {
+    return new FactEntity().setBindings(bindings).getBindingsStored();
+  }
+}
@@ -0,0 +1,91 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import org.elasticsearch.action.search.SearchRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmarks how {@link FactSearchManager} translates a {@link FactSearchCriteria} into an ElasticSearch query.
+ * No requests are sent to ElasticSearch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactSearchManagerBenchmark {
+
+  public enum CriteriaType {
+    /**
+     * Only the fields required for access control.
+     */
+    minimal,
+    /**
+     * A typical search from the API, i.e. a few filters by type and value.
+     */
+    typical,
+    /**
+     * All filters are set, including keywords and many IDs as used when traversing the graph.
+     */
+    complex
+  }
+
+  @Param({"minimal", "typical", "complex"})
+  private CriteriaType criteriaType;
+
+  private FactSearchManager manager;
+  private FactSearchCriteria criteria;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    manager = new FactSearchManager(mock(ClientFactory.class));
+    criteria = createCriteria(criteriaType);
+  }
+
+  @Benchmark
+  public SearchRequest buildFactsSearchRequest() {
+    return manager.buildFactsSearchRequest(criteria);
+  }
+
+  @Benchmark
+  public String buildAndSerializeFactsSearchRequest() {
+    // The client serializes the query to JSON before sending it to ElasticSearch.
+    return manager.buildFactsSearchRequest(criteria).source().toString();
+  }
+
+  private static FactSearchCriteria createCriteria(CriteriaType type) {
+    FactSearchCriteria.Builder builder = FactSearchCriteria.builder()
+            .setCurrentUserID(UUID.randomUUID())
+            .addAvailableOrganizationID(UUID.randomUUID())
+            .addAvailableOrganizationID(UUID.randomUUID());
+    if (type == CriteriaType.minimal) return builder.build();
+
+    builder.addFactTypeID(UUID.randomUUID())
+            .addFactValue("value")
+            .addObjectTypeID(UUID.randomUUID())
+            .addObjectValue("10.0.0.1")
+            .setLimit(25);
+    if (type == CriteriaType.typical) return builder.build();
+
+    IntStream.range(0, 100).forEach(i -> builder.addObjectID(UUID.randomUUID()));
+    IntStream.range(0, 10).forEach(i -> builder.addFactTypeID(UUID.randomUUID()));
+    IntStream.range(0, 10).forEach(i -> builder.addAvailableOrganizationID(UUID.randomUUID()));
+    return builder.addOrganizationID(UUID.randomUUID())
+            .addOriginID(UUID.randomUUID())
+            .addInReferenceTo(UUID.randomUUID())
+            .setKeywords("malware +ransomware -test")
+            .setStartTimestamp(1_000_000L)
+            .setEndTimestamp(2_000_000L)
+            .setMinNumber(0.1f)
+            .setMaxNumber(0.9f)
+            .setFactBinding(FactSearchCriteria.FactBinding.oneLegged)
+            .build();
+  }
+}
@@ -0,0 +1,106 @@
+package no.mnemonic.act.platform.dao.facade.converters;
+
+import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmarks conversions performed by {@link FactRecordConverter}. The managers are replaced by in-memory stand-ins
+ * which always return the same entities, thus, only the conversion itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactRecordConverterBenchmark {
+
+  private FactRecordConverter converter;
+  private FactRecord record;
+  private FactEntity entity;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    UUID factID = UUID.randomUUID();
+    ObjectEntity source = new ObjectEntity().setId(UUID.randomUUID()).setTypeID(UUID.randomUUID()).setValue("source");
+    ObjectEntity destination = new ObjectEntity().setId(UUID.randomUUID()).setTypeID(UUID.randomUUID()).setValue("destination");
+
+    FactManager factManager = mock(FactManager.class);
+    ObjectManager objectManager = mock(ObjectManager.class);
+    when(objectManager.getObject(source.getId())).thenReturn(source);
+    when(objectManager.getObject(destination.getId())).thenReturn(destination);
+    when(factManager.fetchFactAcl(any())).thenReturn(ListUtils.list(
+            new FactAclEntity().setFactID(factID).setId(UUID.randomUUID()).setSubjectID(UUID.randomUUID()).setOriginID(UUID.randomUUID()).setTimestamp(123),
+            new FactAclEntity().setFactID(factID).setId(UUID.randomUUID()).setSubjectID(UUID.randomUUID()).setOriginID(UUID.randomUUID()).setTimestamp(456)
+    ));
+    when(factManager.fetchFactComments(any())).thenReturn(ListUtils.list(
+            new FactCommentEntity().setFactID(factID).setId(UUID.randomUUID()).setOriginID(UUID.randomUUID()).setComment("comment").setTimestamp(789)
+    ));
+
+    converter = new FactRecordConverter(factManager, objectManager, new ObjectRecordConverter(),
+            new FactAclEntryRecordConverter(), new FactCommentRecordConverter());
+
+    entity = new FactEntity()
+            .setId(factID)
+            .setTypeID(UUID.randomUUID())
+            .setValue("value")
+            .setInReferenceToID(UUID.randomUUID())
+            .setOrganizationID(UUID.randomUUID())
+            .setOriginID(UUID.randomUUID())
+            .setAddedByID(UUID.randomUUID())
+            .setAccessMode(AccessMode.RoleBased)
+            .setConfidence(0.5f)
+            .setTrust(0.8f)
+            .setTimestamp(123456789)
+            .setLastSeenTimestamp(987654321)
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(source.getId()).setDirection(Direction.FactIsDestination))
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(destination.getId()).setDirection(Direction.FactIsSource));
+
+    record = new FactRecord()
+            .setId(factID)
+            .setTypeID(entity.getTypeID())
+            .setValue(entity.getValue())
+            .setInReferenceToID(entity.getInReferenceToID())
+            .setOrganizationID(entity.getOrganizationID())
+            .setOriginID(entity.getOriginID())
+            .setAddedByID(entity.getAddedByID())
+            .setAccessMode(FactRecord.AccessMode.RoleBased)
+            .setConfidence(entity.getConfidence())
+            .setTrust(entity.getTrust())
+            .setTimestamp(entity.getTimestamp())
+            .setLastSeenTimestamp(entity.getLastSeenTimestamp())
+            .setSourceObject(new ObjectRecord().setId(source.getId()).setTypeID(source.getTypeID()).setValue(source.getValue()))
+            .setDestinationObject(new ObjectRecord().setId(destination.getId()).setTypeID(destination.getTypeID()).setValue(destination.getValue()))
+            .addAclEntry(new FactAclEntryRecord().setId(UUID.randomUUID()).setSubjectID(UUID.randomUUID()).setOriginID(UUID.randomUUID()).setTimestamp(123))
+            .addAclEntry(new FactAclEntryRecord().setId(UUID.randomUUID()).setSubjectID(UUID.randomUUID()).setOriginID(UUID.randomUUID()).setTimestamp(456));
+  }
+
+  @Benchmark
+  public FactRecord fromEntity() {
+    return converter.fromEntity(entity);
+  }
+
+  @Benchmark
+  public FactEntity toEntity() {
+    return converter.toEntity(record);
+  }
+
+  @Benchmark
+  public FactDocument toDocument() {
+    return converter.toDocument(record);
+  }
+}
@@ -0,0 +1,124 @@
+package no.mnemonic.act.platform.service.container;
+
+import no.mnemonic.act.platform.api.model.v1.*;
+import no.mnemonic.act.platform.api.serializer.BinaryMessageSerializer;
+import no.mnemonic.messaging.requestsink.jms.ExceptionMessage;
+import no.mnemonic.messaging.requestsink.jms.serializer.MessageSerializer;
+import no.mnemonic.messaging.requestsink.jms.serializer.XStreamMessageSerializer;
+import no.mnemonic.services.common.messagebus.ServiceResponseValueMessage;
+import no.mnemonic.services.common.messagebus.ServiceStreamingResultSetResponseMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the XStream and the binary serialization of streaming result set responses sent from the service to the
+ * REST layer. The serializers on the service side are created by {@link XStreamMessageSerializerProvider} and
+ * {@link BinaryMessageSerializerProvider}, the serializers on the client side use the same configuration as the SMB
+ * client in the REST module. The size of the serialized message is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSerializerBenchmark {
+
+  @Param({"xstream", "binary"})
+  private String format;
+  @Param({"1", "100", "1000"})
+  private int batchSize;
+
+  private MessageSerializer serverSerializer;
+  private MessageSerializer clientSerializer;
+  private ServiceStreamingResultSetResponseMessage message;
+  private byte[] serializedMessage;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    serverSerializer = "binary".equals(format) ? new BinaryMessageSerializerProvider().get() : new XStreamMessageSerializerProvider().get();
+    clientSerializer = "binary".equals(format) ? createBinaryClientSerializer() : createXStreamClientSerializer();
+
+    List<Fact> batch = IntStream.range(0, batchSize)
+            .mapToObj(i -> createFact())
+            .collect(Collectors.toList());
+    message = ServiceStreamingResultSetResponseMessage.builder()
+            .setRequestID(UUID.randomUUID().toString())
+            .setCount(batchSize)
+            .build(0, batch, true);
+    serializedMessage = serverSerializer.serialize(message);
+    System.out.printf("%nSerialized size (format = %s, batchSize = %d): %d bytes%n", format, batchSize, serializedMessage.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws Exception {
+    return serverSerializer.serialize(message);
+  }
+
+  @Benchmark
+  public ServiceStreamingResultSetResponseMessage deserialize() throws Exception {
+    return clientSerializer.deserialize(serializedMessage, getClass().getClassLoader());
+  }
+
+  private static MessageSerializer createBinaryClientSerializer() {
+    return BinaryMessageSerializer.builder()
+            .addAllowedClass(ServiceResponseValueMessage.class)
+            .addAllowedClass(ServiceStreamingResultSetResponseMessage.class)
+            .addAllowedClass(ExceptionMessage.class)
+            .addAllowedClass("no.mnemonic.act.platform.api.model.*")
+            .addAllowedClass("no.mnemonic.act.platform.api.exceptions.*")
+            .build();
+  }
+
+  private static MessageSerializer createXStreamClientSerializer() {
+    return XStreamMessageSerializer.builder()
+            .addAllowedClass(String.class)
+            .addAllowedClass(UUID.class)
+            .addAllowedClass(Set.class)
+            .addAllowedClass(List.class)
+            .addAllowedClass("java.util.Collections\\$EmptySet")
+            .addAllowedClass("java.util.Collections\\$EmptyList")
+            .addAllowedClass("java.util.Collections\\$UnmodifiableSet")
+            .addAllowedClass("java.util.Collections\\$UnmodifiableList")
+            .addAllowedClass(ServiceResponseValueMessage.class)
+            .addAllowedClass(ServiceStreamingResultSetResponseMessage.class)
+            .addAllowedClass("no.mnemonic.act.platform.api.model.*")
+            .addAllowedClass("no.mnemonic.act.platform.api.exceptions.*")
+            .build();
+  }
+
+  private static Fact createFact() {
+    ObjectType objectType = ObjectType.builder().setId(UUID.randomUUID()).setName("objectType").build();
+    return Fact.builder()
+            .setId(UUID.randomUUID())
+            .setType(FactType.builder().setId(UUID.randomUUID()).setName("factType").build().toInfo())
+            .setValue("value")
+            .setOrganization(Organization.builder().setId(UUID.randomUUID()).setName("organization").build().toInfo())
+            .setAddedBy(Subject.builder().setId(UUID.randomUUID()).setName("subject").build().toInfo())
+            .setOrigin(Origin.builder().setId(UUID.randomUUID()).setName("origin").build().toInfo())
+            .setTrust(0.8f)
+            .setConfidence(0.5f)
+            .setAccessMode(AccessMode.RoleBased)
+            .setTimestamp(123456789L)
+            .setLastSeenTimestamp(987654321L)
+            .setSourceObject(no.mnemonic.act.platform.api.model.v1.Object.builder()
+                    .setId(UUID.randomUUID())
+                    .setType(objectType.toInfo())
+                    .setValue("source")
+                    .build()
+                    .toInfo())
+            .setDestinationObject(no.mnemonic.act.platform.api.model.v1.Object.builder()
+                    .setId(UUID.randomUUID())
+                    .setType(objectType.toInfo())
+                    .setValue("destination")
+                    .build()
+                    .toInfo())
+            .build();
+  }
+}
@@ -0,0 +1,114 @@
+package no.mnemonic.act.platform.service.ti.converters.response;
+
+import no.mnemonic.act.platform.api.model.v1.*;
+import no.mnemonic.act.platform.auth.OrganizationResolver;
+import no.mnemonic.act.platform.auth.SubjectResolver;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.handlers.FactRetractionHandler;
+import no.mnemonic.act.platform.service.ti.resolvers.OriginResolver;
+import no.mnemonic.act.platform.service.ti.resolvers.response.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmarks the conversion of {@link FactRecord}s into {@link Fact} responses. All referenced types, Organizations,
+ * Subjects and Origins are served from pre-populated response caches as it is the case for a warmed-up service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactResponseConverterBenchmark {
+
+  private FactResponseConverter converter;
+  private FactRecord fact;
+  private FactRecord factWithInReferenceTo;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    UUID factTypeID = UUID.randomUUID();
+    UUID objectTypeID = UUID.randomUUID();
+    UUID organizationID = UUID.randomUUID();
+    UUID subjectID = UUID.randomUUID();
+    UUID originID = UUID.randomUUID();
+
+    Map<UUID, FactType> factTypeCache = new HashMap<>();
+    factTypeCache.put(factTypeID, FactType.builder().setId(factTypeID).setName("factType").build());
+    Map<UUID, ObjectType> objectTypeCache = new HashMap<>();
+    objectTypeCache.put(objectTypeID, ObjectType.builder().setId(objectTypeID).setName("objectType").build());
+    Map<UUID, Organization> organizationCache = new HashMap<>();
+    organizationCache.put(organizationID, Organization.builder().setId(organizationID).setName("organization").build());
+    Map<UUID, Subject> subjectCache = new HashMap<>();
+    subjectCache.put(subjectID, Subject.builder().setId(subjectID).setName("subject").build());
+    Map<UUID, Origin> originCache = new HashMap<>();
+    originCache.put(originID, Origin.builder().setId(originID).setName("origin").build());
+
+    FactTypeByIdResponseResolver factTypeResolver = new FactTypeByIdResponseResolver(mock(FactManager.class),
+            mock(FactTypeResponseConverter.class), factTypeCache);
+    ObjectTypeByIdResponseResolver objectTypeResolver = new ObjectTypeByIdResponseResolver(mock(ObjectManager.class),
+            mock(ObjectTypeResponseConverter.class), objectTypeCache);
+    ObjectResponseConverter objectConverter = new ObjectResponseConverter(objectTypeResolver, factTypeResolver,
+            id -> Collections.emptyList());
+
+    fact = createFact(factTypeID, objectTypeID, organizationID, subjectID, originID);
+    factWithInReferenceTo = createFact(factTypeID, objectTypeID, organizationID, subjectID, originID)
+            .setInReferenceToID(fact.getId());
+
+    ObjectFactDao objectFactDao = mock(ObjectFactDao.class);
+    TiSecurityContext securityContext = mock(TiSecurityContext.class);
+    when(objectFactDao.getFact(fact.getId())).thenAnswer(i -> createFact(factTypeID, objectTypeID, organizationID, subjectID, originID));
+    when(securityContext.hasReadPermission(any(FactRecord.class))).thenReturn(true);
+
+    converter = new FactResponseConverter(
+            factTypeResolver,
+            new OriginByIdResponseResolver(mock(OriginResolver.class), mock(OriginResponseConverter.class), originCache),
+            objectConverter,
+            new OrganizationByIdResponseResolver(mock(OrganizationResolver.class), organizationCache),
+            new SubjectByIdResponseResolver(mock(SubjectResolver.class), subjectCache),
+            mock(FactRetractionHandler.class),
+            objectFactDao,
+            securityContext,
+            new HashMap<>()
+    );
+  }
+
+  @Benchmark
+  public Fact apply() {
+    return converter.apply(fact);
+  }
+
+  @Benchmark
+  public Fact applyWithInReferenceTo() {
+    return converter.apply(factWithInReferenceTo);
+  }
+
+  private static FactRecord createFact(UUID factTypeID, UUID objectTypeID, UUID organizationID, UUID subjectID, UUID originID) {
+    return new FactRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(factTypeID)
+            .setValue("value")
+            .setOrganizationID(organizationID)
+            .setAddedByID(subjectID)
+            .setOriginID(originID)
+            .setAccessMode(FactRecord.AccessMode.RoleBased)
+            .setConfidence(0.5f)
+            .setTrust(0.8f)
+            .setTimestamp(123456789)
+            .setLastSeenTimestamp(987654321)
+            .setSourceObject(new ObjectRecord().setId(UUID.randomUUID()).setTypeID(objectTypeID).setValue("source"))
+            .setDestinationObject(new ObjectRecord().setId(UUID.randomUUID()).setTypeID(objectTypeID).setValue("destination"));
+  }
+}
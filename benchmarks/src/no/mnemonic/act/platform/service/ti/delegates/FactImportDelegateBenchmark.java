@@ -0,0 +1,121 @@
+package no.mnemonic.act.platform.service.ti.delegates;
+
+import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.model.v1.FactImportResult;
+import no.mnemonic.act.platform.api.model.v1.Organization;
+import no.mnemonic.act.platform.api.request.v1.CreateFactRequest;
+import no.mnemonic.act.platform.api.request.v1.ImportFactsRequest;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.handlers.FactCreateHandler;
+import no.mnemonic.act.platform.service.ti.resolvers.request.FactTypeRequestResolver;
+import no.mnemonic.act.platform.service.ti.resolvers.request.ObjectRequestResolver;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import no.mnemonic.services.common.api.ResultSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmarks importing a batch of new Facts with {@link FactImportDelegate}, i.e. resolving and validating all Facts,
+ * merging duplicates, looking up existing Facts and storing the new Facts. The data stores are replaced by in-memory
+ * stand-ins which answer immediately, thus, only the work done by the service itself is measured (including the
+ * invocations of the stand-ins).
+ * <p>
+ * The stand-ins are stub-only mocks, otherwise Mockito records every invocation and the benchmark slows down over time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactImportDelegateBenchmark {
+
+  @Param({"100", "1000"})
+  private int size;
+
+  private TiSecurityContext securityContext;
+  private FactTypeRequestResolver factTypeRequestResolver;
+  private ObjectRequestResolver objectRequestResolver;
+  private FactCreateHandler factCreateHandler;
+  private ObjectFactDao objectFactDao;
+  private ImportFactsRequest request;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    OriginEntity origin = new OriginEntity().setId(UUID.randomUUID()).setName("origin").setTrust(0.8f);
+    Organization organization = Organization.builder().setId(UUID.randomUUID()).setName("organization").build();
+    UUID objectTypeID = UUID.randomUUID();
+    FactTypeEntity factType = new FactTypeEntity()
+            .setId(UUID.randomUUID())
+            .setName("seen")
+            .setDefaultConfidence(0.5f)
+            .setRelevantObjectBindings(SetUtils.set(new FactTypeEntity.FactObjectBindingDefinition().setSourceObjectTypeID(objectTypeID)));
+
+    securityContext = mock(TiSecurityContext.class, withSettings().stubOnly());
+    when(securityContext.getCurrentUserID()).thenReturn(UUID.randomUUID());
+
+    factTypeRequestResolver = mock(FactTypeRequestResolver.class, withSettings().stubOnly());
+    when(factTypeRequestResolver.resolveFactType(factType.getName())).thenReturn(factType);
+
+    objectRequestResolver = mock(ObjectRequestResolver.class, withSettings().stubOnly());
+    when(objectRequestResolver.resolveObject(any())).thenAnswer(i -> new ObjectRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(objectTypeID)
+            .setValue(i.getArgument(0)));
+
+    factCreateHandler = mock(FactCreateHandler.class, withSettings().stubOnly());
+    when(factCreateHandler.resolveOrigin(origin.getName())).thenReturn(origin);
+    when(factCreateHandler.resolveOrganization(organization.getName(), origin)).thenReturn(organization);
+    when(factCreateHandler.resolveSubjects(any())).thenReturn(ListUtils.list());
+    when(factCreateHandler.publishFact(any(), any())).thenAnswer(i -> Fact.builder()
+            .setId(i.<FactRecord>getArgument(0).getId())
+            .build());
+
+    // No Fact exists yet and all Facts are stored successfully.
+    objectFactDao = mock(ObjectFactDao.class, withSettings().stubOnly());
+    when(objectFactDao.retrieveExistingFactsBatch(anyList())).thenAnswer(i -> i.<List<FactRecord>>getArgument(0)
+            .stream()
+            .map(fact -> ListUtils.<FactRecord>list())
+            .collect(Collectors.toList()));
+    when(objectFactDao.storeFacts(anyList())).thenAnswer(i -> i.<List<FactRecord>>getArgument(0)
+            .stream()
+            .map(CompletableFuture::completedFuture)
+            .collect(Collectors.toList()));
+
+    List<CreateFactRequest> facts = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      facts.add(new CreateFactRequest()
+              .setType(factType.getName())
+              .setValue("seen")
+              .setOrigin(origin.getName())
+              .setOrganization(organization.getName())
+              .setSourceObject("ipv4/10.0." + (i / 256) + "." + (i % 256)));
+    }
+    request = new ImportFactsRequest().setFacts(facts);
+  }
+
+  @Benchmark
+  public ResultSet<FactImportResult> importFacts() throws Exception {
+    // A new delegate is created per request, as it's done by the service.
+    return new FactImportDelegate(securityContext, factTypeRequestResolver, objectRequestResolver, factCreateHandler, objectFactDao)
+            .handle(request);
+  }
+}
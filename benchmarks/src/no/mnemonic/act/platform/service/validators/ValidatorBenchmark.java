@@ -0,0 +1,96 @@
+package no.mnemonic.act.platform.service.validators;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the built-in Validators with {@link RegexValidator} configured with typical regular expressions used by
+ * ObjectTypes. Every invocation validates a mix of valid and invalid values. The 'pathological' benchmarks validate
+ * a value which causes the regular expression '(a+)+b' to backtrack catastrophically, i.e. they measure how quickly
+ * {@link RegexValidator} aborts matching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+
+  private static final String IPV4_REGEX = "(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])";
+  private static final String DOMAIN_REGEX = "([a-zA-Z0-9_]([a-zA-Z0-9_-]{0,61}[a-zA-Z0-9_])?\\.)*[a-zA-Z_]([a-zA-Z0-9_-]{0,61}[a-zA-Z0-9_])?\\.?";
+  private static final String SHA256_REGEX = "[a-fA-F0-9]{64}";
+
+  private static final String[] IPV4_VALUES = {"192.168.0.1", "10.0.0.255", "256.1.1.1", "1.2.3"};
+  private static final String[] DOMAIN_VALUES = {"www.example.org", "mail.sub.example.co.uk", "-invalid.org", "exa mple.org"};
+  private static final String[] SHA256_VALUES = {
+          "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+          "E3B0C44298FC1C149AFBF4C8996FB92427AE41E4649B934CA495991B7852B855",
+          "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b85",
+          "g3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+  };
+  private static final String PATHOLOGICAL_VALUE = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+
+  private Validator ipv4Regex;
+  private Validator ipv4;
+  private Validator domainRegex;
+  private Validator domain;
+  private Validator sha256Regex;
+  private Validator sha256;
+  private Validator pathologicalRegex;
+
+  @Setup
+  public void setUp() throws ValidatorConfigurationException {
+    ipv4Regex = new RegexValidator(IPV4_REGEX);
+    ipv4 = new IPv4Validator();
+    domainRegex = new RegexValidator(DOMAIN_REGEX);
+    domain = new DomainValidator();
+    sha256Regex = new RegexValidator(SHA256_REGEX);
+    sha256 = new HashValidator("sha256");
+    pathologicalRegex = new RegexValidator("(a+)+b");
+  }
+
+  @Benchmark
+  public void ipv4Regex(Blackhole blackhole) {
+    validate(ipv4Regex, IPV4_VALUES, blackhole);
+  }
+
+  @Benchmark
+  public void ipv4Validator(Blackhole blackhole) {
+    validate(ipv4, IPV4_VALUES, blackhole);
+  }
+
+  @Benchmark
+  public void domainRegex(Blackhole blackhole) {
+    validate(domainRegex, DOMAIN_VALUES, blackhole);
+  }
+
+  @Benchmark
+  public void domainValidator(Blackhole blackhole) {
+    validate(domain, DOMAIN_VALUES, blackhole);
+  }
+
+  @Benchmark
+  public void sha256Regex(Blackhole blackhole) {
+    validate(sha256Regex, SHA256_VALUES, blackhole);
+  }
+
+  @Benchmark
+  public void sha256Validator(Blackhole blackhole) {
+    validate(sha256, SHA256_VALUES, blackhole);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean pathologicalRegex() {
+    return pathologicalRegex.validate(PATHOLOGICAL_VALUE);
+  }
+
+  private static void validate(Validator validator, String[] values, Blackhole blackhole) {
+    for (String value : values) {
+      blackhole.consume(validator.validate(value));
+    }
+  }
+}
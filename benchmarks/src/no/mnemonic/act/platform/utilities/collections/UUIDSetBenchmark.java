@@ -0,0 +1,87 @@
+package no.mnemonic.act.platform.utilities.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UUIDSet} with {@link HashSet} when collecting, querying and iterating the ids returned by large
+ * Object searches and graph traversals. Run with '-prof gc' in order to compare the memory footprint as well:
+ * 'gc.alloc.rate.norm' of the 'build' benchmarks reports the bytes allocated for collecting all ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UUIDSetBenchmark {
+
+  @Param({"10000", "500000"})
+  private int size;
+
+  private UUID[] ids;
+  private Set<UUID> hashSet;
+  private UUIDSet uuidSet;
+
+  @Setup
+  public void setUp() {
+    ids = new UUID[size];
+    for (int i = 0; i < size; i++) {
+      ids[i] = UUID.randomUUID();
+    }
+
+    hashSet = buildHashSet();
+    uuidSet = buildUUIDSet();
+  }
+
+  @Benchmark
+  public Set<UUID> buildHashSet() {
+    Set<UUID> set = new HashSet<>();
+    for (UUID id : ids) {
+      set.add(id);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public UUIDSet buildUUIDSet() {
+    UUIDSet set = new UUIDSet();
+    for (UUID id : ids) {
+      set.add(id);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public void containsHashSet(Blackhole blackhole) {
+    for (UUID id : ids) {
+      blackhole.consume(hashSet.contains(id));
+    }
+  }
+
+  @Benchmark
+  public void containsUUIDSet(Blackhole blackhole) {
+    for (UUID id : ids) {
+      blackhole.consume(uuidSet.contains(id));
+    }
+  }
+
+  @Benchmark
+  public void iterateHashSet(Blackhole blackhole) {
+    for (UUID id : hashSet) {
+      blackhole.consume(id);
+    }
+  }
+
+  @Benchmark
+  public void iterateUUIDSet(Blackhole blackhole) {
+    for (UUID id : uuidSet) {
+      blackhole.consume(id);
+    }
+  }
+}
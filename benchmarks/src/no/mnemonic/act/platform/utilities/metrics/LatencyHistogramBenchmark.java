@@ -0,0 +1,43 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the overhead of recording a latency into a {@link LatencyHistogram}. Latencies are recorded on every
+ * call of the DAO managers and service methods, thus, recording must stay negligible compared to the measured code,
+ * also when many threads record into the same histogram.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatencyHistogramBenchmark {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @Benchmark
+  public long nanoTime() {
+    // Baseline: the minimum cost of measuring a latency at all.
+    return System.nanoTime();
+  }
+
+  @Benchmark
+  public void recordSince() {
+    histogram.recordSince(System.nanoTime());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordSinceContended() {
+    histogram.recordSince(System.nanoTime());
+  }
+
+  @Benchmark
+  public LatencyHistogram.Snapshot snapshot() {
+    return histogram.snapshot();
+  }
+}
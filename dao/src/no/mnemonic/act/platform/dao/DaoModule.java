@@ -3,25 +3,34 @@ package no.mnemonic.act.platform.dao;
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
 import no.mnemonic.act.platform.dao.cassandra.*;
 import no.mnemonic.act.platform.dao.elastic.ClientFactory;
 import no.mnemonic.act.platform.dao.elastic.ClientFactoryProvider;
 import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.elastic.FactSearchManagerProvider;
 import no.mnemonic.act.platform.dao.facade.ObjectFactDaoFacade;
 
 public class DaoModule extends AbstractModule {
 
   @Override
   protected void configure() {
+    // Cache invalidation (the loopback transport doesn't distribute invalidations to other nodes)
+    bind(CacheInvalidationTransport.class).to(LoopbackCacheInvalidationTransport.class);
+    bind(CacheInvalidationBus.class);
+
     // Cassandra
     bind(ClusterManager.class).toProvider(ClusterManagerProvider.class).in(Scopes.SINGLETON);
     bind(FactManager.class);
     bind(ObjectManager.class);
+    bind(ObjectStatisticsManager.class);
     bind(OriginManager.class);
 
     // ElasticSearch
     bind(ClientFactory.class).toProvider(ClientFactoryProvider.class).in(Scopes.SINGLETON);
-    bind(FactSearchManager.class);
+    bind(FactSearchManager.class).toProvider(FactSearchManagerProvider.class).in(Scopes.SINGLETON);
 
     // Facade wrapping Cassandra + ElasticSearch
     bind(ObjectFactDao.class).to(ObjectFactDaoFacade.class);
@@ -9,7 +9,9 @@ import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Interface for handling Objects and Facts. It acts as an abstraction of the underlying databases and should be used
@@ -79,6 +81,16 @@ public interface ObjectFactDao {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Fetch multiple Facts by their UUIDs at once. Facts which cannot be found are omitted from the result.
+   *
+   * @param id UUIDs of Facts
+   * @return Facts identified by their UUIDs
+   */
+  default List<FactRecord> getFacts(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Store a new Fact. The caller must ensure that the same Fact (by UUID and logically) is not stored twice. Use
    * {@link #retrieveExistingFacts(FactRecord)} to check if a Fact already exists and {@link #refreshFact(FactRecord)}
@@ -93,6 +105,32 @@ public interface ObjectFactDao {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Asynchronous variant of {@link #storeFact(FactRecord)}. The returned stage completes after the Fact has been stored
+   * and indexed, or exceptionally if storing the Fact failed.
+   *
+   * @param fact Fact to store
+   * @return Stage completing with the stored Fact
+   */
+  default CompletionStage<FactRecord> storeFactAsync(FactRecord fact) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Store multiple new Facts at once. Same as {@link #storeFactAsync(FactRecord)} for every Fact, but the Facts are
+   * indexed with one bulk request instead of one request per Fact.
+   * <p>
+   * The returned list contains one stage per Fact in the same order as the given Facts. A stage completes exceptionally
+   * if the corresponding Fact could not be stored, the other Facts are not affected. A Fact which has been stored but
+   * could not be indexed is indexed again later, its stage completes successfully.
+   *
+   * @param facts Facts to store
+   * @return Stages completing with the stored Facts
+   */
+  default List<CompletionStage<FactRecord>> storeFacts(List<FactRecord> facts) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Refresh an existing Fact, i.e. update its lastSeenTimestamp. The caller must ensure that the Fact exists.
    * <p>
@@ -129,6 +167,17 @@ public interface ObjectFactDao {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Retrieve any existing Facts for multiple {@link FactRecord}s at once. Same as {@link #retrieveExistingFacts(FactRecord)}
+   * for every Fact, but all lookups are performed concurrently and every data store is searched at most once.
+   *
+   * @param facts Facts to check for existence
+   * @return One list of existing Facts per given Fact in the same order, empty if none exist
+   */
+  default List<List<FactRecord>> retrieveExistingFactsBatch(List<FactRecord> facts) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Search for Facts based on a search criteria.
    *
@@ -140,7 +189,8 @@ public interface ObjectFactDao {
   }
 
   /**
-   * Store a new ACL entry for an existing Fact. The caller must ensure that the Fact exists.
+   * Store a new ACL entry for an existing Fact. The caller must ensure that the Fact exists. The ACL of the given Fact
+   * must contain the current ACL entries, it's used to decide whether the subject is granted access for the first time.
    *
    * @param fact     Fact owning the ACL entry
    * @param aclEntry ACL entry to store
@@ -125,6 +125,7 @@ public class FactSearchCriteria {
 
   // Additional search options.
   private final int limit;
+  private final FactSearchCursor searchAfter;
 
   // Fields required for access control.
   private final UUID currentUserID;
@@ -151,6 +152,7 @@ public class FactSearchCriteria {
                              Set<NumberFieldStrategy> numberFieldStrategy,
                              MatchStrategy numberMatchStrategy,
                              int limit,
+                             FactSearchCursor searchAfter,
                              UUID currentUserID,
                              Set<UUID> availableOrganizationID,
                              FactBinding factBinding) {
@@ -173,6 +175,7 @@ public class FactSearchCriteria {
     this.minNumber = minNumber;
     this.maxNumber = maxNumber;
     this.limit = limit;
+    this.searchAfter = searchAfter;
     this.currentUserID = currentUserID;
     this.availableOrganizationID = availableOrganizationID;
     this.factBinding = factBinding;
@@ -396,6 +399,16 @@ public class FactSearchCriteria {
     return limit;
   }
 
+  /**
+   * Only return Facts positioned after the given cursor. When set, the search result is sorted by the Facts' timestamps
+   * which allows to page through arbitrarily large results and to resume a previous search.
+   *
+   * @return Cursor to continue a previous search from
+   */
+  public FactSearchCursor getSearchAfter() {
+    return searchAfter;
+  }
+
   /**
    * Specify the UUID of the calling user. This field is required.
    *
@@ -474,6 +487,7 @@ public class FactSearchCriteria {
 
     // Additional search options.
     private int limit;
+    private FactSearchCursor searchAfter;
 
     // Fields required for access control.
     private UUID currentUserID;
@@ -485,7 +499,7 @@ public class FactSearchCriteria {
     public FactSearchCriteria build() {
       return new FactSearchCriteria(factID, factTypeID, factValue, inReferenceTo, organizationID, originID, objectID, objectTypeID,
               objectValue, keywords, keywordFieldStrategy, keywordMatchStrategy, startTimestamp, endTimestamp, timeFieldStrategy,
-              timeMatchStrategy, minNumber, maxNumber, numberFieldStrategy, numberMatchStrategy, limit, currentUserID,
+              timeMatchStrategy, minNumber, maxNumber, numberFieldStrategy, numberMatchStrategy, limit, searchAfter, currentUserID,
               availableOrganizationID, factBinding);
     }
 
@@ -659,6 +673,11 @@ public class FactSearchCriteria {
       return this;
     }
 
+    public Builder setSearchAfter(FactSearchCursor searchAfter) {
+      this.searchAfter = searchAfter;
+      return this;
+    }
+
     public Builder setCurrentUserID(UUID currentUserID) {
       this.currentUserID = currentUserID;
       return this;
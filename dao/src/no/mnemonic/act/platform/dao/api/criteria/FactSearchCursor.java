@@ -0,0 +1,151 @@
+package no.mnemonic.act.platform.dao.api.criteria;
+
+import no.mnemonic.commons.utilities.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position inside the result of a Fact search. When searching with a cursor the result is sorted by the Facts'
+ * timestamps (with their UUIDs as tie breaker) and only Facts positioned after the cursor are returned.
+ * <p>
+ * A cursor can be encoded into an opaque token which can be handed out to clients in order to resume a search later on.
+ * The special token {@link #START_TOKEN} denotes the {@link #start()} cursor which requests a sorted result starting at
+ * the very first Fact.
+ */
+public class FactSearchCursor {
+
+  /**
+   * Token of the cursor positioned before the first Fact.
+   */
+  public static final String START_TOKEN = "*";
+
+  private static final byte VERSION = 1;
+  private static final FactSearchCursor START = new FactSearchCursor();
+  private static final int TOKEN_LENGTH = 1 + Long.BYTES * 3;
+
+  private final long timestamp;
+  private final UUID factID;
+
+  private FactSearchCursor(long timestamp, UUID factID) {
+    if (factID == null) throw new IllegalArgumentException("Missing required field 'factID'.");
+    this.timestamp = timestamp;
+    this.factID = factID;
+  }
+
+  private FactSearchCursor() {
+    this.timestamp = 0;
+    this.factID = null;
+  }
+
+  /**
+   * Returns the cursor positioned before the first Fact. Searching with this cursor returns a sorted result from the
+   * beginning, i.e. it's used to start a search which will be resumed later on.
+   *
+   * @return Cursor positioned before the first Fact
+   */
+  public static FactSearchCursor start() {
+    return START;
+  }
+
+  /**
+   * Create a cursor pointing to the position directly after a specific Fact.
+   *
+   * @param timestamp Timestamp of the last returned Fact
+   * @param factID    UUID of the last returned Fact
+   * @return Cursor positioned after the given Fact
+   */
+  public static FactSearchCursor of(long timestamp, UUID factID) {
+    return new FactSearchCursor(timestamp, factID);
+  }
+
+  /**
+   * Decode a cursor from a token previously created by {@link #encode()}.
+   *
+   * @param token Encoded cursor
+   * @return Decoded cursor
+   * @throws IllegalArgumentException If the token is not a valid cursor
+   */
+  public static FactSearchCursor decode(String token) {
+    if (StringUtils.isBlank(token)) throw new IllegalArgumentException("Missing search cursor.");
+    if (START_TOKEN.equals(token)) return START;
+
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Invalid search cursor: " + token, ex);
+    }
+
+    if (bytes.length != TOKEN_LENGTH || bytes[0] != VERSION) {
+      throw new IllegalArgumentException("Invalid search cursor: " + token);
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, TOKEN_LENGTH - 1);
+    long timestamp = buffer.getLong();
+    return new FactSearchCursor(timestamp, new UUID(buffer.getLong(), buffer.getLong()));
+  }
+
+  /**
+   * Encode this cursor into an opaque, URL-safe token.
+   *
+   * @return Encoded cursor
+   */
+  public String encode() {
+    if (isStart()) return START_TOKEN;
+
+    ByteBuffer buffer = ByteBuffer.allocate(TOKEN_LENGTH)
+            .put(VERSION)
+            .putLong(timestamp)
+            .putLong(factID.getMostSignificantBits())
+            .putLong(factID.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Whether this cursor is positioned before the first Fact, see {@link #start()}.
+   *
+   * @return True if this is the start cursor
+   */
+  public boolean isStart() {
+    return factID == null;
+  }
+
+  /**
+   * Timestamp of the last Fact returned before this cursor.
+   *
+   * @return Timestamp of last Fact
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * UUID of the last Fact returned before this cursor.
+   *
+   * @return UUID of last Fact (NULL for the start cursor)
+   */
+  public UUID getFactID() {
+    return factID;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    FactSearchCursor that = (FactSearchCursor) o;
+    return timestamp == that.timestamp && Objects.equals(factID, that.factID);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(timestamp, factID);
+  }
+
+  @Override
+  public String toString() {
+    return encode();
+  }
+}
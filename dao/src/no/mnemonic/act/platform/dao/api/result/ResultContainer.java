@@ -16,10 +16,12 @@ import java.util.stream.StreamSupport;
 public class ResultContainer<T> implements Iterable<T>, Iterator<T> {
 
   private final int count;
+  private final boolean sorted;
   private final Iterator<T> values;
 
-  private ResultContainer(int count, Iterator<T> values) {
+  private ResultContainer(int count, boolean sorted, Iterator<T> values) {
     this.count = count;
+    this.sorted = sorted;
     this.values = ObjectUtils.ifNull(values, Collections.emptyIterator());
   }
 
@@ -33,6 +35,16 @@ public class ResultContainer<T> implements Iterable<T>, Iterator<T> {
     return count;
   }
 
+  /**
+   * Whether the search results are sorted by timestamp and id. Only then a search can be resumed after a returned
+   * result using a {@link no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor}.
+   *
+   * @return True if the search results are sorted
+   */
+  public boolean isSorted() {
+    return sorted;
+  }
+
   /**
    * Return the search results from the underlying {@link Iterator} as a {@link Stream}.
    *
@@ -63,13 +75,14 @@ public class ResultContainer<T> implements Iterable<T>, Iterator<T> {
 
   public static class Builder<T> {
     private int count;
+    private boolean sorted;
     private Iterator<T> values;
 
     private Builder() {
     }
 
     public ResultContainer<T> build() {
-      return new ResultContainer<>(count, values);
+      return new ResultContainer<>(count, sorted, values);
     }
 
     public Builder<T> setCount(int count) {
@@ -77,6 +90,11 @@ public class ResultContainer<T> implements Iterable<T>, Iterator<T> {
       return this;
     }
 
+    public Builder<T> setSorted(boolean sorted) {
+      this.sorted = sorted;
+      return this;
+    }
+
     public Builder<T> setValues(Iterator<T> values) {
       this.values = values;
       return this;
@@ -0,0 +1,135 @@
+package no.mnemonic.act.platform.dao.cache;
+
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.metrics.MetricsData;
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bus used to invalidate cached entities on all nodes when they are changed on one node.
+ * <p>
+ * Caches register a listener per {@link CacheInvalidationEvent.Type}. When an entity is changed
+ * {@link #invalidate(CacheInvalidationEvent.Type, UUID)} notifies the listeners on the local node immediately and
+ * publishes an event through the {@link CacheInvalidationTransport} in order to notify the listeners on all other
+ * nodes. Events published by the local node itself are ignored when received from the transport.
+ */
+@Singleton
+public class CacheInvalidationBus implements MetricAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(CacheInvalidationBus.class);
+
+  // Entries can be kept much longer if changes on other nodes will be invalidated explicitly.
+  private static final long CLUSTER_WIDE_EXPIRY_MINUTES = TimeUnit.HOURS.toMinutes(12);
+
+  private final UUID nodeID = UUID.randomUUID();
+  private final Map<CacheInvalidationEvent.Type, List<Consumer<UUID>>> listeners = new EnumMap<>(CacheInvalidationEvent.Type.class);
+  private final LongAdder publishedInvalidations = new LongAdder();
+  private final LongAdder receivedInvalidations = new LongAdder();
+  private final CacheInvalidationTransport transport;
+
+  @Inject
+  public CacheInvalidationBus(CacheInvalidationTransport transport) {
+    this.transport = ObjectUtils.notNull(transport, "'transport' is null!");
+    for (CacheInvalidationEvent.Type type : CacheInvalidationEvent.Type.values()) {
+      listeners.put(type, new CopyOnWriteArrayList<>());
+    }
+    this.transport.subscribe(this::receive);
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return new MetricsData()
+            .addData("publishedInvalidations", publishedInvalidations.longValue())
+            .addData("receivedInvalidations", receivedInvalidations.longValue());
+  }
+
+  /**
+   * Register a listener which is notified when an entity of the given type is invalidated on any node.
+   *
+   * @param type     Type of entities
+   * @param listener Listener receiving the UUIDs of invalidated entities
+   */
+  public void register(CacheInvalidationEvent.Type type, Consumer<UUID> listener) {
+    listeners.get(ObjectUtils.notNull(type, "'type' is null!")).add(ObjectUtils.notNull(listener, "'listener' is null!"));
+  }
+
+  /**
+   * Invalidate an entity in all caches on all nodes.
+   *
+   * @param type Type of the entity
+   * @param id   UUID of the entity
+   */
+  public void invalidate(CacheInvalidationEvent.Type type, UUID id) {
+    if (type == null || id == null) return;
+
+    notifyListeners(type, id);
+    publish(type, id);
+  }
+
+  /**
+   * Invalidate an entity in all caches on all other nodes, but keep the entries on the local node. Use this method if
+   * the local caches have already been updated in place.
+   *
+   * @param type Type of the entity
+   * @param id   UUID of the entity
+   */
+  public void invalidateOtherNodes(CacheInvalidationEvent.Type type, UUID id) {
+    if (type == null || id == null) return;
+
+    publish(type, id);
+  }
+
+  /**
+   * Calculate how long cached entries can be kept. If invalidations are distributed cluster-wide entries can be kept
+   * much longer than the given default expiry which only bounds the staleness caused by changes on other nodes.
+   *
+   * @param defaultExpiryMinutes Expiry used if invalidations are not distributed cluster-wide
+   * @return Expiry in minutes
+   */
+  public long getExpiryMinutes(long defaultExpiryMinutes) {
+    return transport.isClusterWide() ? Math.max(defaultExpiryMinutes, CLUSTER_WIDE_EXPIRY_MINUTES) : defaultExpiryMinutes;
+  }
+
+  private void publish(CacheInvalidationEvent.Type type, UUID id) {
+    try {
+      transport.publish(new CacheInvalidationEvent(nodeID, type, id));
+      publishedInvalidations.increment();
+    } catch (RuntimeException ex) {
+      // The local caches are already up-to-date. Other nodes will pick up the change once their entries expire.
+      LOGGER.warning(ex, "Could not publish invalidation of %s with id = %s.", type, id);
+    }
+  }
+
+  private void receive(CacheInvalidationEvent event) {
+    // Events published by this node have already been applied.
+    if (event == null || nodeID.equals(event.getSourceNode())) return;
+
+    receivedInvalidations.increment();
+    notifyListeners(event.getType(), event.getId());
+  }
+
+  private void notifyListeners(CacheInvalidationEvent.Type type, UUID id) {
+    for (Consumer<UUID> listener : listeners.get(type)) {
+      try {
+        listener.accept(id);
+      } catch (RuntimeException ex) {
+        // Don't let one failing listener prevent invalidating the other caches.
+        LOGGER.warning(ex, "Failed to invalidate %s with id = %s.", type, id);
+      }
+    }
+  }
+}
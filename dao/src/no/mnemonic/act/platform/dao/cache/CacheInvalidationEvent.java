@@ -0,0 +1,58 @@
+package no.mnemonic.act.platform.dao.cache;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Event sent through a {@link CacheInvalidationTransport} in order to evict an entity from the caches of all nodes.
+ */
+public class CacheInvalidationEvent implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Types of entities which can be invalidated. {@link #FactRetractions} invalidates the retractions indexed for
+   * the Fact with the given UUID.
+   */
+  public enum Type {
+    FactType, ObjectType, Origin, Organization, Subject, FactRetractions
+  }
+
+  private final UUID sourceNode;
+  private final Type type;
+  private final UUID id;
+
+  public CacheInvalidationEvent(UUID sourceNode, Type type, UUID id) {
+    this.sourceNode = ObjectUtils.notNull(sourceNode, "'sourceNode' is null!");
+    this.type = ObjectUtils.notNull(type, "'type' is null!");
+    this.id = ObjectUtils.notNull(id, "'id' is null!");
+  }
+
+  /**
+   * @return Node which published the event
+   */
+  public UUID getSourceNode() {
+    return sourceNode;
+  }
+
+  /**
+   * @return Type of the invalidated entity
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return UUID of the invalidated entity
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("CacheInvalidationEvent{sourceNode=%s, type=%s, id=%s}", sourceNode, type, id);
+  }
+}
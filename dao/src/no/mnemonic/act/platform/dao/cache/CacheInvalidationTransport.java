@@ -0,0 +1,31 @@
+package no.mnemonic.act.platform.dao.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport used by the {@link CacheInvalidationBus} to distribute {@link CacheInvalidationEvent}s between nodes.
+ */
+public interface CacheInvalidationTransport {
+
+  /**
+   * Send an event to all subscribers on all nodes, possibly including the publishing node itself.
+   *
+   * @param event Event to send
+   */
+  void publish(CacheInvalidationEvent event);
+
+  /**
+   * Register a consumer receiving all published events.
+   *
+   * @param consumer Consumer of events
+   */
+  void subscribe(Consumer<CacheInvalidationEvent> consumer);
+
+  /**
+   * Whether events reach all nodes of the cluster. If not, cached entries can only be kept for a short time in order
+   * to bound the staleness caused by changes on other nodes.
+   *
+   * @return True if events are distributed cluster-wide
+   */
+  boolean isClusterWide();
+}
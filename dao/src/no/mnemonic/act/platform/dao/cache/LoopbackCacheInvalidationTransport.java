@@ -0,0 +1,35 @@
+package no.mnemonic.act.platform.dao.cache;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link CacheInvalidationTransport} which delivers events synchronously to all subscribers inside the same JVM.
+ * It does not reach other nodes, thus, it's only suitable for single node deployments and tests. In tests multiple
+ * {@link CacheInvalidationBus} instances sharing one transport can be used to simulate multiple nodes.
+ */
+@Singleton
+public class LoopbackCacheInvalidationTransport implements CacheInvalidationTransport {
+
+  private final List<Consumer<CacheInvalidationEvent>> consumers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheInvalidationEvent event) {
+    if (event == null) return;
+    consumers.forEach(consumer -> consumer.accept(event));
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidationEvent> consumer) {
+    consumers.add(ObjectUtils.notNull(consumer, "'consumer' is null!"));
+  }
+
+  @Override
+  public boolean isClusterWide() {
+    return false;
+  }
+}
@@ -0,0 +1,106 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds all Facts stored before the lookup table 'fact_existence' was introduced to the table.
+ * <p>
+ * The migrator reads all Facts from Cassandra and saves their lookup entries, see
+ * {@link FactManager#saveFactExistenceAsync(FactEntity)}. Saving the entry of a Fact which is contained in the table
+ * already is harmless, thus, the migration can be executed while the application is running and can be repeated. After
+ * the migration has completed successfully the search for existing Facts in ElasticSearch isn't required any more and
+ * can be disabled with 'act.fact.existence.search.fallback.enabled'. If the migration fails it must be repeated before
+ * disabling the search.
+ */
+public class FactExistenceMigrator {
+
+  private static final Logger LOGGER = Logging.getLogger(FactExistenceMigrator.class);
+
+  private static final int MAX_CONCURRENT_WRITES = 64;
+  private static final int PROGRESS_INTERVAL = 100_000;
+
+  private final FactManager factManager;
+
+  public FactExistenceMigrator(FactManager factManager) {
+    this.factManager = ObjectUtils.notNull(factManager, "'factManager' cannot be null!");
+  }
+
+  /**
+   * Executes the migration and blocks until the lookup entries of all Facts have been saved.
+   *
+   * @return Number of Facts whose lookup entries have been saved
+   * @throws IllegalStateException If any lookup entry could not be saved
+   */
+  public long migrate() {
+    LOGGER.info("Start saving lookup entries of all Facts.");
+
+    Semaphore writes = new Semaphore(MAX_CONCURRENT_WRITES);
+    LongAdder failed = new LongAdder();
+    long count = 0;
+    Iterator<FactEntity> facts = factManager.fetchAllFacts();
+    while (facts.hasNext()) {
+      FactEntity fact = facts.next();
+      // Blocks while too many writes are in flight.
+      writes.acquireUninterruptibly();
+      try {
+        factManager.saveFactExistenceAsync(fact).whenComplete((ignored, ex) -> {
+          if (ex != null) {
+            LOGGER.warning(ex, "Could not save lookup entry of Fact with id = %s.", fact.getId());
+            failed.increment();
+          }
+          writes.release();
+        });
+      } catch (RuntimeException ex) {
+        LOGGER.warning(ex, "Could not save lookup entry of Fact with id = %s.", fact.getId());
+        failed.increment();
+        writes.release();
+      }
+
+      if (++count % PROGRESS_INTERVAL == 0) LOGGER.info("Saved lookup entries of %d Facts.", count);
+    }
+
+    // Wait until all remaining writes have completed.
+    writes.acquireUninterruptibly(MAX_CONCURRENT_WRITES);
+    writes.release(MAX_CONCURRENT_WRITES);
+
+    if (failed.sum() > 0) {
+      throw new IllegalStateException(String.format("Could not save lookup entries of %d out of %d Facts.", failed.sum(), count));
+    }
+
+    LOGGER.info("Finished saving lookup entries of %d Facts.", count);
+    return count;
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 3) {
+      System.err.println("Usage: FactExistenceMigrator <contactPoints> <port> <dataCenter>");
+      System.exit(1);
+    }
+
+    ClusterManager clusterManager = ClusterManager.builder()
+            .setContactPoints(SetUtils.set(args[0].split(",")))
+            .setPort(Integer.parseInt(args[1]))
+            .setDataCenter(args[2])
+            .build();
+    FactManager factManager = new FactManager(clusterManager, new CacheInvalidationBus(new LoopbackCacheInvalidationTransport()));
+
+    clusterManager.startComponent();
+    try {
+      factManager.startComponent();
+      new FactExistenceMigrator(factManager).migrate();
+    } finally {
+      factManager.stopComponent();
+      clusterManager.stopComponent();
+    }
+  }
+}
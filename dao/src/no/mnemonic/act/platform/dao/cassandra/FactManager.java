@@ -1,36 +1,76 @@
 package no.mnemonic.act.platform.dao.cassandra;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationEvent;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
 import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.dao.cassandra.mapper.FactDao;
 import no.mnemonic.act.platform.dao.cassandra.mapper.FactTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.utilities.FactExistenceKey;
 import no.mnemonic.act.platform.dao.cassandra.utilities.MultiFetchIterator;
+import no.mnemonic.act.platform.utilities.metrics.LatencyHistogram;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Singleton
-public class FactManager implements LifecycleAspect {
+public class FactManager implements LifecycleAspect, MetricAspect {
+
+  // Multi-fetch issues multiple IN-clause requests in parallel and prefetches batches ahead of the consumer.
+  private static final int MULTI_FETCH_PARALLELISM = 4;
+  private static final int MULTI_FETCH_PREFETCH_DEPTH = 8;
+  // Facts are never deleted, thus, once a Fact is known to exist this information can be kept until evicted.
+  private static final int EXISTING_FACT_CACHE_SIZE = 100_000;
+  // Only keys with existing Facts are cached. Entries expire because Facts with the same key might be added on other nodes.
+  private static final int FACT_EXISTENCE_CACHE_SIZE = 100_000;
+  private static final int FACT_EXISTENCE_CACHE_EXPIRY_MINUTES = 10;
 
   @Dependency
   private final ClusterManager clusterManager;
+  private final CacheInvalidationBus cacheInvalidationBus;
 
   private final LoadingCache<UUID, FactTypeEntity> factTypeByIdCache;
   private final LoadingCache<String, FactTypeEntity> factTypeByNameCache;
+  private final Cache<UUID, Boolean> existingFactCache;
+  private final Cache<String, List<UUID>> factExistenceCache;
+
+  // Latency of every operation reading from or writing to Cassandra, keyed by operation.
+  private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+  private final LatencyHistogram getFactLatency = latency("getFact");
+  private final LatencyHistogram saveFactLatency = latency("saveFact");
+  private final LatencyHistogram refreshFactLatency = latency("refreshFact");
+  private final LatencyHistogram retractFactLatency = latency("retractFact");
+  private final LatencyHistogram fetchFactExistenceLatency = latency("fetchFactExistence");
+  private final LatencyHistogram saveFactExistenceLatency = latency("saveFactExistence");
+  private final LatencyHistogram fetchFactAclLatency = latency("fetchFactAcl");
+  private final LatencyHistogram saveFactAclEntryLatency = latency("saveFactAclEntry");
+  private final LatencyHistogram fetchFactCommentsLatency = latency("fetchFactComments");
+  private final LatencyHistogram saveFactCommentLatency = latency("saveFactComment");
+  private final LatencyHistogram fetchMetaFactBindingsLatency = latency("fetchMetaFactBindings");
+  private final LatencyHistogram saveMetaFactBindingLatency = latency("saveMetaFactBinding");
 
   private FactTypeDao factTypeDao;
   private FactDao factDao;
@@ -38,10 +78,22 @@ public class FactManager implements LifecycleAspect {
   private Clock clock = Clock.systemUTC();
 
   @Inject
-  public FactManager(ClusterManager clusterManager) {
+  public FactManager(ClusterManager clusterManager, CacheInvalidationBus cacheInvalidationBus) {
     this.clusterManager = clusterManager;
+    this.cacheInvalidationBus = cacheInvalidationBus;
     this.factTypeByIdCache = createFactTypeByIdCache();
     this.factTypeByNameCache = createFactTypeByNameCache();
+    this.existingFactCache = CacheBuilder.newBuilder()
+            .maximumSize(EXISTING_FACT_CACHE_SIZE)
+            .recordStats()
+            .build();
+    this.factExistenceCache = CacheBuilder.newBuilder()
+            .maximumSize(FACT_EXISTENCE_CACHE_SIZE)
+            .expireAfterWrite(FACT_EXISTENCE_CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+    // Evict FactTypes changed on any node, including this one.
+    this.cacheInvalidationBus.register(CacheInvalidationEvent.Type.FactType, this::invalidateFactType);
   }
 
   @Override
@@ -55,6 +107,15 @@ public class FactManager implements LifecycleAspect {
     // NOOP
   }
 
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(latencies)
+            .addSubMetrics("factTypeByIdCache", MetricsUtils.toMetrics(factTypeByIdCache))
+            .addSubMetrics("factTypeByNameCache", MetricsUtils.toMetrics(factTypeByNameCache))
+            .addSubMetrics("existingFactCache", MetricsUtils.toMetrics(existingFactCache))
+            .addSubMetrics("factExistenceCache", MetricsUtils.toMetrics(factExistenceCache));
+  }
+
   /* FactTypeEntity-related methods */
 
   public FactTypeEntity getFactType(UUID id) {
@@ -93,8 +154,7 @@ public class FactManager implements LifecycleAspect {
     }
 
     factTypeDao.save(type);
-    factTypeByIdCache.invalidate(type.getId());
-    factTypeByNameCache.invalidate(type.getName());
+    cacheInvalidationBus.invalidate(CacheInvalidationEvent.Type.FactType, type.getId());
 
     return type;
   }
@@ -103,98 +163,322 @@ public class FactManager implements LifecycleAspect {
 
   public FactEntity getFact(UUID id) {
     if (id == null) return null;
-    return factDao.get(id);
+
+    long start = System.nanoTime();
+    try {
+      FactEntity fact = factDao.get(id);
+      if (fact != null) {
+        existingFactCache.put(id, Boolean.TRUE);
+      }
+
+      return fact;
+    } finally {
+      getFactLatency.recordSince(start);
+    }
+  }
+
+  /**
+   * Iterate over all stored Facts. This scans the whole table, pages are fetched on demand while iterating.
+   *
+   * @return Iterator over all Facts
+   */
+  public Iterator<FactEntity> fetchAllFacts() {
+    return factDao.fetchAll().iterator();
+  }
+
+  public CompletionStage<FactEntity> getFactAsync(UUID id) {
+    if (id == null) return CompletableFuture.completedFuture(null);
+
+    long start = System.nanoTime();
+    return factDao.getAsync(id)
+            .whenComplete((fact, ex) -> getFactLatency.recordSince(start))
+            .thenApply(fact -> {
+              if (fact != null) existingFactCache.put(id, Boolean.TRUE);
+              return fact;
+            });
   }
 
   public Iterator<FactEntity> getFacts(List<UUID> id) {
     if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
-    return new MultiFetchIterator<>(partition -> factDao.fetchByID(partition).iterator(), id);
+    return multiFetch(partition -> MultiFetchIterator.fetchAllPages(factDao.fetchByIDAsync(partition)), id);
   }
 
   public FactEntity saveFact(FactEntity fact) {
     if (fact == null) return null;
     if (getFactType(fact.getTypeID()) == null)
       throw new IllegalArgumentException(String.format("FactType with id = %s does not exist.", fact.getTypeID()));
-    if (getFact(fact.getId()) != null)
-      throw new ImmutableViolationException("It is not allowed to update a Fact");
 
-    factDao.save(fact);
+    long start = System.nanoTime();
+    try {
+      // Write conditionally instead of reading the Fact first. The insert is only applied if the Fact doesn't exist yet.
+      if (!factDao.saveIfNotExists(fact))
+        throw new ImmutableViolationException(String.format("It is not allowed to update a Fact (id = %s).", fact.getId()));
+    } finally {
+      saveFactLatency.recordSince(start);
+    }
+
+    existingFactCache.put(fact.getId(), Boolean.TRUE);
     return fact;
   }
+  /**
+   * Asynchronous variant of {@link #saveFact(FactEntity)}. The returned stage completes exceptionally with an
+   * {@link IllegalArgumentException} if the FactType doesn't exist or an {@link ImmutableViolationException} if the
+   * Fact exists already.
+   *
+   * @param fact Fact to save
+   * @return Stage completing with the saved Fact
+   */
+  public CompletionStage<FactEntity> saveFactAsync(FactEntity fact) {
+    if (fact == null) return CompletableFuture.completedFuture(null);
+
+    if (getFactType(fact.getTypeID()) == null) {
+      CompletableFuture<FactEntity> result = new CompletableFuture<>();
+      result.completeExceptionally(new IllegalArgumentException(String.format("FactType with id = %s does not exist.", fact.getTypeID())));
+      return result;
+    }
 
-  public FactEntity refreshFact(UUID id) {
-    FactEntity fact = getFact(id);
-    if (fact == null) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
-    factDao.save(fact.setLastSeenTimestamp(Instant.now(clock).toEpochMilli()));
+    long start = System.nanoTime();
+    return factDao.saveIfNotExistsAsync(fact)
+            .whenComplete((applied, ex) -> saveFactLatency.recordSince(start))
+            .thenApply(applied -> {
+              if (!applied) throw new ImmutableViolationException(String.format("It is not allowed to update a Fact (id = %s).", fact.getId()));
+              existingFactCache.put(fact.getId(), Boolean.TRUE);
+              return fact;
+            });
+  }
 
-    return fact;
+
+  public FactEntity refreshFact(UUID id) {
+    long start = System.nanoTime();
+    try {
+      FactEntity fact = getFact(id);
+      if (fact == null) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
+      // Only update lastSeenTimestamp, writing the whole row would overwrite concurrent changes with the values read.
+      long lastSeenTimestamp = Instant.now(clock).toEpochMilli();
+      if (!factDao.updateLastSeenTimestampIfExists(id, lastSeenTimestamp))
+        throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
+
+      return fact.setLastSeenTimestamp(lastSeenTimestamp);
+    } finally {
+      refreshFactLatency.recordSince(start);
+    }
   }
 
   public FactEntity retractFact(UUID id) {
-    FactEntity fact = getFact(id);
-    if (fact == null) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
-    factDao.save(fact.addFlag(FactEntity.Flag.RetractedHint));
+    long start = System.nanoTime();
+    try {
+      FactEntity fact = getFact(id);
+      if (fact == null) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
+      // Only add the flag to the stored flags, writing the whole row would overwrite concurrent changes.
+      if (!factDao.addFlagsIfExists(id, SetUtils.set(FactEntity.Flag.RetractedHint)))
+        throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
+
+      return fact.addFlag(FactEntity.Flag.RetractedHint);
+    } finally {
+      retractFactLatency.recordSince(start);
+    }
+  }
 
-    return fact;
+  /* FactExistenceEntity-related methods */
+
+  /**
+   * Fetch the ids of all Facts which are logically the same as the given Fact, see {@link FactExistenceKey}. The given
+   * Fact itself is included if its lookup entry has been saved with {@link #saveFactExistenceAsync(FactEntity)}.
+   *
+   * @param fact Fact to look up
+   * @return Stage completing with the ids of existing Facts, or an empty list if no Fact exists
+   */
+  public CompletionStage<List<UUID>> fetchExistingFactIDsAsync(FactEntity fact) {
+    if (fact == null) return CompletableFuture.completedFuture(ListUtils.list());
+
+    String hash = FactExistenceKey.of(fact);
+    List<UUID> cached = factExistenceCache.getIfPresent(hash);
+    if (cached != null) return CompletableFuture.completedFuture(cached);
+
+    long start = System.nanoTime();
+    return MultiFetchIterator.fetchAllPages(factDao.fetchExistenceAsync(hash))
+            .whenComplete((result, ex) -> fetchFactExistenceLatency.recordSince(start))
+            .thenApply(result -> {
+              List<UUID> id = new ArrayList<>();
+              result.forEachRemaining(entry -> id.add(entry.getFactID()));
+              // Don't cache misses, the Fact might be created on another node in the meantime.
+              if (!id.isEmpty()) factExistenceCache.put(hash, Collections.unmodifiableList(id));
+              return id;
+            });
+  }
+
+  /**
+   * Save the lookup entry of a Fact such that it is returned by {@link #fetchExistingFactIDsAsync(FactEntity)} for all
+   * Facts which are logically the same. Saving the entry of the same Fact multiple times is harmless.
+   *
+   * @param fact Fact to save the lookup entry for
+   * @return Stage completing with the saved lookup entry
+   */
+  public CompletionStage<FactExistenceEntity> saveFactExistenceAsync(FactEntity fact) {
+    if (fact == null) return CompletableFuture.completedFuture(null);
+    return saveFactExistenceAsync(fact, fact.getId());
+  }
+
+  /**
+   * Save a lookup entry which points from the content of 'fact' to the existing Fact identified by 'factID'. This is
+   * used to add Facts to the lookup table which are found by other means, e.g. Facts stored before the table existed.
+   *
+   * @param fact   Fact to calculate the key of the lookup entry from
+   * @param factID Id of the existing Fact
+   * @return Stage completing with the saved lookup entry
+   */
+  public CompletionStage<FactExistenceEntity> saveFactExistenceAsync(FactEntity fact, UUID factID) {
+    if (fact == null || factID == null) return CompletableFuture.completedFuture(null);
+
+    FactExistenceEntity entry = new FactExistenceEntity()
+            .setFactHash(FactExistenceKey.of(fact))
+            .setFactID(factID);
+    long start = System.nanoTime();
+    return factDao.saveAsync(entry)
+            .whenComplete((ignored, ex) -> saveFactExistenceLatency.recordSince(start))
+            .thenApply(ignored -> {
+              // Only extend cached entries, otherwise Facts with the same key saved on other nodes would be hidden.
+              factExistenceCache.asMap().computeIfPresent(entry.getFactHash(), (hash, id) -> withFactID(id, entry.getFactID()));
+              return entry;
+            });
   }
 
   /* FactAclEntity-related methods */
 
   public List<FactAclEntity> fetchFactAcl(UUID id) {
     if (id == null) return ListUtils.list();
-    return factDao.fetchAcl(id).all();
+
+    long start = System.nanoTime();
+    try {
+      return factDao.fetchAcl(id).all();
+    } finally {
+      fetchFactAclLatency.recordSince(start);
+    }
+  }
+
+  public Iterator<FactAclEntity> fetchFactAclForFacts(List<UUID> id) {
+    if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
+    return multiFetch(partition -> MultiFetchIterator.fetchAllPages(factDao.fetchAclByFactIDAsync(partition)), id);
   }
 
   public FactAclEntity saveFactAclEntry(FactAclEntity entry) {
     if (entry == null) return null;
-    if (getFact(entry.getFactID()) == null)
-      throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", entry.getFactID()));
-    if (factDao.getAclEntry(entry.getFactID(), entry.getId()) != null)
-      throw new ImmutableViolationException("It is not allowed to update an ACL entry.");
-
-    factDao.save(entry);
-
-    return entry;
+    long start = System.nanoTime();
+    try {
+      if (!factExists(entry.getFactID()))
+        throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", entry.getFactID()));
+      if (!factDao.saveIfNotExists(entry))
+        throw new ImmutableViolationException(String.format("It is not allowed to update an ACL entry (id = %s).", entry.getId()));
+
+      return entry;
+    } finally {
+      saveFactAclEntryLatency.recordSince(start);
+    }
+  }
+  /**
+   * Asynchronous variant of {@link #saveFactAclEntry(FactAclEntity)}. The returned stage completes exceptionally with
+   * an {@link IllegalArgumentException} if the Fact doesn't exist or an {@link ImmutableViolationException} if the
+   * ACL entry exists already.
+   *
+   * @param entry ACL entry to save
+   * @return Stage completing with the saved ACL entry
+   */
+  public CompletionStage<FactAclEntity> saveFactAclEntryAsync(FactAclEntity entry) {
+    if (entry == null) return CompletableFuture.completedFuture(null);
+    return saveIfNotExistsAsync(entry, entry.getFactID(), factDao::saveIfNotExistsAsync,
+            String.format("It is not allowed to update an ACL entry (id = %s).", entry.getId()), saveFactAclEntryLatency);
   }
 
+
   /* FactCommentEntity-related methods */
 
   public List<FactCommentEntity> fetchFactComments(UUID id) {
     if (id == null) return ListUtils.list();
-    return factDao.fetchComments(id).all();
+
+    long start = System.nanoTime();
+    try {
+      return factDao.fetchComments(id).all();
+    } finally {
+      fetchFactCommentsLatency.recordSince(start);
+    }
+  }
+
+  public Iterator<FactCommentEntity> fetchFactCommentsForFacts(List<UUID> id) {
+    if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
+    return multiFetch(partition -> MultiFetchIterator.fetchAllPages(factDao.fetchCommentsByFactIDAsync(partition)), id);
   }
 
   public FactCommentEntity saveFactComment(FactCommentEntity comment) {
     if (comment == null) return null;
-    if (getFact(comment.getFactID()) == null)
-      throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", comment.getFactID()));
-    if (factDao.getComment(comment.getFactID(), comment.getId()) != null)
-      throw new ImmutableViolationException("It is not allowed to update a comment.");
-
-    factDao.save(comment);
-
-    return comment;
+    long start = System.nanoTime();
+    try {
+      if (!factExists(comment.getFactID()))
+        throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", comment.getFactID()));
+      if (!factDao.saveIfNotExists(comment))
+        throw new ImmutableViolationException(String.format("It is not allowed to update a comment (id = %s).", comment.getId()));
+
+      return comment;
+    } finally {
+      saveFactCommentLatency.recordSince(start);
+    }
   }
+  /**
+   * Asynchronous variant of {@link #saveFactComment(FactCommentEntity)}. The returned stage completes exceptionally
+   * with an {@link IllegalArgumentException} if the Fact doesn't exist or an {@link ImmutableViolationException} if
+   * the comment exists already.
+   *
+   * @param comment Comment to save
+   * @return Stage completing with the saved comment
+   */
+  public CompletionStage<FactCommentEntity> saveFactCommentAsync(FactCommentEntity comment) {
+    if (comment == null) return CompletableFuture.completedFuture(null);
+    return saveIfNotExistsAsync(comment, comment.getFactID(), factDao::saveIfNotExistsAsync,
+            String.format("It is not allowed to update a comment (id = %s).", comment.getId()), saveFactCommentLatency);
+  }
+
 
   /* MetaFactBindingEntity-related methods */
 
   public List<MetaFactBindingEntity> fetchMetaFactBindings(UUID id) {
     if (id == null) return ListUtils.list();
-    return factDao.fetchMetaFactBindings(id).all();
+
+    long start = System.nanoTime();
+    try {
+      return factDao.fetchMetaFactBindings(id).all();
+    } finally {
+      fetchMetaFactBindingsLatency.recordSince(start);
+    }
   }
 
   public MetaFactBindingEntity saveMetaFactBinding(MetaFactBindingEntity binding) {
     if (binding == null) return null;
-    if (getFact(binding.getFactID()) == null)
-      throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", binding.getFactID()));
-    if (factDao.getMetaFactBinding(binding.getFactID(), binding.getMetaFactID()) != null)
-      throw new ImmutableViolationException("It is not allowed to update a MetaFactBinding.");
-
-    factDao.save(binding);
-
-    return binding;
+    long start = System.nanoTime();
+    try {
+      if (!factExists(binding.getFactID()))
+        throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", binding.getFactID()));
+      if (!factDao.saveIfNotExists(binding))
+        throw new ImmutableViolationException(String.format("It is not allowed to update a MetaFactBinding (metaFactID = %s).", binding.getMetaFactID()));
+
+      return binding;
+    } finally {
+      saveMetaFactBindingLatency.recordSince(start);
+    }
+  }
+  /**
+   * Asynchronous variant of {@link #saveMetaFactBinding(MetaFactBindingEntity)}. The returned stage completes
+   * exceptionally with an {@link IllegalArgumentException} if the referenced Fact doesn't exist or an
+   * {@link ImmutableViolationException} if the binding exists already.
+   *
+   * @param binding Binding to save
+   * @return Stage completing with the saved binding
+   */
+  public CompletionStage<MetaFactBindingEntity> saveMetaFactBindingAsync(MetaFactBindingEntity binding) {
+    if (binding == null) return CompletableFuture.completedFuture(null);
+    return saveIfNotExistsAsync(binding, binding.getFactID(), factDao::saveIfNotExistsAsync,
+            String.format("It is not allowed to update a MetaFactBinding (metaFactID = %s).", binding.getMetaFactID()), saveMetaFactBindingLatency);
   }
 
+
   /* Setters used for unit testing */
 
   FactManager withClock(Clock clock) {
@@ -204,9 +488,66 @@ public class FactManager implements LifecycleAspect {
 
   /* Private helper methods */
 
+  private boolean factExists(UUID id) {
+    // Only read the Fact from Cassandra if it isn't known to exist already, e.g. because it was just saved.
+    return existingFactCache.getIfPresent(id) != null || getFact(id) != null;
+  }
+
+  private CompletionStage<Boolean> factExistsAsync(UUID id) {
+    if (existingFactCache.getIfPresent(id) != null) return CompletableFuture.completedFuture(true);
+
+    return factDao.getAsync(id).thenApply(fact -> {
+      if (fact == null) return false;
+      existingFactCache.put(id, Boolean.TRUE);
+      return true;
+    });
+  }
+
+  private <T> CompletionStage<T> saveIfNotExistsAsync(T entity, UUID factID, Function<T, CompletionStage<Boolean>> insert,
+                                                      String conflictMessage, LatencyHistogram latency) {
+    long start = System.nanoTime();
+    // The existence check doesn't block in order to allow calling this method from the driver's I/O threads.
+    return factExistsAsync(factID)
+            .thenCompose(exists -> {
+              if (!exists) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", factID));
+              return insert.apply(entity);
+            })
+            .whenComplete((applied, ex) -> latency.recordSince(start))
+            .thenApply(applied -> {
+              if (!applied) throw new ImmutableViolationException(conflictMessage);
+              return entity;
+            });
+  }
+
+  private static List<UUID> withFactID(List<UUID> id, UUID factID) {
+    if (id.contains(factID)) return id;
+
+    List<UUID> extended = new ArrayList<>(id);
+    extended.add(factID);
+    return Collections.unmodifiableList(extended);
+  }
+
+  private LatencyHistogram latency(String operation) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    latencies.put(operation, histogram);
+    return histogram;
+  }
+
+
+  private <T> Iterator<T> multiFetch(Function<List<UUID>, CompletionStage<Iterator<T>>> nextBatch, List<UUID> id) {
+    return new MultiFetchIterator<>(nextBatch, id, MULTI_FETCH_PARALLELISM, MULTI_FETCH_PREFETCH_DEPTH);
+  }
+
+  private void invalidateFactType(UUID id) {
+    factTypeByIdCache.invalidate(id);
+    // The name might have changed, thus, evict the entry by its value instead of the (new) name.
+    factTypeByNameCache.asMap().values().removeIf(type -> Objects.equals(type.getId(), id));
+  }
+
   private LoadingCache<UUID, FactTypeEntity> createFactTypeByIdCache() {
     return CacheBuilder.newBuilder()
-            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .expireAfterAccess(cacheInvalidationBus.getExpiryMinutes(10), TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<UUID, FactTypeEntity>() {
               @Override
               public FactTypeEntity load(UUID key) throws Exception {
@@ -217,7 +558,8 @@ public class FactManager implements LifecycleAspect {
 
   private LoadingCache<String, FactTypeEntity> createFactTypeByNameCache() {
     return CacheBuilder.newBuilder()
-            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .expireAfterAccess(cacheInvalidationBus.getExpiryMinutes(10), TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<String, FactTypeEntity>() {
               @Override
               public FactTypeEntity load(String key) throws Exception {
@@ -1,8 +1,11 @@
 package no.mnemonic.act.platform.dao.cassandra;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationEvent;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectByTypeValueEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
@@ -11,8 +14,15 @@ import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationExcep
 import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectDao;
 import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectTypeDao;
 import no.mnemonic.act.platform.dao.cassandra.utilities.MultiFetchIterator;
+import no.mnemonic.act.platform.utilities.metrics.LatencyHistogram;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
@@ -20,26 +30,52 @@ import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 @Singleton
-public class ObjectManager implements LifecycleAspect {
+public class ObjectManager implements LifecycleAspect, MetricAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(ObjectManager.class);
+
+  // Multi-fetch issues multiple IN-clause requests in parallel and prefetches batches ahead of the consumer.
+  private static final int MULTI_FETCH_PARALLELISM = 4;
+  private static final int MULTI_FETCH_PREFETCH_DEPTH = 8;
+  // Objects are never deleted once saved, thus, once an Object is known to exist this information can be kept until evicted.
+  private static final int EXISTING_OBJECT_CACHE_SIZE = 100_000;
 
   @Dependency
   private final ClusterManager clusterManager;
+  private final CacheInvalidationBus cacheInvalidationBus;
 
   private final LoadingCache<UUID, ObjectTypeEntity> objectTypeByIdCache;
   private final LoadingCache<String, ObjectTypeEntity> objectTypeByNameCache;
+  private final Cache<UUID, Boolean> existingObjectCache;
+
+  // Latency of every operation reading from or writing to Cassandra, keyed by operation.
+  private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+  private final LatencyHistogram getObjectLatency = latency("getObject");
+  private final LatencyHistogram getObjectByTypeValueLatency = latency("getObjectByTypeValue");
+  private final LatencyHistogram saveObjectLatency = latency("saveObject");
+  private final LatencyHistogram saveObjectFactBindingLatency = latency("saveObjectFactBinding");
 
   private ObjectTypeDao objectTypeDao;
   private ObjectDao objectDao;
 
   @Inject
-  public ObjectManager(ClusterManager clusterManager) {
+  public ObjectManager(ClusterManager clusterManager, CacheInvalidationBus cacheInvalidationBus) {
     this.clusterManager = clusterManager;
+    this.cacheInvalidationBus = cacheInvalidationBus;
     this.objectTypeByIdCache = createObjectTypeByIdCache();
     this.objectTypeByNameCache = createObjectTypeByNameCache();
+    this.existingObjectCache = CacheBuilder.newBuilder()
+            .maximumSize(EXISTING_OBJECT_CACHE_SIZE)
+            .recordStats()
+            .build();
+    // Evict ObjectTypes changed on any node, including this one.
+    this.cacheInvalidationBus.register(CacheInvalidationEvent.Type.ObjectType, this::invalidateObjectType);
   }
 
   @Override
@@ -53,6 +89,14 @@ public class ObjectManager implements LifecycleAspect {
     // NOOP
   }
 
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(latencies)
+            .addSubMetrics("objectTypeByIdCache", MetricsUtils.toMetrics(objectTypeByIdCache))
+            .addSubMetrics("objectTypeByNameCache", MetricsUtils.toMetrics(objectTypeByNameCache))
+            .addSubMetrics("existingObjectCache", MetricsUtils.toMetrics(existingObjectCache));
+  }
+
   /* ObjectTypeEntity-related methods */
 
   public ObjectTypeEntity getObjectType(UUID id) {
@@ -91,8 +135,7 @@ public class ObjectManager implements LifecycleAspect {
     }
 
     objectTypeDao.save(type);
-    objectTypeByIdCache.invalidate(type.getId());
-    objectTypeByNameCache.invalidate(type.getName());
+    cacheInvalidationBus.invalidate(CacheInvalidationEvent.Type.ObjectType, type.getId());
 
     return type;
   }
@@ -101,7 +144,18 @@ public class ObjectManager implements LifecycleAspect {
 
   public ObjectEntity getObject(UUID id) {
     if (id == null) return null;
-    return objectDao.get(id);
+
+    long start = System.nanoTime();
+    try {
+      ObjectEntity object = objectDao.get(id);
+      if (object != null) {
+        existingObjectCache.put(id, Boolean.TRUE);
+      }
+
+      return object;
+    } finally {
+      getObjectLatency.recordSince(start);
+    }
   }
 
   public ObjectEntity getObject(String type, String value) {
@@ -110,13 +164,21 @@ public class ObjectManager implements LifecycleAspect {
     ObjectTypeEntity objectType = getObjectType(type);
     if (objectType == null) throw new IllegalArgumentException(String.format("ObjectType with name = %s does not exist.", type));
 
-    ObjectByTypeValueEntity objectByTypeValue = objectDao.getObjectByTypeValue(objectType.getId(), value);
+    ObjectByTypeValueEntity objectByTypeValue;
+    long start = System.nanoTime();
+    try {
+      objectByTypeValue = objectDao.getObjectByTypeValue(objectType.getId(), value);
+    } finally {
+      getObjectByTypeValueLatency.recordSince(start);
+    }
+
     return ObjectUtils.ifNotNull(objectByTypeValue, o -> getObject(o.getObjectID()));
   }
 
   public Iterator<ObjectEntity> getObjects(List<UUID> id) {
     if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
-    return new MultiFetchIterator<>(partition -> objectDao.fetchByID(partition).iterator(), id);
+    return new MultiFetchIterator<>(partition -> MultiFetchIterator.fetchAllPages(objectDao.fetchByIDAsync(partition)), id,
+            MULTI_FETCH_PARALLELISM, MULTI_FETCH_PREFETCH_DEPTH);
   }
 
   public ObjectEntity saveObject(ObjectEntity object) {
@@ -125,23 +187,45 @@ public class ObjectManager implements LifecycleAspect {
     ObjectTypeEntity type = getObjectType(object.getTypeID());
     if (type == null) throw new IllegalArgumentException(String.format("ObjectType with id = %s does not exist.", object.getTypeID()));
 
-    // It's not allowed to create the same object multiple times.
-    if (getObject(type.getName(), object.getValue()) != null) {
-      throw new ImmutableViolationException("Object already exists.");
-    }
-
     // Also save an ObjectByTypeValue mapping.
     ObjectByTypeValueEntity objectByTypeValue = new ObjectByTypeValueEntity()
             .setObjectTypeID(object.getTypeID())
             .setObjectValue(object.getValue())
             .setObjectID(object.getId());
 
-    objectDao.save(object);
-    objectDao.save(objectByTypeValue);
+    // It's not allowed to create the same object multiple times. Instead of looking up the object first both the Object
+    // and the ObjectByTypeValue mapping are written conditionally. The Object is written first, thus, if a write fails
+    // there's never a mapping pointing to an Object which doesn't exist (which would block the type/value forever).
+    long start = System.nanoTime();
+    try {
+      if (!objectDao.saveIfNotExists(object)) {
+        throw new ImmutableViolationException(String.format("Object with id = %s already exists.", object.getId()));
+      }
+
+      if (!objectDao.saveIfNotExists(objectByTypeValue)) {
+        // Another Object with the same type/value exists. Remove the Object just written, it isn't reachable anyway.
+        removeObjectSafely(object.getId());
+        throw new ImmutableViolationException(String.format("Object already exists (type = %s, value = %s).", type.getName(), object.getValue()));
+      }
+    } finally {
+      saveObjectLatency.recordSince(start);
+    }
+    existingObjectCache.put(object.getId(), Boolean.TRUE);
 
     return object;
   }
 
+  private void removeObjectSafely(UUID id) {
+    try {
+      // The Object was written with a lightweight transaction, thus, it must also be removed with one. Otherwise,
+      // Cassandra doesn't guarantee the outcome of mixing conditional and unconditional writes on the same row.
+      objectDao.deleteIfExists(id);
+    } catch (RuntimeException ex) {
+      // The Object isn't referenced by any mapping or binding, thus, it's not an error if it cannot be removed.
+      LOGGER.warning(ex, "Could not remove Object with id = %s.", id);
+    }
+  }
+
   /* ObjectFactBindingEntity-related methods */
 
   public Iterator<ObjectFactBindingEntity> fetchObjectFactBindings(UUID id) {
@@ -151,21 +235,78 @@ public class ObjectManager implements LifecycleAspect {
 
   public ObjectFactBindingEntity saveObjectFactBinding(ObjectFactBindingEntity binding) {
     if (binding == null) return null;
-    if (getObject(binding.getObjectID()) == null)
-      throw new IllegalArgumentException(String.format("Object with id = %s does not exist.", binding.getObjectID()));
-    if (objectDao.getObjectFactBinding(binding.getObjectID(), binding.getFactID()) != null)
-      throw new ImmutableViolationException("It is not allowed to update an ObjectFactBinding.");
 
-    objectDao.save(binding);
+    long start = System.nanoTime();
+    try {
+      if (!objectExists(binding.getObjectID()))
+        throw new IllegalArgumentException(String.format("Object with id = %s does not exist.", binding.getObjectID()));
+      if (!objectDao.saveIfNotExists(binding))
+        throw new ImmutableViolationException(String.format("It is not allowed to update an ObjectFactBinding (factID = %s).", binding.getFactID()));
+
+      return binding;
+    } finally {
+      saveObjectFactBindingLatency.recordSince(start);
+    }
+  }
 
-    return binding;
+  /**
+   * Asynchronous variant of {@link #saveObjectFactBinding(ObjectFactBindingEntity)}. The returned stage completes
+   * exceptionally with an {@link IllegalArgumentException} if the Object doesn't exist or an
+   * {@link ImmutableViolationException} if the binding exists already.
+   *
+   * @param binding Binding to save
+   * @return Stage completing with the saved binding
+   */
+  public CompletionStage<ObjectFactBindingEntity> saveObjectFactBindingAsync(ObjectFactBindingEntity binding) {
+    if (binding == null) return CompletableFuture.completedFuture(null);
+
+    long start = System.nanoTime();
+    // The existence check doesn't block in order to allow calling this method from the driver's I/O threads.
+    return objectExistsAsync(binding.getObjectID())
+            .thenCompose(exists -> {
+              if (!exists) throw new IllegalArgumentException(String.format("Object with id = %s does not exist.", binding.getObjectID()));
+              return objectDao.saveIfNotExistsAsync(binding);
+            })
+            .whenComplete((applied, ex) -> saveObjectFactBindingLatency.recordSince(start))
+            .thenApply(applied -> {
+              if (!applied) throw new ImmutableViolationException(String.format("It is not allowed to update an ObjectFactBinding (factID = %s).", binding.getFactID()));
+              return binding;
+            });
   }
 
   /* Private helper methods */
 
+  private boolean objectExists(UUID id) {
+    // Only read the Object from Cassandra if it isn't known to exist already, e.g. because it was just saved or resolved.
+    return existingObjectCache.getIfPresent(id) != null || getObject(id) != null;
+  }
+
+  private CompletionStage<Boolean> objectExistsAsync(UUID id) {
+    if (existingObjectCache.getIfPresent(id) != null) return CompletableFuture.completedFuture(true);
+
+    return objectDao.getAsync(id).thenApply(object -> {
+      if (object == null) return false;
+      existingObjectCache.put(id, Boolean.TRUE);
+      return true;
+    });
+  }
+
+  private LatencyHistogram latency(String operation) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    latencies.put(operation, histogram);
+    return histogram;
+  }
+
+  private void invalidateObjectType(UUID id) {
+    objectTypeByIdCache.invalidate(id);
+    // The name might have changed, thus, evict the entry by its value instead of the (new) name.
+    objectTypeByNameCache.asMap().values().removeIf(type -> Objects.equals(type.getId(), id));
+  }
+
   private LoadingCache<UUID, ObjectTypeEntity> createObjectTypeByIdCache() {
     return CacheBuilder.newBuilder()
-            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .expireAfterAccess(cacheInvalidationBus.getExpiryMinutes(10), TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<UUID, ObjectTypeEntity>() {
               @Override
               public ObjectTypeEntity load(UUID key) throws Exception {
@@ -176,7 +317,8 @@ public class ObjectManager implements LifecycleAspect {
 
   private LoadingCache<String, ObjectTypeEntity> createObjectTypeByNameCache() {
     return CacheBuilder.newBuilder()
-            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .expireAfterAccess(cacheInvalidationBus.getExpiryMinutes(10), TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<String, ObjectTypeEntity>() {
               @Override
               public ObjectTypeEntity load(String key) throws Exception {
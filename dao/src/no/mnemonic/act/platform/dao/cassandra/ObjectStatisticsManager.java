@@ -0,0 +1,316 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.api.criteria.ObjectStatisticsCriteria;
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
+import no.mnemonic.act.platform.dao.cassandra.entity.AccessMode;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectStatisticsEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectStatisticsTimestampEntity;
+import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectStatisticsDao;
+import no.mnemonic.commons.component.Dependency;
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.utilities.collections.CollectionUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains precomputed statistics about the Facts bound to Objects, i.e. the number of Facts per FactType and when
+ * a Fact of each FactType was last added and last seen, see {@link ObjectStatisticsContainer}.
+ * <p>
+ * Which Facts are included in the statistics depends on the user requesting them. In order to answer the requests of
+ * any user the statistics are kept per access scope and every Fact is recorded in all scopes it is visible in:
+ * <ul>
+ * <li>Public Facts in the public scope.</li>
+ * <li>RoleBased Facts in the scope of the owning Organization, and additionally in one scope per subject in the ACL
+ * combined with the owning Organization.</li>
+ * <li>Explicit Facts in one scope per subject in the ACL.</li>
+ * </ul>
+ * When calculating statistics only the scopes visible to the user are combined. A scope of a subject combined with an
+ * Organization is only included if the user does not have access to the Organization, because those Facts are already
+ * included in the scope of the Organization. Thus, every Fact visible to the user is counted exactly once, which gives
+ * the same result as the access control applied by ElasticSearch.
+ * <p>
+ * Statistics are only complete for Objects created after the statistics were introduced. Those Objects are marked as
+ * materialized. For all other Objects no statistics are returned and the caller has to calculate them on the fly.
+ */
+@Singleton
+public class ObjectStatisticsManager implements LifecycleAspect {
+
+  private static final String PUBLIC_SCOPE = "public";
+  private static final String ORGANIZATION_SCOPE_PREFIX = "organization:";
+  private static final String SUBJECT_SCOPE_PREFIX = "subject:";
+  private static final String SCOPE_SEPARATOR = "/";
+
+  @Dependency
+  private final ClusterManager clusterManager;
+
+  private ObjectStatisticsDao objectStatisticsDao;
+
+  @Inject
+  public ObjectStatisticsManager(ClusterManager clusterManager) {
+    this.clusterManager = clusterManager;
+  }
+
+  @Override
+  public void startComponent() {
+    objectStatisticsDao = clusterManager.getCassandraMapper().getObjectStatisticsDao();
+  }
+
+  @Override
+  public void stopComponent() {
+    // NOOP
+  }
+
+  /**
+   * Mark that the statistics of an Object are complete. Must be called when a new Object is created.
+   *
+   * @param objectID UUID of Object
+   * @return Stage completing when the Object has been marked
+   */
+  public CompletionStage<Void> markMaterializedAsync(UUID objectID) {
+    if (objectID == null) return CompletableFuture.completedFuture(null);
+    return objectStatisticsDao.saveMaterializedAsync(objectID, true);
+  }
+
+  /**
+   * Mark that the statistics of an Object are not complete, e.g. because updating them has failed. Afterwards the
+   * statistics of the Object will always be calculated on the fly.
+   *
+   * @param objectID UUID of Object
+   * @return Stage completing when the Object has been marked
+   */
+  public CompletionStage<Void> markNotMaterializedAsync(UUID objectID) {
+    if (objectID == null) return CompletableFuture.completedFuture(null);
+    return objectStatisticsDao.saveMaterializedAsync(objectID, false);
+  }
+
+  /**
+   * Add a new Fact to the statistics of all Objects bound to the Fact.
+   *
+   * @param fact        New Fact
+   * @param aclSubjects Subjects in the ACL of the new Fact
+   * @return Stage completing when the statistics have been updated
+   */
+  public CompletionStage<Void> addFactAsync(FactEntity fact, Collection<UUID> aclSubjects) {
+    return update(fact, resolveScopes(fact, aclSubjects, true), true);
+  }
+
+  /**
+   * Update the statistics of all Objects bound to a refreshed Fact, i.e. its new lastSeenTimestamp.
+   *
+   * @param fact        Refreshed Fact
+   * @param aclSubjects Subjects in the ACL of the refreshed Fact
+   * @return Stage completing when the statistics have been updated
+   */
+  public CompletionStage<Void> refreshFactAsync(FactEntity fact, Collection<UUID> aclSubjects) {
+    return update(fact, resolveScopes(fact, aclSubjects, true), false);
+  }
+
+  /**
+   * Add an existing Fact to the statistics of subjects which have been granted access to the Fact.
+   *
+   * @param fact        Existing Fact
+   * @param newSubjects Subjects which have been added to the ACL and were not part of the ACL before
+   * @return Stage completing when the statistics have been updated
+   */
+  public CompletionStage<Void> addFactAclSubjectsAsync(FactEntity fact, Collection<UUID> newSubjects) {
+    return update(fact, resolveScopes(fact, newSubjects, false), true);
+  }
+
+  /**
+   * Recalculate the statistics of an Object from all Facts bound to it, e.g. after updating the statistics has failed
+   * and the Object has been marked as not materialized, or if the Fact counts are suspected to be wrong.
+   * <p>
+   * The Object is marked as not materialized while recalculating. Counters can't be overwritten, thus, every Fact count
+   * is corrected by the difference between the recalculated and the stored count. Afterwards the Object is marked as
+   * materialized again. Facts added to the Object while recalculating might be counted twice, thus, this should only be
+   * done while no Facts are added to the Object.
+   *
+   * @param objectID    UUID of Object
+   * @param facts       All Facts bound to the Object
+   * @param aclSubjects Subjects in the ACLs of the Facts, keyed by the UUID of the Fact
+   */
+  public void recalculateObjectStatistics(UUID objectID, Collection<FactEntity> facts, Map<UUID, ? extends Collection<UUID>> aclSubjects) {
+    if (objectID == null) return;
+
+    // Calculate the statistics on the fly until the recalculation has finished.
+    markNotMaterializedAsync(objectID).toCompletableFuture().join();
+
+    Map<List<Object>, Long> deltas = new HashMap<>();
+    List<CompletableFuture<?>> writes = new ArrayList<>();
+    for (FactEntity fact : CollectionUtils.isEmpty(facts) ? Collections.<FactEntity>emptyList() : facts) {
+      for (String scope : resolveScopes(fact, aclSubjects.get(fact.getId()), true)) {
+        deltas.merge(ListUtils.list(scope, fact.getTypeID()), 1L, Long::sum);
+        // The timestamps keep the maximum value, thus, they can simply be written again.
+        writes.add(objectStatisticsDao.saveLastAddedTimestampAsync(objectID, scope, fact.getTypeID(),
+                fact.getTimestamp(), toWriteTime(fact.getTimestamp())).toCompletableFuture());
+        writes.add(objectStatisticsDao.saveLastSeenTimestampAsync(objectID, scope, fact.getTypeID(),
+                fact.getLastSeenTimestamp(), toWriteTime(fact.getLastSeenTimestamp())).toCompletableFuture());
+      }
+    }
+
+    for (ObjectStatisticsEntity entity : objectStatisticsDao.fetchStatistics(ListUtils.list(objectID))) {
+      deltas.merge(ListUtils.list(entity.getScope(), entity.getFactTypeID()), -entity.getFactCount(), Long::sum);
+    }
+
+    deltas.forEach((key, delta) -> {
+      if (delta == 0) return;
+      writes.add(objectStatisticsDao.incrementFactCountAsync(objectID, (String) key.get(0), (UUID) key.get(1), delta).toCompletableFuture());
+    });
+
+    CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    markMaterializedAsync(objectID).toCompletableFuture().join();
+  }
+
+  /**
+   * Calculate the statistics for the Objects specified in the criteria, respecting the access of the calling user.
+   * <p>
+   * Only materialized Objects are included in the returned map. The statistics of all other Objects have to be
+   * calculated on the fly by the caller.
+   *
+   * @param criteria Criteria to calculate statistics
+   * @return Statistics of the materialized Objects (possibly empty)
+   */
+  public Map<UUID, Collection<ObjectStatisticsContainer.FactStatistic>> calculateObjectStatistics(ObjectStatisticsCriteria criteria) {
+    if (criteria == null) return new HashMap<>();
+
+    List<UUID> objectID = ListUtils.list(criteria.getObjectID());
+    Map<UUID, Map<UUID, Statistic>> statistics = new HashMap<>();
+
+    // Every row contains the static 'materialized' column, thus, all materialized Objects are known from this query.
+    for (ObjectStatisticsTimestampEntity entity : objectStatisticsDao.fetchTimestamps(objectID)) {
+      if (!entity.isMaterialized()) continue;
+
+      Map<UUID, Statistic> objectStatistics = statistics.computeIfAbsent(entity.getObjectID(), id -> new HashMap<>());
+      if (entity.getFactTypeID() == null || !isVisible(entity.getScope(), criteria)) continue;
+
+      objectStatistics.computeIfAbsent(entity.getFactTypeID(), id -> new Statistic())
+              .addTimestamps(entity.getLastAddedTimestamp(), entity.getLastSeenTimestamp());
+    }
+
+    if (statistics.isEmpty()) return new HashMap<>();
+
+    for (ObjectStatisticsEntity entity : objectStatisticsDao.fetchStatistics(ListUtils.list(statistics.keySet()))) {
+      Map<UUID, Statistic> objectStatistics = statistics.get(entity.getObjectID());
+      if (objectStatistics == null || !isVisible(entity.getScope(), criteria)) continue;
+
+      objectStatistics.computeIfAbsent(entity.getFactTypeID(), id -> new Statistic())
+              .addCount(entity.getFactCount());
+    }
+
+    Map<UUID, Collection<ObjectStatisticsContainer.FactStatistic>> result = new HashMap<>();
+    statistics.forEach((id, objectStatistics) -> result.put(id, objectStatistics.entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().getCount() > 0)
+            .map(entry -> entry.getValue().toFactStatistic(entry.getKey()))
+            .collect(Collectors.toList())));
+    return result;
+  }
+
+  /* Private helper methods */
+
+  private CompletionStage<Void> update(FactEntity fact, Set<String> scopes, boolean addFact) {
+    if (fact == null || CollectionUtils.isEmpty(scopes)) return CompletableFuture.completedFuture(null);
+
+    List<CompletableFuture<?>> writes = new ArrayList<>();
+    // A Fact is only counted once per Object, even if it's bound to the same Object twice.
+    for (UUID objectID : SetUtils.set(fact.getBindings(), FactEntity.FactObjectBinding::getObjectID)) {
+      for (String scope : scopes) {
+        if (addFact) {
+          writes.add(objectStatisticsDao.incrementFactCountAsync(objectID, scope, fact.getTypeID(), 1).toCompletableFuture());
+          writes.add(objectStatisticsDao.saveLastAddedTimestampAsync(objectID, scope, fact.getTypeID(),
+                  fact.getTimestamp(), toWriteTime(fact.getTimestamp())).toCompletableFuture());
+        }
+        writes.add(objectStatisticsDao.saveLastSeenTimestampAsync(objectID, scope, fact.getTypeID(),
+                fact.getLastSeenTimestamp(), toWriteTime(fact.getLastSeenTimestamp())).toCompletableFuture());
+      }
+    }
+
+    return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+  }
+
+  private Set<String> resolveScopes(FactEntity fact, Collection<UUID> aclSubjects, boolean includeOwnerScope) {
+    if (fact == null || fact.getAccessMode() == null) return SetUtils.set();
+
+    Set<String> scopes = new HashSet<>();
+    if (fact.getAccessMode() == AccessMode.Public) {
+      // Public Facts are visible to everyone, the ACL doesn't matter.
+      if (includeOwnerScope) scopes.add(PUBLIC_SCOPE);
+    } else if (fact.getAccessMode() == AccessMode.RoleBased) {
+      if (includeOwnerScope) scopes.add(organizationScope(fact.getOrganizationID()));
+      SetUtils.set(aclSubjects).forEach(subject -> scopes.add(subjectScope(subject) + SCOPE_SEPARATOR + organizationScope(fact.getOrganizationID())));
+    } else if (fact.getAccessMode() == AccessMode.Explicit) {
+      SetUtils.set(aclSubjects).forEach(subject -> scopes.add(subjectScope(subject)));
+    }
+
+    return scopes;
+  }
+
+  private boolean isVisible(String scope, ObjectStatisticsCriteria criteria) {
+    if (PUBLIC_SCOPE.equals(scope)) return true;
+
+    if (scope.startsWith(ORGANIZATION_SCOPE_PREFIX)) {
+      return criteria.getAvailableOrganizationID().contains(parseScopeID(scope, ORGANIZATION_SCOPE_PREFIX));
+    }
+
+    if (scope.startsWith(SUBJECT_SCOPE_PREFIX)) {
+      int separator = scope.indexOf(SCOPE_SEPARATOR);
+      String subjectScope = separator < 0 ? scope : scope.substring(0, separator);
+      if (!Objects.equals(criteria.getCurrentUserID(), parseScopeID(subjectScope, SUBJECT_SCOPE_PREFIX))) return false;
+      if (separator < 0) return true;
+      // Facts of available Organizations are already included in the scope of the Organization.
+      UUID organizationID = parseScopeID(scope.substring(separator + 1), ORGANIZATION_SCOPE_PREFIX);
+      return !criteria.getAvailableOrganizationID().contains(organizationID);
+    }
+
+    return false;
+  }
+
+  private UUID parseScopeID(String scope, String prefix) {
+    return UUID.fromString(scope.substring(prefix.length()));
+  }
+
+  private String organizationScope(UUID organizationID) {
+    return ORGANIZATION_SCOPE_PREFIX + organizationID;
+  }
+
+  private String subjectScope(UUID subjectID) {
+    return SUBJECT_SCOPE_PREFIX + subjectID;
+  }
+
+  private long toWriteTime(long timestamp) {
+    // Cassandra write times are specified in microseconds.
+    return TimeUnit.MILLISECONDS.toMicros(timestamp);
+  }
+
+  private static class Statistic {
+    private long count;
+    private long lastAddedTimestamp;
+    private long lastSeenTimestamp;
+
+    private void addCount(long count) {
+      this.count += count;
+    }
+
+    private void addTimestamps(long lastAddedTimestamp, long lastSeenTimestamp) {
+      this.lastAddedTimestamp = Math.max(this.lastAddedTimestamp, lastAddedTimestamp);
+      this.lastSeenTimestamp = Math.max(this.lastSeenTimestamp, lastSeenTimestamp);
+    }
+
+    private long getCount() {
+      return count;
+    }
+
+    private ObjectStatisticsContainer.FactStatistic toFactStatistic(UUID factTypeID) {
+      return new ObjectStatisticsContainer.FactStatistic(factTypeID, (int) count, lastAddedTimestamp, lastSeenTimestamp);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.StringUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Recalculates the materialized statistics of Objects from the Facts stored in Cassandra, see
+ * {@link ObjectStatisticsManager#recalculateObjectStatistics(UUID, Collection, Map)}.
+ * <p>
+ * Used to repair the statistics of Objects which have been marked as not materialized because updating their
+ * statistics has failed, and to materialize the statistics of Objects created before the statistics were introduced.
+ * When executed as a program the ids of the Objects are read from standard input, one id per line.
+ */
+public class ObjectStatisticsRecalculator {
+
+  private static final Logger LOGGER = Logging.getLogger(ObjectStatisticsRecalculator.class);
+
+  private final ObjectManager objectManager;
+  private final FactManager factManager;
+  private final ObjectStatisticsManager objectStatisticsManager;
+
+  public ObjectStatisticsRecalculator(ObjectManager objectManager, FactManager factManager, ObjectStatisticsManager objectStatisticsManager) {
+    this.objectManager = ObjectUtils.notNull(objectManager, "'objectManager' cannot be null!");
+    this.factManager = ObjectUtils.notNull(factManager, "'factManager' cannot be null!");
+    this.objectStatisticsManager = ObjectUtils.notNull(objectStatisticsManager, "'objectStatisticsManager' cannot be null!");
+  }
+
+  /**
+   * Recalculate the statistics of one Object from all Facts bound to it. Afterwards the statistics of the Object are
+   * served from Cassandra, also if the Object has been marked as not materialized before.
+   *
+   * @param objectID UUID of Object
+   */
+  public void recalculate(UUID objectID) {
+    if (objectID == null) return;
+
+    List<UUID> factID = new ArrayList<>();
+    objectManager.fetchObjectFactBindings(objectID).forEachRemaining(binding -> factID.add(binding.getFactID()));
+
+    List<FactEntity> facts = new ArrayList<>();
+    factManager.getFacts(factID).forEachRemaining(facts::add);
+    Map<UUID, Set<UUID>> aclSubjects = new HashMap<>();
+    factManager.fetchFactAclForFacts(factID).forEachRemaining(entry -> aclSubjects
+            .computeIfAbsent(entry.getFactID(), id -> new HashSet<>())
+            .add(entry.getSubjectID()));
+
+    objectStatisticsManager.recalculateObjectStatistics(objectID, facts, aclSubjects);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: ObjectStatisticsRecalculator <contactPoints> <port> <dataCenter> < objectIDs");
+      System.exit(1);
+    }
+
+    ClusterManager clusterManager = ClusterManager.builder()
+            .setContactPoints(SetUtils.set(args[0].split(",")))
+            .setPort(Integer.parseInt(args[1]))
+            .setDataCenter(args[2])
+            .build();
+    CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport());
+    ObjectManager objectManager = new ObjectManager(clusterManager, cacheInvalidationBus);
+    FactManager factManager = new FactManager(clusterManager, cacheInvalidationBus);
+    ObjectStatisticsManager objectStatisticsManager = new ObjectStatisticsManager(clusterManager);
+
+    clusterManager.startComponent();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+      objectManager.startComponent();
+      factManager.startComponent();
+      objectStatisticsManager.startComponent();
+
+      ObjectStatisticsRecalculator recalculator = new ObjectStatisticsRecalculator(objectManager, factManager, objectStatisticsManager);
+      long count = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (StringUtils.isBlank(line)) continue;
+        recalculator.recalculate(UUID.fromString(line.trim()));
+        count++;
+      }
+      LOGGER.info("Finished recalculating statistics of %d Objects.", count);
+    } finally {
+      clusterManager.stopComponent();
+    }
+  }
+}
@@ -3,26 +3,43 @@ package no.mnemonic.act.platform.dao.cassandra;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationEvent;
 import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
 import no.mnemonic.act.platform.dao.cassandra.mapper.OriginDao;
+import no.mnemonic.act.platform.utilities.metrics.LatencyHistogram;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 @Singleton
-public class OriginManager implements LifecycleAspect {
+public class OriginManager implements LifecycleAspect, MetricAspect {
 
   @Dependency
   private final ClusterManager clusterManager;
+  private final CacheInvalidationBus cacheInvalidationBus;
+
+  // Latency of every operation reading from or writing to Cassandra, keyed by operation.
+  private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+  private final LatencyHistogram getOriginByIdLatency = latency("getOriginById");
+  private final LatencyHistogram getOriginByNameLatency = latency("getOriginByName");
+  private final LatencyHistogram fetchOriginsLatency = latency("fetchOrigins");
+  private final LatencyHistogram saveOriginLatency = latency("saveOrigin");
 
   private final LoadingCache<UUID, OriginEntity> originByIdCache;
   private final LoadingCache<String, OriginEntity> originByNameCache;
@@ -30,10 +47,13 @@ public class OriginManager implements LifecycleAspect {
   private OriginDao originDao;
 
   @Inject
-  public OriginManager(ClusterManager clusterManager) {
+  public OriginManager(ClusterManager clusterManager, CacheInvalidationBus cacheInvalidationBus) {
     this.clusterManager = clusterManager;
+    this.cacheInvalidationBus = cacheInvalidationBus;
     this.originByIdCache = createOriginByIdCache();
     this.originByNameCache = createOriginByNameCache();
+    // Evict Origins changed on any node, including this one.
+    this.cacheInvalidationBus.register(CacheInvalidationEvent.Type.Origin, this::invalidateOrigin);
   }
 
   @Override
@@ -46,6 +66,13 @@ public class OriginManager implements LifecycleAspect {
     // NOOP
   }
 
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(latencies)
+            .addSubMetrics("originByIdCache", MetricsUtils.toMetrics(originByIdCache))
+            .addSubMetrics("originByNameCache", MetricsUtils.toMetrics(originByNameCache));
+  }
+
   public OriginEntity getOrigin(UUID id) {
     if (id == null) return null;
 
@@ -69,7 +96,12 @@ public class OriginManager implements LifecycleAspect {
   }
 
   public List<OriginEntity> fetchOrigins() {
-    return originDao.fetch().all();
+    long start = System.nanoTime();
+    try {
+      return originDao.fetch().all();
+    } finally {
+      fetchOriginsLatency.recordSince(start);
+    }
   }
 
   public OriginEntity saveOrigin(OriginEntity origin) {
@@ -81,31 +113,64 @@ public class OriginManager implements LifecycleAspect {
       throw new IllegalArgumentException(String.format("Origin with name = %s already exists.", origin.getName()));
     }
 
-    originDao.save(origin);
-    originByIdCache.invalidate(origin.getId());
-    originByNameCache.invalidate(origin.getName());
+    long start = System.nanoTime();
+    try {
+      originDao.save(origin);
+    } finally {
+      saveOriginLatency.recordSince(start);
+    }
+    cacheInvalidationBus.invalidate(CacheInvalidationEvent.Type.Origin, origin.getId());
 
     return origin;
   }
 
+  private LatencyHistogram latency(String operation) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    latencies.put(operation, histogram);
+    return histogram;
+  }
+
+  private void invalidateOrigin(UUID id) {
+    originByIdCache.invalidate(id);
+    // The name might have changed, thus, evict the entry by its value instead of the (new) name.
+    originByNameCache.asMap().values().removeIf(origin -> Objects.equals(origin.getId(), id));
+  }
+
   private LoadingCache<UUID, OriginEntity> createOriginByIdCache() {
     return CacheBuilder.newBuilder()
-            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .expireAfterAccess(cacheInvalidationBus.getExpiryMinutes(10), TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<UUID, OriginEntity>() {
               @Override
               public OriginEntity load(UUID key) throws Exception {
-                return ObjectUtils.notNull(originDao.get(key), new Exception(String.format("Origin with id = %s does not exist.", key)));
+                // Only cache misses read from Cassandra.
+                long start = System.nanoTime();
+                OriginEntity origin;
+                try {
+                  origin = originDao.get(key);
+                } finally {
+                  getOriginByIdLatency.recordSince(start);
+                }
+                return ObjectUtils.notNull(origin, new Exception(String.format("Origin with id = %s does not exist.", key)));
               }
             });
   }
 
   private LoadingCache<String, OriginEntity> createOriginByNameCache() {
     return CacheBuilder.newBuilder()
-            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .expireAfterAccess(cacheInvalidationBus.getExpiryMinutes(10), TimeUnit.MINUTES)
+            .recordStats()
             .build(new CacheLoader<String, OriginEntity>() {
               @Override
               public OriginEntity load(String key) throws Exception {
-                return ObjectUtils.notNull(originDao.get(key), new Exception(String.format("Origin with name = %s does not exist.", key)));
+                long start = System.nanoTime();
+                OriginEntity origin;
+                try {
+                  origin = originDao.get(key);
+                } finally {
+                  getOriginByNameLatency.recordSince(start);
+                }
+                return ObjectUtils.notNull(origin, new Exception(String.format("Origin with name = %s does not exist.", key)));
               }
             });
   }
@@ -0,0 +1,68 @@
+package no.mnemonic.act.platform.dao.cassandra.entity;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+
+import java.util.UUID;
+
+import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
+import static no.mnemonic.act.platform.dao.cassandra.entity.ObjectStatisticsEntity.TABLE;
+
+/**
+ * Number of Facts of one FactType bound to an Object which are visible inside one access scope (counter table).
+ */
+@Entity(defaultKeyspace = KEY_SPACE)
+@CqlName(TABLE)
+public class ObjectStatisticsEntity implements CassandraEntity {
+
+  public static final String TABLE = "object_statistics";
+
+  @PartitionKey
+  @CqlName("object_id")
+  private UUID objectID;
+  @ClusteringColumn(0)
+  private String scope;
+  @ClusteringColumn(1)
+  @CqlName("fact_type_id")
+  private UUID factTypeID;
+  @CqlName("fact_count")
+  private long factCount;
+
+  public UUID getObjectID() {
+    return objectID;
+  }
+
+  public ObjectStatisticsEntity setObjectID(UUID objectID) {
+    this.objectID = objectID;
+    return this;
+  }
+
+  public String getScope() {
+    return scope;
+  }
+
+  public ObjectStatisticsEntity setScope(String scope) {
+    this.scope = scope;
+    return this;
+  }
+
+  public UUID getFactTypeID() {
+    return factTypeID;
+  }
+
+  public ObjectStatisticsEntity setFactTypeID(UUID factTypeID) {
+    this.factTypeID = factTypeID;
+    return this;
+  }
+
+  public long getFactCount() {
+    return factCount;
+  }
+
+  public ObjectStatisticsEntity setFactCount(long factCount) {
+    this.factCount = factCount;
+    return this;
+  }
+}
@@ -0,0 +1,90 @@
+package no.mnemonic.act.platform.dao.cassandra.entity;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+
+import java.util.UUID;
+
+import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
+import static no.mnemonic.act.platform.dao.cassandra.entity.ObjectStatisticsTimestampEntity.TABLE;
+
+/**
+ * Latest timestamps of Facts of one FactType bound to an Object which are visible inside one access scope.
+ * The static 'materialized' column marks Objects for which the statistics have been maintained since their creation.
+ */
+@Entity(defaultKeyspace = KEY_SPACE)
+@CqlName(TABLE)
+public class ObjectStatisticsTimestampEntity implements CassandraEntity {
+
+  public static final String TABLE = "object_statistics_timestamp";
+
+  @PartitionKey
+  @CqlName("object_id")
+  private UUID objectID;
+  @ClusteringColumn(0)
+  private String scope;
+  @ClusteringColumn(1)
+  @CqlName("fact_type_id")
+  private UUID factTypeID;
+  private boolean materialized;
+  @CqlName("last_added_timestamp")
+  private long lastAddedTimestamp;
+  @CqlName("last_seen_timestamp")
+  private long lastSeenTimestamp;
+
+  public UUID getObjectID() {
+    return objectID;
+  }
+
+  public ObjectStatisticsTimestampEntity setObjectID(UUID objectID) {
+    this.objectID = objectID;
+    return this;
+  }
+
+  public String getScope() {
+    return scope;
+  }
+
+  public ObjectStatisticsTimestampEntity setScope(String scope) {
+    this.scope = scope;
+    return this;
+  }
+
+  public UUID getFactTypeID() {
+    return factTypeID;
+  }
+
+  public ObjectStatisticsTimestampEntity setFactTypeID(UUID factTypeID) {
+    this.factTypeID = factTypeID;
+    return this;
+  }
+
+  public boolean isMaterialized() {
+    return materialized;
+  }
+
+  public ObjectStatisticsTimestampEntity setMaterialized(boolean materialized) {
+    this.materialized = materialized;
+    return this;
+  }
+
+  public long getLastAddedTimestamp() {
+    return lastAddedTimestamp;
+  }
+
+  public ObjectStatisticsTimestampEntity setLastAddedTimestamp(long lastAddedTimestamp) {
+    this.lastAddedTimestamp = lastAddedTimestamp;
+    return this;
+  }
+
+  public long getLastSeenTimestamp() {
+    return lastSeenTimestamp;
+  }
+
+  public ObjectStatisticsTimestampEntity setLastSeenTimestamp(long lastSeenTimestamp) {
+    this.lastSeenTimestamp = lastSeenTimestamp;
+    return this;
+  }
+}
@@ -17,6 +17,9 @@ public interface CassandraMapper {
   @DaoFactory
   ObjectDao getObjectDao();
 
+  @DaoFactory
+  ObjectStatisticsDao getObjectStatisticsDao();
+
   @DaoFactory
   ObjectTypeDao getObjectTypeDao();
 
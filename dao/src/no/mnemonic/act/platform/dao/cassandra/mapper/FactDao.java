@@ -1,14 +1,18 @@
 package no.mnemonic.act.platform.dao.cassandra.mapper;
 
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.mapper.annotations.*;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactAclEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactCommentEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactExistenceEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.MetaFactBindingEntity;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
 import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
@@ -22,17 +26,52 @@ public interface FactDao {
   @Insert
   void save(FactEntity entity);
 
+  @Insert(ifNotExists = true)
+  boolean saveIfNotExists(FactEntity entity);
+
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(FactEntity entity);
+
+  // Refreshing and retracting a Fact only update the affected column instead of writing the whole row. Facts are
+  // inserted with a lightweight transaction, thus, they're updated with lightweight transactions as well.
+  @Query("UPDATE " + KEY_SPACE + "." + FactEntity.TABLE + " SET last_seen_timestamp = :lastSeenTimestamp WHERE id = :id IF EXISTS")
+  boolean updateLastSeenTimestampIfExists(UUID id, long lastSeenTimestamp);
+
+  @Query("UPDATE " + KEY_SPACE + "." + FactEntity.TABLE + " SET flags = flags + :flags WHERE id = :id IF EXISTS")
+  boolean addFlagsIfExists(UUID id, Set<FactEntity.Flag> flags);
+
   @Select
   FactEntity get(UUID id);
 
+  @Select
+  CompletionStage<FactEntity> getAsync(UUID id);
+
   @Query("SELECT * FROM " + KEY_SPACE + "." + FactEntity.TABLE + " WHERE id IN :id")
-  PagingIterable<FactEntity> fetchByID(List<UUID> id);
+  CompletionStage<MappedAsyncPagingIterable<FactEntity>> fetchByIDAsync(List<UUID> id);
+
+  // Full table scan, only used by migrations.
+  @Query("SELECT * FROM " + KEY_SPACE + "." + FactEntity.TABLE)
+  PagingIterable<FactEntity> fetchAll();
+
+  /* FactExistenceEntity-related methods */
+
+  @Insert
+  CompletionStage<Void> saveAsync(FactExistenceEntity entity);
+
+  @Query("SELECT * FROM " + KEY_SPACE + "." + FactExistenceEntity.TABLE + " WHERE fact_hash = :hash")
+  CompletionStage<MappedAsyncPagingIterable<FactExistenceEntity>> fetchExistenceAsync(String hash);
 
   /* MetaFactBindingEntity-related methods */
 
   @Insert
   void save(MetaFactBindingEntity entity);
 
+  @Insert(ifNotExists = true)
+  boolean saveIfNotExists(MetaFactBindingEntity entity);
+
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(MetaFactBindingEntity entity);
+
   @Select
   MetaFactBindingEntity getMetaFactBinding(UUID factID, UUID metaFactID);
 
@@ -44,21 +83,39 @@ public interface FactDao {
   @Insert
   void save(FactAclEntity entity);
 
+  @Insert(ifNotExists = true)
+  boolean saveIfNotExists(FactAclEntity entity);
+
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(FactAclEntity entity);
+
   @Select
   FactAclEntity getAclEntry(UUID factID, UUID id);
 
   @Query("SELECT * FROM " + KEY_SPACE + "." + FactAclEntity.TABLE + " WHERE fact_id = :id")
   PagingIterable<FactAclEntity> fetchAcl(UUID id);
 
+  @Query("SELECT * FROM " + KEY_SPACE + "." + FactAclEntity.TABLE + " WHERE fact_id IN :id")
+  CompletionStage<MappedAsyncPagingIterable<FactAclEntity>> fetchAclByFactIDAsync(List<UUID> id);
+
   /* FactCommentEntity-related methods */
 
   @Insert
   void save(FactCommentEntity entity);
 
+  @Insert(ifNotExists = true)
+  boolean saveIfNotExists(FactCommentEntity entity);
+
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(FactCommentEntity entity);
+
   @Select
   FactCommentEntity getComment(UUID factID, UUID id);
 
   @Query("SELECT * FROM " + KEY_SPACE + "." + FactCommentEntity.TABLE + " WHERE fact_id = :id")
   PagingIterable<FactCommentEntity> fetchComments(UUID id);
 
+  @Query("SELECT * FROM " + KEY_SPACE + "." + FactCommentEntity.TABLE + " WHERE fact_id IN :id")
+  CompletionStage<MappedAsyncPagingIterable<FactCommentEntity>> fetchCommentsByFactIDAsync(List<UUID> id);
+
 }
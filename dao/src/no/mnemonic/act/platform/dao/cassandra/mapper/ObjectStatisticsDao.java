@@ -0,0 +1,49 @@
+package no.mnemonic.act.platform.dao.cassandra.mapper;
+
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.mapper.annotations.Dao;
+import com.datastax.oss.driver.api.mapper.annotations.Query;
+import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectStatisticsEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectStatisticsTimestampEntity;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
+
+@Dao
+public interface ObjectStatisticsDao {
+
+  /* ObjectStatisticsEntity-related methods */
+
+  // Counter updates are not idempotent, thus, they're never retried or executed speculatively (see application.conf).
+  @Query("UPDATE " + KEY_SPACE + "." + ObjectStatisticsEntity.TABLE + " SET fact_count = fact_count + :delta " +
+          "WHERE object_id = :objectID AND scope = :scope AND fact_type_id = :factTypeID")
+  @StatementAttributes(executionProfileName = "non-idempotent", idempotence = false)
+  CompletionStage<Void> incrementFactCountAsync(UUID objectID, String scope, UUID factTypeID, long delta);
+
+  @Query("SELECT * FROM " + KEY_SPACE + "." + ObjectStatisticsEntity.TABLE + " WHERE object_id IN :objectID")
+  PagingIterable<ObjectStatisticsEntity> fetchStatistics(List<UUID> objectID);
+
+  /* ObjectStatisticsTimestampEntity-related methods */
+
+  // The timestamps are written with a write time derived from their value. Cassandra keeps the value with the highest
+  // write time, thus, concurrent or out-of-order updates always result in the maximum timestamp without reading first.
+
+  @Query("UPDATE " + KEY_SPACE + "." + ObjectStatisticsTimestampEntity.TABLE + " USING TIMESTAMP :writeTime " +
+          "SET last_added_timestamp = :lastAddedTimestamp WHERE object_id = :objectID AND scope = :scope AND fact_type_id = :factTypeID")
+  CompletionStage<Void> saveLastAddedTimestampAsync(UUID objectID, String scope, UUID factTypeID, long lastAddedTimestamp, long writeTime);
+
+  @Query("UPDATE " + KEY_SPACE + "." + ObjectStatisticsTimestampEntity.TABLE + " USING TIMESTAMP :writeTime " +
+          "SET last_seen_timestamp = :lastSeenTimestamp WHERE object_id = :objectID AND scope = :scope AND fact_type_id = :factTypeID")
+  CompletionStage<Void> saveLastSeenTimestampAsync(UUID objectID, String scope, UUID factTypeID, long lastSeenTimestamp, long writeTime);
+
+  @Query("UPDATE " + KEY_SPACE + "." + ObjectStatisticsTimestampEntity.TABLE + " SET materialized = :materialized WHERE object_id = :objectID")
+  CompletionStage<Void> saveMaterializedAsync(UUID objectID, boolean materialized);
+
+  @Query("SELECT * FROM " + KEY_SPACE + "." + ObjectStatisticsTimestampEntity.TABLE + " WHERE object_id IN :objectID")
+  PagingIterable<ObjectStatisticsTimestampEntity> fetchTimestamps(List<UUID> objectID);
+
+}
@@ -0,0 +1,65 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import com.google.common.hash.Hashing;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Calculates the key under which a Fact is stored in the {@link no.mnemonic.act.platform.dao.cassandra.entity.FactExistenceEntity}
+ * lookup table. Two Facts have the same key if they are logically the same, i.e. if they have the same type, value,
+ * origin, organization, access mode, confidence, referenced Fact and bindings to Objects. This mirrors the existence
+ * query against ElasticSearch, except that confidence is rounded to two decimals instead of being compared within an
+ * interval of 0.01.
+ */
+public class FactExistenceKey {
+
+  private static final float CONFIDENCE_PRECISION = 100f;
+  private static final char SEPARATOR = '|';
+
+  private FactExistenceKey() {
+  }
+
+  /**
+   * Calculate the key of a Fact as a hex-encoded SHA-256 digest of its identifying fields.
+   *
+   * @param fact Fact to calculate the key for
+   * @return Key of the Fact
+   */
+  public static String of(FactEntity fact) {
+    if (fact == null) throw new IllegalArgumentException("'fact' cannot be null!");
+
+    StringBuilder builder = new StringBuilder()
+            .append(fact.getTypeID()).append(SEPARATOR)
+            .append(fact.getOriginID()).append(SEPARATOR)
+            .append(fact.getOrganizationID()).append(SEPARATOR)
+            .append(fact.getAccessMode()).append(SEPARATOR)
+            .append(fact.getConfidence() != null ? Math.round(fact.getConfidence() * CONFIDENCE_PRECISION) : null).append(SEPARATOR)
+            .append(fact.getInReferenceToID()).append(SEPARATOR);
+
+    // Prefix the value with its length as it may contain the separator. A missing value is different from an empty value.
+    if (fact.getValue() != null) {
+      builder.append(fact.getValue().length()).append(':').append(fact.getValue());
+    } else {
+      builder.append('-');
+    }
+
+    // The order of the bindings isn't significant, thus, sort them.
+    List<FactEntity.FactObjectBinding> bindings = ListUtils.list(fact.getBindings())
+            .stream()
+            .sorted(Comparator.comparing(FactEntity.FactObjectBinding::getObjectID, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(binding -> Objects.toString(binding.getDirection())))
+            .collect(Collectors.toList());
+    for (FactEntity.FactObjectBinding binding : bindings) {
+      builder.append(SEPARATOR).append(binding.getObjectID()).append('/').append(binding.getDirection());
+    }
+
+    return Hashing.sha256().hashString(builder, StandardCharsets.UTF_8).toString();
+  }
+
+}
@@ -1,20 +1,26 @@
 package no.mnemonic.act.platform.dao.cassandra.utilities;
 
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.google.common.collect.Lists;
 import no.mnemonic.commons.logging.Logger;
 import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 
 /**
  * {@link Iterator} useful for implementing multi-fetch against Cassandra. It breaks down a list of UUID into multiple
- * batches which will be fetched from Cassandra one-by-one. This gives better performance in the case an IN-clause is
- * used to implement multi-fetch, or when not all results are actually consumed (batches are fetched on-demand).
+ * batches which will be fetched from Cassandra. This gives better performance in the case an IN-clause is used to
+ * implement multi-fetch, or when not all results are actually consumed (batches are fetched on-demand).
+ * <p>
+ * When constructed with an asynchronous fetch function the iterator prefetches up to {@code prefetchDepth} batches
+ * ahead of the consumer while keeping at most {@code parallelism} requests in-flight at the same time. Batches are
+ * always returned in the order of the partitions, independent of the order in which the requests complete. Because
+ * no further batches are requested until the consumer has caught up, a slow consumer applies backpressure.
  *
  * @param <T> Type of returned elements
  */
@@ -24,49 +30,138 @@ public class MultiFetchIterator<T> implements Iterator<T> {
   // Cassandra's performance is poor with a lot of elements inside an IN-clause, thus, use a small batch size.
   private static final int BATCH_SIZE = 100;
 
-  private final Function<List<UUID>, Iterator<T>> nextBatch;
+  private final Function<List<UUID>, CompletionStage<Iterator<T>>> nextBatch;
   private final List<List<UUID>> partitions;
+  private final int parallelism;
+  private final int prefetchDepth;
+  // Requested batches which haven't been consumed yet, in the order of the partitions.
+  private final Deque<CompletableFuture<Iterator<T>>> pendingBatches = new ArrayDeque<>();
   private Iterator<T> currentBatch;
   private int nextPartition;
+  private int inFlight;
 
   /**
-   * Create a new instance.
+   * Create a new instance which fetches the batches synchronously one-by-one when they are consumed.
    *
    * @param nextBatch Function for fetching the next batch of elements
    * @param id        List of all elements to fetch (by id)
    */
   public MultiFetchIterator(Function<List<UUID>, Iterator<T>> nextBatch, List<UUID> id) {
+    this(toAsync(ObjectUtils.notNull(nextBatch, "'nextBatch' cannot be null!")), id, 1, 0);
+  }
+
+  /**
+   * Create a new instance which fetches the batches asynchronously.
+   *
+   * @param nextBatch     Function for asynchronously fetching the next batch of elements
+   * @param id            List of all elements to fetch (by id)
+   * @param parallelism   Maximum number of requests in-flight at the same time (must be at least 1)
+   * @param prefetchDepth Maximum number of batches to request ahead of the consumer (0 disables prefetching)
+   */
+  public MultiFetchIterator(Function<List<UUID>, CompletionStage<Iterator<T>>> nextBatch, List<UUID> id, int parallelism, int prefetchDepth) {
+    if (parallelism < 1) throw new IllegalArgumentException("'parallelism' must be at least 1!");
+    if (prefetchDepth < 0) throw new IllegalArgumentException("'prefetchDepth' cannot be negative!");
     this.nextBatch = ObjectUtils.notNull(nextBatch, "'nextBatch' cannot be null!");
     // The input for multi-fetch is a list of ids. This list can be large, so split it up into smaller partitions
     // which will be fetched one-by-one.
     this.partitions = Lists.partition(ObjectUtils.notNull(id, "'id' cannot be null!"), BATCH_SIZE);
+    this.parallelism = parallelism;
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  /**
+   * Collect all pages of an asynchronous result into one batch. Useful for implementing the asynchronous fetch
+   * function on top of mapper methods returning {@link MappedAsyncPagingIterable}.
+   *
+   * @param result Asynchronous result returned from the mapper
+   * @param <T>    Type of returned elements
+   * @return Future completing with all elements of the result once all pages have been fetched
+   */
+  public static <T> CompletionStage<Iterator<T>> fetchAllPages(CompletionStage<MappedAsyncPagingIterable<T>> result) {
+    return ObjectUtils.notNull(result, "'result' cannot be null!")
+            .thenCompose(page -> fetchAllPages(page, new ArrayList<>()))
+            .thenApply(List::iterator);
   }
 
   @Override
   public boolean hasNext() {
     // If this is the initial batch or the current batch has be consumed completely, fetch the next batch.
-    if (currentBatch == null || !currentBatch.hasNext()) {
-      currentBatch = ObjectUtils.notNull(nextBatch(), "Next batch cannot be null!");
+    // Skip over empty batches in order to avoid stopping the iteration prematurely.
+    while (currentBatch == null || !currentBatch.hasNext()) {
+      Iterator<T> batch = nextBatch();
+      if (batch == null) return false;
+
+      currentBatch = batch;
       LOGGER.debug("Successfully fetched next batch from Cassandra.");
     }
 
-    return currentBatch.hasNext();
+    return true;
   }
 
   @Override
   public T next() {
+    if (!hasNext()) throw new NoSuchElementException();
     return currentBatch.next();
   }
 
   private Iterator<T> nextBatch() {
-    if (partitions.size() > nextPartition) {
-      // Fetch the next batch of elements for the next partition of ids.
-      Iterator<T> batch = nextBatch.apply(partitions.get(nextPartition));
-      nextPartition++;
-      return batch;
+    CompletableFuture<Iterator<T>> batch;
+    synchronized (this) {
+      // Make sure that at least the next batch has been requested.
+      requestBatches(1);
+      batch = pendingBatches.poll();
+      // All partitions have been fetched.
+      if (batch == null) return null;
+      // The consumer has advanced, thus, allow prefetching of more batches.
+      requestBatches(prefetchDepth);
+    }
+
+    try {
+      // Wait outside of the lock because completion handlers need to acquire it.
+      return ObjectUtils.notNull(batch.join(), "Next batch cannot be null!");
+    } catch (CompletionException ex) {
+      throw unwrap(ex);
     }
+  }
+
+  private synchronized void requestBatches(int maximumPending) {
+    // Issue new requests until either all partitions have been requested, enough batches are waiting for the
+    // consumer, or the maximum number of parallel requests has been reached.
+    while (nextPartition < partitions.size() && pendingBatches.size() < maximumPending && inFlight < parallelism) {
+      List<UUID> partition = partitions.get(nextPartition++);
+      inFlight++;
+
+      CompletableFuture<Iterator<T>> batch;
+      try {
+        batch = ObjectUtils.notNull(nextBatch.apply(partition), "Next batch cannot be null!").toCompletableFuture();
+      } catch (RuntimeException ex) {
+        batch = new CompletableFuture<>();
+        batch.completeExceptionally(ex);
+      }
+
+      pendingBatches.add(batch);
+      batch.whenComplete((result, error) -> onBatchCompleted());
+    }
+  }
+
+  private synchronized void onBatchCompleted() {
+    inFlight--;
+    // Keep the pipeline filled while the consumer is still processing previous batches.
+    requestBatches(prefetchDepth);
+  }
+
+  private static <T> Function<List<UUID>, CompletionStage<Iterator<T>>> toAsync(Function<List<UUID>, Iterator<T>> nextBatch) {
+    return partition -> CompletableFuture.completedFuture(nextBatch.apply(partition));
+  }
+
+  private static <T> CompletionStage<List<T>> fetchAllPages(MappedAsyncPagingIterable<T> page, List<T> result) {
+    page.currentPage().forEach(result::add);
+    if (!page.hasMorePages()) return CompletableFuture.completedFuture(result);
+    return page.fetchNextPage().thenCompose(next -> fetchAllPages(next, result));
+  }
 
-    // All partitions have been fetched. Just return an empty iterator.
-    return Collections.emptyIterator();
+  private static RuntimeException unwrap(CompletionException ex) {
+    if (ex.getCause() instanceof RuntimeException) return (RuntimeException) ex.getCause();
+    return ex;
   }
 }
@@ -0,0 +1,51 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.retry.RetryDecision;
+import com.datastax.oss.driver.api.core.retry.RetryPolicy;
+import com.datastax.oss.driver.api.core.servererrors.CoordinatorException;
+import com.datastax.oss.driver.api.core.servererrors.WriteType;
+import com.datastax.oss.driver.api.core.session.Request;
+
+/**
+ * {@link RetryPolicy} which never retries a request but always reports the error to the caller. Used for requests
+ * which must not be executed more than once, e.g. counter updates (see the 'non-idempotent' profile in application.conf).
+ */
+public class NoRetryPolicy implements RetryPolicy {
+
+  // The driver instantiates retry policies by reflection using this constructor.
+  public NoRetryPolicy(DriverContext context, String profileName) {
+    // NOOP
+  }
+
+  @Override
+  public RetryDecision onReadTimeout(Request request, ConsistencyLevel cl, int blockFor, int received, boolean dataPresent, int retryCount) {
+    return RetryDecision.RETHROW;
+  }
+
+  @Override
+  public RetryDecision onWriteTimeout(Request request, ConsistencyLevel cl, WriteType writeType, int blockFor, int received, int retryCount) {
+    return RetryDecision.RETHROW;
+  }
+
+  @Override
+  public RetryDecision onUnavailable(Request request, ConsistencyLevel cl, int required, int alive, int retryCount) {
+    return RetryDecision.RETHROW;
+  }
+
+  @Override
+  public RetryDecision onRequestAborted(Request request, Throwable error, int retryCount) {
+    return RetryDecision.RETHROW;
+  }
+
+  @Override
+  public RetryDecision onErrorResponse(Request request, CoordinatorException error, int retryCount) {
+    return RetryDecision.RETHROW;
+  }
+
+  @Override
+  public void close() {
+    // NOOP
+  }
+}
@@ -0,0 +1,270 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.client.tasks.TaskSubmissionResponse;
+import org.elasticsearch.index.reindex.AbstractBulkByScrollRequest;
+import org.elasticsearch.index.reindex.ReindexRequest;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.existsQuery;
+
+/**
+ * Moves all Facts from the single 'act' index into time-partitioned indices.
+ * <p>
+ * Alternatively, the migrator only populates the 'id' field of documents in the single index which were indexed before
+ * the field was added to the mappings ({@link #backfillIds()}). Paginating a Fact search using search_after sorts on
+ * this field, thus, {@link FactSearchManager} refuses to resume searches from a cursor until all documents have an 'id'.
+ * <p>
+ * The migration is supposed to be executed after the application has been switched to time-based partitioning (see
+ * {@link FactSearchManager#setIndexPartitioning(FactSearchManager.IndexPartitioning)}). The migrator makes sure that
+ * the index template exists and reindexes all documents of the single index into the partition derived from their
+ * timestamp. Documents which already exist in a partition are not overwritten as those have been indexed after the
+ * switch and are more recent. The single index is left untouched and must be removed manually after verifying the
+ * migration. If the reindex task fails or any document could not be reindexed the migration fails, and the application
+ * must keep reading from the single index until the migration has been repeated successfully.
+ */
+public class FactIndexMigrator {
+
+  private static final Logger LOGGER = Logging.getLogger(FactIndexMigrator.class);
+  private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+  private static final String SOURCE_INDEX = "act";
+  private static final String BACKFILL_IDS_MODE = "BackfillIds";
+  private static final int BATCH_SIZE = 1000;
+  private static final long POLL_INTERVAL_SECONDS = 10;
+  // Also populate the 'id' field (used for sorting) of documents indexed before it was added to the mappings.
+  private static final String BACKFILL_IDS_SCRIPT = "ctx._source.id = ctx._id";
+  private static final String PARTITION_SCRIPT = "ctx._index = params.prefix + DateTimeFormatter.ofPattern(params.pattern)" +
+          ".withZone(ZoneOffset.UTC).format(Instant.ofEpochMilli(ctx._source.timestamp)); ctx._source.id = ctx._id;";
+
+  private final ClientFactory clientFactory;
+  private final FactSearchManager.IndexPartitioning partitioning;
+  private final int partitionShards;
+
+  public FactIndexMigrator(ClientFactory clientFactory, FactSearchManager.IndexPartitioning partitioning, int partitionShards) {
+    this.clientFactory = ObjectUtils.notNull(clientFactory, "'clientFactory' cannot be null!");
+    this.partitioning = ObjectUtils.notNull(partitioning, "'partitioning' cannot be null!");
+    this.partitionShards = partitionShards;
+  }
+
+  /**
+   * Executes the migration and blocks until all documents have been reindexed.
+   *
+   * @throws IllegalStateException If the migration fails
+   */
+  public void migrate() {
+    // Starting a partitioned FactSearchManager puts the index template and creates the active partitions.
+    FactSearchManager searchManager = new FactSearchManager(clientFactory)
+            .setIndexPartitioning(partitioning)
+            .setPartitionShards(partitionShards);
+    searchManager.startComponent();
+    searchManager.stopComponent();
+
+    long sourceCount = count(SOURCE_INDEX);
+    LOGGER.info("Start migrating %d documents from index '%s' into '%s' partitions.", sourceCount, SOURCE_INDEX, partitioning);
+
+    String task = submitReindexTask(createReindexRequest(new FactIndexPartitioner(partitioning, Clock.systemUTC())));
+    waitForCompletion(task);
+
+    LOGGER.info("Finished migration. Index '%s' contains %d documents, alias '%s' contains %d documents.",
+            SOURCE_INDEX, sourceCount, FactIndexPartitioner.READ_ALIAS, count(FactIndexPartitioner.READ_ALIAS));
+  }
+
+  /**
+   * Populates the 'id' field of all documents in the single 'act' index which don't have it and blocks until all
+   * documents have been updated. Documents updated concurrently by the application are skipped as those are written
+   * with an 'id' anyway.
+   *
+   * @throws IllegalStateException If the backfill fails
+   */
+  public void backfillIds() {
+    LOGGER.info("Start populating field 'id' of %d documents in index '%s'.", countMissingIds(), SOURCE_INDEX);
+
+    String task = submitUpdateByQueryTask(createBackfillIdsRequest());
+    waitForCompletion(task);
+
+    LOGGER.info("Finished populating field 'id'. Index '%s' contains %d documents without an 'id'.", SOURCE_INDEX, countMissingIds());
+  }
+
+  static Request createBackfillIdsRequest() {
+    // The high-level client doesn't support submitting an update-by-query task, thus, use the low-level client.
+    Request request = new Request("POST", "/" + SOURCE_INDEX + "/_update_by_query");
+    request.addParameter("wait_for_completion", "false");
+    request.addParameter("conflicts", "proceed");
+    request.addParameter("scroll_size", String.valueOf(BATCH_SIZE));
+    request.addParameter("slices", "auto");
+
+    ObjectNode body = MAPPER.createObjectNode();
+    body.putObject("query").putObject("bool").putObject("must_not").putObject("exists").put("field", "id");
+    body.putObject("script")
+            .put("lang", "painless")
+            .put("source", BACKFILL_IDS_SCRIPT);
+    request.setJsonEntity(body.toString());
+    return request;
+  }
+
+  static ReindexRequest createReindexRequest(FactIndexPartitioner partitioner) {
+    Map<String, Object> params = new HashMap<>();
+    params.put("prefix", FactIndexPartitioner.PARTITION_PREFIX);
+    params.put("pattern", partitioner.getDatePattern());
+
+    ReindexRequest request = new ReindexRequest()
+            .setSourceIndices(SOURCE_INDEX)
+            .setSourceBatchSize(BATCH_SIZE)
+            // The destination is overridden per document by the script, but the request requires one.
+            .setDestIndex(FactIndexPartitioner.PARTITION_PREFIX + "migration")
+            .setDestOpType("create")
+            .setSlices(AbstractBulkByScrollRequest.AUTO_SLICES)
+            .setScript(new Script(ScriptType.INLINE, "painless", PARTITION_SCRIPT, params));
+    // Skip documents which already exist in a partition instead of aborting the migration.
+    request.setConflicts("proceed");
+    return request;
+  }
+
+  private String submitReindexTask(ReindexRequest request) {
+    try {
+      TaskSubmissionResponse response = clientFactory.getClient().submitReindexTask(request, RequestOptions.DEFAULT);
+      LOGGER.info("Submitted reindex task %s.", response.getTask());
+      return response.getTask();
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, "Could not submit reindex task.");
+    }
+  }
+
+  private String submitUpdateByQueryTask(Request request) {
+    try {
+      Response response = clientFactory.getClient().getLowLevelClient().performRequest(request);
+      String task = MAPPER.readTree(response.getEntity().getContent()).path("task").asText();
+      LOGGER.info("Submitted update-by-query task %s.", task);
+      return task;
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, "Could not submit update-by-query task.");
+    }
+  }
+
+  private void waitForCompletion(String task) {
+    // The high-level client doesn't expose the result of a completed task, thus, fetch it using the low-level client.
+    Request request = new Request("GET", "/_tasks/" + task);
+
+    try {
+      while (true) {
+        Response response = clientFactory.getClient().getLowLevelClient().performRequest(request);
+        JsonNode result = MAPPER.readTree(response.getEntity().getContent());
+        if (result.path("completed").asBoolean()) {
+          verifyTaskResult(task, result);
+          return;
+        }
+
+        LOGGER.info("Task %s is still running: %s", task, result.path("task").path("status"));
+        TimeUnit.SECONDS.sleep(POLL_INTERVAL_SECONDS);
+      }
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not fetch status of task %s.", task));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw logAndExit(ex, String.format("Interrupted while waiting for task %s.", task));
+    }
+  }
+
+  static void verifyTaskResult(String task, JsonNode result) {
+    // A completed task reports either an 'error' if it failed as a whole or a 'response' listing all failed documents.
+    // Conflicts are not reported as failures because documents which already exist in a partition (or which have been
+    // updated concurrently while populating the 'id' field) are skipped.
+    String msg = null;
+    JsonNode error = result.path("error");
+    JsonNode failures = result.path("response").path("failures");
+    JsonNode canceled = result.path("response").path("canceled");
+    if (!error.isMissingNode() && !error.isNull()) {
+      msg = String.format("Task %s failed: %s", task, error);
+    } else if (failures.size() > 0) {
+      msg = String.format("Task %s could not write %d documents, first failure: %s", task, failures.size(), failures.get(0));
+    } else if (!canceled.isMissingNode() && !canceled.isNull()) {
+      msg = String.format("Task %s was canceled: %s", task, canceled.asText());
+    }
+
+    if (msg != null) {
+      LOGGER.error(msg);
+      throw new IllegalStateException(msg);
+    }
+  }
+
+  private long count(String index) {
+    try {
+      return clientFactory.getClient().count(new CountRequest(index), RequestOptions.DEFAULT).getCount();
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not count documents in '%s'.", index));
+    }
+  }
+
+  private long countMissingIds() {
+    CountRequest request = new CountRequest(SOURCE_INDEX)
+            .query(boolQuery().mustNot(existsQuery("id")));
+    try {
+      return clientFactory.getClient().count(request, RequestOptions.DEFAULT).getCount();
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not count documents without an 'id' in '%s'.", SOURCE_INDEX));
+    }
+  }
+
+  private RuntimeException logAndExit(Exception ex, String msg) {
+    LOGGER.error(ex, msg);
+    return new IllegalStateException(msg, ex);
+  }
+
+  /**
+   * Executes the migration from the command line.
+   * <p>
+   * Usage: FactIndexMigrator &lt;contactPoints&gt; &lt;port&gt; &lt;Daily|Monthly|BackfillIds&gt; [partitionShards]
+   * <p>
+   * Mode 'BackfillIds' only populates the 'id' field in the single index, see {@link #backfillIds()}.
+   *
+   * @param args Command line arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 3) {
+      System.err.println("Usage: FactIndexMigrator <contactPoints> <port> <Daily|Monthly|BackfillIds> [partitionShards]");
+      System.exit(1);
+    }
+
+    ClientFactory clientFactory = ClientFactory.builder()
+            .setContactPoints(SetUtils.set(args[0].split(",")))
+            .setPort(Integer.parseInt(args[1]))
+            .build();
+    boolean backfillIds = BACKFILL_IDS_MODE.equals(args[2]);
+    FactSearchManager.IndexPartitioning partitioning = backfillIds ? FactSearchManager.IndexPartitioning.None
+            : FactSearchManager.IndexPartitioning.valueOf(args[2]);
+    int partitionShards = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+    clientFactory.startComponent();
+    try {
+      FactIndexMigrator migrator = new FactIndexMigrator(clientFactory, partitioning, partitionShards);
+      if (backfillIds) {
+        migrator.backfillIds();
+      } else {
+        migrator.migrate();
+      }
+    } finally {
+      clientFactory.stopComponent();
+    }
+  }
+}
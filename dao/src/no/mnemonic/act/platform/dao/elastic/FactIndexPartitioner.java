@@ -0,0 +1,160 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps Facts to time-partitioned indices. A Fact is stored in the partition derived from its 'timestamp' field which
+ * never changes after a Fact has been created, thus, re-indexing a Fact always hits the same partition. All partitions
+ * are part of a read alias which is used whenever a search cannot be pruned to a limited set of partitions.
+ */
+class FactIndexPartitioner {
+
+  static final String PARTITION_PREFIX = "act-";
+  static final String PARTITION_PATTERN = PARTITION_PREFIX + "*";
+  static final String READ_ALIAS = "act-read";
+  static final String TEMPLATE_NAME = "act-partitions";
+
+  // Searches spanning more partitions are executed against the read alias instead of listing all partitions.
+  private static final int MAX_ENUMERATED_PARTITIONS = 100;
+  private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+  private final FactSearchManager.IndexPartitioning partitioning;
+  private final DateTimeFormatter formatter;
+  private final Clock clock;
+
+  FactIndexPartitioner(FactSearchManager.IndexPartitioning partitioning, Clock clock) {
+    this.partitioning = ObjectUtils.notNull(partitioning, "'partitioning' cannot be null!");
+    this.clock = ObjectUtils.notNull(clock, "'clock' cannot be null!");
+    if (partitioning == FactSearchManager.IndexPartitioning.None) {
+      throw new IllegalArgumentException("Partitioner requires a time-based partitioning!");
+    }
+    this.formatter = DateTimeFormatter.ofPattern(getDatePattern()).withZone(ZoneOffset.UTC);
+  }
+
+  /**
+   * Returns the date pattern used as suffix of the partition names, e.g. 'yyyy.MM.dd' for daily partitions.
+   *
+   * @return Date pattern of partition names
+   */
+  String getDatePattern() {
+    return partitioning == FactSearchManager.IndexPartitioning.Daily ? "yyyy.MM.dd" : "yyyy.MM";
+  }
+
+  /**
+   * Returns the name of the partition which holds Facts with the given timestamp.
+   *
+   * @param timestamp Fact timestamp (epoch milliseconds)
+   * @return Name of partition
+   */
+  String getPartition(long timestamp) {
+    return PARTITION_PREFIX + formatter.format(Instant.ofEpochMilli(timestamp));
+  }
+
+  /**
+   * Returns the partitions which should exist before Facts are written, i.e. the current and the next partition.
+   * Creating the next partition in advance avoids that the first writes after a period rolls over pay for the index
+   * creation.
+   *
+   * @return Names of current and next partition
+   */
+  List<String> getActivePartitions() {
+    LocalDate today = LocalDate.now(clock.withZone(ZoneOffset.UTC));
+    return ListUtils.list(getPartition(toEpochMilli(today)), getPartition(toEpochMilli(nextPeriod(today))));
+  }
+
+  /**
+   * Returns the indices which need to be searched in order to find all Facts matching the given criteria.
+   * <p>
+   * The partitions are pruned using the criteria's time range. Because a Fact's 'lastSeenTimestamp' is never before
+   * its 'timestamp', the end of the time range always limits the partitions. The start of the time range only limits
+   * the partitions if it is applied to the 'timestamp' field. Facts never have a timestamp in the future, thus, an
+   * open-ended time range stops at the partition after the current one (to cover clock skew between nodes). If the
+   * time range cannot be pruned or spans too many partitions the read alias is returned.
+   *
+   * @param criteria Search criteria
+   * @return Indices to search
+   */
+  String[] getSearchIndices(FactSearchCriteria criteria) {
+    Long start = isStartApplicableToTimestamp(criteria) ? positive(criteria.getStartTimestamp()) : null;
+    if (start == null) return new String[]{READ_ALIAS};
+
+    LocalDate first = toDate(start);
+    LocalDate last = toDate(ObjectUtils.ifNull(positive(criteria.getEndTimestamp()), clock.millis()));
+    if (positive(criteria.getEndTimestamp()) == null) {
+      last = nextPeriod(last);
+    }
+
+    List<String> partitions = new ArrayList<>();
+    for (LocalDate period = first; !period.isAfter(last); period = nextPeriod(period)) {
+      if (partitions.size() >= MAX_ENUMERATED_PARTITIONS) return new String[]{READ_ALIAS};
+      partitions.add(getPartition(toEpochMilli(period)));
+    }
+
+    // An empty time range (end before start) doesn't match anything, but the request still requires an index.
+    return partitions.isEmpty() ? new String[]{getPartition(start)} : partitions.toArray(new String[0]);
+  }
+
+  /**
+   * Creates the source of an index template for all partitions from the content of 'mappings.json'. The template
+   * applies the same settings and mappings as used for the non-partitioned index and adds each partition to the read
+   * alias. Optionally, the number of shards per partition can be overridden.
+   *
+   * @param mappings       Content of 'mappings.json'
+   * @param numberOfShards Number of shards per partition, or zero to keep the number specified in 'mappings.json'
+   * @return Source of index template
+   * @throws IOException If 'mappings.json' cannot be parsed
+   */
+  static String createTemplateSource(String mappings, int numberOfShards) throws IOException {
+    ObjectNode template = (ObjectNode) MAPPER.readTree(mappings);
+    template.putArray("index_patterns").add(PARTITION_PATTERN);
+    template.putObject("aliases").putObject(READ_ALIAS);
+    if (numberOfShards > 0) {
+      template.with("settings").with("index").put("number_of_shards", numberOfShards);
+    }
+    return MAPPER.writeValueAsString(template);
+  }
+
+  private boolean isStartApplicableToTimestamp(FactSearchCriteria criteria) {
+    Set<String> fields = criteria.getTimeFieldStrategy()
+            .stream()
+            .flatMap(strategy -> strategy.getFields().stream())
+            .collect(Collectors.toSet());
+    if (!fields.contains("timestamp")) return false;
+    // With 'any' every field could fulfil the range on its own, thus, the start only applies if 'timestamp' is the only field.
+    return fields.size() == 1 || criteria.getTimeMatchStrategy() == FactSearchCriteria.MatchStrategy.all;
+  }
+
+  private LocalDate nextPeriod(LocalDate date) {
+    return partitioning == FactSearchManager.IndexPartitioning.Daily ? date.plusDays(1) : date.withDayOfMonth(1).plusMonths(1);
+  }
+
+  private LocalDate toDate(long timestamp) {
+    LocalDate date = Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC).toLocalDate();
+    return partitioning == FactSearchManager.IndexPartitioning.Daily ? date : date.withDayOfMonth(1);
+  }
+
+  private static long toEpochMilli(LocalDate date) {
+    return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+  }
+
+  private static Long positive(Long timestamp) {
+    // Non-positive timestamps are treated as omitted, the same as when building the search query.
+    return timestamp != null && timestamp > 0 ? timestamp : null;
+  }
+}
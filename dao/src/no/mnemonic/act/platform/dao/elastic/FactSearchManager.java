@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.google.common.io.CharStreams;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
 import no.mnemonic.act.platform.dao.api.criteria.ObjectStatisticsCriteria;
 import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.elastic.criteria.FactExistenceSearchCriteria;
@@ -13,10 +14,16 @@ import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
 import no.mnemonic.act.platform.dao.elastic.document.ObjectDocument;
 import no.mnemonic.act.platform.dao.elastic.result.ScrollingSearchResult;
 import no.mnemonic.act.platform.dao.elastic.result.SearchResult;
+import no.mnemonic.act.platform.utilities.metrics.LatencyHistogram;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
 import no.mnemonic.commons.logging.Logger;
 import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.metrics.MetricsData;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
@@ -26,16 +33,28 @@ import org.apache.lucene.search.join.ScoreMode;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.*;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.*;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.core.CountRequest;
 import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.CreateIndexResponse;
 import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.PutIndexTemplateRequest;
+import org.elasticsearch.client.indices.PutMappingRequest;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -52,15 +71,22 @@ import org.elasticsearch.search.aggregations.metrics.Cardinality;
 import org.elasticsearch.search.aggregations.metrics.Max;
 import org.elasticsearch.search.aggregations.metrics.TopHits;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -72,7 +98,7 @@ import static org.elasticsearch.search.aggregations.AggregationBuilders.*;
  * Class for indexing Facts into ElasticSearch as well as for retrieving and searching indexed Facts.
  */
 @Singleton
-public class FactSearchManager implements LifecycleAspect {
+public class FactSearchManager implements LifecycleAspect, MetricAspect {
 
   private static final String INDEX_NAME = "act";
   private static final String MAPPINGS_JSON = "mappings.json";
@@ -91,6 +117,18 @@ public class FactSearchManager implements LifecycleAspect {
 
   private static final float CONFIDENCE_EQUALITY_INTERVAL = 0.01f;
 
+  // Fields used for sorting the search result when paginating using search_after. The 'id' keyword field is used as a
+  // tie breaker for Facts with the same timestamp because sorting on the internal '_id' field requires fielddata.
+  private static final String SORT_TIMESTAMP_FIELD = "timestamp";
+  private static final String SORT_ID_FIELD = "id";
+  private static final String ID_MAPPING = "{\"properties\":{\"" + SORT_ID_FIELD + "\":{\"type\":\"keyword\"}}}";
+  // How often to check whether documents without the 'id' field still exist until all have been backfilled.
+  private static final long SORT_ID_CHECK_INTERVAL_MS = 60_000;
+
+  // Retry bulk items rejected by ElasticSearch because of back pressure, first after 100ms, then with exponential backoff.
+  private static final BackoffPolicy BULK_BACKOFF_POLICY = BackoffPolicy.exponentialBackoff(TimeValue.timeValueMillis(100), 5);
+  private static final long BULK_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
   private static final Logger LOGGER = Logging.getLogger(FactSearchManager.class);
 
   private static final ObjectMapper MAPPER = JsonMapper.builder().build();
@@ -103,7 +141,82 @@ public class FactSearchManager implements LifecycleAspect {
 
   private String searchScrollExpiration = "1m";
   private int searchScrollSize = 1000;
+  private PaginationMode paginationMode = PaginationMode.Scroll;
+  private int bulkActions = 1000;
+  private int bulkSizeInMegaBytes = 5;
+  private String bulkFlushInterval = "1s";
   private boolean isTestEnvironment = false;
+  private int partitionShards = 0;
+
+  private FactIndexPartitioner partitioner;
+  private BulkProcessor bulkProcessor;
+  // Set once all documents contain the 'id' field, i.e. search_after pagination can be used safely.
+  private volatile boolean sortIdBackfilled;
+  private volatile long sortIdCheckedAt;
+  // Notified about every buffered Fact which could not be indexed.
+  private final List<Consumer<UUID>> bufferedIndexFailureListeners = new CopyOnWriteArrayList<>();
+  private final LongAdder bufferedIndexFailures = new LongAdder();
+
+  // Latency of every request sent to ElasticSearch, keyed by operation.
+  private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+  private final LatencyHistogram getFactLatency = latency("getFact");
+  private final LatencyHistogram indexFactLatency = latency("indexFact");
+  private final LatencyHistogram indexFactsLatency = latency("indexFacts");
+  private final LatencyHistogram retrieveExistingFactsLatency = latency("retrieveExistingFacts");
+  private final LatencyHistogram retrieveExistingFactsBatchLatency = latency("retrieveExistingFactsBatch");
+  private final LatencyHistogram searchFactsLatency = latency("searchFacts");
+  private final LatencyHistogram searchObjectsLatency = latency("searchObjects");
+  private final LatencyHistogram calculateObjectStatisticsLatency = latency("calculateObjectStatistics");
+
+  /**
+   * Specifies how the results of a Fact search are fetched from ElasticSearch.
+   */
+  public enum PaginationMode {
+    /**
+     * The results are streamed using a scrolling search which keeps a search context open in ElasticSearch until all
+     * results have been fetched or the search context expires.
+     */
+    Scroll,
+    /**
+     * The results are sorted by timestamp and fetched page by page using search_after. No search context is kept open
+     * in ElasticSearch, and a search can be resumed at any time using a {@link FactSearchCursor}.
+     */
+    SearchAfter
+  }
+
+  /**
+   * Specifies how a document is written to ElasticSearch.
+   */
+  public enum IndexMode {
+    /**
+     * The document is indexed immediately and the method returns after ElasticSearch has acknowledged the request.
+     */
+    Synchronous,
+    /**
+     * The document is buffered and indexed in bulk together with other documents. The method returns immediately.
+     * Buffered documents are flushed when enough documents are buffered, the buffer size reaches a limit, after a
+     * fixed time interval or when the component is stopped.
+     */
+    Asynchronous
+  }
+
+  /**
+   * Specifies how Facts are distributed over indices.
+   */
+  public enum IndexPartitioning {
+    /**
+     * All Facts are stored in one single index.
+     */
+    None,
+    /**
+     * Facts are stored in one index per day, derived from their timestamp.
+     */
+    Daily,
+    /**
+     * Facts are stored in one index per month, derived from their timestamp.
+     */
+    Monthly
+  }
 
   @Inject
   public FactSearchManager(ClientFactory clientFactory) {
@@ -112,73 +225,220 @@ public class FactSearchManager implements LifecycleAspect {
 
   @Override
   public void startComponent() {
-    if (!indexExists()) {
-      LOGGER.info("Index '%s' does not exist, create it.", INDEX_NAME);
-      createIndex();
+    if (partitioner == null) {
+      if (!indexExists(INDEX_NAME)) {
+        LOGGER.info("Index '%s' does not exist, create it.", INDEX_NAME);
+        createIndex(INDEX_NAME, readMappingsOrFail());
+      } else {
+        // Add the 'id' field to indices created before it was part of the mappings. Existing documents are unaffected.
+        putIdMapping(INDEX_NAME);
+      }
+    } else {
+      // Always update the template in order to apply changed mappings to new partitions. Other partitions are
+      // created from the template when the first Fact is indexed into them.
+      putPartitionTemplate();
+      for (String partition : partitioner.getActivePartitions()) {
+        if (!indexExists(partition)) {
+          LOGGER.info("Partition '%s' does not exist, create it.", partition);
+          createIndex(partition, null);
+        }
+      }
     }
+
+    bulkProcessor = createBulkProcessor();
   }
 
   @Override
   public void stopComponent() {
-    // NOOP
+    if (bulkProcessor == null) return;
+
+    // Flush all buffered documents before shutting down.
+    try {
+      if (!bulkProcessor.awaitClose(BULK_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.warning("Could not flush all buffered Facts within %d seconds.", BULK_SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      LOGGER.warning(ex, "Interrupted while flushing buffered Facts.");
+      Thread.currentThread().interrupt();
+    }
+
+    bulkProcessor = null;
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(latencies)
+            .addSubMetrics("bufferedIndexing", new MetricsData().addData("failed", bufferedIndexFailures.sum()));
   }
 
   /**
    * Retrieve an indexed Fact by its UUID. Returns NULL if Fact cannot be fetched from ElasticSearch.
+   * <p>
+   * With time-based partitioning only Facts in the active partitions are fetched in realtime. Facts in older partitions
+   * are searched for and only visible after the next refresh. Use {@link #getFact(UUID, long)} if the timestamp is known.
    *
    * @param id UUID of indexed Fact
    * @return Indexed Fact or NULL if not available
    */
   public FactDocument getFact(UUID id) {
     if (id == null) return null;
-    GetResponse response;
+    if (partitioner == null) return getFactFromIndex(INDEX_NAME, id);
 
-    try {
-      GetRequest request = new GetRequest(INDEX_NAME, id.toString());
-      response = clientFactory.getClient().get(request, RequestOptions.DEFAULT);
-    } catch (ElasticsearchException | IOException ex) {
-      throw logAndExit(ex, String.format("Could not perform request to fetch Fact with id = %s.", id));
-    }
+    // The partition of a Fact is unknown without its timestamp. Recently indexed Facts are fetched in realtime from
+    // the active partitions, older Facts are looked up via the read alias.
+    FactDocument fact = getFactFromActivePartitions(id);
+    return fact != null ? fact : getFactFromPartitions(id);
+  }
 
-    if (response.isExists()) {
-      LOGGER.info("Successfully fetched Fact with id = %s.", id);
-      return decodeFactDocument(id, response.getSourceAsBytes());
-    } else {
-      // Fact isn't indexed in ElasticSearch, log warning and return null.
-      LOGGER.warning("Could not fetch Fact with id = %s. Fact not indexed?", id);
-      return null;
-    }
+  /**
+   * Retrieve an indexed Fact by its UUID and timestamp. Returns NULL if Fact cannot be fetched from ElasticSearch.
+   * <p>
+   * In contrast to {@link #getFact(UUID)} the Fact is always fetched in realtime, also when using time-based
+   * partitioning, because the timestamp identifies the partition holding the Fact.
+   *
+   * @param id        UUID of indexed Fact
+   * @param timestamp Timestamp of indexed Fact
+   * @return Indexed Fact or NULL if not available
+   */
+  public FactDocument getFact(UUID id, long timestamp) {
+    if (id == null) return null;
+    return getFactFromIndex(partitioner != null ? partitioner.getPartition(timestamp) : INDEX_NAME, id);
   }
 
   /**
-   * Index a Fact into ElasticSearch.
+   * Index a Fact into ElasticSearch. The request is performed synchronously.
    *
    * @param fact Fact to index
    * @return Indexed Fact
    */
   public FactDocument indexFact(FactDocument fact) {
+    return indexFact(fact, IndexMode.Synchronous);
+  }
+
+  /**
+   * Index a Fact into ElasticSearch using the given {@link IndexMode}.
+   * <p>
+   * With {@link IndexMode#Asynchronous} the Fact is only added to the indexing buffer and this method returns without
+   * waiting for ElasticSearch. Failures are not reported to the caller, instead they are counted in the metrics and
+   * reported to the listeners registered with {@link #addBufferedIndexFailureListener(Consumer)}. If this class is
+   * executed in a test environment or the component hasn't been started, the Fact is always indexed synchronously.
+   *
+   * @param fact Fact to index
+   * @param mode Specifies whether to index synchronously or asynchronously
+   * @return Indexed Fact
+   */
+  public FactDocument indexFact(FactDocument fact, IndexMode mode) {
     if (fact == null || fact.getId() == null) return null;
-    IndexResponse response;
 
+    if (mode == IndexMode.Asynchronous && !isTestEnvironment && bulkProcessor != null) {
+      try {
+        bulkProcessor.add(createIndexRequest(fact));
+      } catch (IOException ex) {
+        throw logAndExit(ex, String.format("Could not buffer Fact with id = %s for indexing.", fact.getId()));
+      }
+
+      LOGGER.debug("Successfully buffered Fact with id = %s for indexing.", fact.getId());
+      return fact;
+    }
+
+    IndexResponse response;
+    long start = System.nanoTime();
     try {
-      IndexRequest request = new IndexRequest(INDEX_NAME)
-              .id(fact.getId().toString())
-              .setRefreshPolicy(isTestEnvironment ? WriteRequest.RefreshPolicy.IMMEDIATE : WriteRequest.RefreshPolicy.NONE)
-              .source(FACT_DOCUMENT_WRITER.writeValueAsBytes(fact), XContentType.JSON);
+      IndexRequest request = createIndexRequest(fact)
+              .setRefreshPolicy(isTestEnvironment ? WriteRequest.RefreshPolicy.IMMEDIATE : WriteRequest.RefreshPolicy.NONE);
       response = clientFactory.getClient().index(request, RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, String.format("Could not perform request to index Fact with id = %s.", fact.getId()));
+    } finally {
+      indexFactLatency.recordSince(start);
     }
 
-    if (response.status() != RestStatus.OK && response.status() != RestStatus.CREATED) {
-      LOGGER.warning("Could not index Fact with id = %s.", fact.getId());
-    } else if (response.getResult() == DocWriteResponse.Result.CREATED) {
-      LOGGER.info("Successfully indexed Fact with id = %s.", fact.getId());
-    } else if (response.getResult() == DocWriteResponse.Result.UPDATED) {
-      LOGGER.info("Successfully re-indexed existing Fact with id = %s.", fact.getId());
+    logIndexResponse(fact, response);
+    return fact;
+  }
+
+  /**
+   * Index a Fact into ElasticSearch without blocking the calling thread. The returned stage completes after
+   * ElasticSearch has acknowledged the request, or exceptionally with an {@link IllegalStateException} if the
+   * request could not be performed.
+   *
+   * @param fact Fact to index
+   * @return Stage completing with the indexed Fact
+   */
+  public CompletionStage<FactDocument> indexFactAsync(FactDocument fact) {
+    CompletableFuture<FactDocument> future = new CompletableFuture<>();
+    if (fact == null || fact.getId() == null) {
+      future.complete(null);
+      return future;
     }
 
-    return fact;
+    try {
+      IndexRequest request = createIndexRequest(fact)
+              .setRefreshPolicy(isTestEnvironment ? WriteRequest.RefreshPolicy.IMMEDIATE : WriteRequest.RefreshPolicy.NONE);
+      clientFactory.getClient().indexAsync(request, RequestOptions.DEFAULT, new ActionListener<IndexResponse>() {
+        @Override
+        public void onResponse(IndexResponse response) {
+          logIndexResponse(fact, response);
+          future.complete(fact);
+        }
+
+        @Override
+        public void onFailure(Exception ex) {
+          future.completeExceptionally(logAndExit(ex, String.format("Could not perform request to index Fact with id = %s.", fact.getId())));
+        }
+      });
+    } catch (IOException ex) {
+      future.completeExceptionally(logAndExit(ex, String.format("Could not perform request to index Fact with id = %s.", fact.getId())));
+    }
+
+    return future;
+  }
+
+  /**
+   * Index multiple Facts into ElasticSearch using one bulk request. The request is performed synchronously.
+   * <p>
+   * Items rejected by ElasticSearch because of back pressure are retried with exponential backoff. Other failures are
+   * reported per Fact in the log, and the failed Facts are omitted from the returned list.
+   *
+   * @param facts Facts to index
+   * @return All Facts which were indexed successfully
+   */
+  public List<FactDocument> indexFacts(List<FactDocument> facts) {
+    if (CollectionUtils.isEmpty(facts)) return ListUtils.list();
+
+    // Key documents by id in order to be able to map the response items back to the documents.
+    Map<String, FactDocument> pending = new LinkedHashMap<>();
+    for (FactDocument fact : facts) {
+      if (fact == null || fact.getId() == null) continue;
+      pending.put(fact.getId().toString(), fact);
+    }
+
+    List<FactDocument> indexed = new ArrayList<>(pending.size());
+    Iterator<TimeValue> backoff = BULK_BACKOFF_POLICY.iterator();
+    while (!pending.isEmpty()) {
+      BulkResponse response = executeBulkRequest(pending.values());
+
+      Map<String, FactDocument> retry = new LinkedHashMap<>();
+      for (BulkItemResponse item : response.getItems()) {
+        FactDocument fact = pending.get(item.getId());
+        if (!item.isFailed()) {
+          indexed.add(fact);
+        } else if (item.status() == RestStatus.TOO_MANY_REQUESTS && backoff.hasNext()) {
+          retry.put(item.getId(), fact);
+        } else {
+          LOGGER.warning("Could not index Fact with id = %s (%s).", item.getId(), item.getFailureMessage());
+        }
+      }
+
+      pending = retry;
+      if (!pending.isEmpty() && !awaitBackoff(backoff.next())) {
+        LOGGER.warning("Interrupted while retrying to index %d Facts. Giving up.", pending.size());
+        break;
+      }
+    }
+
+    LOGGER.info("Successfully indexed %d of %d Facts in bulk.", indexed.size(), facts.size());
+    return indexed;
   }
 
   /**
@@ -198,10 +458,13 @@ public class FactSearchManager implements LifecycleAspect {
     if (criteria == null) return SearchResult.<FactDocument>builder().build();
 
     SearchResponse response;
+    long start = System.nanoTime();
     try {
       response = clientFactory.getClient().search(buildFactExistenceSearchRequest(criteria), RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, "Could not perform request to search for existing Facts.");
+    } finally {
+      retrieveExistingFactsLatency.recordSince(start);
     }
 
     if (response.status() != RestStatus.OK) {
@@ -218,6 +481,55 @@ public class FactSearchManager implements LifecycleAspect {
             .build();
   }
 
+  /**
+   * Retrieve the existing Facts for multiple search criteria at once. Same as {@link #retrieveExistingFacts(FactExistenceSearchCriteria)}
+   * but all searches are sent to ElasticSearch in one multi-search request instead of one request per criteria.
+   * <p>
+   * The returned list contains one result container per criteria in the same order as the given criteria.
+   *
+   * @param criteria Criteria to retrieve existing Facts
+   * @return One result container per criteria
+   */
+  public List<SearchResult<FactDocument>> retrieveExistingFactsBatch(List<FactExistenceSearchCriteria> criteria) {
+    if (CollectionUtils.isEmpty(criteria)) return ListUtils.list();
+
+    MultiSearchRequest request = new MultiSearchRequest();
+    for (FactExistenceSearchCriteria c : criteria) {
+      request.add(buildFactExistenceSearchRequest(c));
+    }
+
+    MultiSearchResponse response;
+    long start = System.nanoTime();
+    try {
+      response = clientFactory.getClient().msearch(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not perform request to search for %d existing Facts.", criteria.size()));
+    } finally {
+      retrieveExistingFactsBatchLatency.recordSince(start);
+    }
+
+    List<SearchResult<FactDocument>> result = new ArrayList<>(criteria.size());
+    for (MultiSearchResponse.Item item : response.getResponses()) {
+      if (item.isFailure()) {
+        throw logAndExit(item.getFailure(), "Could not search for existing Facts.");
+      }
+
+      if (item.getResponse().status() != RestStatus.OK) {
+        LOGGER.warning("Could not search for existing Facts (response code %s).", item.getResponse().status());
+        result.add(SearchResult.<FactDocument>builder().build());
+        continue;
+      }
+
+      result.add(SearchResult.<FactDocument>builder()
+              .setCount((int) item.getResponse().getHits().getTotalHits().value)
+              .setValues(retrieveFactDocuments(item.getResponse()))
+              .build());
+    }
+
+    LOGGER.info("Successfully retrieved existing Facts for %d criteria.", criteria.size());
+    return result;
+  }
+
   /**
    * Search for Facts indexed in ElasticSearch by a given search criteria. Only Facts satisfying the search criteria
    * will be returned. Returns a result container which will stream out the results from ElasticSearch. It will not
@@ -227,18 +539,39 @@ public class FactSearchManager implements LifecycleAspect {
    * Both 'currentUserID' (identifying the calling user) and 'availableOrganizationID' (identifying the Organizations
    * the calling user has access to) must be set in the search criteria in order to apply access control to Facts. Only
    * Facts accessible to the calling user will be returned.
+   * <p>
+   * If a cursor is specified in the search criteria (or if the {@link PaginationMode} is set to SearchAfter) the result
+   * will be sorted by timestamp and only Facts positioned after the cursor will be returned. In order to resume the
+   * search later on, create a {@link FactSearchCursor} from the last consumed Fact.
+   * <p>
+   * Sorting requires that all documents contain the 'id' field. As long as documents indexed before the field was
+   * added exist (see {@link FactIndexMigrator#backfillIds()}) a search with a cursor is rejected, and searches fall
+   * back to scrolling when the {@link PaginationMode} is set to SearchAfter.
    *
    * @param criteria Search criteria to match against Facts
    * @return Facts satisfying search criteria wrapped inside a result container
+   * @throws IllegalStateException If a cursor is specified but not all documents contain the 'id' field yet
    */
   public ScrollingSearchResult<FactDocument> searchFacts(FactSearchCriteria criteria) {
     if (criteria == null) return ScrollingSearchResult.<FactDocument>builder().build();
+    if (criteria.getSearchAfter() != null) {
+      if (!isSortIdBackfilled()) {
+        throw new IllegalStateException("Cannot resume search from a cursor before the 'id' field of all Facts has been populated.");
+      }
+      return searchFactsAfter(criteria);
+    }
+    if (paginationMode == PaginationMode.SearchAfter && isSortIdBackfilled()) {
+      return searchFactsAfter(criteria);
+    }
 
     SearchResponse response;
+    long start = System.nanoTime();
     try {
       response = clientFactory.getClient().search(buildFactsSearchRequest(criteria), RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, "Could not perform request to search for Facts.");
+    } finally {
+      searchFactsLatency.recordSince(start);
     }
 
     if (response.status() != RestStatus.OK) {
@@ -272,10 +605,13 @@ public class FactSearchManager implements LifecycleAspect {
     if (criteria == null) return SearchResult.<ObjectDocument>builder().build();
 
     SearchResponse response;
+    long start = System.nanoTime();
     try {
       response = clientFactory.getClient().search(buildObjectsSearchRequest(criteria), RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, "Could not perform request to search for Objects.");
+    } finally {
+      searchObjectsLatency.recordSince(start);
     }
 
     if (response.status() != RestStatus.OK) {
@@ -311,10 +647,13 @@ public class FactSearchManager implements LifecycleAspect {
     if (criteria == null) return ObjectStatisticsContainer.builder().build();
 
     SearchResponse response;
+    long start = System.nanoTime();
     try {
       response = clientFactory.getClient().search(buildObjectStatisticsSearchRequest(criteria), RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, "Could not perform request to calculate Object statistics.");
+    } finally {
+      calculateObjectStatisticsLatency.recordSince(start);
     }
 
     if (response.status() != RestStatus.OK) {
@@ -328,9 +667,22 @@ public class FactSearchManager implements LifecycleAspect {
     return result;
   }
 
+  /**
+   * Register a listener which is notified with the id of every Fact which could not be indexed after it has been
+   * buffered using {@link IndexMode#Asynchronous}. The listener is called from the thread handling the bulk response
+   * and must not block.
+   *
+   * @param listener Listener receiving the id of every Fact which could not be indexed
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager addBufferedIndexFailureListener(Consumer<UUID> listener) {
+    if (listener != null) bufferedIndexFailureListeners.add(listener);
+    return this;
+  }
+
   /**
    * Specify if this class is executed during unit tests (defaults to false). This setting will make indexed documents
-   * available for search immediately.
+   * available for search immediately. Asynchronous indexing is disabled in a test environment.
    *
    * @param testEnvironment Whether this class is executed during unit tests
    * @return Class instance, i.e. 'this'
@@ -355,6 +707,7 @@ public class FactSearchManager implements LifecycleAspect {
 
   /**
    * Specify the batch size when fetching data from ElasticSearch using a scrolling search. Defaults to 1000.
+   * The same batch size is used as page size when paginating using search_after.
    *
    * @param searchScrollSize Batch size
    * @return Class instance, i.e. 'this'
@@ -364,34 +717,307 @@ public class FactSearchManager implements LifecycleAspect {
     return this;
   }
 
-  private boolean indexExists() {
+  /**
+   * Specify how the results of a Fact search are fetched from ElasticSearch. Defaults to {@link PaginationMode#Scroll}.
+   * Searches with a cursor specified in the search criteria always use {@link PaginationMode#SearchAfter}.
+   *
+   * @param paginationMode Pagination mode
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setPaginationMode(PaginationMode paginationMode) {
+    this.paginationMode = ObjectUtils.ifNull(paginationMode, PaginationMode.Scroll);
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of buffered documents before the indexing buffer is flushed. Defaults to 1000.
+   *
+   * @param bulkActions Maximum number of buffered documents
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setBulkActions(int bulkActions) {
+    this.bulkActions = bulkActions;
+    return this;
+  }
+
+  /**
+   * Specify the maximum size of the indexing buffer in megabytes before it is flushed. Defaults to 5MB.
+   *
+   * @param bulkSizeInMegaBytes Maximum size of buffered documents
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setBulkSizeInMegaBytes(int bulkSizeInMegaBytes) {
+    this.bulkSizeInMegaBytes = bulkSizeInMegaBytes;
+    return this;
+  }
+
+  /**
+   * Specify the time interval after which the indexing buffer is flushed independent of its size. Defaults to 1 second.
+   * <p>
+   * Accepts an ElasticSearch time unit: https://www.elastic.co/guide/en/elasticsearch/reference/current/common-options.html#time-units
+   *
+   * @param bulkFlushInterval Flush interval of indexing buffer
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setBulkFlushInterval(String bulkFlushInterval) {
+    this.bulkFlushInterval = bulkFlushInterval;
+    return this;
+  }
+
+  /**
+   * Specify how Facts are distributed over indices. Defaults to {@link IndexPartitioning#None}, i.e. all Facts are
+   * stored in the single 'act' index.
+   * <p>
+   * With time-based partitioning every Fact is stored in the partition derived from its timestamp (e.g. 'act-2020.01.31'
+   * for daily partitions). All partitions are created from an index template based on 'mappings.json' which adds them
+   * to the 'act-read' alias. Searches are pruned to the partitions covered by the time range of the search criteria.
+   * The cluster must allow automatic creation of 'act-*' indices. Existing data of the single index can be moved into
+   * the partitions using {@link FactIndexMigrator}.
+   *
+   * @param indexPartitioning Index partitioning
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setIndexPartitioning(IndexPartitioning indexPartitioning) {
+    IndexPartitioning partitioning = ObjectUtils.ifNull(indexPartitioning, IndexPartitioning.None);
+    this.partitioner = partitioning != IndexPartitioning.None ? new FactIndexPartitioner(partitioning, Clock.systemUTC()) : null;
+    return this;
+  }
+
+  /**
+   * Specify the number of primary shards of each partition when using time-based partitioning. Defaults to the number
+   * of shards specified in 'mappings.json'.
+   *
+   * @param partitionShards Number of primary shards per partition
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setPartitionShards(int partitionShards) {
+    this.partitionShards = partitionShards;
+    return this;
+  }
+
+  private FactDocument getFactFromIndex(String index, UUID id) {
+    GetResponse response;
+
+    long start = System.nanoTime();
+    try {
+      GetRequest request = new GetRequest(index, id.toString());
+      response = clientFactory.getClient().get(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException ex) {
+      // A partition only exists after the first Fact has been indexed into it.
+      if (partitioner != null && ex.status() == RestStatus.NOT_FOUND) {
+        LOGGER.warning("Could not fetch Fact with id = %s. Partition '%s' does not exist.", id, index);
+        return null;
+      }
+      throw logAndExit(ex, String.format("Could not perform request to fetch Fact with id = %s.", id));
+    } catch (IOException ex) {
+      throw logAndExit(ex, String.format("Could not perform request to fetch Fact with id = %s.", id));
+    } finally {
+      getFactLatency.recordSince(start);
+    }
+
+    if (response.isExists()) {
+      LOGGER.info("Successfully fetched Fact with id = %s.", id);
+      return decodeFactDocument(id, response.getSourceAsBytes());
+    } else {
+      // Fact isn't indexed in ElasticSearch, log warning and return null.
+      LOGGER.warning("Could not fetch Fact with id = %s. Fact not indexed?", id);
+      return null;
+    }
+  }
+
+  private FactDocument getFactFromActivePartitions(UUID id) {
+    MultiGetResponse response;
+
+    long start = System.nanoTime();
+    try {
+      MultiGetRequest request = new MultiGetRequest();
+      for (String partition : partitioner.getActivePartitions()) {
+        request.add(partition, id.toString());
+      }
+      response = clientFactory.getClient().mget(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not perform request to fetch Fact with id = %s.", id));
+    } finally {
+      getFactLatency.recordSince(start);
+    }
+
+    // Items of partitions which don't exist yet are reported as failures, just skip those.
+    for (MultiGetItemResponse item : response.getResponses()) {
+      if (!item.isFailed() && item.getResponse().isExists()) {
+        LOGGER.info("Successfully fetched Fact with id = %s.", id);
+        return decodeFactDocument(id, item.getResponse().getSourceAsBytes());
+      }
+    }
+
+    return null;
+  }
+
+  private FactDocument getFactFromPartitions(UUID id) {
+    SearchResponse response;
     try {
-      GetIndexRequest request = new GetIndexRequest(INDEX_NAME);
+      SearchRequest request = createSearchRequest(FactIndexPartitioner.READ_ALIAS)
+              .source(new SearchSourceBuilder().size(1).query(idsQuery().addIds(id.toString())));
+      response = clientFactory.getClient().search(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not perform request to fetch Fact with id = %s.", id));
+    }
+
+    SearchHit[] hits = response.getHits().getHits();
+    if (hits.length > 0) {
+      LOGGER.info("Successfully fetched Fact with id = %s.", id);
+      return decodeFactDocument(id, toBytes(hits[0].getSourceRef()));
+    } else {
+      // Fact isn't indexed in ElasticSearch, log warning and return null.
+      LOGGER.warning("Could not fetch Fact with id = %s. Fact not indexed?", id);
+      return null;
+    }
+  }
+
+  private boolean indexExists(String index) {
+    try {
+      GetIndexRequest request = new GetIndexRequest(index);
       return clientFactory.getClient().indices().exists(request, RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, "Could not perform request to verify if index exists.");
     }
   }
 
-  private void createIndex() {
+  private void createIndex(String index, String source) {
     CreateIndexResponse response;
 
-    try (InputStream payload = FactSearchManager.class.getClassLoader().getResourceAsStream(MAPPINGS_JSON);
-         InputStreamReader reader = new InputStreamReader(payload)) {
-      CreateIndexRequest request = new CreateIndexRequest(INDEX_NAME)
-              .source(CharStreams.toString(reader), XContentType.JSON);
+    try {
+      CreateIndexRequest request = new CreateIndexRequest(index);
+      if (source != null) {
+        request.source(source, XContentType.JSON);
+      }
       response = clientFactory.getClient().indices().create(request, RequestOptions.DEFAULT);
     } catch (ElasticsearchException | IOException ex) {
       throw logAndExit(ex, "Could not perform request to create index.");
     }
 
     if (!response.isAcknowledged()) {
-      String msg = String.format("Could not create index '%s'.", INDEX_NAME);
+      String msg = String.format("Could not create index '%s'.", index);
       LOGGER.error(msg);
       throw new IllegalStateException(msg);
     }
 
-    LOGGER.info("Successfully created index '%s'.", INDEX_NAME);
+    LOGGER.info("Successfully created index '%s'.", index);
+  }
+
+  private void putIdMapping(String index) {
+    AcknowledgedResponse response;
+
+    try {
+      PutMappingRequest request = new PutMappingRequest(index)
+              .source(ID_MAPPING, XContentType.JSON);
+      response = clientFactory.getClient().indices().putMapping(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, "Could not perform request to put mapping.");
+    }
+
+    if (!response.isAcknowledged()) {
+      String msg = String.format("Could not put mapping of field '%s' into index '%s'.", SORT_ID_FIELD, index);
+      LOGGER.error(msg);
+      throw new IllegalStateException(msg);
+    }
+  }
+
+  private void putPartitionTemplate() {
+    AcknowledgedResponse response;
+
+    try {
+      PutIndexTemplateRequest request = new PutIndexTemplateRequest(FactIndexPartitioner.TEMPLATE_NAME)
+              .source(FactIndexPartitioner.createTemplateSource(readMappings(), partitionShards), XContentType.JSON);
+      response = clientFactory.getClient().indices().putTemplate(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, "Could not perform request to put index template.");
+    }
+
+    if (!response.isAcknowledged()) {
+      String msg = String.format("Could not put index template '%s'.", FactIndexPartitioner.TEMPLATE_NAME);
+      LOGGER.error(msg);
+      throw new IllegalStateException(msg);
+    }
+
+    LOGGER.info("Successfully put index template '%s'.", FactIndexPartitioner.TEMPLATE_NAME);
+  }
+
+  private String readMappingsOrFail() {
+    try {
+      return readMappings();
+    } catch (IOException ex) {
+      throw logAndExit(ex, String.format("Could not read '%s'.", MAPPINGS_JSON));
+    }
+  }
+
+  static String readMappings() throws IOException {
+    try (InputStream payload = FactSearchManager.class.getClassLoader().getResourceAsStream(MAPPINGS_JSON);
+         InputStreamReader reader = new InputStreamReader(payload)) {
+      return CharStreams.toString(reader);
+    }
+  }
+
+  private String getWriteIndex(FactDocument fact) {
+    return partitioner != null ? partitioner.getPartition(fact.getTimestamp()) : INDEX_NAME;
+  }
+
+  private String getReadIndex() {
+    return partitioner != null ? FactIndexPartitioner.READ_ALIAS : INDEX_NAME;
+  }
+
+  private String[] getSearchIndices(FactSearchCriteria criteria) {
+    return partitioner != null ? partitioner.getSearchIndices(criteria) : new String[]{INDEX_NAME};
+  }
+
+  private SearchRequest createSearchRequest(String... indices) {
+    SearchRequest request = new SearchRequest(indices);
+    if (partitioner != null) {
+      // Ignore partitions which don't exist, e.g. for periods without any Facts.
+      request.indicesOptions(IndicesOptions.lenientExpandOpen());
+    }
+    return request;
+  }
+
+  private BulkProcessor createBulkProcessor() {
+    return BulkProcessor.builder((request, listener) -> clientFactory.getClient().bulkAsync(request, RequestOptions.DEFAULT, listener),
+            new BulkIndexingListener())
+            .setBulkActions(bulkActions)
+            .setBulkSize(new ByteSizeValue(bulkSizeInMegaBytes, ByteSizeUnit.MB))
+            .setFlushInterval(TimeValue.parseTimeValue(bulkFlushInterval, "bulkFlushInterval"))
+            .setBackoffPolicy(BULK_BACKOFF_POLICY)
+            .build();
+  }
+
+  private IndexRequest createIndexRequest(FactDocument fact) throws IOException {
+    return new IndexRequest(getWriteIndex(fact))
+            .id(fact.getId().toString())
+            .source(FACT_DOCUMENT_WRITER.writeValueAsBytes(fact), XContentType.JSON);
+  }
+
+  private BulkResponse executeBulkRequest(Collection<FactDocument> facts) {
+    long start = System.nanoTime();
+    try {
+      BulkRequest request = new BulkRequest()
+              .setRefreshPolicy(isTestEnvironment ? WriteRequest.RefreshPolicy.IMMEDIATE : WriteRequest.RefreshPolicy.NONE);
+      for (FactDocument fact : facts) {
+        request.add(createIndexRequest(fact));
+      }
+      return clientFactory.getClient().bulk(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not perform request to index %d Facts in bulk.", facts.size()));
+    } finally {
+      indexFactsLatency.recordSince(start);
+    }
+  }
+
+  private boolean awaitBackoff(TimeValue delay) {
+    try {
+      Thread.sleep(delay.millis());
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   private ScrollingSearchResult.ScrollingBatch<FactDocument> fetchNextFactsBatch(String scrollId) {
@@ -429,6 +1055,109 @@ public class FactSearchManager implements LifecycleAspect {
     return new ScrollingSearchResult.ScrollingBatch<>(response.getScrollId(), values.iterator(), finished);
   }
 
+  private ScrollingSearchResult<FactDocument> searchFactsAfter(FactSearchCriteria criteria) {
+    SearchResponse response = searchFactsPage(criteria, criteria.getSearchAfter(), true);
+    if (response == null) return ScrollingSearchResult.<FactDocument>builder().build();
+
+    LOGGER.info("Successfully fetched first page of search results. Start paginating using search_after.");
+    return ScrollingSearchResult.<FactDocument>builder()
+            .setInitialBatch(createFactsPage(response))
+            .setFetchNextBatch(token -> fetchNextFactsPage(criteria, token))
+            .setCount((int) response.getHits().getTotalHits().value)
+            .setSorted(true)
+            .build();
+  }
+
+  private ScrollingSearchResult.ScrollingBatch<FactDocument> fetchNextFactsPage(FactSearchCriteria criteria, String token) {
+    SearchResponse response = searchFactsPage(criteria, FactSearchCursor.decode(token), false);
+    if (response == null) return ScrollingSearchResult.emptyBatch();
+
+    return createFactsPage(response);
+  }
+
+  private SearchResponse searchFactsPage(FactSearchCriteria criteria, FactSearchCursor cursor, boolean firstPage) {
+    SearchResponse response;
+    try {
+      response = clientFactory.getClient().search(buildFactsSearchAfterRequest(criteria, cursor, firstPage), RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      // Only fail on the first page. Afterwards, the client has already received results, thus, just stop paginating.
+      if (firstPage) throw logAndExit(ex, "Could not perform request to search for Facts.");
+      LOGGER.warning(ex, "Could not perform request to retrieve next page of search results. Stop paginating.");
+      return null;
+    }
+
+    if (response.status() != RestStatus.OK) {
+      LOGGER.warning("Could not retrieve page of search results (response code %s). Stop paginating.", response.status());
+      return null;
+    }
+
+    return response;
+  }
+
+  private ScrollingSearchResult.ScrollingBatch<FactDocument> createFactsPage(SearchResponse response) {
+    SearchHit[] hits = response.getHits().getHits();
+    if (hits.length == 0) {
+      LOGGER.info("Successfully retrieved all search results. No more data available.");
+      return ScrollingSearchResult.emptyBatch();
+    }
+
+    List<FactDocument> values = retrieveFactDocuments(response);
+    LOGGER.debug("Successfully retrieved next page of search results (page: %d).", values.size());
+
+    // Decide on the number of hits, not on the number of decoded documents, which might be smaller.
+    boolean finished = hits.length < searchScrollSize;
+    if (finished) {
+      LOGGER.info("Successfully retrieved all search results. No more data available.");
+    }
+
+    // The cursor of the next page points to the last hit of this page. There's no search context to clean up.
+    SearchHit lastHit = hits[hits.length - 1];
+    FactSearchCursor cursor = createCursor(lastHit);
+    if (cursor == null) {
+      // Such documents are sorted last, thus, resuming after them would return the same documents again.
+      LOGGER.warning("Document %s does not contain field '%s'. Stop paginating.", lastHit.getId(), SORT_ID_FIELD);
+      return new ScrollingSearchResult.ScrollingBatch<>(lastHit.getId(), values.iterator(), true);
+    }
+
+    return new ScrollingSearchResult.ScrollingBatch<>(cursor.encode(), values.iterator(), finished);
+  }
+
+  private FactSearchCursor createCursor(SearchHit hit) {
+    // Sort values are returned in the same order as specified in buildFactsSearchAfterRequest().
+    Object[] sortValues = hit.getSortValues();
+    // Documents indexed before the 'id' field was added don't have a value for it.
+    if (sortValues.length < 2 || sortValues[1] == null) return null;
+    return FactSearchCursor.of(((Number) sortValues[0]).longValue(), UUID.fromString(String.valueOf(sortValues[1])));
+  }
+
+  private boolean isSortIdBackfilled() {
+    if (sortIdBackfilled) return true;
+    // Don't count missing ids on every search, but re-check regularly until the backfill has completed.
+    long now = System.currentTimeMillis();
+    if (sortIdCheckedAt > 0 && now - sortIdCheckedAt < SORT_ID_CHECK_INTERVAL_MS) return false;
+    sortIdCheckedAt = now;
+
+    long missing;
+    try {
+      CountRequest request = new CountRequest(getReadIndex())
+              .query(boolQuery().mustNot(existsQuery(SORT_ID_FIELD)));
+      missing = clientFactory.getClient().count(request, RequestOptions.DEFAULT).getCount();
+    } catch (ElasticsearchException | IOException ex) {
+      LOGGER.warning(ex, "Could not count documents without field '%s'.", SORT_ID_FIELD);
+      return false;
+    }
+
+    if (missing > 0) {
+      LOGGER.warning("%d documents do not contain field '%s', sorted pagination is disabled. Execute FactIndexMigrator in mode 'BackfillIds'.",
+              missing, SORT_ID_FIELD);
+      return false;
+    }
+
+    LOGGER.info("All documents contain field '%s', sorted pagination is enabled.", SORT_ID_FIELD);
+    sortIdBackfilled = true;
+    return true;
+  }
+
   private void closeSearchContext(String scrollId) {
     ClearScrollRequest request = new ClearScrollRequest();
     request.addScrollId(scrollId);
@@ -455,27 +1184,45 @@ public class FactSearchManager implements LifecycleAspect {
     SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
             .size(MAX_RESULT_WINDOW) // Always return all matching documents, but usually this should be zero or one.
             .query(buildFactExistenceQuery(criteria));
-    return new SearchRequest()
-            .indices(INDEX_NAME)
+    return createSearchRequest(getReadIndex())
             .source(sourceBuilder);
   }
 
-  private SearchRequest buildFactsSearchRequest(FactSearchCriteria criteria) {
+  // Package-private in order to be able to benchmark query building.
+  SearchRequest buildFactsSearchRequest(FactSearchCriteria criteria) {
     SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
             .size(searchScrollSize)
             .query(buildFactsQuery(criteria));
-    return new SearchRequest()
-            .indices(INDEX_NAME)
+    return createSearchRequest(getSearchIndices(criteria))
             .scroll(searchScrollExpiration)
             .source(sourceBuilder);
   }
 
+  private SearchRequest buildFactsSearchAfterRequest(FactSearchCriteria criteria, FactSearchCursor cursor, boolean firstPage) {
+    SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
+            .size(searchScrollSize)
+            .query(buildFactsQuery(criteria))
+            // Sort ascending such that Facts indexed while paginating will be returned on later pages.
+            .sort(SORT_TIMESTAMP_FIELD, SortOrder.ASC)
+            // Don't fail on indices created before the 'id' field was added to the mappings.
+            .sort(SortBuilders.fieldSort(SORT_ID_FIELD).order(SortOrder.ASC).unmappedType("keyword"));
+    if (!firstPage) {
+      // The total number of hits is only returned with the first page, don't calculate it again afterwards.
+      sourceBuilder.trackTotalHits(false);
+    }
+    if (cursor != null && !cursor.isStart()) {
+      sourceBuilder.searchAfter(new Object[]{cursor.getTimestamp(), cursor.getFactID().toString()});
+    }
+
+    return createSearchRequest(getSearchIndices(criteria))
+            .source(sourceBuilder);
+  }
+
   private SearchRequest buildObjectsSearchRequest(FactSearchCriteria criteria) {
     SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
             .size(0) // Not interested in the search hits as the search result is part of the returned aggregations.
             .aggregation(buildObjectsAggregation(criteria));
-    return new SearchRequest()
-            .indices(INDEX_NAME)
+    return createSearchRequest(getSearchIndices(criteria))
             .source(sourceBuilder);
   }
 
@@ -483,8 +1230,7 @@ public class FactSearchManager implements LifecycleAspect {
     SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
             .size(0) // Not interested in the search hits as the search result is part of the returned aggregations.
             .aggregation(buildObjectStatisticsAggregation(criteria));
-    return new SearchRequest()
-            .indices(INDEX_NAME)
+    return createSearchRequest(getReadIndex())
             .source(sourceBuilder);
   }
 
@@ -932,9 +1678,71 @@ public class FactSearchManager implements LifecycleAspect {
     return SetUtils.set(collection, Object::toString);
   }
 
+  private void logIndexResponse(FactDocument fact, IndexResponse response) {
+    if (response.status() != RestStatus.OK && response.status() != RestStatus.CREATED) {
+      LOGGER.warning("Could not index Fact with id = %s.", fact.getId());
+    } else if (response.getResult() == DocWriteResponse.Result.CREATED) {
+      LOGGER.info("Successfully indexed Fact with id = %s.", fact.getId());
+    } else if (response.getResult() == DocWriteResponse.Result.UPDATED) {
+      LOGGER.info("Successfully re-indexed existing Fact with id = %s.", fact.getId());
+    }
+  }
+
+  private LatencyHistogram latency(String operation) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    latencies.put(operation, histogram);
+    return histogram;
+  }
+
   private RuntimeException logAndExit(Exception ex, String msg) {
     LOGGER.error(ex, msg);
     return new IllegalStateException(msg, ex);
   }
 
+  private void notifyBufferedIndexFailure(String id) {
+    bufferedIndexFailures.increment();
+    UUID factID;
+    try {
+      factID = UUID.fromString(id);
+    } catch (IllegalArgumentException ex) {
+      LOGGER.warning(ex, "Could not parse id of buffered Fact: %s", id);
+      return;
+    }
+
+    for (Consumer<UUID> listener : bufferedIndexFailureListeners) {
+      try {
+        listener.accept(factID);
+      } catch (RuntimeException ex) {
+        LOGGER.warning(ex, "Could not notify listener about failed indexing of Fact with id = %s.", factID);
+      }
+    }
+  }
+
+  private class BulkIndexingListener implements BulkProcessor.Listener {
+    @Override
+    public void beforeBulk(long executionId, BulkRequest request) {
+      LOGGER.debug("Flushing %d buffered Facts (execution %d).", request.numberOfActions(), executionId);
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+      int failed = 0;
+      for (BulkItemResponse item : response.getItems()) {
+        if (!item.isFailed()) continue;
+        // Report each failed document individually. Rejected items have already been retried by the BulkProcessor.
+        LOGGER.warning("Could not index buffered Fact with id = %s (%s).", item.getId(), item.getFailureMessage());
+        notifyBufferedIndexFailure(item.getId());
+        failed++;
+      }
+
+      LOGGER.info("Successfully indexed %d of %d buffered Facts (execution %d).", request.numberOfActions() - failed,
+              request.numberOfActions(), executionId);
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+      LOGGER.error(failure, "Could not index %d buffered Facts (execution %d).", request.numberOfActions(), executionId);
+      request.requests().forEach(item -> notifyBufferedIndexFailure(item.id()));
+    }
+  }
 }
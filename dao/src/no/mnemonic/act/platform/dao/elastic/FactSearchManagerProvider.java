@@ -0,0 +1,44 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+/**
+ * Provider class for instantiating a configured {@link FactSearchManager}.
+ */
+public class FactSearchManagerProvider implements Provider<FactSearchManager> {
+
+  @Inject
+  private ClientFactory clientFactory;
+  @Inject
+  @Named("act.elasticsearch.search.pagination.mode")
+  private String paginationMode;
+  @Inject
+  @Named("act.elasticsearch.index.partitioning")
+  private String indexPartitioning;
+  @Inject
+  @Named("act.elasticsearch.index.partition.shards")
+  private String partitionShards;
+  @Inject
+  @Named("act.elasticsearch.bulk.actions")
+  private String bulkActions;
+  @Inject
+  @Named("act.elasticsearch.bulk.size.mb")
+  private String bulkSizeInMegaBytes;
+  @Inject
+  @Named("act.elasticsearch.bulk.flush.interval")
+  private String bulkFlushInterval;
+
+  @Override
+  public FactSearchManager get() {
+    return new FactSearchManager(clientFactory)
+            .setPaginationMode(FactSearchManager.PaginationMode.valueOf(paginationMode))
+            .setIndexPartitioning(FactSearchManager.IndexPartitioning.valueOf(indexPartitioning))
+            .setPartitionShards(Integer.parseInt(partitionShards))
+            .setBulkActions(Integer.parseInt(bulkActions))
+            .setBulkSizeInMegaBytes(Integer.parseInt(bulkSizeInMegaBytes))
+            .setBulkFlushInterval(bulkFlushInterval);
+  }
+
+}
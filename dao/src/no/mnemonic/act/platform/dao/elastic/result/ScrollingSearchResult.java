@@ -17,13 +17,15 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
 
   private final Function<String, ScrollingBatch<T>> fetchNextBatch;
   private final int count;
+  private final boolean sorted;
 
   private ScrollingBatch<T> currentBatch;
 
-  private ScrollingSearchResult(ScrollingBatch<T> initialBatch, Function<String, ScrollingBatch<T>> fetchNextBatch, int count) {
+  private ScrollingSearchResult(ScrollingBatch<T> initialBatch, Function<String, ScrollingBatch<T>> fetchNextBatch, int count, boolean sorted) {
     this.currentBatch = ObjectUtils.notNull(initialBatch, "'initialBatch' cannot be null!");
     this.fetchNextBatch = ObjectUtils.notNull(fetchNextBatch, "'fetchNextBatch' cannot be null!");
     this.count = count;
+    this.sorted = sorted;
   }
 
   @Override
@@ -50,6 +52,16 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
     return count;
   }
 
+  /**
+   * Returns true if the search results are sorted by timestamp and id, i.e. the search can be resumed after any
+   * returned document using a {@link no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor}.
+   *
+   * @return True if the search results are sorted
+   */
+  public boolean isSorted() {
+    return sorted;
+  }
+
   /**
    * Returns an empty batch of results which is marked as finished.
    *
@@ -79,6 +91,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
     private ScrollingBatch<T> initialBatch = emptyBatch();
     private Function<String, ScrollingBatch<T>> fetchNextBatch = scrollId -> emptyBatch();
     private int count;
+    private boolean sorted;
 
     private Builder() {
     }
@@ -89,7 +102,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
      * @return New ScrollingSearchResult
      */
     public ScrollingSearchResult<T> build() {
-      return new ScrollingSearchResult<>(initialBatch, fetchNextBatch, count);
+      return new ScrollingSearchResult<>(initialBatch, fetchNextBatch, count, sorted);
     }
 
     /**
@@ -106,7 +119,8 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
     /**
      * Sets function to fetch next batch of search results.
      * <p>
-     * It takes an ElasticSearch scroll ID as input and should return the next batch of search results.
+     * It takes an ElasticSearch scroll ID (or an encoded cursor when paginating using search_after) as input and
+     * should return the next batch of search results.
      *
      * @param fetchNextBatch Function to fetch next batch of search results
      * @return This builder
@@ -126,6 +140,17 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
       this.count = count;
       return this;
     }
+
+    /**
+     * Sets whether the search results are sorted by timestamp and id (when paginating using search_after).
+     *
+     * @param sorted Whether the search results are sorted
+     * @return This builder
+     */
+    public Builder<T> setSorted(boolean sorted) {
+      this.sorted = sorted;
+      return this;
+    }
   }
 
   /**
@@ -141,7 +166,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
     /**
      * Creates a new batch of search results.
      *
-     * @param scrollId Scroll ID returned from ElasticSearch
+     * @param scrollId Scroll ID returned from ElasticSearch (or an encoded cursor when paginating using search_after)
      * @param values   Search results from current batch
      * @param finished Whether more data is available in ElasticSearch
      */
@@ -11,8 +11,12 @@ import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectStatisticsManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectStatisticsRecalculator;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.elastic.criteria.FactExistenceSearchCriteria;
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
 import no.mnemonic.act.platform.dao.elastic.document.ObjectDocument;
 import no.mnemonic.act.platform.dao.elastic.result.ScrollingSearchResult;
@@ -22,40 +26,101 @@ import no.mnemonic.act.platform.dao.facade.converters.FactCommentRecordConverter
 import no.mnemonic.act.platform.dao.facade.converters.FactRecordConverter;
 import no.mnemonic.act.platform.dao.facade.converters.ObjectRecordConverter;
 import no.mnemonic.act.platform.dao.facade.utilities.BatchingIterator;
+import no.mnemonic.act.platform.dao.facade.utilities.ConcurrencyLimiter;
+import no.mnemonic.act.platform.dao.facade.utilities.FactRepairQueue;
 import no.mnemonic.act.platform.dao.facade.utilities.MappingIterator;
+import no.mnemonic.act.platform.dao.facade.utilities.StageLatencyRecorder;
+import no.mnemonic.commons.component.Dependency;
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.metrics.MetricsGroup;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
-import java.util.Iterator;
-import java.util.Set;
-import java.util.UUID;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-public class ObjectFactDaoFacade implements ObjectFactDao {
+@Singleton
+public class ObjectFactDaoFacade implements ObjectFactDao, LifecycleAspect, MetricAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(ObjectFactDaoFacade.class);
+
+  // Stages of storing a new Fact, see storeFactAsync().
+  static final String STAGE_FACT = "fact";
+  static final String STAGE_RELATIONS = "relations";
+  static final String STAGE_EXISTENCE = "existence";
+  static final String STAGE_INDEX = "index";
+  static final String STAGE_STATISTICS = "statistics";
+  static final String STAGE_TOTAL = "total";
+  // Indexing all Facts of a batch at once, see storeFacts().
+  static final String STAGE_BULK_INDEX = "bulkIndex";
+  // Maximum number of Facts stored or looked up concurrently by the batch operations.
+  static final int MAX_CONCURRENT_REQUESTS = 64;
+  // Configuration of the repair of partially stored Facts, see FactRepairQueue.
+  private static final int REPAIR_MAX_PENDING = 100_000;
+  private static final int REPAIR_MAX_ATTEMPTS = 10;
+  private static final long REPAIR_INTERVAL_MS = 30_000;
 
   private final ObjectManager objectManager;
+  @Dependency
   private final FactManager factManager;
+  @Dependency
   private final FactSearchManager factSearchManager;
+  private final ObjectStatisticsManager objectStatisticsManager;
   private final ObjectRecordConverter objectRecordConverter;
   private final FactRecordConverter factRecordConverter;
   private final FactAclEntryRecordConverter factAclEntryRecordConverter;
   private final FactCommentRecordConverter factCommentRecordConverter;
+  private final boolean factExistenceSearchFallback;
+  private final StageLatencyRecorder storeFactLatency = new StageLatencyRecorder();
+  // Shared between all batch operations such that concurrent batches don't overload Cassandra.
+  private final ConcurrencyLimiter batchRequests = new ConcurrencyLimiter(MAX_CONCURRENT_REQUESTS);
+  private final FactRepairQueue factRepairQueue = new FactRepairQueue(REPAIR_MAX_PENDING, REPAIR_MAX_ATTEMPTS, REPAIR_INTERVAL_MS);
 
   @Inject
   public ObjectFactDaoFacade(ObjectManager objectManager,
                              FactManager factManager,
                              FactSearchManager factSearchManager,
+                             ObjectStatisticsManager objectStatisticsManager,
                              ObjectRecordConverter objectRecordConverter,
                              FactRecordConverter factRecordConverter,
                              FactAclEntryRecordConverter factAclEntryRecordConverter,
-                             FactCommentRecordConverter factCommentRecordConverter) {
+                             FactCommentRecordConverter factCommentRecordConverter,
+                             @Named("act.fact.existence.search.fallback.enabled") boolean factExistenceSearchFallback) {
     this.objectManager = objectManager;
     this.factManager = factManager;
     this.factSearchManager = factSearchManager;
+    this.objectStatisticsManager = objectStatisticsManager;
     this.objectRecordConverter = objectRecordConverter;
     this.factRecordConverter = factRecordConverter;
     this.factAclEntryRecordConverter = factAclEntryRecordConverter;
     this.factCommentRecordConverter = factCommentRecordConverter;
+    this.factExistenceSearchFallback = factExistenceSearchFallback;
+
+    // Refreshed and retracted Facts are indexed asynchronously, queue the reindexing of those which couldn't be indexed.
+    this.factSearchManager.addBufferedIndexFailureListener(this::queueReindex);
+  }
+
+  @Override
+  public void startComponent() {
+    factRepairQueue.startComponent();
+  }
+
+  @Override
+  public void stopComponent() {
+    factRepairQueue.stopComponent();
   }
 
   @Override
@@ -80,13 +145,51 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     }
 
     objectManager.saveObject(objectRecordConverter.toEntity(record));
+    // A new Object doesn't have any Facts yet, thus, its statistics are complete from now on.
+    objectStatisticsManager.markMaterializedAsync(record.getId())
+            .whenComplete((ignored, ex) -> {
+              if (ex != null) LOGGER.warning(ex, "Could not mark statistics of Object with id = %s as materialized.", record.getId());
+            });
     return record;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Statistics are read from the materialized statistics in Cassandra, see {@link ObjectStatisticsManager}. For Objects
+   * without materialized statistics (e.g. Objects created before the statistics were introduced) the statistics are
+   * calculated by ElasticSearch instead.
+   */
   @Override
   public ObjectStatisticsContainer calculateObjectStatistics(ObjectStatisticsCriteria criteria) {
-    // Just delegate it to FactSearchManager, nothing else needs to be done.
-    return factSearchManager.calculateObjectStatistics(criteria);
+    if (criteria == null) return factSearchManager.calculateObjectStatistics(null);
+
+    Map<UUID, Collection<ObjectStatisticsContainer.FactStatistic>> materialized;
+    try {
+      materialized = objectStatisticsManager.calculateObjectStatistics(criteria);
+    } catch (RuntimeException ex) {
+      LOGGER.warning(ex, "Could not read materialized Object statistics, calculating them with ElasticSearch.");
+      materialized = new HashMap<>();
+    }
+
+    // Just delegate it to FactSearchManager if no statistics have been materialized.
+    if (materialized.isEmpty()) return factSearchManager.calculateObjectStatistics(criteria);
+
+    ObjectStatisticsContainer.Builder builder = ObjectStatisticsContainer.builder();
+    materialized.forEach((objectID, statistics) -> statistics.forEach(statistic -> builder.addStatistic(objectID, statistic)));
+
+    Set<UUID> missingObjectID = SetUtils.set(criteria.getObjectID());
+    missingObjectID.removeAll(materialized.keySet());
+    if (!missingObjectID.isEmpty()) {
+      ObjectStatisticsContainer calculated = factSearchManager.calculateObjectStatistics(ObjectStatisticsCriteria.builder()
+              .setObjectID(missingObjectID)
+              .setCurrentUserID(criteria.getCurrentUserID())
+              .setAvailableOrganizationID(criteria.getAvailableOrganizationID())
+              .build());
+      missingObjectID.forEach(objectID -> calculated.getStatistics(objectID).forEach(statistic -> builder.addStatistic(objectID, statistic)));
+    }
+
+    return builder.build();
   }
 
   @Override
@@ -117,29 +220,148 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     return factRecordConverter.fromEntity(factManager.getFact(id));
   }
 
+  @Override
+  public List<FactRecord> getFacts(List<UUID> id) {
+    if (CollectionUtils.isEmpty(id)) return ListUtils.list();
+    // Fetch all Facts with one multi-fetch and convert them including their related entities as one batch.
+    return ListUtils.list(factRecordConverter.fromEntities(factManager.getFacts(id)));
+  }
+
   @Override
   public FactRecord storeFact(FactRecord record) {
     if (record == null) return null;
 
-    // Ensure that id is set.
-    if (record.getId() == null) {
-      record.setId(UUID.randomUUID());
+    try {
+      return storeFactAsync(record).toCompletableFuture().join();
+    } catch (CompletionException ex) {
+      // Rethrow the original exception in order to be transparent to synchronous callers.
+      throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
     }
+  }
 
-    // Save new Fact and lookup tables in Cassandra.
-    FactEntity entity = factRecordConverter.toEntity(record);
-    factManager.saveFact(entity);
-    saveFactObjectBindings(entity);
-    saveMetaFactBindings(entity);
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The Fact is stored in three stages. First, the Fact itself is written to Cassandra. Second, the bindings to Objects
+   * and to the referenced Fact, the ACL entries and the comments are written concurrently, followed by the lookup entry
+   * used by {@link #retrieveExistingFacts(FactRecord)}. Third, the Fact is indexed into ElasticSearch. A stage only
+   * starts after the previous stage has completed successfully. Finally, the statistics of the bound Objects are
+   * updated. A failure to update the statistics doesn't fail the returned stage, instead the affected Objects fall back
+   * to statistics calculated by ElasticSearch.
+   * <p>
+   * If any write of the second stage fails, the remaining writes are still awaited, the Fact isn't indexed and the
+   * returned stage completes exceptionally with one of the failures. Nothing is rolled back because all written rows
+   * are immutable. Instead, the caller must retry storing the same record, i.e. with the same Fact id. If the Fact has
+   * been saved by a previous attempt the retry resumes it: the missing relations are written, relations written before
+   * are skipped, and the remaining stages are performed. Retrying with a new Fact id would create a duplicate Fact
+   * because the partially stored Fact isn't returned from any search. A failure to write the lookup entry is only
+   * logged, in this case the Fact will be found by the fallback search in ElasticSearch. The latency of each stage is
+   * recorded in {@link #getStoreFactLatency()}.
+   */
+  @Override
+  public CompletionStage<FactRecord> storeFactAsync(FactRecord record) {
+    if (record == null) return CompletableFuture.completedFuture(null);
+
+    PendingFact fact = prepareFact(record);
+    long start = System.nanoTime();
+    return saveFactAndRelationsAsync(fact)
+            .thenCompose(ignored -> timed(STAGE_INDEX, () -> factSearchManager.indexFactAsync(fact.document)))
+            .thenCompose(ignored -> updateObjectStatisticsAsync(fact))
+            .whenComplete((ignored, ex) -> {
+              storeFactLatency.record(STAGE_TOTAL, System.nanoTime() - start);
+              if (ex != null) LOGGER.warning(ex, "Could not store Fact with id = %s.", record.getId());
+            })
+            .thenApply(ignored -> record);
+  }
 
-    // Save all ACL entries and comments in Cassandra.
-    saveAclEntries(record);
-    saveComments(record);
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The Facts are stored in the same stages as in {@link #storeFactAsync(FactRecord)}, but the first two stages of all
+   * Facts are performed concurrently and the call blocks until they have completed. At most
+   * {@link #MAX_CONCURRENT_REQUESTS} Facts are written concurrently, also across concurrent calls. Afterwards, all
+   * Facts which were written successfully are indexed into ElasticSearch with one bulk request. The latency of the
+   * bulk request is recorded as a separate stage.
+   * <p>
+   * A Fact which is written to Cassandra but can't be indexed is still stored, thus, its stage completes successfully.
+   * The Fact is queued for reindexing instead, see {@link #getFactRepairQueue()}. A Fact whose relations can't be
+   * written is reported as failed and must be retried by the caller in the same way as in
+   * {@link #storeFactAsync(FactRecord)}.
+   */
+  @Override
+  public List<CompletionStage<FactRecord>> storeFacts(List<FactRecord> records) {
+    if (CollectionUtils.isEmpty(records)) return ListUtils.list();
+
+    // Write all Facts and their relations to Cassandra concurrently and wait until all writes have completed.
+    // Blocks before starting the next write while too many writes are in flight.
+    List<PendingFact> facts = new ArrayList<>(records.size());
+    List<CompletableFuture<Void>> writes = new ArrayList<>(records.size());
+    for (FactRecord record : records) {
+      PendingFact fact = record != null ? prepareFact(record) : null;
+      facts.add(fact);
+      writes.add(fact != null ? batchRequests.execute(() -> saveFactAndRelationsAsync(fact)) : CompletableFuture.completedFuture(null));
+    }
+    CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
 
-    // Index new Fact in ElasticSearch.
-    factSearchManager.indexFact(factRecordConverter.toDocument(record));
+    // Index all Facts which have been written successfully with one bulk request.
+    List<FactDocument> documents = new ArrayList<>(facts.size());
+    for (int i = 0; i < facts.size(); i++) {
+      if (facts.get(i) != null && !writes.get(i).isCompletedExceptionally()) documents.add(facts.get(i).document);
+    }
+    Set<UUID> indexed = indexFacts(documents);
+
+    List<CompletionStage<FactRecord>> result = new ArrayList<>(facts.size());
+    for (int i = 0; i < facts.size(); i++) {
+      PendingFact fact = facts.get(i);
+      if (fact == null) {
+        result.add(CompletableFuture.completedFuture(null));
+      } else if (writes.get(i).isCompletedExceptionally()) {
+        result.add(writes.get(i).thenApply(ignored -> fact.record));
+      } else {
+        if (!indexed.contains(fact.record.getId())) {
+          // Cassandra is the authoritative data store, thus, the Fact is stored and only needs to be indexed again.
+          queueReindex(fact.record.getId());
+        }
+        result.add(updateObjectStatisticsAsync(fact).thenApply(ignored -> fact.record));
+      }
+    }
 
-    return record;
+    return result;
+  }
+
+  /**
+   * Returns the latency statistics of storing Facts, broken down by the stages of {@link #storeFactAsync(FactRecord)}.
+   *
+   * @return Latency statistics per stage
+   */
+  public Map<String, StageLatencyRecorder.StageStatistics> getStoreFactLatency() {
+    return storeFactLatency.getStatistics();
+  }
+
+  /**
+   * Returns the queue of Facts which have been stored in Cassandra but still need to be indexed into ElasticSearch.
+   *
+   * @return Queue of Facts to reindex
+   */
+  public FactRepairQueue getFactRepairQueue() {
+    return factRepairQueue;
+  }
+
+  /**
+   * Recalculate the materialized statistics of an Object from all Facts bound to it, see
+   * {@link ObjectStatisticsRecalculator#recalculate(UUID)}.
+   *
+   * @param objectID UUID of Object
+   */
+  public void recalculateObjectStatistics(UUID objectID) {
+    new ObjectStatisticsRecalculator(objectManager, factManager, objectStatisticsManager).recalculate(objectID);
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return new MetricsGroup()
+            .addSubMetrics("storeFact", storeFactLatency.getMetrics())
+            .addSubMetrics("repairFact", factRepairQueue.getMetrics());
   }
 
   @Override
@@ -149,11 +371,22 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     factManager.refreshFact(record.getId());
 
     // Save new ACL entries and comments in Cassandra.
-    saveAclEntries(record);
+    Set<UUID> newAclSubjects = saveAclEntries(record);
     saveComments(record);
 
-    // After everything is saved reindex Fact in ElasticSearch.
-    return reindexFact(record.getId());
+    // After everything is saved reindex Fact in ElasticSearch. Cassandra is the authoritative data store and the
+    // returned record is fetched from there, thus, it's not required to wait for ElasticSearch.
+    FactRecord refreshed = reindexFact(record.getId(), FactSearchManager.IndexMode.Asynchronous);
+
+    // Update the statistics with the new lastSeenTimestamp, also for subjects which have been granted access.
+    if (refreshed != null) {
+      FactEntity entity = factRecordConverter.toEntity(refreshed);
+      Set<UUID> aclSubjects = SetUtils.set(ListUtils.list(refreshed.getAcl()), FactAclEntryRecord::getSubjectID);
+      updateObjectStatisticsAsync(entity, () -> objectStatisticsManager.addFactAclSubjectsAsync(entity, newAclSubjects)
+              .thenCompose(ignored -> objectStatisticsManager.refreshFactAsync(entity, aclSubjects)));
+    }
+
+    return refreshed;
   }
 
   @Override
@@ -163,23 +396,114 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     factManager.retractFact(record.getId());
 
     // Save new ACL entries and comments in Cassandra.
-    saveAclEntries(record);
+    Set<UUID> newAclSubjects = saveAclEntries(record);
     saveComments(record);
 
-    // After everything is saved reindex Fact in ElasticSearch.
-    return reindexFact(record.getId());
+    // After everything is saved reindex Fact in ElasticSearch. Cassandra is the authoritative data store and the
+    // returned record is fetched from there, thus, it's not required to wait for ElasticSearch.
+    FactRecord retracted = reindexFact(record.getId(), FactSearchManager.IndexMode.Asynchronous);
+
+    // Retracted Facts are still included in the statistics, only subjects which have been granted access are added.
+    if (retracted != null) {
+      FactEntity entity = factRecordConverter.toEntity(retracted);
+      updateObjectStatisticsAsync(entity, () -> objectStatisticsManager.addFactAclSubjectsAsync(entity, newAclSubjects));
+    }
+
+    return retracted;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Existing Facts are looked up by their content in Cassandra, see
+   * {@link FactManager#fetchExistingFactIDsAsync(FactEntity)}. In contrast to searching ElasticSearch the lookup finds
+   * Facts immediately after they have been stored and doesn't depend on when the index is refreshed. ElasticSearch is
+   * only searched if the lookup doesn't find any Fact because Facts stored before the lookup table was introduced are
+   * missing from it. Facts found by this search are added to the lookup table, thus, the next lookup for the same Fact
+   * finds them directly. After all existing Facts have been added to the lookup table (see
+   * {@link no.mnemonic.act.platform.dao.cassandra.FactExistenceMigrator}) the search can be disabled with
+   * 'act.fact.existence.search.fallback.enabled', then a miss of the lookup means that no Fact exists.
+   */
   @Override
   public ResultContainer<FactRecord> retrieveExistingFacts(FactRecord record) {
-    // Search for existing Facts in ElasticSearch.
+    FactEntity entity = factRecordConverter.toEntity(record);
+    List<UUID> existingID = fetchExistingFactIDsAsync(entity).join();
+    if (!existingID.isEmpty()) {
+      List<FactRecord> existing = getFacts(existingID);
+      return ResultContainer.<FactRecord>builder()
+              .setCount(existing.size())
+              .setValues(existing.iterator())
+              .build();
+    }
+
+    // Fall back to searching for existing Facts in ElasticSearch.
+    if (!factExistenceSearchFallback) return ResultContainer.<FactRecord>builder().build();
     SearchResult<FactDocument> searchResult = factSearchManager.retrieveExistingFacts(factRecordConverter.toCriteria(record));
     if (searchResult.getCount() <= 0) {
       // Return immediately if the search didn't yield any results.
       return ResultContainer.<FactRecord>builder().build();
     }
 
-    return createResultContainer(searchResult.getValues().iterator(), searchResult.getCount());
+    List<FactDocument> documents = ListUtils.list(searchResult.getValues());
+    saveFactExistence(entity, ListUtils.list(documents, FactDocument::getId));
+    return createResultContainer(documents.iterator(), searchResult.getCount(), false);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The lookups in Cassandra are performed concurrently, see {@link #retrieveExistingFacts(FactRecord)}. At most
+   * {@link #MAX_CONCURRENT_REQUESTS} lookups are in flight at the same time, also across concurrent calls and shared
+   * with {@link #storeFacts(List)}. ElasticSearch is searched with one request for all Facts without a result from the
+   * lookup, unless the search has been disabled.
+   */
+  @Override
+  public List<List<FactRecord>> retrieveExistingFactsBatch(List<FactRecord> records) {
+    if (CollectionUtils.isEmpty(records)) return ListUtils.list();
+
+    // Look up existing Facts of all records in Cassandra concurrently.
+    // Blocks before starting the next lookup while too many requests are in flight.
+    List<FactEntity> entities = new ArrayList<>(records.size());
+    List<CompletableFuture<List<UUID>>> lookups = new ArrayList<>(records.size());
+    for (FactRecord record : records) {
+      FactEntity entity = factRecordConverter.toEntity(record);
+      entities.add(entity);
+      lookups.add(batchRequests.execute(() -> fetchExistingFactIDsAsync(entity)));
+    }
+    List<List<UUID>> existingID = new ArrayList<>(records.size());
+    lookups.forEach(lookup -> existingID.add(lookup.join()));
+
+    // Search for existing Facts of all records not found by the lookup in ElasticSearch with one request.
+    List<Integer> missing = new ArrayList<>();
+    for (int i = 0; i < records.size(); i++) {
+      if (existingID.get(i).isEmpty()) missing.add(i);
+    }
+    if (factExistenceSearchFallback && !missing.isEmpty()) {
+      List<FactExistenceSearchCriteria> criteria = new ArrayList<>(missing.size());
+      missing.forEach(i -> criteria.add(factRecordConverter.toCriteria(records.get(i))));
+      List<SearchResult<FactDocument>> searchResults = factSearchManager.retrieveExistingFactsBatch(criteria);
+      for (int i = 0; i < missing.size(); i++) {
+        List<UUID> found = ListUtils.list(ListUtils.list(searchResults.get(i).getValues()), FactDocument::getId);
+        saveFactExistence(entities.get(missing.get(i)), found);
+        existingID.set(missing.get(i), found);
+      }
+    }
+
+    // Fetch all existing Facts from Cassandra at once instead of per record.
+    List<UUID> allExistingID = existingID.stream()
+            .flatMap(List::stream)
+            .distinct()
+            .collect(Collectors.toList());
+    Map<UUID, FactRecord> existing = new HashMap<>();
+    if (!allExistingID.isEmpty()) {
+      factRecordConverter.fromEntities(factManager.getFacts(allExistingID)).forEachRemaining(fact -> existing.put(fact.getId(), fact));
+    }
+
+    // Map the existing Facts back to the record they exist for.
+    return ListUtils.list(existingID, id -> id.stream()
+            .map(existing::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList()));
   }
 
   @Override
@@ -191,16 +515,25 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
       return ResultContainer.<FactRecord>builder().build();
     }
 
-    return createResultContainer(searchResult, searchResult.getCount());
+    return createResultContainer(searchResult, searchResult.getCount(), searchResult.isSorted());
   }
 
   @Override
   public FactAclEntryRecord storeFactAclEntry(FactRecord fact, FactAclEntryRecord aclEntry) {
     if (fact == null || aclEntry == null) return null;
 
-    // Save new ACL entry and reindex Fact.
+    // Save new ACL entry and reindex Fact. The caller provides the current ACL, thus, it's not required to fetch it.
+    boolean newAclSubject = ListUtils.list(fact.getAcl())
+            .stream()
+            .noneMatch(entry -> Objects.equals(entry.getSubjectID(), aclEntry.getSubjectID()));
     saveAclEntry(fact, aclEntry);
-    reindexFact(fact.getId());
+    FactRecord updated = reindexFact(fact.getId(), FactSearchManager.IndexMode.Synchronous);
+
+    // Only add the Fact to the statistics of the subject if the subject didn't have access before.
+    if (newAclSubject && updated != null) {
+      FactEntity entity = factRecordConverter.toEntity(updated);
+      updateObjectStatisticsAsync(entity, () -> objectStatisticsManager.addFactAclSubjectsAsync(entity, SetUtils.set(aclEntry.getSubjectID())));
+    }
 
     return aclEntry;
   }
@@ -215,42 +548,176 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     return comment;
   }
 
-  private void saveFactObjectBindings(FactEntity fact) {
-    if (CollectionUtils.isEmpty(fact.getBindings())) return;
+  private PendingFact prepareFact(FactRecord record) {
+    // Ensure that ids are set.
+    if (record.getId() == null) {
+      record.setId(UUID.randomUUID());
+    }
+    ListUtils.list(record.getAcl()).stream().filter(entry -> entry.getId() == null).forEach(entry -> entry.setId(UUID.randomUUID()));
+    ListUtils.list(record.getComments()).stream().filter(comment -> comment.getId() == null).forEach(comment -> comment.setId(UUID.randomUUID()));
+
+    // Perform all conversions upfront on the calling thread, the stages only issue requests. For a new Fact it's not
+    // required to check for existing ACL entries and comments.
+    return new PendingFact(record,
+            factRecordConverter.toEntity(record),
+            ListUtils.list(record.getAcl(), entry -> factAclEntryRecordConverter.toEntity(entry, record.getId())),
+            ListUtils.list(record.getComments(), comment -> factCommentRecordConverter.toEntity(comment, record.getId())),
+            factRecordConverter.toDocument(record),
+            SetUtils.set(ListUtils.list(record.getAcl()), FactAclEntryRecord::getSubjectID));
+  }
+
+  private CompletionStage<Void> saveFactAndRelationsAsync(PendingFact fact) {
+    return timed(STAGE_FACT, () -> saveFactAsync(fact.entity))
+            .thenCompose(resumed -> timed(STAGE_RELATIONS, () -> saveRelationsAsync(fact.entity, fact.acl, fact.comments, resumed)))
+            .thenCompose(ignored -> timed(STAGE_EXISTENCE, () -> saveFactExistenceAsync(fact.entity)));
+  }
+
+  private CompletionStage<Boolean> saveFactAsync(FactEntity entity) {
+    // Completes with true if the same Fact has been saved by a previous attempt which failed afterwards. In this case
+    // storing the Fact is resumed instead of failing because the Fact already exists.
+    return factManager.saveFactAsync(entity)
+            .handle((saved, ex) -> ex)
+            .thenCompose(ex -> {
+              if (ex == null) return CompletableFuture.completedFuture(false);
+              Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+              if (!(cause instanceof ImmutableViolationException)) throw wrap(ex);
+              return factManager.getFactAsync(entity.getId()).thenApply(existing -> {
+                // Another Fact with the same id must never be overwritten.
+                if (!isSameFact(entity, existing)) throw wrap(ex);
+                LOGGER.info("Resuming to store partially stored Fact with id = %s.", entity.getId());
+                return true;
+              });
+            });
+  }
+
+  private boolean isSameFact(FactEntity entity, FactEntity existing) {
+    return existing != null
+            && Objects.equals(entity.getTypeID(), existing.getTypeID())
+            && Objects.equals(entity.getValue(), existing.getValue())
+            && Objects.equals(entity.getInReferenceToID(), existing.getInReferenceToID())
+            && Objects.equals(entity.getOrganizationID(), existing.getOrganizationID())
+            && Objects.equals(entity.getOriginID(), existing.getOriginID())
+            && Objects.equals(entity.getAddedByID(), existing.getAddedByID())
+            && entity.getTimestamp() == existing.getTimestamp();
+  }
+
+  private CompletionStage<Void> saveFactExistenceAsync(FactEntity entity) {
+    return factManager.saveFactExistenceAsync(entity)
+            .handle((entry, ex) -> {
+              // The Fact will still be found by searching ElasticSearch, thus, don't fail storing it.
+              if (ex != null) LOGGER.warning(ex, "Could not save lookup entry of Fact with id = %s.", entity.getId());
+              return null;
+            });
+  }
+
+  private CompletableFuture<List<UUID>> fetchExistingFactIDsAsync(FactEntity entity) {
+    return factManager.fetchExistingFactIDsAsync(entity)
+            .toCompletableFuture()
+            .exceptionally(ex -> {
+              // Searching ElasticSearch is still possible, thus, don't fail the lookup.
+              LOGGER.warning(ex, "Could not look up existing Facts in Cassandra, searching ElasticSearch instead.");
+              return ListUtils.list();
+            });
+  }
+
+  private void saveFactExistence(FactEntity entity, List<UUID> existingID) {
+    // Don't wait for the lookup entries, they only speed up subsequent lookups.
+    for (UUID id : existingID) {
+      factManager.saveFactExistenceAsync(entity, id).whenComplete((ignored, ex) -> {
+        if (ex != null) LOGGER.warning(ex, "Could not save lookup entry of Fact with id = %s.", id);
+      });
+    }
+  }
+
+  private CompletionStage<Void> updateObjectStatisticsAsync(PendingFact fact) {
+    return timed(STAGE_STATISTICS, () -> updateObjectStatisticsAsync(fact.entity,
+            () -> objectStatisticsManager.addFactAsync(fact.entity, fact.aclSubjects)));
+  }
+
+  private Set<UUID> indexFacts(List<FactDocument> documents) {
+    if (documents.isEmpty()) return new HashSet<>();
+
+    long start = System.nanoTime();
+    try {
+      return SetUtils.set(factSearchManager.indexFacts(documents), FactDocument::getId);
+    } catch (RuntimeException ex) {
+      // The Facts are stored in Cassandra but not indexed, thus, they won't be returned from any search until they
+      // have been reindexed by the repair queue.
+      LOGGER.warning(ex, "Could not index %d Facts in bulk.", documents.size());
+      return new HashSet<>();
+    } finally {
+      storeFactLatency.record(STAGE_BULK_INDEX, System.nanoTime() - start);
+    }
+  }
+
+  private CompletionStage<Void> saveRelationsAsync(FactEntity fact, List<FactAclEntity> acl, List<FactCommentEntity> comments,
+                                                   boolean skipExisting) {
+    List<CompletableFuture<?>> writes = new ArrayList<>();
 
     // Save all bindings between Objects and the new Fact.
-    for (FactEntity.FactObjectBinding binding : fact.getBindings()) {
-      objectManager.saveObjectFactBinding(new ObjectFactBindingEntity()
+    for (FactEntity.FactObjectBinding binding : ListUtils.list(fact.getBindings())) {
+      writes.add(relationWrite(objectManager.saveObjectFactBindingAsync(new ObjectFactBindingEntity()
               .setObjectID(binding.getObjectID())
               .setFactID(fact.getId())
               .setDirection(binding.getDirection())
-      );
+      ), skipExisting));
     }
+
+    // Save binding between referenced Fact and new meta Fact.
+    if (fact.getInReferenceToID() != null) {
+      writes.add(relationWrite(factManager.saveMetaFactBindingAsync(new MetaFactBindingEntity()
+              .setFactID(fact.getInReferenceToID())
+              .setMetaFactID(fact.getId())
+      ), skipExisting));
+    }
+
+    acl.forEach(entry -> writes.add(relationWrite(factManager.saveFactAclEntryAsync(entry), skipExisting)));
+    comments.forEach(comment -> writes.add(relationWrite(factManager.saveFactCommentAsync(comment), skipExisting)));
+
+    // Completes after all writes have completed, even if some of them have failed.
+    return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
   }
 
-  private void saveMetaFactBindings(FactEntity fact) {
-    if (fact.getInReferenceToID() == null) return;
+  private CompletableFuture<?> relationWrite(CompletionStage<?> write, boolean skipExisting) {
+    if (!skipExisting) return write.toCompletableFuture();
 
-    // Save binding between referenced Fact and new meta Fact.
-    factManager.saveMetaFactBinding(new MetaFactBindingEntity()
-            .setFactID(fact.getInReferenceToID())
-            .setMetaFactID(fact.getId())
-    );
+    // All relations are only inserted if they don't exist, thus, a relation written by a previous attempt is rejected
+    // as an update. It's already stored, so the write has succeeded.
+    return write.toCompletableFuture().exceptionally(ex -> {
+      Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+      if (cause instanceof ImmutableViolationException) return null;
+      throw wrap(ex);
+    });
+  }
+
+  private CompletionException wrap(Throwable ex) {
+    return ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
   }
 
-  private void saveAclEntries(FactRecord fact) {
-    if (CollectionUtils.isEmpty(fact.getAcl())) return;
+  private <T> CompletionStage<T> timed(String stage, Supplier<CompletionStage<T>> action) {
+    long start = System.nanoTime();
+    return action.get().whenComplete((result, ex) -> storeFactLatency.record(stage, System.nanoTime() - start));
+  }
+
+  private Set<UUID> saveAclEntries(FactRecord fact) {
+    if (CollectionUtils.isEmpty(fact.getAcl())) return new HashSet<>();
 
     // Make sure to not add duplicates. This list will be empty for new Facts.
-    Set<UUID> existingAcl = factManager.fetchFactAcl(fact.getId())
-            .stream()
-            .map(FactAclEntity::getId)
-            .collect(Collectors.toSet());
-    // Only save new entries.
+    List<FactAclEntity> existingAcl = factManager.fetchFactAcl(fact.getId());
+    Set<UUID> existingAclID = SetUtils.set(existingAcl, FactAclEntity::getId);
+    Set<UUID> existingSubjectID = SetUtils.set(existingAcl, FactAclEntity::getSubjectID);
+
+    // Only save new entries and return the subjects which didn't have access before.
+    Set<UUID> newSubjectID = new HashSet<>();
     fact.getAcl()
             .stream()
-            .filter(entry -> entry.getId() == null || !existingAcl.contains(entry.getId()))
-            .forEach(entry -> saveAclEntry(fact, entry));
+            .filter(entry -> entry.getId() == null || !existingAclID.contains(entry.getId()))
+            .forEach(entry -> {
+              saveAclEntry(fact, entry);
+              if (!existingSubjectID.contains(entry.getSubjectID())) newSubjectID.add(entry.getSubjectID());
+            });
+
+    return newSubjectID;
   }
 
   private void saveAclEntry(FactRecord fact, FactAclEntryRecord entry) {
@@ -286,27 +753,86 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     factManager.saveFactComment(factCommentRecordConverter.toEntity(comment, fact.getId()));
   }
 
-  private FactRecord reindexFact(UUID factID) {
+  private CompletionStage<Void> updateObjectStatisticsAsync(FactEntity fact, Supplier<CompletionStage<Void>> update) {
+    if (fact == null) return CompletableFuture.completedFuture(null);
+
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    try {
+      update.get().whenComplete((ignored, ex) -> {
+        if (ex == null) {
+          result.complete(null);
+        } else {
+          result.completeExceptionally(ex);
+        }
+      });
+    } catch (RuntimeException ex) {
+      result.completeExceptionally(ex);
+    }
+
+    // Failing to update the statistics must not fail the whole operation. The statistics of the affected Objects can't
+    // be trusted any more, thus, fall back to calculating them with ElasticSearch.
+    return result.handle((ignored, ex) -> {
+      if (ex != null) {
+        LOGGER.warning(ex, "Could not update statistics of Objects bound to Fact with id = %s.", fact.getId());
+        SetUtils.set(ListUtils.list(fact.getBindings()), FactEntity.FactObjectBinding::getObjectID)
+                .forEach(objectID -> objectStatisticsManager.markNotMaterializedAsync(objectID)
+                        .whenComplete((x, e) -> {
+                          if (e != null) LOGGER.warning(e, "Could not mark statistics of Object with id = %s as not materialized.", objectID);
+                        }));
+      }
+      return null;
+    });
+  }
+
+  private void queueReindex(UUID factID) {
+    // Index the Fact based on the data in Cassandra at the time of the repair.
+    factRepairQueue.submit(factID, () -> factSearchManager.indexFactAsync(factRecordConverter.toDocument(getFact(factID))));
+  }
+
+  private FactRecord reindexFact(UUID factID, FactSearchManager.IndexMode mode) {
     // getFact() will fetch all required information from Cassandra (the authoritative data store).
     // Because of that, the returned record will contain up-to-date information.
     FactRecord record = getFact(factID);
     // Simply reindex everything based on the fetched record.
-    factSearchManager.indexFact(factRecordConverter.toDocument(record));
+    factSearchManager.indexFact(factRecordConverter.toDocument(record), mode);
     // Return up-to-date record.
     return record;
   }
 
-  private ResultContainer<FactRecord> createResultContainer(Iterator<FactDocument> results, int count) {
+  private ResultContainer<FactRecord> createResultContainer(Iterator<FactDocument> results, int count, boolean sorted) {
     // Iterator which maps FactDocument to UUID.
     Iterator<UUID> idIterator = new MappingIterator<>(results, FactDocument::getId);
-    // Iterator which fetches FactEntity from Cassandra in batches.
-    Iterator<FactEntity> batchingIterator = new BatchingIterator<>(idIterator, factManager::getFacts);
-    // Iterator which maps FactEntity to FactRecord.
-    Iterator<FactRecord> recordIterator = new MappingIterator<>(batchingIterator, factRecordConverter::fromEntity);
+    // Iterator which fetches FactEntity from Cassandra in batches and converts each batch to FactRecord.
+    // All related entities (Objects, ACL, comments) are fetched per batch instead of per Fact.
+    Iterator<FactRecord> recordIterator = new BatchingIterator<>(idIterator, ids -> factRecordConverter.fromEntities(factManager.getFacts(ids)));
 
     return ResultContainer.<FactRecord>builder()
             .setCount(count)
+            .setSorted(sorted)
             .setValues(recordIterator)
             .build();
   }
+
+  private static class PendingFact {
+    private final FactRecord record;
+    private final FactEntity entity;
+    private final List<FactAclEntity> acl;
+    private final List<FactCommentEntity> comments;
+    private final FactDocument document;
+    private final Set<UUID> aclSubjects;
+
+    private PendingFact(FactRecord record,
+                        FactEntity entity,
+                        List<FactAclEntity> acl,
+                        List<FactCommentEntity> comments,
+                        FactDocument document,
+                        Set<UUID> aclSubjects) {
+      this.record = record;
+      this.entity = entity;
+      this.acl = acl;
+      this.comments = comments;
+      this.document = document;
+      this.aclSubjects = aclSubjects;
+    }
+  }
 }
@@ -13,10 +13,13 @@ import no.mnemonic.commons.logging.Logger;
 import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static no.mnemonic.act.platform.dao.cassandra.entity.Direction.FactIsDestination;
 import static no.mnemonic.act.platform.dao.cassandra.entity.Direction.FactIsSource;
@@ -56,30 +59,63 @@ public class FactRecordConverter {
   public FactRecord fromEntity(FactEntity entity) {
     if (entity == null) return null;
 
-    // Set all fields directly available on entity.
-    FactRecord record = new FactRecord()
-            .setId(entity.getId())
-            .setTypeID(entity.getTypeID())
-            .setValue(entity.getValue())
-            .setInReferenceToID(entity.getInReferenceToID())
-            .setOrganizationID(entity.getOrganizationID())
-            .setOriginID(entity.getOriginID())
-            .setAddedByID(entity.getAddedByID())
-            .setAccessMode(ObjectUtils.ifNotNull(entity.getAccessMode(), m -> FactRecord.AccessMode.valueOf(m.name())))
-            .setConfidence(entity.getConfidence())
-            .setTrust(entity.getTrust())
-            .setTimestamp(entity.getTimestamp())
-            .setLastSeenTimestamp(entity.getLastSeenTimestamp())
-            .setFlags(SetUtils.set(entity.getFlags(), flag -> FactRecord.Flag.valueOf(flag.name())));
+    FactRecord record = convertDirectFields(entity);
 
     // Populate with records from related entities.
-    populateObjects(record, entity);
-    populateFactAcl(record);
-    populateFactComments(record);
+    populateObjects(record, entity, this::convertObject);
+    populateFactAcl(record, factManager.fetchFactAcl(record.getId()));
+    populateFactComments(record, factManager.fetchFactComments(record.getId()));
 
     return record;
   }
 
+  /**
+   * Convert a batch of {@link FactEntity} to {@link FactRecord}.
+   * <p>
+   * In contrast to {@link #fromEntity(FactEntity)} all related entities (bound Objects, ACL entries and comments)
+   * are fetched for the whole batch at once using multi-fetch instead of fetching them for every Fact individually.
+   * The whole batch will be loaded into memory, thus, the batch size should be limited by the caller.
+   *
+   * @param entities Facts to convert
+   * @return Converted Facts
+   */
+  public Iterator<FactRecord> fromEntities(Iterator<FactEntity> entities) {
+    List<FactEntity> batch = ListUtils.list(entities)
+            .stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    if (batch.isEmpty()) return Collections.emptyIterator();
+
+    List<UUID> factID = batch.stream()
+            .map(FactEntity::getId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+    List<UUID> objectID = batch.stream()
+            .flatMap(entity -> ListUtils.list(entity.getBindings()).stream())
+            .map(FactEntity.FactObjectBinding::getObjectID)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+
+    // Fetch all related entities for the whole batch with as few requests as possible.
+    Map<UUID, ObjectRecord> objects = new HashMap<>();
+    ListUtils.list(objectManager.getObjects(objectID)).forEach(object -> objects.put(object.getId(), objectRecordConverter.fromEntity(object)));
+    Map<UUID, List<FactAclEntity>> acl = groupByFact(factManager.fetchFactAclForFacts(factID), FactAclEntity::getFactID);
+    Map<UUID, List<FactCommentEntity>> comments = groupByFact(factManager.fetchFactCommentsForFacts(factID), FactCommentEntity::getFactID);
+
+    List<FactRecord> records = new ArrayList<>(batch.size());
+    for (FactEntity entity : batch) {
+      FactRecord record = convertDirectFields(entity);
+      populateObjects(record, entity, objects::get);
+      populateFactAcl(record, acl.get(record.getId()));
+      populateFactComments(record, comments.get(record.getId()));
+      records.add(record);
+    }
+
+    return records.iterator();
+  }
+
   /**
    * Convert {@link FactRecord} to {@link FactEntity}.
    *
@@ -189,34 +225,52 @@ public class FactRecordConverter {
     return criteriaBuilder.build();
   }
 
-  private void populateObjects(FactRecord record, FactEntity entity) {
+  private FactRecord convertDirectFields(FactEntity entity) {
+    return new FactRecord()
+            .setId(entity.getId())
+            .setTypeID(entity.getTypeID())
+            .setValue(entity.getValue())
+            .setInReferenceToID(entity.getInReferenceToID())
+            .setOrganizationID(entity.getOrganizationID())
+            .setOriginID(entity.getOriginID())
+            .setAddedByID(entity.getAddedByID())
+            .setAccessMode(ObjectUtils.ifNotNull(entity.getAccessMode(), m -> FactRecord.AccessMode.valueOf(m.name())))
+            .setConfidence(entity.getConfidence())
+            .setTrust(entity.getTrust())
+            .setTimestamp(entity.getTimestamp())
+            .setLastSeenTimestamp(entity.getLastSeenTimestamp())
+            .setFlags(SetUtils.set(entity.getFlags(), flag -> FactRecord.Flag.valueOf(flag.name())));
+  }
+
+  private void populateObjects(FactRecord record, FactEntity entity, Function<UUID, ObjectRecord> objectResolver) {
     if (CollectionUtils.isEmpty(entity.getBindings())) return;
 
     if (CollectionUtils.size(entity.getBindings()) == 1) {
-      populateObjectsWithCardinalityOne(record, entity.getBindings().get(0));
+      populateObjectsWithCardinalityOne(record, entity.getBindings().get(0), objectResolver);
     } else if (CollectionUtils.size(entity.getBindings()) == 2) {
-      populateObjectsWithCardinalityTwo(record, entity.getBindings().get(0), entity.getBindings().get(1));
+      populateObjectsWithCardinalityTwo(record, entity.getBindings().get(0), entity.getBindings().get(1), objectResolver);
     } else {
       // This should never happen as long as create Fact API only allows bindings with cardinality 1 or 2. Log it, just in case.
       LOGGER.warning("Fact is bound to more than two Objects (id = %s). Ignoring Objects in result.", record.getId());
     }
   }
 
-  private void populateObjectsWithCardinalityOne(FactRecord record, FactEntity.FactObjectBinding binding) {
+  private void populateObjectsWithCardinalityOne(FactRecord record, FactEntity.FactObjectBinding binding, Function<UUID, ObjectRecord> objectResolver) {
     if (binding.getDirection() == FactIsDestination) {
-      record.setSourceObject(convertObject(binding.getObjectID()));
+      record.setSourceObject(objectResolver.apply(binding.getObjectID()));
     } else if (binding.getDirection() == FactIsSource) {
-      record.setDestinationObject(convertObject(binding.getObjectID()));
+      record.setDestinationObject(objectResolver.apply(binding.getObjectID()));
     } else {
       // In case of bidirectional binding with cardinality 1 populate source and destination with same Object.
-      ObjectRecord object = convertObject(binding.getObjectID());
+      ObjectRecord object = objectResolver.apply(binding.getObjectID());
       record.setSourceObject(object)
               .setDestinationObject(object)
               .setBidirectionalBinding(true);
     }
   }
 
-  private void populateObjectsWithCardinalityTwo(FactRecord record, FactEntity.FactObjectBinding first, FactEntity.FactObjectBinding second) {
+  private void populateObjectsWithCardinalityTwo(FactRecord record, FactEntity.FactObjectBinding first, FactEntity.FactObjectBinding second,
+                                                 Function<UUID, ObjectRecord> objectResolver) {
     if ((first.getDirection() == FactIsDestination && second.getDirection() == FactIsDestination) ||
             (first.getDirection() == FactIsSource && second.getDirection() == FactIsSource)) {
       // This should never happen as long as create Fact API only allows bindings with cardinality 1 or 2. Log it, just in case.
@@ -226,33 +280,39 @@ public class FactRecordConverter {
 
     if (first.getDirection() == FactIsDestination) {
       // If 'first' has direction 'FactIsDestination' it's the source Object and 'second' the destination Object ...
-      record.setSourceObject(convertObject(first.getObjectID()))
-              .setDestinationObject(convertObject(second.getObjectID()));
+      record.setSourceObject(objectResolver.apply(first.getObjectID()))
+              .setDestinationObject(objectResolver.apply(second.getObjectID()));
     } else if (second.getDirection() == FactIsDestination) {
       // ... and vice versa. They can't have the same direction!
-      record.setSourceObject(convertObject(second.getObjectID()))
-              .setDestinationObject(convertObject(first.getObjectID()));
+      record.setSourceObject(objectResolver.apply(second.getObjectID()))
+              .setDestinationObject(objectResolver.apply(first.getObjectID()));
     } else {
       // With bidirectional binding it doesn't matter which Object is source/destination.
       // In order to be consistent always set first as source and second as destination.
-      record.setSourceObject(convertObject(first.getObjectID()))
-              .setDestinationObject(convertObject(second.getObjectID()))
+      record.setSourceObject(objectResolver.apply(first.getObjectID()))
+              .setDestinationObject(objectResolver.apply(second.getObjectID()))
               .setBidirectionalBinding(true);
     }
   }
 
-  private void populateFactAcl(FactRecord record) {
-    for (FactAclEntity entity : factManager.fetchFactAcl(record.getId())) {
+  private void populateFactAcl(FactRecord record, List<FactAclEntity> acl) {
+    for (FactAclEntity entity : ListUtils.list(acl)) {
       record.addAclEntry(factAclEntryRecordConverter.fromEntity(entity));
     }
   }
 
-  private void populateFactComments(FactRecord record) {
-    for (FactCommentEntity entity : factManager.fetchFactComments(record.getId())) {
+  private void populateFactComments(FactRecord record, List<FactCommentEntity> comments) {
+    for (FactCommentEntity entity : ListUtils.list(comments)) {
       record.addComment(factCommentRecordConverter.fromEntity(entity));
     }
   }
 
+  private <T> Map<UUID, List<T>> groupByFact(Iterator<T> entities, Function<T, UUID> factID) {
+    Map<UUID, List<T>> grouped = new HashMap<>();
+    ListUtils.list(entities).forEach(entity -> grouped.computeIfAbsent(factID.apply(entity), id -> new ArrayList<>()).add(entity));
+    return grouped;
+  }
+
   private ObjectRecord convertObject(UUID objectID) {
     return objectRecordConverter.fromEntity(objectManager.getObject(objectID));
   }
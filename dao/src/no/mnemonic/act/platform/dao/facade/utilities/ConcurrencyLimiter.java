@@ -0,0 +1,56 @@
+package no.mnemonic.act.platform.dao.facade.utilities;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many asynchronous operations are in flight at the same time. Starting an operation blocks the calling
+ * thread until one of the running operations has completed if the limit has been reached (sliding window). Operations
+ * can complete on any thread, e.g. the callback threads of asynchronous clients, but must never be started from them.
+ */
+public class ConcurrencyLimiter {
+
+  private final Semaphore permits;
+
+  /**
+   * Create a new limiter.
+   *
+   * @param maxConcurrent Maximum number of operations in flight (must be positive)
+   */
+  public ConcurrencyLimiter(int maxConcurrent) {
+    if (maxConcurrent <= 0) throw new IllegalArgumentException("'maxConcurrent' must be positive!");
+    this.permits = new Semaphore(maxConcurrent);
+  }
+
+  /**
+   * Start an asynchronous operation once fewer than the maximum number of operations are in flight.
+   *
+   * @param operation Starts the operation and returns a stage completing when the operation has completed
+   * @param <T>       Type of the operation's result
+   * @return Stage completing with the result of the operation
+   */
+  public <T> CompletableFuture<T> execute(Supplier<? extends CompletionStage<T>> operation) {
+    permits.acquireUninterruptibly();
+
+    CompletableFuture<T> result;
+    try {
+      result = operation.get().toCompletableFuture();
+    } catch (RuntimeException ex) {
+      permits.release();
+      throw ex;
+    }
+
+    return result.whenComplete((ignored, ex) -> permits.release());
+  }
+
+  /**
+   * Returns the number of operations which can be started without blocking.
+   *
+   * @return Number of available permits
+   */
+  public int getAvailable() {
+    return permits.availablePermits();
+  }
+}
@@ -0,0 +1,158 @@
+package no.mnemonic.act.platform.dao.facade.utilities;
+
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.MetricsData;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of Facts which have been stored in Cassandra but couldn't be indexed into ElasticSearch, and repairs them
+ * in the background.
+ * <p>
+ * A repair is an asynchronous operation which must be safe to be performed multiple times. All queued repairs are
+ * performed one after another in fixed intervals. A repair which fails is retried in the next interval until it
+ * has failed {@code maxAttempts} times, then it's abandoned and logged as an error. At most {@code maxPending} repairs
+ * are queued at the same time, further repairs are rejected. The outcome of all repairs is reported as metrics.
+ * <p>
+ * The queue is only kept in memory, i.e. queued repairs are lost on shutdown. Only queue repairs which can be lost
+ * without creating duplicate Facts: a Fact which is stored completely in Cassandra is still found by its lookup entry
+ * (and only misses from searches until it's indexed again), whereas a Fact whose relations couldn't be written must be
+ * retried by the caller with the same Fact id instead.
+ */
+public class FactRepairQueue implements LifecycleAspect, MetricAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(FactRepairQueue.class);
+
+  private final int maxPending;
+  private final int maxAttempts;
+  private final long intervalMs;
+  private final Map<UUID, PendingRepair> pending = new ConcurrentHashMap<>();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder repaired = new LongAdder();
+  private final LongAdder failedAttempts = new LongAdder();
+  private final LongAdder abandoned = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  private ScheduledExecutorService executor;
+
+  /**
+   * Create a new queue.
+   *
+   * @param maxPending  Maximum number of queued repairs
+   * @param maxAttempts Maximum number of attempts per repair
+   * @param intervalMs  Interval between performing the queued repairs (in ms)
+   */
+  public FactRepairQueue(int maxPending, int maxAttempts, long intervalMs) {
+    this.maxPending = maxPending;
+    this.maxAttempts = maxAttempts;
+    this.intervalMs = intervalMs;
+  }
+
+  @Override
+  public synchronized void startComponent() {
+    if (executor != null) return;
+
+    executor = Executors.newSingleThreadScheduledExecutor();
+    executor.scheduleWithFixedDelay(this::repairPendingSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (executor == null) return;
+
+    executor.shutdownNow();
+    executor = null;
+    if (!pending.isEmpty()) LOGGER.warning("Shutting down with %d Facts which haven't been repaired.", pending.size());
+  }
+
+  @Override
+  public MetricsData getMetrics() throws MetricException {
+    return new MetricsData()
+            .addData("pending", pending.size())
+            .addData("submitted", submitted.sum())
+            .addData("repaired", repaired.sum())
+            .addData("failedAttempts", failedAttempts.sum())
+            .addData("abandoned", abandoned.sum())
+            .addData("rejected", rejected.sum());
+  }
+
+  /**
+   * Queue the repair of a Fact. If a repair of the same Fact is already queued the queued repair is kept.
+   *
+   * @param factID Id of the Fact to repair
+   * @param repair Starts the repair and returns a stage completing when the repair has completed
+   * @return True if the repair is queued, false if it was rejected because the queue is full
+   */
+  public boolean submit(UUID factID, Supplier<? extends CompletionStage<?>> repair) {
+    if (factID == null || repair == null) return false;
+
+    if (!pending.containsKey(factID) && pending.size() >= maxPending) {
+      rejected.increment();
+      LOGGER.error("Could not queue repair of Fact with id = %s, too many pending repairs.", factID);
+      return false;
+    }
+
+    if (pending.putIfAbsent(factID, new PendingRepair(repair)) == null) submitted.increment();
+    return true;
+  }
+
+  /**
+   * Returns the number of queued repairs.
+   *
+   * @return Number of queued repairs
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Perform all queued repairs once. Called periodically after the queue has been started.
+   */
+  public void repairPending() {
+    for (Map.Entry<UUID, PendingRepair> entry : pending.entrySet()) {
+      UUID factID = entry.getKey();
+      PendingRepair repair = entry.getValue();
+      try {
+        repair.action.get().toCompletableFuture().join();
+        pending.remove(factID, repair);
+        repaired.increment();
+        LOGGER.info("Successfully repaired Fact with id = %s.", factID);
+      } catch (RuntimeException ex) {
+        failedAttempts.increment();
+        if (++repair.attempts < maxAttempts) {
+          LOGGER.warning(ex, "Could not repair Fact with id = %s (attempt %d of %d).", factID, repair.attempts, maxAttempts);
+        } else {
+          pending.remove(factID, repair);
+          abandoned.increment();
+          LOGGER.error(ex, "Could not repair Fact with id = %s after %d attempts. Giving up.", factID, repair.attempts);
+        }
+      }
+    }
+  }
+
+  private void repairPendingSafely() {
+    // An exception would cancel the periodic execution.
+    try {
+      repairPending();
+    } catch (Exception ex) {
+      LOGGER.warning(ex, "Could not repair pending Facts.");
+    }
+  }
+
+  private static class PendingRepair {
+    private final Supplier<? extends CompletionStage<?>> action;
+    private int attempts;
+
+    private PendingRepair(Supplier<? extends CompletionStage<?>> action) {
+      this.action = action;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package no.mnemonic.act.platform.dao.facade.utilities;
+
+import no.mnemonic.act.platform.utilities.metrics.LatencyHistogram;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.utilities.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects latency statistics for the named stages of a multi-stage operation, e.g. storing a Fact. Recording is
+ * thread-safe and non-blocking, thus, it can be called from the callback threads of asynchronous clients.
+ */
+public class StageLatencyRecorder {
+
+  private final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+
+  /**
+   * Record the duration of one execution of a stage.
+   *
+   * @param stage         Name of the stage (cannot be blank)
+   * @param durationNanos Duration of the execution in nanoseconds
+   */
+  public void record(String stage, long durationNanos) {
+    if (StringUtils.isBlank(stage)) throw new IllegalArgumentException("'stage' cannot be blank!");
+    stages.computeIfAbsent(stage, s -> new LatencyHistogram()).record(durationNanos);
+  }
+
+  /**
+   * Returns a snapshot of the statistics of all stages recorded so far, keyed by stage name.
+   *
+   * @return Statistics per stage
+   */
+  public Map<String, StageStatistics> getStatistics() {
+    Map<String, StageStatistics> statistics = new LinkedHashMap<>();
+    stages.forEach((name, stage) -> statistics.put(name, new StageStatistics(stage.snapshot())));
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  /**
+   * Returns the latency distribution of all stages recorded so far as {@link Metrics}, grouped by stage name.
+   *
+   * @return Metrics per stage
+   * @throws MetricException If metrics could not be created
+   */
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(stages);
+  }
+
+  public static class StageStatistics {
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    private StageStatistics(LatencyHistogram.Snapshot snapshot) {
+      this.count = snapshot.getCount();
+      this.totalNanos = snapshot.getTotalNanos();
+      this.maxNanos = snapshot.getMaxNanos();
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getAverageNanos() {
+      return count > 0 ? totalNanos / count : 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("count = %d, avg = %dus, max = %dus", count,
+              TimeUnit.NANOSECONDS.toMicros(getAverageNanos()), TimeUnit.NANOSECONDS.toMicros(maxNanos));
+    }
+  }
+}
@@ -3,6 +3,7 @@ package no.mnemonic.act.platform.dao.tinkerpop;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.utilities.collections.UUIDSet;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
@@ -74,10 +75,13 @@ public class ObjectVertex implements Vertex {
 
   @Override
   public Iterator<Vertex> vertices(Direction direction, String... edgeLabels) {
-    return SetUtils.set(edges(direction, edgeLabels), e -> SetUtils.set(e.vertices(direction)))
-            .stream()
-            .reduce(new HashSet<>(), (result, next) -> SetUtils.union(result, next))
-            .iterator();
+    // Deduplicate adjacent vertices by their ids instead of collecting the vertices into intermediate sets.
+    UUIDSet visited = new UUIDSet();
+    List<Vertex> vertices = new ArrayList<>();
+    edges(direction, edgeLabels).forEachRemaining(e -> e.vertices(direction).forEachRemaining(v -> {
+      if (visited.add((UUID) v.id())) vertices.add(v);
+    }));
+    return vertices.iterator();
   }
 
   @Override
@@ -0,0 +1,57 @@
+package no.mnemonic.act.platform.dao.api.criteria;
+
+import org.junit.Test;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FactSearchCursorTest {
+
+  @Test
+  public void testCreateCursorWithoutFactID() {
+    assertThrows(IllegalArgumentException.class, () -> FactSearchCursor.of(123, null));
+  }
+
+  @Test
+  public void testEncodeDecodeCursor() {
+    FactSearchCursor cursor = FactSearchCursor.of(1234567890L, UUID.randomUUID());
+    FactSearchCursor decoded = FactSearchCursor.decode(cursor.encode());
+
+    assertEquals(cursor, decoded);
+    assertEquals(cursor.getTimestamp(), decoded.getTimestamp());
+    assertEquals(cursor.getFactID(), decoded.getFactID());
+  }
+
+  @Test
+  public void testEncodedCursorIsUrlSafe() {
+    String token = FactSearchCursor.of(-1, new UUID(-1, -1)).encode();
+    assertTrue(token.matches("[A-Za-z0-9_-]+"));
+  }
+
+  @Test
+  public void testEncodeDecodeStartCursor() {
+    assertEquals(FactSearchCursor.START_TOKEN, FactSearchCursor.start().encode());
+    assertSame(FactSearchCursor.start(), FactSearchCursor.decode(FactSearchCursor.START_TOKEN));
+    assertTrue(FactSearchCursor.start().isStart());
+    assertFalse(FactSearchCursor.of(1, UUID.randomUUID()).isStart());
+  }
+
+  @Test
+  public void testDecodeInvalidCursor() {
+    assertThrows(IllegalArgumentException.class, () -> FactSearchCursor.decode(null));
+    assertThrows(IllegalArgumentException.class, () -> FactSearchCursor.decode(" "));
+    assertThrows(IllegalArgumentException.class, () -> FactSearchCursor.decode("not a cursor!"));
+    assertThrows(IllegalArgumentException.class, () -> FactSearchCursor.decode("AAAA"));
+  }
+
+  @Test
+  public void testDecodeCursorWithUnknownVersion() {
+    byte[] bytes = Base64.getUrlDecoder().decode(FactSearchCursor.of(1, UUID.randomUUID()).encode());
+    bytes[0] = 42;
+    String token = Base64.getUrlEncoder().encodeToString(bytes);
+
+    assertThrows(IllegalArgumentException.class, () -> FactSearchCursor.decode(token));
+  }
+}
@@ -0,0 +1,165 @@
+package no.mnemonic.act.platform.dao.cache;
+
+import no.mnemonic.commons.metrics.MetricException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class CacheInvalidationBusTest {
+
+  private LoopbackCacheInvalidationTransport transport;
+  private CacheInvalidationBus node1;
+  private CacheInvalidationBus node2;
+
+  @Before
+  public void setUp() {
+    // Two buses sharing one loopback transport simulate two nodes.
+    transport = new LoopbackCacheInvalidationTransport();
+    node1 = new CacheInvalidationBus(transport);
+    node2 = new CacheInvalidationBus(transport);
+  }
+
+  @Test
+  public void testInvalidateNotifiesLocalListeners() {
+    List<UUID> invalidated = new ArrayList<>();
+    node1.register(CacheInvalidationEvent.Type.FactType, invalidated::add);
+
+    UUID id = UUID.randomUUID();
+    node1.invalidate(CacheInvalidationEvent.Type.FactType, id);
+
+    // The local listener is only notified once, i.e. the event isn't applied again when received from the transport.
+    assertEquals(1, invalidated.size());
+    assertEquals(id, invalidated.get(0));
+  }
+
+  @Test
+  public void testInvalidateNotifiesListenersOnOtherNodes() {
+    List<UUID> invalidated = new ArrayList<>();
+    node2.register(CacheInvalidationEvent.Type.Origin, invalidated::add);
+
+    UUID id = UUID.randomUUID();
+    node1.invalidate(CacheInvalidationEvent.Type.Origin, id);
+
+    assertEquals(1, invalidated.size());
+    assertEquals(id, invalidated.get(0));
+  }
+
+  @Test
+  public void testInvalidateOnlyNotifiesListenersOfSameType() {
+    List<UUID> invalidated = new ArrayList<>();
+    node1.register(CacheInvalidationEvent.Type.ObjectType, invalidated::add);
+    node2.register(CacheInvalidationEvent.Type.ObjectType, invalidated::add);
+
+    node1.invalidate(CacheInvalidationEvent.Type.FactType, UUID.randomUUID());
+
+    assertTrue(invalidated.isEmpty());
+  }
+
+  @Test
+  public void testInvalidateOtherNodesKeepsLocalEntries() {
+    List<UUID> local = new ArrayList<>();
+    List<UUID> other = new ArrayList<>();
+    node1.register(CacheInvalidationEvent.Type.FactRetractions, local::add);
+    node2.register(CacheInvalidationEvent.Type.FactRetractions, other::add);
+
+    UUID id = UUID.randomUUID();
+    node1.invalidateOtherNodes(CacheInvalidationEvent.Type.FactRetractions, id);
+
+    assertTrue(local.isEmpty());
+    assertEquals(1, other.size());
+    assertEquals(id, other.get(0));
+  }
+
+  @Test
+  public void testInvalidateWithoutTypeOrIdIsIgnored() {
+    CacheInvalidationTransport mockedTransport = mock(CacheInvalidationTransport.class);
+    CacheInvalidationBus bus = new CacheInvalidationBus(mockedTransport);
+
+    bus.invalidate(null, UUID.randomUUID());
+    bus.invalidate(CacheInvalidationEvent.Type.FactType, null);
+
+    verify(mockedTransport, never()).publish(any());
+  }
+
+  @Test
+  public void testInvalidatePublishesEventFromNode() {
+    CacheInvalidationTransport mockedTransport = mock(CacheInvalidationTransport.class);
+    CacheInvalidationBus bus = new CacheInvalidationBus(mockedTransport);
+
+    UUID id = UUID.randomUUID();
+    bus.invalidate(CacheInvalidationEvent.Type.Subject, id);
+
+    verify(mockedTransport).publish(argThat(event -> event.getType() == CacheInvalidationEvent.Type.Subject
+            && id.equals(event.getId()) && event.getSourceNode() != null));
+  }
+
+  @Test
+  public void testFailingListenerDoesNotPreventOtherListeners() {
+    List<UUID> invalidated = new ArrayList<>();
+    node2.register(CacheInvalidationEvent.Type.FactType, id -> {
+      throw new IllegalStateException();
+    });
+    node2.register(CacheInvalidationEvent.Type.FactType, invalidated::add);
+
+    node1.invalidate(CacheInvalidationEvent.Type.FactType, UUID.randomUUID());
+
+    assertEquals(1, invalidated.size());
+  }
+
+  @Test
+  public void testFailingTransportStillInvalidatesLocally() {
+    CacheInvalidationTransport mockedTransport = mock(CacheInvalidationTransport.class);
+    doThrow(IllegalStateException.class).when(mockedTransport).publish(any());
+    CacheInvalidationBus bus = new CacheInvalidationBus(mockedTransport);
+    List<UUID> invalidated = new ArrayList<>();
+    bus.register(CacheInvalidationEvent.Type.FactType, invalidated::add);
+
+    bus.invalidate(CacheInvalidationEvent.Type.FactType, UUID.randomUUID());
+
+    assertEquals(1, invalidated.size());
+  }
+
+  @Test
+  public void testExpiryWithLoopbackTransport() {
+    assertEquals(10, node1.getExpiryMinutes(10));
+  }
+
+  @Test
+  public void testExpiryWithClusterWideTransport() {
+    CacheInvalidationTransport mockedTransport = mock(CacheInvalidationTransport.class);
+    when(mockedTransport.isClusterWide()).thenReturn(true);
+
+    assertTrue(new CacheInvalidationBus(mockedTransport).getExpiryMinutes(10) > 10);
+  }
+
+  @Test
+  public void testMetrics() throws MetricException {
+    node1.invalidate(CacheInvalidationEvent.Type.FactType, UUID.randomUUID());
+
+    assertEquals(1L, node1.getMetrics().getData("publishedInvalidations"));
+    assertEquals(0L, node1.getMetrics().getData("receivedInvalidations"));
+    assertEquals(0L, node2.getMetrics().getData("publishedInvalidations"));
+    assertEquals(1L, node2.getMetrics().getData("receivedInvalidations"));
+  }
+
+  @Test
+  public void testTransportDeliversToAllSubscribers() {
+    @SuppressWarnings("unchecked")
+    Consumer<CacheInvalidationEvent> consumer = mock(Consumer.class);
+    transport.subscribe(consumer);
+
+    CacheInvalidationEvent event = new CacheInvalidationEvent(UUID.randomUUID(), CacheInvalidationEvent.Type.FactType, UUID.randomUUID());
+    transport.publish(event);
+
+    verify(consumer).accept(event);
+  }
+}
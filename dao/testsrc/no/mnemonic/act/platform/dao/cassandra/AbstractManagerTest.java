@@ -1,5 +1,7 @@
 package no.mnemonic.act.platform.dao.cassandra;
 
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
 import no.mnemonic.commons.junit.docker.CassandraDockerResource;
 import no.mnemonic.commons.junit.docker.DockerTestUtils;
 import org.junit.*;
@@ -31,9 +33,10 @@ public abstract class AbstractManagerTest {
 
   @Before
   public void initialize() {
-    factManager = new FactManager(clusterManager);
-    objectManager = new ObjectManager(clusterManager);
-    originManager = new OriginManager(clusterManager);
+    CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport());
+    factManager = new FactManager(clusterManager, cacheInvalidationBus);
+    objectManager = new ObjectManager(clusterManager, cacheInvalidationBus);
+    originManager = new OriginManager(clusterManager, cacheInvalidationBus);
 
     factManager.startComponent();
     objectManager.startComponent();
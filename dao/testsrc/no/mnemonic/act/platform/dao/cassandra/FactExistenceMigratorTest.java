@@ -0,0 +1,79 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class FactExistenceMigratorTest {
+
+  @Mock
+  private FactManager factManager;
+
+  private FactExistenceMigrator migrator;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    migrator = new FactExistenceMigrator(factManager);
+
+    when(factManager.saveFactExistenceAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+  }
+
+  @Test
+  public void testMigrateWithoutFacts() {
+    when(factManager.fetchAllFacts()).thenReturn(ListUtils.<FactEntity>list().iterator());
+
+    assertEquals(0, migrator.migrate());
+    verify(factManager, never()).saveFactExistenceAsync(any());
+  }
+
+  @Test
+  public void testMigrateSavesLookupEntriesOfAllFacts() {
+    FactEntity fact1 = new FactEntity().setId(UUID.randomUUID());
+    FactEntity fact2 = new FactEntity().setId(UUID.randomUUID());
+    when(factManager.fetchAllFacts()).thenReturn(ListUtils.list(fact1, fact2).iterator());
+
+    assertEquals(2, migrator.migrate());
+    verify(factManager).saveFactExistenceAsync(fact1);
+    verify(factManager).saveFactExistenceAsync(fact2);
+  }
+
+  @Test
+  public void testMigrateWaitsForPendingWrites() {
+    FactEntity fact = new FactEntity().setId(UUID.randomUUID());
+    CompletableFuture<Void> write = new CompletableFuture<>();
+    when(factManager.fetchAllFacts()).thenReturn(ListUtils.list(fact).iterator());
+    doReturn(write).when(factManager).saveFactExistenceAsync(fact);
+
+    CompletableFuture<Long> result = CompletableFuture.supplyAsync(migrator::migrate);
+    assertThrows(Exception.class, () -> result.get(100, TimeUnit.MILLISECONDS));
+    write.complete(null);
+    assertEquals(1, (long) result.join());
+  }
+
+  @Test
+  public void testMigrateFailsWhenSavingLookupEntryFails() {
+    FactEntity failing = new FactEntity().setId(UUID.randomUUID());
+    FactEntity succeeding = new FactEntity().setId(UUID.randomUUID());
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("timeout"));
+    when(factManager.fetchAllFacts()).thenReturn(ListUtils.list(failing, succeeding).iterator());
+    doReturn(failed).when(factManager).saveFactExistenceAsync(failing);
+
+    // All remaining Facts are still migrated before the failure is reported.
+    IllegalStateException ex = assertThrows(IllegalStateException.class, migrator::migrate);
+    assertTrue(ex.getMessage().contains("1 out of 2"));
+    verify(factManager).saveFactExistenceAsync(succeeding);
+  }
+}
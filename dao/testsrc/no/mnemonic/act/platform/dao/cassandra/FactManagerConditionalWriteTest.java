@@ -0,0 +1,319 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
+import no.mnemonic.act.platform.dao.cassandra.mapper.CassandraMapper;
+import no.mnemonic.act.platform.dao.cassandra.mapper.FactDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.FactTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.InMemoryFactDao;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Verifies the conditional write path of {@link FactManager} against an in-memory stand-in of the Cassandra mapper.
+ */
+public class FactManagerConditionalWriteTest {
+
+  @Mock
+  private ClusterManager clusterManager;
+  @Mock
+  private CassandraMapper cassandraMapper;
+  @Mock
+  private FactTypeDao factTypeDao;
+
+  private FactDao factDao;
+  private FactManager factManager;
+  private FactTypeEntity factType;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+
+    factDao = spy(new InMemoryFactDao());
+    factType = new FactTypeEntity().setId(UUID.randomUUID()).setName("factType");
+
+    when(clusterManager.getCassandraMapper()).thenReturn(cassandraMapper);
+    when(cassandraMapper.getFactDao()).thenReturn(factDao);
+    when(cassandraMapper.getFactTypeDao()).thenReturn(factTypeDao);
+    when(factTypeDao.get(factType.getId())).thenReturn(factType);
+
+    CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport());
+
+    factManager = new FactManager(clusterManager, cacheInvalidationBus);
+    factManager.startComponent();
+  }
+
+  @Test
+  public void testSaveFactDoesNotReadBeforeWrite() {
+    FactEntity fact = createFact();
+    assertSame(fact, factManager.saveFact(fact));
+
+    verify(factDao).saveIfNotExists(fact);
+    verify(factDao, never()).get(any());
+    verify(factDao, never()).save(any(FactEntity.class));
+    assertSame(fact, factManager.getFact(fact.getId()));
+  }
+
+  @Test
+  public void testSaveFactWithUnknownFactTypeThrowsException() {
+    FactEntity fact = createFact().setTypeID(UUID.randomUUID());
+    assertThrows(IllegalArgumentException.class, () -> factManager.saveFact(fact));
+    verify(factDao, never()).saveIfNotExists(any(FactEntity.class));
+  }
+
+  @Test
+  public void testSaveFactTwiceReportsConflict() {
+    FactEntity fact = createFact();
+    factManager.saveFact(fact);
+
+    ImmutableViolationException ex = assertThrows(ImmutableViolationException.class, () -> factManager.saveFact(createFact().setId(fact.getId())));
+    assertTrue(ex.getMessage().contains(fact.getId().toString()));
+    // The original Fact must not be overwritten.
+    assertSame(fact, factManager.getFact(fact.getId()));
+  }
+
+  @Test
+  public void testSaveFactConcurrentlyOnlyAppliesOnce() throws Exception {
+    UUID id = UUID.randomUUID();
+    int numberOfWriters = 8;
+    AtomicInteger applied = new AtomicInteger();
+    AtomicInteger conflicts = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(numberOfWriters);
+
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < numberOfWriters; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          try {
+            factManager.saveFact(createFact().setId(id));
+            applied.incrementAndGet();
+          } catch (ImmutableViolationException ignored) {
+            conflicts.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, applied.get());
+    assertEquals(numberOfWriters - 1, conflicts.get());
+  }
+
+  @Test
+  public void testSaveChildEntitiesOfNewFactDoesNotReadBeforeWrite() {
+    FactEntity fact = factManager.saveFact(createFact());
+
+    factManager.saveFactAclEntry(createFactAclEntry(fact.getId()));
+    factManager.saveFactComment(createFactComment(fact.getId()));
+    factManager.saveMetaFactBinding(createMetaFactBinding(fact.getId()));
+
+    verify(factDao, never()).get(any());
+    verify(factDao, never()).getAclEntry(any(), any());
+    verify(factDao, never()).getComment(any(), any());
+    verify(factDao, never()).getMetaFactBinding(any(), any());
+  }
+
+  @Test
+  public void testSaveChildEntitiesOfExistingFactReadsFactOnlyOnce() {
+    FactEntity fact = createFact();
+    factDao.save(fact);
+
+    factManager.saveFactAclEntry(createFactAclEntry(fact.getId()));
+    factManager.saveFactComment(createFactComment(fact.getId()));
+    factManager.saveMetaFactBinding(createMetaFactBinding(fact.getId()));
+
+    verify(factDao, times(1)).get(fact.getId());
+  }
+
+  @Test
+  public void testSaveChildEntitiesOfUnknownFactThrowsException() {
+    UUID factID = UUID.randomUUID();
+
+    assertThrows(IllegalArgumentException.class, () -> factManager.saveFactAclEntry(createFactAclEntry(factID)));
+    assertThrows(IllegalArgumentException.class, () -> factManager.saveFactComment(createFactComment(factID)));
+    assertThrows(IllegalArgumentException.class, () -> factManager.saveMetaFactBinding(createMetaFactBinding(factID)));
+    verify(factDao, never()).saveIfNotExists(any(FactAclEntity.class));
+    verify(factDao, never()).saveIfNotExists(any(FactCommentEntity.class));
+    verify(factDao, never()).saveIfNotExists(any(MetaFactBindingEntity.class));
+  }
+
+  @Test
+  public void testSaveFactAclEntryTwiceReportsConflict() {
+    FactEntity fact = factManager.saveFact(createFact());
+    FactAclEntity entry = createFactAclEntry(fact.getId());
+    factManager.saveFactAclEntry(entry);
+
+    FactAclEntity update = createFactAclEntry(fact.getId()).setId(entry.getId());
+    assertThrows(ImmutableViolationException.class, () -> factManager.saveFactAclEntry(update));
+    assertSame(entry, factDao.getAclEntry(fact.getId(), entry.getId()));
+  }
+
+  @Test
+  public void testSaveFactCommentTwiceReportsConflict() {
+    FactEntity fact = factManager.saveFact(createFact());
+    FactCommentEntity comment = createFactComment(fact.getId());
+    factManager.saveFactComment(comment);
+
+    FactCommentEntity update = createFactComment(fact.getId()).setId(comment.getId()).setComment("Updated");
+    assertThrows(ImmutableViolationException.class, () -> factManager.saveFactComment(update));
+    assertSame(comment, factDao.getComment(fact.getId(), comment.getId()));
+  }
+
+  @Test
+  public void testSaveMetaFactBindingTwiceReportsConflict() {
+    FactEntity fact = factManager.saveFact(createFact());
+    MetaFactBindingEntity binding = createMetaFactBinding(fact.getId());
+    factManager.saveMetaFactBinding(binding);
+
+    assertThrows(ImmutableViolationException.class, () -> factManager.saveMetaFactBinding(binding));
+    verify(factDao, times(2)).saveIfNotExists(eq(binding));
+  }
+
+  @Test
+  public void testRefreshAndRetractFactOnlyUpdateAffectedColumns() {
+    FactEntity fact = factManager.saveFact(createFact());
+
+    assertTrue(factManager.refreshFact(fact.getId()).getLastSeenTimestamp() > 0);
+    assertTrue(factManager.retractFact(fact.getId()).getFlags().contains(FactEntity.Flag.RetractedHint));
+
+    verify(factDao).updateLastSeenTimestampIfExists(eq(fact.getId()), anyLong());
+    verify(factDao).addFlagsIfExists(fact.getId(), SetUtils.set(FactEntity.Flag.RetractedHint));
+    verify(factDao, never()).save(any(FactEntity.class));
+    assertTrue(factManager.getFact(fact.getId()).getFlags().contains(FactEntity.Flag.RetractedHint));
+  }
+
+  @Test
+  public void testRefreshFactFailsWhenFactIsRemovedConcurrently() {
+    FactEntity fact = factManager.saveFact(createFact());
+    doReturn(false).when(factDao).updateLastSeenTimestampIfExists(eq(fact.getId()), anyLong());
+
+    assertThrows(IllegalArgumentException.class, () -> factManager.refreshFact(fact.getId()));
+  }
+
+  @Test
+  public void testRetractFactFailsWhenFactIsRemovedConcurrently() {
+    FactEntity fact = factManager.saveFact(createFact());
+    doReturn(false).when(factDao).addFlagsIfExists(eq(fact.getId()), any());
+
+    assertThrows(IllegalArgumentException.class, () -> factManager.retractFact(fact.getId()));
+  }
+
+  @Test
+  public void testRefreshAndRetractNonExistingFactFails() {
+    assertThrows(IllegalArgumentException.class, () -> factManager.refreshFact(UUID.randomUUID()));
+    assertThrows(IllegalArgumentException.class, () -> factManager.retractFact(UUID.randomUUID()));
+    verify(factDao, never()).updateLastSeenTimestampIfExists(any(), anyLong());
+    verify(factDao, never()).addFlagsIfExists(any(), any());
+  }
+
+  @Test
+  public void testSaveFactAsync() {
+    FactEntity fact = createFact();
+    assertSame(fact, factManager.saveFactAsync(fact).toCompletableFuture().join());
+
+    CompletionException ex = assertThrows(CompletionException.class, () -> factManager.saveFactAsync(createFact().setId(fact.getId())).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof ImmutableViolationException);
+    verify(factDao, never()).get(any());
+  }
+
+  @Test
+  public void testSaveFactAsyncWithUnknownFactType() {
+    CompletionStage<FactEntity> stage = factManager.saveFactAsync(createFact().setTypeID(UUID.randomUUID()));
+    CompletionException ex = assertThrows(CompletionException.class, () -> stage.toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testSaveChildEntitiesAsyncOfExistingFactDoesNotBlock() {
+    FactEntity fact = createFact();
+    factDao.save(fact);
+
+    factManager.saveFactAclEntryAsync(createFactAclEntry(fact.getId())).toCompletableFuture().join();
+    factManager.saveFactCommentAsync(createFactComment(fact.getId())).toCompletableFuture().join();
+    factManager.saveMetaFactBindingAsync(createMetaFactBinding(fact.getId())).toCompletableFuture().join();
+
+    verify(factDao, never()).get(any());
+    verify(factDao, times(1)).getAsync(fact.getId());
+  }
+
+  @Test
+  public void testSaveChildEntitiesAsyncOfUnknownFact() {
+    UUID factID = UUID.randomUUID();
+
+    CompletionException ex = assertThrows(CompletionException.class, () -> factManager.saveFactAclEntryAsync(createFactAclEntry(factID)).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    verify(factDao, never()).saveIfNotExistsAsync(any(FactAclEntity.class));
+  }
+
+  @Test
+  public void testSaveChildEntitiesAsyncTwiceReportsConflict() {
+    FactEntity fact = factManager.saveFact(createFact());
+    FactCommentEntity comment = factManager.saveFactCommentAsync(createFactComment(fact.getId())).toCompletableFuture().join();
+
+    CompletionException ex = assertThrows(CompletionException.class, () -> factManager.saveFactCommentAsync(comment).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof ImmutableViolationException);
+  }
+
+  private FactEntity createFact() {
+    return new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(factType.getId())
+            .setValue("value")
+            .setOrganizationID(UUID.randomUUID())
+            .setOriginID(UUID.randomUUID())
+            .setAddedByID(UUID.randomUUID())
+            .setAccessMode(AccessMode.Public)
+            .setTimestamp(1)
+            .setLastSeenTimestamp(2);
+  }
+
+  private FactAclEntity createFactAclEntry(UUID factID) {
+    return new FactAclEntity()
+            .setFactID(factID)
+            .setId(UUID.randomUUID())
+            .setSubjectID(UUID.randomUUID())
+            .setOriginID(UUID.randomUUID())
+            .setTimestamp(1);
+  }
+
+  private FactCommentEntity createFactComment(UUID factID) {
+    return new FactCommentEntity()
+            .setFactID(factID)
+            .setId(UUID.randomUUID())
+            .setOriginID(UUID.randomUUID())
+            .setComment("Comment")
+            .setTimestamp(1);
+  }
+
+  private MetaFactBindingEntity createMetaFactBinding(UUID factID) {
+    return new MetaFactBindingEntity()
+            .setFactID(factID)
+            .setMetaFactID(UUID.randomUUID());
+  }
+}
@@ -0,0 +1,134 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.entity.AccessMode;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.mapper.CassandraMapper;
+import no.mnemonic.act.platform.dao.cassandra.mapper.FactDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.FactTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.InMemoryFactDao;
+import no.mnemonic.act.platform.dao.cassandra.utilities.FactExistenceKey;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Verifies the lookup of existing Facts of {@link FactManager} against an in-memory stand-in of the Cassandra mapper.
+ */
+public class FactManagerFactExistenceTest {
+
+  @Mock
+  private ClusterManager clusterManager;
+  @Mock
+  private CassandraMapper cassandraMapper;
+  @Mock
+  private FactTypeDao factTypeDao;
+
+  private FactDao factDao;
+  private FactManager factManager;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+
+    factDao = spy(new InMemoryFactDao());
+
+    when(clusterManager.getCassandraMapper()).thenReturn(cassandraMapper);
+    when(cassandraMapper.getFactDao()).thenReturn(factDao);
+    when(cassandraMapper.getFactTypeDao()).thenReturn(factTypeDao);
+
+    factManager = new FactManager(clusterManager, new CacheInvalidationBus(new LoopbackCacheInvalidationTransport()));
+    factManager.startComponent();
+  }
+
+  @Test
+  public void testFetchExistingFactIDsWithNullFact() {
+    assertTrue(fetch(null).isEmpty());
+    verify(factDao, never()).fetchExistenceAsync(any());
+  }
+
+  @Test
+  public void testSaveAndFetchExistingFactIDs() {
+    FactEntity fact = createFact();
+    FactEntity sameFact = createFact();
+    save(fact);
+    save(sameFact);
+
+    assertEquals(SetUtils.set(fact.getId(), sameFact.getId()), SetUtils.set(fetch(createFact())));
+    assertTrue(fetch(createFact().setValue("other")).isEmpty());
+    verify(factDao, times(2)).saveAsync(argThat(entry -> FactExistenceKey.of(fact).equals(entry.getFactHash())));
+  }
+
+  @Test
+  public void testFetchExistingFactIDsCachesHits() {
+    FactEntity fact = createFact();
+    save(fact);
+
+    assertEquals(ListUtils.list(fact.getId()), fetch(fact));
+    assertEquals(ListUtils.list(fact.getId()), fetch(fact));
+    verify(factDao).fetchExistenceAsync(FactExistenceKey.of(fact));
+  }
+
+  @Test
+  public void testFetchExistingFactIDsDoesNotCacheMisses() {
+    FactEntity fact = createFact();
+    assertTrue(fetch(fact).isEmpty());
+
+    save(fact);
+    assertEquals(ListUtils.list(fact.getId()), fetch(fact));
+    verify(factDao, times(2)).fetchExistenceAsync(FactExistenceKey.of(fact));
+  }
+
+  @Test
+  public void testSaveFactExistenceExtendsCachedEntry() {
+    FactEntity fact = createFact();
+    FactEntity sameFact = createFact();
+    save(fact);
+    assertEquals(ListUtils.list(fact.getId()), fetch(fact));
+
+    save(sameFact);
+    assertEquals(ListUtils.list(fact.getId(), sameFact.getId()), fetch(fact));
+    verify(factDao).fetchExistenceAsync(FactExistenceKey.of(fact));
+  }
+
+  @Test
+  public void testSaveFactExistenceForOtherFact() {
+    FactEntity fact = createFact();
+    UUID existingID = UUID.randomUUID();
+    factManager.saveFactExistenceAsync(fact, existingID).toCompletableFuture().join();
+
+    assertEquals(ListUtils.list(existingID), fetch(createFact()));
+  }
+
+  private void save(FactEntity fact) {
+    factManager.saveFactExistenceAsync(fact).toCompletableFuture().join();
+  }
+
+  private List<UUID> fetch(FactEntity fact) {
+    return factManager.fetchExistingFactIDsAsync(fact).toCompletableFuture().join();
+  }
+
+  private FactEntity createFact() {
+    return new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(new UUID(0, 1))
+            .setValue("value")
+            .setOrganizationID(new UUID(0, 2))
+            .setOriginID(new UUID(0, 3))
+            .setAccessMode(AccessMode.Public)
+            .setConfidence(0.5f);
+  }
+
+}
@@ -156,6 +156,14 @@ public class FactManagerTest extends AbstractManagerTest {
     assertNull(getFactManager().getFact(UUID.randomUUID()));
   }
 
+  @Test
+  public void testGetFactAsync() {
+    FactEntity entity = createAndSaveFact();
+    assertFact(entity, getFactManager().getFactAsync(entity.getId()).toCompletableFuture().join());
+    assertNull(getFactManager().getFactAsync(null).toCompletableFuture().join());
+    assertNull(getFactManager().getFactAsync(UUID.randomUUID()).toCompletableFuture().join());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testSaveFactWithNonExistingFactType() {
     getFactManager().saveFact(createFact());
@@ -261,6 +269,27 @@ public class FactManagerTest extends AbstractManagerTest {
     assertEquals(0, getFactManager().fetchFactAcl(UUID.randomUUID()).size());
   }
 
+  @Test
+  public void testFetchFactAclForFacts() {
+    FactEntity first = createAndSaveFact();
+    FactEntity second = createAndSaveFact();
+    createAndSaveFactAclEntry(first.getId());
+    createAndSaveFactAclEntry(first.getId());
+    FactAclEntity entry = createAndSaveFactAclEntry(second.getId());
+
+    List<FactAclEntity> acl = ListUtils.list(getFactManager().fetchFactAclForFacts(ListUtils.list(first.getId(), second.getId())));
+    assertEquals(3, acl.size());
+    assertEquals(2, acl.stream().filter(e -> Objects.equals(e.getFactID(), first.getId())).count());
+    assertFactAclEntry(entry, acl.stream().filter(e -> Objects.equals(e.getFactID(), second.getId())).findFirst().orElseThrow(IllegalStateException::new));
+  }
+
+  @Test
+  public void testFetchFactAclForFactsWithNonExistingFact() {
+    assertEquals(0, ListUtils.list(getFactManager().fetchFactAclForFacts(null)).size());
+    assertEquals(0, ListUtils.list(getFactManager().fetchFactAclForFacts(ListUtils.list())).size());
+    assertEquals(0, ListUtils.list(getFactManager().fetchFactAclForFacts(ListUtils.list(UUID.randomUUID()))).size());
+  }
+
   @Test
   public void testSaveFactAclEntryReturnsSameEntity() {
     FactAclEntity entity = createFactAclEntry(createAndSaveFact().getId());
@@ -300,6 +329,27 @@ public class FactManagerTest extends AbstractManagerTest {
     assertEquals(0, getFactManager().fetchFactComments(UUID.randomUUID()).size());
   }
 
+  @Test
+  public void testFetchFactCommentsForFacts() {
+    FactEntity first = createAndSaveFact();
+    FactEntity second = createAndSaveFact();
+    createAndSaveFactComment(first.getId());
+    createAndSaveFactComment(first.getId());
+    FactCommentEntity comment = createAndSaveFactComment(second.getId());
+
+    List<FactCommentEntity> comments = ListUtils.list(getFactManager().fetchFactCommentsForFacts(ListUtils.list(first.getId(), second.getId())));
+    assertEquals(3, comments.size());
+    assertEquals(2, comments.stream().filter(c -> Objects.equals(c.getFactID(), first.getId())).count());
+    assertFactComment(comment, comments.stream().filter(c -> Objects.equals(c.getFactID(), second.getId())).findFirst().orElseThrow(IllegalStateException::new));
+  }
+
+  @Test
+  public void testFetchFactCommentsForFactsWithNonExistingFact() {
+    assertEquals(0, ListUtils.list(getFactManager().fetchFactCommentsForFacts(null)).size());
+    assertEquals(0, ListUtils.list(getFactManager().fetchFactCommentsForFacts(ListUtils.list())).size());
+    assertEquals(0, ListUtils.list(getFactManager().fetchFactCommentsForFacts(ListUtils.list(UUID.randomUUID()))).size());
+  }
+
   @Test
   public void testSaveFactCommentReturnsSameEntity() {
     FactCommentEntity entity = createFactComment(createAndSaveFact().getId());
@@ -362,6 +412,20 @@ public class FactManagerTest extends AbstractManagerTest {
     getFactManager().saveMetaFactBinding(binding);
   }
 
+  @Test
+  public void testSaveAndFetchFactExistence() throws Exception {
+    FactEntity fact = createFact();
+    FactEntity sameFact = createLogicallySameFact(fact);
+    assertTrue(getFactManager().fetchExistingFactIDsAsync(fact).toCompletableFuture().get().isEmpty());
+
+    getFactManager().saveFactExistenceAsync(fact).toCompletableFuture().get();
+    getFactManager().saveFactExistenceAsync(sameFact).toCompletableFuture().get();
+
+    List<UUID> existing = getFactManager().fetchExistingFactIDsAsync(createLogicallySameFact(fact)).toCompletableFuture().get();
+    assertEquals(SetUtils.set(fact.getId(), sameFact.getId()), SetUtils.set(existing));
+    assertTrue(getFactManager().fetchExistingFactIDsAsync(createFact()).toCompletableFuture().get().isEmpty());
+  }
+
   private FactTypeEntity createFactType() {
     return createFactType("factType");
   }
@@ -410,6 +474,14 @@ public class FactManagerTest extends AbstractManagerTest {
                     .setDirection(Direction.BiDirectional)));
   }
 
+  private FactEntity createLogicallySameFact(FactEntity fact) {
+    return createFact(fact.getTypeID(), fact.getValue())
+            .setInReferenceToID(fact.getInReferenceToID())
+            .setOrganizationID(fact.getOrganizationID())
+            .setOriginID(fact.getOriginID())
+            .setBindings(fact.getBindings());
+  }
+
   private FactAclEntity createFactAclEntry(UUID factID) {
     return new FactAclEntity()
             .setFactID(factID)
@@ -0,0 +1,131 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.dao.cassandra.mapper.CassandraMapper;
+import no.mnemonic.act.platform.dao.cassandra.mapper.FactTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.OriginDao;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Verifies that changes of cached entities on one node evict them from the caches of the managers on other nodes.
+ * Two sets of managers sharing one loopback transport simulate two nodes.
+ */
+public class ManagerCacheInvalidationTest {
+
+  @Mock
+  private ClusterManager clusterManager;
+  @Mock
+  private CassandraMapper cassandraMapper;
+  @Mock
+  private FactTypeDao factTypeDao;
+  @Mock
+  private ObjectTypeDao objectTypeDao;
+  @Mock
+  private OriginDao originDao;
+
+  private LoopbackCacheInvalidationTransport transport;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(clusterManager.getCassandraMapper()).thenReturn(cassandraMapper);
+    when(cassandraMapper.getFactTypeDao()).thenReturn(factTypeDao);
+    when(cassandraMapper.getObjectTypeDao()).thenReturn(objectTypeDao);
+    when(cassandraMapper.getOriginDao()).thenReturn(originDao);
+
+    transport = new LoopbackCacheInvalidationTransport();
+  }
+
+  @Test
+  public void testSaveFactTypeInvalidatesOtherNode() {
+    FactManager node1 = startFactManager();
+    FactManager node2 = startFactManager();
+    FactTypeEntity type = new FactTypeEntity().setId(UUID.randomUUID()).setName("old");
+    FactTypeEntity renamed = new FactTypeEntity().setId(type.getId()).setName("new");
+    when(factTypeDao.get(type.getId())).thenReturn(type, renamed);
+    when(factTypeDao.get("old")).thenReturn(type);
+
+    assertEquals("old", node2.getFactType(type.getId()).getName());
+    assertNotNull(node2.getFactType("old"));
+    node1.saveFactType(renamed);
+
+    assertEquals("new", node2.getFactType(type.getId()).getName());
+    verify(factTypeDao, times(2)).get(type.getId());
+    // The entry cached by the old name is evicted as well.
+    when(factTypeDao.get("old")).thenReturn(null);
+    assertNull(node2.getFactType("old"));
+  }
+
+  @Test
+  public void testSaveObjectTypeInvalidatesOtherNode() {
+    ObjectManager node1 = startObjectManager();
+    ObjectManager node2 = startObjectManager();
+    ObjectTypeEntity type = new ObjectTypeEntity().setId(UUID.randomUUID()).setName("old");
+    ObjectTypeEntity renamed = new ObjectTypeEntity().setId(type.getId()).setName("new");
+    when(objectTypeDao.get(type.getId())).thenReturn(type, renamed);
+
+    assertEquals("old", node2.getObjectType(type.getId()).getName());
+    node1.saveObjectType(renamed);
+
+    assertEquals("new", node2.getObjectType(type.getId()).getName());
+    verify(objectTypeDao, times(2)).get(type.getId());
+  }
+
+  @Test
+  public void testSaveOriginInvalidatesOtherNode() {
+    OriginManager node1 = startOriginManager();
+    OriginManager node2 = startOriginManager();
+    OriginEntity origin = new OriginEntity().setId(UUID.randomUUID()).setName("old");
+    OriginEntity renamed = new OriginEntity().setId(origin.getId()).setName("new");
+    when(originDao.get(origin.getId())).thenReturn(origin, renamed);
+
+    assertEquals("old", node2.getOrigin(origin.getId()).getName());
+    node1.saveOrigin(renamed);
+
+    assertEquals("new", node2.getOrigin(origin.getId()).getName());
+    verify(originDao, times(2)).get(origin.getId());
+  }
+
+  @Test
+  public void testCachedEntityIsNotReloadedWithoutInvalidation() {
+    OriginManager node = startOriginManager();
+    OriginEntity origin = new OriginEntity().setId(UUID.randomUUID()).setName("origin");
+    when(originDao.get(origin.getId())).thenReturn(origin);
+
+    node.getOrigin(origin.getId());
+    node.getOrigin(origin.getId());
+
+    verify(originDao).get(origin.getId());
+  }
+
+  private FactManager startFactManager() {
+    FactManager manager = new FactManager(clusterManager, new CacheInvalidationBus(transport));
+    manager.startComponent();
+    return manager;
+  }
+
+  private ObjectManager startObjectManager() {
+    ObjectManager manager = new ObjectManager(clusterManager, new CacheInvalidationBus(transport));
+    manager.startComponent();
+    return manager;
+  }
+
+  private OriginManager startOriginManager() {
+    OriginManager manager = new OriginManager(clusterManager, new CacheInvalidationBus(transport));
+    manager.startComponent();
+    return manager;
+  }
+}
@@ -0,0 +1,205 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectByTypeValueEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
+import no.mnemonic.act.platform.dao.cassandra.mapper.CassandraMapper;
+import no.mnemonic.act.platform.dao.cassandra.mapper.InMemoryObjectDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectDao;
+import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectTypeDao;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Verifies the conditional write path of {@link ObjectManager} against an in-memory stand-in of the Cassandra mapper.
+ */
+public class ObjectManagerConditionalWriteTest {
+
+  @Mock
+  private ClusterManager clusterManager;
+  @Mock
+  private CassandraMapper cassandraMapper;
+  @Mock
+  private ObjectTypeDao objectTypeDao;
+
+  private ObjectDao objectDao;
+  private ObjectManager objectManager;
+  private ObjectTypeEntity objectType;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+
+    objectDao = spy(new InMemoryObjectDao());
+    objectType = new ObjectTypeEntity().setId(UUID.randomUUID()).setName("objectType");
+
+    when(clusterManager.getCassandraMapper()).thenReturn(cassandraMapper);
+    when(cassandraMapper.getObjectDao()).thenReturn(objectDao);
+    when(cassandraMapper.getObjectTypeDao()).thenReturn(objectTypeDao);
+    when(objectTypeDao.get(objectType.getId())).thenReturn(objectType);
+    when(objectTypeDao.get(objectType.getName())).thenReturn(objectType);
+
+    CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport());
+
+    objectManager = new ObjectManager(clusterManager, cacheInvalidationBus);
+    objectManager.startComponent();
+  }
+
+  @Test
+  public void testSaveObjectDoesNotReadBeforeWrite() {
+    ObjectEntity object = createObject("value");
+    assertSame(object, objectManager.saveObject(object));
+
+    InOrder inOrder = inOrder(objectDao);
+    inOrder.verify(objectDao).saveIfNotExists(object);
+    inOrder.verify(objectDao).saveIfNotExists(any(ObjectByTypeValueEntity.class));
+    verify(objectDao, never()).get(any());
+    verify(objectDao, never()).getObjectByTypeValue(any(), any());
+    assertSame(object, objectManager.getObject(objectType.getName(), "value"));
+  }
+
+  @Test
+  public void testSaveObjectWithUnknownObjectTypeThrowsException() {
+    ObjectEntity object = createObject("value").setTypeID(UUID.randomUUID());
+    assertThrows(IllegalArgumentException.class, () -> objectManager.saveObject(object));
+    verify(objectDao, never()).saveIfNotExists(any(ObjectByTypeValueEntity.class));
+  }
+
+  @Test
+  public void testSaveSameObjectTwiceReportsConflict() {
+    ObjectEntity object = objectManager.saveObject(createObject("value"));
+
+    ObjectEntity duplicate = createObject("value");
+    ImmutableViolationException ex = assertThrows(ImmutableViolationException.class, () -> objectManager.saveObject(duplicate));
+    assertTrue(ex.getMessage().contains("value"));
+    // Neither the existing Object nor its ObjectByTypeValue mapping must be overwritten.
+    assertSame(object, objectManager.getObject(objectType.getName(), "value"));
+    assertSame(object, objectManager.getObject(object.getId()));
+    // The duplicate isn't kept.
+    verify(objectDao).deleteIfExists(duplicate.getId());
+    assertNull(objectDao.get(duplicate.getId()));
+  }
+
+  @Test
+  public void testSaveObjectWithExistingIdReportsConflict() {
+    ObjectEntity object = objectManager.saveObject(createObject("value"));
+
+    ObjectEntity update = createObject("otherValue").setId(object.getId());
+    assertThrows(ImmutableViolationException.class, () -> objectManager.saveObject(update));
+    verify(objectDao, never()).deleteIfExists(any());
+    assertSame(object, objectDao.get(object.getId()));
+    assertNull(objectManager.getObject(objectType.getName(), "otherValue"));
+  }
+
+  @Test
+  public void testSaveObjectFailsWhenSavingObjectFails() {
+    ObjectEntity object = createObject("value");
+    doThrow(IllegalStateException.class).when(objectDao).saveIfNotExists(object);
+
+    assertThrows(IllegalStateException.class, () -> objectManager.saveObject(object));
+    // No ObjectByTypeValue mapping pointing to a non-existing Object must be left behind.
+    verify(objectDao, never()).saveIfNotExists(any(ObjectByTypeValueEntity.class));
+    assertNull(objectDao.getObjectByTypeValue(objectType.getId(), "value"));
+    // The Object can be saved again afterwards.
+    doCallRealMethod().when(objectDao).saveIfNotExists(object);
+    assertSame(object, objectManager.saveObject(object));
+  }
+
+  @Test
+  public void testSaveObjectReportsConflictWhenRemovingDuplicateFails() {
+    objectManager.saveObject(createObject("value"));
+    doThrow(IllegalStateException.class).when(objectDao).deleteIfExists(any());
+
+    assertThrows(ImmutableViolationException.class, () -> objectManager.saveObject(createObject("value")));
+  }
+
+  @Test
+  public void testSaveObjectFactBindingOfNewObjectDoesNotReadBeforeWrite() {
+    ObjectEntity object = objectManager.saveObject(createObject("value"));
+    objectManager.saveObjectFactBinding(createObjectFactBinding(object.getId()));
+
+    verify(objectDao, never()).get(any());
+    verify(objectDao, never()).getObjectFactBinding(any(), any());
+  }
+
+  @Test
+  public void testSaveObjectFactBindingsOfExistingObjectReadsObjectOnlyOnce() {
+    ObjectEntity object = createObject("value");
+    objectDao.save(object);
+
+    objectManager.saveObjectFactBinding(createObjectFactBinding(object.getId()));
+    objectManager.saveObjectFactBinding(createObjectFactBinding(object.getId()));
+
+    verify(objectDao, times(1)).get(object.getId());
+  }
+
+  @Test
+  public void testSaveObjectFactBindingOfUnknownObjectThrowsException() {
+    assertThrows(IllegalArgumentException.class, () -> objectManager.saveObjectFactBinding(createObjectFactBinding(UUID.randomUUID())));
+    verify(objectDao, never()).saveIfNotExists(any(ObjectFactBindingEntity.class));
+  }
+
+  @Test
+  public void testSaveObjectFactBindingTwiceReportsConflict() {
+    ObjectEntity object = objectManager.saveObject(createObject("value"));
+    ObjectFactBindingEntity binding = createObjectFactBinding(object.getId());
+    objectManager.saveObjectFactBinding(binding);
+
+    ObjectFactBindingEntity update = createObjectFactBinding(object.getId())
+            .setFactID(binding.getFactID())
+            .setDirection(Direction.FactIsSource);
+    assertThrows(ImmutableViolationException.class, () -> objectManager.saveObjectFactBinding(update));
+    assertSame(binding, objectDao.getObjectFactBinding(object.getId(), binding.getFactID()));
+  }
+
+  @Test
+  public void testSaveObjectFactBindingAsync() {
+    ObjectEntity object = createObject("value");
+    objectDao.save(object);
+    ObjectFactBindingEntity binding = createObjectFactBinding(object.getId());
+
+    assertSame(binding, objectManager.saveObjectFactBindingAsync(binding).toCompletableFuture().join());
+    CompletionException ex = assertThrows(CompletionException.class, () -> objectManager.saveObjectFactBindingAsync(binding).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof ImmutableViolationException);
+    verify(objectDao, never()).get(any());
+    verify(objectDao, times(1)).getAsync(object.getId());
+  }
+
+  @Test
+  public void testSaveObjectFactBindingAsyncOfUnknownObject() {
+    ObjectFactBindingEntity binding = createObjectFactBinding(UUID.randomUUID());
+
+    CompletionException ex = assertThrows(CompletionException.class, () -> objectManager.saveObjectFactBindingAsync(binding).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    verify(objectDao, never()).saveIfNotExistsAsync(any(ObjectFactBindingEntity.class));
+  }
+
+  private ObjectEntity createObject(String value) {
+    return new ObjectEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(objectType.getId())
+            .setValue(value);
+  }
+
+  private ObjectFactBindingEntity createObjectFactBinding(UUID objectID) {
+    return new ObjectFactBindingEntity()
+            .setObjectID(objectID)
+            .setFactID(UUID.randomUUID())
+            .setDirection(Direction.BiDirectional);
+  }
+}
@@ -0,0 +1,325 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import com.datastax.oss.driver.api.core.PagingIterable;
+import no.mnemonic.act.platform.dao.api.criteria.ObjectStatisticsCriteria;
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
+import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.cassandra.mapper.CassandraMapper;
+import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectStatisticsDao;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Verifies the access scopes of {@link ObjectStatisticsManager} against an in-memory stand-in of the statistics tables.
+ */
+public class ObjectStatisticsManagerTest {
+
+  private static final UUID ORGANIZATION = UUID.randomUUID();
+  private static final UUID OTHER_ORGANIZATION = UUID.randomUUID();
+  private static final UUID SUBJECT = UUID.randomUUID();
+  private static final UUID OTHER_SUBJECT = UUID.randomUUID();
+
+  @Mock
+  private ClusterManager clusterManager;
+  @Mock
+  private CassandraMapper cassandraMapper;
+  @Mock
+  private ObjectStatisticsDao objectStatisticsDao;
+
+  // Rows of both tables keyed by (objectID, scope, factTypeID).
+  private final Map<List<Object>, ObjectStatisticsEntity> counts = new HashMap<>();
+  private final Map<List<Object>, ObjectStatisticsTimestampEntity> timestamps = new HashMap<>();
+  private final Map<UUID, Boolean> materialized = new HashMap<>();
+
+  private ObjectStatisticsManager manager;
+  private UUID objectID;
+  private UUID factTypeID;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    mockObjectStatisticsDao();
+
+    when(clusterManager.getCassandraMapper()).thenReturn(cassandraMapper);
+    when(cassandraMapper.getObjectStatisticsDao()).thenReturn(objectStatisticsDao);
+
+    manager = new ObjectStatisticsManager(clusterManager);
+    manager.startComponent();
+
+    objectID = UUID.randomUUID();
+    factTypeID = UUID.randomUUID();
+    manager.markMaterializedAsync(objectID);
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsWithNull() {
+    assertTrue(manager.calculateObjectStatistics(null).isEmpty());
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsSkipsNotMaterializedObjects() {
+    UUID otherObjectID = UUID.randomUUID();
+    manager.addFactAsync(createFact(AccessMode.Public, objectID, otherObjectID), SetUtils.set());
+    manager.markNotMaterializedAsync(objectID);
+
+    assertTrue(manager.calculateObjectStatistics(createCriteria(SUBJECT, ORGANIZATION, objectID, otherObjectID)).isEmpty());
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsForMaterializedObjectWithoutFacts() {
+    Map<UUID, Collection<ObjectStatisticsContainer.FactStatistic>> statistics = manager.calculateObjectStatistics(createCriteria(SUBJECT, ORGANIZATION, objectID));
+    assertEquals(SetUtils.set(objectID), statistics.keySet());
+    assertTrue(statistics.get(objectID).isEmpty());
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsPublicFact() {
+    manager.addFactAsync(createFact(AccessMode.Public, objectID), SetUtils.set(SUBJECT));
+
+    assertFactCount(1, SUBJECT, ORGANIZATION);
+    assertFactCount(1, OTHER_SUBJECT, OTHER_ORGANIZATION);
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsRoleBasedFact() {
+    manager.addFactAsync(createFact(AccessMode.RoleBased, objectID), SetUtils.set(SUBJECT));
+
+    // Visible through the Organization, counted only once even if the user is also in the ACL.
+    assertFactCount(1, SUBJECT, ORGANIZATION);
+    assertFactCount(1, OTHER_SUBJECT, ORGANIZATION);
+    // Visible through the ACL.
+    assertFactCount(1, SUBJECT, OTHER_ORGANIZATION);
+    // Not visible at all.
+    assertFactCount(0, OTHER_SUBJECT, OTHER_ORGANIZATION);
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsExplicitFact() {
+    manager.addFactAsync(createFact(AccessMode.Explicit, objectID), SetUtils.set(SUBJECT));
+
+    assertFactCount(1, SUBJECT, ORGANIZATION);
+    assertFactCount(1, SUBJECT, OTHER_ORGANIZATION);
+    assertFactCount(0, OTHER_SUBJECT, ORGANIZATION);
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsCombinesScopes() {
+    FactEntity first = createFact(AccessMode.Public, objectID).setTimestamp(100).setLastSeenTimestamp(400);
+    FactEntity second = createFact(AccessMode.RoleBased, objectID).setTimestamp(300).setLastSeenTimestamp(300);
+    FactEntity third = createFact(AccessMode.Explicit, objectID).setTimestamp(200).setLastSeenTimestamp(200);
+    manager.addFactAsync(first, SetUtils.set());
+    manager.addFactAsync(second, SetUtils.set());
+    manager.addFactAsync(third, SetUtils.set(SUBJECT));
+
+    ObjectStatisticsContainer.FactStatistic statistic = calculateStatistic(SUBJECT, ORGANIZATION);
+    assertEquals(factTypeID, statistic.getFactTypeID());
+    assertEquals(3, statistic.getFactCount());
+    assertEquals(300, statistic.getLastAddedTimestamp());
+    assertEquals(400, statistic.getLastSeenTimestamp());
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsSeparatesFactTypes() {
+    manager.addFactAsync(createFact(AccessMode.Public, objectID), SetUtils.set());
+    manager.addFactAsync(createFact(AccessMode.Public, objectID).setTypeID(UUID.randomUUID()), SetUtils.set());
+
+    Collection<ObjectStatisticsContainer.FactStatistic> statistics = manager.calculateObjectStatistics(createCriteria(SUBJECT, ORGANIZATION, objectID)).get(objectID);
+    assertEquals(2, statistics.size());
+    assertTrue(statistics.stream().allMatch(statistic -> statistic.getFactCount() == 1));
+  }
+
+  @Test
+  public void testAddFactCountsObjectOnlyOnce() {
+    FactEntity fact = createFact(AccessMode.Public, objectID)
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(objectID).setDirection(Direction.FactIsDestination));
+    manager.addFactAsync(fact, SetUtils.set());
+
+    assertFactCount(1, SUBJECT, ORGANIZATION);
+  }
+
+  @Test
+  public void testAddFactWithoutAccessModeDoesNothing() {
+    manager.addFactAsync(createFact(null, objectID), SetUtils.set(SUBJECT));
+    verify(objectStatisticsDao, never()).incrementFactCountAsync(any(), any(), any(), anyLong());
+  }
+
+  @Test
+  public void testRefreshFactUpdatesLastSeenTimestampOnly() {
+    FactEntity fact = createFact(AccessMode.RoleBased, objectID).setTimestamp(100).setLastSeenTimestamp(100);
+    manager.addFactAsync(fact, SetUtils.set());
+    manager.refreshFactAsync(fact.setLastSeenTimestamp(500), SetUtils.set());
+
+    ObjectStatisticsContainer.FactStatistic statistic = calculateStatistic(SUBJECT, ORGANIZATION);
+    assertEquals(1, statistic.getFactCount());
+    assertEquals(100, statistic.getLastAddedTimestamp());
+    assertEquals(500, statistic.getLastSeenTimestamp());
+  }
+
+  @Test
+  public void testRefreshFactKeepsNewestLastSeenTimestamp() {
+    FactEntity fact = createFact(AccessMode.Public, objectID).setTimestamp(100).setLastSeenTimestamp(500);
+    manager.addFactAsync(fact, SetUtils.set());
+    manager.refreshFactAsync(fact.setLastSeenTimestamp(200), SetUtils.set());
+
+    assertEquals(500, calculateStatistic(SUBJECT, ORGANIZATION).getLastSeenTimestamp());
+  }
+
+  @Test
+  public void testAddFactAclSubjectsGrantsAccess() {
+    FactEntity fact = createFact(AccessMode.RoleBased, objectID);
+    manager.addFactAsync(fact, SetUtils.set());
+    assertFactCount(0, SUBJECT, OTHER_ORGANIZATION);
+
+    manager.addFactAclSubjectsAsync(fact, SetUtils.set(SUBJECT));
+    assertFactCount(1, SUBJECT, OTHER_ORGANIZATION);
+    // Users of the owning Organization still see the Fact only once.
+    assertFactCount(1, SUBJECT, ORGANIZATION);
+  }
+
+  @Test
+  public void testAddFactAclSubjectsForPublicFactDoesNothing() {
+    manager.addFactAclSubjectsAsync(createFact(AccessMode.Public, objectID), SetUtils.set(SUBJECT));
+    verify(objectStatisticsDao, never()).incrementFactCountAsync(any(), any(), any(), anyLong());
+  }
+
+  @Test
+  public void testRecalculateObjectStatisticsCorrectsFactCounts() {
+    FactEntity publicFact = createFact(AccessMode.Public, objectID);
+    FactEntity explicitFact = createFact(AccessMode.Explicit, objectID);
+    // The count of the public Fact has been incremented twice, the explicit Fact is missing.
+    manager.addFactAsync(publicFact, SetUtils.set());
+    manager.addFactAsync(publicFact, SetUtils.set());
+    manager.markNotMaterializedAsync(objectID);
+
+    manager.recalculateObjectStatistics(objectID, ListUtils.list(publicFact, explicitFact),
+            Collections.singletonMap(explicitFact.getId(), SetUtils.set(SUBJECT)));
+
+    assertFactCount(2, SUBJECT, ORGANIZATION);
+    assertFactCount(1, OTHER_SUBJECT, ORGANIZATION);
+    assertTrue(materialized.get(objectID));
+  }
+
+  @Test
+  public void testRecalculateObjectStatisticsWithoutFactsResetsFactCounts() {
+    manager.addFactAsync(createFact(AccessMode.Public, objectID), SetUtils.set());
+
+    manager.recalculateObjectStatistics(objectID, ListUtils.list(), Collections.emptyMap());
+
+    assertFactCount(0, SUBJECT, ORGANIZATION);
+    assertTrue(materialized.get(objectID));
+  }
+
+  @Test
+  public void testRecalculateObjectStatisticsKeepsCorrectFactCounts() {
+    FactEntity fact = createFact(AccessMode.RoleBased, objectID);
+    manager.addFactAsync(fact, SetUtils.set(SUBJECT));
+    clearInvocations(objectStatisticsDao);
+
+    manager.recalculateObjectStatistics(objectID, ListUtils.list(fact), Collections.singletonMap(fact.getId(), SetUtils.set(SUBJECT)));
+
+    verify(objectStatisticsDao, never()).incrementFactCountAsync(any(), any(), any(), anyLong());
+    assertFactCount(1, SUBJECT, OTHER_ORGANIZATION);
+  }
+
+  private void assertFactCount(int expected, UUID currentUserID, UUID availableOrganizationID) {
+    Collection<ObjectStatisticsContainer.FactStatistic> statistics = manager.calculateObjectStatistics(createCriteria(currentUserID, availableOrganizationID, objectID)).get(objectID);
+    assertEquals(expected, statistics.stream().mapToInt(ObjectStatisticsContainer.FactStatistic::getFactCount).sum());
+  }
+
+  private ObjectStatisticsContainer.FactStatistic calculateStatistic(UUID currentUserID, UUID availableOrganizationID) {
+    Collection<ObjectStatisticsContainer.FactStatistic> statistics = manager.calculateObjectStatistics(createCriteria(currentUserID, availableOrganizationID, objectID)).get(objectID);
+    assertEquals(1, statistics.size());
+    return statistics.iterator().next();
+  }
+
+  private ObjectStatisticsCriteria createCriteria(UUID currentUserID, UUID availableOrganizationID, UUID... objectID) {
+    return ObjectStatisticsCriteria.builder()
+            .setObjectID(SetUtils.set(objectID))
+            .setCurrentUserID(currentUserID)
+            .addAvailableOrganizationID(availableOrganizationID)
+            .build();
+  }
+
+  private FactEntity createFact(AccessMode accessMode, UUID... objectID) {
+    FactEntity fact = new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(factTypeID)
+            .setOrganizationID(ORGANIZATION)
+            .setAccessMode(accessMode)
+            .setTimestamp(123456789)
+            .setLastSeenTimestamp(987654321);
+    Arrays.stream(objectID).forEach(id -> fact.addBinding(new FactEntity.FactObjectBinding().setObjectID(id).setDirection(Direction.FactIsSource)));
+    return fact;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void mockObjectStatisticsDao() {
+    when(objectStatisticsDao.incrementFactCountAsync(any(), any(), any(), anyLong())).thenAnswer(i -> {
+      ObjectStatisticsEntity entity = counts.computeIfAbsent(key(i.getArgument(0), i.getArgument(1), i.getArgument(2)),
+              k -> new ObjectStatisticsEntity().setObjectID(i.getArgument(0)).setScope(i.getArgument(1)).setFactTypeID(i.getArgument(2)));
+      entity.setFactCount(entity.getFactCount() + i.<Long>getArgument(3));
+      return CompletableFuture.completedFuture(null);
+    });
+    // Emulate that Cassandra keeps the value with the highest write time.
+    when(objectStatisticsDao.saveLastAddedTimestampAsync(any(), any(), any(), anyLong(), anyLong())).thenAnswer(i -> {
+      ObjectStatisticsTimestampEntity entity = timestampRow(i.getArgument(0), i.getArgument(1), i.getArgument(2));
+      entity.setLastAddedTimestamp(Math.max(entity.getLastAddedTimestamp(), i.<Long>getArgument(3)));
+      return CompletableFuture.completedFuture(null);
+    });
+    when(objectStatisticsDao.saveLastSeenTimestampAsync(any(), any(), any(), anyLong(), anyLong())).thenAnswer(i -> {
+      ObjectStatisticsTimestampEntity entity = timestampRow(i.getArgument(0), i.getArgument(1), i.getArgument(2));
+      entity.setLastSeenTimestamp(Math.max(entity.getLastSeenTimestamp(), i.<Long>getArgument(3)));
+      return CompletableFuture.completedFuture(null);
+    });
+    when(objectStatisticsDao.saveMaterializedAsync(any(), anyBoolean())).thenAnswer(i -> {
+      materialized.put(i.getArgument(0), i.getArgument(1));
+      return CompletableFuture.completedFuture(null);
+    });
+    when(objectStatisticsDao.fetchStatistics(anyList())).thenAnswer(i -> pagingIterable(counts.values()
+            .stream()
+            .filter(entity -> i.<List<UUID>>getArgument(0).contains(entity.getObjectID()))
+            .collect(Collectors.toList())));
+    when(objectStatisticsDao.fetchTimestamps(anyList())).thenAnswer(i -> {
+      List<ObjectStatisticsTimestampEntity> rows = new ArrayList<>();
+      for (UUID id : i.<List<UUID>>getArgument(0)) {
+        if (!materialized.containsKey(id)) continue;
+        List<ObjectStatisticsTimestampEntity> objectRows = timestamps.values()
+                .stream()
+                .filter(entity -> id.equals(entity.getObjectID()))
+                .collect(Collectors.toList());
+        // A partition with only the static column set is returned as one row without clustering columns.
+        if (objectRows.isEmpty()) objectRows.add(new ObjectStatisticsTimestampEntity().setObjectID(id));
+        objectRows.forEach(entity -> rows.add(entity.setMaterialized(materialized.get(id))));
+      }
+      return pagingIterable(rows);
+    });
+  }
+
+  private ObjectStatisticsTimestampEntity timestampRow(UUID objectID, String scope, UUID factTypeID) {
+    return timestamps.computeIfAbsent(key(objectID, scope, factTypeID),
+            k -> new ObjectStatisticsTimestampEntity().setObjectID(objectID).setScope(scope).setFactTypeID(factTypeID));
+  }
+
+  private List<Object> key(UUID objectID, String scope, UUID factTypeID) {
+    return ListUtils.list(objectID, scope, factTypeID);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> PagingIterable<T> pagingIterable(List<T> rows) {
+    PagingIterable<T> iterable = mock(PagingIterable.class);
+    when(iterable.iterator()).thenAnswer(i -> rows.iterator());
+    return iterable;
+  }
+}
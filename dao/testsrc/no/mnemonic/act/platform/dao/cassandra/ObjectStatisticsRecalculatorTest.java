@@ -0,0 +1,58 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import no.mnemonic.act.platform.dao.cassandra.entity.FactAclEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ObjectStatisticsRecalculatorTest {
+
+  @Mock
+  private ObjectManager objectManager;
+  @Mock
+  private FactManager factManager;
+  @Mock
+  private ObjectStatisticsManager objectStatisticsManager;
+
+  private ObjectStatisticsRecalculator recalculator;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    recalculator = new ObjectStatisticsRecalculator(objectManager, factManager, objectStatisticsManager);
+  }
+
+  @Test
+  public void testRecalculateWithNullObject() {
+    recalculator.recalculate(null);
+    verifyNoInteractions(objectManager, factManager, objectStatisticsManager);
+  }
+
+  @Test
+  public void testRecalculateFromBoundFactsAndTheirAcl() {
+    UUID objectID = UUID.randomUUID();
+    FactEntity fact = new FactEntity().setId(UUID.randomUUID());
+    UUID subjectID = UUID.randomUUID();
+    List<UUID> factID = ListUtils.list(fact.getId());
+    when(objectManager.fetchObjectFactBindings(objectID))
+            .thenReturn(ListUtils.list(new ObjectFactBindingEntity().setObjectID(objectID).setFactID(fact.getId())).iterator());
+    when(factManager.getFacts(factID)).thenReturn(ListUtils.list(fact).iterator());
+    when(factManager.fetchFactAclForFacts(factID))
+            .thenReturn(ListUtils.list(new FactAclEntity().setFactID(fact.getId()).setSubjectID(subjectID)).iterator());
+
+    recalculator.recalculate(objectID);
+    verify(objectStatisticsManager).recalculateObjectStatistics(objectID, ListUtils.list(fact),
+            MapUtils.map(MapUtils.pair(fact.getId(), SetUtils.set(subjectID))));
+  }
+}
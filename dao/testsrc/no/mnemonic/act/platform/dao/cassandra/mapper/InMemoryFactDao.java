@@ -0,0 +1,221 @@
+package no.mnemonic.act.platform.dao.cassandra.mapper;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactAclEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactCommentEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactExistenceEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.MetaFactBindingEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory stand-in for the {@link FactDao} generated by the Cassandra mapper. Conditional inserts behave like
+ * lightweight transactions, i.e. they are only applied if no row with the same primary key exists.
+ */
+public class InMemoryFactDao implements FactDao {
+
+  private final Map<UUID, FactEntity> facts = new ConcurrentHashMap<>();
+  private final Map<List<UUID>, MetaFactBindingEntity> metaFactBindings = new ConcurrentHashMap<>();
+  private final Map<List<UUID>, FactAclEntity> aclEntries = new ConcurrentHashMap<>();
+  private final Map<List<UUID>, FactCommentEntity> comments = new ConcurrentHashMap<>();
+  private final Map<String, Set<UUID>> existence = new ConcurrentHashMap<>();
+
+  @Override
+  public void save(FactEntity entity) {
+    facts.put(entity.getId(), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(FactEntity entity) {
+    return facts.putIfAbsent(entity.getId(), entity) == null;
+  }
+
+  @Override
+  public CompletionStage<Boolean> saveIfNotExistsAsync(FactEntity entity) {
+    return CompletableFuture.supplyAsync(() -> saveIfNotExists(entity));
+  }
+
+  @Override
+  public boolean updateLastSeenTimestampIfExists(UUID id, long lastSeenTimestamp) {
+    return facts.computeIfPresent(id, (key, fact) -> fact.setLastSeenTimestamp(lastSeenTimestamp)) != null;
+  }
+
+  @Override
+  public boolean addFlagsIfExists(UUID id, Set<FactEntity.Flag> flags) {
+    return facts.computeIfPresent(id, (key, fact) -> {
+      flags.forEach(fact::addFlag);
+      return fact;
+    }) != null;
+  }
+
+  @Override
+  public FactEntity get(UUID id) {
+    return facts.get(id);
+  }
+
+  @Override
+  public CompletionStage<FactEntity> getAsync(UUID id) {
+    return CompletableFuture.supplyAsync(() -> facts.get(id));
+  }
+
+  @Override
+  public CompletionStage<MappedAsyncPagingIterable<FactEntity>> fetchByIDAsync(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public PagingIterable<FactEntity> fetchAll() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public CompletionStage<Void> saveAsync(FactExistenceEntity entity) {
+    return CompletableFuture.runAsync(() -> existence.computeIfAbsent(entity.getFactHash(), hash -> new ConcurrentSkipListSet<>()).add(entity.getFactID()));
+  }
+
+  @Override
+  public CompletionStage<MappedAsyncPagingIterable<FactExistenceEntity>> fetchExistenceAsync(String hash) {
+    return CompletableFuture.supplyAsync(() -> new SinglePage<>(ListUtils.list(existence.getOrDefault(hash, Collections.emptySet()),
+            id -> new FactExistenceEntity().setFactHash(hash).setFactID(id))));
+  }
+
+  @Override
+  public void save(MetaFactBindingEntity entity) {
+    metaFactBindings.put(ListUtils.list(entity.getFactID(), entity.getMetaFactID()), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(MetaFactBindingEntity entity) {
+    return metaFactBindings.putIfAbsent(ListUtils.list(entity.getFactID(), entity.getMetaFactID()), entity) == null;
+  }
+
+  @Override
+  public CompletionStage<Boolean> saveIfNotExistsAsync(MetaFactBindingEntity entity) {
+    return CompletableFuture.supplyAsync(() -> saveIfNotExists(entity));
+  }
+
+  @Override
+  public MetaFactBindingEntity getMetaFactBinding(UUID factID, UUID metaFactID) {
+    return metaFactBindings.get(ListUtils.list(factID, metaFactID));
+  }
+
+  @Override
+  public PagingIterable<MetaFactBindingEntity> fetchMetaFactBindings(UUID id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void save(FactAclEntity entity) {
+    aclEntries.put(ListUtils.list(entity.getFactID(), entity.getId()), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(FactAclEntity entity) {
+    return aclEntries.putIfAbsent(ListUtils.list(entity.getFactID(), entity.getId()), entity) == null;
+  }
+
+  @Override
+  public CompletionStage<Boolean> saveIfNotExistsAsync(FactAclEntity entity) {
+    return CompletableFuture.supplyAsync(() -> saveIfNotExists(entity));
+  }
+
+  @Override
+  public FactAclEntity getAclEntry(UUID factID, UUID id) {
+    return aclEntries.get(ListUtils.list(factID, id));
+  }
+
+  @Override
+  public PagingIterable<FactAclEntity> fetchAcl(UUID id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public CompletionStage<MappedAsyncPagingIterable<FactAclEntity>> fetchAclByFactIDAsync(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void save(FactCommentEntity entity) {
+    comments.put(ListUtils.list(entity.getFactID(), entity.getId()), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(FactCommentEntity entity) {
+    return comments.putIfAbsent(ListUtils.list(entity.getFactID(), entity.getId()), entity) == null;
+  }
+
+  @Override
+  public CompletionStage<Boolean> saveIfNotExistsAsync(FactCommentEntity entity) {
+    return CompletableFuture.supplyAsync(() -> saveIfNotExists(entity));
+  }
+
+  @Override
+  public FactCommentEntity getComment(UUID factID, UUID id) {
+    return comments.get(ListUtils.list(factID, id));
+  }
+
+  @Override
+  public PagingIterable<FactCommentEntity> fetchComments(UUID id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public CompletionStage<MappedAsyncPagingIterable<FactCommentEntity>> fetchCommentsByFactIDAsync(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Result consisting of exactly one page.
+   */
+  private static class SinglePage<T> implements MappedAsyncPagingIterable<T> {
+    private final List<T> elements;
+
+    private SinglePage(List<T> elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ExecutionInfo getExecutionInfo() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int remaining() {
+      return elements.size();
+    }
+
+    @Override
+    public Iterable<T> currentPage() {
+      return elements;
+    }
+
+    @Override
+    public boolean hasMorePages() {
+      return false;
+    }
+
+    @Override
+    public CompletionStage<MappedAsyncPagingIterable<T>> fetchNextPage() {
+      throw new IllegalStateException("No more pages.");
+    }
+
+    @Override
+    public boolean wasApplied() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package no.mnemonic.act.platform.dao.cassandra.mapper;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectByTypeValueEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for the {@link ObjectDao} generated by the Cassandra mapper. Conditional inserts behave like
+ * lightweight transactions, i.e. they are only applied if no row with the same primary key exists.
+ */
+public class InMemoryObjectDao implements ObjectDao {
+
+  private final Map<UUID, ObjectEntity> objects = new ConcurrentHashMap<>();
+  private final Map<List<Object>, ObjectByTypeValueEntity> objectsByTypeValue = new ConcurrentHashMap<>();
+  private final Map<List<UUID>, ObjectFactBindingEntity> objectFactBindings = new ConcurrentHashMap<>();
+
+  @Override
+  public void save(ObjectEntity entity) {
+    objects.put(entity.getId(), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(ObjectEntity entity) {
+    return objects.putIfAbsent(entity.getId(), entity) == null;
+  }
+
+  @Override
+  public boolean deleteIfExists(UUID id) {
+    return objects.remove(id) != null;
+  }
+
+  @Override
+  public ObjectEntity get(UUID id) {
+    return objects.get(id);
+  }
+
+  @Override
+  public CompletionStage<ObjectEntity> getAsync(UUID id) {
+    return CompletableFuture.supplyAsync(() -> objects.get(id));
+  }
+
+  @Override
+  public CompletionStage<MappedAsyncPagingIterable<ObjectEntity>> fetchByIDAsync(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void save(ObjectByTypeValueEntity entity) {
+    objectsByTypeValue.put(ListUtils.list(entity.getObjectTypeID(), entity.getObjectValue()), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(ObjectByTypeValueEntity entity) {
+    return objectsByTypeValue.putIfAbsent(ListUtils.list(entity.getObjectTypeID(), entity.getObjectValue()), entity) == null;
+  }
+
+  @Override
+  public ObjectByTypeValueEntity getObjectByTypeValue(UUID objectTypeID, String objectValue) {
+    return objectsByTypeValue.get(ListUtils.list(objectTypeID, objectValue));
+  }
+
+  @Override
+  public void save(ObjectFactBindingEntity entity) {
+    objectFactBindings.put(ListUtils.list(entity.getObjectID(), entity.getFactID()), entity);
+  }
+
+  @Override
+  public boolean saveIfNotExists(ObjectFactBindingEntity entity) {
+    return objectFactBindings.putIfAbsent(ListUtils.list(entity.getObjectID(), entity.getFactID()), entity) == null;
+  }
+
+  @Override
+  public CompletionStage<Boolean> saveIfNotExistsAsync(ObjectFactBindingEntity entity) {
+    return CompletableFuture.supplyAsync(() -> saveIfNotExists(entity));
+  }
+
+  @Override
+  public ObjectFactBindingEntity getObjectFactBinding(UUID objectID, UUID factID) {
+    return objectFactBindings.get(ListUtils.list(objectID, factID));
+  }
+
+  @Override
+  public PagingIterable<ObjectFactBindingEntity> fetchObjectFactBindings(UUID id) {
+    throw new UnsupportedOperationException();
+  }
+}
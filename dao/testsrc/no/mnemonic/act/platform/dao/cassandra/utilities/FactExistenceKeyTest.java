@@ -0,0 +1,98 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import no.mnemonic.act.platform.dao.cassandra.entity.AccessMode;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FactExistenceKeyTest {
+
+  private static final UUID TYPE_ID = UUID.randomUUID();
+  private static final UUID ORIGIN_ID = UUID.randomUUID();
+  private static final UUID ORGANIZATION_ID = UUID.randomUUID();
+  private static final UUID SOURCE_OBJECT_ID = UUID.randomUUID();
+  private static final UUID DESTINATION_OBJECT_ID = UUID.randomUUID();
+
+  @Test
+  public void testKeyIsHexEncodedSha256() {
+    assertTrue(FactExistenceKey.of(createFact()).matches("[0-9a-f]{64}"));
+  }
+
+  @Test
+  public void testLogicallySameFactsHaveSameKey() {
+    FactEntity fact = createFact();
+    // Fields which don't identify a Fact are ignored.
+    FactEntity sameFact = createFact()
+            .setId(UUID.randomUUID())
+            .setAddedByID(UUID.randomUUID())
+            .setTrust(0.9f)
+            .setTimestamp(123)
+            .setLastSeenTimestamp(456);
+    assertEquals(FactExistenceKey.of(fact), FactExistenceKey.of(sameFact));
+  }
+
+  @Test
+  public void testOrderOfBindingsIsIgnored() {
+    FactEntity fact = createFact();
+    FactEntity reversed = createFact().setBindings(ListUtils.list(fact.getBindings().get(1), fact.getBindings().get(0)));
+    assertEquals(FactExistenceKey.of(fact), FactExistenceKey.of(reversed));
+  }
+
+  @Test
+  public void testConfidenceIsRoundedToTwoDecimals() {
+    assertEquals(FactExistenceKey.of(createFact().setConfidence(0.5f)), FactExistenceKey.of(createFact().setConfidence(0.5001f)));
+    assertNotEquals(FactExistenceKey.of(createFact().setConfidence(0.5f)), FactExistenceKey.of(createFact().setConfidence(0.51f)));
+  }
+
+  @Test
+  public void testIdentifyingFieldsChangeKey() {
+    String key = FactExistenceKey.of(createFact());
+    assertNotEquals(key, FactExistenceKey.of(createFact().setTypeID(UUID.randomUUID())));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setValue("other")));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setOriginID(UUID.randomUUID())));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setOrganizationID(UUID.randomUUID())));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setAccessMode(AccessMode.Explicit)));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setInReferenceToID(UUID.randomUUID())));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setBindings(ListUtils.list(createFact().getBindings().get(0)))));
+    assertNotEquals(key, FactExistenceKey.of(createFact().setBindings(ListUtils.list(
+            new FactEntity.FactObjectBinding().setObjectID(SOURCE_OBJECT_ID).setDirection(Direction.BiDirectional),
+            new FactEntity.FactObjectBinding().setObjectID(DESTINATION_OBJECT_ID).setDirection(Direction.BiDirectional)))));
+  }
+
+  @Test
+  public void testMissingValueDiffersFromEmptyValue() {
+    assertNotEquals(FactExistenceKey.of(createFact().setValue(null)), FactExistenceKey.of(createFact().setValue("")));
+  }
+
+  @Test
+  public void testValueContainingSeparatorCannotCollide() {
+    FactEntity fact = createFact().setValue("a|b").setBindings(null);
+    FactEntity other = createFact().setValue("a").setBindings(null);
+    assertNotEquals(FactExistenceKey.of(fact), FactExistenceKey.of(other));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testKeyOfNullFactThrowsException() {
+    FactExistenceKey.of(null);
+  }
+
+  private FactEntity createFact() {
+    return new FactEntity()
+            .setTypeID(TYPE_ID)
+            .setValue("value")
+            .setOriginID(ORIGIN_ID)
+            .setOrganizationID(ORGANIZATION_ID)
+            .setAccessMode(AccessMode.Public)
+            .setConfidence(0.5f)
+            .setBindings(ListUtils.list(
+                    new FactEntity.FactObjectBinding().setObjectID(SOURCE_OBJECT_ID).setDirection(Direction.FactIsDestination),
+                    new FactEntity.FactObjectBinding().setObjectID(DESTINATION_OBJECT_ID).setDirection(Direction.FactIsSource)
+            ));
+  }
+
+}
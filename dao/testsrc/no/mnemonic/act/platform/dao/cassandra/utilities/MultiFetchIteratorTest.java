@@ -1,28 +1,40 @@
 package no.mnemonic.act.platform.dao.cassandra.utilities;
 
 import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 public class MultiFetchIteratorTest {
 
+  private static final long LATENCY_MS = 50;
+
   @Mock
   private Function<List<UUID>, Iterator<Object>> nextBatch;
 
+  private ScheduledExecutorService executor;
+
   @Before
   public void setUp() {
     initMocks(this);
+    executor = Executors.newScheduledThreadPool(8);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
   }
 
   @Test(expected = RuntimeException.class)
@@ -74,6 +86,110 @@ public class MultiFetchIteratorTest {
     verify(nextBatch, times(2)).apply(notNull());
   }
 
+  @Test
+  public void testIteratorSkipsEmptyBatches() {
+    when(nextBatch.apply(notNull()))
+            .thenReturn(Collections.emptyIterator(), generateList(Object::new, 1).iterator());
+    MultiFetchIterator<Object> iterator = new MultiFetchIterator<>(nextBatch, generateList(UUID::randomUUID, 101));
+
+    assertEquals(1, ListUtils.list(iterator).size());
+    verify(nextBatch, times(2)).apply(notNull());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testIteratorNextWithoutMoreElements() {
+    new MultiFetchIterator<>(nextBatch, ListUtils.list()).next();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitializeWithInvalidParallelism() {
+    new MultiFetchIterator<>(partition -> CompletableFuture.completedFuture(Collections.emptyIterator()), ListUtils.list(), 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitializeWithInvalidPrefetchDepth() {
+    new MultiFetchIterator<>(partition -> CompletableFuture.completedFuture(Collections.emptyIterator()), ListUtils.list(), 1, -1);
+  }
+
+  @Test
+  public void testAsyncIteratorReturnsElementsInOrder() {
+    List<UUID> id = generateList(UUID::randomUUID, 1000);
+    // Complete later partitions faster than earlier partitions in order to scramble completion order.
+    AtomicInteger counter = new AtomicInteger(10);
+    MultiFetchIterator<UUID> iterator = new MultiFetchIterator<>(partition -> delayed(partition.iterator(), counter.getAndDecrement() * 5), id, 4, 8);
+
+    assertEquals(id, ListUtils.list(iterator));
+  }
+
+  @Test
+  public void testAsyncIteratorBoundsRequestsInFlight() {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maximumInFlight = new AtomicInteger();
+    MultiFetchIterator<UUID> iterator = new MultiFetchIterator<>(partition -> {
+      maximumInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      return delayed(partition.iterator(), 10).whenComplete((r, e) -> inFlight.decrementAndGet());
+    }, generateList(UUID::randomUUID, 2000), 3, 10);
+
+    assertEquals(2000, ListUtils.list(iterator).size());
+    assertTrue(maximumInFlight.get() <= 3);
+  }
+
+  @Test
+  public void testAsyncIteratorAppliesBackpressure() {
+    AtomicInteger requested = new AtomicInteger();
+    MultiFetchIterator<UUID> iterator = new MultiFetchIterator<>(partition -> {
+      requested.incrementAndGet();
+      return CompletableFuture.completedFuture(partition.iterator());
+    }, generateList(UUID::randomUUID, 2000), 4, 2);
+
+    // Consume only the first element. Only the first batch plus the prefetched batches should have been requested.
+    iterator.next();
+    assertEquals(3, requested.get());
+  }
+
+  @Test
+  public void testAsyncIteratorPropagatesFailure() {
+    IllegalStateException failure = new IllegalStateException("test");
+    MultiFetchIterator<UUID> iterator = new MultiFetchIterator<>(partition -> {
+      CompletableFuture<Iterator<UUID>> future = new CompletableFuture<>();
+      future.completeExceptionally(failure);
+      return future;
+    }, generateList(UUID::randomUUID, 10), 2, 2);
+
+    try {
+      iterator.hasNext();
+      fail();
+    } catch (IllegalStateException ex) {
+      assertSame(failure, ex);
+    }
+  }
+
+  @Test
+  public void testAsyncIteratorIsFasterThanSequentialFetching() {
+    // 20 partitions with an artificial latency of 50ms each.
+    List<UUID> id = generateList(UUID::randomUUID, 2000);
+    Function<List<UUID>, CompletionStage<Iterator<UUID>>> fetch = partition -> delayed(partition.iterator(), LATENCY_MS);
+
+    long sequential = measure(() -> ListUtils.list(new MultiFetchIterator<>(fetch, id, 1, 0)));
+    long parallel = measure(() -> ListUtils.list(new MultiFetchIterator<>(fetch, id, 4, 8)));
+
+    assertTrue(sequential >= 20 * LATENCY_MS);
+    assertTrue(String.format("Parallel fetch (%dms) should be faster than sequential fetch (%dms).", parallel, sequential),
+            parallel * 2 < sequential);
+  }
+
+  private <T> CompletionStage<Iterator<T>> delayed(Iterator<T> result, long delay) {
+    CompletableFuture<Iterator<T>> future = new CompletableFuture<>();
+    executor.schedule(() -> future.complete(result), delay, TimeUnit.MILLISECONDS);
+    return future;
+  }
+
+  private long measure(Runnable task) {
+    long start = System.nanoTime();
+    task.run();
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
   private <T> List<T> generateList(Supplier<T> generator, int size) {
     List<T> id = new ArrayList<>();
     for (int i = 0; i < size; i++) {
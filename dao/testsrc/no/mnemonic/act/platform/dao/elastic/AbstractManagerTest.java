@@ -36,15 +36,21 @@ public abstract class AbstractManagerTest {
 
   @Before
   public void initialize() {
-    factSearchManager = new FactSearchManager(clientFactory)
+    factSearchManager = configure(new FactSearchManager(clientFactory)
             .setTestEnvironment(true)
             .setSearchScrollExpiration("5s")
-            .setSearchScrollSize(1);
+            .setSearchScrollSize(1));
     factSearchManager.startComponent();
   }
 
+  // Override in order to apply additional configuration before the FactSearchManager is started.
+  protected FactSearchManager configure(FactSearchManager manager) {
+    return manager;
+  }
+
   @After
   public void cleanup() {
+    factSearchManager.stopComponent();
     elastic.deleteIndices();
   }
 
@@ -57,6 +63,10 @@ public abstract class AbstractManagerTest {
     return factSearchManager;
   }
 
+  protected ClientFactory getClientFactory() {
+    return clientFactory;
+  }
+
   FactSearchCriteria createFactSearchCriteria(ObjectPreparation<FactSearchCriteria.Builder> preparation) {
     FactSearchCriteria.Builder builder = FactSearchCriteria.builder()
             .setCurrentUserID(UUID.randomUUID())
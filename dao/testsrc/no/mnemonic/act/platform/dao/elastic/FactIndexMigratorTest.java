@@ -0,0 +1,60 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.elasticsearch.client.Request;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class FactIndexMigratorTest {
+
+  private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+  private static final String TASK = "node:1";
+
+  @Test
+  public void testVerifyTaskResultSuccessful() throws Exception {
+    FactIndexMigrator.verifyTaskResult(TASK, parse("{\"completed\":true,\"response\":{\"created\":10,\"version_conflicts\":2,\"failures\":[]}}"));
+  }
+
+  @Test
+  public void testVerifyTaskResultWithError() throws Exception {
+    JsonNode result = parse("{\"completed\":true,\"error\":{\"type\":\"exception\",\"reason\":\"failure\"}}");
+    IllegalStateException ex = assertThrows(IllegalStateException.class, () -> FactIndexMigrator.verifyTaskResult(TASK, result));
+    assertTrue(ex.getMessage().contains("failure"));
+  }
+
+  @Test
+  public void testVerifyTaskResultWithFailedDocuments() throws Exception {
+    JsonNode result = parse("{\"completed\":true,\"response\":{\"created\":9,\"failures\":[{\"id\":\"1\",\"cause\":{\"reason\":\"mapper_parsing_exception\"}}]}}");
+    IllegalStateException ex = assertThrows(IllegalStateException.class, () -> FactIndexMigrator.verifyTaskResult(TASK, result));
+    assertTrue(ex.getMessage().contains("mapper_parsing_exception"));
+  }
+
+  @Test
+  public void testVerifyTaskResultCanceled() throws Exception {
+    JsonNode result = parse("{\"completed\":true,\"response\":{\"created\":5,\"failures\":[],\"canceled\":\"by user request\"}}");
+    IllegalStateException ex = assertThrows(IllegalStateException.class, () -> FactIndexMigrator.verifyTaskResult(TASK, result));
+    assertTrue(ex.getMessage().contains("by user request"));
+  }
+
+  @Test
+  public void testCreateBackfillIdsRequest() throws Exception {
+    Request request = FactIndexMigrator.createBackfillIdsRequest();
+    assertEquals("POST", request.getMethod());
+    assertEquals("/act/_update_by_query", request.getEndpoint());
+    assertEquals("false", request.getParameters().get("wait_for_completion"));
+    assertEquals("proceed", request.getParameters().get("conflicts"));
+
+    JsonNode body = MAPPER.readTree(request.getEntity().getContent());
+    assertEquals("id", body.path("query").path("bool").path("must_not").path("exists").path("field").asText());
+    assertEquals("ctx._source.id = ctx._id", body.path("script").path("source").asText());
+  }
+
+  private JsonNode parse(String json) throws Exception {
+    return MAPPER.readTree(json);
+  }
+}
@@ -0,0 +1,175 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.elasticsearch.index.reindex.ReindexRequest;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FactIndexPartitionerTest {
+
+  private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2020-03-15T12:00:00Z"), ZoneOffset.UTC);
+
+  private final FactIndexPartitioner daily = new FactIndexPartitioner(FactSearchManager.IndexPartitioning.Daily, CLOCK);
+  private final FactIndexPartitioner monthly = new FactIndexPartitioner(FactSearchManager.IndexPartitioning.Monthly, CLOCK);
+
+  @Test
+  public void testCreatePartitionerWithoutPartitioningFails() {
+    assertThrows(IllegalArgumentException.class, () -> new FactIndexPartitioner(FactSearchManager.IndexPartitioning.None, CLOCK));
+  }
+
+  @Test
+  public void testGetPartition() {
+    assertEquals("act-2020.01.31", daily.getPartition(timestamp("2020-01-31T23:59:59Z")));
+    assertEquals("act-2020.02.01", daily.getPartition(timestamp("2020-02-01T00:00:00Z")));
+    assertEquals("act-2020.01", monthly.getPartition(timestamp("2020-01-31T23:59:59Z")));
+    assertEquals("act-2020.02", monthly.getPartition(timestamp("2020-02-01T00:00:00Z")));
+  }
+
+  @Test
+  public void testGetActivePartitions() {
+    assertEquals(ListUtils.list("act-2020.03.15", "act-2020.03.16"), daily.getActivePartitions());
+    assertEquals(ListUtils.list("act-2020.03", "act-2020.04"), monthly.getActivePartitions());
+  }
+
+  @Test
+  public void testGetSearchIndicesWithoutTimeRange() {
+    assertArrayEquals(new String[]{FactIndexPartitioner.READ_ALIAS}, daily.getSearchIndices(createCriteria().build()));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithEndOnly() {
+    FactSearchCriteria criteria = createCriteria()
+            .setEndTimestamp(timestamp("2020-03-01T00:00:00Z"))
+            .build();
+    assertArrayEquals(new String[]{FactIndexPartitioner.READ_ALIAS}, daily.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithTimeRangeOnTimestamp() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2020-03-10T10:00:00Z"))
+            .setEndTimestamp(timestamp("2020-03-12T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
+            .build();
+    assertArrayEquals(new String[]{"act-2020.03.10", "act-2020.03.11", "act-2020.03.12"}, daily.getSearchIndices(criteria));
+    assertArrayEquals(new String[]{"act-2020.03"}, monthly.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithOpenEndedTimeRange() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2020-03-14T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
+            .build();
+    assertArrayEquals(new String[]{"act-2020.03.14", "act-2020.03.15", "act-2020.03.16"}, daily.getSearchIndices(criteria));
+    assertArrayEquals(new String[]{"act-2020.03", "act-2020.04"}, monthly.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithTimeRangeAcrossMonths() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2019-12-31T10:00:00Z"))
+            .setEndTimestamp(timestamp("2020-02-01T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
+            .build();
+    assertArrayEquals(new String[]{"act-2019.12", "act-2020.01", "act-2020.02"}, monthly.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithEmptyTimeRange() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2020-03-12T10:00:00Z"))
+            .setEndTimestamp(timestamp("2020-03-10T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
+            .build();
+    assertArrayEquals(new String[]{"act-2020.03.12"}, daily.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithTooManyPartitions() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2019-01-01T00:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
+            .build();
+    assertArrayEquals(new String[]{FactIndexPartitioner.READ_ALIAS}, daily.getSearchIndices(criteria));
+    assertEquals(16, monthly.getSearchIndices(criteria).length);
+  }
+
+  @Test
+  public void testGetSearchIndicesWithStartOnLastSeenTimestamp() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2020-03-10T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.lastSeenTimestamp)
+            .build();
+    // An old Fact might have been seen again recently, thus, the start cannot be used to prune partitions.
+    assertArrayEquals(new String[]{FactIndexPartitioner.READ_ALIAS}, daily.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithStartOnAllFieldsMatchingAny() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2020-03-10T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.all)
+            .setTimeMatchStrategy(FactSearchCriteria.MatchStrategy.any)
+            .build();
+    assertArrayEquals(new String[]{FactIndexPartitioner.READ_ALIAS}, daily.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testGetSearchIndicesWithStartOnAllFieldsMatchingAll() {
+    FactSearchCriteria criteria = createCriteria()
+            .setStartTimestamp(timestamp("2020-03-14T10:00:00Z"))
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.all)
+            .setTimeMatchStrategy(FactSearchCriteria.MatchStrategy.all)
+            .build();
+    assertArrayEquals(new String[]{"act-2020.03.14", "act-2020.03.15", "act-2020.03.16"}, daily.getSearchIndices(criteria));
+  }
+
+  @Test
+  public void testCreateTemplateSource() throws Exception {
+    JsonNode template = MAPPER.readTree(FactIndexPartitioner.createTemplateSource(FactSearchManager.readMappings(), 0));
+    JsonNode mappings = MAPPER.readTree(FactSearchManager.readMappings());
+
+    assertEquals(FactIndexPartitioner.PARTITION_PATTERN, template.get("index_patterns").get(0).asText());
+    assertTrue(template.get("aliases").has(FactIndexPartitioner.READ_ALIAS));
+    assertEquals(mappings.get("mappings"), template.get("mappings"));
+    assertEquals(mappings.get("settings"), template.get("settings"));
+  }
+
+  @Test
+  public void testCreateTemplateSourceOverridesNumberOfShards() throws Exception {
+    JsonNode template = MAPPER.readTree(FactIndexPartitioner.createTemplateSource(FactSearchManager.readMappings(), 7));
+    assertEquals(7, template.get("settings").get("index").get("number_of_shards").asInt());
+  }
+
+  @Test
+  public void testCreateReindexRequest() {
+    ReindexRequest request = FactIndexMigrator.createReindexRequest(monthly);
+    assertArrayEquals(new String[]{"act"}, request.getSearchRequest().indices());
+    assertEquals("create", request.getDestination().opType().getLowercase());
+    assertEquals("act-", request.getScript().getParams().get("prefix"));
+    assertEquals("yyyy.MM", request.getScript().getParams().get("pattern"));
+    assertTrue(request.getScript().getIdOrCode().contains("ctx._source.id = ctx._id"));
+  }
+
+  private FactSearchCriteria.Builder createCriteria() {
+    return FactSearchCriteria.builder()
+            .setCurrentUserID(UUID.randomUUID())
+            .addAvailableOrganizationID(UUID.randomUUID());
+  }
+
+  private static long timestamp(String instant) {
+    return Instant.parse(instant).toEpochMilli();
+  }
+}
@@ -1,8 +1,10 @@
 package no.mnemonic.act.platform.dao.elastic;
 
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static no.mnemonic.act.platform.dao.elastic.DocumentTestUtils.assertFactDocument;
@@ -72,4 +74,43 @@ public class FactSearchManagerIndexFactsTest extends AbstractManagerTest {
     assertEquals(FactDocument.DEFAULT_TRUST, indexedFact.getTrust(), 0);
   }
 
+  @Test
+  public void testIndexFactsWithNullOrEmptyInput() {
+    assertEquals(0, getFactSearchManager().indexFacts(null).size());
+    assertEquals(0, getFactSearchManager().indexFacts(ListUtils.list()).size());
+    assertEquals(0, getFactSearchManager().indexFacts(ListUtils.list(new FactDocument())).size());
+  }
+
+  @Test
+  public void testIndexFactsAndGetFacts() {
+    FactDocument fact1 = createFactDocument();
+    FactDocument fact2 = createFactDocument();
+
+    List<FactDocument> indexedFacts = getFactSearchManager().indexFacts(ListUtils.list(fact1, fact2));
+    assertEquals(ListUtils.list(fact1, fact2), indexedFacts);
+    assertFactDocument(fact1, getFactSearchManager().getFact(fact1.getId()));
+    assertFactDocument(fact2, getFactSearchManager().getFact(fact2.getId()));
+  }
+
+  @Test
+  public void testIndexFactAsynchronousFlushesOnShutdown() {
+    // Use a manager outside of the test environment because asynchronous indexing is disabled in a test environment.
+    FactSearchManager manager = new FactSearchManager(getClientFactory())
+            .setBulkFlushInterval("1h");
+    manager.startComponent();
+
+    FactDocument fact = createFactDocument();
+    assertSame(fact, manager.indexFact(fact, FactSearchManager.IndexMode.Asynchronous));
+    manager.stopComponent();
+
+    // Fetching by id is real-time in ElasticSearch, i.e. no refresh is required.
+    assertFactDocument(fact, getFactSearchManager().getFact(fact.getId()));
+  }
+
+  @Test
+  public void testIndexFactAsynchronousInTestEnvironmentIndexesImmediately() {
+    FactDocument fact = createFactDocument();
+    getFactSearchManager().indexFact(fact, FactSearchManager.IndexMode.Asynchronous);
+    assertFactDocument(fact, getFactSearchManager().getFact(fact.getId()));
+  }
 }
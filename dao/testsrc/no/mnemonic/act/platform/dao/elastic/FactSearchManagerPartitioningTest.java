@@ -0,0 +1,111 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+
+import static no.mnemonic.act.platform.dao.elastic.DocumentTestUtils.assertFactDocument;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+
+public class FactSearchManagerPartitioningTest extends AbstractManagerTest {
+
+  private static final long OLD_TIMESTAMP = 123456789L;
+
+  private final FactIndexPartitioner partitioner = new FactIndexPartitioner(FactSearchManager.IndexPartitioning.Daily, Clock.systemUTC());
+
+  @Override
+  protected FactSearchManager configure(FactSearchManager manager) {
+    return manager
+            .setIndexPartitioning(FactSearchManager.IndexPartitioning.Daily)
+            .setPartitionShards(1);
+  }
+
+  @Test
+  public void testStartComponentCreatesActivePartitions() throws Exception {
+    for (String partition : partitioner.getActivePartitions()) {
+      assertTrue(indexExists(partition));
+    }
+    assertFalse(indexExists("act"));
+  }
+
+  @Test
+  public void testIndexFactIntoPartitionOfTimestamp() throws Exception {
+    indexFact(d -> d.setTimestamp(OLD_TIMESTAMP));
+    assertTrue(indexExists(partitioner.getPartition(OLD_TIMESTAMP)));
+  }
+
+  @Test
+  public void testGetFactFromActivePartition() {
+    FactDocument fact = indexFact(d -> d.setTimestamp(System.currentTimeMillis()));
+
+    assertFactDocument(fact, getFactSearchManager().getFact(fact.getId()));
+    assertFactDocument(fact, getFactSearchManager().getFact(fact.getId(), fact.getTimestamp()));
+  }
+
+  @Test
+  public void testGetFactFromOldPartition() {
+    FactDocument fact = indexFact(d -> d.setTimestamp(OLD_TIMESTAMP));
+
+    assertFactDocument(fact, getFactSearchManager().getFact(fact.getId()));
+    assertFactDocument(fact, getFactSearchManager().getFact(fact.getId(), fact.getTimestamp()));
+  }
+
+  @Test
+  public void testGetFactNonIndexedFact() {
+    assertNull(getFactSearchManager().getFact(UUID.randomUUID()));
+    assertNull(getFactSearchManager().getFact(UUID.randomUUID(), System.currentTimeMillis()));
+  }
+
+  @Test
+  public void testGetFactFromNonExistingPartition() {
+    assertNull(getFactSearchManager().getFact(UUID.randomUUID(), OLD_TIMESTAMP));
+  }
+
+  @Test
+  public void testReindexFactKeepsPartition() {
+    FactDocument fact = indexFact(d -> d.setTimestamp(OLD_TIMESTAMP).setValue("originalValue"));
+    getFactSearchManager().indexFact(fact.setValue("updatedValue").setLastSeenTimestamp(System.currentTimeMillis()));
+
+    assertEquals("updatedValue", getFactSearchManager().getFact(fact.getId(), OLD_TIMESTAMP).getValue());
+    assertEquals(1, search(createFactSearchCriteria(b -> b.setFactID(set(fact.getId())))).size());
+  }
+
+  @Test
+  public void testSearchFactsAcrossPartitions() {
+    FactDocument oldFact = indexFact(d -> d.setTimestamp(OLD_TIMESTAMP));
+    FactDocument newFact = indexFact(d -> d.setTimestamp(System.currentTimeMillis()));
+
+    List<FactDocument> result = search(createFactSearchCriteria(b -> b.setFactID(set(oldFact.getId(), newFact.getId()))));
+    assertEquals(set(oldFact.getId(), newFact.getId()), set(result, FactDocument::getId));
+  }
+
+  @Test
+  public void testSearchFactsPrunedToPartitionsOfTimeRange() {
+    FactDocument oldFact = indexFact(d -> d.setTimestamp(OLD_TIMESTAMP));
+    indexFact(d -> d.setTimestamp(System.currentTimeMillis()));
+
+    FactSearchCriteria criteria = createFactSearchCriteria(b -> b
+            .setStartTimestamp(OLD_TIMESTAMP - 1)
+            .setEndTimestamp(OLD_TIMESTAMP + 1)
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp));
+    List<FactDocument> result = search(criteria);
+    assertEquals(1, result.size());
+    assertFactDocument(oldFact, result.get(0));
+  }
+
+  private List<FactDocument> search(FactSearchCriteria criteria) {
+    return ListUtils.list(getFactSearchManager().searchFacts(criteria));
+  }
+
+  private boolean indexExists(String index) throws Exception {
+    return getClientFactory().getClient().indices().exists(new GetIndexRequest(index), RequestOptions.DEFAULT);
+  }
+}
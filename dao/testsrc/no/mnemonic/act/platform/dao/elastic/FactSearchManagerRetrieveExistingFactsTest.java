@@ -4,9 +4,11 @@ import no.mnemonic.act.platform.dao.elastic.criteria.FactExistenceSearchCriteria
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
 import no.mnemonic.act.platform.dao.elastic.document.ObjectDocument;
 import no.mnemonic.act.platform.dao.elastic.result.SearchResult;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static no.mnemonic.act.platform.dao.elastic.DocumentTestUtils.assertFactDocument;
@@ -121,6 +123,29 @@ public class FactSearchManagerRetrieveExistingFactsTest extends AbstractManagerT
     testRetrieveExistingFactsNoMatch(createCriteriaWithoutObjects(fact, b -> b.setInReferenceTo(UUID.randomUUID())));
   }
 
+  @Test
+  public void testRetrieveExistingFactsBatchWithNoCriteria() {
+    assertEquals(0, getFactSearchManager().retrieveExistingFactsBatch(null).size());
+    assertEquals(0, getFactSearchManager().retrieveExistingFactsBatch(ListUtils.list()).size());
+  }
+
+  @Test
+  public void testRetrieveExistingFactsBatchReturnsResultPerCriteria() {
+    FactDocument first = indexFact(d -> d);
+    FactDocument second = indexFact(d -> d.setValue("second"));
+    List<SearchResult<FactDocument>> result = getFactSearchManager().retrieveExistingFactsBatch(ListUtils.list(
+            createCriteriaWithObjects(first, b -> b),
+            createCriteriaWithObjects(first, b -> b.setFactValue("something")),
+            createCriteriaWithObjects(second, b -> b)
+    ));
+    assertEquals(3, result.size());
+    assertEquals(1, result.get(0).getCount());
+    assertFactDocument(first, result.get(0).getValues().get(0));
+    assertEquals(0, result.get(1).getCount());
+    assertEquals(1, result.get(2).getCount());
+    assertFactDocument(second, result.get(2).getValues().get(0));
+  }
+
   private void testRetrieveExistingFactsNoMatch(ObjectPreparation<FactExistenceSearchCriteria.Builder> criteriaPreparation) {
     FactDocument fact = indexFact(d -> d);
     FactExistenceSearchCriteria criteria = createCriteriaWithObjects(fact, criteriaPreparation);
@@ -0,0 +1,398 @@
+package no.mnemonic.act.platform.dao.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
+import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.act.platform.dao.elastic.result.ScrollingSearchResult;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Tests pagination using search_after against an in-process stub of ElasticSearch's search endpoint. The stub ignores
+ * the query but implements sorting, 'size' and 'search_after' on an in-memory list of Facts. This makes it possible
+ * to verify ordering and completeness across pages without running ElasticSearch. Count requests (used to check
+ * whether all documents contain the 'id' field) and scroll requests are answered but not recorded.
+ */
+public class FactSearchManagerSearchAfterTest {
+
+  private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+  private static final Comparator<FactDocument> SORT_ORDER = Comparator.comparingLong(FactDocument::getTimestamp)
+          .thenComparing(fact -> fact.getId().toString());
+
+  @Mock
+  private ClientFactory clientFactory;
+
+  private final List<FactDocument> index = new CopyOnWriteArrayList<>();
+  private final List<ReceivedRequest> requests = new CopyOnWriteArrayList<>();
+  private volatile int failAfterRequests = Integer.MAX_VALUE;
+  private volatile boolean legacyDocuments = false;
+  private volatile long documentsWithoutId = 0;
+  private volatile int countRequests = 0;
+
+  private HttpServer server;
+  private RestHighLevelClient client;
+  private FactSearchManager manager;
+
+  @Before
+  public void setUp() throws Exception {
+    initMocks(this);
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::handleSearch);
+    server.start();
+
+    client = new RestHighLevelClient(RestClient.builder(new HttpHost("localhost", server.getAddress().getPort())));
+    when(clientFactory.getClient()).thenReturn(client);
+
+    manager = new FactSearchManager(clientFactory)
+            .setPaginationMode(FactSearchManager.PaginationMode.SearchAfter)
+            .setSearchScrollSize(4);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    client.close();
+    server.stop(0);
+  }
+
+  @Test
+  public void testSearchAfterReturnsAllFactsInOrder() {
+    List<FactDocument> expected = indexFacts(25);
+
+    assertEquals(ids(expected), ids(consume(manager.searchFacts(createCriteria(null)))));
+    // 25 Facts with a page size of 4 require 7 pages, the last page is only partially filled.
+    assertEquals(7, requests.size());
+  }
+
+  @Test
+  public void testSearchAfterWithFullLastPage() {
+    List<FactDocument> expected = indexFacts(8);
+
+    assertEquals(ids(expected), ids(consume(manager.searchFacts(createCriteria(null)))));
+    // The last page is full, thus, another request is required to detect the end of the result.
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  public void testSearchAfterWithEmptyResult() {
+    assertFalse(manager.searchFacts(createCriteria(null)).hasNext());
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void testSearchAfterSortsAndPassesCursor() {
+    indexFacts(10);
+    consume(manager.searchFacts(createCriteria(null)));
+
+    for (ReceivedRequest request : requests) {
+      assertFalse(request.uri.contains("scroll"));
+      assertEquals("[{\"timestamp\":{\"order\":\"asc\"}},{\"id\":{\"order\":\"asc\",\"unmapped_type\":\"keyword\"}}]", request.body.get("sort").toString());
+    }
+
+    // The first page doesn't have a cursor, all subsequent pages continue after the last hit of the previous page.
+    assertFalse(requests.get(0).body.has("search_after"));
+    assertTrue(requests.get(1).body.has("search_after"));
+    assertTrue(requests.get(2).body.has("search_after"));
+  }
+
+  @Test
+  public void testSearchAfterMarksResultAsSorted() {
+    indexFacts(3);
+    assertTrue(manager.searchFacts(createCriteria(null)).isSorted());
+  }
+
+  @Test
+  public void testSearchAfterWithStartCursor() {
+    List<FactDocument> expected = indexFacts(10);
+    manager.setPaginationMode(FactSearchManager.PaginationMode.Scroll);
+
+    ScrollingSearchResult<FactDocument> result = manager.searchFacts(createCriteria(FactSearchCursor.start()));
+    assertTrue(result.isSorted());
+    assertEquals(ids(expected), ids(consume(result)));
+    assertFalse(requests.get(0).uri.contains("scroll"));
+    assertFalse(requests.get(0).body.has("search_after"));
+  }
+
+  @Test
+  public void testSearchAfterStopsPaginatingWithoutIdSortValue() {
+    legacyDocuments = true;
+    List<FactDocument> expected = indexFacts(10);
+
+    // Without an 'id' the last hit can't be used as a cursor, otherwise the same page would be returned again.
+    assertEquals(ids(expected.subList(0, 4)), ids(consume(manager.searchFacts(createCriteria(null)))));
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void testSearchAfterFallsBackToScrollBeforeIdsAreBackfilled() {
+    legacyDocuments = true;
+    documentsWithoutId = 3;
+    List<FactDocument> expected = indexFacts(3);
+
+    ScrollingSearchResult<FactDocument> result = manager.searchFacts(createCriteria(null));
+    assertFalse(result.isSorted());
+    assertEquals(ids(expected), ids(consume(result)));
+    assertTrue(requests.get(0).uri.contains("scroll"));
+    assertFalse(requests.get(0).body.has("sort"));
+  }
+
+  @Test
+  public void testSearchWithCursorRejectedBeforeIdsAreBackfilled() {
+    documentsWithoutId = 3;
+    List<FactDocument> expected = indexFacts(3);
+
+    FactSearchCursor cursor = FactSearchCursor.of(expected.get(0).getTimestamp(), expected.get(0).getId());
+    assertThrows(IllegalStateException.class, () -> manager.searchFacts(createCriteria(cursor)));
+    assertTrue(requests.isEmpty());
+  }
+
+  @Test
+  public void testSearchAfterChecksMissingIdsOnlyUntilBackfilled() {
+    indexFacts(3);
+    consume(manager.searchFacts(createCriteria(null)));
+    consume(manager.searchFacts(createCriteria(null)));
+
+    assertEquals(1, countRequests);
+  }
+
+  @Test
+  public void testSearchAfterRechecksMissingIdsNotBeforeInterval() {
+    documentsWithoutId = 3;
+    indexFacts(3);
+    consume(manager.searchFacts(createCriteria(null)));
+    documentsWithoutId = 0;
+    consume(manager.searchFacts(createCriteria(null)));
+
+    // The second search doesn't check again and still falls back to scrolling.
+    assertEquals(1, countRequests);
+    assertTrue(requests.get(1).uri.contains("scroll"));
+  }
+
+  @Test
+  public void testSearchAfterCountOnlyCalculatedForFirstPage() {
+    indexFacts(10);
+    ScrollingSearchResult<FactDocument> result = manager.searchFacts(createCriteria(null));
+    consume(result);
+
+    assertEquals(10, result.getCount());
+    assertFalse(requests.get(0).body.has("track_total_hits"));
+    // Disabling 'track_total_hits' is serialized as -1.
+    assertEquals(-1, requests.get(1).body.get("track_total_hits").asInt());
+  }
+
+  @Test
+  public void testSearchAfterResumesFromCursor() {
+    List<FactDocument> expected = indexFacts(25);
+
+    // Only consume some Facts, then resume from the last consumed Fact using an encoded cursor.
+    ScrollingSearchResult<FactDocument> result = manager.searchFacts(createCriteria(null));
+    List<FactDocument> firstPart = ListUtils.list();
+    while (firstPart.size() < 10 && result.hasNext()) {
+      firstPart.add(result.next());
+    }
+
+    FactDocument last = firstPart.get(firstPart.size() - 1);
+    String token = FactSearchCursor.of(last.getTimestamp(), last.getId()).encode();
+    List<FactDocument> secondPart = consume(manager.searchFacts(createCriteria(FactSearchCursor.decode(token))));
+
+    assertEquals(ids(expected.subList(0, 10)), ids(firstPart));
+    assertEquals(ids(expected.subList(10, 25)), ids(secondPart));
+  }
+
+  @Test
+  public void testSearchWithCursorUsesSearchAfterInScrollMode() {
+    List<FactDocument> expected = indexFacts(5);
+    manager.setPaginationMode(FactSearchManager.PaginationMode.Scroll);
+
+    FactSearchCursor cursor = FactSearchCursor.of(expected.get(1).getTimestamp(), expected.get(1).getId());
+    assertEquals(ids(expected.subList(2, 5)), ids(consume(manager.searchFacts(createCriteria(cursor)))));
+    assertFalse(requests.get(0).uri.contains("scroll"));
+    assertTrue(requests.get(0).body.has("search_after"));
+  }
+
+  @Test
+  public void testSearchAfterIncludesFactsIndexedWhilePaginating() {
+    List<FactDocument> expected = indexFacts(6);
+
+    ScrollingSearchResult<FactDocument> result = manager.searchFacts(createCriteria(null));
+    assertTrue(result.hasNext());
+    List<FactDocument> actual = ListUtils.list(result.next());
+    // A new Fact is appended after the first page has been fetched. Ascending order returns it on the last page.
+    FactDocument added = indexFact(Long.MAX_VALUE / 2, UUID.randomUUID());
+    result.forEachRemaining(actual::add);
+
+    assertEquals(ids(ListUtils.addToList(ListUtils.list(expected), added)), ids(actual));
+  }
+
+  @Test
+  public void testSearchAfterStopsOnFailureWhileFetchingNextPage() {
+    List<FactDocument> expected = indexFacts(10);
+    failAfterRequests = 1;
+
+    // Already fetched results are returned, but pagination stops afterwards.
+    assertEquals(ids(expected.subList(0, 4)), ids(consume(manager.searchFacts(createCriteria(null)))));
+  }
+
+  @Test
+  public void testSearchAfterFailsOnFailureWhileFetchingFirstPage() {
+    indexFacts(10);
+    failAfterRequests = 0;
+
+    assertThrows(RuntimeException.class, () -> manager.searchFacts(createCriteria(null)));
+  }
+
+  private FactSearchCriteria createCriteria(FactSearchCursor cursor) {
+    return FactSearchCriteria.builder()
+            .setSearchAfter(cursor)
+            .setCurrentUserID(UUID.randomUUID())
+            .addAvailableOrganizationID(UUID.randomUUID())
+            .build();
+  }
+
+  private List<FactDocument> indexFacts(int numberOfFacts) {
+    for (int i = 0; i < numberOfFacts; i++) {
+      // Use the same timestamp for multiple Facts in order to verify that the UUID is used as a tie breaker.
+      indexFact(1000 + i / 3, UUID.randomUUID());
+    }
+
+    return index.stream().sorted(SORT_ORDER).collect(Collectors.toList());
+  }
+
+  private FactDocument indexFact(long timestamp, UUID id) {
+    FactDocument fact = new FactDocument()
+            .setId(id)
+            .setTimestamp(timestamp)
+            .setValue("value");
+    index.add(fact);
+    return fact;
+  }
+
+  private List<FactDocument> consume(Iterator<FactDocument> result) {
+    List<FactDocument> facts = ListUtils.list();
+    result.forEachRemaining(facts::add);
+    return facts;
+  }
+
+  private List<UUID> ids(List<FactDocument> facts) {
+    return facts.stream().map(FactDocument::getId).collect(Collectors.toList());
+  }
+
+  private void handleSearch(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    if (path.endsWith("/_count")) {
+      countRequests++;
+      respond(exchange, 200, "{\"count\":" + documentsWithoutId + ",\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}}");
+      return;
+    }
+    if (path.endsWith("/_search/scroll")) {
+      // Only closing the search context is expected because the tests fetch all results with the first request.
+      respond(exchange, 200, "{\"succeeded\":true,\"num_freed\":1}");
+      return;
+    }
+
+    JsonNode body = MAPPER.readTree(exchange.getRequestBody());
+    requests.add(new ReceivedRequest(exchange.getRequestURI().toString(), body));
+
+    if (requests.size() > failAfterRequests) {
+      respond(exchange, 500, "{\"error\":{\"type\":\"exception\",\"reason\":\"failure\"},\"status\":500}");
+      return;
+    }
+
+    // Emulate 'sort', 'search_after' and 'size'. The query is ignored, all Facts match.
+    int size = body.get("size").asInt();
+    JsonNode searchAfter = body.get("search_after");
+    List<FactDocument> page = index.stream()
+            .sorted(SORT_ORDER)
+            .filter(fact -> searchAfter == null || isAfter(fact, searchAfter.get(0).asLong(), searchAfter.get(1).asText()))
+            .limit(size)
+            .collect(Collectors.toList());
+
+    ObjectNode response = MAPPER.createObjectNode()
+            .put("took", 1)
+            .put("timed_out", false);
+    if (exchange.getRequestURI().toString().contains("scroll")) {
+      response.put("_scroll_id", "scrollId");
+    }
+    response.putObject("_shards")
+            .put("total", 1)
+            .put("successful", 1)
+            .put("skipped", 0)
+            .put("failed", 0);
+    ObjectNode hits = response.putObject("hits");
+    if (!body.has("track_total_hits") || body.get("track_total_hits").asInt() != -1) {
+      hits.putObject("total")
+              .put("value", index.size())
+              .put("relation", "eq");
+    }
+    hits.putNull("max_score");
+    ArrayNode hitsArray = hits.putArray("hits");
+    for (FactDocument fact : page) {
+      ObjectNode hit = hitsArray.addObject()
+              .put("_index", "act")
+              .put("_type", "_doc")
+              .put("_id", fact.getId().toString());
+      hit.putNull("_score");
+      hit.set("_source", MAPPER.valueToTree(fact));
+      // A scrolling search isn't sorted.
+      if (!body.has("sort")) continue;
+      ArrayNode sort = hit.putArray("sort").add(fact.getTimestamp());
+      // Documents indexed before the 'id' field was added don't have a sort value for it.
+      if (legacyDocuments) {
+        sort.addNull();
+      } else {
+        sort.add(fact.getId().toString());
+      }
+    }
+
+    respond(exchange, 200, MAPPER.writeValueAsString(response));
+  }
+
+  private boolean isAfter(FactDocument fact, long timestamp, String id) {
+    if (fact.getTimestamp() != timestamp) return fact.getTimestamp() > timestamp;
+    return fact.getId().toString().compareTo(id) > 0;
+  }
+
+  private void respond(HttpExchange exchange, int status, String content) throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static class ReceivedRequest {
+    private final String uri;
+    private final JsonNode body;
+
+    private ReceivedRequest(String uri, JsonNode body) {
+      this.uri = uri;
+      this.body = body;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package no.mnemonic.act.platform.dao.elastic;
 
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria.FactBinding;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
 import no.mnemonic.act.platform.dao.elastic.document.ObjectDocument;
 import no.mnemonic.act.platform.dao.elastic.result.ScrollingSearchResult;
@@ -495,6 +496,29 @@ public class FactSearchManagerSearchFactsTest extends AbstractManagerTest {
     assertEquals(3, ListUtils.list(result).size());
   }
 
+  @Test
+  public void testSearchFactsUsingSearchAfter() {
+    FactDocument fact1 = indexFact(d -> d.setTimestamp(1000));
+    FactDocument fact2 = indexFact(d -> d.setTimestamp(3000));
+    FactDocument fact3 = indexFact(d -> d.setTimestamp(2000));
+
+    getFactSearchManager().setPaginationMode(FactSearchManager.PaginationMode.SearchAfter);
+    ScrollingSearchResult<FactDocument> result = getFactSearchManager().searchFacts(createFactSearchCriteria(b -> b));
+    assertEquals(3, result.getCount());
+    assertEquals(ListUtils.list(fact1.getId(), fact3.getId(), fact2.getId()), ListUtils.list(result, FactDocument::getId));
+  }
+
+  @Test
+  public void testSearchFactsResumeFromCursor() {
+    indexFact(d -> d.setTimestamp(1000));
+    FactDocument fact2 = indexFact(d -> d.setTimestamp(2000));
+    FactDocument fact3 = indexFact(d -> d.setTimestamp(3000));
+
+    FactSearchCursor cursor = FactSearchCursor.of(fact2.getTimestamp(), fact2.getId());
+    ScrollingSearchResult<FactDocument> result = getFactSearchManager().searchFacts(createFactSearchCriteria(b -> b.setSearchAfter(cursor)));
+    assertEquals(ListUtils.list(fact3.getId()), ListUtils.list(result, FactDocument::getId));
+  }
+
   private void testSearchFacts(FactSearchCriteria criteria, FactDocument accessibleFact) {
     List<FactDocument> result = ListUtils.list(getFactSearchManager().searchFacts(criteria));
     assertEquals(1, result.size());
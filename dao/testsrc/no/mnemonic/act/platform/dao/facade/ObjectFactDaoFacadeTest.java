@@ -11,7 +11,9 @@ import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectStatisticsManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
 import no.mnemonic.act.platform.dao.elastic.criteria.FactExistenceSearchCriteria;
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
@@ -22,13 +24,27 @@ import no.mnemonic.act.platform.dao.facade.converters.FactAclEntryRecordConverte
 import no.mnemonic.act.platform.dao.facade.converters.FactCommentRecordConverter;
 import no.mnemonic.act.platform.dao.facade.converters.FactRecordConverter;
 import no.mnemonic.act.platform.dao.facade.converters.ObjectRecordConverter;
+import no.mnemonic.act.platform.dao.facade.utilities.FactRepairQueue;
+import no.mnemonic.act.platform.dao.facade.utilities.StageLatencyRecorder;
 import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
@@ -43,6 +59,8 @@ public class ObjectFactDaoFacadeTest {
   @Mock
   private FactSearchManager factSearchManager;
   @Mock
+  private ObjectStatisticsManager objectStatisticsManager;
+  @Mock
   private ObjectRecordConverter objectRecordConverter;
   @Mock
   private FactRecordConverter factRecordConverter;
@@ -52,19 +70,34 @@ public class ObjectFactDaoFacadeTest {
   private FactCommentRecordConverter factCommentRecordConverter;
 
   private ObjectFactDao dao;
+  private Consumer<UUID> bufferedIndexFailureListener;
 
   @Before
   public void setUp() {
     initMocks(this);
-    dao = new ObjectFactDaoFacade(
-            objectManager,
-            factManager,
-            factSearchManager,
-            objectRecordConverter,
-            factRecordConverter,
-            factAclEntryRecordConverter,
-            factCommentRecordConverter
-    );
+    dao = createDao(true);
+    ArgumentCaptor<Consumer<UUID>> listener = ArgumentCaptor.forClass(Consumer.class);
+    verify(factSearchManager).addBufferedIndexFailureListener(listener.capture());
+    bufferedIndexFailureListener = listener.getValue();
+    clearInvocations(factSearchManager);
+
+    // By default all asynchronous writes succeed immediately.
+    when(factManager.saveFactAsync(any())).thenAnswer(i -> completedFuture(i.getArgument(0)));
+    when(factManager.saveMetaFactBindingAsync(any())).thenAnswer(i -> completedFuture(i.getArgument(0)));
+    when(factManager.saveFactAclEntryAsync(any())).thenAnswer(i -> completedFuture(i.getArgument(0)));
+    when(factManager.saveFactCommentAsync(any())).thenAnswer(i -> completedFuture(i.getArgument(0)));
+    when(factManager.saveFactExistenceAsync(any())).thenReturn(completedFuture(null));
+    when(factManager.saveFactExistenceAsync(any(), any())).thenReturn(completedFuture(null));
+    when(factManager.getFactAsync(any())).thenReturn(completedFuture(null));
+    // By default no Fact exists in the lookup table.
+    when(factManager.fetchExistingFactIDsAsync(any())).thenReturn(completedFuture(ListUtils.list()));
+    when(objectManager.saveObjectFactBindingAsync(any())).thenAnswer(i -> completedFuture(i.getArgument(0)));
+    when(factSearchManager.indexFactAsync(any())).thenAnswer(i -> completedFuture(i.getArgument(0)));
+    when(objectStatisticsManager.markMaterializedAsync(any())).thenReturn(completedFuture(null));
+    when(objectStatisticsManager.markNotMaterializedAsync(any())).thenReturn(completedFuture(null));
+    when(objectStatisticsManager.addFactAsync(any(), any())).thenReturn(completedFuture(null));
+    when(objectStatisticsManager.refreshFactAsync(any(), any())).thenReturn(completedFuture(null));
+    when(objectStatisticsManager.addFactAclSubjectsAsync(any(), any())).thenReturn(completedFuture(null));
   }
 
   @Test
@@ -121,6 +154,15 @@ public class ObjectFactDaoFacadeTest {
     verify(objectManager).saveObject(entity);
   }
 
+  @Test
+  public void testStoreObjectMarksStatisticsMaterialized() {
+    ObjectRecord record = new ObjectRecord().setId(UUID.randomUUID());
+    when(objectRecordConverter.toEntity(record)).thenReturn(new ObjectEntity().setId(record.getId()));
+
+    dao.storeObject(record);
+    verify(objectStatisticsManager).markMaterializedAsync(record.getId());
+  }
+
   @Test
   public void testCalculateObjectStatistics() {
     ObjectStatisticsCriteria criteria = ObjectStatisticsCriteria.builder()
@@ -132,9 +174,68 @@ public class ObjectFactDaoFacadeTest {
     when(factSearchManager.calculateObjectStatistics(criteria)).thenReturn(container);
 
     assertSame(container, dao.calculateObjectStatistics(criteria));
+    verify(objectStatisticsManager).calculateObjectStatistics(criteria);
     verify(factSearchManager).calculateObjectStatistics(criteria);
   }
 
+  @Test
+  public void testCalculateObjectStatisticsFromMaterializedStatistics() {
+    UUID objectID = UUID.randomUUID();
+    ObjectStatisticsContainer.FactStatistic statistic = new ObjectStatisticsContainer.FactStatistic(UUID.randomUUID(), 1, 2, 3);
+    ObjectStatisticsCriteria criteria = createObjectStatisticsCriteria(objectID);
+    when(objectStatisticsManager.calculateObjectStatistics(criteria)).thenReturn(MapUtils.map(MapUtils.pair(objectID, SetUtils.set(statistic))));
+
+    ObjectStatisticsContainer container = dao.calculateObjectStatistics(criteria);
+    assertEquals(SetUtils.set(statistic), SetUtils.set(container.getStatistics(objectID)));
+    verifyNoInteractions(factSearchManager);
+  }
+
+  @Test
+  public void testRecalculateObjectStatistics() {
+    UUID objectID = UUID.randomUUID();
+    when(objectManager.fetchObjectFactBindings(objectID)).thenReturn(ListUtils.<ObjectFactBindingEntity>list().iterator());
+    when(factManager.getFacts(ListUtils.list())).thenReturn(ListUtils.<FactEntity>list().iterator());
+    when(factManager.fetchFactAclForFacts(ListUtils.list())).thenReturn(ListUtils.<FactAclEntity>list().iterator());
+
+    ((ObjectFactDaoFacade) dao).recalculateObjectStatistics(objectID);
+    verify(objectStatisticsManager).recalculateObjectStatistics(objectID, ListUtils.list(), MapUtils.map());
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsMergesMaterializedAndCalculatedStatistics() {
+    UUID materializedObjectID = UUID.randomUUID();
+    UUID calculatedObjectID = UUID.randomUUID();
+    ObjectStatisticsContainer.FactStatistic materializedStatistic = new ObjectStatisticsContainer.FactStatistic(UUID.randomUUID(), 1, 2, 3);
+    ObjectStatisticsContainer.FactStatistic calculatedStatistic = new ObjectStatisticsContainer.FactStatistic(UUID.randomUUID(), 4, 5, 6);
+    ObjectStatisticsCriteria criteria = createObjectStatisticsCriteria(materializedObjectID, calculatedObjectID);
+    when(objectStatisticsManager.calculateObjectStatistics(criteria))
+            .thenReturn(MapUtils.map(MapUtils.pair(materializedObjectID, SetUtils.set(materializedStatistic))));
+    when(factSearchManager.calculateObjectStatistics(notNull())).thenReturn(ObjectStatisticsContainer.builder()
+            .addStatistic(calculatedObjectID, calculatedStatistic)
+            .build());
+
+    ObjectStatisticsContainer container = dao.calculateObjectStatistics(criteria);
+    assertEquals(2, container.getStatisticsCount());
+    assertEquals(SetUtils.set(materializedStatistic), SetUtils.set(container.getStatistics(materializedObjectID)));
+    assertEquals(SetUtils.set(calculatedStatistic), SetUtils.set(container.getStatistics(calculatedObjectID)));
+    verify(factSearchManager).calculateObjectStatistics(argThat(c -> {
+      assertEquals(SetUtils.set(calculatedObjectID), c.getObjectID());
+      assertEquals(criteria.getCurrentUserID(), c.getCurrentUserID());
+      assertEquals(criteria.getAvailableOrganizationID(), c.getAvailableOrganizationID());
+      return true;
+    }));
+  }
+
+  @Test
+  public void testCalculateObjectStatisticsFallsBackWhenReadingMaterializedStatisticsFails() {
+    ObjectStatisticsCriteria criteria = createObjectStatisticsCriteria(UUID.randomUUID());
+    ObjectStatisticsContainer container = ObjectStatisticsContainer.builder().build();
+    when(objectStatisticsManager.calculateObjectStatistics(criteria)).thenThrow(IllegalStateException.class);
+    when(factSearchManager.calculateObjectStatistics(criteria)).thenReturn(container);
+
+    assertSame(container, dao.calculateObjectStatistics(criteria));
+  }
+
   @Test
   public void testSearchObjectsWithoutSearchResult() {
     FactSearchCriteria criteria = createFactSearchCriteria();
@@ -181,6 +282,25 @@ public class ObjectFactDaoFacadeTest {
     verify(factRecordConverter).fromEntity(entity);
   }
 
+  @Test
+  public void testGetFactsById() {
+    List<UUID> id = ListUtils.list(UUID.randomUUID(), UUID.randomUUID());
+    Iterator<FactEntity> entities = ListUtils.list(new FactEntity(), new FactEntity()).iterator();
+    FactRecord record = new FactRecord();
+    when(factManager.getFacts(id)).thenReturn(entities);
+    when(factRecordConverter.fromEntities(entities)).thenReturn(ListUtils.list(record).iterator());
+
+    assertEquals(ListUtils.list(record), dao.getFacts(id));
+    verify(factManager).getFacts(id);
+    verify(factRecordConverter).fromEntities(entities);
+  }
+
+  @Test
+  public void testGetFactsWithoutIdSkipsFetch() {
+    assertEquals(0, dao.getFacts(ListUtils.list()).size());
+    verify(factManager, never()).getFacts(any());
+  }
+
   @Test
   public void testStoreFactWithNull() {
     assertNull(dao.storeFact(null));
@@ -195,8 +315,8 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toDocument(record)).thenReturn(document);
 
     assertSame(record, dao.storeFact(record));
-    verify(factManager).saveFact(entity);
-    verify(factSearchManager).indexFact(document);
+    verify(factManager).saveFactAsync(entity);
+    verify(factSearchManager).indexFactAsync(document);
     verify(factRecordConverter).toEntity(argThat(r -> r.getId() == record.getId()));
     verify(factRecordConverter).toDocument(argThat(r -> r.getId() == record.getId()));
   }
@@ -210,8 +330,8 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toDocument(record)).thenReturn(document);
 
     assertSame(record, dao.storeFact(record));
-    verify(factManager).saveFact(entity);
-    verify(factSearchManager).indexFact(document);
+    verify(factManager).saveFactAsync(entity);
+    verify(factSearchManager).indexFactAsync(document);
     verify(factRecordConverter).toEntity(argThat(r -> r.getId() != null));
     verify(factRecordConverter).toDocument(argThat(r -> r.getId() != null));
   }
@@ -227,7 +347,7 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toEntity(notNull())).thenReturn(entity);
 
     dao.storeFact(new FactRecord());
-    verify(objectManager).saveObjectFactBinding(argThat(b -> {
+    verify(objectManager).saveObjectFactBindingAsync(argThat(b -> {
       assertEquals(binding.getObjectID(), b.getObjectID());
       assertEquals(binding.getDirection(), b.getDirection());
       assertEquals(entity.getId(), b.getFactID());
@@ -243,7 +363,7 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toEntity(notNull())).thenReturn(entity);
 
     dao.storeFact(new FactRecord());
-    verify(factManager).saveMetaFactBinding(argThat(b -> {
+    verify(factManager).saveMetaFactBindingAsync(argThat(b -> {
       assertEquals(entity.getInReferenceToID(), b.getFactID());
       assertEquals(entity.getId(), b.getMetaFactID());
       return true;
@@ -260,7 +380,7 @@ public class ObjectFactDaoFacadeTest {
     when(factAclEntryRecordConverter.toEntity(entry, fact.getId())).thenReturn(new FactAclEntity());
 
     dao.storeFact(fact);
-    verify(factManager).saveFactAclEntry(notNull());
+    verify(factManager).saveFactAclEntryAsync(notNull());
     verify(factAclEntryRecordConverter).toEntity(argThat(r -> r.getId() != null), eq(fact.getId()));
   }
 
@@ -274,10 +394,347 @@ public class ObjectFactDaoFacadeTest {
     when(factCommentRecordConverter.toEntity(comment, fact.getId())).thenReturn(new FactCommentEntity());
 
     dao.storeFact(fact);
-    verify(factManager).saveFactComment(notNull());
+    verify(factManager).saveFactCommentAsync(notNull());
     verify(factCommentRecordConverter).toEntity(argThat(r -> r.getId() != null), eq(fact.getId()));
   }
 
+  @Test
+  public void testStoreFactAsyncWithNull() throws Exception {
+    assertNull(dao.storeFactAsync(null).toCompletableFuture().get());
+  }
+
+  @Test
+  public void testStoreFactAsyncCompletesAfterIndexing() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    FactDocument document = new FactDocument().setId(record.getId());
+    CompletableFuture<FactDocument> indexing = new CompletableFuture<>();
+    when(factRecordConverter.toEntity(record)).thenReturn(new FactEntity().setId(record.getId()));
+    when(factRecordConverter.toDocument(record)).thenReturn(document);
+    when(factSearchManager.indexFactAsync(document)).thenReturn(indexing);
+
+    CompletableFuture<FactRecord> result = dao.storeFactAsync(record).toCompletableFuture();
+    assertFalse(result.isDone());
+    indexing.complete(document);
+    assertSame(record, result.join());
+  }
+
+  @Test
+  public void testStoreFactWritesRelationsConcurrently() {
+    FactAclEntryRecord entry = new FactAclEntryRecord();
+    FactCommentRecord comment = new FactCommentRecord();
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .addAclEntry(entry)
+            .addComment(comment);
+    FactEntity entity = new FactEntity()
+            .setId(fact.getId())
+            .setInReferenceToID(UUID.randomUUID())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.BiDirectional));
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+    when(factAclEntryRecordConverter.toEntity(entry, fact.getId())).thenReturn(new FactAclEntity());
+    when(factCommentRecordConverter.toEntity(comment, fact.getId())).thenReturn(new FactCommentEntity());
+    // None of the writes completes before all of them have been issued.
+    CompletableFuture<Void> gate = new CompletableFuture<>();
+    when(objectManager.saveObjectFactBindingAsync(any())).thenAnswer(i -> gate.thenApply(v -> i.getArgument(0)));
+    when(factManager.saveMetaFactBindingAsync(any())).thenAnswer(i -> gate.thenApply(v -> i.getArgument(0)));
+    when(factManager.saveFactAclEntryAsync(any())).thenAnswer(i -> gate.thenApply(v -> i.getArgument(0)));
+    when(factManager.saveFactCommentAsync(any())).thenAnswer(i -> gate.thenApply(v -> i.getArgument(0)));
+
+    CompletableFuture<FactRecord> result = dao.storeFactAsync(fact).toCompletableFuture();
+    verify(objectManager).saveObjectFactBindingAsync(notNull());
+    verify(factManager).saveMetaFactBindingAsync(notNull());
+    verify(factManager).saveFactAclEntryAsync(notNull());
+    verify(factManager).saveFactCommentAsync(notNull());
+    verify(factSearchManager, never()).indexFactAsync(any());
+
+    gate.complete(null);
+    assertSame(fact, result.join());
+    verify(factSearchManager).indexFactAsync(any());
+  }
+
+  @Test
+  public void testStoreFactDoesNotFetchExistingAclAndComments() {
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .addAclEntry(new FactAclEntryRecord())
+            .addComment(new FactCommentRecord());
+    when(factRecordConverter.toEntity(fact)).thenReturn(new FactEntity().setId(fact.getId()));
+
+    dao.storeFact(fact);
+    verify(factManager, never()).fetchFactAcl(any());
+    verify(factManager, never()).fetchFactComments(any());
+  }
+
+  @Test
+  public void testStoreFactFailsWhenSavingFactFails() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    FactEntity entity = new FactEntity()
+            .setId(record.getId())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.BiDirectional));
+    when(factRecordConverter.toEntity(record)).thenReturn(entity);
+    when(factManager.saveFactAsync(entity)).thenReturn(failedFuture(new ImmutableViolationException("conflict")));
+
+    assertThrows(ImmutableViolationException.class, () -> dao.storeFact(record));
+    verify(objectManager, never()).saveObjectFactBindingAsync(any());
+    verify(factSearchManager, never()).indexFactAsync(any());
+    // Nothing has been stored, thus, there's nothing to repair.
+    assertEquals(0, getFactRepairQueue().getPendingCount());
+  }
+
+  @Test
+  public void testStoreFactFailsWithoutIndexingWhenSavingRelationFails() {
+    FactCommentRecord comment = new FactCommentRecord();
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .addComment(comment);
+    FactEntity entity = new FactEntity()
+            .setId(fact.getId())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.BiDirectional));
+    FactCommentEntity commentEntity = new FactCommentEntity();
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+    when(factCommentRecordConverter.toEntity(comment, fact.getId())).thenReturn(commentEntity);
+    when(objectManager.saveObjectFactBindingAsync(any())).thenReturn(failedFuture(new IllegalArgumentException("unknown object")));
+    CompletableFuture<FactCommentEntity> commentWrite = new CompletableFuture<>();
+    when(factManager.saveFactCommentAsync(commentEntity)).thenReturn(commentWrite);
+
+    CompletableFuture<FactRecord> result = dao.storeFactAsync(fact).toCompletableFuture();
+    // The remaining writes are awaited before the failure is reported.
+    assertFalse(result.isDone());
+    commentWrite.complete(commentEntity);
+
+    CompletionException ex = assertThrows(CompletionException.class, result::join);
+    assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    verify(factManager, never()).saveFactExistenceAsync(any());
+    verify(factSearchManager, never()).indexFactAsync(any());
+  }
+
+  @Test
+  public void testStoreFactDoesNotQueueRepairWhenSavingRelationFails() {
+    FactRecord fact = new FactRecord().setId(UUID.randomUUID());
+    FactEntity entity = new FactEntity()
+            .setId(fact.getId())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.BiDirectional));
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+    when(objectManager.saveObjectFactBindingAsync(any())).thenReturn(failedFuture(new IllegalStateException("timeout")));
+
+    // The caller must retry, a repair queued in memory could be lost and the retry would create a duplicate Fact.
+    assertThrows(IllegalStateException.class, () -> dao.storeFact(fact));
+    assertEquals(0, getFactRepairQueue().getPendingCount());
+    verify(factSearchManager, never()).indexFactAsync(any());
+    verify(objectStatisticsManager, never()).addFactAsync(any(), any());
+  }
+
+  @Test
+  public void testStoreFactRetryResumesPartiallyStoredFact() {
+    FactCommentRecord comment = new FactCommentRecord();
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .addComment(comment);
+    FactEntity entity = createFactEntity(fact.getId());
+    FactCommentEntity commentEntity = new FactCommentEntity();
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+    when(factCommentRecordConverter.toEntity(comment, fact.getId())).thenReturn(commentEntity);
+    when(objectManager.saveObjectFactBindingAsync(any()))
+            .thenReturn(failedFuture(new IllegalStateException("timeout")))
+            .thenAnswer(i -> completedFuture(i.getArgument(0)));
+    // The Fact and the comment have been written by the first attempt already.
+    when(factManager.saveFactAsync(entity))
+            .thenReturn(completedFuture(entity))
+            .thenReturn(failedFuture(new ImmutableViolationException("exists")));
+    when(factManager.saveFactCommentAsync(commentEntity))
+            .thenReturn(completedFuture(commentEntity))
+            .thenReturn(failedFuture(new ImmutableViolationException("exists")));
+    when(factManager.getFactAsync(fact.getId())).thenReturn(completedFuture(createFactEntity(fact.getId())));
+
+    assertThrows(IllegalStateException.class, () -> dao.storeFact(fact));
+    verify(factManager, never()).saveFactExistenceAsync(any());
+
+    assertSame(fact, dao.storeFact(fact));
+    verify(objectManager, times(2)).saveObjectFactBindingAsync(any());
+    verify(factManager).saveFactExistenceAsync(entity);
+    verify(factSearchManager).indexFactAsync(any());
+    verify(objectStatisticsManager).addFactAsync(entity, SetUtils.set());
+  }
+
+  @Test
+  public void testStoreFactRetryFailsWhenDifferentFactExists() {
+    FactRecord fact = new FactRecord().setId(UUID.randomUUID());
+    FactEntity entity = createFactEntity(fact.getId());
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+    when(factManager.saveFactAsync(entity)).thenReturn(failedFuture(new ImmutableViolationException("exists")));
+    when(factManager.getFactAsync(fact.getId())).thenReturn(completedFuture(createFactEntity(fact.getId()).setValue("other")));
+
+    assertThrows(ImmutableViolationException.class, () -> dao.storeFact(fact));
+    verify(objectManager, never()).saveObjectFactBindingAsync(any());
+    verify(factSearchManager, never()).indexFactAsync(any());
+  }
+
+  @Test
+  public void testStoreFactSavesFactExistenceBeforeIndexing() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    FactEntity entity = new FactEntity().setId(record.getId());
+    when(factRecordConverter.toEntity(record)).thenReturn(entity);
+
+    dao.storeFact(record);
+    InOrder inOrder = inOrder(factManager, factSearchManager);
+    inOrder.verify(factManager).saveFactExistenceAsync(entity);
+    inOrder.verify(factSearchManager).indexFactAsync(any());
+  }
+
+  @Test
+  public void testStoreFactSucceedsWhenSavingFactExistenceFails() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    when(factRecordConverter.toEntity(record)).thenReturn(new FactEntity().setId(record.getId()));
+    when(factManager.saveFactExistenceAsync(any())).thenReturn(failedFuture(new IllegalStateException("existence")));
+
+    assertSame(record, dao.storeFact(record));
+    verify(factSearchManager).indexFactAsync(any());
+  }
+
+  @Test
+  public void testStoreFactRecordsLatencyPerStage() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    when(factRecordConverter.toEntity(record)).thenReturn(new FactEntity().setId(record.getId()));
+
+    dao.storeFact(record);
+    dao.storeFact(record.setId(UUID.randomUUID()));
+
+    Map<String, StageLatencyRecorder.StageStatistics> latency = ((ObjectFactDaoFacade) dao).getStoreFactLatency();
+    for (String stage : ListUtils.list(ObjectFactDaoFacade.STAGE_FACT, ObjectFactDaoFacade.STAGE_RELATIONS,
+            ObjectFactDaoFacade.STAGE_EXISTENCE, ObjectFactDaoFacade.STAGE_INDEX, ObjectFactDaoFacade.STAGE_STATISTICS, ObjectFactDaoFacade.STAGE_TOTAL)) {
+      assertEquals(2, latency.get(stage).getCount());
+    }
+  }
+
+  @Test
+  public void testStoreFactUpdatesObjectStatistics() {
+    FactAclEntryRecord entry = new FactAclEntryRecord().setSubjectID(UUID.randomUUID());
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .addAclEntry(entry);
+    FactEntity entity = new FactEntity().setId(fact.getId());
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+    when(factAclEntryRecordConverter.toEntity(entry, fact.getId())).thenReturn(new FactAclEntity());
+
+    dao.storeFact(fact);
+    verify(objectStatisticsManager).addFactAsync(entity, SetUtils.set(entry.getSubjectID()));
+  }
+
+  @Test
+  public void testStoreFactDoesNotUpdateObjectStatisticsWhenIndexingFails() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    when(factRecordConverter.toEntity(record)).thenReturn(new FactEntity().setId(record.getId()));
+    when(factSearchManager.indexFactAsync(any())).thenReturn(failedFuture(new IllegalStateException("index")));
+
+    assertThrows(IllegalStateException.class, () -> dao.storeFact(record));
+    verify(objectStatisticsManager, never()).addFactAsync(any(), any());
+  }
+
+  @Test
+  public void testStoreFactSucceedsWhenUpdatingObjectStatisticsFails() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    FactEntity entity = new FactEntity()
+            .setId(record.getId())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.FactIsSource))
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.FactIsDestination));
+    when(factRecordConverter.toEntity(record)).thenReturn(entity);
+    when(objectStatisticsManager.addFactAsync(any(), any())).thenReturn(failedFuture(new IllegalStateException("statistics")));
+
+    assertSame(record, dao.storeFact(record));
+    // The statistics of the bound Objects can't be trusted any more.
+    entity.getBindings().forEach(binding -> verify(objectStatisticsManager).markNotMaterializedAsync(binding.getObjectID()));
+  }
+
+  @Test
+  public void testStoreFactsWithEmptyList() {
+    assertTrue(dao.storeFacts(ListUtils.list()).isEmpty());
+    verifyNoInteractions(factManager, factSearchManager);
+  }
+
+  @Test
+  public void testStoreFactsIndexesAllFactsWithOneRequest() {
+    FactRecord first = mockStoreFact(new FactRecord());
+    FactRecord second = mockStoreFact(new FactRecord());
+    when(factSearchManager.indexFacts(anyList())).thenAnswer(i -> i.getArgument(0));
+
+    List<CompletionStage<FactRecord>> result = dao.storeFacts(ListUtils.list(first, second));
+    assertEquals(2, result.size());
+    assertSame(first, result.get(0).toCompletableFuture().join());
+    assertSame(second, result.get(1).toCompletableFuture().join());
+    assertNotNull(first.getId());
+    assertNotNull(second.getId());
+
+    verify(factManager, times(2)).saveFactAsync(any());
+    verify(factSearchManager).indexFacts(argThat(list -> list.size() == 2));
+    verify(factSearchManager, never()).indexFactAsync(any());
+    verify(objectStatisticsManager, times(2)).addFactAsync(any(), any());
+    assertEquals(1, ((ObjectFactDaoFacade) dao).getStoreFactLatency().get(ObjectFactDaoFacade.STAGE_BULK_INDEX).getCount());
+  }
+
+  @Test
+  public void testStoreFactsDoesNotIndexFactWhenSavingFactFails() {
+    FactRecord failing = mockStoreFact(new FactRecord().setId(UUID.randomUUID()));
+    FactRecord succeeding = mockStoreFact(new FactRecord().setId(UUID.randomUUID()));
+    when(factManager.saveFactAsync(argThat(entity -> entity != null && failing.getId().equals(entity.getId()))))
+            .thenReturn(failedFuture(new ImmutableViolationException("conflict")));
+    when(factSearchManager.indexFacts(anyList())).thenAnswer(i -> i.getArgument(0));
+
+    List<CompletionStage<FactRecord>> result = dao.storeFacts(ListUtils.list(failing, succeeding));
+    CompletionException ex = assertThrows(CompletionException.class, () -> result.get(0).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof ImmutableViolationException);
+    assertSame(succeeding, result.get(1).toCompletableFuture().join());
+    verify(factSearchManager).indexFacts(argThat(list -> list.size() == 1 && succeeding.getId().equals(list.get(0).getId())));
+  }
+
+  @Test
+  public void testStoreFactsDoesNotQueueRepairWhenSavingRelationFails() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    when(factRecordConverter.toEntity(record)).thenReturn(new FactEntity()
+            .setId(record.getId())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.randomUUID()).setDirection(Direction.BiDirectional)));
+    when(objectManager.saveObjectFactBindingAsync(any())).thenReturn(failedFuture(new IllegalStateException("timeout")));
+
+    List<CompletionStage<FactRecord>> result = dao.storeFacts(ListUtils.list(record));
+    CompletionException ex = assertThrows(CompletionException.class, () -> result.get(0).toCompletableFuture().join());
+    assertTrue(ex.getCause() instanceof IllegalStateException);
+    assertEquals(0, getFactRepairQueue().getPendingCount());
+    verify(factSearchManager, never()).indexFacts(anyList());
+  }
+
+  @Test
+  public void testStoreFactsQueuesReindexWhenIndexingFails() {
+    FactRecord notIndexed = mockStoreFact(new FactRecord().setId(UUID.randomUUID()));
+    FactRecord indexed = mockStoreFact(new FactRecord().setId(UUID.randomUUID()));
+    when(factSearchManager.indexFacts(anyList())).thenReturn(ListUtils.list(new FactDocument().setId(indexed.getId())));
+
+    // The Fact is stored in Cassandra, thus, it's reported as stored and indexed again later.
+    List<CompletionStage<FactRecord>> result = dao.storeFacts(ListUtils.list(notIndexed, indexed));
+    assertSame(notIndexed, result.get(0).toCompletableFuture().join());
+    assertSame(indexed, result.get(1).toCompletableFuture().join());
+    verify(objectStatisticsManager, times(2)).addFactAsync(any(), any());
+    assertEquals(1, getFactRepairQueue().getPendingCount());
+
+    FactEntity entity = new FactEntity().setId(notIndexed.getId());
+    FactDocument document = new FactDocument().setId(notIndexed.getId());
+    when(factManager.getFact(notIndexed.getId())).thenReturn(entity);
+    when(factRecordConverter.fromEntity(entity)).thenReturn(notIndexed);
+    when(factRecordConverter.toDocument(notIndexed)).thenReturn(document);
+
+    getFactRepairQueue().repairPending();
+    assertEquals(0, getFactRepairQueue().getPendingCount());
+    verify(factSearchManager).indexFactAsync(document);
+  }
+
+  @Test
+  public void testStoreFactsQueuesReindexWhenBulkRequestFails() {
+    FactRecord record = mockStoreFact(new FactRecord().setId(UUID.randomUUID()));
+    when(factSearchManager.indexFacts(anyList())).thenThrow(new IllegalStateException("bulk"));
+
+    List<CompletionStage<FactRecord>> result = dao.storeFacts(ListUtils.list(record));
+    assertSame(record, result.get(0).toCompletableFuture().join());
+    assertEquals(1, getFactRepairQueue().getPendingCount());
+  }
+
   @Test
   public void testRefreshFactWithNull() {
     assertNull(dao.refreshFact(null));
@@ -290,7 +747,23 @@ public class ObjectFactDaoFacadeTest {
 
     assertNotNull(dao.refreshFact(record));
     verify(factManager).refreshFact(record.getId());
-    verifyReindexingOfFact(record);
+    verifyReindexingOfFact(record, FactSearchManager.IndexMode.Asynchronous);
+  }
+
+  @Test
+  public void testRefreshFactUpdatesObjectStatistics() {
+    FactAclEntryRecord entry = new FactAclEntryRecord().setSubjectID(UUID.randomUUID());
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .addAclEntry(entry);
+    FactEntity entity = new FactEntity().setId(fact.getId());
+    when(factManager.getFact(fact.getId())).thenReturn(entity);
+    when(factRecordConverter.fromEntity(entity)).thenReturn(fact);
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+
+    dao.refreshFact(fact);
+    verify(objectStatisticsManager).addFactAclSubjectsAsync(entity, SetUtils.set(entry.getSubjectID()));
+    verify(objectStatisticsManager).refreshFactAsync(entity, SetUtils.set(entry.getSubjectID()));
   }
 
   @Test
@@ -349,6 +822,24 @@ public class ObjectFactDaoFacadeTest {
     verify(factManager).fetchFactComments(fact.getId());
   }
 
+  @Test
+  public void testQueuesReindexWhenBufferedIndexingFails() {
+    FactRecord record = new FactRecord().setId(UUID.randomUUID());
+    FactEntity entity = new FactEntity().setId(record.getId());
+    FactDocument document = new FactDocument().setId(record.getId());
+    when(factManager.getFact(record.getId())).thenReturn(entity);
+    when(factRecordConverter.fromEntity(entity)).thenReturn(record);
+    when(factRecordConverter.toDocument(record)).thenReturn(document);
+
+    // Called by FactSearchManager when a refreshed or retracted Fact couldn't be indexed asynchronously.
+    bufferedIndexFailureListener.accept(record.getId());
+    assertEquals(1, getFactRepairQueue().getPendingCount());
+
+    getFactRepairQueue().repairPending();
+    assertEquals(0, getFactRepairQueue().getPendingCount());
+    verify(factSearchManager).indexFactAsync(document);
+  }
+
   @Test
   public void testRetractFactWithNull() {
     assertNull(dao.retractFact(null));
@@ -361,7 +852,7 @@ public class ObjectFactDaoFacadeTest {
 
     assertNotNull(dao.retractFact(record));
     verify(factManager).retractFact(record.getId());
-    verifyReindexingOfFact(record);
+    verifyReindexingOfFact(record, FactSearchManager.IndexMode.Asynchronous);
   }
 
   @Test
@@ -432,7 +923,8 @@ public class ObjectFactDaoFacadeTest {
     assertFalse(container.hasNext());
     verify(factRecordConverter).toCriteria(record);
     verify(factSearchManager).retrieveExistingFacts(criteria);
-    verifyNoInteractions(factManager);
+    verify(factManager, never()).getFacts(any());
+    verify(factManager, never()).saveFactExistenceAsync(any(), any());
   }
 
   @Test
@@ -443,11 +935,13 @@ public class ObjectFactDaoFacadeTest {
     FactRecord record = new FactRecord().setId(id);
     FactExistenceSearchCriteria criteria = createFactExistenceSearchCriteria();
 
+    when(factRecordConverter.toEntity(record)).thenReturn(entity);
     when(factRecordConverter.toCriteria(record)).thenReturn(criteria);
     when(factSearchManager.retrieveExistingFacts(criteria))
             .thenReturn(SearchResult.<FactDocument>builder().setCount(1).addValue(document).build());
-    when(factManager.getFacts(anyList())).thenReturn(ListUtils.list(entity).iterator());
-    when(factRecordConverter.fromEntity(entity)).thenReturn(record);
+    Iterator<FactEntity> entities = ListUtils.list(entity).iterator();
+    when(factManager.getFacts(anyList())).thenReturn(entities);
+    when(factRecordConverter.fromEntities(entities)).thenReturn(ListUtils.list(record).iterator());
 
     ResultContainer<FactRecord> container = dao.retrieveExistingFacts(record);
     assertEquals(1, container.getCount());
@@ -455,7 +949,148 @@ public class ObjectFactDaoFacadeTest {
     verify(factRecordConverter).toCriteria(record);
     verify(factSearchManager).retrieveExistingFacts(criteria);
     verify(factManager).getFacts(argThat(list -> list.contains(id)));
-    verify(factRecordConverter).fromEntity(entity);
+    verify(factRecordConverter).fromEntities(entities);
+    verify(factRecordConverter, never()).fromEntity(any());
+    // Facts found in ElasticSearch are added to the lookup table.
+    verify(factManager).saveFactExistenceAsync(entity, id);
+  }
+
+  @Test
+  public void testRetrieveExistingFactsFromLookupSkipsSearch() {
+    UUID id = UUID.randomUUID();
+    FactEntity entity = new FactEntity().setId(UUID.randomUUID());
+    FactRecord record = new FactRecord();
+    FactRecord existing = new FactRecord().setId(id);
+    when(factRecordConverter.toEntity(record)).thenReturn(entity);
+    when(factManager.fetchExistingFactIDsAsync(entity)).thenReturn(completedFuture(ListUtils.list(id)));
+    Iterator<FactEntity> entities = ListUtils.list(new FactEntity().setId(id)).iterator();
+    when(factManager.getFacts(ListUtils.list(id))).thenReturn(entities);
+    when(factRecordConverter.fromEntities(entities)).thenReturn(ListUtils.list(existing).iterator());
+
+    ResultContainer<FactRecord> container = dao.retrieveExistingFacts(record);
+    assertEquals(1, container.getCount());
+    assertEquals(ListUtils.list(existing), ListUtils.list(container));
+    verifyNoInteractions(factSearchManager);
+    verify(factManager, never()).saveFactExistenceAsync(any(), any());
+  }
+
+  @Test
+  public void testRetrieveExistingFactsSearchesWhenLookupFails() {
+    FactRecord record = new FactRecord();
+    FactExistenceSearchCriteria criteria = createFactExistenceSearchCriteria();
+    when(factManager.fetchExistingFactIDsAsync(any())).thenReturn(failedFuture(new IllegalStateException("lookup")));
+    when(factRecordConverter.toCriteria(record)).thenReturn(criteria);
+    when(factSearchManager.retrieveExistingFacts(criteria)).thenReturn(SearchResult.<FactDocument>builder().build());
+
+    assertEquals(0, dao.retrieveExistingFacts(record).getCount());
+    verify(factSearchManager).retrieveExistingFacts(criteria);
+  }
+
+  @Test
+  public void testRetrieveExistingFactsWithDisabledSearchFallback() {
+    dao = createDao(false);
+    FactRecord record = new FactRecord();
+    when(factRecordConverter.toEntity(record)).thenReturn(new FactEntity());
+
+    ResultContainer<FactRecord> container = dao.retrieveExistingFacts(record);
+    assertEquals(0, container.getCount());
+    assertFalse(container.hasNext());
+    verify(factSearchManager, never()).retrieveExistingFacts(any());
+    verify(factManager, never()).getFacts(any());
+  }
+
+  @Test
+  public void testRetrieveExistingFactsBatchWithDisabledSearchFallback() {
+    dao = createDao(false);
+    FactRecord record = new FactRecord();
+
+    List<List<FactRecord>> result = dao.retrieveExistingFactsBatch(ListUtils.list(record));
+    assertEquals(1, result.size());
+    assertTrue(result.get(0).isEmpty());
+    verify(factSearchManager, never()).retrieveExistingFactsBatch(any());
+    verify(factManager, never()).getFacts(any());
+  }
+
+  @Test
+  public void testRetrieveExistingFactsBatchWithEmptyList() {
+    assertTrue(dao.retrieveExistingFactsBatch(ListUtils.list()).isEmpty());
+    verifyNoInteractions(factSearchManager, factManager);
+  }
+
+  @Test
+  public void testRetrieveExistingFactsBatchWithoutSearchResult() {
+    FactRecord record = new FactRecord();
+    FactExistenceSearchCriteria criteria = createFactExistenceSearchCriteria();
+    when(factRecordConverter.toCriteria(record)).thenReturn(criteria);
+    when(factSearchManager.retrieveExistingFactsBatch(ListUtils.list(criteria)))
+            .thenReturn(ListUtils.list(SearchResult.<FactDocument>builder().build()));
+
+    List<List<FactRecord>> result = dao.retrieveExistingFactsBatch(ListUtils.list(record));
+    assertEquals(1, result.size());
+    assertTrue(result.get(0).isEmpty());
+    verify(factManager, never()).getFacts(any());
+  }
+
+  @Test
+  public void testRetrieveExistingFactsBatchOnlySearchesFactsMissingFromLookup() {
+    FactRecord first = new FactRecord();
+    FactRecord second = new FactRecord();
+    FactEntity firstEntity = new FactEntity();
+    FactEntity secondEntity = new FactEntity();
+    FactExistenceSearchCriteria secondCriteria = createFactExistenceSearchCriteria();
+    FactRecord existing = new FactRecord().setId(UUID.randomUUID());
+    FactRecord otherExisting = new FactRecord().setId(UUID.randomUUID());
+
+    when(factRecordConverter.toEntity(first)).thenReturn(firstEntity);
+    when(factRecordConverter.toEntity(second)).thenReturn(secondEntity);
+    when(factRecordConverter.toCriteria(second)).thenReturn(secondCriteria);
+    when(factManager.fetchExistingFactIDsAsync(firstEntity)).thenReturn(completedFuture(ListUtils.list(existing.getId())));
+    when(factSearchManager.retrieveExistingFactsBatch(ListUtils.list(secondCriteria))).thenReturn(ListUtils.list(
+            SearchResult.<FactDocument>builder().setCount(1).addValue(new FactDocument().setId(otherExisting.getId())).build()
+    ));
+    Iterator<FactEntity> entities = ListUtils.list(new FactEntity().setId(existing.getId()), new FactEntity().setId(otherExisting.getId())).iterator();
+    when(factManager.getFacts(anyList())).thenReturn(entities);
+    when(factRecordConverter.fromEntities(entities)).thenReturn(ListUtils.list(existing, otherExisting).iterator());
+
+    List<List<FactRecord>> result = dao.retrieveExistingFactsBatch(ListUtils.list(first, second));
+    assertEquals(ListUtils.list(ListUtils.list(existing), ListUtils.list(otherExisting)), result);
+    verify(factRecordConverter, never()).toCriteria(first);
+    verify(factManager).getFacts(ListUtils.list(existing.getId(), otherExisting.getId()));
+    verify(factManager).saveFactExistenceAsync(secondEntity, otherExisting.getId());
+    verify(factManager, never()).saveFactExistenceAsync(eq(firstEntity), any());
+  }
+
+  @Test
+  public void testRetrieveExistingFactsBatchFetchesAllFactsAtOnce() {
+    FactRecord first = new FactRecord();
+    FactRecord second = new FactRecord();
+    FactRecord third = new FactRecord();
+    FactExistenceSearchCriteria firstCriteria = createFactExistenceSearchCriteria();
+    FactExistenceSearchCriteria secondCriteria = createFactExistenceSearchCriteria();
+    FactExistenceSearchCriteria thirdCriteria = createFactExistenceSearchCriteria();
+    FactRecord existing = new FactRecord().setId(UUID.randomUUID());
+    FactRecord otherExisting = new FactRecord().setId(UUID.randomUUID());
+
+    when(factRecordConverter.toCriteria(first)).thenReturn(firstCriteria);
+    when(factRecordConverter.toCriteria(second)).thenReturn(secondCriteria);
+    when(factRecordConverter.toCriteria(third)).thenReturn(thirdCriteria);
+    when(factSearchManager.retrieveExistingFactsBatch(ListUtils.list(firstCriteria, secondCriteria, thirdCriteria))).thenReturn(ListUtils.list(
+            SearchResult.<FactDocument>builder().setCount(1).addValue(new FactDocument().setId(existing.getId())).build(),
+            SearchResult.<FactDocument>builder().build(),
+            SearchResult.<FactDocument>builder().setCount(2)
+                    .addValue(new FactDocument().setId(existing.getId()))
+                    .addValue(new FactDocument().setId(otherExisting.getId()))
+                    .build()
+    ));
+    Iterator<FactEntity> entities = ListUtils.list(new FactEntity().setId(existing.getId()), new FactEntity().setId(otherExisting.getId())).iterator();
+    when(factManager.getFacts(anyList())).thenReturn(entities);
+    when(factRecordConverter.fromEntities(entities)).thenReturn(ListUtils.list(existing, otherExisting).iterator());
+
+    List<List<FactRecord>> result = dao.retrieveExistingFactsBatch(ListUtils.list(first, second, third));
+    assertEquals(ListUtils.list(ListUtils.list(existing), ListUtils.list(), ListUtils.list(existing, otherExisting)), result);
+    verify(factSearchManager).retrieveExistingFactsBatch(anyList());
+    verify(factManager).getFacts(ListUtils.list(existing.getId(), otherExisting.getId()));
+    verify(factManager, never()).getFact(any());
   }
 
   @Test
@@ -483,15 +1118,17 @@ public class ObjectFactDaoFacadeTest {
                     ListUtils.list(document).iterator(), true))
             .setCount(1)
             .build());
-    when(factManager.getFacts(anyList())).thenReturn(ListUtils.list(entity).iterator());
-    when(factRecordConverter.fromEntity(entity)).thenReturn(record);
+    Iterator<FactEntity> entities = ListUtils.list(entity).iterator();
+    when(factManager.getFacts(anyList())).thenReturn(entities);
+    when(factRecordConverter.fromEntities(entities)).thenReturn(ListUtils.list(record).iterator());
 
     ResultContainer<FactRecord> container = dao.searchFacts(criteria);
     assertEquals(1, container.getCount());
     assertEquals(ListUtils.list(record), ListUtils.list(container));
     verify(factSearchManager).searchFacts(criteria);
     verify(factManager).getFacts(argThat(list -> list.contains(id)));
-    verify(factRecordConverter).fromEntity(entity);
+    verify(factRecordConverter).fromEntities(entities);
+    verify(factRecordConverter, never()).fromEntity(any());
   }
 
   @Test
@@ -522,13 +1159,39 @@ public class ObjectFactDaoFacadeTest {
     verify(factAclEntryRecordConverter).toEntity(argThat(r -> r.getId() != null), eq(fact.getId()));
   }
 
+  @Test
+  public void testStoreFactAclEntryUpdatesObjectStatisticsOfNewSubject() {
+    FactRecord fact = new FactRecord().setId(UUID.randomUUID());
+    FactAclEntryRecord entry = new FactAclEntryRecord().setSubjectID(UUID.randomUUID());
+    FactEntity entity = new FactEntity().setId(fact.getId());
+    when(factManager.getFact(fact.getId())).thenReturn(entity);
+    when(factRecordConverter.fromEntity(entity)).thenReturn(fact);
+    when(factRecordConverter.toEntity(fact)).thenReturn(entity);
+
+    dao.storeFactAclEntry(fact, entry);
+    verify(objectStatisticsManager).addFactAclSubjectsAsync(entity, SetUtils.set(entry.getSubjectID()));
+  }
+
+  @Test
+  public void testStoreFactAclEntrySkipsObjectStatisticsOfExistingSubject() {
+    FactAclEntryRecord entry = new FactAclEntryRecord().setSubjectID(UUID.randomUUID());
+    FactRecord fact = new FactRecord().setId(UUID.randomUUID())
+            .addAclEntry(new FactAclEntryRecord().setId(UUID.randomUUID()).setSubjectID(entry.getSubjectID()));
+    mockReindexingOfFact(fact);
+
+    dao.storeFactAclEntry(fact, entry);
+    verify(objectStatisticsManager, never()).addFactAclSubjectsAsync(any(), any());
+    // The ACL is taken from the given Fact instead of fetching it again.
+    verify(factManager, never()).fetchFactAcl(any());
+  }
+
   @Test
   public void testStoreFactAclEntryReindexFact() {
     FactRecord fact = new FactRecord().setId(UUID.randomUUID());
     mockReindexingOfFact(fact);
 
     dao.storeFactAclEntry(fact, new FactAclEntryRecord());
-    verifyReindexingOfFact(fact);
+    verifyReindexingOfFact(fact, FactSearchManager.IndexMode.Synchronous);
   }
 
   @Test
@@ -566,12 +1229,54 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toDocument(notNull())).thenReturn(new FactDocument());
   }
 
-  private void verifyReindexingOfFact(FactRecord fact) {
+  private void verifyReindexingOfFact(FactRecord fact, FactSearchManager.IndexMode mode) {
     // Verify reindexing.
     verify(factManager).getFact(fact.getId());
     verify(factRecordConverter).fromEntity(notNull());
     verify(factRecordConverter).toDocument(notNull());
-    verify(factSearchManager, atLeastOnce()).indexFact(notNull());
+    verify(factSearchManager, atLeastOnce()).indexFact(notNull(), eq(mode));
+  }
+
+  private FactRepairQueue getFactRepairQueue() {
+    return ((ObjectFactDaoFacade) dao).getFactRepairQueue();
+  }
+
+  private FactRecord mockStoreFact(FactRecord fact) {
+    // The id is assigned by the facade before converting, thus, create entity and document lazily.
+    when(factRecordConverter.toEntity(fact)).thenAnswer(i -> new FactEntity().setId(fact.getId()));
+    when(factRecordConverter.toDocument(fact)).thenAnswer(i -> new FactDocument().setId(fact.getId()));
+    return fact;
+  }
+
+  private ObjectStatisticsCriteria createObjectStatisticsCriteria(UUID... objectID) {
+    return ObjectStatisticsCriteria.builder()
+            .setObjectID(SetUtils.set(objectID))
+            .addAvailableOrganizationID(UUID.randomUUID())
+            .setCurrentUserID(UUID.randomUUID())
+            .build();
+  }
+
+  private ObjectFactDaoFacade createDao(boolean factExistenceSearchFallback) {
+    return new ObjectFactDaoFacade(
+            objectManager,
+            factManager,
+            factSearchManager,
+            objectStatisticsManager,
+            objectRecordConverter,
+            factRecordConverter,
+            factAclEntryRecordConverter,
+            factCommentRecordConverter,
+            factExistenceSearchFallback
+    );
+  }
+
+  private FactEntity createFactEntity(UUID id) {
+    return new FactEntity()
+            .setId(id)
+            .setTypeID(UUID.fromString("00000000-0000-0000-0000-000000000001"))
+            .setValue("value")
+            .setTimestamp(123456789)
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(UUID.fromString("00000000-0000-0000-0000-000000000002")).setDirection(Direction.BiDirectional));
   }
 
   private FactSearchCriteria createFactSearchCriteria() {
@@ -591,4 +1296,10 @@ public class ObjectFactDaoFacadeTest {
             .setInReferenceTo(UUID.randomUUID())
             .build();
   }
+
+  private static <T> CompletableFuture<T> failedFuture(Throwable ex) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(ex);
+    return future;
+  }
 }
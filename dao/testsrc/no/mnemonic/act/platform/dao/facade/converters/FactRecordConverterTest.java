@@ -10,12 +10,15 @@ import no.mnemonic.act.platform.dao.cassandra.entity.*;
 import no.mnemonic.act.platform.dao.elastic.criteria.FactExistenceSearchCriteria;
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
 import no.mnemonic.act.platform.dao.elastic.document.ObjectDocument;
+import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -256,6 +259,83 @@ public class FactRecordConverterTest {
     verify(factCommentRecordConverter, times(3)).fromEntity(notNull());
   }
 
+  @Test
+  public void testFromEntitiesWithNullOrEmptyInput() {
+    assertFalse(converter.fromEntities(null).hasNext());
+    assertFalse(converter.fromEntities(Collections.emptyIterator()).hasNext());
+    verifyNoInteractions(factManager, objectManager);
+  }
+
+  @Test
+  public void testFromEntitiesWithDirectFields() {
+    FactEntity entity = new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(UUID.randomUUID())
+            .setValue("value")
+            .setAccessMode(AccessMode.Explicit)
+            .setTimestamp(123456789L);
+
+    List<FactRecord> records = ListUtils.list(converter.fromEntities(ListUtils.list(entity).iterator()));
+    assertEquals(1, records.size());
+    assertEquals(entity.getId(), records.get(0).getId());
+    assertEquals(entity.getTypeID(), records.get(0).getTypeID());
+    assertEquals(entity.getValue(), records.get(0).getValue());
+    assertEquals(entity.getAccessMode().name(), records.get(0).getAccessMode().name());
+    assertEquals(entity.getTimestamp(), records.get(0).getTimestamp());
+  }
+
+  @Test
+  public void testFromEntitiesFetchesRelatedEntitiesOncePerBatch() {
+    UUID sharedObjectID = UUID.randomUUID();
+    FactEntity first = createFactWithBindings(sharedObjectID, UUID.randomUUID());
+    FactEntity second = createFactWithBindings(sharedObjectID, UUID.randomUUID());
+    ObjectEntity sharedObject = new ObjectEntity().setId(sharedObjectID);
+    ObjectEntity firstObject = new ObjectEntity().setId(first.getBindings().get(1).getObjectID());
+    ObjectEntity secondObject = new ObjectEntity().setId(second.getBindings().get(1).getObjectID());
+
+    when(objectManager.getObjects(notNull())).thenReturn(ListUtils.list(sharedObject, firstObject, secondObject).iterator());
+    when(objectRecordConverter.fromEntity(notNull())).then(i -> new ObjectRecord().setId(i.<ObjectEntity>getArgument(0).getId()));
+    when(factManager.fetchFactAclForFacts(notNull())).thenReturn(ListUtils.list(
+            new FactAclEntity().setFactID(first.getId()),
+            new FactAclEntity().setFactID(first.getId()),
+            new FactAclEntity().setFactID(second.getId())
+    ).iterator());
+    when(factManager.fetchFactCommentsForFacts(notNull())).thenReturn(ListUtils.list(
+            new FactCommentEntity().setFactID(second.getId())
+    ).iterator());
+    when(factAclEntryRecordConverter.fromEntity(notNull())).thenReturn(new FactAclEntryRecord());
+    when(factCommentRecordConverter.fromEntity(notNull())).thenReturn(new FactCommentRecord());
+
+    List<FactRecord> records = ListUtils.list(converter.fromEntities(ListUtils.list(first, second).iterator()));
+    assertEquals(2, records.size());
+    assertEquals(sharedObjectID, records.get(0).getSourceObject().getId());
+    assertEquals(firstObject.getId(), records.get(0).getDestinationObject().getId());
+    assertEquals(sharedObjectID, records.get(1).getSourceObject().getId());
+    assertEquals(secondObject.getId(), records.get(1).getDestinationObject().getId());
+    assertEquals(2, records.get(0).getAcl().size());
+    assertEquals(1, records.get(1).getAcl().size());
+    assertTrue(CollectionUtils.isEmpty(records.get(0).getComments()));
+    assertEquals(1, records.get(1).getComments().size());
+
+    verify(objectManager).getObjects(argThat(id -> id.size() == 3 && id.contains(sharedObjectID)));
+    verify(factManager).fetchFactAclForFacts(argThat(id -> id.size() == 2));
+    verify(factManager).fetchFactCommentsForFacts(argThat(id -> id.size() == 2));
+    verify(objectManager, never()).getObject(any(UUID.class));
+    verify(factManager, never()).fetchFactAcl(any());
+    verify(factManager, never()).fetchFactComments(any());
+  }
+
+  @Test
+  public void testFromEntitiesWithUnknownObject() {
+    FactEntity entity = createFactWithBindings(UUID.randomUUID(), UUID.randomUUID());
+    when(objectManager.getObjects(notNull())).thenReturn(Collections.emptyIterator());
+
+    List<FactRecord> records = ListUtils.list(converter.fromEntities(ListUtils.list(entity).iterator()));
+    assertEquals(1, records.size());
+    assertNull(records.get(0).getSourceObject());
+    assertNull(records.get(0).getDestinationObject());
+  }
+
   @Test
   public void testToEntityWithNullRecord() {
     assertNull(converter.toEntity(null));
@@ -508,4 +588,15 @@ public class FactRecordConverterTest {
     assertEquals(expected.getId(), actual.getObjectID());
     assertEquals(direction, actual.getDirection());
   }
+
+  private FactEntity createFactWithBindings(UUID sourceObjectID, UUID destinationObjectID) {
+    return new FactEntity()
+            .setId(UUID.randomUUID())
+            .addBinding(new FactEntity.FactObjectBinding()
+                    .setObjectID(sourceObjectID)
+                    .setDirection(Direction.FactIsDestination))
+            .addBinding(new FactEntity.FactObjectBinding()
+                    .setObjectID(destinationObjectID)
+                    .setDirection(Direction.FactIsSource));
+  }
 }
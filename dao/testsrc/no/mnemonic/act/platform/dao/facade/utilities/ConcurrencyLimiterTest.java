@@ -0,0 +1,80 @@
+package no.mnemonic.act.platform.dao.facade.utilities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrencyLimiterTest {
+
+  @Test
+  public void testCreateWithInvalidLimitThrowsException() {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(0));
+  }
+
+  @Test
+  public void testExecuteReleasesPermitOnCompletion() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+    CompletableFuture<String> operation = new CompletableFuture<>();
+
+    CompletableFuture<String> result = limiter.execute(() -> operation);
+    assertEquals(1, limiter.getAvailable());
+
+    operation.complete("done");
+    assertEquals("done", result.join());
+    assertEquals(2, limiter.getAvailable());
+  }
+
+  @Test
+  public void testExecuteReleasesPermitOnFailure() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+    CompletableFuture<String> operation = new CompletableFuture<>();
+
+    CompletableFuture<String> result = limiter.execute(() -> operation);
+    operation.completeExceptionally(new IllegalStateException());
+
+    CompletionException ex = assertThrows(CompletionException.class, result::join);
+    assertTrue(ex.getCause() instanceof IllegalStateException);
+    assertEquals(1, limiter.getAvailable());
+  }
+
+  @Test
+  public void testExecuteReleasesPermitIfOperationCannotBeStarted() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+
+    assertThrows(IllegalStateException.class, () -> limiter.execute(() -> {
+      throw new IllegalStateException();
+    }));
+    assertEquals(1, limiter.getAvailable());
+  }
+
+  @Test
+  public void testExecuteBlocksWhileLimitIsReached() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+    List<CompletableFuture<Void>> operations = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      operations.add(new CompletableFuture<>());
+    }
+
+    CountDownLatch started = new CountDownLatch(3);
+    Thread caller = new Thread(() -> operations.forEach(operation -> limiter.execute(() -> {
+      started.countDown();
+      return operation;
+    })));
+    caller.start();
+
+    // The third operation is only started after one of the first two has completed.
+    assertFalse(started.await(200, TimeUnit.MILLISECONDS));
+    assertEquals(1, started.getCount());
+
+    operations.get(0).complete(null);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    caller.join(10_000);
+  }
+}
@@ -0,0 +1,93 @@
+package no.mnemonic.act.platform.dao.facade.utilities;
+
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.Assert.*;
+
+public class FactRepairQueueTest {
+
+  private final FactRepairQueue queue = new FactRepairQueue(2, 3, 1000);
+
+  @Test
+  public void testSubmitWithNullArguments() {
+    assertFalse(queue.submit(null, () -> completedFuture(null)));
+    assertFalse(queue.submit(UUID.randomUUID(), null));
+    assertEquals(0, queue.getPendingCount());
+  }
+
+  @Test
+  public void testSubmitKeepsQueuedRepair() {
+    UUID factID = UUID.randomUUID();
+    AtomicInteger first = new AtomicInteger();
+    AtomicInteger second = new AtomicInteger();
+
+    assertTrue(queue.submit(factID, () -> completedFuture(first.incrementAndGet())));
+    assertTrue(queue.submit(factID, () -> completedFuture(second.incrementAndGet())));
+    assertEquals(1, queue.getPendingCount());
+
+    queue.repairPending();
+    assertEquals(1, first.get());
+    assertEquals(0, second.get());
+  }
+
+  @Test
+  public void testSubmitRejectsRepairWhenQueueIsFull() throws Exception {
+    assertTrue(queue.submit(UUID.randomUUID(), () -> completedFuture(null)));
+    assertTrue(queue.submit(UUID.randomUUID(), () -> completedFuture(null)));
+    assertFalse(queue.submit(UUID.randomUUID(), () -> completedFuture(null)));
+
+    assertEquals(2, queue.getPendingCount());
+    assertEquals(1L, queue.getMetrics().getData("rejected"));
+  }
+
+  @Test
+  public void testRepairPendingRemovesRepairedFacts() throws Exception {
+    queue.submit(UUID.randomUUID(), () -> completedFuture(null));
+    queue.repairPending();
+
+    assertEquals(0, queue.getPendingCount());
+    assertEquals(1L, queue.getMetrics().getData("repaired"));
+  }
+
+  @Test
+  public void testRepairPendingRetriesFailedRepair() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    queue.submit(UUID.randomUUID(), () -> attempts.incrementAndGet() < 2 ? failedFuture() : completedFuture(null));
+
+    queue.repairPending();
+    assertEquals(1, queue.getPendingCount());
+    queue.repairPending();
+    assertEquals(0, queue.getPendingCount());
+
+    assertEquals(2, attempts.get());
+    assertEquals(1L, queue.getMetrics().getData("failedAttempts"));
+    assertEquals(1L, queue.getMetrics().getData("repaired"));
+  }
+
+  @Test
+  public void testRepairPendingAbandonsRepairAfterMaxAttempts() throws Exception {
+    queue.submit(UUID.randomUUID(), () -> {
+      throw new IllegalStateException();
+    });
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(1, queue.getPendingCount());
+      queue.repairPending();
+    }
+
+    assertEquals(0, queue.getPendingCount());
+    assertEquals(3L, queue.getMetrics().getData("failedAttempts"));
+    assertEquals(1L, queue.getMetrics().getData("abandoned"));
+  }
+
+  private static CompletableFuture<Void> failedFuture() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    future.completeExceptionally(new IllegalStateException());
+    return future;
+  }
+}
@@ -0,0 +1,73 @@
+package no.mnemonic.act.platform.dao.facade.utilities;
+
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StageLatencyRecorderTest {
+
+  @Test
+  public void testRecordWithBlankStageThrowsException() {
+    StageLatencyRecorder recorder = new StageLatencyRecorder();
+    assertThrows(IllegalArgumentException.class, () -> recorder.record(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> recorder.record(" ", 1));
+  }
+
+  @Test
+  public void testGetStatisticsWithoutRecordings() {
+    assertTrue(new StageLatencyRecorder().getStatistics().isEmpty());
+  }
+
+  @Test
+  public void testRecordAggregatesPerStage() {
+    StageLatencyRecorder recorder = new StageLatencyRecorder();
+    recorder.record("a", 10);
+    recorder.record("a", 30);
+    recorder.record("b", 5);
+
+    Map<String, StageLatencyRecorder.StageStatistics> statistics = recorder.getStatistics();
+    assertEquals(2, statistics.size());
+    assertEquals(2, statistics.get("a").getCount());
+    assertEquals(40, statistics.get("a").getTotalNanos());
+    assertEquals(30, statistics.get("a").getMaxNanos());
+    assertEquals(20, statistics.get("a").getAverageNanos());
+    assertEquals(1, statistics.get("b").getCount());
+    assertEquals(5, statistics.get("b").getMaxNanos());
+  }
+
+  @Test
+  public void testRecordConcurrently() throws Exception {
+    StageLatencyRecorder recorder = new StageLatencyRecorder();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 1000; i++) {
+      long duration = i;
+      executor.submit(() -> recorder.record("stage", duration));
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    StageLatencyRecorder.StageStatistics statistics = recorder.getStatistics().get("stage");
+    assertEquals(1000, statistics.getCount());
+    assertEquals(999 * 1000 / 2, statistics.getTotalNanos());
+    assertEquals(999, statistics.getMaxNanos());
+  }
+
+  @Test
+  public void testGetMetricsPerStage() throws MetricException {
+    StageLatencyRecorder recorder = new StageLatencyRecorder();
+    recorder.record("a", 10_000);
+    recorder.record("a", 30_000);
+
+    Metrics metrics = recorder.getMetrics();
+    assertEquals(1, metrics.getSubMetrics().size());
+    assertEquals(2L, metrics.getSubMetrics("a").getData("count"));
+    assertEquals(30L, metrics.getSubMetrics("a").getData("maxMicros"));
+  }
+}
@@ -1,5 +1,7 @@
 package no.mnemonic.act.platform.dao.tinkerpop;
 
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
 import no.mnemonic.act.platform.dao.cassandra.ClusterManager;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
@@ -46,8 +48,9 @@ public class ActGraphIT {
             .setPort(cassandra.getExposedHostPort(9042))
             .addContactPoint(DockerTestUtils.getDockerHost())
             .build();
-    objectManager = new ObjectManager(clusterManager);
-    factManager = new FactManager(clusterManager);
+    CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport());
+    objectManager = new ObjectManager(clusterManager, cacheInvalidationBus);
+    factManager = new FactManager(clusterManager, cacheInvalidationBus);
     clusterManager.startComponent();
     objectManager.startComponent();
     factManager.startComponent();
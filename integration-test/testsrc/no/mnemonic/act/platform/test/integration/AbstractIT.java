@@ -344,11 +344,23 @@ public abstract class AbstractIT {
       bind(String.class).annotatedWith(Names.named("act.access.controller.properties.reload.interval")).toInstance("60000");
       bind(String.class).annotatedWith(Names.named("act.action.triggers.enabled")).toInstance("true");
       bind(String.class).annotatedWith(Names.named("trigger.administration.service.configuration.directory")).toInstance(RESOURCES_FOLDER);
+      bind(String.class).annotatedWith(Names.named("act.fact.change.stream.enabled")).toInstance("false");
+      bind(String.class).annotatedWith(Names.named("act.fact.change.stream.directory")).toInstance("target/");
+      bind(String.class).annotatedWith(Names.named("act.fact.existence.search.fallback.enabled")).toInstance("true");
+      bind(String.class).annotatedWith(Names.named("act.metrics.endpoint.port")).toInstance("0");
+      bind(String.class).annotatedWith(Names.named("act.gremlin.script.execution.timeout")).toInstance("120000");
+      bind(String.class).annotatedWith(Names.named("act.gremlin.executor.threads")).toInstance("4");
       bind(String.class).annotatedWith(Names.named("act.cassandra.data.center")).toInstance("datacenter1");
       bind(String.class).annotatedWith(Names.named("act.cassandra.contact.points")).toInstance(DockerTestUtils.getDockerHost());
       bind(String.class).annotatedWith(Names.named("act.cassandra.port")).toInstance(String.valueOf(cassandra.getExposedHostPort(9042)));
       bind(String.class).annotatedWith(Names.named("act.elasticsearch.contact.points")).toInstance(DockerTestUtils.getDockerHost());
       bind(String.class).annotatedWith(Names.named("act.elasticsearch.port")).toInstance(String.valueOf(elastic.getExposedHostPort(9200)));
+      bind(String.class).annotatedWith(Names.named("act.elasticsearch.search.pagination.mode")).toInstance("Scroll");
+      bind(String.class).annotatedWith(Names.named("act.elasticsearch.index.partitioning")).toInstance("None");
+      bind(String.class).annotatedWith(Names.named("act.elasticsearch.index.partition.shards")).toInstance("0");
+      bind(String.class).annotatedWith(Names.named("act.elasticsearch.bulk.actions")).toInstance("1000");
+      bind(String.class).annotatedWith(Names.named("act.elasticsearch.bulk.size.mb")).toInstance("5");
+      bind(String.class).annotatedWith(Names.named("act.elasticsearch.bulk.flush.interval")).toInstance("1s");
       bind(String.class).annotatedWith(Names.named("act.smb.queue.name")).toInstance("Service.ACT");
       bind(String.class).annotatedWith(Names.named("act.smb.server.url")).toInstance(smbServerUrl);
       bind(String.class).annotatedWith(Names.named("act.smb.server.username")).toInstance("admin");
@@ -369,6 +381,7 @@ public abstract class AbstractIT {
       bind(String.class).annotatedWith(Names.named("act.smb.client.url")).toInstance(smbClientUrl);
       bind(String.class).annotatedWith(Names.named("act.smb.client.username")).toInstance("admin");
       bind(String.class).annotatedWith(Names.named("act.smb.client.password")).toInstance("admin");
+      bind(String.class).annotatedWith(Names.named("act.smb.client.serializer")).toInstance("binary");
     }
   }
 }
@@ -5,9 +5,12 @@ import no.mnemonic.act.platform.auth.SubjectResolver;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
 import no.mnemonic.act.platform.dao.cassandra.ClusterManager;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectStatisticsManager;
 import no.mnemonic.act.platform.dao.cassandra.OriginManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
@@ -19,6 +22,7 @@ import no.mnemonic.act.platform.dao.facade.converters.FactCommentRecordConverter
 import no.mnemonic.act.platform.dao.facade.converters.FactRecordConverter;
 import no.mnemonic.act.platform.dao.facade.converters.ObjectRecordConverter;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.handlers.FactRetractionHandler;
 import no.mnemonic.act.platform.service.ti.resolvers.OriginResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactTypeRequestResolver;
@@ -54,6 +58,7 @@ public class ActGraphIT {
   private static ClusterManager clusterManager;
   private static ClientFactory clientFactory;
   private static FactManager factManager;
+  private static ObjectStatisticsManager objectStatisticsManager;
   private static ObjectManager objectManager;
   private static ObjectFactDao objectFactDao;
   private static FactSearchManager factSearchManager;
@@ -107,8 +112,11 @@ public class ActGraphIT {
     when(mockSecurityContext.getCurrentUserID()).thenReturn(new UUID(0, 1));
     when(mockSecurityContext.getAvailableOrganizationID()).thenReturn(SetUtils.set(new UUID(0, 1)));
 
-    objectManager = new ObjectManager(clusterManager);
-    factManager = new FactManager(clusterManager);
+    CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport());
+
+    objectManager = new ObjectManager(clusterManager, cacheInvalidationBus);
+    factManager = new FactManager(clusterManager, cacheInvalidationBus);
+    objectStatisticsManager = new ObjectStatisticsManager(clusterManager);
     factSearchManager = new FactSearchManager(clientFactory)
             .setTestEnvironment(true)
             .setSearchScrollExpiration("5s")
@@ -117,6 +125,7 @@ public class ActGraphIT {
             objectManager,
             factManager,
             factSearchManager,
+            objectStatisticsManager,
             new ObjectRecordConverter(),
             new FactRecordConverter(
                     factManager,
@@ -124,20 +133,22 @@ public class ActGraphIT {
                     new ObjectRecordConverter(),
                     new FactAclEntryRecordConverter(), new FactCommentRecordConverter()),
             new FactAclEntryRecordConverter(),
-            new FactCommentRecordConverter());
+            new FactCommentRecordConverter(),
+            true);
     objectFactTypeResolver = new ObjectFactTypeResolver(factManager, objectManager);
 
     factTypeRequestResolver = new FactTypeRequestResolver(factManager);
-    factRetractionHandler = new FactRetractionHandler(factTypeRequestResolver, factSearchManager, mockSecurityContext);
+    factRetractionHandler = new FactRetractionHandler(factTypeRequestResolver, factManager, objectFactDao, new FactRetractionIndex(new CacheInvalidationBus(new LoopbackCacheInvalidationTransport())), mockSecurityContext);
     SubjectResolver subjectResolver = mock(SubjectResolver.class);
     OrganizationResolver organizationResolver = mock(OrganizationResolver.class);
     propertyHelper = new PropertyHelper(factRetractionHandler, objectFactDao, objectFactTypeResolver, mockSecurityContext,
-            subjectResolver, organizationResolver, new OriginResolver(new OriginManager(clusterManager), subjectResolver));
+            subjectResolver, organizationResolver, new OriginResolver(new OriginManager(clusterManager, cacheInvalidationBus), subjectResolver));
 
     clusterManager.startComponent();
     clientFactory.startComponent();
     objectManager.startComponent();
     factManager.startComponent();
+    objectStatisticsManager.startComponent();
     factSearchManager.startComponent();
 
     // Create Objects and Facts in order to create Graph to traverse.
@@ -201,6 +212,7 @@ public class ActGraphIT {
   public static void teardown() {
     ObjectUtils.ifNotNullDo(factManager, FactManager::stopComponent);
     ObjectUtils.ifNotNullDo(objectManager, ObjectManager::stopComponent);
+    ObjectUtils.ifNotNullDo(objectStatisticsManager, ObjectStatisticsManager::stopComponent);
     ObjectUtils.ifNotNullDo(factSearchManager, FactSearchManager::stopComponent);
     ObjectUtils.ifNotNullDo(clusterManager, ClusterManager::stopComponent);
     ObjectUtils.ifNotNullDo(clientFactory, ClientFactory::stopComponent);
@@ -223,7 +235,7 @@ public class ActGraphIT {
     when(securityContextNoAccess.getAvailableOrganizationID()).thenReturn(SetUtils.set(new UUID(0, 1)));
     when(securityContextNoAccess.hasReadPermission(any(FactRecord.class))).thenReturn(false);
 
-    FactRetractionHandler factRetractionHandler = new FactRetractionHandler(new FactTypeRequestResolver(factManager), factSearchManager, mockSecurityContext);
+    FactRetractionHandler factRetractionHandler = new FactRetractionHandler(new FactTypeRequestResolver(factManager), factManager, objectFactDao, new FactRetractionIndex(new CacheInvalidationBus(new LoopbackCacheInvalidationTransport())), mockSecurityContext);
     GraphTraversalSource g = ActGraph.builder()
             .setObjectFactDao(objectFactDao)
             .setObjectTypeFactResolver(objectFactTypeResolver)
@@ -348,7 +360,9 @@ public class ActGraphIT {
     // Need a new instance every time due to caching
     FactRetractionHandler factRetractionHandler = new FactRetractionHandler(
             new FactTypeRequestResolver(factManager),
-            factSearchManager,
+            factManager,
+            objectFactDao,
+            new FactRetractionIndex(new CacheInvalidationBus(new LoopbackCacheInvalidationTransport())),
             mockSecurityContext);
 
     return ActGraph.builder()
@@ -7,7 +7,9 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.rest.providers.ObjectMapperResolver;
+import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.services.common.api.ResultSet;
 
@@ -17,6 +19,7 @@ import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 
 @ApiModel(description = "Container for all responses from the API.")
 public class ResultStash<T> {
@@ -31,13 +34,16 @@ public class ResultStash<T> {
   private final List<ResultMessage> messages;
   @ApiModelProperty(value = "Returned results (might be an array or a single object)", required = true)
   private final T data;
+  // Only known after all results have been written, thus, evaluated lazily by the ResultStashSerializer.
+  private final Supplier<String> nextCursor;
 
-  private ResultStash(int responseCode, int limit, int count, List<ResultMessage> messages, T data) {
+  private ResultStash(int responseCode, int limit, int count, List<ResultMessage> messages, T data, Supplier<String> nextCursor) {
     this.responseCode = responseCode;
     this.limit = limit;
     this.count = count;
     this.messages = messages;
     this.data = data;
+    this.nextCursor = ObjectUtils.ifNull(nextCursor, () -> () -> null);
   }
 
   public int getResponseCode() {
@@ -67,6 +73,11 @@ public class ResultStash<T> {
     return data;
   }
 
+  @ApiModelProperty(value = "Cursor which resumes a search after the last returned result (only returned by resumable searches)")
+  public String getNextCursor() {
+    return nextCursor.get();
+  }
+
   public static <T> Response buildResponse(T model) {
     return ResultStash.builder()
             .setData(model)
@@ -78,6 +89,7 @@ public class ResultStash<T> {
             .setLimit(result.getLimit())
             .setCount(result.getCount())
             .setData(result)
+            .setNextCursor(result instanceof StreamingResultSet ? ((StreamingResultSet<T>) result)::getNextCursor : null)
             .buildResponse();
   }
 
@@ -91,6 +103,7 @@ public class ResultStash<T> {
     private int count;
     private List<ResultMessage> messages;
     private T data;
+    private Supplier<String> nextCursor;
 
     private Builder() {
     }
@@ -103,7 +116,7 @@ public class ResultStash<T> {
                 // Manually write ResultStash to output in order to stream results to clients.
                 // This will use ResultStashSerializer as configured in ObjectMapperResolver.
                 try (JsonGenerator gen = ObjectMapperResolver.getInstance().getFactory().createGenerator(output)) {
-                  gen.writeObject(new ResultStash<>(status.getStatusCode(), limit, count, messages, data));
+                  gen.writeObject(new ResultStash<>(status.getStatusCode(), limit, count, messages, data, nextCursor));
                   gen.flush();
                 }
               })
@@ -130,6 +143,11 @@ public class ResultStash<T> {
       return this;
     }
 
+    public Builder<T> setNextCursor(Supplier<String> nextCursor) {
+      this.nextCursor = nextCursor;
+      return this;
+    }
+
     public Builder<T> addActionError(String message, String messageTemplate) {
       ResultMessage error = ResultMessage.builder()
               .setType(ResultMessage.Type.ActionError)
@@ -172,7 +190,12 @@ public class ResultStash<T> {
    * Custom serializer for {@link ResultStash} which consumes all results from the service layer and writes them to
    * the output stream (if result implements Iterable or Iterator). It will also write the correct number of fetched
    * results, i.e. the 'size' field in {@link ResultStash}. If the result contains a single object that object will
-   * simply be serialized as-is and 'size' will be 0.
+   * simply be serialized as-is and 'size' will be 0. The 'nextCursor' field is written last (and only if available)
+   * because it is only known after all results have been consumed.
+   * <p>
+   * Results are written one by one while they are fetched from the service layer, i.e. a result is never held in
+   * memory longer than it takes to serialize it, and the response is flushed after the first result in order to
+   * send the first bytes to clients as early as possible.
    * <p>
    * Note: This serializer cannot be registered directly on {@link ResultStash} using {@link JsonSerialize} because
    * then Swagger won't pick up the properties and won't show them in the documentation. Instead it's manually
@@ -191,21 +214,27 @@ public class ResultStash<T> {
       gen.writeObjectField("messages", value.getMessages());
 
       // Write 'data' field which will consume all results from the service layer.
-      int size = writeData(value.getData(), gen);
+      int size = writeData(value.getData(), gen, serializers);
 
       // Write 'size' field based on the number of fetched results.
       gen.writeNumberField("size", size);
 
+      // Write 'nextCursor' field after all results have been consumed, omit it if the search can't be resumed.
+      String nextCursor = value.getNextCursor();
+      if (nextCursor != null) {
+        gen.writeStringField("nextCursor", nextCursor);
+      }
+
       gen.writeEndObject();
     }
 
-    private int writeData(Object data, JsonGenerator gen) throws IOException {
+    private int writeData(Object data, JsonGenerator gen, SerializerProvider serializers) throws IOException {
       gen.writeFieldName("data");
 
       if (data instanceof Iterable) {
-        return writeIterator(((Iterable) data).iterator(), gen);
+        return writeIterator(((Iterable) data).iterator(), gen, serializers);
       } else if (data instanceof Iterator) {
-        return writeIterator((Iterator) data, gen);
+        return writeIterator((Iterator) data, gen, serializers);
       } else {
         // Not a collection, write single object as-is and set 'size' to 0.
         gen.writeObject(data);
@@ -213,14 +242,19 @@ public class ResultStash<T> {
       }
     }
 
-    private int writeIterator(Iterator iterator, JsonGenerator gen) throws IOException {
+    private int writeIterator(Iterator iterator, JsonGenerator gen, SerializerProvider serializers) throws IOException {
       // Write an array with all results. This will actually fetch all results from the service layer!
       gen.writeStartArray();
 
       int size = 0;
       while (iterator.hasNext()) {
-        gen.writeObject(iterator.next());
-        size++;
+        // Serialize with the current SerializerProvider instead of gen.writeObject() which sets up a new provider
+        // for every single result. The provider caches the serializer of each type after the first lookup.
+        serializers.defaultSerializeValue(iterator.next(), gen);
+        if (++size == 1) {
+          // Don't wait for the output buffers to fill up before sending the first result.
+          gen.flush();
+        }
       }
 
       gen.writeEndArray();
@@ -1,5 +1,7 @@
 package no.mnemonic.act.platform.rest.api.v1;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.swagger.annotations.*;
 import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
 import no.mnemonic.act.platform.api.exceptions.AuthenticationFailedException;
@@ -8,25 +10,39 @@ import no.mnemonic.act.platform.api.exceptions.ObjectNotFoundException;
 import no.mnemonic.act.platform.api.model.v1.AclEntry;
 import no.mnemonic.act.platform.api.model.v1.Fact;
 import no.mnemonic.act.platform.api.model.v1.FactComment;
+import no.mnemonic.act.platform.api.model.v1.FactImportResult;
 import no.mnemonic.act.platform.api.request.v1.*;
+import no.mnemonic.act.platform.api.service.v1.RequestHeader;
 import no.mnemonic.act.platform.api.service.v1.ThreatIntelligenceService;
 import no.mnemonic.act.platform.rest.api.ResultStash;
 import no.mnemonic.act.platform.rest.api.auth.CredentialsResolver;
+import no.mnemonic.act.platform.rest.providers.ObjectMapperResolver;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 
 import javax.annotation.security.RolesAllowed;
 import javax.inject.Inject;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.IntStream;
 
 import static no.mnemonic.act.platform.rest.api.ResultStash.buildResponse;
 
@@ -34,6 +50,13 @@ import static no.mnemonic.act.platform.rest.api.ResultStash.buildResponse;
 @Api(tags = {"experimental"})
 public class FactEndpoint {
 
+  static final String NDJSON = "application/x-ndjson";
+  static final int MAX_IMPORTED_FACTS = 100_000;
+
+  private static final Logger LOGGER = Logging.getLogger(FactEndpoint.class);
+  private static final ObjectReader FACT_READER = ObjectMapperResolver.getInstance().readerFor(CreateFactRequest.class);
+  private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
   private final CredentialsResolver credentialsResolver;
   private final ThreatIntelligenceService service;
 
@@ -95,6 +118,9 @@ public class FactEndpoint {
                   "number of Facts matching the search parameters). It is allowed to request an unlimited search result " +
                   "(i.e. 'limit' parameter set to 0), however, the API will enforce a maximum upper limit in order to protect " +
                   "system resources. In this case the search should be narrowed down using additional search parameters.\n\n" +
+                  "Large results can be fetched in chunks by setting the 'cursor' parameter to '*'. Facts are then returned " +
+                  "sorted by timestamp and the response contains a 'nextCursor' field. Repeating the request with 'cursor' " +
+                  "set to this value returns the Facts following the last returned Fact.\n\n" +
                   "[0] https://www.elastic.co/guide/en/elasticsearch/reference/current/query-dsl-simple-query-string-query.html",
           response = Fact.class,
           responseContainer = "list"
@@ -147,6 +173,49 @@ public class FactEndpoint {
             .buildResponse();
   }
 
+  @POST
+  @Path("/import")
+  @Consumes(NDJSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(
+          value = "Import multiple new Facts at once.",
+          notes = "This operation imports many Facts with one request. The request body contains one Fact per line " +
+                  "(newline delimited JSON), where each line has the same format as the request body when creating a " +
+                  "single Fact. Every Fact is handled in the same way as when creating a single Fact, i.e. an existing " +
+                  "Fact is refreshed instead of creating a duplicate, but the Facts are validated and stored in batches.\n\n" +
+                  "Blank lines are ignored. The position of a Fact is the number of non-blank lines before it (starting at 0).\n\n" +
+                  "The whole request is rejected with a 412 if any line cannot be parsed or is missing required fields. " +
+                  "The errors refer to the position of the Fact, e.g. 'fact[3].type'. " +
+                  "Otherwise, a Fact which cannot be imported, e.g. because its value does not pass the FactType's Validator, " +
+                  "does not fail the whole request. Instead, the outcome is returned per Fact together with the position " +
+                  "of the Fact. At most 100000 Facts can be imported with one request.\n\n" +
+                  "The Facts are imported in chunks while the results are returned. If a chunk fails after the first chunk " +
+                  "has been imported, the results of the already imported Facts are kept and all remaining Facts are " +
+                  "returned as failed together with the error.",
+          response = FactImportResult.class,
+          responseContainer = "list"
+  )
+  @ApiResponses({
+          @ApiResponse(code = 401, message = "User could not be authenticated."),
+          @ApiResponse(code = 403, message = "User is not allowed to perform this operation."),
+          @ApiResponse(code = 412, message = "Any parameter has an invalid format.")
+  })
+  @RolesAllowed("addThreatIntelFact")
+  public Response importFacts(
+          @ApiParam(value = "Facts to import, one per line.") @NotNull InputStream body
+  ) throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    List<CreateFactRequest> facts = parseFacts(body);
+    RequestHeader requestHeader = credentialsResolver.getRequestHeader();
+
+    // Import the first chunk before responding, thus, errors such as missing permissions still fail the whole request.
+    // The remaining chunks are imported while the results are streamed to the client.
+    ImportResultIterator results = new ImportResultIterator(requestHeader, facts, importChunk(requestHeader, facts, 0));
+    return ResultStash.builder()
+            .setCount(facts.size())
+            .setData(results)
+            .buildResponse();
+  }
+
   @GET
   @Path("/uuid/{fact}/meta")
   @Produces(MediaType.APPLICATION_JSON)
@@ -363,6 +432,59 @@ public class FactEndpoint {
             .buildResponse();
   }
 
+  private Iterator<FactImportResult> importChunk(RequestHeader requestHeader, List<CreateFactRequest> facts, int offset)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    // Import Facts in chunks in order to limit the size of each service call.
+    ImportFactsRequest request = new ImportFactsRequest()
+            .setFacts(facts.subList(offset, Math.min(offset + ImportFactsRequest.MAX_FACTS, facts.size())));
+    return service.importFacts(requestHeader, request).iterator();
+  }
+
+  private List<CreateFactRequest> parseFacts(InputStream body) throws InvalidArgumentException {
+    List<CreateFactRequest> facts = new ArrayList<>();
+    InvalidArgumentException invalid = new InvalidArgumentException();
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      String line;
+      // Position of the Fact among all non-blank lines, the same position is returned in the results.
+      int position = 0;
+      while ((line = reader.readLine()) != null) {
+        if (StringUtils.isBlank(line)) continue;
+        // Also count lines which couldn't be parsed, otherwise a request with many invalid lines is read completely.
+        if (position >= MAX_IMPORTED_FACTS) {
+          throw new InvalidArgumentException().addValidationError(String.format("Request contains more than %d Facts.", MAX_IMPORTED_FACTS),
+                  "too.many.facts", "body", String.valueOf(position));
+        }
+
+        try {
+          CreateFactRequest fact = FACT_READER.readValue(line);
+          // Reject the whole request upfront, otherwise a part of the Facts would already be imported.
+          for (ConstraintViolation<CreateFactRequest> violation : VALIDATOR.validate(fact)) {
+            invalid.addValidationError(violation.getMessage(), violation.getMessageTemplate(),
+                    String.format("fact[%d].%s", position, violation.getPropertyPath()),
+                    ObjectUtils.ifNotNull(violation.getInvalidValue(), Object::toString, "NULL"));
+          }
+          facts.add(fact);
+        } catch (JsonProcessingException ex) {
+          // Don't echo the line, it might be large. Only report where parsing failed.
+          invalid.addValidationError(InvalidArgumentException.ErrorMessage.PARSE, String.format("fact[%d]", position),
+                  ObjectUtils.ifNotNull(ex.getLocation(), location -> String.format("column %d", location.getColumnNr()), "NULL"));
+        }
+
+        position++;
+      }
+    } catch (IOException ex) {
+      throw new InvalidArgumentException().addValidationError(InvalidArgumentException.ErrorMessage.PARSE, "body", ex.getMessage());
+    }
+
+    if (invalid.hasErrors()) throw invalid;
+    if (facts.isEmpty()) {
+      throw new InvalidArgumentException().addValidationError(InvalidArgumentException.ErrorMessage.NULL, "body", "NULL");
+    }
+
+    return facts;
+  }
+
   private Long parseTimestamp(String parameter, String timestamp) throws InvalidArgumentException {
     try {
       return !StringUtils.isBlank(timestamp) ? Instant.parse(timestamp).toEpochMilli() : null;
@@ -371,4 +493,70 @@ public class FactEndpoint {
     }
   }
 
+  /**
+   * Returns the results of all chunks one after another, importing the next chunk only once the results of the
+   * previous chunk have been consumed. Thus, at most the results of one chunk are held in memory at the same time.
+   * <p>
+   * If a chunk fails after the response has been started the error cannot be returned as a response status any more.
+   * Instead, the Facts of the failed chunk and all following chunks are returned as failed with the error, and the
+   * results of the already imported chunks are kept.
+   */
+  private class ImportResultIterator implements Iterator<FactImportResult> {
+
+    private final RequestHeader requestHeader;
+    private final List<CreateFactRequest> facts;
+    private Iterator<FactImportResult> chunk;
+    private int offset;
+    private boolean aborted;
+
+    private ImportResultIterator(RequestHeader requestHeader, List<CreateFactRequest> facts, Iterator<FactImportResult> firstChunk) {
+      this.requestHeader = requestHeader;
+      this.facts = facts;
+      this.chunk = firstChunk;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!chunk.hasNext()) {
+        if (aborted || offset + ImportFactsRequest.MAX_FACTS >= facts.size()) return false;
+
+        offset += ImportFactsRequest.MAX_FACTS;
+        try {
+          chunk = importChunk(requestHeader, facts, offset);
+        } catch (Exception ex) {
+          LOGGER.warning(ex, "Could not import Facts starting at position %d.", offset);
+          chunk = failRemaining(ex);
+          aborted = true;
+        }
+      }
+
+      return true;
+    }
+
+    @Override
+    public FactImportResult next() {
+      if (!hasNext()) throw new NoSuchElementException();
+
+      FactImportResult result = chunk.next();
+      // The service reports the position inside the chunk, translate it to the position inside the request body.
+      return FactImportResult.builder()
+              .setIndex(offset + result.getIndex())
+              .setStatus(result.getStatus())
+              .setFact(result.getFact())
+              .setError(result.getError())
+              .build();
+    }
+
+    private Iterator<FactImportResult> failRemaining(Exception ex) {
+      String error = String.format("Import aborted at position %d (%s).", offset,
+              ObjectUtils.ifNull(ex.getMessage(), ex.getClass().getSimpleName()));
+      return IntStream.range(0, facts.size() - offset)
+              .mapToObj(index -> FactImportResult.builder()
+                      .setIndex(index)
+                      .setStatus(FactImportResult.Status.Failed)
+                      .setError(error)
+                      .build())
+              .iterator();
+    }
+  }
 }
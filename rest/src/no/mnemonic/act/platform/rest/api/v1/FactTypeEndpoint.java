@@ -96,7 +96,19 @@ public class FactTypeEndpoint {
                   "* TrueValidator: It accepts a value without any validation. Use carefully as the Validator cannot be " +
                   "changed after the FactType has been created!\n" +
                   "* RegexValidator: It matches a value against a regular expression. The regular expression must be " +
-                  "provided using the 'validatorParameter' field.",
+                  "provided using the 'validatorParameter' field. Matching is aborted and the value rejected if the " +
+                  "regular expression backtracks excessively. Likewise, the value is rejected if the regular expression " +
+                  "repeats a group so often that matching exhausts the stack, which can happen after about a thousand " +
+                  "repetitions (e.g. '([a-z]+\\.)+[a-z]+' against a value with thousands of dots). Such values are " +
+                  "rejected even if they match the regular expression.\n" +
+                  "* IPv4Validator: It accepts IPv4 addresses in dotted-decimal notation.\n" +
+                  "* IPv6Validator: It accepts IPv6 addresses, including compressed notation and embedded IPv4 addresses.\n" +
+                  "* DomainValidator: It accepts domain names.\n" +
+                  "* HashValidator: It accepts hexadecimal hash digests. Accepted algorithms (md5, sha1, sha256, sha512) " +
+                  "can be restricted by providing a comma-separated list using the 'validatorParameter' field.\n" +
+                  "* UrlValidator: It accepts absolute URLs. Accepted schemes can be restricted by providing a " +
+                  "comma-separated list using the 'validatorParameter' field.\n\n" +
+                  "Prefer the specialized Validators over RegexValidator where possible as they are considerably faster.",
           response = FactType.class,
           code = 201
   )
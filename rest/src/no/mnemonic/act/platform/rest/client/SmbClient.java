@@ -1,10 +1,12 @@
 package no.mnemonic.act.platform.rest.client;
 
+import no.mnemonic.act.platform.api.serializer.BinaryMessageSerializer;
 import no.mnemonic.act.platform.api.service.v1.ThreatIntelligenceService;
 import no.mnemonic.commons.component.LifecycleAspect;
 import no.mnemonic.commons.logging.Logger;
 import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.lambda.LambdaUtils;
+import no.mnemonic.messaging.requestsink.jms.ExceptionMessage;
 import no.mnemonic.messaging.requestsink.jms.JMSRequestSink;
 import no.mnemonic.messaging.requestsink.jms.ProtocolVersion;
 import no.mnemonic.messaging.requestsink.jms.serializer.MessageSerializer;
@@ -24,6 +26,9 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Client-side implementation of the Service Message Bus using ActiveMQ.
+ * <p>
+ * The serializer is selected with 'act.smb.client.serializer'. Use 'xstream' for servers which only understand XStream
+ * and 'binary' for the more compact {@link BinaryMessageSerializer} once all servers have been upgraded.
  */
 @Singleton
 public class SmbClient implements Provider<ThreatIntelligenceService>, LifecycleAspect {
@@ -31,6 +36,8 @@ public class SmbClient implements Provider<ThreatIntelligenceService>, Lifecycle
   private static final String ACTIVEMQ_CONTEXT_FACTORY = "org.apache.activemq.jndi.ActiveMQInitialContextFactory";
   private static final String ACTIVEMQ_CONNECTION_FACTORY = "ConnectionFactory";
   private static final int MAX_WAIT_MS = 2000;
+  private static final String SERIALIZER_XSTREAM = "xstream";
+  private static final String SERIALIZER_BINARY = "binary";
 
   private static final Logger logger = Logging.getLogger(SmbClient.class);
 
@@ -40,16 +47,24 @@ public class SmbClient implements Provider<ThreatIntelligenceService>, Lifecycle
   private final String contextURL;
   private final String userName;
   private final String password;
+  private final String serializer;
 
   @Inject
   public SmbClient(@Named(value = "act.smb.queue.name") String queueName,
                    @Named(value = "act.smb.client.url") String contextURL,
                    @Named(value = "act.smb.client.username") String userName,
-                   @Named(value = "act.smb.client.password") String password) {
+                   @Named(value = "act.smb.client.password") String password,
+                   @Named(value = "act.smb.client.serializer") String serializer) {
+    if (!SERIALIZER_XSTREAM.equals(serializer) && !SERIALIZER_BINARY.equals(serializer)) {
+      throw new IllegalArgumentException(String.format("Unsupported serializer '%s', use either '%s' or '%s'.",
+              serializer, SERIALIZER_XSTREAM, SERIALIZER_BINARY));
+    }
+
     this.queueName = queueName;
     this.contextURL = contextURL;
     this.userName = userName;
     this.password = password;
+    this.serializer = serializer;
   }
 
   @Override
@@ -98,7 +113,22 @@ public class SmbClient implements Provider<ThreatIntelligenceService>, Lifecycle
   }
 
   private MessageSerializer createSerializer() {
-    // XStreamMessageSerializer is the only serializer supported by the server.
+    return SERIALIZER_BINARY.equals(serializer) ? createBinarySerializer() : createXStreamSerializer();
+  }
+
+  private MessageSerializer createBinarySerializer() {
+    return BinaryMessageSerializer.builder()
+            // Response messages used by SMB.
+            .addAllowedClass(ServiceResponseValueMessage.class)
+            .addAllowedClass(ServiceStreamingResultSetResponseMessage.class)
+            .addAllowedClass(ExceptionMessage.class)
+            // Allow all response classes defined in the API (including exceptions).
+            .addAllowedClass("no.mnemonic.act.platform.api.model.*")
+            .addAllowedClass("no.mnemonic.act.platform.api.exceptions.*")
+            .build();
+  }
+
+  private MessageSerializer createXStreamSerializer() {
     return XStreamMessageSerializer.builder()
             // Common Java classes used in responses. Need to explicitly define Set/List because
             // XStream doesn't provide default converters for UnmodifiableSet/UnmodifiableList.
@@ -12,10 +12,11 @@ import org.junit.Test;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.UUID;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class ResultStashSerializerTest {
 
@@ -119,10 +120,142 @@ public class ResultStashSerializerTest {
     assertEquals(1, result.get("size").asInt());
   }
 
+  @Test
+  public void testSerializationOfResultSetWithNextCursor() throws Exception {
+    Response response = ResultStash.buildResponse(StreamingResultSet.<Fact>builder()
+            .setValues(ListUtils.list(Fact.builder().setId(UUID.randomUUID()).build()))
+            .setNextCursor(() -> "cursor")
+            .build());
+    JsonNode result = mapper.readTree(toJson(response));
+
+    assertEquals(1, result.get("size").asInt());
+    assertEquals("cursor", result.get("nextCursor").asText());
+  }
+
+  @Test
+  public void testSerializationOfResultSetWithoutNextCursor() throws Exception {
+    Response response = ResultStash.buildResponse(StreamingResultSet.<Fact>builder()
+            .setValues(ListUtils.list(Fact.builder().setId(UUID.randomUUID()).build()))
+            .build());
+    JsonNode result = mapper.readTree(toJson(response));
+
+    assertFalse(result.has("nextCursor"));
+  }
+
+  @Test
+  public void testSerializationOfLargeResultSetIsStreamed() throws Exception {
+    int numberOfResults = 100_000;
+    CountingOutputStream output = new CountingOutputStream();
+    FactIterator results = new FactIterator(numberOfResults, output);
+
+    Response response = ResultStash.buildResponse(StreamingResultSet.<Fact>builder()
+            .setCount(numberOfResults)
+            .setValues(results)
+            .build());
+    ((StreamingOutput) response.getEntity()).write(output);
+
+    assertEquals(numberOfResults, results.getProduced());
+    // The first result must have been sent before the second result was fetched.
+    assertTrue(results.getWrittenBeforeSecondResult() >= results.getResultSize());
+    // At no point more than a few output buffers worth of results have been held back, i.e. memory usage is
+    // independent of the number of results.
+    assertTrue(results.getMaxPendingResults() < 100);
+    assertTrue(output.getCount() > (long) numberOfResults * results.getResultSize());
+  }
+
+  @Test
+  public void testSerializationOfStreamedResultSetKeepsShape() throws Exception {
+    String json = toJson(ResultStash.buildResponse(StreamingResultSet.<Fact>builder()
+            .setLimit(10)
+            .setCount(100)
+            .setValues(new FactIterator(10, new CountingOutputStream()))
+            .build()));
+    JsonNode result = mapper.readTree(json);
+
+    assertEquals(200, result.get("responseCode").asInt());
+    assertEquals(10, result.get("limit").asInt());
+    assertEquals(100, result.get("count").asInt());
+    assertTrue(result.get("messages").isNull());
+    assertEquals(10, result.get("data").size());
+    assertEquals("value-000000", result.get("data").get(0).get("value").asText());
+    assertEquals(10, result.get("size").asInt());
+  }
+
   private String toJson(Response response) throws Exception {
     try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
       ((StreamingOutput) response.getEntity()).write(baos);
       return baos.toString();
     }
   }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+
+    private long getCount() {
+      return count;
+    }
+  }
+
+  /**
+   * Generates Facts of constant size lazily and keeps track of how many of them have not been written to the output yet.
+   */
+  private static class FactIterator implements Iterator<Fact> {
+    private final int numberOfResults;
+    private final CountingOutputStream output;
+    private final int resultSize;
+    private int produced;
+    private long writtenBeforeSecondResult;
+    private long maxPendingResults;
+
+    private FactIterator(int numberOfResults, CountingOutputStream output) throws Exception {
+      this.numberOfResults = numberOfResults;
+      this.output = output;
+      this.resultSize = mapper.writeValueAsBytes(createFact(0)).length;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return produced < numberOfResults;
+    }
+
+    @Override
+    public Fact next() {
+      if (produced == 1) writtenBeforeSecondResult = output.getCount();
+      maxPendingResults = Math.max(maxPendingResults, produced - output.getCount() / resultSize);
+      return createFact(produced++);
+    }
+
+    private Fact createFact(int index) {
+      return Fact.builder()
+              .setId(UUID.randomUUID())
+              .setValue(String.format("value-%06d", index))
+              .build();
+    }
+
+    private int getResultSize() {
+      return resultSize;
+    }
+
+    private int getProduced() {
+      return produced;
+    }
+
+    private long getWrittenBeforeSecondResult() {
+      return writtenBeforeSecondResult;
+    }
+
+    private long getMaxPendingResults() {
+      return maxPendingResults;
+    }
+  }
 }
@@ -1,21 +1,27 @@
 package no.mnemonic.act.platform.rest.api.v1;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
 import no.mnemonic.act.platform.api.model.v1.AclEntry;
 import no.mnemonic.act.platform.api.model.v1.Fact;
 import no.mnemonic.act.platform.api.model.v1.FactComment;
+import no.mnemonic.act.platform.api.model.v1.FactImportResult;
 import no.mnemonic.act.platform.api.request.v1.*;
 import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.rest.AbstractEndpointTest;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.junit.Test;
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Response;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
@@ -63,6 +69,139 @@ public class FactEndpointTest extends AbstractEndpointTest {
     verify(getTiService(), times(1)).createFact(notNull(), isA(CreateFactRequest.class));
   }
 
+  @Test
+  public void testImportFacts() throws Exception {
+    when(getTiService().importFacts(any(), isA(ImportFactsRequest.class))).then(i -> {
+      ImportFactsRequest request = i.getArgument(1);
+      assertEquals(2, request.getFacts().size());
+      assertEquals("first", request.getFacts().get(0).getValue());
+      assertEquals("second", request.getFacts().get(1).getValue());
+      return StreamingResultSet.<FactImportResult>builder().setValues(ListUtils.list(
+              FactImportResult.builder().setIndex(0).setStatus(FactImportResult.Status.Created).build(),
+              FactImportResult.builder().setIndex(1).setStatus(FactImportResult.Status.Failed).setError("error").build()
+      )).build();
+    });
+
+    String body = "{\"type\":\"type\",\"value\":\"first\"}\n\n{\"type\":\"type\",\"value\":\"second\"}\n";
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body, FactEndpoint.NDJSON));
+    JsonNode payload = getPayload(response);
+    assertEquals(200, response.getStatus());
+    assertEquals(2, payload.size());
+    assertEquals("Created", payload.get(0).get("status").textValue());
+    assertEquals("Failed", payload.get(1).get("status").textValue());
+    assertEquals("error", payload.get(1).get("error").textValue());
+
+    verify(getTiService(), times(1)).importFacts(notNull(), isA(ImportFactsRequest.class));
+  }
+
+  @Test
+  public void testImportFactsInChunks() throws Exception {
+    when(getTiService().importFacts(any(), isA(ImportFactsRequest.class))).then(i -> StreamingResultSet.<FactImportResult>builder()
+            .setValues(ListUtils.list(FactImportResult.builder().setIndex(0).setStatus(FactImportResult.Status.Created).build()))
+            .build());
+
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < ImportFactsRequest.MAX_FACTS + 1; i++) {
+      body.append("{\"type\":\"type\",\"value\":\"value\"}\n");
+    }
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body.toString(), FactEndpoint.NDJSON));
+    JsonNode payload = getPayload(response);
+    assertEquals(200, response.getStatus());
+    // The index reported for each chunk is translated to the position in the request body.
+    assertEquals(0, payload.get(0).get("index").intValue());
+    assertEquals(ImportFactsRequest.MAX_FACTS, payload.get(1).get("index").intValue());
+
+    verify(getTiService(), times(2)).importFacts(notNull(), isA(ImportFactsRequest.class));
+  }
+
+  @Test
+  public void testImportFactsReturnsPartialResultWhenLaterChunkFails() throws Exception {
+    when(getTiService().importFacts(any(), isA(ImportFactsRequest.class)))
+            .then(i -> StreamingResultSet.<FactImportResult>builder()
+                    .setValues(ListUtils.list(FactImportResult.builder().setIndex(0).setStatus(FactImportResult.Status.Created).build()))
+                    .build())
+            .thenThrow(new AccessDeniedException("denied"));
+
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < ImportFactsRequest.MAX_FACTS + 2; i++) {
+      body.append("{\"type\":\"type\",\"value\":\"value\"}\n");
+    }
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body.toString(), FactEndpoint.NDJSON));
+    JsonNode payload = getPayload(response);
+    assertEquals(200, response.getStatus());
+    assertEquals(3, payload.size());
+    assertEquals("Created", payload.get(0).get("status").textValue());
+    // The Facts of the failed chunk are reported with the error.
+    assertEquals(ImportFactsRequest.MAX_FACTS, payload.get(1).get("index").intValue());
+    assertEquals("Failed", payload.get(1).get("status").textValue());
+    assertTrue(payload.get(1).get("error").textValue().contains("denied"));
+    assertEquals(ImportFactsRequest.MAX_FACTS + 1, payload.get(2).get("index").intValue());
+    assertEquals("Failed", payload.get(2).get("status").textValue());
+
+    verify(getTiService(), times(2)).importFacts(notNull(), isA(ImportFactsRequest.class));
+  }
+
+  @Test
+  public void testImportFactsFailsWhenFirstChunkFails() throws Exception {
+    when(getTiService().importFacts(any(), isA(ImportFactsRequest.class))).thenThrow(new AccessDeniedException("denied"));
+
+    String body = "{\"type\":\"type\",\"value\":\"value\"}\n";
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body, FactEndpoint.NDJSON));
+    assertEquals(403, response.getStatus());
+  }
+
+  @Test
+  public void testImportFactsWithMalformedLine() throws Exception {
+    String body = "{\"type\":\"type\",\"value\":\"value\"}\n{\"type\":\n{\"value\":\"value\"}\n";
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body, FactEndpoint.NDJSON));
+    assertEquals(412, response.getStatus());
+
+    JsonNode messages = getMessages(response);
+    assertEquals(2, messages.size());
+    Set<String> fields = new HashSet<>();
+    messages.forEach(message -> fields.add(message.get("field").textValue()));
+    assertEquals(SetUtils.set("fact[1]", "fact[2].type"), fields);
+    verify(getTiService(), never()).importFacts(any(), any());
+  }
+
+  @Test
+  public void testImportFactsWithMalformedLineDoesNotEchoLine() throws Exception {
+    String body = "{\"type\":\"secret\"\n";
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body, FactEndpoint.NDJSON));
+    assertEquals(412, response.getStatus());
+
+    JsonNode messages = getMessages(response);
+    assertEquals(1, messages.size());
+    assertEquals("fact[0]", messages.get(0).get("field").textValue());
+    assertFalse(messages.get(0).get("parameter").textValue().contains("secret"));
+  }
+
+  @Test
+  public void testImportFactsIgnoresBlankLinesInPosition() throws Exception {
+    String body = "{\"type\":\"type\",\"value\":\"value\"}\n\n   \n{\"value\":\"value\"}\n";
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body, FactEndpoint.NDJSON));
+    assertEquals(412, response.getStatus());
+
+    // The position matches the index returned in the results of the import.
+    JsonNode messages = getMessages(response);
+    assertEquals(1, messages.size());
+    assertEquals("fact[1].type", messages.get(0).get("field").textValue());
+  }
+
+  @Test
+  public void testImportFactsCountsUnparsableLinesTowardsLimit() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < FactEndpoint.MAX_IMPORTED_FACTS + 1; i++) {
+      body.append("x\n");
+    }
+    Response response = target("/v1/fact/import").request().post(Entity.entity(body.toString(), FactEndpoint.NDJSON));
+    assertEquals(412, response.getStatus());
+
+    JsonNode messages = getMessages(response);
+    assertEquals(1, messages.size());
+    assertEquals("too.many.facts", messages.get(0).get("messageTemplate").textValue());
+  }
+
   @Test
   public void testGetMetaFacts() throws Exception {
     UUID fact = UUID.randomUUID();
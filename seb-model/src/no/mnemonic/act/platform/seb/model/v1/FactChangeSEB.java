@@ -0,0 +1,75 @@
+package no.mnemonic.act.platform.seb.model.v1;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import no.mnemonic.act.platform.utilities.json.TimestampDeserializer;
+import no.mnemonic.act.platform.utilities.json.TimestampSerializer;
+
+/**
+ * Event emitted when a Fact has been changed. It contains the type of change and the Fact in the state after the change.
+ */
+@JsonDeserialize(builder = FactChangeSEB.Builder.class)
+public class FactChangeSEB {
+
+  public enum Type {
+    Created, Refreshed, Retracted, AccessGranted, Commented
+  }
+
+  private final Type type;
+  @JsonSerialize(using = TimestampSerializer.class)
+  private final long timestamp;
+  private final FactSEB fact;
+
+  private FactChangeSEB(Type type, long timestamp, FactSEB fact) {
+    this.type = type;
+    this.timestamp = timestamp;
+    this.fact = fact;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public FactSEB getFact() {
+    return fact;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @JsonPOJOBuilder(withPrefix = "set")
+  public static class Builder {
+    private Type type;
+    @JsonDeserialize(using = TimestampDeserializer.class)
+    private long timestamp;
+    private FactSEB fact;
+
+    private Builder() {
+    }
+
+    public FactChangeSEB build() {
+      return new FactChangeSEB(type, timestamp, fact);
+    }
+
+    public Builder setType(Type type) {
+      this.type = type;
+      return this;
+    }
+
+    public Builder setTimestamp(long timestamp) {
+      this.timestamp = timestamp;
+      return this;
+    }
+
+    public Builder setFact(FactSEB fact) {
+      this.fact = fact;
+      return this;
+    }
+  }
+}
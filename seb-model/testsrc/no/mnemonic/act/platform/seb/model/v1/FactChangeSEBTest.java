@@ -0,0 +1,36 @@
+package no.mnemonic.act.platform.seb.model.v1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FactChangeSEBTest extends AbstractSEBTest {
+
+  @Test
+  public void testDecode() throws Exception {
+    String json = "{" +
+            "type : 'Retracted'," +
+            "timestamp : '2016-11-30T15:47:01Z'," +
+            "fact : {}" +
+            "}";
+
+    FactChangeSEB model = getMapper().readValue(json, FactChangeSEB.class);
+    assertEquals(FactChangeSEB.Type.Retracted, model.getType());
+    assertEquals(1480520821000L, model.getTimestamp());
+    assertNotNull(model.getFact());
+  }
+
+  @Test
+  public void testEncode() {
+    FactChangeSEB model = FactChangeSEB.builder()
+            .setType(FactChangeSEB.Type.Retracted)
+            .setTimestamp(1480520821000L)
+            .setFact(FactSEB.builder().build())
+            .build();
+    JsonNode root = getMapper().valueToTree(model);
+    assertEquals("Retracted", root.get("type").textValue());
+    assertEquals("2016-11-30T15:47:01Z", root.get("timestamp").textValue());
+    assertTrue(root.get("fact").isObject());
+  }
+}
@@ -0,0 +1,68 @@
+package no.mnemonic.act.platform.service.aspects;
+
+import com.google.inject.matcher.Matchers;
+import no.mnemonic.act.platform.service.Service;
+import no.mnemonic.act.platform.utilities.metrics.LatencyHistogram;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.metrics.MetricsData;
+import no.mnemonic.commons.metrics.MetricsGroup;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ServiceMetricsAspect measures the latency of every service method, including the time spent in other aspects,
+ * and counts how many invocations failed with an exception. Every service method is implemented by exactly one
+ * delegate, thus, the metrics are reported per service method.
+ * <p>
+ * This aspect must be installed before all other aspects in order to wrap them.
+ */
+public class ServiceMetricsAspect extends AbstractAspect implements MetricAspect {
+
+  private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+  @Override
+  protected void configure() {
+    bindInterceptor(Matchers.subclassesOf(Service.class), matchServiceMethod(), this);
+    // Expose this instance such that the collected metrics can be reported.
+    bind(ServiceMetricsAspect.class).toInstance(this);
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    MethodMetrics metrics = methods.computeIfAbsent(invocation.getMethod().getName(), name -> new MethodMetrics());
+
+    long start = System.nanoTime();
+    try {
+      return invocation.proceed();
+    } catch (Throwable ex) {
+      metrics.errors.increment();
+      throw ex;
+    } finally {
+      metrics.latency.recordSince(start);
+    }
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    MetricsGroup group = new MetricsGroup();
+    // Sort by method name in order to report the metrics in a stable order.
+    for (Map.Entry<String, MethodMetrics> entry : new TreeMap<>(methods).entrySet()) {
+      MetricsData data = MetricsUtils.toMetrics(entry.getValue().latency)
+              .addData("errorCount", entry.getValue().errors.sum());
+      group.addSubMetrics(entry.getKey(), data);
+    }
+    return group;
+  }
+
+  private static class MethodMetrics {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+  }
+}
@@ -0,0 +1,53 @@
+package no.mnemonic.act.platform.service.container;
+
+import no.mnemonic.act.platform.api.serializer.BinaryMessageSerializer;
+import no.mnemonic.act.platform.api.service.v1.RequestHeader;
+import no.mnemonic.act.platform.auth.properties.model.SubjectCredentials;
+import no.mnemonic.services.common.messagebus.ServiceRequestMessage;
+
+import javax.inject.Provider;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Provides a {@link BinaryMessageSerializer} intended to be used by {@link SmbServer} in addition to the XStream-based
+ * serializer. Clients decide which of the registered serializers is used.
+ */
+public class BinaryMessageSerializerProvider implements Provider<BinaryMessageSerializer> {
+
+  @Override
+  public BinaryMessageSerializer get() {
+    BinaryMessageSerializer.Builder builder = BinaryMessageSerializer.builder()
+            // Request message used by SMB.
+            .addAllowedClass(ServiceRequestMessage.class)
+            // RequestHeader and SubjectCredentials are part of every service request.
+            .addAllowedClass(RequestHeader.class)
+            .addAllowedClass(SubjectCredentials.class)
+            // Allow all request classes defined in the API.
+            .addAllowedClass("no.mnemonic.act.platform.api.request.*");
+
+    // Add additional classes to white-list as specified by subclasses.
+    additionalAllowedClasses().forEach(builder::addAllowedClass);
+    additionalAllowedClassesRegex().forEach(builder::addAllowedClass);
+
+    return builder.build();
+  }
+
+  /**
+   * Override this method in order to allow additional classes in the white-list.
+   *
+   * @return Additional allowed classes (empty by default)
+   */
+  protected Set<Class<?>> additionalAllowedClasses() {
+    return Collections.emptySet();
+  }
+
+  /**
+   * Override this method in order to allow additional classes in the white-list (as regular expressions).
+   *
+   * @return Additional allowed classes (empty by default)
+   */
+  protected Set<String> additionalAllowedClassesRegex() {
+    return Collections.emptySet();
+  }
+}
@@ -1,5 +1,6 @@
 package no.mnemonic.act.platform.service.container;
 
+import no.mnemonic.act.platform.api.serializer.BinaryMessageSerializer;
 import no.mnemonic.act.platform.api.service.v1.ThreatIntelligenceService;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
@@ -16,6 +17,10 @@ import javax.inject.Named;
 
 /**
  * Server-side implementation of the Service Message Bus using ActiveMQ.
+ * <p>
+ * The server accepts requests encoded with the configured {@link MessageSerializer} (XStream by default) as well as
+ * requests encoded with the {@link BinaryMessageSerializer}. Every request carries the ID of the serializer used by
+ * the client and the response is encoded with the same serializer, thus, clients using either format can coexist.
  */
 public class SmbServer implements LifecycleAspect {
 
@@ -30,6 +35,7 @@ public class SmbServer implements LifecycleAspect {
   private final ServiceSessionFactory sessionFactory;
 
   private final MessageSerializer messageSerializer;
+  private final BinaryMessageSerializer binaryMessageSerializer;
 
   private final String queueName;
   private final String contextURL;
@@ -43,6 +49,7 @@ public class SmbServer implements LifecycleAspect {
   public SmbServer(ThreatIntelligenceService service,
                    ServiceSessionFactory sessionFactory,
                    MessageSerializer messageSerializer,
+                   BinaryMessageSerializer binaryMessageSerializer,
                    @Named(value = "act.smb.queue.name") String queueName,
                    @Named(value = "act.smb.server.url") String contextURL,
                    @Named(value = "act.smb.server.username") String userName,
@@ -50,6 +57,7 @@ public class SmbServer implements LifecycleAspect {
     this.service = service;
     this.sessionFactory = sessionFactory;
     this.messageSerializer = messageSerializer;
+    this.binaryMessageSerializer = binaryMessageSerializer;
     this.queueName = queueName;
     this.contextURL = contextURL;
     this.userName = userName;
@@ -72,6 +80,7 @@ public class SmbServer implements LifecycleAspect {
             .setUsername(userName)
             .setPassword(password)
             .addSerializer(messageSerializer)
+            .addSerializer(binaryMessageSerializer)
             .build();
 
     messageHandler.startComponent();
@@ -4,6 +4,8 @@ import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
 import no.mnemonic.act.platform.api.exceptions.AuthenticationFailedException;
 import no.mnemonic.act.platform.api.exceptions.UnexpectedAuthenticationFailedException;
 import no.mnemonic.act.platform.auth.IdentityResolver;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.services.common.auth.AccessController;
 import no.mnemonic.services.common.auth.InvalidCredentialsException;
@@ -11,20 +13,35 @@ import no.mnemonic.services.common.auth.model.Credentials;
 import no.mnemonic.services.common.auth.model.NamedFunction;
 import no.mnemonic.services.common.auth.model.OrganizationIdentity;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
  * The SecurityContext provides methods to perform access control checks, e.g. if a user is allowed to perform
  * a specific operation or if a user has access to a specific object.
+ * <p>
+ * A SecurityContext lives for exactly one service call. The results of the lookups performed against the
+ * {@link AccessController} (current user, available Organizations and permission decisions) are memoized for the
+ * lifetime of the context and discarded when the context is closed at the end of the service call.
  */
 public abstract class SecurityContext implements AutoCloseable {
 
+  private static final Logger LOGGER = Logging.getLogger(SecurityContext.class);
   private static final ThreadLocal<SecurityContext> currentContext = new ThreadLocal<>();
   private final AccessController accessController;
   private final IdentityResolver identityResolver;
   private final Credentials credentials;
+  private final AtomicReference<UUID> currentUserID = new AtomicReference<>();
+  private final AtomicReference<Set<UUID>> availableOrganizationID = new AtomicReference<>();
+  private final Map<PermissionKey, Boolean> permissionCache = new ConcurrentHashMap<>();
+  private final Statistics statistics = new Statistics();
 
   protected SecurityContext(AccessController accessController, IdentityResolver identityResolver, Credentials credentials) {
     this.accessController = ObjectUtils.notNull(accessController, "'accessController' not set in SecurityContext.");
@@ -81,6 +98,25 @@ public abstract class SecurityContext implements AutoCloseable {
   @Override
   public void close() {
     currentContext.remove();
+    // Discard memoized lookups such that nothing survives the service call.
+    currentUserID.set(null);
+    availableOrganizationID.set(null);
+    permissionCache.clear();
+    LOGGER.debug("Lookups performed against AccessController during service call (executed/requested): " +
+                    "validate = %d/%d, hasPermission = %d/%d, getAvailableOrganizations = %d/%d.",
+            statistics.getValidateCalls(), statistics.getCurrentUserLookups(),
+            statistics.getHasPermissionCalls(), statistics.getPermissionChecks(),
+            statistics.getAvailableOrganizationsCalls(), statistics.getAvailableOrganizationLookups());
+  }
+
+  /**
+   * Return statistics about how many lookups were requested from this SecurityContext and how many of them
+   * actually had to be performed against the AccessController.
+   *
+   * @return Statistics of this SecurityContext
+   */
+  public Statistics getStatistics() {
+    return statistics;
   }
 
   /**
@@ -100,13 +136,8 @@ public abstract class SecurityContext implements AutoCloseable {
    * @throws AuthenticationFailedException If the user could not be authenticated.
    */
   public void checkPermission(NamedFunction function) throws AccessDeniedException, AuthenticationFailedException {
-    try {
-      //noinspection unchecked
-      if (!accessController.hasPermission(credentials, function)) {
-        throw new AccessDeniedException(String.format("User is not allowed to perform operation '%s'.", function.getName()));
-      }
-    } catch (InvalidCredentialsException ex) {
-      throw new AuthenticationFailedException("Could not authenticate user: " + ex.getMessage());
+    if (!hasPermission(new PermissionKey(function.getName(), null), () -> accessController.hasPermission(credentials, function))) {
+      throw new AccessDeniedException(String.format("User is not allowed to perform operation '%s'.", function.getName()));
     }
   }
 
@@ -119,13 +150,9 @@ public abstract class SecurityContext implements AutoCloseable {
    * @throws AuthenticationFailedException If the user could not be authenticated.
    */
   public void checkPermission(NamedFunction function, UUID organizationID) throws AccessDeniedException, AuthenticationFailedException {
-    try {
-      //noinspection unchecked
-      if (!accessController.hasPermission(credentials, function, identityResolver.resolveOrganizationIdentity(organizationID))) {
-        throw new AccessDeniedException(String.format("User is not allowed to perform operation '%s' for organization '%s'.", function.getName(), organizationID));
-      }
-    } catch (InvalidCredentialsException ex) {
-      throw new AuthenticationFailedException("Could not authenticate user: " + ex.getMessage());
+    if (!hasPermission(new PermissionKey(function.getName(), organizationID),
+            () -> accessController.hasPermission(credentials, function, identityResolver.resolveOrganizationIdentity(organizationID)))) {
+      throw new AccessDeniedException(String.format("User is not allowed to perform operation '%s' for organization '%s'.", function.getName(), organizationID));
     }
   }
 
@@ -135,9 +162,16 @@ public abstract class SecurityContext implements AutoCloseable {
    * @return ID of current user
    */
   public UUID getCurrentUserID() {
+    statistics.currentUserLookups.increment();
+    UUID memoized = currentUserID.get();
+    if (memoized != null) return memoized;
+
     try {
+      statistics.validateCalls.increment();
       //noinspection unchecked
-      return identityResolver.resolveSubjectUUID(accessController.validate(credentials));
+      UUID resolved = identityResolver.resolveSubjectUUID(accessController.validate(credentials));
+      currentUserID.set(resolved);
+      return resolved;
     } catch (InvalidCredentialsException ex) {
       // getCurrentUserID() should only be called in a context with an already authenticated user.
       throw new UnexpectedAuthenticationFailedException("Could not authenticate user: " + ex.getMessage());
@@ -150,16 +184,107 @@ public abstract class SecurityContext implements AutoCloseable {
    * @return IDs of available Organizations
    */
   public Set<UUID> getAvailableOrganizationID() {
+    statistics.availableOrganizationLookups.increment();
+    Set<UUID> memoized = availableOrganizationID.get();
+    if (memoized != null) return memoized;
+
     try {
+      statistics.availableOrganizationsCalls.increment();
       //noinspection unchecked
       Set<OrganizationIdentity> organizations = accessController.getAvailableOrganizations(credentials);
-      return organizations.stream()
+      // The same set is handed out for the rest of the service call, thus, it must not be modifiable.
+      Set<UUID> resolved = Collections.unmodifiableSet(organizations.stream()
               .map(identityResolver::resolveOrganizationUUID)
-              .collect(Collectors.toSet());
+              .collect(Collectors.toSet()));
+      availableOrganizationID.set(resolved);
+      return resolved;
     } catch (InvalidCredentialsException ex) {
       // getAvailableOrganizations() should only be called in a context with an already authenticated user.
       throw new UnexpectedAuthenticationFailedException("Could not authenticate user: " + ex.getMessage());
     }
   }
 
+  private boolean hasPermission(PermissionKey key, PermissionCheck check) throws AuthenticationFailedException {
+    statistics.permissionChecks.increment();
+    Boolean memoized = permissionCache.get(key);
+    if (memoized != null) return memoized;
+
+    try {
+      statistics.hasPermissionCalls.increment();
+      boolean granted = check.hasPermission();
+      // Only cache decisions, failed authentications will be retried on the next check.
+      permissionCache.put(key, granted);
+      return granted;
+    } catch (InvalidCredentialsException ex) {
+      throw new AuthenticationFailedException("Could not authenticate user: " + ex.getMessage());
+    }
+  }
+
+  private interface PermissionCheck {
+    boolean hasPermission() throws InvalidCredentialsException;
+  }
+
+  private static class PermissionKey {
+    private final String function;
+    private final UUID organizationID;
+
+    private PermissionKey(String function, UUID organizationID) {
+      this.function = function;
+      this.organizationID = organizationID;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      PermissionKey that = (PermissionKey) o;
+      return Objects.equals(function, that.function) &&
+              Objects.equals(organizationID, that.organizationID);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(function, organizationID);
+    }
+  }
+
+  /**
+   * Counts the lookups requested from a SecurityContext and the lookups actually performed against the AccessController.
+   */
+  public static class Statistics {
+    private final LongAdder currentUserLookups = new LongAdder();
+    private final LongAdder validateCalls = new LongAdder();
+    private final LongAdder availableOrganizationLookups = new LongAdder();
+    private final LongAdder availableOrganizationsCalls = new LongAdder();
+    private final LongAdder permissionChecks = new LongAdder();
+    private final LongAdder hasPermissionCalls = new LongAdder();
+
+    private Statistics() {
+    }
+
+    public long getCurrentUserLookups() {
+      return currentUserLookups.sum();
+    }
+
+    public long getValidateCalls() {
+      return validateCalls.sum();
+    }
+
+    public long getAvailableOrganizationLookups() {
+      return availableOrganizationLookups.sum();
+    }
+
+    public long getAvailableOrganizationsCalls() {
+      return availableOrganizationsCalls.sum();
+    }
+
+    public long getPermissionChecks() {
+      return permissionChecks.sum();
+    }
+
+    public long getHasPermissionCalls() {
+      return hasPermissionCalls.sum();
+    }
+  }
+
 }
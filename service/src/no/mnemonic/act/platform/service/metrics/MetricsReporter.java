@@ -0,0 +1,324 @@
+package no.mnemonic.act.platform.service.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.OriginManager;
+import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.facade.ObjectFactDaoFacade;
+import no.mnemonic.act.platform.service.aspects.ServiceMetricsAspect;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
+import no.mnemonic.act.platform.service.ti.caches.*;
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.metrics.*;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.management.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Exports the metrics collected by the DAO managers, the service methods and the response caches.
+ * <p>
+ * The metrics of every component are registered as an MBean named
+ * {@code no.mnemonic.act.platform:type=Metrics,name=<component>} with one read-only attribute per metric. Additionally,
+ * if 'act.metrics.endpoint.port' is set to a port above 0, all metrics are served as plain text at '/metrics' on the
+ * loopback interface, one line per metric of the form {@code <component>.<metric> <value>}. The endpoint is meant to
+ * be scraped by a monitoring agent running on the same host, thus, it is not exposed on any external interface.
+ */
+@Singleton
+public class MetricsReporter implements LifecycleAspect, MetricAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(MetricsReporter.class);
+
+  private static final String MBEAN_DOMAIN = "no.mnemonic.act.platform";
+  private static final String ENDPOINT_PATH = "/metrics";
+
+  private final Map<String, MetricAspect> components;
+  private final int port;
+  private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+  private final List<ObjectName> registeredMBeans = new ArrayList<>();
+
+  private HttpServer server;
+
+  @Inject
+  public MetricsReporter(FactManager factManager,
+                         ObjectManager objectManager,
+                         OriginManager originManager,
+                         FactSearchManager factSearchManager,
+                         ObjectFactDaoFacade objectFactDao,
+                         ServiceMetricsAspect serviceMetrics,
+                         FactChangePublisher factChangePublisher,
+                         CacheInvalidationBus cacheInvalidationBus,
+                         LocalFactTypeResponseCache factTypeResponseCache,
+                         LocalObjectTypeResponseCache objectTypeResponseCache,
+                         LocalOrganizationResponseCache organizationResponseCache,
+                         LocalOriginResponseCache originResponseCache,
+                         LocalSubjectResponseCache subjectResponseCache,
+                         LocalFactSummaryResponseCache factSummaryResponseCache,
+                         @Named("act.metrics.endpoint.port") int port) {
+    this(createComponents(factManager, objectManager, originManager, factSearchManager, objectFactDao, serviceMetrics,
+            factChangePublisher, cacheInvalidationBus, factTypeResponseCache, objectTypeResponseCache, organizationResponseCache,
+            originResponseCache, subjectResponseCache, factSummaryResponseCache), port);
+  }
+
+  MetricsReporter(Map<String, MetricAspect> components, int port) {
+    this.components = Collections.unmodifiableMap(new LinkedHashMap<>(components));
+    this.port = port;
+  }
+
+  @Override
+  public synchronized void startComponent() {
+    for (Map.Entry<String, MetricAspect> component : components.entrySet()) {
+      registerMBean(component.getKey(), component.getValue());
+    }
+
+    if (port > 0) {
+      startEndpoint();
+    }
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+
+    for (ObjectName name : registeredMBeans) {
+      try {
+        mbeanServer.unregisterMBean(name);
+      } catch (InstanceNotFoundException | MBeanRegistrationException ex) {
+        LOGGER.warning(ex, "Could not unregister metrics MBean %s.", name);
+      }
+    }
+    registeredMBeans.clear();
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    MetricsGroup group = new MetricsGroup();
+    for (Map.Entry<String, MetricAspect> component : components.entrySet()) {
+      group.addSubMetrics(component.getKey(), component.getValue().getMetrics());
+    }
+    return group;
+  }
+
+  /**
+   * Render the current metrics of all components as plain text, one line per metric.
+   *
+   * @return Metrics as text
+   * @throws MetricException If metrics could not be collected
+   */
+  String render() throws MetricException {
+    StringBuilder builder = new StringBuilder();
+    flatten(getMetrics()).forEach((name, value) -> builder.append(name).append(' ').append(value).append('\n'));
+    return builder.toString();
+  }
+
+  /**
+   * Flatten nested metrics into one map where the keys are the dotted paths to each metric.
+   *
+   * @param metrics Metrics to flatten
+   * @return Metric values keyed by path, sorted by path
+   */
+  static SortedMap<String, Number> flatten(Metrics metrics) {
+    SortedMap<String, Number> result = new TreeMap<>();
+    flatten(null, metrics, result);
+    return result;
+  }
+
+  private static void flatten(String prefix, Metrics metrics, Map<String, Number> result) {
+    if (metrics == null) return;
+
+    if (metrics.hasData()) {
+      metrics.getData().forEach((name, value) -> result.put(path(prefix, name), value));
+    }
+
+    if (metrics.hasSubMetrics()) {
+      metrics.getSubMetrics().forEach((name, sub) -> flatten(path(prefix, name), sub, result));
+    }
+  }
+
+  private static String path(String prefix, String name) {
+    return prefix == null ? name : prefix + "." + name;
+  }
+
+  private void registerMBean(String name, MetricAspect component) {
+    try {
+      ObjectName objectName = new ObjectName(MBEAN_DOMAIN, createMBeanProperties(name));
+      if (mbeanServer.isRegistered(objectName)) {
+        // Can happen if multiple instances are running inside the same JVM, e.g. in tests.
+        LOGGER.warning("Metrics MBean %s is already registered, skip it.", objectName);
+        return;
+      }
+
+      mbeanServer.registerMBean(new MetricsMBean(name, component), objectName);
+      registeredMBeans.add(objectName);
+    } catch (JMException ex) {
+      LOGGER.warning(ex, "Could not register metrics MBean for component %s.", name);
+    }
+  }
+
+  private void startEndpoint() {
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+      server.createContext(ENDPOINT_PATH, this::handleRequest);
+      server.start();
+      LOGGER.info("Serving metrics at http://%s:%d%s.", InetAddress.getLoopbackAddress().getHostAddress(), port, ENDPOINT_PATH);
+    } catch (IOException ex) {
+      // Metrics are not essential, thus, continue without the endpoint.
+      LOGGER.error(ex, "Could not start metrics endpoint on port %d.", port);
+      server = null;
+    }
+  }
+
+  private void handleRequest(HttpExchange exchange) throws IOException {
+    int status = 200;
+    byte[] body;
+    try {
+      body = render().getBytes(StandardCharsets.UTF_8);
+    } catch (MetricException | RuntimeException ex) {
+      LOGGER.warning(ex, "Could not collect metrics.");
+      status = 500;
+      body = new byte[0];
+    }
+
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  private static Hashtable<String, String> createMBeanProperties(String name) {
+    Hashtable<String, String> properties = new Hashtable<>();
+    properties.put("type", "Metrics");
+    properties.put("name", name);
+    return properties;
+  }
+
+  private static Map<String, MetricAspect> createComponents(FactManager factManager,
+                                                            ObjectManager objectManager,
+                                                            OriginManager originManager,
+                                                            FactSearchManager factSearchManager,
+                                                            ObjectFactDaoFacade objectFactDao,
+                                                            ServiceMetricsAspect serviceMetrics,
+                                                            FactChangePublisher factChangePublisher,
+                                                            CacheInvalidationBus cacheInvalidationBus,
+                                                            LocalFactTypeResponseCache factTypeResponseCache,
+                                                            LocalObjectTypeResponseCache objectTypeResponseCache,
+                                                            LocalOrganizationResponseCache organizationResponseCache,
+                                                            LocalOriginResponseCache originResponseCache,
+                                                            LocalSubjectResponseCache subjectResponseCache,
+                                                            LocalFactSummaryResponseCache factSummaryResponseCache) {
+    Map<String, MetricAspect> components = new LinkedHashMap<>();
+    components.put("service", serviceMetrics);
+    components.put("objectFactDao", objectFactDao);
+    components.put("factManager", factManager);
+    components.put("objectManager", objectManager);
+    components.put("originManager", originManager);
+    components.put("factSearchManager", factSearchManager);
+    components.put("factChangePublisher", () -> new MetricsData()
+            .addData("publishedChanges", factChangePublisher.getPublishedChanges())
+            .addData("writtenChanges", factChangePublisher.getWrittenChanges())
+            .addData("writtenBatches", factChangePublisher.getWrittenBatches())
+            .addData("droppedChanges", factChangePublisher.getDroppedChanges()));
+    components.put("cacheInvalidationBus", cacheInvalidationBus);
+    components.put("factTypeResponseCache", factTypeResponseCache);
+    components.put("objectTypeResponseCache", objectTypeResponseCache);
+    components.put("organizationResponseCache", organizationResponseCache);
+    components.put("originResponseCache", originResponseCache);
+    components.put("subjectResponseCache", subjectResponseCache);
+    components.put("factSummaryResponseCache", factSummaryResponseCache);
+    return components;
+  }
+
+  /**
+   * Read-only MBean exposing the flattened metrics of one component. The metrics are collected on every access, thus,
+   * the available attributes may grow over time, e.g. when a service method is called for the first time.
+   */
+  static class MetricsMBean implements DynamicMBean {
+
+    private final String name;
+    private final MetricAspect component;
+
+    MetricsMBean(String name, MetricAspect component) {
+      this.name = name;
+      this.component = component;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException, MBeanException {
+      Number value = collect().get(attribute);
+      if (value == null) throw new AttributeNotFoundException(attribute);
+      return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+      AttributeList result = new AttributeList();
+      try {
+        Map<String, Number> metrics = collect();
+        for (String attribute : attributes) {
+          if (metrics.containsKey(attribute)) {
+            result.add(new Attribute(attribute, metrics.get(attribute)));
+          }
+        }
+      } catch (MBeanException ex) {
+        LOGGER.warning(ex, "Could not collect metrics.");
+      }
+      return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+      throw new AttributeNotFoundException("Metrics are read-only.");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+      return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+      throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+      List<MBeanAttributeInfo> attributes = new ArrayList<>();
+      try {
+        for (Map.Entry<String, Number> metric : collect().entrySet()) {
+          attributes.add(new MBeanAttributeInfo(metric.getKey(), metric.getValue().getClass().getName(),
+                  metric.getKey(), true, false, false));
+        }
+      } catch (MBeanException ex) {
+        LOGGER.warning(ex, "Could not collect metrics.");
+      }
+
+      return new MBeanInfo(getClass().getName(), "Metrics of " + name,
+              attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private Map<String, Number> collect() throws MBeanException {
+      try {
+        return flatten(component.getMetrics());
+      } catch (MetricException ex) {
+        throw new MBeanException(ex, "Could not collect metrics.");
+      }
+    }
+  }
+}
@@ -2,6 +2,8 @@ package no.mnemonic.act.platform.service.modules;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
+import no.mnemonic.act.platform.api.serializer.BinaryMessageSerializer;
+import no.mnemonic.act.platform.service.container.BinaryMessageSerializerProvider;
 import no.mnemonic.act.platform.service.container.NoopServiceSessionFactory;
 import no.mnemonic.act.platform.service.container.SmbServer;
 import no.mnemonic.act.platform.service.container.XStreamMessageSerializerProvider;
@@ -21,6 +23,8 @@ public class TiServerModule extends AbstractModule {
       // Omit default MessageSerializer if the module is configured using withoutDefaultMessageSerializer().
       bind(MessageSerializer.class).toProvider(XStreamMessageSerializerProvider.class);
     }
+    // The binary serializer is always available in addition to the default MessageSerializer.
+    bind(BinaryMessageSerializer.class).toProvider(BinaryMessageSerializerProvider.class);
 
     // The service implementation doesn't have sessions, thus, just use a noop session for the SMB.
     bind(ServiceSessionFactory.class).to(NoopServiceSessionFactory.class);
@@ -8,9 +8,14 @@ import no.mnemonic.act.platform.auth.properties.module.PropertiesBasedAccessCont
 import no.mnemonic.act.platform.dao.DaoModule;
 import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.service.aspects.*;
+import no.mnemonic.act.platform.service.metrics.MetricsReporter;
 import no.mnemonic.act.platform.service.providers.TriggerEventConsumerProvider;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
+import no.mnemonic.act.platform.service.seb.FactChangeSink;
+import no.mnemonic.act.platform.service.seb.FileFactChangeSink;
 import no.mnemonic.act.platform.service.ti.ThreatIntelligenceServiceImpl;
 import no.mnemonic.act.platform.service.ti.caches.ResponseCachesModule;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinScriptExecutor;
 import no.mnemonic.act.platform.service.validators.DefaultValidatorFactory;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
 import no.mnemonic.services.triggers.api.service.v1.TriggerAdministrationService;
@@ -28,11 +33,14 @@ import java.util.function.Function;
 public class TiServiceModule extends AbstractModule {
 
   private boolean skipDefaultAccessController;
+  private boolean skipDefaultFactChangeSink;
 
   @Override
   protected void configure() {
     // Install all dependencies for the service.
     install(new DaoModule());
+    // Install the metrics aspect first such that it also measures the time spent in the other aspects.
+    install(new ServiceMetricsAspect());
     install(new AuthenticationAspect());
     install(new ValidationAspect());
     install(new TriggerContextAspect());
@@ -50,6 +58,21 @@ public class TiServiceModule extends AbstractModule {
     // is already a Singleton TriggerAdministrationService will only be instantiated once.
     bind(TriggerAdministrationService.class).to(TriggerAdministrationServiceImpl.class);
 
+    // Configure the Fact change stream. The publisher is bound explicitly such that it's started and stopped by the
+    // container. It creates the sink only if the change stream is enabled.
+    bind(FactChangePublisher.class).in(Scopes.SINGLETON);
+    if (!skipDefaultFactChangeSink) {
+      // Omit default sink if the module is configured using withoutDefaultFactChangeSink().
+      bind(FactChangeSink.class).to(FileFactChangeSink.class);
+    }
+
+    // Configure the shared executor for graph traversal scripts. Bound explicitly such that the executor's threads are
+    // stopped by the container.
+    bind(GremlinScriptExecutor.class).in(Scopes.SINGLETON);
+
+    // Export the collected metrics. Bound explicitly such that the reporter is started and stopped by the container.
+    bind(MetricsReporter.class).in(Scopes.SINGLETON);
+
     // Bind the concrete implementation classes of the ThreatIntelligenceService.
     bind(ValidatorFactory.class).to(DefaultValidatorFactory.class).in(Scopes.SINGLETON);
     bind(ThreatIntelligenceService.class).to(ThreatIntelligenceServiceImpl.class).in(Scopes.SINGLETON);
@@ -72,4 +95,15 @@ public class TiServiceModule extends AbstractModule {
     this.skipDefaultAccessController = true;
     return this;
   }
+
+  /**
+   * Instruct the module to omit the default {@link FactChangeSink} implementation writing to a local file. In this
+   * case an alternative implementation must be configured in Guice.
+   *
+   * @return this
+   */
+  public TiServiceModule withoutDefaultFactChangeSink() {
+    this.skipDefaultFactChangeSink = true;
+    return this;
+  }
 }
@@ -0,0 +1,34 @@
+package no.mnemonic.act.platform.service.seb;
+
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Changes read from a {@link FileFactChangeSink} together with the offset to continue reading from.
+ */
+public class FactChangeBatch {
+
+  private final List<FactChangeSEB> changes;
+  private final long nextOffset;
+
+  FactChangeBatch(List<FactChangeSEB> changes, long nextOffset) {
+    this.changes = Collections.unmodifiableList(changes);
+    this.nextOffset = nextOffset;
+  }
+
+  /**
+   * @return Changes in the order they have been written
+   */
+  public List<FactChangeSEB> getChanges() {
+    return changes;
+  }
+
+  /**
+   * @return Offset of the first change after this batch, i.e. the offset to pass to the next read
+   */
+  public long getNextOffset() {
+    return nextOffset;
+  }
+}
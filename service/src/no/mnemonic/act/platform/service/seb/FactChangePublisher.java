@@ -0,0 +1,266 @@
+package no.mnemonic.act.platform.service.seb;
+
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.ti.converters.seb.FactSebConverter;
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emits a {@link FactChangeSEB} event whenever a Fact has been created, refreshed, retracted, granted access to or
+ * commented on. Downstream consumers (caches, exports, secondary indexes) can follow the stream instead of polling
+ * ElasticSearch.
+ * <p>
+ * Every change is handed over to one of multiple single-threaded lanes, selected by the Fact's id, which converts the
+ * change and queues it up for writing. Because all changes of one Fact pass through the same lane, they are queued
+ * up in the order they have been published, even if they are published concurrently from multiple requests. Changes
+ * of different Facts can be queued up in any order. The event's timestamp is taken when the change is published.
+ * <p>
+ * A single background thread writes the queued changes to the configured {@link FactChangeSink} in batches. Batches
+ * are formed from all changes queued up while the previous batch was written, thus, the batch size grows with the
+ * load without adding latency under low load. A batch which failed to be written is retried until it succeeds,
+ * without reordering any changes.
+ * <p>
+ * Publishing never fails the calling request as the Fact has already been stored at that point. If a lane or the queue
+ * is full, e.g. because the sink is unavailable for a long time, further changes are dropped and logged.
+ */
+@Singleton
+public class FactChangePublisher implements LifecycleAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(FactChangePublisher.class);
+
+  private static final int QUEUE_CAPACITY = 100_000;
+  private static final int LANE_COUNT = 8;
+  private static final int LANE_CAPACITY = 10_000;
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final long POLL_INTERVAL_MS = 100;
+  private static final long RETRY_INTERVAL_MS = 1000;
+  private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+  private final FactSebConverter converter;
+  // Use Provider such that Guice will only create the sink when the change stream is enabled.
+  private final Provider<FactChangeSink> sinkProvider;
+  private final boolean enabled;
+
+  private final BlockingQueue<FactChangeSEB> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+  private final LongAdder publishedChanges = new LongAdder();
+  private final LongAdder writtenChanges = new LongAdder();
+  private final LongAdder writtenBatches = new LongAdder();
+  private final LongAdder droppedChanges = new LongAdder();
+
+  private int maxBatchSize = MAX_BATCH_SIZE;
+  private long retryInterval = RETRY_INTERVAL_MS;
+
+  private FactChangeSink sink;
+  private ExecutorService[] lanes;
+  private ExecutorService writer;
+  // Whether new changes are accepted.
+  private volatile boolean running;
+  // Whether the writer waits for more changes. Stays true after the publisher has been stopped until all lanes are done.
+  private volatile boolean writing;
+
+  @Inject
+  public FactChangePublisher(FactSebConverter converter,
+                             Provider<FactChangeSink> sinkProvider,
+                             @Named("act.fact.change.stream.enabled") boolean enabled) {
+    this.converter = converter;
+    this.sinkProvider = sinkProvider;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public synchronized void startComponent() {
+    if (!enabled || running) return;
+
+    sink = sinkProvider.get();
+    sink.startComponent();
+
+    lanes = new ExecutorService[LANE_COUNT];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(LANE_CAPACITY));
+    }
+
+    writing = true;
+    writer = Executors.newSingleThreadExecutor();
+    writer.submit(this::writeChanges);
+    running = true;
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (!running) return;
+
+    // Stop accepting new changes, but write out everything already published. The lanes must have queued up all
+    // their changes before the writer is stopped.
+    running = false;
+    try {
+      for (ExecutorService lane : lanes) {
+        if (!shutdown(lane)) LOGGER.warning("Fact change lane did not terminate in time, some changes are lost.");
+      }
+
+      writing = false;
+      if (!shutdown(writer)) LOGGER.warning("Fact change publisher did not terminate in time, %d changes are lost.", queue.size());
+    } catch (InterruptedException ex) {
+      for (ExecutorService lane : lanes) {
+        lane.shutdownNow();
+      }
+      writer.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+
+    sink.stopComponent();
+  }
+
+  /**
+   * Publish a change of a Fact. Does nothing if the change stream is disabled.
+   *
+   * @param type Type of the change
+   * @param fact Fact in the state after the change
+   */
+  public void publish(FactChangeSEB.Type type, FactRecord fact) {
+    if (!enabled || type == null || fact == null) return;
+
+    long timestamp = System.currentTimeMillis();
+    if (!running) {
+      dropChange(type, fact);
+      return;
+    }
+
+    try {
+      lanes[Math.floorMod(Objects.hashCode(fact.getId()), lanes.length)].execute(() -> queueChange(type, timestamp, fact));
+    } catch (RejectedExecutionException ex) {
+      // The lane is either full or has been stopped concurrently.
+      dropChange(type, fact);
+    }
+  }
+
+  /**
+   * @return Number of changes queued up for writing
+   */
+  public long getPublishedChanges() {
+    return publishedChanges.sum();
+  }
+
+  /**
+   * @return Number of changes written to the sink
+   */
+  public long getWrittenChanges() {
+    return writtenChanges.sum();
+  }
+
+  /**
+   * @return Number of batches written to the sink
+   */
+  public long getWrittenBatches() {
+    return writtenBatches.sum();
+  }
+
+  /**
+   * @return Number of changes which were dropped
+   */
+  public long getDroppedChanges() {
+    return droppedChanges.sum();
+  }
+
+  /**
+   * Set the maximum number of changes written to the sink at once.
+   *
+   * @param maxBatchSize Maximum batch size
+   * @return this
+   */
+  public FactChangePublisher setMaxBatchSize(int maxBatchSize) {
+    if (maxBatchSize <= 0) throw new IllegalArgumentException("'maxBatchSize' must be positive!");
+    this.maxBatchSize = maxBatchSize;
+    return this;
+  }
+
+  /**
+   * Set the time to wait before a failed batch is written again.
+   *
+   * @param retryInterval Retry interval in milliseconds
+   * @return this
+   */
+  public FactChangePublisher setRetryInterval(long retryInterval) {
+    this.retryInterval = retryInterval;
+    return this;
+  }
+
+  private void queueChange(FactChangeSEB.Type type, long timestamp, FactRecord fact) {
+    FactChangeSEB change;
+    try {
+      change = FactChangeSEB.builder()
+              .setType(type)
+              .setTimestamp(timestamp)
+              .setFact(converter.apply(fact))
+              .build();
+    } catch (RuntimeException ex) {
+      LOGGER.error(ex, "Failed to convert change of Fact with id = %s.", fact.getId());
+      return;
+    }
+
+    if (!queue.offer(change)) {
+      dropChange(type, fact);
+      return;
+    }
+
+    publishedChanges.increment();
+  }
+
+  private void dropChange(FactChangeSEB.Type type, FactRecord fact) {
+    droppedChanges.increment();
+    LOGGER.error("Dropped change of Fact with id = %s (type = %s) because the Fact change stream is not available.", fact.getId(), type);
+  }
+
+  private void writeChanges() {
+    List<FactChangeSEB> batch = new ArrayList<>(maxBatchSize);
+    while (writing || !queue.isEmpty()) {
+      try {
+        FactChangeSEB first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+
+        batch.add(first);
+        queue.drainTo(batch, maxBatchSize - 1);
+        writeBatch(batch);
+        batch.clear();
+      } catch (InterruptedException ex) {
+        LOGGER.warning("Fact change publisher was interrupted, %d changes are lost.", batch.size() + queue.size());
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void writeBatch(List<FactChangeSEB> batch) throws InterruptedException {
+    while (true) {
+      try {
+        sink.write(batch);
+        writtenChanges.add(batch.size());
+        writtenBatches.increment();
+        return;
+      } catch (IOException | RuntimeException ex) {
+        LOGGER.error(ex, "Failed to write %d changes to Fact change stream, will retry.", batch.size());
+        Thread.sleep(retryInterval);
+      }
+    }
+  }
+
+  private static boolean shutdown(ExecutorService executor) throws InterruptedException {
+    executor.shutdown();
+    if (executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) return true;
+
+    executor.shutdownNow();
+    return false;
+  }
+}
@@ -0,0 +1,35 @@
+package no.mnemonic.act.platform.service.seb;
+
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.commons.component.LifecycleAspect;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the Fact change stream emitted by {@link FactChangePublisher}.
+ * <p>
+ * The publisher starts the sink before writing the first batch and stops it after the last batch has been written,
+ * thus, implementations don't need to be managed by the component container.
+ */
+public interface FactChangeSink extends LifecycleAspect {
+
+  /**
+   * Durably write a batch of changes. The order of the changes inside the batch must be retained, and a batch must
+   * either be written completely or the method must throw an exception. Batches are written from a single thread.
+   *
+   * @param changes Changes to write (never empty)
+   * @throws IOException Thrown if the batch could not be written, the publisher will retry the same batch
+   */
+  void write(List<FactChangeSEB> changes) throws IOException;
+
+  @Override
+  default void startComponent() {
+    // Nothing to do by default.
+  }
+
+  @Override
+  default void stopComponent() {
+    // Nothing to do by default.
+  }
+}
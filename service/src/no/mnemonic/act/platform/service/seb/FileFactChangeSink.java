@@ -0,0 +1,217 @@
+package no.mnemonic.act.platform.service.seb;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.StringUtils;
+import no.mnemonic.commons.utilities.lambda.LambdaUtils;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link FactChangeSink} implementation which appends changes to a local file, one JSON-encoded {@link FactChangeSEB}
+ * per line.
+ * <p>
+ * The file is append-only, thus, the byte position of a change inside the file serves as its offset. Consumers
+ * remember the offset returned by {@link #read(long, int)} and continue reading from there, e.g. after a restart.
+ * Because every batch is flushed to disk before the next batch is written, an offset handed out once stays valid.
+ * A line which was only partly written (e.g. because of a crash) is truncated when the sink is started.
+ * <p>
+ * Changes are delivered at least once. Consumers must tolerate seeing a change again, e.g. after a failed batch has
+ * been retried.
+ */
+public class FileFactChangeSink implements FactChangeSink {
+
+  private static final Logger LOGGER = Logging.getLogger(FileFactChangeSink.class);
+
+  static final String FILE_NAME = "fact-changes.log";
+  private static final byte NEWLINE = '\n';
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final ObjectMapper MAPPER = JsonMapper.builder()
+          // Consumers may read changes written by a newer version.
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+          .build();
+  private static final ObjectWriter WRITER = MAPPER.writerFor(FactChangeSEB.class);
+  private static final ObjectReader READER = MAPPER.readerFor(FactChangeSEB.class);
+
+  private final Path file;
+
+  private FileChannel channel;
+  private long end;
+
+  @Inject
+  public FileFactChangeSink(@Named("act.fact.change.stream.directory") String directory) {
+    if (StringUtils.isBlank(directory)) throw new IllegalArgumentException("'act.fact.change.stream.directory' not set in properties file!");
+    this.file = Paths.get(directory, FILE_NAME);
+  }
+
+  @Override
+  public synchronized void startComponent() {
+    if (channel != null) return;
+
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      end = recover();
+      LOGGER.info("Opened Fact change stream %s (end offset = %d).", file, end);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(String.format("Could not open Fact change stream %s.", file), ex);
+    }
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (channel == null) return;
+
+    LambdaUtils.tryTo(channel::close, ex -> LOGGER.warning(ex, "Failed to close Fact change stream %s.", file));
+    channel = null;
+  }
+
+  @Override
+  public synchronized void write(List<FactChangeSEB> changes) throws IOException {
+    FileChannel channel = getChannel();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+    for (FactChangeSEB change : changes) {
+      bytes.write(WRITER.writeValueAsBytes(change));
+      bytes.write(NEWLINE);
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+    long position = end;
+    try {
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      channel.force(false);
+    } catch (IOException ex) {
+      // Remove a partly written batch. Otherwise, readers could see some changes twice when the batch is retried.
+      LambdaUtils.tryTo(() -> channel.truncate(end), e -> LOGGER.error(e, "Failed to truncate Fact change stream %s.", file));
+      throw ex;
+    }
+
+    end = position;
+  }
+
+  /**
+   * Read changes starting at the given offset. Only completely written changes are returned. Reading blocks writing
+   * (and vice versa), thus, a reader never sees a batch which is still being written or removed after a failure.
+   *
+   * @param offset     Offset to start reading from, either 0 or an offset returned by {@link FactChangeBatch#getNextOffset()}
+   * @param maxChanges Maximum number of changes to return
+   * @return Changes starting at the given offset (empty if no more changes are available)
+   * @throws IOException Thrown if the file could not be read
+   */
+  public synchronized FactChangeBatch read(long offset, int maxChanges) throws IOException {
+    if (maxChanges <= 0) throw new IllegalArgumentException("'maxChanges' must be positive!");
+
+    FileChannel channel = getChannel();
+    long size = end;
+    if (offset < 0 || offset > size) throw new IllegalArgumentException(String.format("Offset %d is out of range.", offset));
+    if (offset > 0 && readByte(channel, offset - 1) != NEWLINE) {
+      throw new IllegalArgumentException(String.format("Offset %d does not point to the beginning of a change.", offset));
+    }
+
+    List<FactChangeSEB> changes = new ArrayList<>();
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    byte[] bytes = new byte[BUFFER_SIZE];
+    long position = offset;
+    long nextOffset = offset;
+
+    while (position < size && changes.size() < maxChanges) {
+      int read = channel.read(ByteBuffer.wrap(bytes, 0, (int) Math.min(bytes.length, size - position)), position);
+      if (read <= 0) break;
+
+      int start = 0;
+      for (int i = 0; i < read && changes.size() < maxChanges; i++) {
+        if (bytes[i] != NEWLINE) continue;
+        line.write(bytes, start, i - start);
+        changes.add(READER.readValue(line.toByteArray()));
+        line.reset();
+        start = i + 1;
+        nextOffset = position + start;
+      }
+
+      // Keep the beginning of a change which continues in the next chunk.
+      line.write(bytes, start, read - start);
+      position += read;
+    }
+
+    return new FactChangeBatch(changes, nextOffset);
+  }
+
+  /**
+   * @return Offset after the last completely written change
+   */
+  public synchronized long getEndOffset() {
+    getChannel();
+    return end;
+  }
+
+  private long recover() throws IOException {
+    long size = channel.size();
+    byte[] bytes = new byte[BUFFER_SIZE];
+    long position = size;
+    long validEnd = 0;
+
+    // Search backwards for the end of the last complete line.
+    search:
+    while (position > 0) {
+      int length = (int) Math.min(bytes.length, position);
+      position -= length;
+      readFully(channel, ByteBuffer.wrap(bytes, 0, length), position);
+      for (int i = length - 1; i >= 0; i--) {
+        if (bytes[i] == NEWLINE) {
+          validEnd = position + i + 1;
+          break search;
+        }
+      }
+    }
+
+    if (validEnd < size) {
+      LOGGER.warning("Truncating incomplete change at the end of Fact change stream %s (%d bytes).", file, size - validEnd);
+      channel.truncate(validEnd);
+    }
+
+    return validEnd;
+  }
+
+  private FileChannel getChannel() {
+    FileChannel current = channel;
+    if (current == null) throw new IllegalStateException("Fact change stream has not been started.");
+    return current;
+  }
+
+  private static byte readByte(FileChannel channel, long position) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1);
+    readFully(channel, buffer, position);
+    return buffer.get(0);
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) throw new EOFException();
+      position += read;
+    }
+  }
+}
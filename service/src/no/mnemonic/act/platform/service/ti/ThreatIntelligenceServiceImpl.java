@@ -143,6 +143,12 @@ public class ThreatIntelligenceServiceImpl implements Service, ThreatIntelligenc
     return delegateProvider.get(FactCreateDelegate.class).handle(request);
   }
 
+  @Override
+  public ResultSet<FactImportResult> importFacts(RequestHeader rh, ImportFactsRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    return delegateProvider.get(FactImportDelegate.class).handle(request);
+  }
+
   @Override
   public ResultSet<Fact> searchMetaFacts(RequestHeader rh, SearchMetaFactsRequest request)
           throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, ObjectNotFoundException {
@@ -0,0 +1,117 @@
+package no.mnemonic.act.platform.service.ti.caches;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationEvent;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Global index of Retraction Facts on one local node. For every indexed Fact it holds all Retraction Facts referencing
+ * that Fact, independent of whether a specific user has access to those retractions. Because of that, entries can be
+ * shared across multiple requests from different users, and access control must be applied by the caller.
+ * <p>
+ * The index is kept up-to-date as follows:
+ * <ul>
+ *   <li>Retractions created on this node are added incrementally using {@link #addRetraction(FactRecord)}. The
+ *   retracted Fact is only updated in place on this node and invalidated on all other nodes through the
+ *   {@link CacheInvalidationBus}.</li>
+ *   <li>Entries must be invalidated using {@link #invalidate(UUID)} when the access to a Retraction Fact changes.
+ *   This invalidates the entry on all nodes.</li>
+ *   <li>An indexed Fact without retractions is reloaded if the Fact has been flagged as retracted in the meantime
+ *   (e.g. because an invalidation from another node was missed).</li>
+ *   <li>All entries expire after a while in order to pick up any changes which haven't been propagated.</li>
+ * </ul>
+ * The number of entries is bounded, least recently used entries are evicted first.
+ */
+@Singleton
+public class FactRetractionIndex {
+
+  private static final int MAXIMUM_SIZE = 100_000;
+  private static final long EXPIRE_AFTER_WRITE_MINUTES = 10;
+
+  private final CacheInvalidationBus cacheInvalidationBus;
+  private final Cache<UUID, List<FactRecord>> retractions;
+
+  @Inject
+  public FactRetractionIndex(CacheInvalidationBus cacheInvalidationBus) {
+    this.cacheInvalidationBus = cacheInvalidationBus;
+    this.retractions = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(cacheInvalidationBus.getExpiryMinutes(EXPIRE_AFTER_WRITE_MINUTES), TimeUnit.MINUTES)
+            .build();
+    cacheInvalidationBus.register(CacheInvalidationEvent.Type.FactRetractions, retractions::invalidate);
+  }
+
+  /**
+   * Fetch all Retraction Facts referencing a Fact. If the Fact isn't indexed yet or the indexed entry is outdated the
+   * retractions will be loaded using the provided loader function and stored in the index.
+   *
+   * @param fact   Fact for which to fetch retractions
+   * @param loader Function loading all retractions for a given Fact (by id)
+   * @return All retractions of the Fact (unmodifiable)
+   */
+  public List<FactRecord> getRetractions(FactRecord fact, Function<UUID, List<FactRecord>> loader) {
+    if (fact == null) return Collections.emptyList();
+
+    List<FactRecord> indexed = retractions.getIfPresent(fact.getId());
+    if (indexed != null && !isOutdated(fact, indexed)) return indexed;
+
+    List<FactRecord> loaded = Collections.unmodifiableList(ListUtils.list(loader.apply(fact.getId())));
+    retractions.put(fact.getId(), loaded);
+    return loaded;
+  }
+
+  /**
+   * Add a newly created Retraction Fact to the index.
+   *
+   * @param retraction Retraction Fact
+   */
+  public void addRetraction(FactRecord retraction) {
+    if (retraction == null) return;
+
+    UUID retractedFactID = retraction.getInReferenceToID();
+    if (retractedFactID != null) {
+      // Only update already indexed Facts, otherwise, the new retraction will be loaded on first access. Merge atomically
+      // such that a concurrent update of the same entry isn't lost.
+      retractions.asMap().computeIfPresent(retractedFactID, (id, existing) -> addRetraction(existing, retraction));
+      // Other nodes must reload the retractions of the retracted Fact.
+      cacheInvalidationBus.invalidateOtherNodes(CacheInvalidationEvent.Type.FactRetractions, retractedFactID);
+    }
+
+    // A new Fact cannot have been retracted yet.
+    retractions.put(retraction.getId(), Collections.emptyList());
+  }
+
+  /**
+   * Remove a Fact from the index on all nodes, e.g. when the access to one of its retractions has changed.
+   *
+   * @param factID ID of Fact to remove
+   */
+  public void invalidate(UUID factID) {
+    if (factID == null) return;
+    cacheInvalidationBus.invalidate(CacheInvalidationEvent.Type.FactRetractions, factID);
+  }
+
+  private List<FactRecord> addRetraction(List<FactRecord> existing, FactRecord retraction) {
+    if (existing.stream().anyMatch(r -> Objects.equals(r.getId(), retraction.getId()))) return existing;
+    return Collections.unmodifiableList(ListUtils.addToList(ListUtils.list(existing), retraction));
+  }
+
+  private boolean isOutdated(FactRecord fact, List<FactRecord> indexed) {
+    // The RetractedHint is set when a Fact is retracted. If the index doesn't know about any retraction,
+    // the Fact must have been retracted after the entry was created.
+    return indexed.isEmpty() && SetUtils.set(fact.getFlags()).contains(FactRecord.Flag.RetractedHint);
+  }
+}
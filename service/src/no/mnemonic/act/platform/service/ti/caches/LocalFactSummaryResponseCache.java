@@ -0,0 +1,45 @@
+package no.mnemonic.act.platform.service.ti.caches;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
+import no.mnemonic.act.platform.utilities.metrics.StatsCountingCacheMap;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration providing a global cache for Facts referenced by other Facts ('inReferenceTo') on one local node.
+ * Entries are cached across multiple requests from different users, thus, access to a cached Fact must always be
+ * verified before it is returned. Cached Facts must not be modified.
+ * <p>
+ * In contrast to the other response caches entries expire quickly because a Fact's ACL might change after it has
+ * been cached, and the number of entries is bounded because the number of Facts is not.
+ */
+@Singleton
+public class LocalFactSummaryResponseCache implements Provider<Map<UUID, FactRecord>>, MetricAspect {
+
+  private final Cache<UUID, FactRecord> cache = CacheBuilder.newBuilder()
+          .expireAfterWrite(30, TimeUnit.SECONDS)
+          .maximumSize(100_000)
+          .recordStats()
+          .build();
+  private final StatsCountingCacheMap<UUID, FactRecord> map = new StatsCountingCacheMap<>(cache);
+
+  @Override
+  public Map<UUID, FactRecord> get() {
+    return map;
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(map);
+  }
+}
@@ -3,7 +3,15 @@ package no.mnemonic.act.platform.service.ti.caches;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import no.mnemonic.act.platform.api.model.v1.ObjectType;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationEvent;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
+import no.mnemonic.act.platform.utilities.metrics.StatsCountingCacheMap;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
 
+import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.util.Map;
@@ -15,14 +23,28 @@ import java.util.concurrent.TimeUnit;
  * multiple requests from different users.
  */
 @Singleton
-public class LocalObjectTypeResponseCache implements Provider<Map<UUID, ObjectType>> {
+public class LocalObjectTypeResponseCache implements Provider<Map<UUID, ObjectType>>, MetricAspect {
 
-  private final Cache<UUID, ObjectType> cache = CacheBuilder.newBuilder()
-          .expireAfterWrite(5, TimeUnit.MINUTES)
-          .build();
+  private final Cache<UUID, ObjectType> cache;
+  private final StatsCountingCacheMap<UUID, ObjectType> map;
+
+  @Inject
+  public LocalObjectTypeResponseCache(CacheInvalidationBus cacheInvalidationBus) {
+    this.cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(cacheInvalidationBus.getExpiryMinutes(5), TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+    this.map = new StatsCountingCacheMap<>(cache);
+    cacheInvalidationBus.register(CacheInvalidationEvent.Type.ObjectType, cache::invalidate);
+  }
 
   @Override
   public Map<UUID, ObjectType> get() {
-    return cache.asMap();
+    return map;
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(map);
   }
 }
@@ -3,7 +3,15 @@ package no.mnemonic.act.platform.service.ti.caches;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import no.mnemonic.act.platform.api.model.v1.Organization;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationEvent;
+import no.mnemonic.act.platform.utilities.metrics.MetricsUtils;
+import no.mnemonic.act.platform.utilities.metrics.StatsCountingCacheMap;
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
 
+import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.util.Map;
@@ -15,14 +23,30 @@ import java.util.concurrent.TimeUnit;
  * multiple requests from different users.
  */
 @Singleton
-public class LocalOrganizationResponseCache implements Provider<Map<UUID, Organization>> {
+public class LocalOrganizationResponseCache implements Provider<Map<UUID, Organization>>, MetricAspect {
 
-  private final Cache<UUID, Organization> cache = CacheBuilder.newBuilder()
-          .expireAfterWrite(5, TimeUnit.MINUTES)
-          .build();
+  private final Cache<UUID, Organization> cache;
+  private final StatsCountingCacheMap<UUID, Organization> map;
+
+  @Inject
+  public LocalOrganizationResponseCache(CacheInvalidationBus cacheInvalidationBus) {
+    // Organizations are managed outside of the platform and changes to them aren't published on the bus,
+    // thus, keep the short expiry even if invalidations are distributed cluster-wide.
+    this.cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(5, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+    this.map = new StatsCountingCacheMap<>(cache);
+    cacheInvalidationBus.register(CacheInvalidationEvent.Type.Organization, cache::invalidate);
+  }
 
   @Override
   public Map<UUID, Organization> get() {
-    return cache.asMap();
+    return map;
+  }
+
+  @Override
+  public Metrics getMetrics() throws MetricException {
+    return MetricsUtils.toMetrics(map);
   }
 }
@@ -3,6 +3,7 @@ package no.mnemonic.act.platform.service.ti.caches;
 import com.google.inject.AbstractModule;
 import com.google.inject.TypeLiteral;
 import no.mnemonic.act.platform.api.model.v1.*;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
 
 import javax.inject.Singleton;
 import java.util.Map;
@@ -30,5 +31,8 @@ public class ResponseCachesModule extends AbstractModule {
     bind(new TypeLiteral<Map<UUID, Subject>>() {})
             .toProvider(LocalSubjectResponseCache.class)
             .in(Singleton.class);
+    bind(new TypeLiteral<Map<UUID, FactRecord>>() {})
+            .toProvider(LocalFactSummaryResponseCache.class)
+            .in(Singleton.class);
   }
 }
@@ -3,6 +3,7 @@ package no.mnemonic.act.platform.service.ti.converters.request;
 import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
 import no.mnemonic.act.platform.api.request.v1.SearchFactRequest;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
 import no.mnemonic.act.platform.service.contexts.SecurityContext;
 import no.mnemonic.act.platform.service.ti.resolvers.request.SearchByNameRequestResolver;
 import no.mnemonic.commons.utilities.ObjectUtils;
@@ -44,8 +45,20 @@ public class SearchFactRequestConverter {
             .setEndTimestamp(request.getBefore())
             .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
             .setLimit(ObjectUtils.ifNull(request.getLimit(), DEFAULT_LIMIT))
+            .setSearchAfter(decodeCursor(request.getCursor()))
             .setCurrentUserID(securityContext.getCurrentUserID())
             .setAvailableOrganizationID(securityContext.getAvailableOrganizationID())
             .build();
   }
+
+  private FactSearchCursor decodeCursor(String cursor) throws InvalidArgumentException {
+    if (cursor == null) return null;
+
+    try {
+      return FactSearchCursor.decode(cursor);
+    } catch (IllegalArgumentException ignored) {
+      throw new InvalidArgumentException()
+              .addValidationError("Invalid search cursor.", "invalid.search.cursor", "cursor", cursor);
+    }
+  }
 }
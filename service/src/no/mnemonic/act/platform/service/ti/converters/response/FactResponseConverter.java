@@ -13,11 +13,11 @@ import no.mnemonic.act.platform.service.ti.resolvers.response.SubjectByIdRespons
 import no.mnemonic.commons.logging.Logger;
 import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.Function;
 
 public class FactResponseConverter implements Function<FactRecord, Fact> {
@@ -32,6 +32,7 @@ public class FactResponseConverter implements Function<FactRecord, Fact> {
   private final FactRetractionHandler factRetractionHandler;
   private final ObjectFactDao objectFactDao;
   private final TiSecurityContext securityContext;
+  private final Map<UUID, FactRecord> factSummaryCache;
 
   @Inject
   public FactResponseConverter(FactTypeByIdResponseResolver factTypeConverter,
@@ -41,7 +42,8 @@ public class FactResponseConverter implements Function<FactRecord, Fact> {
                                SubjectByIdResponseResolver subjectConverter,
                                FactRetractionHandler factRetractionHandler,
                                ObjectFactDao objectFactDao,
-                               TiSecurityContext securityContext) {
+                               TiSecurityContext securityContext,
+                               Map<UUID, FactRecord> factSummaryCache) {
     this.factTypeConverter = factTypeConverter;
     this.originConverter = originConverter;
     this.objectConverter = objectConverter;
@@ -50,19 +52,46 @@ public class FactResponseConverter implements Function<FactRecord, Fact> {
     this.factRetractionHandler = factRetractionHandler;
     this.objectFactDao = objectFactDao;
     this.securityContext = securityContext;
+    this.factSummaryCache = factSummaryCache;
   }
 
   @Override
   public Fact apply(FactRecord record) {
     if (record == null) return null;
+    return convert(record, new Resolvers(factTypeConverter, organizationConverter, subjectConverter, originConverter,
+            this::resolveInReferenceTo));
+  }
+
+  /**
+   * Convert a page of Facts at once. In contrast to {@link #apply(FactRecord)} all 'inReferenceTo' Facts of the page
+   * which aren't cached already are fetched with one request, and the FactTypes, Organizations, Subjects and Origins
+   * are only resolved once per distinct UUID inside the page.
+   *
+   * @param records Facts to convert
+   * @return Converted Facts in the same order as the given Facts
+   */
+  public List<Fact> convert(List<FactRecord> records) {
+    if (CollectionUtils.isEmpty(records)) return new ArrayList<>();
+
+    Map<UUID, FactRecord> inReferenceTo = prefetchInReferenceTo(records);
+    Resolvers resolvers = new Resolvers(memoize(factTypeConverter), memoize(organizationConverter),
+            memoize(subjectConverter), memoize(originConverter), inReferenceTo::get);
+    List<Fact> facts = new ArrayList<>(records.size());
+    for (FactRecord record : records) {
+      facts.add(record != null ? convert(record, resolvers) : null);
+    }
+    return facts;
+  }
+
+  private Fact convert(FactRecord record, Resolvers resolvers) {
     return Fact.builder()
             .setId(record.getId())
-            .setType(ObjectUtils.ifNotNull(factTypeConverter.apply(record.getTypeID()), FactType::toInfo))
+            .setType(ObjectUtils.ifNotNull(resolvers.factType.apply(record.getTypeID()), FactType::toInfo))
             .setValue(record.getValue())
-            .setInReferenceTo(ObjectUtils.ifNotNull(convertInReferenceTo(record.getInReferenceToID()), Fact::toInfo))
-            .setOrganization(ObjectUtils.ifNotNull(organizationConverter.apply(record.getOrganizationID()), Organization::toInfo))
-            .setAddedBy(ObjectUtils.ifNotNull(subjectConverter.apply(record.getAddedByID()), Subject::toInfo))
-            .setOrigin(ObjectUtils.ifNotNull(originConverter.apply(record.getOriginID()), Origin::toInfo))
+            .setInReferenceTo(convertInReferenceTo(record.getInReferenceToID(), resolvers))
+            .setOrganization(ObjectUtils.ifNotNull(resolvers.organization.apply(record.getOrganizationID()), Organization::toInfo))
+            .setAddedBy(ObjectUtils.ifNotNull(resolvers.subject.apply(record.getAddedByID()), Subject::toInfo))
+            .setOrigin(ObjectUtils.ifNotNull(resolvers.origin.apply(record.getOriginID()), Origin::toInfo))
             .setTrust(record.getTrust())
             .setConfidence(record.getConfidence())
             .setAccessMode(ObjectUtils.ifNotNull(record.getAccessMode(), m -> AccessMode.valueOf(m.name())))
@@ -75,21 +104,96 @@ public class FactResponseConverter implements Function<FactRecord, Fact> {
             .build();
   }
 
-  private Fact convertInReferenceTo(UUID inReferenceToID) {
+  private Fact.Info convertInReferenceTo(UUID inReferenceToID, Resolvers resolvers) {
     if (inReferenceToID == null) return null;
 
-    FactRecord inReferenceTo = objectFactDao.getFact(inReferenceToID);
+    FactRecord inReferenceTo = resolvers.inReferenceTo.apply(inReferenceToID);
     if (inReferenceTo == null || !securityContext.hasReadPermission(inReferenceTo)) {
       // If User doesn't have access to 'inReferenceTo' Fact it shouldn't be returned as part of the converted Fact.
       LOGGER.debug("Removed inReferenceTo Fact from result because user does not have access to it (id = %s).", inReferenceToID);
       return null;
     }
 
-    // Convert 'inReferenceTo' Fact, but avoid resolving recursive 'inReferenceTo' Facts.
-    return apply(inReferenceTo.setInReferenceToID(null));
+    // Only the summary of the 'inReferenceTo' Fact is returned, thus, there's no need to convert the whole Fact.
+    // This also avoids resolving recursive 'inReferenceTo' Facts.
+    return Fact.builder()
+            .setId(inReferenceTo.getId())
+            .setType(ObjectUtils.ifNotNull(resolvers.factType.apply(inReferenceTo.getTypeID()), FactType::toInfo))
+            .setValue(inReferenceTo.getValue())
+            .build()
+            .toInfo();
+  }
+
+  private FactRecord resolveInReferenceTo(UUID inReferenceToID) {
+    FactRecord inReferenceTo = factSummaryCache.get(inReferenceToID);
+    if (inReferenceTo != null) return inReferenceTo;
+
+    inReferenceTo = objectFactDao.getFact(inReferenceToID);
+    if (inReferenceTo != null) {
+      factSummaryCache.put(inReferenceToID, inReferenceTo);
+    }
+    return inReferenceTo;
+  }
+
+  private Map<UUID, FactRecord> prefetchInReferenceTo(List<FactRecord> records) {
+    Map<UUID, FactRecord> inReferenceTo = new HashMap<>();
+    List<UUID> missing = new ArrayList<>();
+    records.stream()
+            .filter(Objects::nonNull)
+            .map(FactRecord::getInReferenceToID)
+            .filter(Objects::nonNull)
+            .distinct()
+            .forEach(id -> {
+              FactRecord cached = factSummaryCache.get(id);
+              if (cached != null) {
+                inReferenceTo.put(id, cached);
+              } else {
+                missing.add(id);
+              }
+            });
+    if (missing.isEmpty()) return inReferenceTo;
+
+    // Fetch all remaining 'inReferenceTo' Facts of the page with one request.
+    // Facts which don't exist are simply omitted and won't be fetched again for this page.
+    for (FactRecord fact : objectFactDao.getFacts(missing)) {
+      factSummaryCache.put(fact.getId(), fact);
+      inReferenceTo.put(fact.getId(), fact);
+    }
+    return inReferenceTo;
   }
 
   private Set<Fact.Flag> convertFlags(FactRecord record) {
     return factRetractionHandler.isRetracted(record) ? SetUtils.set(Fact.Flag.Retracted) : SetUtils.set();
   }
+
+  private static <T> Function<UUID, T> memoize(Function<UUID, T> resolver) {
+    // Plain HashMap without computeIfAbsent() because the resolver returns NULL for a NULL UUID.
+    Map<UUID, T> resolved = new HashMap<>();
+    return id -> {
+      if (resolved.containsKey(id)) return resolved.get(id);
+      T value = resolver.apply(id);
+      resolved.put(id, value);
+      return value;
+    };
+  }
+
+  private static class Resolvers {
+    private final Function<UUID, FactType> factType;
+    private final Function<UUID, Organization> organization;
+    private final Function<UUID, Subject> subject;
+    private final Function<UUID, Origin> origin;
+    private final Function<UUID, FactRecord> inReferenceTo;
+
+    private Resolvers(Function<UUID, FactType> factType,
+                      Function<UUID, Organization> organization,
+                      Function<UUID, Subject> subject,
+                      Function<UUID, Origin> origin,
+                      Function<UUID, FactRecord> inReferenceTo) {
+      this.factType = factType;
+      this.organization = organization;
+      this.subject = subject;
+      this.origin = origin;
+      this.inReferenceTo = inReferenceTo;
+    }
+  }
 }
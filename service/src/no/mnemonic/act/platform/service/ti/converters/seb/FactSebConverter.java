@@ -0,0 +1,152 @@
+package no.mnemonic.act.platform.service.ti.converters.seb;
+
+import no.mnemonic.act.platform.api.model.v1.*;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.seb.model.v1.*;
+import no.mnemonic.act.platform.service.ti.resolvers.response.*;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.inject.Inject;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Converts a {@link FactRecord} into the {@link FactSEB} model used on the Service Event Bus. Referenced entities such
+ * as the FactType or the Organization are included as *InfoSEB models such that consumers don't need to resolve them.
+ * <p>
+ * Contrary to the response converters no access control is applied, i.e. the complete ACL and the referenced Fact
+ * are always included. Consumers of the events are responsible for applying access control.
+ */
+public class FactSebConverter implements Function<FactRecord, FactSEB> {
+
+  private final FactTypeByIdResponseResolver factTypeConverter;
+  private final ObjectTypeByIdResponseResolver objectTypeConverter;
+  private final OrganizationByIdResponseResolver organizationConverter;
+  private final OriginByIdResponseResolver originConverter;
+  private final SubjectByIdResponseResolver subjectConverter;
+  private final ObjectFactDao objectFactDao;
+
+  @Inject
+  public FactSebConverter(FactTypeByIdResponseResolver factTypeConverter,
+                          ObjectTypeByIdResponseResolver objectTypeConverter,
+                          OrganizationByIdResponseResolver organizationConverter,
+                          OriginByIdResponseResolver originConverter,
+                          SubjectByIdResponseResolver subjectConverter,
+                          ObjectFactDao objectFactDao) {
+    this.factTypeConverter = factTypeConverter;
+    this.objectTypeConverter = objectTypeConverter;
+    this.organizationConverter = organizationConverter;
+    this.originConverter = originConverter;
+    this.subjectConverter = subjectConverter;
+    this.objectFactDao = objectFactDao;
+  }
+
+  @Override
+  public FactSEB apply(FactRecord record) {
+    if (record == null) return null;
+    return FactSEB.builder()
+            .setId(record.getId())
+            .setType(convertFactType(record.getTypeID()))
+            .setValue(record.getValue())
+            .setInReferenceTo(convertInReferenceTo(record.getInReferenceToID()))
+            .setOrganization(convertOrganization(record.getOrganizationID()))
+            .setOrigin(convertOrigin(record.getOriginID()))
+            .setAddedBy(convertSubject(record.getAddedByID()))
+            .setAccessMode(ObjectUtils.ifNotNull(record.getAccessMode(), m -> FactSEB.AccessMode.valueOf(m.name())))
+            .setTrust(record.getTrust())
+            .setConfidence(record.getConfidence())
+            .setTimestamp(record.getTimestamp())
+            .setLastSeenTimestamp(record.getLastSeenTimestamp())
+            .setSourceObject(convertObject(record.getSourceObject()))
+            .setDestinationObject(convertObject(record.getDestinationObject()))
+            .setBidirectionalBinding(record.isBidirectionalBinding())
+            .setFlags(SetUtils.set(record.getFlags(), flag -> FactSEB.Flag.valueOf(flag.name())))
+            .setAcl(convertAcl(record))
+            .build();
+  }
+
+  private FactInfoSEB convertInReferenceTo(UUID inReferenceToID) {
+    if (inReferenceToID == null) return null;
+
+    FactRecord inReferenceTo = objectFactDao.getFact(inReferenceToID);
+    if (inReferenceTo == null) return null;
+
+    return FactInfoSEB.builder()
+            .setId(inReferenceTo.getId())
+            .setType(convertFactType(inReferenceTo.getTypeID()))
+            .setValue(inReferenceTo.getValue())
+            .build();
+  }
+
+  private ObjectInfoSEB convertObject(ObjectRecord object) {
+    if (object == null) return null;
+
+    ObjectType type = objectTypeConverter.apply(object.getTypeID());
+    return ObjectInfoSEB.builder()
+            .setId(object.getId())
+            .setType(ObjectUtils.ifNotNull(type, t -> ObjectTypeInfoSEB.builder()
+                    .setId(t.getId())
+                    .setName(t.getName())
+                    .build()))
+            .setValue(object.getValue())
+            .build();
+  }
+
+  private Set<AclEntrySEB> convertAcl(FactRecord record) {
+    return SetUtils.set(record.getAcl(), this::convertAclEntry);
+  }
+
+  private AclEntrySEB convertAclEntry(FactAclEntryRecord entry) {
+    return AclEntrySEB.builder()
+            .setId(entry.getId())
+            .setSubject(convertSubject(entry.getSubjectID()))
+            .setOrigin(convertOrigin(entry.getOriginID()))
+            .setTimestamp(entry.getTimestamp())
+            .build();
+  }
+
+  private FactTypeInfoSEB convertFactType(UUID id) {
+    FactType type = factTypeConverter.apply(id);
+    if (type == null) return null;
+
+    return FactTypeInfoSEB.builder()
+            .setId(type.getId())
+            .setName(type.getName())
+            .build();
+  }
+
+  private OrganizationInfoSEB convertOrganization(UUID id) {
+    Organization organization = organizationConverter.apply(id);
+    if (organization == null) return null;
+
+    return OrganizationInfoSEB.builder()
+            .setId(organization.getId())
+            .setName(organization.getName())
+            .build();
+  }
+
+  private OriginInfoSEB convertOrigin(UUID id) {
+    Origin origin = originConverter.apply(id);
+    if (origin == null) return null;
+
+    return OriginInfoSEB.builder()
+            .setId(origin.getId())
+            .setName(origin.getName())
+            .build();
+  }
+
+  private SubjectInfoSEB convertSubject(UUID id) {
+    Subject subject = subjectConverter.apply(id);
+    if (subject == null) return null;
+
+    return SubjectInfoSEB.builder()
+            .setId(subject.getId())
+            .setName(subject.getName())
+            .build();
+  }
+}
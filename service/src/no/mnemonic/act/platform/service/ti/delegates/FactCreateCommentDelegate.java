@@ -9,6 +9,8 @@ import no.mnemonic.act.platform.api.request.v1.CreateFactCommentRequest;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactCommentRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.response.FactCommentResponseConverter;
@@ -25,16 +27,19 @@ public class FactCreateCommentDelegate implements Delegate {
   private final ObjectFactDao objectFactDao;
   private final FactRequestResolver factRequestResolver;
   private final FactCommentResponseConverter factCommentResponseConverter;
+  private final FactChangePublisher factChangePublisher;
 
   @Inject
   public FactCreateCommentDelegate(TiSecurityContext securityContext,
                                    ObjectFactDao objectFactDao,
                                    FactRequestResolver factRequestResolver,
-                                   FactCommentResponseConverter factCommentResponseConverter) {
+                                   FactCommentResponseConverter factCommentResponseConverter,
+                                   FactChangePublisher factChangePublisher) {
     this.securityContext = securityContext;
     this.objectFactDao = objectFactDao;
     this.factRequestResolver = factRequestResolver;
     this.factCommentResponseConverter = factCommentResponseConverter;
+    this.factChangePublisher = factChangePublisher;
   }
 
   public FactComment handle(CreateFactCommentRequest request)
@@ -72,6 +77,9 @@ public class FactCreateCommentDelegate implements Delegate {
             .setComment(request.getComment())
             .setTimestamp(System.currentTimeMillis());
 
-    return objectFactDao.storeFactComment(fact, comment);
+    FactCommentRecord storedComment = objectFactDao.storeFactComment(fact, comment);
+    factChangePublisher.publish(FactChangeSEB.Type.Commented, fact.addComment(storedComment));
+
+    return storedComment;
   }
 }
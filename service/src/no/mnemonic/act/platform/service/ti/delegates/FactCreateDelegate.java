@@ -65,9 +65,24 @@ public class FactCreateDelegate implements Delegate {
   }
 
   private void assertValidFactObjectBindings(CreateFactRequest request) throws InvalidArgumentException {
-    // Validate that either source or destination or both are set. One field can be NULL to support bindings of cardinality 1.
     ObjectRecord source = objectRequestResolver.resolveObject(request.getSourceObject());
     ObjectRecord destination = objectRequestResolver.resolveObject(request.getDestinationObject());
+    assertValidFactObjectBindings(requestedFactType, request, source, destination);
+  }
+
+  private FactRecord toFactRecord(CreateFactRequest request) throws InvalidArgumentException {
+    ObjectRecord source = objectRequestResolver.resolveObject(request.getSourceObject());
+    ObjectRecord destination = objectRequestResolver.resolveObject(request.getDestinationObject());
+    return toFactRecord(request, requestedFactType, requestedOrigin, requestedOrganization, securityContext.getCurrentUserID(), source, destination);
+  }
+
+  /**
+   * Validate that the resolved source and destination Objects of a request form a binding which is allowed by the FactType.
+   * Shared with {@link FactImportDelegate} which resolves the Objects itself.
+   */
+  static void assertValidFactObjectBindings(FactTypeEntity factType, CreateFactRequest request, ObjectRecord source, ObjectRecord destination)
+          throws InvalidArgumentException {
+    // Validate that either source or destination or both are set. One field can be NULL to support bindings of cardinality 1.
     if (source == null && destination == null) {
       throw new InvalidArgumentException()
               .addValidationError("Requested source Object could not be resolved.", "invalid.source.object", "sourceObject", request.getSourceObject())
@@ -83,7 +98,7 @@ public class FactCreateDelegate implements Delegate {
 
     // Validate that the binding between source Object, Fact and destination Object is valid according to the FactType.
     // Both source and destination ObjectTypes must be the same plus the bidirectional binding flag must match.
-    boolean valid = !CollectionUtils.isEmpty(requestedFactType.getRelevantObjectBindings()) && requestedFactType.getRelevantObjectBindings()
+    boolean valid = !CollectionUtils.isEmpty(factType.getRelevantObjectBindings()) && factType.getRelevantObjectBindings()
             .stream()
             .anyMatch(b -> Objects.equals(b.getSourceObjectTypeID(), ObjectUtils.ifNotNull(source, ObjectRecord::getTypeID)) &&
                     Objects.equals(b.getDestinationObjectTypeID(), ObjectUtils.ifNotNull(destination, ObjectRecord::getTypeID)) &&
@@ -91,25 +106,32 @@ public class FactCreateDelegate implements Delegate {
     if (!valid) {
       String invalidValue = String.format("sourceObject = %s|destinationObject = %s|bidirectionalBinding = %s", request.getSourceObject(), request.getDestinationObject(), request.isBidirectionalBinding());
       throw new InvalidArgumentException()
-              .addValidationError(String.format("Requested binding between Fact and Object(s) is not allowed for FactType with id = %s.", requestedFactType.getId()),
+              .addValidationError(String.format("Requested binding between Fact and Object(s) is not allowed for FactType with id = %s.", factType.getId()),
                       "invalid.fact.object.binding", "sourceObject|destinationObject|bidirectionalBinding", invalidValue);
     }
   }
 
-  private FactRecord toFactRecord(CreateFactRequest request) throws InvalidArgumentException {
-    ObjectRecord source = objectRequestResolver.resolveObject(request.getSourceObject());
-    ObjectRecord destination = objectRequestResolver.resolveObject(request.getDestinationObject());
-
+  /**
+   * Create the record of a new Fact from a request and its already resolved dependencies.
+   * Shared with {@link FactImportDelegate} which resolves the dependencies itself.
+   */
+  static FactRecord toFactRecord(CreateFactRequest request,
+                                 FactTypeEntity factType,
+                                 OriginEntity origin,
+                                 Organization organization,
+                                 UUID addedByID,
+                                 ObjectRecord source,
+                                 ObjectRecord destination) {
     return new FactRecord()
             .setId(UUID.randomUUID())
-            .setTypeID(requestedFactType.getId())
+            .setTypeID(factType.getId())
             .setValue(request.getValue())
             .setAccessMode(FactRecord.AccessMode.valueOf(request.getAccessMode().name()))
-            .setOrganizationID(requestedOrganization.getId())
-            .setAddedByID(securityContext.getCurrentUserID())
-            .setOriginID(requestedOrigin.getId())
-            .setTrust(requestedOrigin.getTrust())
-            .setConfidence(ObjectUtils.ifNull(request.getConfidence(), requestedFactType.getDefaultConfidence()))
+            .setOrganizationID(organization.getId())
+            .setAddedByID(addedByID)
+            .setOriginID(origin.getId())
+            .setTrust(origin.getTrust())
+            .setConfidence(ObjectUtils.ifNull(request.getConfidence(), factType.getDefaultConfidence()))
             .setTimestamp(System.currentTimeMillis())
             .setLastSeenTimestamp(System.currentTimeMillis())
             .setSourceObject(source)
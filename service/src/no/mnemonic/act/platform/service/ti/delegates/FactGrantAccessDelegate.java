@@ -11,8 +11,11 @@ import no.mnemonic.act.platform.auth.SubjectResolver;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.converters.response.AclEntryResponseConverter;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactRequestResolver;
 import no.mnemonic.commons.utilities.ObjectUtils;
@@ -29,18 +32,24 @@ public class FactGrantAccessDelegate implements Delegate {
   private final FactRequestResolver factRequestResolver;
   private final SubjectResolver subjectResolver;
   private final AclEntryResponseConverter aclEntryResponseConverter;
+  private final FactRetractionIndex retractionIndex;
+  private final FactChangePublisher factChangePublisher;
 
   @Inject
   public FactGrantAccessDelegate(TiSecurityContext securityContext,
                                  ObjectFactDao objectFactDao,
                                  FactRequestResolver factRequestResolver,
                                  SubjectResolver subjectResolver,
-                                 AclEntryResponseConverter aclEntryResponseConverter) {
+                                 AclEntryResponseConverter aclEntryResponseConverter,
+                                 FactRetractionIndex retractionIndex,
+                                 FactChangePublisher factChangePublisher) {
     this.securityContext = securityContext;
     this.objectFactDao = objectFactDao;
     this.factRequestResolver = factRequestResolver;
     this.subjectResolver = subjectResolver;
     this.aclEntryResponseConverter = aclEntryResponseConverter;
+    this.retractionIndex = retractionIndex;
+    this.factChangePublisher = factChangePublisher;
   }
 
   public AclEntry handle(GrantFactAccessRequest request)
@@ -93,6 +102,11 @@ public class FactGrantAccessDelegate implements Delegate {
             .setSubjectID(subject)
             .setTimestamp(System.currentTimeMillis());
 
-    return objectFactDao.storeFactAclEntry(fact, entry);
+    FactAclEntryRecord storedEntry = objectFactDao.storeFactAclEntry(fact, entry);
+    // If the Fact is a retraction the referenced Fact might now be retracted for the new Subject.
+    retractionIndex.invalidate(fact.getInReferenceToID());
+    factChangePublisher.publish(FactChangeSEB.Type.AccessGranted, fact.addAclEntry(storedEntry));
+
+    return storedEntry;
   }
 }
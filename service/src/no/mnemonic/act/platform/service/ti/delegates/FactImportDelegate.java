@@ -0,0 +1,320 @@
+package no.mnemonic.act.platform.service.ti.delegates;
+
+import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
+import no.mnemonic.act.platform.api.exceptions.AuthenticationFailedException;
+import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
+import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.model.v1.FactImportResult;
+import no.mnemonic.act.platform.api.model.v1.Organization;
+import no.mnemonic.act.platform.api.model.v1.Subject;
+import no.mnemonic.act.platform.api.request.v1.CreateFactRequest;
+import no.mnemonic.act.platform.api.request.v1.ImportFactsRequest;
+import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.handlers.FactCreateHandler;
+import no.mnemonic.act.platform.service.ti.resolvers.request.FactTypeRequestResolver;
+import no.mnemonic.act.platform.service.ti.resolvers.request.ObjectRequestResolver;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.services.common.api.ResultSet;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+import static no.mnemonic.act.platform.service.ti.helpers.FactHelper.withAcl;
+import static no.mnemonic.act.platform.service.ti.helpers.FactHelper.withComment;
+
+/**
+ * Imports multiple Facts at once. Every Fact is validated in the same way as by {@link FactCreateDelegate}, but
+ * <ul>
+ * <li>Origins, Organizations, FactTypes, Objects and ACL Subjects are only resolved once per request,</li>
+ * <li>Facts which are logically the same inside one request are only stored once,</li>
+ * <li>existing Facts are looked up with one request per data store instead of one per Fact, and</li>
+ * <li>new Facts are stored concurrently and indexed with one bulk request.</li>
+ * </ul>
+ * A Fact which fails validation doesn't fail the whole request, the outcome is reported per Fact instead.
+ */
+public class FactImportDelegate implements Delegate {
+
+  private static final Logger LOGGER = Logging.getLogger(FactImportDelegate.class);
+
+  private final TiSecurityContext securityContext;
+  private final FactTypeRequestResolver factTypeRequestResolver;
+  private final ObjectRequestResolver objectRequestResolver;
+  private final FactCreateHandler factCreateHandler;
+  private final ObjectFactDao objectFactDao;
+
+  // Everything resolved while handling one request. A new delegate is created per request.
+  private final Map<String, OriginEntity> origins = new HashMap<>();
+  private final Map<String, Organization> organizations = new HashMap<>();
+  private final Map<String, FactTypeEntity> factTypes = new HashMap<>();
+  private final Map<String, ObjectRecord> objects = new HashMap<>();
+  private final Map<List<String>, List<UUID>> subjects = new HashMap<>();
+  private final Set<UUID> permittedOrganizations = new HashSet<>();
+
+  @Inject
+  public FactImportDelegate(TiSecurityContext securityContext,
+                            FactTypeRequestResolver factTypeRequestResolver,
+                            ObjectRequestResolver objectRequestResolver,
+                            FactCreateHandler factCreateHandler,
+                            ObjectFactDao objectFactDao) {
+    this.securityContext = securityContext;
+    this.factTypeRequestResolver = factTypeRequestResolver;
+    this.objectRequestResolver = objectRequestResolver;
+    this.factCreateHandler = factCreateHandler;
+    this.objectFactDao = objectFactDao;
+  }
+
+  public ResultSet<FactImportResult> handle(ImportFactsRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    // Fail early if the user isn't allowed to add any Facts at all.
+    securityContext.checkPermission(TiFunctionConstants.addThreatIntelFact);
+
+    List<CreateFactRequest> facts = ListUtils.list(request.getFacts());
+    FactImportResult[] results = new FactImportResult[facts.size()];
+
+    // Validate all Facts and merge Facts which are logically the same.
+    Map<List<Object>, PendingFact> pending = new LinkedHashMap<>();
+    for (int i = 0; i < facts.size(); i++) {
+      try {
+        FactRecord record = toFactRecord(facts.get(i));
+        List<UUID> acl = resolveSubjects(facts.get(i).getAcl());
+        pending.computeIfAbsent(identityOf(record), key -> new PendingFact(record))
+                .add(i, facts.get(i).getComment(), acl);
+      } catch (AccessDeniedException | InvalidArgumentException ex) {
+        results[i] = failed(i, describe(ex));
+      }
+    }
+
+    List<PendingFact> newFacts = new ArrayList<>();
+    List<PendingFact> existingFacts = new ArrayList<>();
+    resolveExistingFacts(new ArrayList<>(pending.values()), newFacts, existingFacts);
+
+    // Existing Facts are refreshed one by one, refreshing requires reading the existing ACL and comments anyway.
+    // A failure only fails the affected Fact, the remaining Facts are still imported.
+    for (PendingFact fact : existingFacts) {
+      try {
+        Fact refreshed = factCreateHandler.publishFact(objectFactDao.refreshFact(fact.prepare(securityContext.getCurrentUserID())), FactChangeSEB.Type.Refreshed);
+        fact.complete(results, FactImportResult.Status.Refreshed, refreshed);
+      } catch (RuntimeException ex) {
+        LOGGER.warning(ex, "Could not refresh Fact with id = %s.", fact.record.getId());
+        fact.fail(results, "Could not refresh Fact.");
+      }
+    }
+
+    // All new Facts are stored in one batch. A Fact which is stored but not indexed yet is reported as created because
+    // it will be indexed later. A Fact which couldn't be stored is retried individually with the same id, such that a
+    // partially stored Fact is completed instead of being stored a second time.
+    List<CompletionStage<FactRecord>> stored = objectFactDao.storeFacts(ListUtils.list(newFacts, fact -> fact.prepare(securityContext.getCurrentUserID())));
+    for (int i = 0; i < newFacts.size(); i++) {
+      PendingFact fact = newFacts.get(i);
+      try {
+        Fact created = factCreateHandler.publishFact(storedOrRetry(stored.get(i), fact.record), FactChangeSEB.Type.Created);
+        fact.complete(results, FactImportResult.Status.Created, created);
+      } catch (RuntimeException ex) {
+        LOGGER.warning(ex instanceof CompletionException ? ex.getCause() : ex, "Could not import Fact with id = %s.", fact.record.getId());
+        fact.fail(results, "Could not store Fact.");
+      }
+    }
+
+    List<FactImportResult> values = Arrays.asList(results);
+    return StreamingResultSet.<FactImportResult>builder()
+            .setCount(values.size())
+            .setLimit(0)
+            .setValues(values)
+            .build();
+  }
+
+  private FactRecord storedOrRetry(CompletionStage<FactRecord> stored, FactRecord record) {
+    try {
+      return stored.toCompletableFuture().join();
+    } catch (CompletionException ex) {
+      LOGGER.warning(ex.getCause(), "Could not store Fact with id = %s, retrying.", record.getId());
+      return factCreateHandler.storeFact(record);
+    }
+  }
+
+  private FactRecord toFactRecord(CreateFactRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    // Resolve everything in the same order as FactCreateDelegate in order to report the same validation errors.
+    OriginEntity origin = resolveOrigin(request.getOrigin());
+    Organization organization = resolveOrganization(request.getOrganization(), origin);
+    FactTypeEntity factType = resolveFactType(request.getType());
+
+    // Verify that user is allowed to add Facts for the requested organization.
+    if (!permittedOrganizations.contains(organization.getId())) {
+      securityContext.checkPermission(TiFunctionConstants.addThreatIntelFact, organization.getId());
+      permittedOrganizations.add(organization.getId());
+    }
+
+    // Validate that requested Fact matches its FactType.
+    factCreateHandler.assertValidFactValue(factType, request.getValue());
+    ObjectRecord source = resolveObject(request.getSourceObject());
+    ObjectRecord destination = resolveObject(request.getDestinationObject());
+    FactCreateDelegate.assertValidFactObjectBindings(factType, request, source, destination);
+
+    return FactCreateDelegate.toFactRecord(request, factType, origin, organization, securityContext.getCurrentUserID(), source, destination);
+  }
+
+  private OriginEntity resolveOrigin(String idOrName)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    OriginEntity origin = origins.get(idOrName);
+    if (origin == null) {
+      origin = factCreateHandler.resolveOrigin(idOrName);
+      origins.put(idOrName, origin);
+    }
+    return origin;
+  }
+
+  private Organization resolveOrganization(String idOrName, OriginEntity fallback)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    // Without an explicit Organization the result depends on the Origin.
+    String key = idOrName != null ? "organization:" + idOrName : "origin:" + fallback.getId();
+    Organization organization = organizations.get(key);
+    if (organization == null) {
+      organization = factCreateHandler.resolveOrganization(idOrName, fallback);
+      organizations.put(key, organization);
+    }
+    return organization;
+  }
+
+  private FactTypeEntity resolveFactType(String idOrName) throws AccessDeniedException, InvalidArgumentException {
+    FactTypeEntity factType = factTypes.get(idOrName);
+    if (factType == null) {
+      factType = factTypeRequestResolver.resolveFactType(idOrName);
+      factTypes.put(idOrName, factType);
+    }
+    return factType;
+  }
+
+  private ObjectRecord resolveObject(String idOrTypeValue) throws InvalidArgumentException {
+    if (idOrTypeValue == null) return null;
+
+    ObjectRecord object = objects.get(idOrTypeValue);
+    if (object == null) {
+      object = objectRequestResolver.resolveObject(idOrTypeValue);
+      if (object != null) objects.put(idOrTypeValue, object);
+    }
+    return object;
+  }
+
+  private List<UUID> resolveSubjects(List<String> acl) throws InvalidArgumentException {
+    List<String> key = ListUtils.list(acl);
+    List<UUID> resolved = subjects.get(key);
+    if (resolved == null) {
+      resolved = ListUtils.list(factCreateHandler.resolveSubjects(acl), Subject::getId);
+      subjects.put(key, resolved);
+    }
+    return resolved;
+  }
+
+  private void resolveExistingFacts(List<PendingFact> facts, List<PendingFact> newFacts, List<PendingFact> existingFacts) {
+    if (facts.isEmpty()) return;
+
+    List<List<FactRecord>> existing = objectFactDao.retrieveExistingFactsBatch(ListUtils.list(facts, fact -> fact.record));
+    for (int i = 0; i < facts.size(); i++) {
+      // Only refresh an existing Fact if the user has access to it, otherwise create a new Fact.
+      FactRecord accessible = existing.get(i)
+              .stream()
+              .filter(securityContext::hasReadPermission)
+              .findFirst()
+              .orElse(null);
+      if (accessible != null) {
+        facts.get(i).record = accessible;
+        existingFacts.add(facts.get(i));
+      } else {
+        newFacts.add(facts.get(i));
+      }
+    }
+  }
+
+  private static List<Object> identityOf(FactRecord record) {
+    // Same fields as considered by ObjectFactDao.retrieveExistingFacts() when looking for logically identical Facts.
+    return Arrays.asList(
+            record.getTypeID(),
+            record.getValue(),
+            record.getOrganizationID(),
+            record.getOriginID(),
+            record.getConfidence(),
+            record.getAccessMode(),
+            ObjectUtils.ifNotNull(record.getSourceObject(), ObjectRecord::getId),
+            ObjectUtils.ifNotNull(record.getDestinationObject(), ObjectRecord::getId),
+            record.isBidirectionalBinding()
+    );
+  }
+
+  private static String describe(Exception ex) {
+    if (!(ex instanceof InvalidArgumentException)) return ex.getMessage();
+
+    // Report all validation errors of the Fact, the same information is returned by createFact() on failure.
+    return ((InvalidArgumentException) ex).getValidationErrors()
+            .stream()
+            .map(error -> String.format("%s (%s = %s)", error.getMessage(), error.getProperty(), error.getValue()))
+            .collect(Collectors.joining(" "));
+  }
+
+  private static FactImportResult failed(int index, String error) {
+    return FactImportResult.builder()
+            .setIndex(index)
+            .setStatus(FactImportResult.Status.Failed)
+            .setError(error)
+            .build();
+  }
+
+  /**
+   * One Fact to import, possibly requested multiple times inside the same request.
+   */
+  private static class PendingFact {
+    private final List<Integer> indices = new ArrayList<>();
+    private final List<String> comments = new ArrayList<>();
+    private final List<List<UUID>> acl = new ArrayList<>();
+    private FactRecord record;
+
+    private PendingFact(FactRecord record) {
+      this.record = record;
+    }
+
+    private void add(int index, String comment, List<UUID> subjects) {
+      indices.add(index);
+      comments.add(comment);
+      acl.add(subjects);
+    }
+
+    private FactRecord prepare(UUID currentUserID) {
+      // Merge the ACL and comments of all requests for the same Fact.
+      for (int i = 0; i < indices.size(); i++) {
+        record = withAcl(record, currentUserID, acl.get(i));
+        record = withComment(record, comments.get(i));
+      }
+      return record;
+    }
+
+    private void complete(FactImportResult[] results, FactImportResult.Status status, Fact fact) {
+      for (int index : indices) {
+        results[index] = FactImportResult.builder()
+                .setIndex(index)
+                .setStatus(status)
+                .setFact(fact.toInfo())
+                .build();
+      }
+    }
+
+    private void fail(FactImportResult[] results, String error) {
+      for (int index : indices) {
+        results[index] = failed(index, error);
+      }
+    }
+  }
+}
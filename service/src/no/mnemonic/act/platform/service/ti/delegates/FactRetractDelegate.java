@@ -12,10 +12,13 @@ import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
 import no.mnemonic.act.platform.service.contexts.TriggerContext;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
 import no.mnemonic.act.platform.service.ti.handlers.FactCreateHandler;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactRequestResolver;
@@ -38,6 +41,8 @@ public class FactRetractDelegate implements Delegate {
   private final FactRequestResolver factRequestResolver;
   private final FactCreateHandler factCreateHandler;
   private final FactResponseConverter factResponseConverter;
+  private final FactRetractionIndex retractionIndex;
+  private final FactChangePublisher factChangePublisher;
 
   private FactTypeEntity retractionFactType;
   private OriginEntity requestedOrigin;
@@ -50,7 +55,9 @@ public class FactRetractDelegate implements Delegate {
                              FactTypeRequestResolver factTypeRequestResolver,
                              FactRequestResolver factRequestResolver,
                              FactCreateHandler factCreateHandler,
-                             FactResponseConverter factResponseConverter) {
+                             FactResponseConverter factResponseConverter,
+                             FactRetractionIndex retractionIndex,
+                             FactChangePublisher factChangePublisher) {
     this.securityContext = securityContext;
     this.triggerContext = triggerContext;
     this.objectFactDao = objectFactDao;
@@ -58,6 +65,8 @@ public class FactRetractDelegate implements Delegate {
     this.factRequestResolver = factRequestResolver;
     this.factCreateHandler = factCreateHandler;
     this.factResponseConverter = factResponseConverter;
+    this.retractionIndex = retractionIndex;
+    this.factChangePublisher = factChangePublisher;
   }
 
   public Fact handle(RetractFactRequest request)
@@ -78,6 +87,10 @@ public class FactRetractDelegate implements Delegate {
     // Save everything in database.
     FactRecord retractionFact = saveRetractionFact(request, factToRetract);
     factToRetract = objectFactDao.retractFact(factToRetract);
+    factChangePublisher.publish(FactChangeSEB.Type.Created, retractionFact);
+    factChangePublisher.publish(FactChangeSEB.Type.Retracted, factToRetract);
+    // Make the new retraction immediately visible to subsequent requests.
+    retractionIndex.addRetraction(retractionFact);
 
     // Register TriggerEvent before returning Retraction Fact.
     Fact retractionFactParameter = factResponseConverter.apply(retractionFact);
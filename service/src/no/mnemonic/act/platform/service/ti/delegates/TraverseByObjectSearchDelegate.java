@@ -15,13 +15,10 @@ import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.request.SearchObjectRequestConverter;
 import no.mnemonic.act.platform.service.ti.handlers.TraverseGraphHandler;
 import no.mnemonic.act.platform.service.ti.tinkerpop.TraverseParams;
+import no.mnemonic.act.platform.utilities.collections.UUIDSet;
 import no.mnemonic.services.common.api.ResultSet;
 
 import javax.inject.Inject;
-import java.util.Collection;
-import java.util.UUID;
-
-import static no.mnemonic.commons.utilities.collections.SetUtils.set;
 
 public class TraverseByObjectSearchDelegate implements Delegate {
 
@@ -51,7 +48,9 @@ public class TraverseByObjectSearchDelegate implements Delegate {
     FactSearchCriteria criteria = requestConverter.apply(request.getSearch());
     ResultContainer<ObjectRecord> searchResult = objectFactDao.searchObjects(criteria);
 
-    Collection<UUID> objectIds = set(searchResult.iterator(), ObjectRecord::getId);
+    // Collect the ids into a compact set because large searches can return hundreds of thousands of Objects.
+    UUIDSet objectIds = new UUIDSet();
+    searchResult.iterator().forEachRemaining(object -> objectIds.add(object.getId()));
     if (objectIds.isEmpty()) {
       // Search returned no results, just return empty traversal result as well.
       return StreamingResultSet.builder().build();
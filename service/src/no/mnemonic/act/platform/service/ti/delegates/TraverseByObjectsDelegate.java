@@ -12,13 +12,11 @@ import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.handlers.ObjectTypeHandler;
 import no.mnemonic.act.platform.service.ti.handlers.TraverseGraphHandler;
 import no.mnemonic.act.platform.service.ti.tinkerpop.TraverseParams;
+import no.mnemonic.act.platform.utilities.collections.UUIDSet;
 import no.mnemonic.commons.utilities.StringUtils;
-import no.mnemonic.commons.utilities.collections.SetUtils;
 import no.mnemonic.services.common.api.ResultSet;
 
 import javax.inject.Inject;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,15 +45,15 @@ public class TraverseByObjectsDelegate implements Delegate {
           throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
     securityContext.checkPermission(TiFunctionConstants.traverseThreatIntelFact);
 
-    Set<ObjectRecord> objects = new HashSet<>();
+    UUIDSet objectIds = new UUIDSet(request.getObjects().size());
     for (String objectIdentifier : request.getObjects()) {
       ObjectRecord objectRecord = resolveObject(objectIdentifier);
       securityContext.checkReadPermission(objectRecord);
-      objects.add(objectRecord);
+      objectIds.add(objectRecord.getId());
     }
 
     return traverseGraphHandler.traverse(
-            SetUtils.set(objects, ObjectRecord::getId),
+            objectIds,
             request.getQuery(),
             TraverseParams.builder()
                     .setIncludeRetracted(request.getIncludeRetracted())
@@ -14,12 +14,16 @@ import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.cassandra.OriginManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
 import no.mnemonic.act.platform.service.contexts.TriggerContext;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
 import no.mnemonic.act.platform.service.validators.Validator;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
@@ -37,6 +41,8 @@ import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
 
 public class FactCreateHandler {
 
+  private static final Logger LOGGER = Logging.getLogger(FactCreateHandler.class);
+  private static final int STORE_FACT_ATTEMPTS = 3;
   private static final float ORIGIN_DEFAULT_TRUST = 0.8f;
   private static final Map<FactRecord.AccessMode, Integer> ACCESS_MODE_ORDER = MapUtils.map(
           T(FactRecord.AccessMode.Public, 0),
@@ -52,6 +58,7 @@ public class FactCreateHandler {
   private final ObjectFactDao objectFactDao;
   private final FactResponseConverter factResponseConverter;
   private final TriggerContext triggerContext;
+  private final FactChangePublisher factChangePublisher;
 
   @Inject
   public FactCreateHandler(TiSecurityContext securityContext,
@@ -61,7 +68,8 @@ public class FactCreateHandler {
                            ValidatorFactory validatorFactory,
                            ObjectFactDao objectFactDao,
                            FactResponseConverter factResponseConverter,
-                           TriggerContext triggerContext) {
+                           TriggerContext triggerContext,
+                           FactChangePublisher factChangePublisher) {
     this.securityContext = securityContext;
     this.subjectResolver = subjectResolver;
     this.organizationResolver = organizationResolver;
@@ -70,6 +78,7 @@ public class FactCreateHandler {
     this.objectFactDao = objectFactDao;
     this.factResponseConverter = factResponseConverter;
     this.triggerContext = triggerContext;
+    this.factChangePublisher = factChangePublisher;
   }
 
   /**
@@ -224,14 +233,44 @@ public class FactCreateHandler {
     effectiveFact = withComment(effectiveFact, comment);
 
     if (existingFact != null) {
-      effectiveFact = objectFactDao.refreshFact(effectiveFact);
-    } else {
-      // Or create a new Fact.
-      effectiveFact = objectFactDao.storeFact(effectiveFact);
+      return publishFact(objectFactDao.refreshFact(effectiveFact), FactChangeSEB.Type.Refreshed);
     }
 
+    // Or create a new Fact.
+    return publishFact(storeFact(effectiveFact), FactChangeSEB.Type.Created);
+  }
+
+  /**
+   * Stores a new fact. If storing the fact fails it's retried with the same record, i.e. the same fact id, such that a
+   * partially stored fact is completed instead of being stored a second time.
+   *
+   * @param fact The fact to store
+   * @return The fact that was stored
+   */
+  public FactRecord storeFact(FactRecord fact) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return objectFactDao.storeFact(fact);
+      } catch (RuntimeException ex) {
+        if (attempt >= STORE_FACT_ATTEMPTS) throw ex;
+        LOGGER.warning(ex, "Could not store Fact with id = %s (attempt %d of %d).", fact.getId(), attempt, STORE_FACT_ATTEMPTS);
+      }
+    }
+  }
+
+  /**
+   * Announces a fact which has been stored or refreshed. The change is published and a TriggerEvent is registered.
+   * This is done by {@link #saveFact(FactRecord, String, List)} and must only be called by code storing facts itself.
+   *
+   * @param fact The fact which was stored or refreshed
+   * @param type Whether the fact was created or refreshed
+   * @return The fact converted for the response
+   */
+  public Fact publishFact(FactRecord fact, FactChangeSEB.Type type) {
+    factChangePublisher.publish(type, fact);
+
     // Register TriggerEvent before returning added Fact.
-    Fact addedFact = factResponseConverter.apply(effectiveFact);
+    Fact addedFact = factResponseConverter.apply(fact);
     registerTriggerEvent(addedFact);
     return addedFact;
   }
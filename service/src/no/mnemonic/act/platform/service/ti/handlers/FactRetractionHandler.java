@@ -1,21 +1,21 @@
 package no.mnemonic.act.platform.service.ti.handlers;
 
-import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
-import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
-import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.MetaFactBindingEntity;
 import no.mnemonic.act.platform.service.scopes.ServiceRequestScope;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactTypeRequestResolver;
-import no.mnemonic.commons.utilities.collections.CollectionUtils;
-import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Handler class computing whether a Fact has been retracted. See {@link #isRetracted(FactRecord)} for the details.
@@ -23,18 +23,22 @@ import java.util.concurrent.ConcurrentHashMap;
 @ServiceRequestScope
 public class FactRetractionHandler {
 
-  private final Map<UUID, Boolean> retractionCache = new ConcurrentHashMap<>();
-
   private final FactTypeRequestResolver factTypeRequestResolver;
-  private final FactSearchManager factSearchManager;
+  private final FactManager factManager;
+  private final ObjectFactDao objectFactDao;
+  private final FactRetractionIndex retractionIndex;
   private final TiSecurityContext securityContext;
 
   @Inject
   public FactRetractionHandler(FactTypeRequestResolver factTypeRequestResolver,
-                               FactSearchManager factSearchManager,
+                               FactManager factManager,
+                               ObjectFactDao objectFactDao,
+                               FactRetractionIndex retractionIndex,
                                TiSecurityContext securityContext) {
     this.factTypeRequestResolver = factTypeRequestResolver;
-    this.factSearchManager = factSearchManager;
+    this.factManager = factManager;
+    this.objectFactDao = objectFactDao;
+    this.retractionIndex = retractionIndex;
     this.securityContext = securityContext;
   }
 
@@ -45,9 +49,9 @@ public class FactRetractionHandler {
    * Fact and that Retraction Fact is not in turn retracted. The implementation will recursively follow the retractions
    * in order to figure out if retractions have been retracted.
    * <p>
-   * The result of the above computation is cached per class instance in order to speed up multiple checks for the same
-   * Fact. Note that one class instance should not been used across multiple requests from different users because the
-   * computation result depends on whether the user has access to retractions.
+   * The Retraction Facts themselves are looked up in the {@link FactRetractionIndex} shared across requests. Access
+   * to those retractions is checked for the current user on every call, thus, the result is always correct for the
+   * current user even though the index is shared between users.
    *
    * @param fact        FactRecord to check
    * @return True if Fact has been retracted
@@ -55,41 +59,45 @@ public class FactRetractionHandler {
   public boolean isRetracted(FactRecord fact) {
     if (fact == null) return false;
 
-    boolean retractedHint = SetUtils.set(fact.getFlags()).contains(FactRecord.Flag.RetractedHint);
-
-    // If it's known that the Fact has never been retracted store this information immediately.
-    // This will save a lot of calls to ElasticSearch!
-    if (!retractedHint) {
-      retractionCache.put(fact.getId(), false);
-    }
+    // If it's known that the Fact has never been retracted return immediately.
+    // This will save a lot of lookups of retractions!
+    if (!SetUtils.set(fact.getFlags()).contains(FactRecord.Flag.RetractedHint)) return false;
 
-    // If no hint is provided or the Fact has been retracted by some user
-    // compute if the Fact is retracted from the current user's point of view.
-    return retractionCache.computeIfAbsent(fact.getId(), this::computeRetraction);
+    // If the Fact has been retracted by some user compute if the Fact is retracted from the current user's point of view.
+    return computeRetraction(fact);
   }
 
-  private boolean computeRetraction(UUID factID) {
-    List<FactDocument> retractions = fetchRetractions(factID);
-    if (CollectionUtils.isEmpty(retractions)) {
+  private boolean computeRetraction(FactRecord fact) {
+    // Only consider retractions which the user has access to. No access to retractions means that from the user's
+    // perspective the referenced Fact isn't retracted.
+    List<FactRecord> retractions = retractionIndex.getRetractions(fact, this::fetchRetractions)
+            .stream()
+            .filter(securityContext::hasReadPermission)
+            .collect(Collectors.toList());
+    if (retractions.isEmpty()) {
       // No accessible retractions, thus, the Fact isn't retracted.
       return false;
     }
 
-    // The Fact is only retracted if not all of the retractions themselves are retracted.
-    return !retractions.stream().allMatch(fact -> computeRetraction(fact.getId()));
+    // The Fact is only retracted if not all of the retractions themselves are retracted. Always consult the index for
+    // retractions because their RetractedHint might be outdated if the records were cached by the index.
+    return !retractions.stream().allMatch(this::computeRetraction);
   }
 
-  private List<FactDocument> fetchRetractions(UUID factID) {
-    // Create criteria to fetch all Retraction Facts for a given Fact. Only return retractions which a user has access
-    // to. No access to retractions means that from the user's perspective the referenced Fact isn't retracted.
-    FactSearchCriteria retractionsCriteria = FactSearchCriteria.builder()
-            .addInReferenceTo(factID)
-            .addFactTypeID(factTypeRequestResolver.resolveRetractionFactType().getId())
-            .setCurrentUserID(securityContext.getCurrentUserID())
-            .setAvailableOrganizationID(securityContext.getAvailableOrganizationID())
-            .build();
+  private List<FactRecord> fetchRetractions(UUID factID) {
+    // Fetch all Retraction Facts for a given Fact, independent of the current user's access to them.
+    // All meta Facts are fetched at once in order to avoid one round trip per meta Fact.
+    UUID retractionFactTypeID = factTypeRequestResolver.resolveRetractionFactType().getId();
+    List<UUID> metaFactIDs = factManager.fetchMetaFactBindings(factID)
+            .stream()
+            .map(MetaFactBindingEntity::getMetaFactID)
+            .collect(Collectors.toList());
+    if (metaFactIDs.isEmpty()) return Collections.emptyList();
 
-    // The number of retractions will be very small (typically one), thus, it's no problem to consume all results at once.
-    return ListUtils.list(factSearchManager.searchFacts(retractionsCriteria));
+    return objectFactDao.getFacts(metaFactIDs)
+            .stream()
+            .filter(Objects::nonNull)
+            .filter(metaFact -> Objects.equals(metaFact.getTypeID(), retractionFactTypeID))
+            .collect(Collectors.toList());
   }
 }
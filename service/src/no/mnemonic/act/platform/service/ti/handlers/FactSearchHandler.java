@@ -6,8 +6,10 @@ import no.mnemonic.act.platform.api.model.v1.Fact;
 import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.result.ResultContainer;
+import no.mnemonic.act.platform.dao.facade.utilities.BatchingIterator;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
@@ -16,6 +18,7 @@ import no.mnemonic.services.common.api.ResultSet;
 
 import javax.inject.Inject;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Handler class implementing search for Facts.
@@ -46,6 +49,10 @@ public class FactSearchHandler {
    * <p>
    * If the user has the 'unlimitedThreatIntelSearch' permission the result size won't be limited, otherwise the
    * maximum number of returned results will be capped at 10.000.
+   * <p>
+   * If the search result is sorted (i.e. a cursor was given in the criteria or search_after pagination is enabled)
+   * the returned ResultSet provides the cursor of the last Fact fetched from the database after it has been consumed.
+   * Passing this cursor to a subsequent search resumes the search after this Fact.
    *
    * @param criteria         Search criteria matched against existing Facts
    * @param includeRetracted Whether retracted Facts should be included in the result (false by default)
@@ -54,15 +61,20 @@ public class FactSearchHandler {
   public ResultSet<Fact> search(FactSearchCriteria criteria, Boolean includeRetracted) {
     int limit = calculateLimit(criteria);
     ResultContainer<FactRecord> searchResult = objectFactDao.searchFacts(criteria);
+    boolean resumable = searchResult.isSorted() || criteria.getSearchAfter() != null;
+    // Remember the last Fact fetched from the database, including Facts filtered out below, for the next cursor.
+    AtomicReference<FactRecord> lastFact = new AtomicReference<>();
 
     // When consuming the search result apply filter to include or exclude retracted Facts.
     // Additionally, make sure that the user has access to all returned Facts.
-    Iterator<Fact> facts = searchResult.stream()
+    Iterator<FactRecord> records = searchResult.stream()
+            .peek(lastFact::set)
             .filter(fact -> includeRetracted(fact, includeRetracted))
             .filter(securityContext::hasReadPermission)
-            .map(factResponseConverter)
             .limit(limit > 0 ? limit : Long.MAX_VALUE)
             .iterator();
+    // Convert the accessible Facts page-wise in order to resolve referenced information once per page.
+    Iterator<Fact> facts = new BatchingIterator<>(records, page -> factResponseConverter.convert(page).iterator());
 
     // Note that 'count' might be slightly off when retracted Facts are excluded from the result, because retracted
     // Facts are included in the count from ElasticSearch and are only removed when streaming out the results.
@@ -71,9 +83,16 @@ public class FactSearchHandler {
             .setCount(searchResult.getCount())
             .setLimit(limit)
             .setValues(facts)
+            .setNextCursor(resumable ? () -> createNextCursor(lastFact.get(), criteria.getSearchAfter()) : null)
             .build();
   }
 
+  private String createNextCursor(FactRecord lastFact, FactSearchCursor currentCursor) {
+    // Without any fetched Facts the search must be resumed from the same position again.
+    if (lastFact == null) return ObjectUtils.ifNotNull(currentCursor, FactSearchCursor::encode);
+    return FactSearchCursor.of(lastFact.getTimestamp(), lastFact.getId()).encode();
+  }
+
   private int calculateLimit(FactSearchCriteria criteria) {
     try {
       securityContext.checkPermission(TiFunctionConstants.unlimitedThreatIntelSearch);
@@ -8,37 +8,35 @@ import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
 import no.mnemonic.act.platform.service.ti.converters.response.ObjectResponseConverter;
-import no.mnemonic.act.platform.service.ti.helpers.GremlinSandboxExtension;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinScriptExecutor;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.PropertyHelper;
 import no.mnemonic.act.platform.service.ti.tinkerpop.ActGraph;
 import no.mnemonic.act.platform.service.ti.tinkerpop.FactEdge;
 import no.mnemonic.act.platform.service.ti.tinkerpop.ObjectVertex;
 import no.mnemonic.act.platform.service.ti.tinkerpop.TraverseParams;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.MapUtils;
 import no.mnemonic.services.common.api.ResultSet;
-import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
-import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyCompilerGremlinPlugin;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
-import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import javax.inject.Inject;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
-import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
 
 public class TraverseGraphHandler {
 
-  private static final String SCRIPT_ENGINE = "gremlin-groovy";
-  private static final long SCRIPT_EXECUTION_TIMEOUT = 120_000;
+  private static final Logger LOGGER = Logging.getLogger(TraverseGraphHandler.class);
+  private static final int RESULT_BUFFER_SIZE = 1000;
 
   private final TiSecurityContext securityContext;
   private final ObjectFactDao objectFactDao;
@@ -47,8 +45,7 @@ public class TraverseGraphHandler {
   private final ObjectResponseConverter objectResponseConverter;
   private final FactResponseConverter factResponseConverter;
   private final PropertyHelper propertyHelper;
-
-  private long scriptExecutionTimeout = SCRIPT_EXECUTION_TIMEOUT;
+  private final GremlinScriptExecutor scriptExecutor;
 
   @Inject
   public TraverseGraphHandler(TiSecurityContext securityContext,
@@ -57,7 +54,8 @@ public class TraverseGraphHandler {
                               ObjectResponseConverter objectResponseConverter,
                               FactResponseConverter factResponseConverter,
                               FactRetractionHandler factRetractionHandler,
-                              PropertyHelper propertyHelper) {
+                              PropertyHelper propertyHelper,
+                              GremlinScriptExecutor scriptExecutor) {
     this.securityContext = securityContext;
     this.objectFactDao = objectFactDao;
     this.objectFactTypeResolver = objectFactTypeResolver;
@@ -65,11 +63,21 @@ public class TraverseGraphHandler {
     this.factResponseConverter = factResponseConverter;
     this.factRetractionHandler = factRetractionHandler;
     this.propertyHelper = propertyHelper;
+    this.scriptExecutor = scriptExecutor;
   }
 
   /**
    * Traverse a graph by running the query starting at the provided startingObjects.
    * <p>
+   * The whole traversal is performed inside the script executor, thus, the configured timeout applies to all steps of
+   * the traversal. Results are converted and filtered by access while the graph is traversed and streamed to the
+   * returned ResultSet via a bounded buffer. This method returns as soon as the first result is available (or the
+   * traversal has finished), such that an invalid query or a traversal timing out before producing any result is
+   * reported by an exception thrown from this method. If the traversal fails after some results have already been
+   * returned, iterating the ResultSet throws an IllegalStateException whose cause is the OperationTimeoutException or
+   * InvalidArgumentException describing the failure. Because the total number of results is not known in advance
+   * 'count' of the returned ResultSet is not set.
+   * <p>
    * NB! This methods assumes that the caller has verified the following:
    * - that the objects exist
    * - that the user has access to all objects.
@@ -89,78 +97,72 @@ public class TraverseGraphHandler {
       return StreamingResultSet.builder().build();
     }
 
-    // Execute traversal and process results.
-    Collection<Object> result = executeTraversal(startingObjects, query, traverseParams);
+    // Execute traversal and stream results while they are produced.
+    TraverseResultIterator result = executeTraversal(startingObjects, query, traverseParams);
 
     return StreamingResultSet.builder()
-            .setCount(result.size())
             .setValues(result)
             .build();
   }
 
-  TraverseGraphHandler setScriptExecutionTimeout(long scriptExecutionTimeout) {
-    this.scriptExecutionTimeout = scriptExecutionTimeout;
-    return this;
-  }
-
-  private Collection<Object> executeTraversal(Collection<UUID> startingObjects,
-                                              String query,
-                                              TraverseParams traverseParams)
+  private TraverseResultIterator executeTraversal(Collection<UUID> startingObjects,
+                                                  String query,
+                                                  TraverseParams traverseParams)
           throws InvalidArgumentException, OperationTimeoutException {
 
-    // The result will be written into this collection.
-    Collection<Object> traversalResult = new ArrayList<>();
+    // The result of the traversal will be written into this iterator by the 'eval' thread.
+    TraverseResultIterator traversalResult = new TraverseResultIterator(this::tinkerpopToApi, traverseParams.getLimit(),
+            RESULT_BUFFER_SIZE, ex -> new IllegalStateException("Graph traversal failed after returning partial results.",
+            toTraversalFailure(ex, query)));
 
-    try (Graph graph = createGraph(traverseParams); GremlinExecutor executor = createExecutor()) {
+    Graph graph = createGraph(traverseParams);
+    try {
       // Create the first step of the graph traversal, i.e. starting the traversal at the Object(s) specified in the request.
       // This is injected into the script execution as variable 'g'. Every query has to start from 'g'.
       GraphTraversal<Vertex, Vertex> startingPoint = graph.traversal().V(startingObjects.toArray());
       Map<String, Object> bindings = MapUtils.map(T("g", startingPoint));
-      // Start script execution and wait until result arrived or execution is aborted.
-      // Use 'withResult' callback here because the graph will then be iterated inside the 'eval' thread, thus, every
-      // exception caused by the traversal will be handled inside that thread as well which will result in an ExecutionException.
-      executor.eval(query, SCRIPT_ENGINE, bindings, createResultConsumer(traversalResult, traverseParams)).get();
+      // Start script execution and pass the result to the 'withResult' callback. The graph will then be iterated inside
+      // the 'eval' thread, thus, every exception caused by the traversal will be handled inside that thread as well which
+      // will result in an ExecutionException, and the traversal is aborted once it exceeds the script execution timeout.
+      // The shared executor caches the compiled script, only the bindings are specific to this request.
+      CompletableFuture<Object> evaluation = scriptExecutor.eval(query, bindings, traversalResult);
+      // Close the graph once the traversal has finished or was aborted.
+      evaluation.whenComplete((ignored, ex) -> closeGraph(graph));
+      // Wait until the first result arrived or execution has finished.
+      traversalResult.setEvaluation(evaluation).awaitNext();
     } catch (ExecutionException ex) {
-      // Exceptions causing the script execution to fail are wrapped inside an ExecutionException. Need to unwrap them.
-      Throwable cause = ObjectUtils.ifNull(ex.getCause(), ex);
-      // A TimeoutException will be thrown when either the GremlinExecutor or the Groovy sandbox abort the script execution.
-      // In both cases throw an own OperationTimeoutException in order to signal the timeout to the user.
-      if (cause instanceof TimeoutException) {
-        throw new OperationTimeoutException("The performed graph traversal query timed out.", "graph.traversal.timeout");
-      }
-      // In all other cases throw an InvalidArgumentException because the failure is most likely caused by a wrong query,
-      // e.g. invalid syntax, an unsupported operation such as 'addE()', or an operation not allowed by the sandbox.
-      throw new InvalidArgumentException()
-              .addValidationError(cause.getMessage(), "graph.traversal.failure", "query", query);
+      Exception failure = toTraversalFailure(ex, query);
+      if (failure instanceof OperationTimeoutException) throw (OperationTimeoutException) failure;
+      throw (InvalidArgumentException) failure;
     } catch (Exception ex) {
       // Something bad happened, abort method.
+      closeGraph(graph);
       throw new IllegalStateException("Could not perform graph traversal.", ex);
     }
 
     return traversalResult;
   }
 
-  /**
-   * Create a function to process the graph traversal result. The result will be written into the
-   * traversalResult collection provided as a parameter
-   *
-   * @param traversalResult Write the result set into the traversalResult collection
-   * @return A function that will process the result from the graph traversal.
-   */
-  private Consumer<Object> createResultConsumer(Collection<Object> traversalResult, TraverseParams traverseParams) {
-    return (Object result) -> {
-      // Iterate result and convert values if necessary. This will perform the actual graph traversal.
-      Iterator<?> iterator = IteratorUtils.asIterator(result);
-
-      Stream<Object> objectStream = IteratorUtils.stream(iterator)
-              .map(this::tinkerpopToApi)
-              .filter(Objects::nonNull);
+  private Exception toTraversalFailure(ExecutionException ex, String query) {
+    // Exceptions causing the script execution to fail are wrapped inside an ExecutionException. Need to unwrap them.
+    Throwable cause = ObjectUtils.ifNull(ex.getCause(), ex);
+    // A TimeoutException will be thrown when either the GremlinExecutor or the Groovy sandbox abort the script execution.
+    // In both cases return an own OperationTimeoutException in order to signal the timeout to the user.
+    if (cause instanceof TimeoutException) {
+      return new OperationTimeoutException("The performed graph traversal query timed out.", "graph.traversal.timeout");
+    }
+    // In all other cases return an InvalidArgumentException because the failure is most likely caused by a wrong query,
+    // e.g. invalid syntax, an unsupported operation such as 'addE()', or an operation not allowed by the sandbox.
+    return new InvalidArgumentException()
+            .addValidationError(cause.getMessage(), "graph.traversal.failure", "query", query);
+  }
 
-      if (traverseParams.getLimit() > 0) {
-        objectStream = objectStream.limit(traverseParams.getLimit());
-      }
-      objectStream.forEach(traversalResult::add);
-    };
+  private void closeGraph(Graph graph) {
+    try {
+      graph.close();
+    } catch (Exception ex) {
+      LOGGER.warning(ex, "Could not close graph.");
+    }
   }
 
   /**
@@ -202,20 +204,4 @@ public class TraverseGraphHandler {
             .setPropertyHelper(propertyHelper)
             .build();
   }
-
-  private GremlinExecutor createExecutor() {
-    Map<String, Object> groovyCompilerConfig = MapUtils.map(
-            // Protect against scripts going haywire (endless loops, etc.).
-            T("timedInterrupt", scriptExecutionTimeout),
-            // Statically compile scripts before execution (needed for sandbox).
-            T("compilation", GroovyCompilerGremlinPlugin.Compilation.COMPILE_STATIC),
-            // Execute scripts inside a sandbox (i.e. only allow whitelisted methods).
-            T("extensions", GremlinSandboxExtension.class.getName())
-    );
-
-    return GremlinExecutor.build()
-            .evaluationTimeout(scriptExecutionTimeout)
-            .addPlugins(SCRIPT_ENGINE, MapUtils.map(T(GroovyCompilerGremlinPlugin.class.getName(), groovyCompilerConfig)))
-            .create();
-  }
 }
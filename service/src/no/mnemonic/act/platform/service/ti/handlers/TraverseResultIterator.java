@@ -0,0 +1,142 @@
+package no.mnemonic.act.platform.service.ti.handlers;
+
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hands over the result of a graph traversal from the thread performing the traversal to the consumer of the result.
+ * <p>
+ * The traversal is performed completely inside the script evaluation thread (see {@link #accept(Object)}), thus, the
+ * script execution timeout and the error handling of the script executor apply to all steps of the traversal. Every
+ * result is converted inside that thread and put into a bounded buffer from which it is returned by this iterator.
+ * Results for which the converter returns NULL (e.g. Facts the user doesn't have access to) are skipped and don't count
+ * against the limit. If the buffer is full the traversal waits until results are consumed (or the script execution
+ * timeout aborts it), i.e. the traversal is only performed as fast as its results are consumed.
+ * <p>
+ * When the traversal fails after some results have already been returned, the iterator throws the exception created
+ * by the failure handler instead of just stopping. This allows the client to distinguish a partial from a complete result.
+ */
+class TraverseResultIterator implements Iterator<Object>, Consumer<Object> {
+
+  private static final Logger LOGGER = Logging.getLogger(TraverseResultIterator.class);
+  private static final long POLL_INTERVAL_MS = 100;
+
+  private final Function<Object, Object> converter;
+  private final int limit;
+  private final BlockingQueue<Object> results;
+  private final Function<ExecutionException, RuntimeException> failureHandler;
+
+  private Future<?> evaluation;
+  private Object next;
+
+  TraverseResultIterator(Function<Object, Object> converter, int limit, int bufferSize,
+                         Function<ExecutionException, RuntimeException> failureHandler) {
+    this.converter = converter;
+    this.limit = limit;
+    this.results = new ArrayBlockingQueue<>(bufferSize);
+    this.failureHandler = failureHandler;
+  }
+
+  /**
+   * Set the evaluation performing the traversal. It signals when no more results will be added and whether the
+   * traversal has failed. Must be set before the results are consumed.
+   *
+   * @param evaluation Evaluation performing the traversal
+   * @return this
+   */
+  TraverseResultIterator setEvaluation(Future<?> evaluation) {
+    this.evaluation = evaluation;
+    return this;
+  }
+
+  /**
+   * Perform the traversal and add all converted results to the buffer. Called inside the script evaluation thread.
+   *
+   * @param traversalResult Result of the evaluated script
+   */
+  @Override
+  public void accept(Object traversalResult) {
+    Iterator<?> traversal = IteratorUtils.asIterator(traversalResult);
+
+    try {
+      int added = 0;
+      while ((limit <= 0 || added < limit) && traversal.hasNext()) {
+        Object value = converter.apply(traversal.next());
+        if (value == null) continue;
+
+        results.put(value);
+        added++;
+      }
+    } catch (InterruptedException ex) {
+      // The script executor interrupts the traversal when it has exceeded the script execution timeout.
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for graph traversal results to be consumed.", ex);
+    } finally {
+      close(traversal);
+    }
+  }
+
+  /**
+   * Wait until the next result is available or the traversal has finished.
+   *
+   * @return True if another result is available, false if the traversal has finished successfully
+   * @throws ExecutionException   Thrown if the traversal has failed and all results produced before have been consumed
+   * @throws InterruptedException Thrown if interrupted while waiting
+   */
+  boolean awaitNext() throws ExecutionException, InterruptedException {
+    while (next == null) {
+      next = results.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      // Only check the evaluation after the poll to not miss results added right before the evaluation finished.
+      if (next == null && evaluation.isDone() && results.isEmpty()) {
+        // Throws an ExecutionException if the traversal has failed.
+        evaluation.get();
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      return awaitNext();
+    } catch (ExecutionException ex) {
+      throw failureHandler.apply(ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for graph traversal results.", ex);
+    }
+  }
+
+  @Override
+  public Object next() {
+    if (!hasNext()) throw new NoSuchElementException();
+
+    Object result = next;
+    next = null;
+    return result;
+  }
+
+  private void close(Iterator<?> traversal) {
+    // Release any resources held by the traversal as soon as no more results will be produced.
+    if (traversal instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) traversal).close();
+      } catch (Exception ex) {
+        LOGGER.warning(ex, "Could not close graph traversal.");
+      }
+    }
+  }
+}
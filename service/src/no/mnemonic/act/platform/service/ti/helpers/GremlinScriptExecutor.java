@@ -0,0 +1,222 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyCompilerGremlinPlugin;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+
+/**
+ * Long-lived executor for Gremlin traversal scripts shared between all requests.
+ * <p>
+ * Compiling a Groovy script with static compilation and the sandbox is expensive compared to executing short
+ * traversals. Instead of creating a new {@link GremlinExecutor} per request, this class keeps one executor around
+ * whose script engine caches compiled script classes keyed by the (normalized) script text. The cache is bounded
+ * to a fixed number of scripts. Because the timeout and the sandbox are applied during compilation, cached
+ * scripts preserve both guarantees. Request-specific variables (such as the starting point 'g') are passed as
+ * bindings on every evaluation and are never shared between requests.
+ */
+@Singleton
+public class GremlinScriptExecutor implements LifecycleAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(GremlinScriptExecutor.class);
+
+  private static final String SCRIPT_ENGINE = "gremlin-groovy";
+  private static final int SCRIPT_CACHE_SIZE = 1000;
+
+  private final long scriptExecutionTimeout;
+  private final int executorThreads;
+  private int scriptCacheSize = SCRIPT_CACHE_SIZE;
+
+  private ExecutorService executorService;
+  private ScheduledExecutorService timeoutService;
+  private GremlinExecutor executor;
+
+  @Inject
+  public GremlinScriptExecutor(@Named("act.gremlin.script.execution.timeout") long scriptExecutionTimeout,
+                               @Named("act.gremlin.executor.threads") int executorThreads) {
+    if (scriptExecutionTimeout <= 0) throw new IllegalArgumentException("'scriptExecutionTimeout' must be positive.");
+    if (executorThreads <= 0) throw new IllegalArgumentException("'executorThreads' must be positive.");
+    this.scriptExecutionTimeout = scriptExecutionTimeout;
+    this.executorThreads = executorThreads;
+  }
+
+  @Override
+  public void startComponent() {
+    // The executor is initialized lazily on first usage.
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (executor == null) return;
+
+    try {
+      executor.close();
+    } catch (Exception ex) {
+      LOGGER.warning(ex, "Could not cleanly shut down GremlinExecutor.");
+    }
+
+    executorService.shutdownNow();
+    timeoutService.shutdownNow();
+    executor = null;
+  }
+
+  /**
+   * Evaluate a Gremlin script. Compiled scripts are cached, thus, subsequent evaluations of the same script only
+   * require creating a new script instance with the provided bindings.
+   *
+   * @param script         Script to evaluate
+   * @param bindings       Variables available during script evaluation (bound per evaluation)
+   * @param resultConsumer Consumer processing the result inside the evaluation thread
+   * @return Future completing when the evaluation has finished
+   */
+  public CompletableFuture<Object> eval(String script, Map<String, Object> bindings, Consumer<Object> resultConsumer) {
+    return getExecutor().eval(normalizeScript(script), SCRIPT_ENGINE, bindings, resultConsumer);
+  }
+
+  /**
+   * Return statistics about the cache of compiled scripts.
+   *
+   * @return Current cache statistics
+   */
+  public ScriptCacheStatistics getScriptCacheStatistics() {
+    GremlinGroovyScriptEngine engine = getScriptEngine();
+    return new ScriptCacheStatistics(
+            engine.getClassCacheHitCount(),
+            engine.getClassCacheMissCount(),
+            engine.getClassCacheEstimatedSize(),
+            engine.getClassCacheEvictionCount(),
+            engine.getClassCacheLoadFailureCount(),
+            engine.getClassCacheTotalLoadTime(),
+            engine.getClassCacheAverageLoadPenalty()
+    );
+  }
+
+  /**
+   * Set the maximum number of compiled scripts kept in the cache. Must be configured before first usage.
+   *
+   * @param scriptCacheSize Maximum number of cached scripts
+   * @return this
+   */
+  GremlinScriptExecutor setScriptCacheSize(int scriptCacheSize) {
+    this.scriptCacheSize = scriptCacheSize;
+    return this;
+  }
+
+  static String normalizeScript(String script) {
+    // Scripts only differing in surrounding whitespace or line endings should share the same compiled class.
+    return ObjectUtils.ifNotNull(script, s -> s.replace("\r\n", "\n").replace('\r', '\n').trim());
+  }
+
+  private synchronized GremlinExecutor getExecutor() {
+    if (executor == null) {
+      executor = createExecutor();
+    }
+
+    return executor;
+  }
+
+  private GremlinGroovyScriptEngine getScriptEngine() {
+    return (GremlinGroovyScriptEngine) getExecutor().getScriptEngineManager().getEngineByName(SCRIPT_ENGINE);
+  }
+
+  private GremlinExecutor createExecutor() {
+    Map<String, Object> groovyCompilerConfig = MapUtils.map(
+            // Protect against scripts going haywire (endless loops, etc.).
+            T("timedInterrupt", scriptExecutionTimeout),
+            // Statically compile scripts before execution (needed for sandbox).
+            T("compilation", GroovyCompilerGremlinPlugin.Compilation.COMPILE_STATIC),
+            // Execute scripts inside a sandbox (i.e. only allow whitelisted methods).
+            T("extensions", GremlinSandboxExtension.class.getName()),
+            // Bound the number of compiled scripts kept in memory. Soft values allow the GC to reclaim classes under memory pressure.
+            T("classMapCacheSpecification", String.format("maximumSize=%d,softValues", scriptCacheSize)),
+            // Don't share functions defined inside one script with scripts executed by other requests.
+            T("globalFunctionCacheEnabled", false)
+    );
+
+    executorService = Executors.newFixedThreadPool(executorThreads);
+    timeoutService = Executors.newSingleThreadScheduledExecutor();
+
+    LOGGER.info("Initialize shared GremlinExecutor (threads=%d, scriptCacheSize=%d).", executorThreads, scriptCacheSize);
+    return GremlinExecutor.build()
+            .evaluationTimeout(scriptExecutionTimeout)
+            .executorService(executorService)
+            .scheduledExecutorService(timeoutService)
+            .addPlugins(SCRIPT_ENGINE, MapUtils.map(T(GroovyCompilerGremlinPlugin.class.getName(), groovyCompilerConfig)))
+            .create();
+  }
+
+  /**
+   * Statistics about the cache of compiled scripts.
+   */
+  public static class ScriptCacheStatistics {
+    private final long hitCount;
+    private final long missCount;
+    private final long size;
+    private final long evictionCount;
+    private final long compilationFailureCount;
+    private final long totalCompilationTime;
+    private final double averageCompilationTime;
+
+    private ScriptCacheStatistics(long hitCount, long missCount, long size, long evictionCount,
+                                  long compilationFailureCount, long totalCompilationTime, double averageCompilationTime) {
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.size = size;
+      this.evictionCount = evictionCount;
+      this.compilationFailureCount = compilationFailureCount;
+      this.totalCompilationTime = totalCompilationTime;
+      this.averageCompilationTime = averageCompilationTime;
+    }
+
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    public long getMissCount() {
+      return missCount;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    public long getCompilationFailureCount() {
+      return compilationFailureCount;
+    }
+
+    /**
+     * @return Total time spent compiling scripts (in ms)
+     */
+    public long getTotalCompilationTime() {
+      return TimeUnit.NANOSECONDS.toMillis(totalCompilationTime);
+    }
+
+    /**
+     * @return Average time spent compiling one script (in ms)
+     */
+    public double getAverageCompilationTime() {
+      return averageCompilationTime / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+}
@@ -5,6 +5,7 @@ import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.service.validators.Validator;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
 import no.mnemonic.commons.utilities.StringUtils;
@@ -36,7 +37,8 @@ public class ObjectRequestResolver {
    * <p>
    * 1. Try to resolve Object by ID if input represents a UUID.
    * 2. If input is not a UUID, try to resolve Object by type and value. Input should be of form 'type/value'.
-   * 3. If Object doesn't exist yet, a new Object will be created with respect to type and value.
+   * 3. If Object doesn't exist yet, a new Object will be created with respect to type and value. If the same Object is
+   * created concurrently by another request, the Object created by the other request will be returned.
    * <p>
    * If input neither represents a UUID nor is of form 'type/value' NULL will be returned.
    * <p>
@@ -100,7 +102,14 @@ public class ObjectRequestResolver {
       .setTypeID(type.getId())
       .setValue(value);
 
-    return objectFactDao.storeObject(objectRecord);
+    try {
+      return objectFactDao.storeObject(objectRecord);
+    } catch (ImmutableViolationException ex) {
+      // Another request has created the same Object concurrently. Use that Object instead.
+      ObjectRecord existing = objectFactDao.getObject(type.getName(), value);
+      if (existing == null) throw ex;
+      return existing;
+    }
   }
 
 }
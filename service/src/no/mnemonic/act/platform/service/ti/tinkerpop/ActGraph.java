@@ -5,12 +5,15 @@ import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.handlers.FactRetractionHandler;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.PropertyHelper;
 import no.mnemonic.act.platform.service.ti.tinkerpop.exceptions.GraphOperationException;
+import no.mnemonic.act.platform.service.ti.tinkerpop.strategies.BatchedVertexStepStrategy;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ElementFactory;
+import no.mnemonic.act.platform.service.ti.tinkerpop.utils.NeighbourExpansionEngine;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
@@ -29,7 +32,15 @@ public class ActGraph implements Graph {
 
   private static final Features SUPPORTED_FEATURES = new ActGraphFeatures();
 
+  static {
+    // Expand the vertices reached in one traversal step together instead of one-by-one.
+    TraversalStrategies.GlobalCache.registerStrategies(ActGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class)
+            .clone()
+            .addStrategies(BatchedVertexStepStrategy.instance()));
+  }
+
   private final ElementFactory elementFactory;
+  private final NeighbourExpansionEngine neighbourExpansionEngine;
   private final ObjectFactDao objectFactDao;
   private final ObjectFactTypeResolver objectFactTypeResolver;
   private final FactRetractionHandler factRetractionHandler;
@@ -49,6 +60,7 @@ public class ActGraph implements Graph {
     this.securityContext = ObjectUtils.notNull(securityContext, "'securityContext' is null!");
     this.traverseParams = ObjectUtils.notNull(traverseParams, "'traverseParams' is null!");
     this.elementFactory = ElementFactory.builder().setOwner(this).build();
+    this.neighbourExpansionEngine = NeighbourExpansionEngine.builder().setOwner(this).build();
     this.propertyHelper = propertyHelper;
   }
 
@@ -131,6 +143,10 @@ public class ActGraph implements Graph {
 
   public PropertyHelper getPropertyHelper() { return propertyHelper; }
 
+  public NeighbourExpansionEngine getNeighbourExpansionEngine() {
+    return neighbourExpansionEngine;
+  }
+
   ElementFactory getElementFactory() {
     return elementFactory;
   }
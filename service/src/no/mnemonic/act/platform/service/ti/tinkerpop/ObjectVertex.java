@@ -1,11 +1,11 @@
 package no.mnemonic.act.platform.service.ti.tinkerpop;
 
-import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
-import no.mnemonic.act.platform.dao.api.result.ResultContainer;
+import no.mnemonic.act.platform.service.ti.tinkerpop.utils.NeighbourExpansionEngine;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.PropertyEntry;
+import no.mnemonic.act.platform.utilities.collections.UUIDSet;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
@@ -18,7 +18,6 @@ import java.util.stream.Collectors;
 
 import static no.mnemonic.commons.utilities.collections.ListUtils.list;
 import static no.mnemonic.commons.utilities.collections.SetUtils.set;
-import static no.mnemonic.commons.utilities.collections.SetUtils.union;
 import static org.apache.tinkerpop.gremlin.structure.Direction.*;
 import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.edgeAdditionsNotSupported;
 import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.vertexRemovalNotSupported;
@@ -55,25 +54,13 @@ public class ObjectVertex implements Vertex {
 
   @Override
   public Iterator<Edge> edges(Direction direction, String... edgeLabels) {
-    Set<UUID> factTypeIds = graph.getObjectFactTypeResolver().factTypeNamesToIds(set(edgeLabels));
-
-    ResultContainer<FactRecord> factRecords = graph.getObjectFactDao().searchFacts(
-            FactSearchCriteria.builder()
-                    .addObjectID(object.getId())
-                    .setFactTypeID(factTypeIds)
-                    .setStartTimestamp(graph.getTraverseParams().getAfterTimestamp())
-                    .setEndTimestamp(graph.getTraverseParams().getBeforeTimestamp())
-                    .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
-                    .setCurrentUserID(graph.getSecurityContext().getCurrentUserID())
-                    .setAvailableOrganizationID(graph.getSecurityContext().getAvailableOrganizationID())
-                    .build());
-
-    return factRecords
+    // The adjacent Facts might already have been fetched together with other vertices of the same traversal step.
+    NeighbourExpansionEngine expansionEngine = graph.getNeighbourExpansionEngine();
+
+    return expansionEngine.expand(object.getId(), edgeLabels)
             .stream()
             .filter(record -> matchesDirection(record, object, direction))
-            .filter(graph.getSecurityContext()::hasReadPermission)
-            .filter(record -> graph.getTraverseParams().isIncludeRetracted() ||
-                    !graph.getFactRetractionHandler().isRetracted(record))
+            .filter(expansionEngine::isAccessible)
             .map(graph.getElementFactory()::createEdge)
             .filter(Objects::nonNull)
             .iterator();
@@ -81,9 +68,11 @@ public class ObjectVertex implements Vertex {
 
   @Override
   public Iterator<Vertex> vertices(Direction direction, String... edgeLabels) {
+    // Deduplicate adjacent vertices by their ids instead of collecting the vertices into intermediate sets.
+    UUIDSet visited = new UUIDSet();
     return IteratorUtils.stream(edges(direction, edgeLabels))
-            .map(e -> set(e.vertices(direction)))
-            .reduce(new HashSet<>(), (result, next) -> union(result, next))
+            .flatMap(e -> IteratorUtils.stream(e.vertices(direction)))
+            .filter(v -> visited.add((UUID) v.id()))
             .iterator();
   }
 
@@ -0,0 +1,78 @@
+package no.mnemonic.act.platform.service.ti.tinkerpop.strategies;
+
+import no.mnemonic.act.platform.service.ti.tinkerpop.ActGraph;
+import no.mnemonic.act.platform.service.ti.tinkerpop.ObjectVertex;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
+
+import java.util.*;
+
+/**
+ * {@link VertexStep} which pulls up to 'batchSize' traversers from the previous step and expands all of their vertices
+ * at once using the graph's {@link no.mnemonic.act.platform.service.ti.tinkerpop.utils.NeighbourExpansionEngine}.
+ * Afterwards the traversers are processed one-by-one exactly as in {@link VertexStep}, but the adjacent edges are
+ * served from the prefetched result.
+ *
+ * @param <E> Type of returned elements (either vertices or edges)
+ */
+public class BatchedVertexStep<E extends Element> extends VertexStep<E> {
+
+  private final int batchSize;
+  private final Deque<Traverser.Admin<Vertex>> buffer = new ArrayDeque<>();
+  private Traverser.Admin<Vertex> head;
+  private Iterator<E> iterator = EmptyIterator.instance();
+
+  public BatchedVertexStep(VertexStep<E> originalStep, int batchSize) {
+    super(originalStep.getTraversal(), originalStep.getReturnClass(), originalStep.getDirection(), originalStep.getEdgeLabels());
+    if (batchSize < 1) throw new IllegalArgumentException("'batchSize' must be at least 1!");
+    originalStep.getLabels().forEach(this::addLabel);
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  protected Traverser.Admin<E> processNextStart() {
+    while (true) {
+      if (iterator.hasNext()) {
+        return head.split(iterator.next(), this);
+      }
+
+      if (buffer.isEmpty()) {
+        fillBuffer();
+      }
+
+      head = buffer.poll();
+      iterator = flatMap(head);
+    }
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    buffer.clear();
+    head = null;
+    iterator = EmptyIterator.instance();
+  }
+
+  private void fillBuffer() {
+    while (buffer.size() < batchSize && starts.hasNext()) {
+      buffer.add(starts.next());
+    }
+
+    // Signal to TinkerPop that all traversers have been processed.
+    if (buffer.isEmpty()) throw FastNoSuchElementException.instance();
+
+    // Group the vertices by graph. In practice all vertices belong to the same ActGraph.
+    Map<ActGraph, Set<UUID>> frontier = new HashMap<>();
+    for (Traverser.Admin<Vertex> traverser : buffer) {
+      Vertex vertex = traverser.get();
+      if (!(vertex instanceof ObjectVertex) || !(vertex.graph() instanceof ActGraph)) continue;
+      frontier.computeIfAbsent((ActGraph) vertex.graph(), g -> new HashSet<>()).add((UUID) vertex.id());
+    }
+
+    frontier.forEach((graph, objectIDs) -> graph.getNeighbourExpansionEngine().prefetch(objectIDs, getEdgeLabels()));
+  }
+}
@@ -0,0 +1,38 @@
+package no.mnemonic.act.platform.service.ti.tinkerpop.strategies;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Element;
+
+/**
+ * Traversal strategy which replaces every {@link VertexStep} (e.g. 'out()', 'both()', 'outE()') with a
+ * {@link BatchedVertexStep}, such that the vertices of many traversers are expanded together.
+ */
+public class BatchedVertexStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+  private static final int BATCH_SIZE = 100;
+  private static final BatchedVertexStepStrategy INSTANCE = new BatchedVertexStepStrategy();
+
+  private BatchedVertexStepStrategy() {
+  }
+
+  @Override
+  public void apply(Traversal.Admin<?, ?> traversal) {
+    // Only exact matches are returned, thus, already replaced steps are skipped.
+    for (VertexStep<?> step : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+      replaceStep(step, traversal);
+    }
+  }
+
+  private static <E extends Element> void replaceStep(VertexStep<E> step, Traversal.Admin<?, ?> traversal) {
+    TraversalHelper.replaceStep(step, new BatchedVertexStep<>(step, BATCH_SIZE), traversal);
+  }
+
+  public static BatchedVertexStepStrategy instance() {
+    return INSTANCE;
+  }
+}
@@ -0,0 +1,175 @@
+package no.mnemonic.act.platform.service.ti.tinkerpop.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.service.ti.tinkerpop.ActGraph;
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+
+/**
+ * Helper class which expands the adjacent Facts of many vertices at once.
+ * <p>
+ * Instead of executing one search per vertex, all vertices reached in one traversal step (the frontier) are expanded
+ * with one search for all of their Objects. The result is split up per vertex and cached, thus, subsequent calls to
+ * {@link #expand(UUID, String...)} for those vertices are served without another search. If a vertex hasn't been
+ * prefetched it will be expanded on its own.
+ */
+public class NeighbourExpansionEngine {
+
+  private static final int CACHE_MAXIMUM_SIZE = 10000;
+  // Maximum number of Objects included in one search.
+  private static final int BATCH_SIZE = 100;
+
+  private final ActGraph owner;
+  // Cache for adjacent Facts per vertex and requested FactTypes. Populated by prefetch() and expand().
+  private final Cache<ExpansionKey, List<FactRecord>> expansionCache;
+  // Cache for the result of the access and retraction checks. A Fact is often adjacent to multiple expanded vertices.
+  private final Cache<UUID, Boolean> accessibleCache;
+
+  private NeighbourExpansionEngine(ActGraph owner) {
+    this.owner = ObjectUtils.notNull(owner, "'owner' is null!");
+    this.expansionCache = CacheBuilder.newBuilder().maximumSize(CACHE_MAXIMUM_SIZE).build();
+    this.accessibleCache = CacheBuilder.newBuilder().maximumSize(CACHE_MAXIMUM_SIZE).build();
+  }
+
+  /**
+   * Expand multiple vertices at once and cache the result for subsequent calls to {@link #expand(UUID, String...)}.
+   * Already expanded vertices are skipped.
+   *
+   * @param objectIDs  IDs of vertices to expand, i.e. {@link ObjectRecord#getId()}.
+   * @param edgeLabels Only include edges with these labels (all edges if empty)
+   */
+  public void prefetch(Collection<UUID> objectIDs, String... edgeLabels) {
+    if (objectIDs == null) return;
+
+    Set<UUID> factTypeIds = resolveFactTypes(edgeLabels);
+    List<UUID> missing = objectIDs.stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .filter(id -> expansionCache.getIfPresent(new ExpansionKey(id, factTypeIds)) == null)
+            .collect(Collectors.toList());
+
+    for (List<UUID> batch : Lists.partition(missing, BATCH_SIZE)) {
+      fetch(set(batch), factTypeIds);
+    }
+  }
+
+  /**
+   * Return all Facts adjacent to one vertex. Facts are not filtered by access or retraction status,
+   * use {@link #isAccessible(FactRecord)} for that purpose.
+   *
+   * @param objectID   ID of vertex to expand, i.e. {@link ObjectRecord#getId()}.
+   * @param edgeLabels Only include edges with these labels (all edges if empty)
+   * @return Adjacent Facts
+   */
+  public List<FactRecord> expand(UUID objectID, String... edgeLabels) {
+    Set<UUID> factTypeIds = resolveFactTypes(edgeLabels);
+
+    List<FactRecord> cached = expansionCache.getIfPresent(new ExpansionKey(objectID, factTypeIds));
+    if (cached != null) return cached;
+
+    return fetch(set(objectID), factTypeIds).get(objectID);
+  }
+
+  /**
+   * Determine whether a Fact should be included in the traversal, i.e. the current user has access to the Fact and
+   * it isn't retracted (unless retracted Facts should be included). The result is cached per Fact.
+   *
+   * @param record Fact to check
+   * @return True if Fact should be included in the traversal
+   */
+  public boolean isAccessible(FactRecord record) {
+    if (record == null) return false;
+
+    try {
+      return accessibleCache.get(record.getId(), () -> owner.getSecurityContext().hasReadPermission(record) &&
+              (owner.getTraverseParams().isIncludeRetracted() || !owner.getFactRetractionHandler().isRetracted(record)));
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(String.format("Could not check access to Fact with id = %s.", record.getId()), ex.getCause());
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private Map<UUID, List<FactRecord>> fetch(Set<UUID> objectIDs, Set<UUID> factTypeIds) {
+    Map<UUID, List<FactRecord>> result = new HashMap<>();
+    objectIDs.forEach(id -> result.put(id, new ArrayList<>()));
+
+    owner.getObjectFactDao().searchFacts(FactSearchCriteria.builder()
+            .setObjectID(objectIDs)
+            .setFactTypeID(factTypeIds)
+            .setStartTimestamp(owner.getTraverseParams().getAfterTimestamp())
+            .setEndTimestamp(owner.getTraverseParams().getBeforeTimestamp())
+            .addTimeFieldStrategy(FactSearchCriteria.TimeFieldStrategy.timestamp)
+            .setCurrentUserID(owner.getSecurityContext().getCurrentUserID())
+            .setAvailableOrganizationID(owner.getSecurityContext().getAvailableOrganizationID())
+            .build())
+            .forEachRemaining(record -> {
+              // Split up the result by adding each Fact to the vertices it is bound to.
+              Set<UUID> boundObjects = new HashSet<>();
+              ObjectUtils.ifNotNullDo(record.getSourceObject(), o -> boundObjects.add(o.getId()));
+              ObjectUtils.ifNotNullDo(record.getDestinationObject(), o -> boundObjects.add(o.getId()));
+              boundObjects.stream()
+                      .filter(result::containsKey)
+                      .forEach(id -> result.get(id).add(record));
+            });
+
+    result.forEach((id, facts) -> expansionCache.put(new ExpansionKey(id, factTypeIds), facts));
+    return result;
+  }
+
+  private Set<UUID> resolveFactTypes(String... edgeLabels) {
+    return owner.getObjectFactTypeResolver().factTypeNamesToIds(set(edgeLabels));
+  }
+
+  private static class ExpansionKey {
+    private final UUID objectID;
+    private final Set<UUID> factTypeIds;
+
+    private ExpansionKey(UUID objectID, Set<UUID> factTypeIds) {
+      this.objectID = objectID;
+      this.factTypeIds = ObjectUtils.ifNull(factTypeIds, Collections.emptySet());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ExpansionKey that = (ExpansionKey) o;
+      return Objects.equals(objectID, that.objectID) &&
+              Objects.equals(factTypeIds, that.factTypeIds);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(objectID, factTypeIds);
+    }
+  }
+
+  public static class Builder {
+    private ActGraph owner;
+
+    private Builder() {
+    }
+
+    public NeighbourExpansionEngine build() {
+      return new NeighbourExpansionEngine(owner);
+    }
+
+    public Builder setOwner(ActGraph owner) {
+      this.owner = owner;
+      return this;
+    }
+  }
+}
@@ -45,6 +45,21 @@ public class DefaultValidatorFactory implements ValidatorFactory {
     if ("RegexValidator".equals(validator)) {
       return new RegexValidator(parameter);
     }
+    if ("IPv4Validator".equals(validator)) {
+      return new IPv4Validator();
+    }
+    if ("IPv6Validator".equals(validator)) {
+      return new IPv6Validator();
+    }
+    if ("DomainValidator".equals(validator)) {
+      return new DomainValidator();
+    }
+    if ("HashValidator".equals(validator)) {
+      return new HashValidator(parameter);
+    }
+    if ("UrlValidator".equals(validator)) {
+      return new UrlValidator(parameter);
+    }
 
     throw new Exception(String.format("Validator %s does not exist.", validator));
   }
@@ -0,0 +1,56 @@
+package no.mnemonic.act.platform.service.validators;
+
+/**
+ * The DomainValidator verifies that a value is a domain name, e.g. 'www.example.org'. A domain consists of labels
+ * separated by dots, every label has a length between 1 and 63 characters and may contain ASCII letters, digits,
+ * hyphens and underscores, but must not start or end with a hyphen. The whole domain is at most 253 characters long
+ * (an optional trailing dot is ignored) and the top-level label must not be numeric. Internationalized domain names
+ * must be given in their ASCII-compatible encoding ('xn--').
+ * <p>
+ * Values are validated by scanning them once without using a regular expression.
+ */
+class DomainValidator implements Validator {
+
+  private static final int MAXIMUM_DOMAIN_LENGTH = 253;
+  private static final int MAXIMUM_LABEL_LENGTH = 63;
+
+  @Override
+  public boolean validate(String value) {
+    return value != null && isDomain(value, 0, value.length());
+  }
+
+  /**
+   * Verifies that the characters between start (inclusive) and end (exclusive) form a domain name.
+   */
+  static boolean isDomain(String value, int start, int end) {
+    // Ignore trailing dot denoting the root domain.
+    if (end > start && value.charAt(end - 1) == '.') end--;
+    if (end - start < 1 || end - start > MAXIMUM_DOMAIN_LENGTH) return false;
+
+    int labelStart = start;
+    boolean numericLabel = true;
+    for (int i = start; i <= end; i++) {
+      if (i == end || value.charAt(i) == '.') {
+        int length = i - labelStart;
+        if (length < 1 || length > MAXIMUM_LABEL_LENGTH) return false;
+        if (value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') return false;
+        // Only the top-level label must not be numeric, e.g. '1.2.3.4' is not a domain.
+        if (i == end) return !numericLabel;
+        labelStart = i + 1;
+        numericLabel = true;
+        continue;
+      }
+
+      char c = value.charAt(i);
+      if (!isLabelCharacter(c)) return false;
+      numericLabel &= c >= '0' && c <= '9';
+    }
+
+    return false;
+  }
+
+  private static boolean isLabelCharacter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+  }
+
+}
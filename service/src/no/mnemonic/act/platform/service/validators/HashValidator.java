@@ -0,0 +1,58 @@
+package no.mnemonic.act.platform.service.validators;
+
+import no.mnemonic.commons.utilities.StringUtils;
+
+import java.util.BitSet;
+
+/**
+ * The HashValidator verifies that a value is a hexadecimal hash digest (case-insensitive). The parameter specifies
+ * a comma-separated list of accepted algorithms (md5, sha1, sha256, sha512), e.g. 'md5,sha256'. If no parameter is
+ * given digests of all supported algorithms are accepted.
+ * <p>
+ * Values are validated by scanning them once without using a regular expression.
+ */
+class HashValidator implements Validator {
+
+  private enum Algorithm {
+    md5(32), sha1(40), sha256(64), sha512(128);
+
+    private final int length;
+
+    Algorithm(int length) {
+      this.length = length;
+    }
+  }
+
+  // Accepted lengths of hexadecimal digests, indexed by length.
+  private final BitSet acceptedLengths = new BitSet();
+
+  HashValidator(String parameter) throws ValidatorConfigurationException {
+    if (StringUtils.isBlank(parameter)) {
+      for (Algorithm algorithm : Algorithm.values()) {
+        acceptedLengths.set(algorithm.length);
+      }
+      return;
+    }
+
+    for (String name : parameter.split(",")) {
+      try {
+        acceptedLengths.set(Algorithm.valueOf(name.trim().toLowerCase()).length);
+      } catch (IllegalArgumentException e) {
+        throw new ValidatorConfigurationException(String.format("HashValidator with algorithm %s could not be created.", name.trim()));
+      }
+    }
+  }
+
+  @Override
+  public boolean validate(String value) {
+    if (value == null || !acceptedLengths.get(value.length())) return false;
+
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) return false;
+    }
+
+    return true;
+  }
+
+}
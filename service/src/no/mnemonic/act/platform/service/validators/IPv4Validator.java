@@ -0,0 +1,45 @@
+package no.mnemonic.act.platform.service.validators;
+
+/**
+ * The IPv4Validator verifies that a value is an IPv4 address in dotted-decimal notation, e.g. '192.168.0.1'.
+ * Octets with leading zeros are rejected because they are ambiguous (octal vs. decimal).
+ * <p>
+ * Values are validated by scanning them once without using a regular expression.
+ */
+class IPv4Validator implements Validator {
+
+  @Override
+  public boolean validate(String value) {
+    return value != null && isIPv4(value, 0, value.length());
+  }
+
+  /**
+   * Verifies that the characters between start (inclusive) and end (exclusive) form an IPv4 address.
+   */
+  static boolean isIPv4(String value, int start, int end) {
+    int octets = 0;
+    int i = start;
+    while (true) {
+      int octetStart = i;
+      int octet = 0;
+      while (i < end && isDigit(value.charAt(i))) {
+        if (i - octetStart == 3) return false;
+        octet = octet * 10 + (value.charAt(i) - '0');
+        i++;
+      }
+
+      int length = i - octetStart;
+      if (length == 0 || octet > 255 || (length > 1 && value.charAt(octetStart) == '0')) return false;
+      octets++;
+
+      if (i == end) return octets == 4;
+      if (octets == 4 || value.charAt(i) != '.') return false;
+      i++;
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+}
@@ -0,0 +1,76 @@
+package no.mnemonic.act.platform.service.validators;
+
+/**
+ * The IPv6Validator verifies that a value is an IPv6 address in one of its textual representations (RFC 4291),
+ * i.e. eight groups of up to four hexadecimal digits, where consecutive groups of zeros can be compressed once
+ * using '::' and the last two groups can be given as an embedded IPv4 address, e.g. '2001:db8::1' or
+ * '::ffff:192.168.0.1'. Zone identifiers and prefix lengths are not accepted.
+ * <p>
+ * Values are validated by scanning them once without using a regular expression.
+ */
+class IPv6Validator implements Validator {
+
+  private static final int GROUPS = 8;
+  private static final int MAXIMUM_GROUP_LENGTH = 4;
+
+  @Override
+  public boolean validate(String value) {
+    return value != null && isIPv6(value, 0, value.length());
+  }
+
+  /**
+   * Verifies that the characters between start (inclusive) and end (exclusive) form an IPv6 address.
+   */
+  static boolean isIPv6(String value, int start, int end) {
+    if (end - start < 2) return false;
+
+    int groups = 0;
+    boolean compressed = false;
+    int i = start;
+
+    if (value.charAt(i) == ':') {
+      // A leading colon is only allowed as part of '::'.
+      if (value.charAt(i + 1) != ':') return false;
+      compressed = true;
+      i += 2;
+      if (i == end) return true;
+    }
+
+    while (true) {
+      int groupStart = i;
+      while (i < end && isHexDigit(value.charAt(i))) {
+        if (i - groupStart == MAXIMUM_GROUP_LENGTH) return false;
+        i++;
+      }
+
+      if (i < end && value.charAt(i) == '.') {
+        // An embedded IPv4 address replaces the last two groups.
+        if (!IPv4Validator.isIPv4(value, groupStart, end)) return false;
+        groups += 2;
+        break;
+      }
+
+      if (i == groupStart) return false;
+      groups++;
+      if (i == end) break;
+
+      if (value.charAt(i) != ':') return false;
+      i++;
+      if (i == end) return false;
+      if (value.charAt(i) == ':') {
+        // Only one '::' is allowed per address.
+        if (compressed) return false;
+        compressed = true;
+        i++;
+        if (i == end) break;
+      }
+    }
+
+    return compressed ? groups < GROUPS : groups == GROUPS;
+  }
+
+  private static boolean isHexDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+}
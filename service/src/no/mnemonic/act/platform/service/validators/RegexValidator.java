@@ -1,12 +1,27 @@
 package no.mnemonic.act.platform.service.validators;
 
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+
 import java.util.regex.Pattern;
 
 /**
  * The RegexValidator verifies that a value matches a specific regular expression.
+ * <p>
+ * The regular expression is compiled once when the validator is created. Because {@link Pattern} is a backtracking
+ * engine, a badly written expression (e.g. '(a+)+b') can take exponential time on certain values. In order to protect
+ * the service against such values, matching is aborted and the value is rejected when the engine inspects the
+ * characters of a value more often than a fixed budget proportional to the value's length allows. Likewise, the value
+ * is rejected if matching exhausts the stack.
  */
 class RegexValidator implements Validator {
 
+  private static final Logger LOGGER = Logging.getLogger(RegexValidator.class);
+
+  // Linear-time expressions inspect every character only a few times, thus, the budget is generous.
+  static final long MINIMUM_CHARACTER_ACCESSES = 10_000;
+  static final long CHARACTER_ACCESSES_PER_CHARACTER = 1_000;
+
   private final Pattern regex;
 
   RegexValidator(String parameter) throws ValidatorConfigurationException {
@@ -19,7 +34,62 @@ class RegexValidator implements Validator {
 
   @Override
   public boolean validate(String value) {
-    return value != null && regex.matcher(value).matches();
+    if (value == null) return false;
+
+    try {
+      return regex.matcher(new BoundedCharSequence(value)).matches();
+    } catch (BudgetExceededException ignored) {
+      LOGGER.warning("Aborted matching value against pattern %s because of excessive backtracking.", regex.pattern());
+      return false;
+    } catch (StackOverflowError ignored) {
+      // Matcher recurses for every repetition of a group, thus, long values can exhaust the stack.
+      LOGGER.warning("Aborted matching value against pattern %s because of excessive recursion.", regex.pattern());
+      return false;
+    }
+  }
+
+  /**
+   * CharSequence which counts how often its characters are accessed and throws a {@link BudgetExceededException}
+   * once the budget is used up. {@link java.util.regex.Matcher} reads the input exclusively via charAt().
+   */
+  private static class BoundedCharSequence implements CharSequence {
+    private final String value;
+    private long remainingAccesses;
+
+    private BoundedCharSequence(String value) {
+      this.value = value;
+      this.remainingAccesses = MINIMUM_CHARACTER_ACCESSES + CHARACTER_ACCESSES_PER_CHARACTER * value.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (--remainingAccesses < 0) throw BudgetExceededException.INSTANCE;
+      return value.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return value.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return value.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
+
+  private static class BudgetExceededException extends RuntimeException {
+    // Thrown for control flow only, thus, reuse one instance without stack trace.
+    private static final BudgetExceededException INSTANCE = new BudgetExceededException();
+
+    private BudgetExceededException() {
+      super(null, null, false, false);
+    }
   }
 
 }
@@ -0,0 +1,109 @@
+package no.mnemonic.act.platform.service.validators;
+
+import no.mnemonic.commons.utilities.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The UrlValidator verifies that a value is an absolute, hierarchical URL of the form
+ * 'scheme://[userinfo@]host[:port][/path][?query][#fragment]', where host is either a domain (see
+ * {@link DomainValidator}), an IPv4 address or an IPv6 address enclosed in brackets. Whitespace and control
+ * characters are not allowed anywhere in the URL. The parameter specifies a comma-separated list of accepted schemes
+ * (case-insensitive), e.g. 'http,https'. If no parameter is given all schemes are accepted.
+ * <p>
+ * Values are validated by scanning them once without using a regular expression.
+ */
+class UrlValidator implements Validator {
+
+  private static final int MAXIMUM_PORT = 65535;
+
+  private final Set<String> acceptedSchemes = new HashSet<>();
+
+  UrlValidator(String parameter) throws ValidatorConfigurationException {
+    if (StringUtils.isBlank(parameter)) return;
+
+    for (String scheme : parameter.split(",")) {
+      String trimmed = scheme.trim();
+      if (!isScheme(trimmed, 0, trimmed.length())) {
+        throw new ValidatorConfigurationException(String.format("UrlValidator with scheme %s could not be created.", trimmed));
+      }
+      acceptedSchemes.add(trimmed.toLowerCase());
+    }
+  }
+
+  @Override
+  public boolean validate(String value) {
+    if (value == null) return false;
+
+    int schemeEnd = value.indexOf("://");
+    if (!isScheme(value, 0, schemeEnd)) return false;
+    if (!acceptedSchemes.isEmpty() && !acceptedSchemes.contains(value.substring(0, schemeEnd).toLowerCase())) return false;
+
+    // The authority ends at the beginning of the path, query or fragment.
+    int authorityStart = schemeEnd + 3;
+    int authorityEnd = value.length();
+    for (int i = authorityStart; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c <= ' ' || c == 0x7f) return false;
+      if (authorityEnd == value.length() && (c == '/' || c == '?' || c == '#')) authorityEnd = i;
+    }
+
+    return isAuthority(value, authorityStart, authorityEnd);
+  }
+
+  private static boolean isScheme(String value, int start, int end) {
+    if (end <= start || !isLetter(value.charAt(start))) return false;
+
+    for (int i = start + 1; i < end; i++) {
+      char c = value.charAt(i);
+      if (!isLetter(c) && !isDigit(c) && c != '+' && c != '-' && c != '.') return false;
+    }
+
+    return true;
+  }
+
+  private static boolean isAuthority(String value, int start, int end) {
+    // Skip optional user information.
+    int hostStart = value.lastIndexOf('@', end - 1) + 1;
+    if (hostStart < start) hostStart = start;
+    if (hostStart == end) return false;
+
+    if (value.charAt(hostStart) == '[') {
+      int hostEnd = value.indexOf(']', hostStart);
+      if (hostEnd < 0 || hostEnd >= end || !IPv6Validator.isIPv6(value, hostStart + 1, hostEnd)) return false;
+      return hostEnd + 1 == end || (value.charAt(hostEnd + 1) == ':' && isPort(value, hostEnd + 2, end));
+    }
+
+    int hostEnd = value.lastIndexOf(':', end - 1);
+    if (hostEnd < hostStart) {
+      hostEnd = end;
+    } else if (!isPort(value, hostEnd + 1, end)) {
+      return false;
+    }
+
+    return IPv4Validator.isIPv4(value, hostStart, hostEnd) || DomainValidator.isDomain(value, hostStart, hostEnd);
+  }
+
+  private static boolean isPort(String value, int start, int end) {
+    if (end <= start || end - start > 5) return false;
+
+    int port = 0;
+    for (int i = start; i < end; i++) {
+      char c = value.charAt(i);
+      if (!isDigit(c)) return false;
+      port = port * 10 + (c - '0');
+    }
+
+    return port <= MAXIMUM_PORT;
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+}
@@ -0,0 +1,80 @@
+package no.mnemonic.act.platform.service.aspects;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import no.mnemonic.act.platform.api.service.v1.RequestHeader;
+import no.mnemonic.act.platform.service.Service;
+import no.mnemonic.act.platform.service.TestSecurityContext;
+import no.mnemonic.act.platform.service.contexts.SecurityContext;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.services.common.auth.model.Credentials;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ServiceMetricsAspectTest {
+
+  private TestService service;
+  private ServiceMetricsAspect aspect;
+
+  @Before
+  public void setUp() {
+    Injector injector = Guice.createInjector(new ServiceMetricsAspect());
+    service = injector.getInstance(TestService.class);
+    aspect = injector.getInstance(ServiceMetricsAspect.class);
+  }
+
+  @Test
+  public void testGetMetricsWithoutInvocations() throws MetricException {
+    assertTrue(aspect.getMetrics().getSubMetrics().isEmpty());
+  }
+
+  @Test
+  public void testInvocationsAreMeasuredPerServiceMethod() throws MetricException {
+    service.method(RequestHeader.builder().build());
+    service.method(RequestHeader.builder().build());
+    service.otherMethod(RequestHeader.builder().build());
+
+    Metrics metrics = aspect.getMetrics();
+    assertEquals(2, metrics.getSubMetrics().size());
+    assertEquals(2L, metrics.getSubMetrics("method").getData("count"));
+    assertEquals(0L, metrics.getSubMetrics("method").getData("errorCount"));
+    assertEquals(1L, metrics.getSubMetrics("otherMethod").getData("count"));
+  }
+
+  @Test
+  public void testFailedInvocationsAreCounted() throws MetricException {
+    assertThrows(IllegalStateException.class, () -> service.failingMethod(RequestHeader.builder().build()));
+
+    Metrics metrics = aspect.getMetrics().getSubMetrics("failingMethod");
+    assertEquals(1L, metrics.getData("count"));
+    assertEquals(1L, metrics.getData("errorCount"));
+  }
+
+  @Test
+  public void testNonServiceMethodsAreNotMeasured() throws MetricException {
+    service.createSecurityContext(null);
+    assertTrue(aspect.getMetrics().getSubMetrics().isEmpty());
+  }
+
+  static class TestService implements Service {
+    @Override
+    public SecurityContext createSecurityContext(Credentials credentials) {
+      return new TestSecurityContext();
+    }
+
+    String method(RequestHeader rh) {
+      return "Called!";
+    }
+
+    String otherMethod(RequestHeader rh) {
+      return "Called!";
+    }
+
+    String failingMethod(RequestHeader rh) {
+      throw new IllegalStateException();
+    }
+  }
+}
@@ -19,8 +19,7 @@ import java.util.UUID;
 
 import static no.mnemonic.act.platform.service.ti.TiFunctionConstants.viewThreatIntelFact;
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 @SuppressWarnings("unchecked")
@@ -171,4 +170,84 @@ public class SecurityContextTest {
     context.getAvailableOrganizationID();
   }
 
+  @Test
+  public void testCheckPermissionMemoizesDecision() throws Exception {
+    when(accessController.hasPermission(credentials, viewThreatIntelFact)).thenReturn(false);
+    assertThrows(AccessDeniedException.class, () -> context.checkPermission(viewThreatIntelFact));
+    assertThrows(AccessDeniedException.class, () -> context.checkPermission(viewThreatIntelFact));
+    verify(accessController, times(1)).hasPermission(credentials, viewThreatIntelFact);
+    assertEquals(2, context.getStatistics().getPermissionChecks());
+    assertEquals(1, context.getStatistics().getHasPermissionCalls());
+  }
+
+  @Test
+  public void testCheckPermissionMemoizesDecisionPerOrganization() throws Exception {
+    UUID organizationID1 = UUID.randomUUID();
+    UUID organizationID2 = UUID.randomUUID();
+    when(identityResolver.resolveOrganizationIdentity(organizationID1)).thenReturn(organization);
+    when(accessController.hasPermission(credentials, viewThreatIntelFact, organization)).thenReturn(true);
+
+    context.checkPermission(viewThreatIntelFact, organizationID1);
+    context.checkPermission(viewThreatIntelFact, organizationID1);
+    assertThrows(AccessDeniedException.class, () -> context.checkPermission(viewThreatIntelFact, organizationID2));
+
+    verify(accessController, times(1)).hasPermission(credentials, viewThreatIntelFact, organization);
+    assertEquals(3, context.getStatistics().getPermissionChecks());
+    assertEquals(2, context.getStatistics().getHasPermissionCalls());
+  }
+
+  @Test
+  public void testCheckPermissionDoesNotMemoizeAuthenticationFailure() throws Exception {
+    when(accessController.hasPermission(credentials, viewThreatIntelFact))
+            .thenThrow(InvalidCredentialsException.class)
+            .thenReturn(true);
+    assertThrows(AuthenticationFailedException.class, () -> context.checkPermission(viewThreatIntelFact));
+    context.checkPermission(viewThreatIntelFact);
+    verify(accessController, times(2)).hasPermission(credentials, viewThreatIntelFact);
+  }
+
+  @Test
+  public void testGetCurrentUserIdMemoizesResult() throws Exception {
+    UUID currentUserID = UUID.randomUUID();
+    when(accessController.validate(credentials)).thenReturn(sessionDescriptor);
+    when(identityResolver.resolveSubjectUUID(sessionDescriptor)).thenReturn(currentUserID);
+
+    assertEquals(currentUserID, context.getCurrentUserID());
+    assertEquals(currentUserID, context.getCurrentUserID());
+    verify(accessController, times(1)).validate(credentials);
+    assertEquals(2, context.getStatistics().getCurrentUserLookups());
+    assertEquals(1, context.getStatistics().getValidateCalls());
+  }
+
+  @Test
+  public void testGetAvailableOrganizationIdMemoizesResult() throws Exception {
+    UUID organizationID = UUID.randomUUID();
+    when(accessController.getAvailableOrganizations(credentials)).thenReturn(SetUtils.set(organization));
+    when(identityResolver.resolveOrganizationUUID(organization)).thenReturn(organizationID);
+
+    assertEquals(SetUtils.set(organizationID), context.getAvailableOrganizationID());
+    assertEquals(SetUtils.set(organizationID), context.getAvailableOrganizationID());
+    assertThrows(UnsupportedOperationException.class, () -> context.getAvailableOrganizationID().add(UUID.randomUUID()));
+    verify(accessController, times(1)).getAvailableOrganizations(credentials);
+    assertEquals(3, context.getStatistics().getAvailableOrganizationLookups());
+    assertEquals(1, context.getStatistics().getAvailableOrganizationsCalls());
+  }
+
+  @Test
+  public void testCloseDiscardsMemoizedResults() throws Exception {
+    when(accessController.validate(credentials)).thenReturn(sessionDescriptor);
+    when(identityResolver.resolveSubjectUUID(sessionDescriptor)).thenReturn(UUID.randomUUID());
+    when(accessController.hasPermission(credentials, viewThreatIntelFact)).thenReturn(true);
+
+    try (SecurityContext ctx = SecurityContext.set(context)) {
+      ctx.getCurrentUserID();
+      ctx.checkPermission(viewThreatIntelFact);
+    }
+
+    context.getCurrentUserID();
+    context.checkPermission(viewThreatIntelFact);
+    verify(accessController, times(2)).validate(credentials);
+    verify(accessController, times(2)).hasPermission(credentials, viewThreatIntelFact);
+  }
+
 }
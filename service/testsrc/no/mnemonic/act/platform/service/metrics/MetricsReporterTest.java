@@ -0,0 +1,109 @@
+package no.mnemonic.act.platform.service.metrics;
+
+import no.mnemonic.commons.metrics.MetricAspect;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.MetricsData;
+import no.mnemonic.commons.metrics.MetricsGroup;
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+import static org.junit.Assert.*;
+
+public class MetricsReporterTest {
+
+  private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+  private MetricsReporter reporter;
+
+  @After
+  public void tearDown() {
+    if (reporter != null) reporter.stopComponent();
+  }
+
+  @Test
+  public void testFlattenNestedMetrics() throws MetricException {
+    MetricsGroup metrics = new MetricsGroup()
+            .addSubMetrics("first", new MetricsGroup()
+                    .addSubMetrics("nested", new MetricsData().addData("count", 1L)))
+            .addSubMetrics("second", new MetricsData().addData("size", 2L));
+
+    SortedMap<String, Number> flattened = MetricsReporter.flatten(metrics);
+    assertEquals(MapUtils.map(T("first.nested.count", 1L), T("second.size", 2L)), flattened);
+  }
+
+  @Test
+  public void testRenderMetricsAsText() throws MetricException {
+    reporter = new MetricsReporter(createComponents(), 0);
+    assertEquals("a.sub.size 3\nb.count 2\n", reporter.render());
+  }
+
+  @Test
+  public void testRegisterAndUnregisterMBeans() throws Exception {
+    reporter = new MetricsReporter(createComponents(), 0);
+    reporter.startComponent();
+
+    ObjectName a = new ObjectName("no.mnemonic.act.platform:type=Metrics,name=a");
+    ObjectName b = new ObjectName("no.mnemonic.act.platform:type=Metrics,name=b");
+    assertTrue(mbeanServer.isRegistered(a));
+    assertTrue(mbeanServer.isRegistered(b));
+    assertEquals(3L, mbeanServer.getAttribute(a, "sub.size"));
+    assertEquals(2L, mbeanServer.getAttribute(b, "count"));
+    assertEquals(1, mbeanServer.getMBeanInfo(a).getAttributes().length);
+
+    reporter.stopComponent();
+    assertFalse(mbeanServer.isRegistered(a));
+    assertFalse(mbeanServer.isRegistered(b));
+  }
+
+  @Test
+  public void testServeMetricsOnLoopbackInterface() throws Exception {
+    int port = findFreePort();
+    reporter = new MetricsReporter(createComponents(), port);
+    reporter.startComponent();
+
+    HttpURLConnection connection = (HttpURLConnection) new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, "/metrics").openConnection();
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("a.sub.size 3\nb.count 2\n", read(connection.getInputStream()));
+  }
+
+  private Map<String, MetricAspect> createComponents() {
+    Map<String, MetricAspect> components = new LinkedHashMap<>();
+    components.put("a", () -> new MetricsGroup()
+            .addSubMetrics("sub", new MetricsData().addData("size", 3L)));
+    components.put("b", () -> new MetricsData().addData("count", 2L));
+    return components;
+  }
+
+  private static int findFreePort() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static String read(InputStream input) throws Exception {
+    try (InputStream in = input) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        output.write(buffer, 0, read);
+      }
+      return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
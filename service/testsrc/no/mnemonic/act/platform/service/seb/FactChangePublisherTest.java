@@ -0,0 +1,228 @@
+package no.mnemonic.act.platform.service.seb;
+
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.seb.model.v1.FactSEB;
+import no.mnemonic.act.platform.service.ti.converters.seb.FactSebConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class FactChangePublisherTest {
+
+  @Mock
+  private FactSebConverter converter;
+
+  private final List<List<FactChangeSEB>> batches = Collections.synchronizedList(new ArrayList<>());
+  private final FactChangeSink sink = changes -> batches.add(new ArrayList<>(changes));
+
+  private FactChangePublisher publisher;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(converter.apply(any())).thenAnswer(i -> {
+      FactRecord fact = i.getArgument(0);
+      return FactSEB.builder().setId(fact.getId()).setLastSeenTimestamp(fact.getLastSeenTimestamp()).build();
+    });
+  }
+
+  @After
+  public void cleanUp() {
+    if (publisher != null) publisher.stopComponent();
+  }
+
+  @Test
+  public void testDisabledDoesNothing() {
+    publisher = new FactChangePublisher(converter, () -> {
+      throw new AssertionError("Sink should not be created.");
+    }, false);
+    publisher.startComponent();
+    publisher.publish(FactChangeSEB.Type.Created, new FactRecord().setId(UUID.randomUUID()));
+    publisher.stopComponent();
+
+    verifyNoInteractions(converter);
+    assertEquals(0, publisher.getPublishedChanges());
+  }
+
+  @Test
+  public void testStartAndStopSink() {
+    FactChangeSink mockedSink = mock(FactChangeSink.class);
+    publisher = new FactChangePublisher(converter, () -> mockedSink, true);
+    publisher.startComponent();
+    verify(mockedSink).startComponent();
+    publisher.stopComponent();
+    verify(mockedSink).stopComponent();
+  }
+
+  @Test
+  public void testPublishIgnoresNull() {
+    publisher = new FactChangePublisher(converter, () -> sink, true);
+    publisher.startComponent();
+    publisher.publish(null, new FactRecord());
+    publisher.publish(FactChangeSEB.Type.Created, null);
+
+    verifyNoInteractions(converter);
+    assertEquals(0, publisher.getPublishedChanges());
+  }
+
+  @Test
+  public void testPublishBeforeStartDropsChange() {
+    publisher = new FactChangePublisher(converter, () -> sink, true);
+    publisher.publish(FactChangeSEB.Type.Created, new FactRecord().setId(UUID.randomUUID()));
+
+    assertEquals(0, publisher.getPublishedChanges());
+    assertEquals(1, publisher.getDroppedChanges());
+  }
+
+  @Test
+  public void testPublishConversionFailureDoesNotThrow() {
+    doThrow(IllegalStateException.class).when(converter).apply(any());
+    publisher = new FactChangePublisher(converter, () -> sink, true);
+    publisher.startComponent();
+    publisher.publish(FactChangeSEB.Type.Created, new FactRecord().setId(UUID.randomUUID()));
+    publisher.stopComponent();
+
+    assertEquals(0, publisher.getPublishedChanges());
+    assertTrue(batches.isEmpty());
+  }
+
+  @Test
+  public void testPublishAfterStopDropsChange() {
+    publisher = new FactChangePublisher(converter, () -> sink, true);
+    publisher.startComponent();
+    publisher.stopComponent();
+    publisher.publish(FactChangeSEB.Type.Created, new FactRecord().setId(UUID.randomUUID()));
+
+    assertEquals(0, publisher.getPublishedChanges());
+    assertEquals(1, publisher.getDroppedChanges());
+  }
+
+  @Test
+  public void testPublishWritesChangesOfOneFactInOrder() {
+    publisher = new FactChangePublisher(converter, () -> sink, true).setMaxBatchSize(10);
+    publisher.startComponent();
+
+    List<UUID> facts = IntStream.range(0, 20).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toList());
+    for (int change = 0; change < 10; change++) {
+      for (UUID id : facts) {
+        // Use lastSeenTimestamp to identify the changes of one Fact.
+        publisher.publish(FactChangeSEB.Type.Refreshed, new FactRecord().setId(id).setLastSeenTimestamp(change));
+      }
+    }
+    // Stopping the publisher writes out all queued changes.
+    publisher.stopComponent();
+
+    Map<UUID, List<Long>> written = batches.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.groupingBy(c -> c.getFact().getId(), Collectors.mapping(c -> c.getFact().getLastSeenTimestamp(), Collectors.toList())));
+    List<Long> expected = LongStream.range(0, 10).boxed().collect(Collectors.toList());
+    assertEquals(new HashSet<>(facts), written.keySet());
+    assertTrue(written.values().stream().allMatch(expected::equals));
+  }
+
+  @Test
+  public void testPublishWritesAllChanges() {
+    publisher = new FactChangePublisher(converter, () -> sink, true).setMaxBatchSize(10);
+    publisher.startComponent();
+
+    List<UUID> published = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      UUID id = UUID.randomUUID();
+      published.add(id);
+      publisher.publish(FactChangeSEB.Type.Created, new FactRecord().setId(id));
+    }
+    // Stopping the publisher writes out all queued changes.
+    publisher.stopComponent();
+
+    // Changes of different Facts can be written in any order.
+    List<FactChangeSEB> written = batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    assertEquals(new HashSet<>(published), written.stream().map(c -> c.getFact().getId()).collect(Collectors.toSet()));
+    assertEquals(100, written.size());
+    assertTrue(written.stream().allMatch(c -> c.getType() == FactChangeSEB.Type.Created && c.getTimestamp() > 0));
+    assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10));
+    assertEquals(100, publisher.getPublishedChanges());
+    assertEquals(100, publisher.getWrittenChanges());
+    assertEquals(batches.size(), publisher.getWrittenBatches());
+  }
+
+  @Test
+  public void testPublishBatchesQueuedChanges() throws Exception {
+    CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+    FactChangeSink blockingSink = changes -> {
+      if (batches.isEmpty()) {
+        firstBatchStarted.countDown();
+        await(releaseFirstBatch);
+      }
+      batches.add(new ArrayList<>(changes));
+    };
+    publisher = new FactChangePublisher(converter, () -> blockingSink, true);
+    publisher.startComponent();
+
+    publisher.publish(FactChangeSEB.Type.Created, new FactRecord().setId(UUID.randomUUID()));
+    assertTrue(firstBatchStarted.await(10, TimeUnit.SECONDS));
+    // While the first batch is written the following changes are queued up and written as one batch.
+    for (int i = 0; i < 50; i++) {
+      publisher.publish(FactChangeSEB.Type.Refreshed, new FactRecord().setId(UUID.randomUUID()));
+    }
+    // Wait until the lanes have queued up all changes.
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (publisher.getPublishedChanges() < 51 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    releaseFirstBatch.countDown();
+    publisher.stopComponent();
+
+    assertEquals(2, batches.size());
+    assertEquals(1, batches.get(0).size());
+    assertEquals(50, batches.get(1).size());
+  }
+
+  @Test
+  public void testPublishRetriesFailedBatch() {
+    AtomicInteger attempts = new AtomicInteger();
+    FactChangeSink failingSink = changes -> {
+      if (attempts.incrementAndGet() < 3) throw new IOException("test");
+      batches.add(new ArrayList<>(changes));
+    };
+    publisher = new FactChangePublisher(converter, () -> failingSink, true).setRetryInterval(1);
+    publisher.startComponent();
+
+    UUID id = UUID.randomUUID();
+    publisher.publish(FactChangeSEB.Type.Retracted, new FactRecord().setId(id));
+    publisher.stopComponent();
+
+    assertEquals(3, attempts.get());
+    assertEquals(1, batches.size());
+    assertEquals(id, batches.get(0).get(0).getFact().getId());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
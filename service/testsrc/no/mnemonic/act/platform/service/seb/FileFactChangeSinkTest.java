@@ -0,0 +1,203 @@
+package no.mnemonic.act.platform.service.seb;
+
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.seb.model.v1.FactSEB;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class FileFactChangeSinkTest {
+
+  private Path directory;
+  private FileFactChangeSink sink;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("fact-changes");
+    sink = new FileFactChangeSink(directory.toString());
+    sink.startComponent();
+  }
+
+  @After
+  public void cleanUp() throws Exception {
+    sink.stopComponent();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCreateWithoutDirectory() {
+    new FileFactChangeSink("");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadNotStarted() throws Exception {
+    new FileFactChangeSink(directory.toString()).read(0, 10);
+  }
+
+  @Test
+  public void testReadEmpty() throws Exception {
+    FactChangeBatch batch = sink.read(0, 10);
+    assertEquals(0, batch.getChanges().size());
+    assertEquals(0, batch.getNextOffset());
+    assertEquals(0, sink.getEndOffset());
+  }
+
+  @Test
+  public void testWriteAndReadPreservesOrder() throws Exception {
+    List<FactChangeSEB> changes = createChanges(5);
+    sink.write(changes);
+
+    FactChangeBatch batch = sink.read(0, 10);
+    assertEquals(ids(changes), ids(batch.getChanges()));
+    assertEquals(FactChangeSEB.Type.Created, batch.getChanges().get(0).getType());
+    assertEquals(sink.getEndOffset(), batch.getNextOffset());
+  }
+
+  @Test
+  public void testReadFromOffset() throws Exception {
+    List<FactChangeSEB> first = createChanges(3);
+    List<FactChangeSEB> second = createChanges(3);
+    sink.write(first);
+    long offset = sink.getEndOffset();
+    sink.write(second);
+
+    assertEquals(ids(second), ids(sink.read(offset, 10).getChanges()));
+  }
+
+  @Test
+  public void testReadResumesWithNextOffset() throws Exception {
+    List<FactChangeSEB> changes = createChanges(5);
+    sink.write(changes);
+
+    FactChangeBatch first = sink.read(0, 2);
+    FactChangeBatch second = sink.read(first.getNextOffset(), 2);
+    FactChangeBatch third = sink.read(second.getNextOffset(), 2);
+    FactChangeBatch fourth = sink.read(third.getNextOffset(), 2);
+
+    assertEquals(ids(changes.subList(0, 2)), ids(first.getChanges()));
+    assertEquals(ids(changes.subList(2, 4)), ids(second.getChanges()));
+    assertEquals(ids(changes.subList(4, 5)), ids(third.getChanges()));
+    assertEquals(0, fourth.getChanges().size());
+    assertEquals(sink.getEndOffset(), fourth.getNextOffset());
+  }
+
+  @Test
+  public void testReadLargeBatchSpanningMultipleBuffers() throws Exception {
+    List<FactChangeSEB> changes = createChanges(2000);
+    sink.write(changes);
+
+    assertEquals(ids(changes), ids(sink.read(0, changes.size()).getChanges()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadFromOffsetOutOfRange() throws Exception {
+    sink.write(createChanges(1));
+    sink.read(sink.getEndOffset() + 1, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadFromOffsetInsideChange() throws Exception {
+    sink.write(createChanges(1));
+    sink.read(1, 10);
+  }
+
+  @Test
+  public void testReadWhileWritingOnlyReturnsCompleteBatches() throws Exception {
+    List<List<FactChangeSEB>> written = IntStream.range(0, 50).mapToObj(i -> createChanges(20)).collect(Collectors.toList());
+    CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+      for (List<FactChangeSEB> changes : written) {
+        try {
+          sink.write(changes);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }
+    });
+
+    List<FactChangeSEB> read = new ArrayList<>();
+    long offset = 0;
+    while (!writer.isDone() || offset < sink.getEndOffset()) {
+      FactChangeBatch batch = sink.read(offset, 7);
+      read.addAll(batch.getChanges());
+      offset = batch.getNextOffset();
+    }
+    writer.join();
+
+    assertEquals(ids(written.stream().flatMap(List::stream).collect(Collectors.toList())), ids(read));
+  }
+
+  @Test
+  public void testRestartContinuesAtEnd() throws Exception {
+    List<FactChangeSEB> first = createChanges(2);
+    sink.write(first);
+    long offset = sink.getEndOffset();
+    sink.stopComponent();
+
+    sink = new FileFactChangeSink(directory.toString());
+    sink.startComponent();
+    assertEquals(offset, sink.getEndOffset());
+
+    List<FactChangeSEB> second = createChanges(2);
+    sink.write(second);
+
+    List<FactChangeSEB> all = new ArrayList<>(first);
+    all.addAll(second);
+    assertEquals(ids(all), ids(sink.read(0, 10).getChanges()));
+  }
+
+  @Test
+  public void testRestartTruncatesIncompleteChange() throws Exception {
+    List<FactChangeSEB> changes = createChanges(2);
+    sink.write(changes);
+    long offset = sink.getEndOffset();
+    sink.stopComponent();
+
+    // Simulate a crash while writing a change.
+    Files.write(directory.resolve(FileFactChangeSink.FILE_NAME), "{\"type\":\"Crea".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    sink = new FileFactChangeSink(directory.toString());
+    sink.startComponent();
+    assertEquals(offset, sink.getEndOffset());
+    assertEquals(ids(changes), ids(sink.read(0, 10).getChanges()));
+  }
+
+  private List<FactChangeSEB> createChanges(int count) {
+    return IntStream.range(0, count)
+            .mapToObj(i -> FactChangeSEB.builder()
+                    .setType(FactChangeSEB.Type.Created)
+                    .setTimestamp(123456789)
+                    .setFact(FactSEB.builder()
+                            .setId(UUID.randomUUID())
+                            .setValue("value with\nnewline " + i)
+                            .build())
+                    .build())
+            .collect(Collectors.toList());
+  }
+
+  private List<UUID> ids(List<FactChangeSEB> changes) {
+    return changes.stream()
+            .map(change -> change.getFact().getId())
+            .collect(Collectors.toList());
+  }
+}
@@ -200,6 +200,16 @@ public class ThreatIntelligenceServiceImplTest {
     verify(delegate).handle(request);
   }
 
+  @Test
+  public void testImportFactsCallsDelegate() throws Exception {
+    FactImportDelegate delegate = mock(FactImportDelegate.class);
+    when(delegateProvider.get(FactImportDelegate.class)).thenReturn(delegate);
+
+    ImportFactsRequest request = new ImportFactsRequest();
+    service.importFacts(RequestHeader.builder().build(), request);
+    verify(delegate).handle(request);
+  }
+
   @Test
   public void testSearchMetaFactsCallsDelegate() throws Exception {
     FactSearchMetaDelegate delegate = mock(FactSearchMetaDelegate.class);
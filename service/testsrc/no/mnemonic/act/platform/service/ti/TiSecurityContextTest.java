@@ -310,16 +310,20 @@ public class TiSecurityContextTest {
 
   @Test
   public void testCheckReadPermissionForObjectRecordWithAccessToSecondFact() throws Exception {
-    FactRecord fact = new FactRecord().setAccessMode(FactRecord.AccessMode.Public);
+    FactRecord fact1 = new FactRecord().setAccessMode(FactRecord.AccessMode.Public);
+    FactRecord fact2 = new FactRecord().setAccessMode(FactRecord.AccessMode.RoleBased).setOrganizationID(UUID.randomUUID());
+    FactRecord fact3 = new FactRecord().setAccessMode(FactRecord.AccessMode.Public);
 
     mockCurrentUser();
     mockAvailableOrganization();
     when(objectFactDao.searchFacts(notNull()))
-            .thenReturn(ResultContainer.<FactRecord>builder().setValues(ListUtils.list(fact, fact, fact).iterator()).build());
-    when(accessController.hasPermission(credentials, viewThreatIntelFact)).thenReturn(false, true, false);
+            .thenReturn(ResultContainer.<FactRecord>builder().setValues(ListUtils.list(fact1, fact2, fact3).iterator()).build());
+    when(accessController.hasPermission(credentials, viewThreatIntelFact)).thenReturn(false);
+    when(accessController.hasPermission(credentials, viewThreatIntelFact, organization)).thenReturn(true);
 
     context.checkReadPermission(new ObjectRecord().setId(UUID.randomUUID()));
-    verify(accessController, times(2)).hasPermission(credentials, viewThreatIntelFact);
+    verify(accessController).hasPermission(credentials, viewThreatIntelFact);
+    verify(accessController).hasPermission(credentials, viewThreatIntelFact, organization);
   }
 
   @Test
@@ -1,8 +1,10 @@
 package no.mnemonic.act.platform.service.ti.converters.request;
 
+import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
 import no.mnemonic.act.platform.api.request.v1.Dimension;
 import no.mnemonic.act.platform.api.request.v1.SearchFactRequest;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
 import no.mnemonic.act.platform.service.contexts.SecurityContext;
 import no.mnemonic.act.platform.service.ti.resolvers.request.SearchByNameRequestResolver;
 import no.mnemonic.commons.utilities.collections.SetUtils;
@@ -175,4 +177,24 @@ public class SearchFactRequestConverterTest {
     FactSearchCriteria criteria = converter.apply(new SearchFactRequest().setLimit(123));
     assertEquals(123, criteria.getLimit());
   }
+
+  @Test
+  public void testConvertRequestWithStartCursor() throws Exception {
+    FactSearchCriteria criteria = converter.apply(new SearchFactRequest().setCursor("*"));
+    assertTrue(criteria.getSearchAfter().isStart());
+  }
+
+  @Test
+  public void testConvertRequestWithCursor() throws Exception {
+    FactSearchCursor cursor = FactSearchCursor.of(123456789L, UUID.randomUUID());
+    FactSearchCriteria criteria = converter.apply(new SearchFactRequest().setCursor(cursor.encode()));
+    assertEquals(cursor.getTimestamp(), criteria.getSearchAfter().getTimestamp());
+    assertEquals(cursor.getFactID(), criteria.getSearchAfter().getFactID());
+  }
+
+  @Test
+  public void testConvertRequestWithInvalidCursor() {
+    InvalidArgumentException ex = assertThrows(InvalidArgumentException.class, () -> converter.apply(new SearchFactRequest().setCursor("invalid")));
+    assertEquals(SetUtils.set("invalid.search.cursor"), SetUtils.set(ex.getValidationErrors(), InvalidArgumentException.ValidationError::getMessageTemplate));
+  }
 }
@@ -11,17 +11,22 @@ import no.mnemonic.act.platform.service.ti.resolvers.response.FactTypeByIdRespon
 import no.mnemonic.act.platform.service.ti.resolvers.response.OrganizationByIdResponseResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.response.OriginByIdResponseResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.response.SubjectByIdResponseResolver;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.ArgumentMatchers.notNull;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 public class FactResponseConverterTest {
@@ -43,6 +48,7 @@ public class FactResponseConverterTest {
   @Mock
   private TiSecurityContext securityContext;
 
+  private Map<UUID, FactRecord> factSummaryCache;
   private FactResponseConverter converter;
 
   @Before
@@ -54,15 +60,17 @@ public class FactResponseConverterTest {
     when(organizationConverter.apply(notNull())).thenAnswer(i -> Organization.builder().setId(i.getArgument(0)).build());
     when(subjectConverter.apply(notNull())).thenAnswer(i -> Subject.builder().setId(i.getArgument(0)).build());
 
+    factSummaryCache = new HashMap<>();
     converter = new FactResponseConverter(
             factTypeConverter,
             originConverter,
-      objectResponseConverter,
+            objectResponseConverter,
             organizationConverter,
             subjectConverter,
             factRetractionHandler,
             objectFactDao,
-            securityContext
+            securityContext,
+            factSummaryCache
     );
   }
 
@@ -172,6 +180,121 @@ public class FactResponseConverterTest {
     verify(securityContext).hasReadPermission(inReferenceTo);
   }
 
+  @Test
+  public void testConvertFactWithInReferenceToFactUsesCache() {
+    FactRecord record = createRecord().setInReferenceToID(UUID.randomUUID());
+    FactRecord inReferenceTo = createRecord().setId(record.getInReferenceToID());
+    when(objectFactDao.getFact(record.getInReferenceToID())).thenReturn(inReferenceTo);
+    when(securityContext.hasReadPermission(inReferenceTo)).thenReturn(true);
+
+    converter.apply(record);
+    Fact model = converter.apply(record);
+
+    assertEquals(inReferenceTo.getId(), model.getInReferenceTo().getId());
+    assertEquals(inReferenceTo.getTypeID(), model.getInReferenceTo().getType().getId());
+    assertEquals(inReferenceTo.getValue(), model.getInReferenceTo().getValue());
+    assertSame(inReferenceTo, factSummaryCache.get(inReferenceTo.getId()));
+    verify(objectFactDao).getFact(record.getInReferenceToID());
+    verify(securityContext, times(2)).hasReadPermission(inReferenceTo);
+  }
+
+  @Test
+  public void testConvertPageEmpty() {
+    assertEquals(0, converter.convert(null).size());
+    assertEquals(0, converter.convert(ListUtils.list()).size());
+    verifyNoInteractions(objectFactDao);
+  }
+
+  @Test
+  public void testConvertPageKeepsOrder() {
+    List<FactRecord> page = ListUtils.list(createRecord(), createRecord(), createRecord());
+
+    List<Fact> models = converter.convert(page);
+
+    assertEquals(3, models.size());
+    for (int i = 0; i < page.size(); i++) {
+      assertModelCommon(page.get(i), models.get(i));
+    }
+    verifyNoInteractions(objectFactDao);
+  }
+
+  @Test
+  public void testConvertPageFetchesInReferenceToFactsOnce() {
+    FactRecord first = createRecord();
+    FactRecord second = createRecord();
+    List<FactRecord> page = ListUtils.list(
+            createRecord().setInReferenceToID(first.getId()),
+            createRecord().setInReferenceToID(second.getId()),
+            createRecord().setInReferenceToID(first.getId()),
+            createRecord()
+    );
+    when(objectFactDao.getFacts(notNull())).thenReturn(ListUtils.list(first, second));
+    when(securityContext.hasReadPermission(isA(FactRecord.class))).thenReturn(true);
+
+    List<Fact> models = converter.convert(page);
+
+    assertEquals(first.getId(), models.get(0).getInReferenceTo().getId());
+    assertEquals(second.getId(), models.get(1).getInReferenceTo().getId());
+    assertEquals(first.getId(), models.get(2).getInReferenceTo().getId());
+    assertNull(models.get(3).getInReferenceTo());
+    verify(objectFactDao).getFacts(ListUtils.list(first.getId(), second.getId()));
+    verify(objectFactDao, never()).getFact(any());
+  }
+
+  @Test
+  public void testConvertPageSkipsCachedInReferenceToFacts() {
+    FactRecord cached = createRecord();
+    FactRecord uncached = createRecord();
+    factSummaryCache.put(cached.getId(), cached);
+    when(objectFactDao.getFacts(notNull())).thenReturn(ListUtils.list(uncached));
+    when(securityContext.hasReadPermission(isA(FactRecord.class))).thenReturn(true);
+
+    converter.convert(ListUtils.list(createRecord().setInReferenceToID(cached.getId()), createRecord().setInReferenceToID(uncached.getId())));
+    converter.convert(ListUtils.list(createRecord().setInReferenceToID(cached.getId()), createRecord().setInReferenceToID(uncached.getId())));
+
+    // Only the first page needs to fetch the uncached Fact, the second page is served from the cache completely.
+    verify(objectFactDao).getFacts(ListUtils.list(uncached.getId()));
+    verifyNoMoreInteractions(objectFactDao);
+  }
+
+  @Test
+  public void testConvertPageDoesNotFetchMissingInReferenceToFactsIndividually() {
+    UUID missing = UUID.randomUUID();
+    List<FactRecord> page = ListUtils.list(createRecord().setInReferenceToID(missing), createRecord().setInReferenceToID(missing));
+
+    List<Fact> models = converter.convert(page);
+
+    assertNull(models.get(0).getInReferenceTo());
+    assertNull(models.get(1).getInReferenceTo());
+    verify(objectFactDao).getFacts(ListUtils.list(missing));
+    verifyNoMoreInteractions(objectFactDao);
+  }
+
+  @Test
+  public void testConvertPageNoAccessToInReferenceToFact() {
+    FactRecord inReferenceTo = createRecord();
+    when(objectFactDao.getFacts(notNull())).thenReturn(ListUtils.list(inReferenceTo));
+    when(securityContext.hasReadPermission(inReferenceTo)).thenReturn(false);
+
+    List<Fact> models = converter.convert(ListUtils.list(createRecord().setInReferenceToID(inReferenceTo.getId())));
+
+    assertNull(models.get(0).getInReferenceTo());
+    verify(securityContext).hasReadPermission(inReferenceTo);
+  }
+
+  @Test
+  public void testConvertPageResolvesReferencedInformationOncePerPage() {
+    FactRecord template = createRecord();
+    List<FactRecord> page = ListUtils.list(copyReferences(template), copyReferences(template), copyReferences(template));
+
+    converter.convert(page);
+
+    verify(factTypeConverter).apply(template.getTypeID());
+    verify(organizationConverter).apply(template.getOrganizationID());
+    verify(subjectConverter).apply(template.getAddedByID());
+    verify(originConverter).apply(template.getOriginID());
+  }
+
   @Test
   public void testConvertFactNotRetracted() {
     FactRecord record = createRecord();
@@ -209,6 +332,14 @@ public class FactResponseConverterTest {
             .setLastSeenTimestamp(987654321);
   }
 
+  private FactRecord copyReferences(FactRecord template) {
+    return createRecord()
+            .setTypeID(template.getTypeID())
+            .setOrganizationID(template.getOrganizationID())
+            .setAddedByID(template.getAddedByID())
+            .setOriginID(template.getOriginID());
+  }
+
   private void assertModelCommon(FactRecord record, Fact model) {
     assertEquals(record.getId(), model.getId());
     assertEquals(record.getTypeID(), model.getType().getId());
@@ -0,0 +1,148 @@
+package no.mnemonic.act.platform.service.ti.converters.seb;
+
+import no.mnemonic.act.platform.api.model.v1.*;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.seb.model.v1.AclEntrySEB;
+import no.mnemonic.act.platform.seb.model.v1.FactSEB;
+import no.mnemonic.act.platform.service.ti.resolvers.response.*;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class FactSebConverterTest {
+
+  @Mock
+  private FactTypeByIdResponseResolver factTypeConverter;
+  @Mock
+  private ObjectTypeByIdResponseResolver objectTypeConverter;
+  @Mock
+  private OrganizationByIdResponseResolver organizationConverter;
+  @Mock
+  private OriginByIdResponseResolver originConverter;
+  @Mock
+  private SubjectByIdResponseResolver subjectConverter;
+  @Mock
+  private ObjectFactDao objectFactDao;
+
+  private FactSebConverter converter;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+
+    when(factTypeConverter.apply(notNull())).thenAnswer(i -> FactType.builder().setId(i.getArgument(0)).setName("factType").build());
+    when(objectTypeConverter.apply(notNull())).thenAnswer(i -> ObjectType.builder().setId(i.getArgument(0)).setName("objectType").build());
+    when(organizationConverter.apply(notNull())).thenAnswer(i -> Organization.builder().setId(i.getArgument(0)).setName("organization").build());
+    when(originConverter.apply(notNull())).thenAnswer(i -> Origin.builder().setId(i.getArgument(0)).setName("origin").build());
+    when(subjectConverter.apply(notNull())).thenAnswer(i -> Subject.builder().setId(i.getArgument(0)).setName("subject").build());
+
+    converter = new FactSebConverter(factTypeConverter, objectTypeConverter, organizationConverter, originConverter,
+            subjectConverter, objectFactDao);
+  }
+
+  @Test
+  public void testConvertNull() {
+    assertNull(converter.apply(null));
+  }
+
+  @Test
+  public void testConvertEmpty() {
+    FactSEB model = converter.apply(new FactRecord());
+    assertNotNull(model);
+    assertNull(model.getType());
+    assertNull(model.getInReferenceTo());
+    assertNull(model.getSourceObject());
+    assertEquals(SetUtils.set(), model.getFlags());
+    assertEquals(SetUtils.set(), model.getAcl());
+  }
+
+  @Test
+  public void testConvertFull() {
+    FactRecord record = createRecord();
+    FactSEB model = converter.apply(record);
+
+    assertEquals(record.getId(), model.getId());
+    assertEquals(record.getTypeID(), model.getType().getId());
+    assertEquals("factType", model.getType().getName());
+    assertEquals(record.getValue(), model.getValue());
+    assertEquals(record.getOrganizationID(), model.getOrganization().getId());
+    assertEquals("organization", model.getOrganization().getName());
+    assertEquals(record.getOriginID(), model.getOrigin().getId());
+    assertEquals("origin", model.getOrigin().getName());
+    assertEquals(record.getAddedByID(), model.getAddedBy().getId());
+    assertEquals("subject", model.getAddedBy().getName());
+    assertEquals(FactSEB.AccessMode.Explicit, model.getAccessMode());
+    assertEquals(record.getTrust(), model.getTrust(), 0.0);
+    assertEquals(record.getConfidence(), model.getConfidence(), 0.0);
+    assertEquals(record.getTimestamp(), model.getTimestamp());
+    assertEquals(record.getLastSeenTimestamp(), model.getLastSeenTimestamp());
+    assertEquals(record.getSourceObject().getId(), model.getSourceObject().getId());
+    assertEquals(record.getSourceObject().getValue(), model.getSourceObject().getValue());
+    assertEquals("objectType", model.getSourceObject().getType().getName());
+    assertEquals(record.getDestinationObject().getId(), model.getDestinationObject().getId());
+    assertTrue(model.isBidirectionalBinding());
+    assertEquals(SetUtils.set(FactSEB.Flag.RetractedHint), model.getFlags());
+
+    assertEquals(1, model.getAcl().size());
+    AclEntrySEB entry = model.getAcl().iterator().next();
+    FactAclEntryRecord entryRecord = record.getAcl().get(0);
+    assertEquals(entryRecord.getId(), entry.getId());
+    assertEquals(entryRecord.getSubjectID(), entry.getSubject().getId());
+    assertEquals(entryRecord.getOriginID(), entry.getOrigin().getId());
+    assertEquals(entryRecord.getTimestamp(), entry.getTimestamp());
+  }
+
+  @Test
+  public void testConvertInReferenceTo() {
+    FactRecord inReferenceTo = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(UUID.randomUUID())
+            .setValue("referenced");
+    when(objectFactDao.getFact(inReferenceTo.getId())).thenReturn(inReferenceTo);
+
+    FactSEB model = converter.apply(new FactRecord().setInReferenceToID(inReferenceTo.getId()));
+    assertEquals(inReferenceTo.getId(), model.getInReferenceTo().getId());
+    assertEquals(inReferenceTo.getTypeID(), model.getInReferenceTo().getType().getId());
+    assertEquals("referenced", model.getInReferenceTo().getValue());
+  }
+
+  @Test
+  public void testConvertInReferenceToNotFound() {
+    assertNull(converter.apply(new FactRecord().setInReferenceToID(UUID.randomUUID())).getInReferenceTo());
+  }
+
+  private FactRecord createRecord() {
+    return new FactRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(UUID.randomUUID())
+            .setValue("value")
+            .setOrganizationID(UUID.randomUUID())
+            .setOriginID(UUID.randomUUID())
+            .setAddedByID(UUID.randomUUID())
+            .setAccessMode(FactRecord.AccessMode.Explicit)
+            .setTrust(0.1f)
+            .setConfidence(0.2f)
+            .setTimestamp(123456789)
+            .setLastSeenTimestamp(987654321)
+            .setSourceObject(new ObjectRecord().setId(UUID.randomUUID()).setTypeID(UUID.randomUUID()).setValue("source"))
+            .setDestinationObject(new ObjectRecord().setId(UUID.randomUUID()).setTypeID(UUID.randomUUID()).setValue("destination"))
+            .setBidirectionalBinding(true)
+            .addFlag(FactRecord.Flag.RetractedHint)
+            .addAclEntry(new FactAclEntryRecord()
+                    .setId(UUID.randomUUID())
+                    .setSubjectID(UUID.randomUUID())
+                    .setOriginID(UUID.randomUUID())
+                    .setTimestamp(123456789));
+  }
+}
@@ -6,6 +6,8 @@ import no.mnemonic.act.platform.api.request.v1.CreateFactCommentRequest;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactCommentRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.response.FactCommentResponseConverter;
@@ -31,13 +33,15 @@ public class FactCreateCommentDelegateTest {
   private FactCommentResponseConverter factCommentResponseConverter;
   @Mock
   private TiSecurityContext securityContext;
+  @Mock
+  private FactChangePublisher factChangePublisher;
 
   private FactCreateCommentDelegate delegate;
 
   @Before
   public void setup() {
     initMocks(this);
-    delegate = new FactCreateCommentDelegate(securityContext, objectFactDao, factRequestResolver, factCommentResponseConverter);
+    delegate = new FactCreateCommentDelegate(securityContext, objectFactDao, factRequestResolver, factCommentResponseConverter, factChangePublisher);
   }
 
   @Test(expected = AccessDeniedException.class)
@@ -79,6 +83,7 @@ public class FactCreateCommentDelegateTest {
 
     verify(objectFactDao).storeFactComment(same(fact), matchFactCommentRecord(request, currentUser));
     verify(factCommentResponseConverter).apply(matchFactCommentRecord(request, currentUser));
+    verify(factChangePublisher).publish(FactChangeSEB.Type.Commented, fact);
   }
 
   private CreateFactCommentRequest createFactCommentRequest() {
@@ -8,8 +8,11 @@ import no.mnemonic.act.platform.auth.SubjectResolver;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.converters.response.AclEntryResponseConverter;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactRequestResolver;
 import org.junit.Before;
@@ -37,6 +40,10 @@ public class FactGrantAccessDelegateTest {
   private AclEntryResponseConverter aclEntryResponseConverter;
   @Mock
   private TiSecurityContext securityContext;
+  @Mock
+  private FactRetractionIndex retractionIndex;
+  @Mock
+  private FactChangePublisher factChangePublisher;
 
   private final Subject subject = Subject.builder()
           .setId(UUID.randomUUID())
@@ -53,7 +60,9 @@ public class FactGrantAccessDelegateTest {
             objectFactDao,
             factRequestResolver,
             subjectResolver,
-            aclEntryResponseConverter
+            aclEntryResponseConverter,
+            retractionIndex,
+            factChangePublisher
     );
   }
 
@@ -104,7 +113,22 @@ public class FactGrantAccessDelegateTest {
     delegate.handle(request);
 
     verify(objectFactDao, never()).storeFactAclEntry(any(), any());
+    verifyNoInteractions(factChangePublisher);
     verify(aclEntryResponseConverter).apply(matchFactAclEntryRecord(existingEntry.getOriginID()));
+    verifyNoInteractions(retractionIndex);
+  }
+
+  @Test
+  public void testGrantFactAccessInvalidatesRetractionIndex() throws Exception {
+    GrantFactAccessRequest request = createGrantAccessRequest();
+    FactRecord retraction = createFactRecord(request).setInReferenceToID(UUID.randomUUID());
+    when(factRequestResolver.resolveFact(request.getFact())).thenReturn(retraction);
+    when(subjectResolver.resolveSubject(subject.getName())).thenReturn(subject);
+    when(objectFactDao.storeFactAclEntry(notNull(), notNull())).then(i -> i.getArgument(1));
+
+    delegate.handle(request);
+
+    verify(retractionIndex).invalidate(retraction.getInReferenceToID());
   }
 
   @Test
@@ -121,6 +145,7 @@ public class FactGrantAccessDelegateTest {
 
     verify(objectFactDao).storeFactAclEntry(same(fact), matchFactAclEntryRecord(currentUser));
     verify(subjectResolver).resolveSubject(subject.getId());
+    verify(factChangePublisher).publish(eq(FactChangeSEB.Type.AccessGranted), argThat(f -> f == fact && f.getAcl().size() == 1));
     verify(aclEntryResponseConverter).apply(matchFactAclEntryRecord(currentUser));
   }
 
@@ -0,0 +1,333 @@
+package no.mnemonic.act.platform.service.ti.delegates;
+
+import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
+import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
+import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.model.v1.FactImportResult;
+import no.mnemonic.act.platform.api.model.v1.Organization;
+import no.mnemonic.act.platform.api.request.v1.CreateFactRequest;
+import no.mnemonic.act.platform.api.request.v1.ImportFactsRequest;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactCommentRecord;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
+import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.handlers.FactCreateHandler;
+import no.mnemonic.act.platform.service.ti.resolvers.request.FactTypeRequestResolver;
+import no.mnemonic.act.platform.service.ti.resolvers.request.ObjectRequestResolver;
+import no.mnemonic.services.common.api.ResultSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class FactImportDelegateTest {
+
+  @Mock
+  private FactTypeRequestResolver factTypeRequestResolver;
+  @Mock
+  private ObjectRequestResolver objectRequestResolver;
+  @Mock
+  private FactCreateHandler factCreateHandler;
+  @Mock
+  private ObjectFactDao objectFactDao;
+  @Mock
+  private TiSecurityContext securityContext;
+
+  private FactImportDelegate delegate;
+
+  private final OriginEntity origin = new OriginEntity()
+          .setId(UUID.randomUUID())
+          .setName("origin")
+          .setTrust(0.1f);
+  private final Organization organization = Organization.builder()
+          .setId(UUID.randomUUID())
+          .setName("organization")
+          .build();
+  private final UUID ipObjectTypeID = UUID.randomUUID();
+  private final FactTypeEntity factType = new FactTypeEntity()
+          .setId(UUID.randomUUID())
+          .setName("seen")
+          .setDefaultConfidence(0.2f)
+          .setRelevantObjectBindings(set(new FactTypeEntity.FactObjectBindingDefinition().setSourceObjectTypeID(ipObjectTypeID)));
+
+  @Before
+  public void setup() throws Exception {
+    initMocks(this);
+    delegate = new FactImportDelegate(
+            securityContext,
+            factTypeRequestResolver,
+            objectRequestResolver,
+            factCreateHandler,
+            objectFactDao
+    );
+
+    when(securityContext.getCurrentUserID()).thenReturn(UUID.randomUUID());
+    when(factCreateHandler.resolveOrigin(origin.getName())).thenReturn(origin);
+    when(factCreateHandler.resolveOrganization(organization.getName(), origin)).thenReturn(organization);
+    when(factCreateHandler.resolveSubjects(any())).thenReturn(list());
+    when(factTypeRequestResolver.resolveFactType(factType.getName())).thenReturn(factType);
+    when(objectRequestResolver.resolveObject(any())).thenAnswer(i -> i.getArgument(0) == null ? null : new ObjectRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(ipObjectTypeID)
+            .setValue(i.getArgument(0)));
+    when(factCreateHandler.publishFact(any(), any())).thenAnswer(i -> Fact.builder()
+            .setId(i.<FactRecord>getArgument(0).getId())
+            .setValue(i.<FactRecord>getArgument(0).getValue())
+            .build());
+
+    // By default no Facts exist and all Facts are stored successfully.
+    when(objectFactDao.retrieveExistingFactsBatch(anyList())).thenAnswer(i -> i.<List<FactRecord>>getArgument(0)
+            .stream()
+            .map(fact -> list())
+            .collect(Collectors.toList()));
+    when(objectFactDao.storeFacts(anyList())).thenAnswer(i -> i.<List<FactRecord>>getArgument(0)
+            .stream()
+            .map(CompletableFuture::completedFuture)
+            .collect(Collectors.toList()));
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testImportFactsWithoutAddPermission() throws Exception {
+    doThrow(AccessDeniedException.class).when(securityContext).checkPermission(TiFunctionConstants.addThreatIntelFact);
+    delegate.handle(new ImportFactsRequest().addFact(createRequest("1.1.1.1")));
+  }
+
+  @Test
+  public void testImportFactsResolvesDependenciesOncePerRequest() throws Exception {
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2"))
+            .addFact(createRequest("3.3.3.3")));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertEquals(3, result.getCount());
+    assertEquals(list(0, 1, 2), list(values, FactImportResult::getIndex));
+    assertTrue(values.stream().allMatch(v -> v.getStatus() == FactImportResult.Status.Created));
+
+    verify(factCreateHandler).resolveOrigin(origin.getName());
+    verify(factCreateHandler).resolveOrganization(organization.getName(), origin);
+    verify(factTypeRequestResolver).resolveFactType(factType.getName());
+    verify(securityContext).checkPermission(TiFunctionConstants.addThreatIntelFact, organization.getId());
+    verify(objectRequestResolver, times(3)).resolveObject(any());
+  }
+
+  @Test
+  public void testImportFactsLooksUpAndStoresFactsInOneBatch() throws Exception {
+    delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2")));
+
+    verify(objectFactDao).retrieveExistingFactsBatch(argThat(facts -> facts.size() == 2));
+    verify(objectFactDao).storeFacts(argThat(facts -> facts.size() == 2));
+    verify(objectFactDao, never()).retrieveExistingFacts(any(FactRecord.class));
+    verify(objectFactDao, never()).storeFact(any());
+    verify(factCreateHandler, times(2)).publishFact(any(), eq(FactChangeSEB.Type.Created));
+  }
+
+  @Test
+  public void testImportFactsCreatesFactRecord() throws Exception {
+    CreateFactRequest request = createRequest("1.1.1.1").setConfidence(0.3f);
+    delegate.handle(new ImportFactsRequest().addFact(request));
+
+    verify(objectFactDao).storeFacts(argThat(facts -> {
+      FactRecord fact = facts.get(0);
+      assertNotNull(fact.getId());
+      assertEquals(factType.getId(), fact.getTypeID());
+      assertEquals(request.getValue(), fact.getValue());
+      assertEquals(organization.getId(), fact.getOrganizationID());
+      assertEquals(origin.getId(), fact.getOriginID());
+      assertEquals(origin.getTrust(), fact.getTrust(), 0.0);
+      assertEquals(request.getConfidence(), fact.getConfidence(), 0.0);
+      assertEquals(request.getSourceObject(), fact.getSourceObject().getValue());
+      assertEquals(set("comment"), set(fact.getComments(), FactCommentRecord::getComment));
+      return true;
+    }));
+  }
+
+  @Test
+  public void testImportFactsReportsInvalidFactPerRecord() throws Exception {
+    doThrow(new InvalidArgumentException().addValidationError("Fact did not pass validation against FactType.", "fact.not.valid", "value", "invalid"))
+            .when(factCreateHandler).assertValidFactValue(factType, "invalid");
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2").setValue("invalid")));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertEquals(FactImportResult.Status.Created, values.get(0).getStatus());
+    assertEquals(FactImportResult.Status.Failed, values.get(1).getStatus());
+    assertEquals(1, values.get(1).getIndex());
+    assertNull(values.get(1).getFact());
+    assertTrue(values.get(1).getError().contains("Fact did not pass validation against FactType."));
+    verify(objectFactDao).storeFacts(argThat(facts -> facts.size() == 1));
+  }
+
+  @Test
+  public void testImportFactsReportsInvalidBindingPerRecord() throws Exception {
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1").setBidirectionalBinding(true)));
+
+    FactImportResult value = list(result.iterator()).get(0);
+    assertEquals(FactImportResult.Status.Failed, value.getStatus());
+    assertTrue(value.getError().contains("Requested binding between Fact and Object(s) is not allowed"));
+  }
+
+  @Test
+  public void testImportFactsReportsAccessDeniedPerRecord() throws Exception {
+    doThrow(new AccessDeniedException("denied")).when(securityContext).checkPermission(TiFunctionConstants.addThreatIntelFact, organization.getId());
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2")));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertTrue(values.stream().allMatch(v -> v.getStatus() == FactImportResult.Status.Failed));
+    assertEquals("denied", values.get(0).getError());
+    verify(objectFactDao, never()).storeFacts(argThat(facts -> !facts.isEmpty()));
+  }
+
+  @Test
+  public void testImportFactsMergesSameFactsInsideRequest() throws Exception {
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1").setSourceObject("ip/1.1.1.1").setComment("first"))
+            .addFact(createRequest("1.1.1.1").setSourceObject("ip/1.1.1.1").setComment("second")));
+
+    // The same Object is resolved only once, thus, both Facts are logically the same.
+    verify(objectRequestResolver).resolveObject("ip/1.1.1.1");
+    verify(objectFactDao).storeFacts(argThat(facts -> {
+      assertEquals(1, facts.size());
+      assertEquals(set("first", "second"), set(facts.get(0).getComments(), FactCommentRecord::getComment));
+      return true;
+    }));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertEquals(list(0, 1), list(values, FactImportResult::getIndex));
+    assertTrue(values.stream().allMatch(v -> v.getStatus() == FactImportResult.Status.Created));
+    assertEquals(values.get(0).getFact().getId(), values.get(1).getFact().getId());
+  }
+
+  @Test
+  public void testImportFactsRefreshesExistingFact() throws Exception {
+    FactRecord existing = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setAccessMode(FactRecord.AccessMode.RoleBased);
+    when(objectFactDao.retrieveExistingFactsBatch(anyList())).thenReturn(list(list(existing), list()));
+    when(securityContext.hasReadPermission(existing)).thenReturn(true);
+    when(objectFactDao.refreshFact(existing)).thenReturn(existing);
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2")));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertEquals(FactImportResult.Status.Refreshed, values.get(0).getStatus());
+    assertEquals(existing.getId(), values.get(0).getFact().getId());
+    assertEquals(FactImportResult.Status.Created, values.get(1).getStatus());
+
+    verify(objectFactDao).refreshFact(argThat(fact -> fact == existing && set(fact.getComments(), FactCommentRecord::getComment).contains("comment")));
+    verify(factCreateHandler).publishFact(existing, FactChangeSEB.Type.Refreshed);
+    verify(objectFactDao).storeFacts(argThat(facts -> facts.size() == 1));
+  }
+
+  @Test
+  public void testImportFactsReportsFailedRefreshPerRecord() throws Exception {
+    FactRecord first = new FactRecord().setId(UUID.randomUUID());
+    FactRecord second = new FactRecord().setId(UUID.randomUUID());
+    when(objectFactDao.retrieveExistingFactsBatch(anyList())).thenReturn(list(list(first), list(second)));
+    when(securityContext.hasReadPermission(isA(FactRecord.class))).thenReturn(true);
+    when(objectFactDao.refreshFact(first)).thenThrow(new IllegalStateException("refresh"));
+    when(objectFactDao.refreshFact(second)).thenReturn(second);
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2")));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertEquals(FactImportResult.Status.Failed, values.get(0).getStatus());
+    assertEquals("Could not refresh Fact.", values.get(0).getError());
+    assertEquals(FactImportResult.Status.Refreshed, values.get(1).getStatus());
+    verify(factCreateHandler).publishFact(second, FactChangeSEB.Type.Refreshed);
+  }
+
+  @Test
+  public void testImportFactsCreatesFactIfExistingFactIsNotAccessible() throws Exception {
+    FactRecord existing = new FactRecord().setId(UUID.randomUUID());
+    when(objectFactDao.retrieveExistingFactsBatch(anyList())).thenReturn(Collections.singletonList(list(existing)));
+    when(securityContext.hasReadPermission(existing)).thenReturn(false);
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest().addFact(createRequest("1.1.1.1")));
+
+    assertEquals(FactImportResult.Status.Created, list(result.iterator()).get(0).getStatus());
+    verify(objectFactDao, never()).refreshFact(any());
+  }
+
+  @Test
+  public void testImportFactsReportsFailedStorePerRecord() throws Exception {
+    when(objectFactDao.storeFacts(anyList())).thenAnswer(i -> {
+      CompletableFuture<FactRecord> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new IllegalStateException("index"));
+      List<CompletionStage<FactRecord>> stages = list(failed, CompletableFuture.completedFuture(i.<List<FactRecord>>getArgument(0).get(1)));
+      return stages;
+    });
+    when(factCreateHandler.storeFact(any())).thenThrow(new IllegalStateException("retry"));
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest()
+            .addFact(createRequest("1.1.1.1"))
+            .addFact(createRequest("2.2.2.2")));
+
+    List<FactImportResult> values = list(result.iterator());
+    assertEquals(FactImportResult.Status.Failed, values.get(0).getStatus());
+    assertEquals(FactImportResult.Status.Created, values.get(1).getStatus());
+    verify(factCreateHandler).publishFact(any(), eq(FactChangeSEB.Type.Created));
+  }
+
+  @Test
+  public void testImportFactsRetriesFailedStoreWithSameRecord() throws Exception {
+    List<FactRecord> stored = new ArrayList<>();
+    when(objectFactDao.storeFacts(anyList())).thenAnswer(i -> {
+      stored.addAll(i.getArgument(0));
+      CompletableFuture<FactRecord> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new IllegalStateException("relations"));
+      List<CompletionStage<FactRecord>> stages = list(failed);
+      return stages;
+    });
+    when(factCreateHandler.storeFact(any())).thenAnswer(i -> i.getArgument(0));
+
+    ResultSet<FactImportResult> result = delegate.handle(new ImportFactsRequest().addFact(createRequest("1.1.1.1")));
+
+    assertEquals(FactImportResult.Status.Created, list(result.iterator()).get(0).getStatus());
+    // The retry must use the same record, otherwise a partially stored Fact would be stored a second time.
+    verify(factCreateHandler).storeFact(same(stored.get(0)));
+    verify(factCreateHandler).publishFact(same(stored.get(0)), eq(FactChangeSEB.Type.Created));
+  }
+
+  private CreateFactRequest createRequest(String ip) {
+    return new CreateFactRequest()
+            .setType(factType.getName())
+            .setValue("seen")
+            .setOrigin(origin.getName())
+            .setOrganization(organization.getName())
+            .setComment("comment")
+            .setSourceObject("ip/" + ip);
+  }
+}
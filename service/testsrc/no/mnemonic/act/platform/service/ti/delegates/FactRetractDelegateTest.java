@@ -12,10 +12,13 @@ import no.mnemonic.act.platform.dao.api.record.FactCommentRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
 import no.mnemonic.act.platform.service.contexts.TriggerContext;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
 import no.mnemonic.act.platform.service.ti.handlers.FactCreateHandler;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactRequestResolver;
@@ -50,6 +53,10 @@ public class FactRetractDelegateTest {
   private TiSecurityContext securityContext;
   @Mock
   private TriggerContext triggerContext;
+  @Mock
+  private FactRetractionIndex retractionIndex;
+  @Mock
+  private FactChangePublisher factChangePublisher;
 
   private final OriginEntity origin = new OriginEntity()
           .setId(UUID.randomUUID())
@@ -76,7 +83,9 @@ public class FactRetractDelegateTest {
             factTypeRequestResolver,
             factRequestResolver,
             factCreateHandler,
-            factResponseConverter
+            factResponseConverter,
+            retractionIndex,
+            factChangePublisher
     );
   }
 
@@ -105,6 +114,9 @@ public class FactRetractDelegateTest {
     verify(objectFactDao).storeFact(matchFactRecord(request));
     verify(objectFactDao).retractFact(argThat(e -> Objects.equals(e.getId(), request.getFact())));
     verify(factResponseConverter, times(2)).apply(matchFactRecord(request));
+    verify(retractionIndex).addRetraction(matchFactRecord(request));
+    verify(factChangePublisher).publish(eq(FactChangeSEB.Type.Created), matchFactRecord(request));
+    verify(factChangePublisher).publish(eq(FactChangeSEB.Type.Retracted), argThat(e -> Objects.equals(e.getId(), request.getFact())));
   }
 
   @Test
@@ -16,7 +16,9 @@ import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 import no.mnemonic.act.platform.dao.cassandra.OriginManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.OriginEntity;
+import no.mnemonic.act.platform.seb.model.v1.FactChangeSEB;
 import no.mnemonic.act.platform.service.contexts.TriggerContext;
+import no.mnemonic.act.platform.service.seb.FactChangePublisher;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
@@ -61,13 +63,15 @@ public class FactCreateHandlerTest {
   private TriggerContext triggerContext;
   @Mock
   private Credentials credentials;
+  @Mock
+  private FactChangePublisher factChangePublisher;
 
   private FactCreateHandler handler;
 
   @Before
   public void setUp() {
     initMocks(this);
-    handler = new FactCreateHandler(securityContext, subjectResolver, organizationResolver, originManager, validatorFactory, objectFactDao, factResponseConverter, triggerContext);
+    handler = new FactCreateHandler(securityContext, subjectResolver, organizationResolver, originManager, validatorFactory, objectFactDao, factResponseConverter, triggerContext, factChangePublisher);
   }
 
   @Test(expected = InvalidArgumentException.class)
@@ -352,6 +356,7 @@ public class FactCreateHandlerTest {
 
     verify(objectFactDao, never()).refreshFact(any());
     verify(factResponseConverter).apply(same(factToSave));
+    verify(factChangePublisher).publish(FactChangeSEB.Type.Created, factToSave);
   }
 
   @Test
@@ -386,6 +391,7 @@ public class FactCreateHandlerTest {
 
     verify(objectFactDao, never()).storeFact(any());
     verify(factResponseConverter).apply(same(existingFact));
+    verify(factChangePublisher).publish(FactChangeSEB.Type.Refreshed, existingFact);
   }
 
   @Test
@@ -408,6 +414,49 @@ public class FactCreateHandlerTest {
     }));
   }
 
+  @Test
+  public void testPublishFact() {
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setAccessMode(FactRecord.AccessMode.Public)
+            .setOrganizationID(UUID.randomUUID());
+    mockFactConverter();
+
+    Fact publishedFact = handler.publishFact(fact, FactChangeSEB.Type.Created);
+    assertEquals(fact.getId(), publishedFact.getId());
+
+    verify(factChangePublisher).publish(FactChangeSEB.Type.Created, fact);
+    verify(triggerContext).registerTriggerEvent(argThat(event ->
+            publishedFact == event.getContextParameters().get(TiServiceEvent.ContextParameter.AddedFact.name())));
+    verifyNoInteractions(objectFactDao);
+  }
+
+  @Test
+  public void testSaveNewFactRetriesWithSameRecord() {
+    FactRecord factToSave = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setAccessMode(FactRecord.AccessMode.RoleBased)
+            .setOrganizationID(UUID.randomUUID());
+    mockSaveFact();
+    when(objectFactDao.storeFact(any()))
+            .thenThrow(new IllegalStateException("relations"))
+            .thenAnswer(i -> i.getArgument(0));
+
+    handler.saveFact(factToSave, null, list());
+
+    verify(objectFactDao, times(2)).storeFact(same(factToSave));
+    verify(factChangePublisher).publish(FactChangeSEB.Type.Created, factToSave);
+  }
+
+  @Test
+  public void testStoreFactFailsAfterRetries() {
+    FactRecord factToSave = new FactRecord().setId(UUID.randomUUID());
+    when(objectFactDao.storeFact(any())).thenThrow(new IllegalStateException("relations"));
+
+    assertThrows(IllegalStateException.class, () -> handler.storeFact(factToSave));
+    verify(objectFactDao, times(3)).storeFact(same(factToSave));
+  }
+
   private void mockSaveFact() {
     // Mocking
     mockFactConverter();
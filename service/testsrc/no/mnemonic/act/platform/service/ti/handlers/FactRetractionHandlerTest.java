@@ -1,23 +1,33 @@
 package no.mnemonic.act.platform.service.ti.handlers;
 
-import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.cache.CacheInvalidationBus;
+import no.mnemonic.act.platform.dao.cache.LoopbackCacheInvalidationTransport;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
-import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
-import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
-import no.mnemonic.act.platform.dao.elastic.result.ScrollingSearchResult;
+import no.mnemonic.act.platform.dao.cassandra.entity.MetaFactBindingEntity;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.caches.FactRetractionIndex;
 import no.mnemonic.act.platform.service.ti.resolvers.request.FactTypeRequestResolver;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static no.mnemonic.commons.utilities.collections.ListUtils.list;
 import static no.mnemonic.commons.utilities.collections.SetUtils.set;
-import static org.junit.Assert.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -26,10 +36,15 @@ public class FactRetractionHandlerTest {
   @Mock
   private FactTypeRequestResolver factTypeRequestResolver;
   @Mock
-  private FactSearchManager factSearchManager;
+  private FactManager factManager;
+  @Mock
+  private ObjectFactDao objectFactDao;
   @Mock
   private TiSecurityContext securityContext;
 
+  private FactTypeEntity retractionFactType;
+  private LoopbackCacheInvalidationTransport transport;
+  private FactRetractionIndex retractionIndex;
   private FactRetractionHandler handler;
 
   @Before
@@ -37,11 +52,14 @@ public class FactRetractionHandlerTest {
     initMocks(this);
 
     // Common mocks used by most tests.
-    when(factTypeRequestResolver.resolveRetractionFactType()).thenReturn(new FactTypeEntity().setId(UUID.randomUUID()));
-    when(securityContext.getCurrentUserID()).thenReturn(UUID.randomUUID());
-    when(securityContext.getAvailableOrganizationID()).thenReturn(Collections.singleton(UUID.randomUUID()));
-
-    handler = new FactRetractionHandler(factTypeRequestResolver, factSearchManager, securityContext);
+    retractionFactType = new FactTypeEntity().setId(UUID.randomUUID());
+    when(factTypeRequestResolver.resolveRetractionFactType()).thenReturn(retractionFactType);
+    when(factManager.fetchMetaFactBindings(any())).thenReturn(list());
+    when(securityContext.hasReadPermission(any(FactRecord.class))).thenReturn(true);
+
+    transport = new LoopbackCacheInvalidationTransport();
+    retractionIndex = new FactRetractionIndex(new CacheInvalidationBus(transport));
+    handler = createHandler();
   }
 
   @Test
@@ -55,109 +73,237 @@ public class FactRetractionHandlerTest {
 
     assertFalse(handler.isRetracted(fact));
 
-    verifyNoMoreInteractions(factSearchManager);
+    verifyNoInteractions(factManager, objectFactDao);
   }
 
   @Test
-  public void testIsRetractedPopulatesSearchCriteria() {
-    FactRecord fact = new FactRecord().setId(UUID.randomUUID()).setFlags(set(FactRecord.Flag.RetractedHint));
+  public void testIsRetractedWithRetractedHintWithoutRetractions() {
+    FactRecord fact = createRetractedFact();
 
     assertFalse(handler.isRetracted(fact));
 
-    verify(factSearchManager).searchFacts(argThat(criteria -> {
-      assertEquals(set(fact.getId()), criteria.getInReferenceTo());
-      assertFalse(criteria.getFactTypeID().isEmpty());
-      assertFalse(criteria.getAvailableOrganizationID().isEmpty());
-      assertNotNull(criteria.getCurrentUserID());
-      return true;
-    }));
+    verify(factManager).fetchMetaFactBindings(fact.getId());
   }
 
   @Test
   public void testIsRetractedWithRetractedHintTrue() {
-    FactRecord fact = new FactRecord().setId(UUID.randomUUID()).setFlags(set(FactRecord.Flag.RetractedHint));
-    FactDocument retraction = new FactDocument().setId(UUID.randomUUID());
-    when(factSearchManager.searchFacts(inReferenceTo(fact.getId()))).thenReturn(createSearchResult(retraction));
+    FactRecord fact = createRetractedFact();
+    mockRetractions(fact, createRetraction(fact));
 
     assertTrue(handler.isRetracted(fact));
+  }
+
+  @Test
+  public void testIsRetractedIgnoresOtherMetaFacts() {
+    FactRecord fact = createRetractedFact();
+    FactRecord metaFact = new FactRecord().setId(UUID.randomUUID()).setTypeID(UUID.randomUUID());
+    mockRetractions(fact, metaFact);
+
+    assertFalse(handler.isRetracted(fact));
+  }
+
+  @Test
+  public void testIsRetractedWithoutAccessToRetraction() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction = createRetraction(fact);
+    mockRetractions(fact, retraction);
+    when(securityContext.hasReadPermission(retraction)).thenReturn(false);
 
-    verify(factSearchManager).searchFacts(inReferenceTo(fact.getId()));
-    verify(factSearchManager).searchFacts(inReferenceTo(retraction.getId()));
-    verifyNoMoreInteractions(factSearchManager);
+    assertFalse(handler.isRetracted(fact));
   }
 
   @Test
   public void testIsRetractedWithRetractedRetraction() {
-    FactRecord fact = new FactRecord().setId(UUID.randomUUID()).setFlags(set(FactRecord.Flag.RetractedHint));
-    FactDocument retraction1 = new FactDocument().setId(UUID.randomUUID());
-    FactDocument retraction2 = new FactDocument().setId(UUID.randomUUID());
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction1 = createRetraction(fact);
+    FactRecord retraction2 = createRetraction(retraction1);
 
     // fact ---> retraction1 ---> retraction2
     // retraction2 cancels out retraction1, thus, fact in not retracted.
-    when(factSearchManager.searchFacts(inReferenceTo(fact.getId()))).thenReturn(createSearchResult(retraction1));
-    when(factSearchManager.searchFacts(inReferenceTo(retraction1.getId()))).thenReturn(createSearchResult(retraction2));
+    mockRetractions(fact, retraction1);
+    mockRetractions(retraction1, retraction2);
 
     assertFalse(handler.isRetracted(fact));
   }
 
   @Test
   public void testIsRetractedWithRetractedRetractionTwoLevels() {
-    FactRecord fact = new FactRecord().setId(UUID.randomUUID()).setFlags(set(FactRecord.Flag.RetractedHint));
-    FactDocument retraction1 = new FactDocument().setId(UUID.randomUUID());
-    FactDocument retraction2 = new FactDocument().setId(UUID.randomUUID());
-    FactDocument retraction3 = new FactDocument().setId(UUID.randomUUID());
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction1 = createRetraction(fact);
+    FactRecord retraction2 = createRetraction(retraction1);
+    FactRecord retraction3 = createRetraction(retraction2);
 
     // fact ---> retraction1 ---> retraction2 ---> retraction3
     // retraction3 cancels out retraction2, thus, fact is retracted because retraction1 holds.
-    when(factSearchManager.searchFacts(inReferenceTo(fact.getId()))).thenReturn(createSearchResult(retraction1));
-    when(factSearchManager.searchFacts(inReferenceTo(retraction1.getId()))).thenReturn(createSearchResult(retraction2));
-    when(factSearchManager.searchFacts(inReferenceTo(retraction2.getId()))).thenReturn(createSearchResult(retraction3));
+    mockRetractions(fact, retraction1);
+    mockRetractions(retraction1, retraction2);
+    mockRetractions(retraction2, retraction3);
 
     assertTrue(handler.isRetracted(fact));
   }
 
   @Test
   public void testIsRetractedWithRetractedRetractionComplexTree() {
-    FactRecord fact = new FactRecord().setId(UUID.randomUUID()).setFlags(set(FactRecord.Flag.RetractedHint));
-    FactDocument retraction1 = new FactDocument().setId(UUID.randomUUID());
-    FactDocument retraction2 = new FactDocument().setId(UUID.randomUUID());
-    FactDocument retraction3 = new FactDocument().setId(UUID.randomUUID());
-    FactDocument retraction4 = new FactDocument().setId(UUID.randomUUID());
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction1 = createRetraction(fact);
+    FactRecord retraction2 = createRetraction(retraction1);
+    FactRecord retraction3 = createRetraction(fact);
+    FactRecord retraction4 = createRetraction(fact);
 
     // fact -----------> retraction1 ---> retraction2
     //     |-----------> retraction3
     //     |-----------> retraction4
-    // retraction2 cancels out retraction1, thus, factDocument is retracted because of retraction3/retraction4.
-    when(factSearchManager.searchFacts(inReferenceTo(fact.getId()))).thenReturn(createSearchResult(retraction1, retraction3, retraction4));
-    when(factSearchManager.searchFacts(inReferenceTo(retraction1.getId()))).thenReturn(createSearchResult(retraction2));
+    // retraction2 cancels out retraction1, thus, fact is retracted because of retraction3/retraction4.
+    mockRetractions(fact, retraction1, retraction3, retraction4);
+    mockRetractions(retraction1, retraction2);
 
     assertTrue(handler.isRetracted(fact));
   }
 
   @Test
-  public void testIsRetractedCachesResult() {
-    FactRecord fact = new FactRecord().setId(UUID.randomUUID()).setFlags(set(FactRecord.Flag.RetractedHint));
-    FactDocument retraction = new FactDocument().setId(UUID.randomUUID());
-    when(factSearchManager.searchFacts(inReferenceTo(fact.getId()))).thenReturn(createSearchResult(retraction));
+  public void testIsRetractedSharesRetractionsAcrossRequests() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction = createRetraction(fact);
+    mockRetractions(fact, retraction);
 
     assertTrue(handler.isRetracted(fact));
+    // A new handler simulates a new request, but the index is shared.
+    assertTrue(createHandler().isRetracted(fact));
+
+    verify(factManager, times(1)).fetchMetaFactBindings(fact.getId());
+    verify(objectFactDao, times(1)).getFacts(list(retraction.getId()));
+    verify(objectFactDao, never()).getFact(any());
+  }
 
-    verify(factSearchManager).searchFacts(inReferenceTo(fact.getId()));
-    verify(factSearchManager).searchFacts(inReferenceTo(retraction.getId()));
-    verifyNoMoreInteractions(factSearchManager);
+  @Test
+  public void testIsRetractedChecksAccessPerRequest() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction = createRetraction(fact);
+    mockRetractions(fact, retraction);
 
     assertTrue(handler.isRetracted(fact));
-    verifyNoMoreInteractions(factSearchManager);
+    // Another user without access to the retraction shares the same index.
+    when(securityContext.hasReadPermission(retraction)).thenReturn(false);
+    assertFalse(createHandler().isRetracted(fact));
   }
 
-  private ScrollingSearchResult<FactDocument> createSearchResult(FactDocument... fact) {
-    return ScrollingSearchResult.<FactDocument>builder()
-            .setInitialBatch(new ScrollingSearchResult.ScrollingBatch<>("TEST_SCROLL_ID", list(fact).iterator(), true))
-            .setCount(list(fact).size())
-            .build();
+  @Test
+  public void testIsRetractedPicksUpNewRetraction() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction1 = createRetraction(fact);
+    FactRecord retraction2 = createRetraction(retraction1);
+    mockRetractions(fact, retraction1);
+
+    assertTrue(handler.isRetracted(fact));
+
+    // Retract retraction1 which cancels out the retraction of fact.
+    retractionIndex.addRetraction(retraction2);
+    assertFalse(createHandler().isRetracted(fact));
+
+    verify(factManager, never()).fetchMetaFactBindings(retraction2.getId());
   }
 
-  private FactSearchCriteria inReferenceTo(UUID id) {
-    return argThat(criteria -> criteria != null && criteria.getInReferenceTo() != null && criteria.getInReferenceTo().contains(id));
+  @Test
+  public void testIsRetractedPicksUpRetractionFromOtherNode() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction1 = createRetraction(fact);
+    FactRecord retraction2 = createRetraction(retraction1);
+    mockRetractions(fact, retraction1);
+    mockRetractions(retraction1);
+
+    assertTrue(handler.isRetracted(fact));
+
+    // Retract retraction1 on another node which invalidates the retractions of retraction1 on this node.
+    FactRetractionIndex otherNode = new FactRetractionIndex(new CacheInvalidationBus(transport));
+    mockRetractions(retraction1, retraction2);
+    otherNode.addRetraction(retraction2);
+    assertFalse(createHandler().isRetracted(fact));
+
+    verify(factManager, times(2)).fetchMetaFactBindings(retraction1.getId());
+  }
+
+  @Test
+  public void testIsRetractedReloadsRetractionsAfterInvalidationOnOtherNode() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction = createRetraction(fact);
+    mockRetractions(fact, retraction);
+
+    assertTrue(handler.isRetracted(fact));
+    new FactRetractionIndex(new CacheInvalidationBus(transport)).invalidate(fact.getId());
+    assertTrue(createHandler().isRetracted(fact));
+
+    verify(factManager, times(2)).fetchMetaFactBindings(fact.getId());
+  }
+
+  @Test
+  public void testAddRetractionsConcurrentlyKeepsAllRetractions() throws Exception {
+    FactRecord fact = createRetractedFact();
+    mockRetractions(fact);
+    assertFalse(handler.isRetracted(fact));
+
+    // Add retractions of the same Fact from multiple threads, none of them must get lost.
+    List<FactRecord> added = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        futures.add(executor.submit(() -> {
+          FactRecord retraction = createRetraction(fact);
+          added.add(retraction);
+          retractionIndex.addRetraction(retraction);
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(set(added, FactRecord::getId), set(retractionIndex.getRetractions(fact, id -> list()), FactRecord::getId));
+    verify(factManager).fetchMetaFactBindings(fact.getId());
+  }
+
+  @Test
+  public void testAddRetractionKeepsLocalEntryAndInvalidatesOtherNodes() {
+    FactRecord fact = createRetractedFact();
+    FactRecord retraction = createRetraction(fact);
+    mockRetractions(fact);
+    FactRetractionIndex otherNode = new FactRetractionIndex(new CacheInvalidationBus(transport));
+    otherNode.getRetractions(fact, id -> list());
+
+    retractionIndex.getRetractions(fact, id -> list());
+    retractionIndex.addRetraction(retraction);
+
+    // The local entry is updated in place, the other node reloads its entry.
+    assertEquals(list(retraction), retractionIndex.getRetractions(fact, id -> list()));
+    assertEquals(list(retraction), otherNode.getRetractions(fact, id -> list(retraction)));
+  }
+
+  private FactRetractionHandler createHandler() {
+    return new FactRetractionHandler(factTypeRequestResolver, factManager, objectFactDao, retractionIndex, securityContext);
+  }
+
+  private FactRecord createRetractedFact() {
+    return new FactRecord()
+            .setId(UUID.randomUUID())
+            .setFlags(set(FactRecord.Flag.RetractedHint));
+  }
+
+  private FactRecord createRetraction(FactRecord retractedFact) {
+    return new FactRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(retractionFactType.getId())
+            .setInReferenceToID(retractedFact.getId());
+  }
+
+  private void mockRetractions(FactRecord fact, FactRecord... metaFacts) {
+    when(objectFactDao.getFacts(list(list(metaFacts), FactRecord::getId))).thenReturn(list(metaFacts));
+
+    when(factManager.fetchMetaFactBindings(fact.getId())).thenReturn(list(list(metaFacts), metaFact -> new MetaFactBindingEntity()
+            .setFactID(fact.getId())
+            .setMetaFactID(metaFact.getId())));
+    // The RetractedHint is set when a Fact gets retracted.
+    fact.addFlag(FactRecord.Flag.RetractedHint);
   }
 }
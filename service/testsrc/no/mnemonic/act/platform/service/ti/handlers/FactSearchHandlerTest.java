@@ -2,8 +2,10 @@ package no.mnemonic.act.platform.service.ti.handlers;
 
 import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
 import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCursor;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
@@ -20,6 +22,8 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
@@ -42,6 +46,7 @@ public class FactSearchHandlerTest {
   public void setUp() {
     initMocks(this);
     when(securityContext.hasReadPermission(isA(FactRecord.class))).thenReturn(true);
+    when(factResponseConverter.convert(notNull())).thenAnswer(i -> ListUtils.list(i.<List<FactRecord>>getArgument(0), r -> Fact.builder().build()));
 
     handler = new FactSearchHandler(retractionHandler, objectFactDao, securityContext, factResponseConverter);
   }
@@ -100,6 +105,19 @@ public class FactSearchHandlerTest {
     verify(securityContext).checkPermission(TiFunctionConstants.unlimitedThreatIntelSearch);
   }
 
+  @Test
+  public void testSearchFactsConvertsResultPageWise() {
+    mockSearch(2500);
+
+    FactSearchCriteria criteria = createFactSearchCriteria(b -> b.setLimit(0));
+    ResultSet<Fact> result = handler.search(criteria, null);
+
+    assertEquals(2500, ListUtils.list(result.iterator()).size());
+    verify(factResponseConverter, times(2)).convert(argThat(page -> page.size() == 1000));
+    verify(factResponseConverter).convert(argThat(page -> page.size() == 500));
+    verify(factResponseConverter, never()).apply(any());
+  }
+
   @Test
   public void testSearchFactsNoResults() {
     mockSearch(0);
@@ -125,7 +143,7 @@ public class FactSearchHandlerTest {
     assertEquals(2, ListUtils.list(result.iterator()).size());
 
     verify(securityContext, times(3)).hasReadPermission(isA(FactRecord.class));
-    verify(factResponseConverter, times(2)).apply(isA(FactRecord.class));
+    verify(factResponseConverter).convert(argThat(page -> page.size() == 2));
   }
 
   @Test
@@ -140,7 +158,7 @@ public class FactSearchHandlerTest {
     assertEquals(25, ListUtils.list(result.iterator()).size());
 
     verify(securityContext, times(25)).hasReadPermission(isA(FactRecord.class));
-    verify(factResponseConverter, times(25)).apply(isA(FactRecord.class));
+    verify(factResponseConverter).convert(argThat(page -> page.size() == 25));
   }
 
   @Test
@@ -185,6 +203,66 @@ public class FactSearchHandlerTest {
     verify(retractionHandler).isRetracted(fact);
   }
 
+  @Test
+  public void testSearchFactsWithoutSortedResultHasNoNextCursor() {
+    mockSearch(3);
+
+    StreamingResultSet<Fact> result = (StreamingResultSet<Fact>) handler.search(createFactSearchCriteria(b -> b), null);
+
+    assertEquals(3, ListUtils.list(result.iterator()).size());
+    assertNull(result.getNextCursor());
+  }
+
+  @Test
+  public void testSearchFactsReturnsCursorOfLastFetchedFact() {
+    List<FactRecord> records = mockSortedSearch(10);
+
+    FactSearchCriteria criteria = createFactSearchCriteria(b -> b.setLimit(4).setSearchAfter(FactSearchCursor.start()));
+    StreamingResultSet<Fact> result = (StreamingResultSet<Fact>) handler.search(criteria, null);
+
+    assertEquals(4, ListUtils.list(result.iterator()).size());
+    assertEquals(FactSearchCursor.of(records.get(3).getTimestamp(), records.get(3).getId()).encode(), result.getNextCursor());
+  }
+
+  @Test
+  public void testSearchFactsReturnsCursorIncludingNonAccessibleFacts() {
+    List<FactRecord> records = mockSortedSearch(3);
+    when(securityContext.hasReadPermission(isA(FactRecord.class))).thenReturn(true, true, false);
+
+    FactSearchCriteria criteria = createFactSearchCriteria(b -> b.setSearchAfter(FactSearchCursor.start()));
+    StreamingResultSet<Fact> result = (StreamingResultSet<Fact>) handler.search(criteria, null);
+
+    assertEquals(2, ListUtils.list(result.iterator()).size());
+    // Resuming the search must not return the non-accessible Fact again.
+    assertEquals(FactSearchCursor.of(records.get(2).getTimestamp(), records.get(2).getId()).encode(), result.getNextCursor());
+  }
+
+  @Test
+  public void testSearchFactsReturnsCurrentCursorWithoutResults() {
+    mockSortedSearch(0);
+
+    FactSearchCursor cursor = FactSearchCursor.of(123456789, UUID.randomUUID());
+    FactSearchCriteria criteria = createFactSearchCriteria(b -> b.setSearchAfter(cursor));
+    StreamingResultSet<Fact> result = (StreamingResultSet<Fact>) handler.search(criteria, null);
+
+    assertEquals(0, ListUtils.list(result.iterator()).size());
+    assertEquals(cursor.encode(), result.getNextCursor());
+  }
+
+  private List<FactRecord> mockSortedSearch(int count) {
+    List<FactRecord> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      records.add(new FactRecord().setId(UUID.randomUUID()).setTimestamp(1000 + i));
+    }
+
+    when(objectFactDao.searchFacts(notNull())).thenReturn(ResultContainer.<FactRecord>builder()
+            .setCount(count)
+            .setSorted(true)
+            .setValues(records.iterator())
+            .build());
+    return records;
+  }
+
   private void mockSearch(int count) {
     List<FactRecord> records = new ArrayList<>();
     for (int i = 0; i < count; i++) {
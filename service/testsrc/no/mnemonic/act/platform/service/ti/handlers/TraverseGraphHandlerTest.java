@@ -11,6 +11,7 @@ import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.response.FactResponseConverter;
 import no.mnemonic.act.platform.service.ti.converters.response.ObjectResponseConverter;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinScriptExecutor;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.PropertyHelper;
 import no.mnemonic.act.platform.service.ti.tinkerpop.TraverseParams;
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver;
@@ -19,6 +20,7 @@ import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolve
 import no.mnemonic.act.platform.service.ti.tinkerpop.utils.PropertyEntry;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.services.common.api.ResultSet;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -51,6 +53,7 @@ public class TraverseGraphHandlerTest {
   @Mock
   private PropertyHelper propertyHelper;
 
+  private GremlinScriptExecutor scriptExecutor;
   private TraverseGraphHandler handler;
 
   @Before
@@ -62,6 +65,7 @@ public class TraverseGraphHandlerTest {
     when(securityContext.getAvailableOrganizationID()).thenReturn(set(new UUID(0, 1)));
     when(propertyHelper.getObjectProperties(any(), any())).thenReturn(list());
 
+    scriptExecutor = new GremlinScriptExecutor(5000, 4);
     handler = new TraverseGraphHandler(
             securityContext,
             objectFactDao,
@@ -69,7 +73,13 @@ public class TraverseGraphHandlerTest {
             objectResponseConverter,
             factResponseConverter,
             factRetractionHandler,
-            propertyHelper).setScriptExecutionTimeout(5000);
+            propertyHelper,
+            scriptExecutor);
+  }
+
+  @After
+  public void cleanup() {
+    scriptExecutor.stopComponent();
   }
 
   @Test
@@ -0,0 +1,145 @@
+package no.mnemonic.act.platform.service.ti.handlers;
+
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static org.junit.Assert.*;
+
+public class TraverseResultIteratorTest {
+
+  private final AtomicInteger traversed = new AtomicInteger();
+  private final CompletableFuture<Object> evaluation = new CompletableFuture<>();
+
+  @Test
+  public void testIterateEmptyTraversal() {
+    TraverseResultIterator iterator = traverse(0, Function.identity(), 0);
+    assertFalse(iterator.hasNext());
+    assertThrows(NoSuchElementException.class, iterator::next);
+  }
+
+  @Test
+  public void testIterateConvertsResults() {
+    TraverseResultIterator iterator = traverse(3, value -> "converted" + value, 0);
+    assertEquals(list("converted0", "converted1", "converted2"), ListUtils.list(iterator));
+  }
+
+  @Test
+  public void testIterateSkipsFilteredResults() {
+    TraverseResultIterator iterator = traverse(10, value -> (Integer) value % 2 == 0 ? value : null, 0);
+    assertEquals(list(0, 2, 4, 6, 8), ListUtils.list(iterator));
+  }
+
+  @Test
+  public void testIterateStopsAtLimit() {
+    TraverseResultIterator iterator = traverse(100, Function.identity(), 3);
+    assertEquals(list(0, 1, 2), ListUtils.list(iterator));
+    // The remaining traversal is never performed.
+    assertEquals(3, traversed.get());
+  }
+
+  @Test
+  public void testIterateFilteredResultsDoNotCountAgainstLimit() {
+    TraverseResultIterator iterator = traverse(100, value -> (Integer) value % 2 == 0 ? value : null, 3);
+    assertEquals(list(0, 2, 4), ListUtils.list(iterator));
+    assertEquals(5, traversed.get());
+  }
+
+  @Test
+  public void testIterateClosesTraversalWhenFinished() {
+    ClosableTraversal traversal = new ClosableTraversal(createTraversal(100));
+    TraverseResultIterator iterator = createIterator(Function.identity(), 1, 10);
+    iterator.accept(traversal);
+    evaluation.complete(null);
+
+    assertEquals(1, ListUtils.list(iterator).size());
+    assertTrue(traversal.isClosed());
+  }
+
+  @Test
+  public void testIterateWaitsForResultsToBeConsumed() throws Exception {
+    TraverseResultIterator iterator = createIterator(Function.identity(), 0, 1);
+    // Produce results in another thread, the traversal blocks while the buffer is full.
+    CompletableFuture.runAsync(() -> iterator.accept(createTraversal(100)))
+            .whenComplete((result, ex) -> evaluation.complete(null));
+
+    assertEquals(100, ListUtils.list(iterator).size());
+    assertEquals(100, traversed.get());
+  }
+
+  @Test
+  public void testIterateFailsAfterPartialResult() {
+    TraverseResultIterator iterator = createIterator(Function.identity(), 0, 10);
+    iterator.accept(createTraversal(2));
+    evaluation.completeExceptionally(new TimeoutException());
+
+    assertEquals(0, iterator.next());
+    assertEquals(1, iterator.next());
+    IllegalStateException ex = assertThrows(IllegalStateException.class, iterator::hasNext);
+    assertTrue(ex.getCause() instanceof TimeoutException);
+  }
+
+  @Test
+  public void testAwaitNextFailsWithoutResult() {
+    TraverseResultIterator iterator = createIterator(Function.identity(), 0, 10);
+    evaluation.completeExceptionally(new TimeoutException());
+
+    ExecutionException ex = assertThrows(ExecutionException.class, iterator::awaitNext);
+    assertTrue(ex.getCause() instanceof TimeoutException);
+  }
+
+  private TraverseResultIterator traverse(int size, Function<Object, Object> converter, int limit) {
+    TraverseResultIterator iterator = createIterator(converter, limit, 1000);
+    iterator.accept(createTraversal(size));
+    evaluation.complete(null);
+    return iterator;
+  }
+
+  private TraverseResultIterator createIterator(Function<Object, Object> converter, int limit, int bufferSize) {
+    return new TraverseResultIterator(converter, limit, bufferSize, ex -> new IllegalStateException(ex.getCause()))
+            .setEvaluation(evaluation);
+  }
+
+  private Iterator<Integer> createTraversal(int size) {
+    return IntStream.range(0, size)
+            .peek(i -> traversed.incrementAndGet())
+            .iterator();
+  }
+
+  private static class ClosableTraversal implements Iterator<Integer>, AutoCloseable {
+    private final Iterator<Integer> delegate;
+    private boolean closed;
+
+    private ClosableTraversal(Iterator<Integer> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public Integer next() {
+      return delegate.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    private boolean isClosed() {
+      return closed;
+    }
+  }
+}
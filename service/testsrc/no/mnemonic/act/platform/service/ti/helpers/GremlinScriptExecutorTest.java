@@ -0,0 +1,102 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+import static org.junit.Assert.*;
+
+public class GremlinScriptExecutorTest {
+
+  private GremlinScriptExecutor executor;
+
+  @Before
+  public void setUp() {
+    executor = new GremlinScriptExecutor(2000, 4);
+  }
+
+  @After
+  public void cleanUp() {
+    executor.stopComponent();
+  }
+
+  @Test
+  public void testEvalBindsStartingPointPerEvaluation() throws Exception {
+    assertEquals(3L, eval("g.count()", __.inject(1, 2, 3)));
+    assertEquals(1L, eval("g.count()", __.inject(4)));
+  }
+
+  @Test
+  public void testEvalCachesCompiledScript() throws Exception {
+    eval("g.count()", __.inject(1));
+    eval("g.count()", __.inject(1));
+    eval(" g.count()\r\n", __.inject(1));
+
+    GremlinScriptExecutor.ScriptCacheStatistics statistics = executor.getScriptCacheStatistics();
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(2, statistics.getHitCount());
+    assertEquals(1, statistics.getSize());
+    assertTrue(statistics.getTotalCompilationTime() >= 0);
+  }
+
+  @Test
+  public void testEvalWithBoundedCache() throws Exception {
+    executor.setScriptCacheSize(1);
+
+    for (int i = 0; i < 10; i++) {
+      eval(String.format("g.limit(%d).count()", i), __.inject(1));
+    }
+
+    GremlinScriptExecutor.ScriptCacheStatistics statistics = executor.getScriptCacheStatistics();
+    assertEquals(10, statistics.getMissCount());
+    assertTrue(statistics.getEvictionCount() > 0);
+  }
+
+  @Test
+  public void testCachedScriptIsSandboxed() {
+    assertEvalFails(() -> eval("System.exit(0)", __.inject(1)));
+    assertEvalFails(() -> eval("System.exit(0)", __.inject(1)));
+  }
+
+  @Test
+  public void testCachedScriptIsInterrupted() {
+    assertTimeout(() -> eval("while (true) {}", __.inject(1)));
+    assertTimeout(() -> eval("while (true) {}", __.inject(1)));
+  }
+
+  @Test
+  public void testNormalizeScript() {
+    assertNull(GremlinScriptExecutor.normalizeScript(null));
+    assertEquals("g.out()", GremlinScriptExecutor.normalizeScript("  g.out()\n"));
+    assertEquals("g.out()\n.count()", GremlinScriptExecutor.normalizeScript("g.out()\r\n.count()"));
+    assertEquals("g.out()\n.count()", GremlinScriptExecutor.normalizeScript("g.out()\r.count()"));
+  }
+
+  private Object eval(String script, GraphTraversal<?, ?> startingPoint) throws Exception {
+    List<Object> result = new ArrayList<>();
+    Map<String, Object> bindings = MapUtils.map(T("g", startingPoint));
+    executor.eval(script, bindings, value -> ((GraphTraversal<?, ?>) value).forEachRemaining(result::add)).get();
+    return result.get(0);
+  }
+
+  private void assertEvalFails(ThrowingRunnable runnable) {
+    ExecutionException ex = assertThrows(ExecutionException.class, runnable);
+    assertFalse(ex.getCause() instanceof TimeoutException);
+  }
+
+  private void assertTimeout(ThrowingRunnable runnable) {
+    ExecutionException ex = assertThrows(ExecutionException.class, runnable);
+    assertTrue(ex.getCause() instanceof TimeoutException);
+  }
+}
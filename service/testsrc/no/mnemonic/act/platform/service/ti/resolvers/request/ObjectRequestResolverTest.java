@@ -5,6 +5,7 @@ import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.service.validators.Validator;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
 import org.junit.Before;
@@ -84,6 +85,30 @@ public class ObjectRequestResolverTest {
     verify(objectFactDao).storeObject(argThat(record -> assertObjectRecord(record, type.getId(), value)));
   }
 
+  @Test
+  public void testCreateMissingObjectReturnsConcurrentlyCreatedObject() throws Exception {
+    String value = "ObjectValue";
+    ObjectTypeEntity type = mockFetchObjectType();
+    ObjectRecord winner = new ObjectRecord().setId(UUID.randomUUID());
+    mockValidator(true);
+
+    when(objectFactDao.getObject(type.getName(), value)).thenReturn(null, winner);
+    when(objectFactDao.storeObject(any())).thenThrow(new ImmutableViolationException("test"));
+
+    assertSame(winner, resolver.resolveObject(String.format("%s/%s", type.getName(), value)));
+    verify(objectFactDao, times(2)).getObject(type.getName(), value);
+  }
+
+  @Test
+  public void testCreateMissingObjectRethrowsConflictWithoutExistingObject() {
+    ObjectTypeEntity type = mockFetchObjectType();
+    mockValidator(true);
+
+    when(objectFactDao.storeObject(any())).thenThrow(new ImmutableViolationException("test"));
+
+    assertThrows(ImmutableViolationException.class, () -> resolver.resolveObject(String.format("%s/%s", type.getName(), "ObjectValue")));
+  }
+
   @Test
   public void testCreateMissingObjectFailsOnMissingObjectType() {
     try {
@@ -0,0 +1,179 @@
+package no.mnemonic.act.platform.service.ti.tinkerpop.strategies;
+
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.api.result.ResultContainer;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.handlers.FactRetractionHandler;
+import no.mnemonic.act.platform.service.ti.tinkerpop.ActGraph;
+import no.mnemonic.act.platform.service.ti.tinkerpop.TraverseParams;
+import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver;
+import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver.FactTypeStruct;
+import no.mnemonic.act.platform.service.ti.tinkerpop.utils.ObjectFactTypeResolver.ObjectTypeStruct;
+import no.mnemonic.act.platform.service.ti.tinkerpop.utils.PropertyHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class BatchedVertexStepStrategyTest {
+
+  @Mock
+  private ObjectFactDao objectFactDao;
+  @Mock
+  private ObjectFactTypeResolver objectFactTypeResolver;
+  @Mock
+  private FactRetractionHandler factRetractionHandler;
+  @Mock
+  private PropertyHelper propertyHelper;
+  @Mock
+  private TiSecurityContext securityContext;
+
+  private final List<FactRecord> facts = new ArrayList<>();
+  private ObjectTypeStruct objectType;
+  private FactTypeStruct factType;
+  private ActGraph actGraph;
+
+  @Before
+  public void setup() {
+    initMocks(this);
+
+    when(securityContext.getCurrentUserID()).thenReturn(UUID.randomUUID());
+    when(securityContext.getAvailableOrganizationID()).thenReturn(set(UUID.randomUUID()));
+    when(securityContext.hasReadPermission(any(FactRecord.class))).thenReturn(true);
+    when(propertyHelper.getObjectProperties(any(), any())).thenReturn(list());
+    when(propertyHelper.getFactProperties(any(), any())).thenReturn(list());
+    when(objectFactDao.searchFacts(any())).thenAnswer(invocation -> {
+      FactSearchCriteria criteria = invocation.getArgument(0);
+      List<FactRecord> result = facts.stream()
+              .filter(fact -> criteria.getObjectID().contains(fact.getSourceObject().getId()) ||
+                      criteria.getObjectID().contains(fact.getDestinationObject().getId()))
+              .collect(Collectors.toList());
+      return ResultContainer.<FactRecord>builder().setValues(result.iterator()).build();
+    });
+
+    objectType = ObjectTypeStruct.builder().setId(UUID.randomUUID()).setName("someObjectType").build();
+    factType = FactTypeStruct.builder().setId(UUID.randomUUID()).setName("someFactType").build();
+    when(objectFactTypeResolver.toObjectTypeStruct(objectType.getId())).thenReturn(objectType);
+    when(objectFactTypeResolver.toFactTypeStruct(factType.getId())).thenReturn(factType);
+
+    actGraph = ActGraph.builder()
+            .setObjectFactDao(objectFactDao)
+            .setObjectTypeFactResolver(objectFactTypeResolver)
+            .setSecurityContext(securityContext)
+            .setFactRetractionHandler(factRetractionHandler)
+            .setPropertyHelper(propertyHelper)
+            .setTraverseParams(TraverseParams.builder().build())
+            .build();
+  }
+
+  @Test
+  public void testVertexStepsAreReplaced() {
+    ObjectRecord source = mockObject();
+
+    GraphTraversal<Vertex, Vertex> traversal = actGraph.traversal().V(source.getId()).out().both().outE().inV();
+    traversal.asAdmin().applyStrategies();
+
+    assertTrue(traversal.asAdmin().getSteps().stream().anyMatch(BatchedVertexStep.class::isInstance));
+    assertTrue(traversal.asAdmin().getSteps().stream().noneMatch(step -> step.getClass().getSimpleName().equals("VertexStep")));
+  }
+
+  @Test
+  public void testOutExpandsFrontierTogether() {
+    ObjectRecord start = mockObject();
+    ObjectRecord middle1 = mockObject();
+    ObjectRecord middle2 = mockObject();
+    ObjectRecord middle3 = mockObject();
+    ObjectRecord end = mockObject();
+    mockFact(start, middle1);
+    mockFact(start, middle2);
+    mockFact(start, middle3);
+    mockFact(middle1, end);
+    mockFact(middle2, end);
+    mockFact(middle3, end);
+
+    List<Object> result = actGraph.traversal().V(start.getId()).out().out().id().toList();
+    assertEquals(list(end.getId(), end.getId(), end.getId()), result);
+
+    // One search for the starting point and one search for the three vertices of the second step.
+    ArgumentCaptor<FactSearchCriteria> criteria = ArgumentCaptor.forClass(FactSearchCriteria.class);
+    verify(objectFactDao, times(2)).searchFacts(criteria.capture());
+    assertEquals(set(start.getId()), criteria.getAllValues().get(0).getObjectID());
+    assertEquals(set(middle1.getId(), middle2.getId(), middle3.getId()), criteria.getAllValues().get(1).getObjectID());
+  }
+
+  @Test
+  public void testOutEAndBothExpandFrontierTogether() {
+    ObjectRecord object1 = mockObject();
+    ObjectRecord object2 = mockObject();
+    ObjectRecord object3 = mockObject();
+    mockFact(object1, object2);
+    mockFact(object2, object3);
+
+    assertEquals(2L, (long) actGraph.traversal().V(object1.getId(), object2.getId(), object3.getId()).outE().count().next());
+    assertEquals(4L, (long) actGraph.traversal().V(object1.getId(), object2.getId(), object3.getId()).both().count().next());
+    // Expansions are cached per graph, thus, the second traversal doesn't execute another search.
+    verify(objectFactDao, times(1)).searchFacts(any());
+  }
+
+  @Test
+  public void testExpandInsideChildTraversal() {
+    ObjectRecord start = mockObject();
+    ObjectRecord middle1 = mockObject();
+    ObjectRecord middle2 = mockObject();
+    mockFact(start, middle1);
+    mockFact(start, middle2);
+
+    Set<Object> result = actGraph.traversal().V(start.getId()).repeat(__.out()).times(1).id().toSet();
+    assertEquals(set(middle1.getId(), middle2.getId()), result);
+  }
+
+  @Test
+  public void testSkipInaccessibleFacts() {
+    ObjectRecord start = mockObject();
+    ObjectRecord middle1 = mockObject();
+    ObjectRecord middle2 = mockObject();
+    mockFact(start, middle1);
+    FactRecord hidden = mockFact(start, middle2);
+    when(securityContext.hasReadPermission(hidden)).thenReturn(false);
+
+    assertEquals(list(middle1.getId()), actGraph.traversal().V(start.getId()).out().id().toList());
+  }
+
+  private ObjectRecord mockObject() {
+    ObjectRecord object = new ObjectRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(objectType.getId())
+            .setValue("value");
+    when(objectFactDao.getObject(object.getId())).thenReturn(object);
+    return object;
+  }
+
+  private FactRecord mockFact(ObjectRecord source, ObjectRecord destination) {
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setTypeID(factType.getId())
+            .setSourceObject(source)
+            .setDestinationObject(destination);
+    facts.add(fact);
+    return fact;
+  }
+}
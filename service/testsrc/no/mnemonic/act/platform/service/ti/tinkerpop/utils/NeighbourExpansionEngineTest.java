@@ -0,0 +1,185 @@
+package no.mnemonic.act.platform.service.ti.tinkerpop.utils;
+
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.api.result.ResultContainer;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.handlers.FactRetractionHandler;
+import no.mnemonic.act.platform.service.ti.tinkerpop.ActGraph;
+import no.mnemonic.act.platform.service.ti.tinkerpop.TraverseParams;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class NeighbourExpansionEngineTest {
+
+  @Mock
+  private ObjectFactDao objectFactDao;
+  @Mock
+  private ObjectFactTypeResolver objectFactTypeResolver;
+  @Mock
+  private FactRetractionHandler factRetractionHandler;
+  @Mock
+  private PropertyHelper propertyHelper;
+  @Mock
+  private TiSecurityContext securityContext;
+
+  private final List<FactRecord> facts = new ArrayList<>();
+  private NeighbourExpansionEngine engine;
+
+  @Before
+  public void setup() {
+    initMocks(this);
+
+    when(securityContext.getCurrentUserID()).thenReturn(UUID.randomUUID());
+    when(securityContext.getAvailableOrganizationID()).thenReturn(set(UUID.randomUUID()));
+    when(securityContext.hasReadPermission(any(FactRecord.class))).thenReturn(true);
+    when(objectFactDao.searchFacts(any())).thenAnswer(invocation -> {
+      FactSearchCriteria criteria = invocation.getArgument(0);
+      List<FactRecord> result = facts.stream()
+              .filter(fact -> criteria.getObjectID().contains(fact.getSourceObject().getId()) ||
+                      criteria.getObjectID().contains(fact.getDestinationObject().getId()))
+              .collect(Collectors.toList());
+      return ResultContainer.<FactRecord>builder().setValues(result.iterator()).build();
+    });
+
+    engine = createEngine(TraverseParams.builder().build());
+  }
+
+  @Test
+  public void testCreateEngineWithoutOwner() {
+    assertThrows(RuntimeException.class, () -> NeighbourExpansionEngine.builder().build());
+  }
+
+  @Test
+  public void testExpandWithoutPrefetch() {
+    UUID object = UUID.randomUUID();
+    FactRecord fact = mockFact(object, UUID.randomUUID());
+
+    assertEquals(list(fact), engine.expand(object));
+    assertEquals(list(fact), engine.expand(object));
+    verify(objectFactDao, times(1)).searchFacts(any());
+  }
+
+  @Test
+  public void testPrefetchSplitsResultPerObject() {
+    UUID objectA = UUID.randomUUID();
+    UUID objectB = UUID.randomUUID();
+    UUID objectC = UUID.randomUUID();
+    FactRecord factAB = mockFact(objectA, objectB);
+    FactRecord factBC = mockFact(objectB, objectC);
+
+    engine.prefetch(list(objectA, objectB, objectC));
+
+    assertEquals(list(factAB), engine.expand(objectA));
+    assertEquals(list(factAB, factBC), engine.expand(objectB));
+    assertEquals(list(factBC), engine.expand(objectC));
+
+    ArgumentCaptor<FactSearchCriteria> criteria = ArgumentCaptor.forClass(FactSearchCriteria.class);
+    verify(objectFactDao, times(1)).searchFacts(criteria.capture());
+    assertEquals(set(objectA, objectB, objectC), criteria.getValue().getObjectID());
+  }
+
+  @Test
+  public void testPrefetchSkipsAlreadyExpandedObjects() {
+    UUID objectA = UUID.randomUUID();
+    UUID objectB = UUID.randomUUID();
+
+    engine.expand(objectA);
+    engine.prefetch(list(objectA, objectB));
+    engine.prefetch(list(objectA, objectB));
+
+    ArgumentCaptor<FactSearchCriteria> criteria = ArgumentCaptor.forClass(FactSearchCriteria.class);
+    verify(objectFactDao, times(2)).searchFacts(criteria.capture());
+    assertEquals(set(objectA), criteria.getAllValues().get(0).getObjectID());
+    assertEquals(set(objectB), criteria.getAllValues().get(1).getObjectID());
+  }
+
+  @Test
+  public void testPrefetchInBatches() {
+    List<UUID> objects = IntStream.range(0, 250).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toList());
+
+    engine.prefetch(objects);
+
+    verify(objectFactDao, times(3)).searchFacts(any());
+  }
+
+  @Test
+  public void testExpandCachesPerFactType() {
+    UUID object = UUID.randomUUID();
+    UUID factTypeID = UUID.randomUUID();
+    when(objectFactTypeResolver.factTypeNamesToIds(set("someFactType"))).thenReturn(set(factTypeID));
+
+    engine.prefetch(list(object));
+    engine.expand(object, "someFactType");
+
+    ArgumentCaptor<FactSearchCriteria> criteria = ArgumentCaptor.forClass(FactSearchCriteria.class);
+    verify(objectFactDao, times(2)).searchFacts(criteria.capture());
+    assertTrue(criteria.getAllValues().get(0).getFactTypeID().isEmpty());
+    assertEquals(set(factTypeID), criteria.getAllValues().get(1).getFactTypeID());
+  }
+
+  @Test
+  public void testIsAccessibleChecksPermissionOnce() {
+    FactRecord fact = mockFact(UUID.randomUUID(), UUID.randomUUID());
+
+    assertTrue(engine.isAccessible(fact));
+    assertTrue(engine.isAccessible(fact));
+    verify(securityContext, times(1)).hasReadPermission(fact);
+  }
+
+  @Test
+  public void testIsAccessibleWithoutPermission() {
+    FactRecord fact = mockFact(UUID.randomUUID(), UUID.randomUUID());
+    when(securityContext.hasReadPermission(fact)).thenReturn(false);
+
+    assertFalse(engine.isAccessible(fact));
+    assertFalse(engine.isAccessible(null));
+  }
+
+  @Test
+  public void testIsAccessibleWithRetractedFact() {
+    FactRecord fact = mockFact(UUID.randomUUID(), UUID.randomUUID());
+    when(factRetractionHandler.isRetracted(fact)).thenReturn(true);
+
+    assertFalse(engine.isAccessible(fact));
+    assertTrue(createEngine(TraverseParams.builder().setIncludeRetracted(true).build()).isAccessible(fact));
+  }
+
+  private NeighbourExpansionEngine createEngine(TraverseParams traverseParams) {
+    ActGraph actGraph = ActGraph.builder()
+            .setObjectFactDao(objectFactDao)
+            .setObjectTypeFactResolver(objectFactTypeResolver)
+            .setSecurityContext(securityContext)
+            .setFactRetractionHandler(factRetractionHandler)
+            .setPropertyHelper(propertyHelper)
+            .setTraverseParams(traverseParams)
+            .build();
+    return NeighbourExpansionEngine.builder().setOwner(actGraph).build();
+  }
+
+  private FactRecord mockFact(UUID source, UUID destination) {
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setSourceObject(new ObjectRecord().setId(source))
+            .setDestinationObject(new ObjectRecord().setId(destination));
+    facts.add(fact);
+    return fact;
+  }
+}
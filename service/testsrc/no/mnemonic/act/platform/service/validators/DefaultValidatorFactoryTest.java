@@ -19,6 +19,22 @@ public class DefaultValidatorFactoryTest {
     assertTrue(factory.get("RegexValidator", "pattern") instanceof RegexValidator);
   }
 
+  @Test
+  public void testGetReturnsBuiltInValidators() {
+    DefaultValidatorFactory factory = new DefaultValidatorFactory();
+    assertTrue(factory.get("IPv4Validator", null) instanceof IPv4Validator);
+    assertTrue(factory.get("IPv6Validator", null) instanceof IPv6Validator);
+    assertTrue(factory.get("DomainValidator", null) instanceof DomainValidator);
+    assertTrue(factory.get("HashValidator", "sha256") instanceof HashValidator);
+    assertTrue(factory.get("UrlValidator", "http,https") instanceof UrlValidator);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetHashValidatorWithInvalidAlgorithmThrowsException() {
+    DefaultValidatorFactory factory = new DefaultValidatorFactory();
+    factory.get("HashValidator", "crc32");
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testGetRegexValidatorWithInvalidPatternThrowsException() {
     DefaultValidatorFactory factory = new DefaultValidatorFactory();
@@ -0,0 +1,48 @@
+package no.mnemonic.act.platform.service.validators;
+
+import org.junit.Test;
+
+import static no.mnemonic.act.platform.service.validators.ValidatorTestUtils.repeat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DomainValidatorTest {
+
+  private final Validator validator = new DomainValidator();
+
+  @Test
+  public void testValidateAcceptsDomain() {
+    assertTrue(validator.validate("localhost"));
+    assertTrue(validator.validate("example.org"));
+    assertTrue(validator.validate("www.Example.ORG"));
+    assertTrue(validator.validate("example.org."));
+    assertTrue(validator.validate("my-host.example.org"));
+    assertTrue(validator.validate("_dmarc.example.org"));
+    assertTrue(validator.validate("xn--bcher-kva.example"));
+    assertTrue(validator.validate("123.example.org"));
+    assertTrue(validator.validate(repeat("a", 63) + ".org"));
+  }
+
+  @Test
+  public void testValidateRejectsInvalidDomain() {
+    assertFalse(validator.validate(null));
+    assertFalse(validator.validate(""));
+    assertFalse(validator.validate("."));
+    assertFalse(validator.validate(".example.org"));
+    assertFalse(validator.validate("example..org"));
+    assertFalse(validator.validate("-example.org"));
+    assertFalse(validator.validate("example-.org"));
+    assertFalse(validator.validate("exa mple.org"));
+    assertFalse(validator.validate("bücher.example"));
+    assertFalse(validator.validate("1.2.3.4"));
+    assertFalse(validator.validate(repeat("a", 64) + ".org"));
+    assertFalse(validator.validate(repeat("a.", 127) + "org"));
+  }
+
+  @Test(timeout = 1000)
+  public void testValidatePathologicalInput() {
+    assertFalse(validator.validate(repeat("a.", 1_000_000)));
+    assertFalse(validator.validate(repeat("a", 1_000_000) + "!"));
+  }
+
+}
@@ -0,0 +1,52 @@
+package no.mnemonic.act.platform.service.validators;
+
+import org.junit.Test;
+
+import static no.mnemonic.act.platform.service.validators.ValidatorTestUtils.repeat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashValidatorTest {
+
+  private static final String MD5 = "d41d8cd98f00b204e9800998ecf8427e";
+  private static final String SHA1 = "da39a3ee5e6b4b0d3255bfef95601890afd80709";
+  private static final String SHA256 = "E3B0C44298FC1C149AFBF4C8996FB92427AE41E4649B934CA495991B7852B855";
+
+  @Test
+  public void testValidateAcceptsAllAlgorithmsWithoutParameter() throws ValidatorConfigurationException {
+    Validator validator = new HashValidator(null);
+    assertTrue(validator.validate(MD5));
+    assertTrue(validator.validate(SHA1));
+    assertTrue(validator.validate(SHA256));
+    assertTrue(validator.validate(repeat("0", 128)));
+  }
+
+  @Test
+  public void testValidateAcceptsOnlyConfiguredAlgorithms() throws ValidatorConfigurationException {
+    Validator validator = new HashValidator("md5, SHA256");
+    assertTrue(validator.validate(MD5));
+    assertTrue(validator.validate(SHA256));
+    assertFalse(validator.validate(SHA1));
+  }
+
+  @Test
+  public void testValidateRejectsInvalidHash() throws ValidatorConfigurationException {
+    Validator validator = new HashValidator("");
+    assertFalse(validator.validate(null));
+    assertFalse(validator.validate(""));
+    assertFalse(validator.validate(MD5.substring(1)));
+    assertFalse(validator.validate(MD5 + "0"));
+    assertFalse(validator.validate(MD5.replace('d', 'g')));
+  }
+
+  @Test(expected = ValidatorConfigurationException.class)
+  public void testHashValidatorInitializedWithUnknownAlgorithmThrowsException() throws ValidatorConfigurationException {
+    new HashValidator("md5,crc32");
+  }
+
+  @Test(timeout = 1000)
+  public void testValidatePathologicalInput() throws ValidatorConfigurationException {
+    assertFalse(new HashValidator(null).validate(repeat("a", 1_000_000)));
+  }
+
+}
@@ -0,0 +1,43 @@
+package no.mnemonic.act.platform.service.validators;
+
+import org.junit.Test;
+
+import static no.mnemonic.act.platform.service.validators.ValidatorTestUtils.repeat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IPv4ValidatorTest {
+
+  private final Validator validator = new IPv4Validator();
+
+  @Test
+  public void testValidateAcceptsAddress() {
+    assertTrue(validator.validate("0.0.0.0"));
+    assertTrue(validator.validate("1.2.3.4"));
+    assertTrue(validator.validate("192.168.0.1"));
+    assertTrue(validator.validate("255.255.255.255"));
+  }
+
+  @Test
+  public void testValidateRejectsInvalidAddress() {
+    assertFalse(validator.validate(null));
+    assertFalse(validator.validate(""));
+    assertFalse(validator.validate("1.2.3"));
+    assertFalse(validator.validate("1.2.3.4.5"));
+    assertFalse(validator.validate("1.2.3.4."));
+    assertFalse(validator.validate(".1.2.3.4"));
+    assertFalse(validator.validate("1..2.3"));
+    assertFalse(validator.validate("256.1.1.1"));
+    assertFalse(validator.validate("1.1.1.1000"));
+    assertFalse(validator.validate("01.1.1.1"));
+    assertFalse(validator.validate("1.a.1.1"));
+    assertFalse(validator.validate(" 1.1.1.1"));
+  }
+
+  @Test(timeout = 1000)
+  public void testValidatePathologicalInput() {
+    assertFalse(validator.validate(repeat("1.", 1_000_000)));
+    assertFalse(validator.validate(repeat("9", 1_000_000)));
+  }
+
+}
@@ -0,0 +1,59 @@
+package no.mnemonic.act.platform.service.validators;
+
+import org.junit.Test;
+
+import static no.mnemonic.act.platform.service.validators.ValidatorTestUtils.repeat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IPv6ValidatorTest {
+
+  private final Validator validator = new IPv6Validator();
+
+  @Test
+  public void testValidateAcceptsAddress() {
+    assertTrue(validator.validate("2001:0db8:0000:0000:0000:ff00:0042:8329"));
+    assertTrue(validator.validate("2001:DB8:0:0:0:FF00:42:8329"));
+    assertTrue(validator.validate("2001:db8::ff00:42:8329"));
+    assertTrue(validator.validate("::"));
+    assertTrue(validator.validate("::1"));
+    assertTrue(validator.validate("fe80::"));
+    assertTrue(validator.validate("1:2:3:4:5:6:7::"));
+    assertTrue(validator.validate("::2:3:4:5:6:7:8"));
+  }
+
+  @Test
+  public void testValidateAcceptsEmbeddedIPv4Address() {
+    assertTrue(validator.validate("::ffff:192.168.0.1"));
+    assertTrue(validator.validate("::192.168.0.1"));
+    assertTrue(validator.validate("1:2:3:4:5:6:192.168.0.1"));
+  }
+
+  @Test
+  public void testValidateRejectsInvalidAddress() {
+    assertFalse(validator.validate(null));
+    assertFalse(validator.validate(""));
+    assertFalse(validator.validate(":"));
+    assertFalse(validator.validate(":::"));
+    assertFalse(validator.validate(":1"));
+    assertFalse(validator.validate("1:"));
+    assertFalse(validator.validate("1:2:3:4:5:6:7"));
+    assertFalse(validator.validate("1:2:3:4:5:6:7:8:9"));
+    assertFalse(validator.validate("1:2:3:4::5:6:7:8"));
+    assertFalse(validator.validate("1::2::3"));
+    assertFalse(validator.validate("12345::"));
+    assertFalse(validator.validate("g::"));
+    assertFalse(validator.validate("fe80::1%eth0"));
+    assertFalse(validator.validate("::ffff:256.1.1.1"));
+    assertFalse(validator.validate("::1.2.3.4:5"));
+    assertFalse(validator.validate("1:2:3:4:5:6:7:1.2.3.4"));
+  }
+
+  @Test(timeout = 1000)
+  public void testValidatePathologicalInput() {
+    assertFalse(validator.validate(repeat("1:", 1_000_000)));
+    assertFalse(validator.validate(repeat("f", 1_000_000)));
+    assertFalse(validator.validate("::" + repeat("1.", 1_000_000)));
+  }
+
+}
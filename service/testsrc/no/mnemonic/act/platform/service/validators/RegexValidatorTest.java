@@ -2,6 +2,7 @@ package no.mnemonic.act.platform.service.validators;
 
 import org.junit.Test;
 
+import static no.mnemonic.act.platform.service.validators.ValidatorTestUtils.repeat;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -21,6 +22,28 @@ public class RegexValidatorTest {
     assertFalse(validator.validate(null));
   }
 
+  @Test(timeout = 5000)
+  public void testValidateAbortsCatastrophicBacktracking() throws ValidatorConfigurationException {
+    // Without a limit matching takes exponential time in the length of the value.
+    Validator validator = new RegexValidator("(a+)+b");
+    assertFalse(validator.validate(repeat("a", 64)));
+    assertTrue(validator.validate(repeat("a", 64) + "b"));
+  }
+
+  @Test(timeout = 5000)
+  public void testValidateLinearPatternWithLongValue() throws ValidatorConfigurationException {
+    Validator validator = new RegexValidator("[a-z.]+");
+    assertTrue(validator.validate(repeat("abc.", 250_000) + "org"));
+  }
+
+  @Test(timeout = 5000)
+  public void testValidateAbortsExcessiveRecursion() throws ValidatorConfigurationException {
+    // Every repetition of the group consumes stack frames of the matcher. Whether the value is accepted depends on
+    // the stack size, but a StackOverflowError must never escape the validator.
+    Validator validator = new RegexValidator("([a-z]+\\.)+[a-z]+");
+    validator.validate(repeat("abc.", 250_000) + "org");
+  }
+
   @Test(expected = ValidatorConfigurationException.class)
   public void testRegexValidatorInitializedWithNullThrowsException() throws ValidatorConfigurationException {
     new RegexValidator(null);
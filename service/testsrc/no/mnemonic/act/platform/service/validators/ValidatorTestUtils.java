@@ -0,0 +1,13 @@
+package no.mnemonic.act.platform.service.validators;
+
+class ValidatorTestUtils {
+
+  static String repeat(String value, int times) {
+    StringBuilder builder = new StringBuilder(value.length() * times);
+    for (int i = 0; i < times; i++) {
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+
+}
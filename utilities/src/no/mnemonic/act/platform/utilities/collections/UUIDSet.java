@@ -0,0 +1,204 @@
+package no.mnemonic.act.platform.utilities.collections;
+
+import java.util.*;
+
+/**
+ * Compact {@link Set} of {@link UUID}s.
+ * <p>
+ * Every UUID is stored as two primitive longs inside one flat array using open addressing with linear probing.
+ * Compared to a {@link HashSet} this avoids allocating a boxed UUID and a hash table node per entry, i.e. an entry
+ * takes between 22 and 43 bytes (depending on the current fill grade) instead of roughly 80 bytes, and the
+ * garbage collector only has to trace one array instead of hundreds of thousands of small objects. UUIDs returned
+ * by the iterator are created on demand.
+ * <p>
+ * The set does not support NULL elements and removing single elements. It is not thread-safe.
+ */
+public class UUIDSet extends AbstractSet<UUID> {
+
+  private static final int DEFAULT_EXPECTED_SIZE = 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 29;
+  // Keep the table at most three quarters full in order to keep probe sequences short.
+  private static final int LOAD_FACTOR_NUMERATOR = 3;
+  private static final int LOAD_FACTOR_DENOMINATOR = 4;
+
+  // Slot i is stored at index 2*i (most significant bits) and 2*i+1 (least significant bits).
+  private long[] table;
+  private int mask;
+  private int size;
+  // The zero UUID marks empty slots, thus, it is tracked separately.
+  private boolean containsZero;
+
+  /**
+   * Construct an empty set with a default initial capacity.
+   */
+  public UUIDSet() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Construct an empty set which can hold the given number of elements without growing.
+   *
+   * @param expectedSize Expected number of elements
+   */
+  public UUIDSet(int expectedSize) {
+    if (expectedSize < 0) throw new IllegalArgumentException("'expectedSize' cannot be negative!");
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * Construct a set containing all elements of the given collection.
+   *
+   * @param elements Initial elements
+   */
+  public UUIDSet(Collection<UUID> elements) {
+    this(elements.size());
+    addAll(elements);
+  }
+
+  @Override
+  public boolean add(UUID uuid) {
+    Objects.requireNonNull(uuid, "UUIDSet does not support NULL elements!");
+    return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  /**
+   * Add the UUID given by its most and least significant bits without creating a {@link UUID} object.
+   *
+   * @param most  Most significant bits of the UUID
+   * @param least Least significant bits of the UUID
+   * @return True if the set did not already contain the UUID
+   */
+  public boolean add(long most, long least) {
+    if (most == 0 && least == 0) {
+      if (containsZero) return false;
+      containsZero = true;
+      size++;
+      return true;
+    }
+
+    int slot = findSlot(table, mask, most, least);
+    if (table[2 * slot] == most && table[2 * slot + 1] == least) return false;
+
+    table[2 * slot] = most;
+    table[2 * slot + 1] = least;
+    if ((long) ++size * LOAD_FACTOR_DENOMINATOR > (long) (mask + 1) * LOAD_FACTOR_NUMERATOR) {
+      grow();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof UUID)) return false;
+    UUID uuid = (UUID) o;
+    return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  /**
+   * Check whether the set contains the UUID given by its most and least significant bits.
+   *
+   * @param most  Most significant bits of the UUID
+   * @param least Least significant bits of the UUID
+   * @return True if the set contains the UUID
+   */
+  public boolean contains(long most, long least) {
+    if (most == 0 && least == 0) return containsZero;
+
+    int slot = findSlot(table, mask, most, least);
+    return table[2 * slot] == most && table[2 * slot + 1] == least;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(table, 0);
+    size = 0;
+    containsZero = false;
+  }
+
+  @Override
+  public Iterator<UUID> iterator() {
+    return new UUIDIterator();
+  }
+
+  private void grow() {
+    int capacity = mask + 1;
+    if (capacity >= MAXIMUM_CAPACITY) throw new IllegalStateException("UUIDSet cannot grow beyond maximum capacity!");
+
+    long[] oldTable = table;
+    allocate(capacity * 2);
+    for (int i = 0; i < oldTable.length; i += 2) {
+      if (oldTable[i] == 0 && oldTable[i + 1] == 0) continue;
+      int slot = findSlot(table, mask, oldTable[i], oldTable[i + 1]);
+      table[2 * slot] = oldTable[i];
+      table[2 * slot + 1] = oldTable[i + 1];
+    }
+  }
+
+  private void allocate(int capacity) {
+    table = new long[2 * capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Returns either the slot containing the given UUID or the first empty slot of its probe sequence.
+   */
+  private static int findSlot(long[] table, int mask, long most, long least) {
+    int slot = hash(most, least) & mask;
+    while (true) {
+      long slotMost = table[2 * slot];
+      long slotLeast = table[2 * slot + 1];
+      if ((slotMost == most && slotLeast == least) || (slotMost == 0 && slotLeast == 0)) return slot;
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private static int hash(long most, long least) {
+    // Random UUIDs are already well distributed, but mix the bits anyway in order to handle sequential UUIDs.
+    long h = (most * 0x9E3779B97F4A7C15L) ^ least;
+    h *= 0xC2B2AE3D27D4EB4FL;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static int capacityFor(int expectedSize) {
+    long required = Math.max((long) expectedSize * LOAD_FACTOR_DENOMINATOR / LOAD_FACTOR_NUMERATOR + 1, 2);
+    if (required > MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+    return Integer.highestOneBit((int) required - 1) << 1;
+  }
+
+  private class UUIDIterator implements Iterator<UUID> {
+    private final long[] iteratedTable = table;
+    private boolean zeroReturned = !containsZero;
+    private int next = advance(0);
+
+    @Override
+    public boolean hasNext() {
+      return !zeroReturned || next < iteratedTable.length;
+    }
+
+    @Override
+    public UUID next() {
+      if (iteratedTable != table) throw new ConcurrentModificationException();
+      if (!zeroReturned) {
+        zeroReturned = true;
+        return new UUID(0, 0);
+      }
+      if (next >= iteratedTable.length) throw new NoSuchElementException();
+
+      UUID uuid = new UUID(iteratedTable[next], iteratedTable[next + 1]);
+      next = advance(next + 2);
+      return uuid;
+    }
+
+    private int advance(int index) {
+      while (index < iteratedTable.length && iteratedTable[index] == 0 && iteratedTable[index + 1] == 0) {
+        index += 2;
+      }
+      return index;
+    }
+  }
+}
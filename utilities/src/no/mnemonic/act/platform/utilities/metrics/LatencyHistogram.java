@@ -0,0 +1,150 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies measured in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets: every power of two is divided into {@value #SUB_BUCKET_COUNT} buckets of
+ * equal width, thus, a reported percentile is at most 1/{@value #SUB_BUCKET_COUNT} larger than the exact value
+ * independent of the magnitude of the value. All buckets are allocated upfront and recording a value only increments
+ * counters, i.e. it never blocks and never allocates. This makes it safe to record on every call of hot code paths.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+  // Values below SUB_BUCKET_COUNT get one bucket each, every following power of two up to Long.MAX_VALUE gets
+  // SUB_BUCKET_COUNT buckets.
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Record one latency.
+   *
+   * @param nanos Latency in nanoseconds (negative values are recorded as zero)
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    buckets.incrementAndGet(bucketIndex(value));
+    count.increment();
+    total.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Record the latency from the given start time until now. Use together with {@link System#nanoTime()}:
+   * <pre>
+   *   long start = System.nanoTime();
+   *   try {
+   *     ...
+   *   } finally {
+   *     histogram.recordSince(start);
+   *   }
+   * </pre>
+   *
+   * @param startNanos Start time as returned by {@link System#nanoTime()}
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Returns a snapshot of all latencies recorded so far. Concurrently recorded latencies may or may not be included.
+   *
+   * @return Snapshot of histogram
+   */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return new Snapshot(counts, count.sum(), total.sum(), max.get());
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) return (int) value;
+    // Position of the highest bit decides the power of two, the following bits decide the bucket inside it.
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) return index;
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    // Add the width of the bucket minus one instead of computing the next lower bound, which overflows for the last bucket.
+    return lowerBound + ((1L << shift) - 1);
+  }
+
+  public static class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+      this.counts = counts;
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getMeanNanos() {
+      return count > 0 ? totalNanos / count : 0;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of all recorded latencies falls.
+     *
+     * @param quantile Fraction between 0.0 and 1.0, e.g. 0.99 for the 99th percentile
+     * @return Latency in nanoseconds (0 if nothing has been recorded)
+     */
+    public long getPercentileNanos(double quantile) {
+      if (quantile < 0.0 || quantile > 1.0) throw new IllegalArgumentException("'quantile' must be between 0.0 and 1.0!");
+
+      long recorded = 0;
+      for (long bucket : counts) {
+        recorded += bucket;
+      }
+      if (recorded == 0) return 0;
+
+      long rank = Math.max(1, (long) Math.ceil(quantile * recorded));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) return Math.min(bucketUpperBound(i), maxNanos);
+      }
+
+      return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("count = %d, avg = %dus, p99 = %dus, max = %dus", count,
+              TimeUnit.NANOSECONDS.toMicros(getMeanNanos()),
+              TimeUnit.NANOSECONDS.toMicros(getPercentileNanos(0.99)),
+              TimeUnit.NANOSECONDS.toMicros(maxNanos));
+    }
+  }
+}
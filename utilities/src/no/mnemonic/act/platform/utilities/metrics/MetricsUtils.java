@@ -0,0 +1,97 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.metrics.MetricsData;
+import no.mnemonic.commons.metrics.MetricsGroup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilities to convert the metrics collected by components into {@link Metrics} as returned from
+ * {@link no.mnemonic.commons.metrics.MetricAspect#getMetrics()}.
+ */
+public class MetricsUtils {
+
+  private MetricsUtils() {
+  }
+
+  /**
+   * Convert a {@link LatencyHistogram} into metrics. Latencies are reported in microseconds.
+   *
+   * @param histogram Histogram to convert
+   * @return Metrics of histogram
+   * @throws MetricException If metrics could not be created
+   */
+  public static MetricsData toMetrics(LatencyHistogram histogram) throws MetricException {
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    return new MetricsData()
+            .addData("count", snapshot.getCount())
+            .addData("meanMicros", toMicros(snapshot.getMeanNanos()))
+            .addData("p50Micros", toMicros(snapshot.getPercentileNanos(0.50)))
+            .addData("p95Micros", toMicros(snapshot.getPercentileNanos(0.95)))
+            .addData("p99Micros", toMicros(snapshot.getPercentileNanos(0.99)))
+            .addData("maxMicros", toMicros(snapshot.getMaxNanos()));
+  }
+
+  /**
+   * Convert multiple named {@link LatencyHistogram}s into one group of metrics.
+   *
+   * @param histograms Histograms keyed by name
+   * @return Group containing the metrics of every histogram
+   * @throws MetricException If metrics could not be created
+   */
+  public static MetricsGroup toMetrics(Map<String, LatencyHistogram> histograms) throws MetricException {
+    MetricsGroup group = new MetricsGroup();
+    for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+      group.addSubMetrics(entry.getKey(), toMetrics(entry.getValue()));
+    }
+    return group;
+  }
+
+  /**
+   * Convert the statistics of a Guava {@link Cache} into metrics. The cache must be built with
+   * {@link com.google.common.cache.CacheBuilder#recordStats()}, otherwise only its size is reported.
+   * <p>
+   * Note that accessing the cache through {@link Cache#asMap()} only records loads but no hits and misses. Use
+   * {@link StatsCountingCacheMap} and {@link #toMetrics(StatsCountingCacheMap)} for caches accessed as a map.
+   *
+   * @param cache Cache to convert
+   * @return Metrics of cache
+   * @throws MetricException If metrics could not be created
+   */
+  public static MetricsData toMetrics(Cache<?, ?> cache) throws MetricException {
+    return toMetrics(cache.size(), cache.stats());
+  }
+
+  /**
+   * Convert the statistics of a Guava {@link Cache} accessed through a {@link StatsCountingCacheMap} into metrics,
+   * including the hits and misses counted by the map. The cache must be built with
+   * {@link com.google.common.cache.CacheBuilder#recordStats()} in order to report loads and evictions.
+   *
+   * @param map Map view of cache to convert
+   * @return Metrics of cache
+   * @throws MetricException If metrics could not be created
+   */
+  public static MetricsData toMetrics(StatsCountingCacheMap<?, ?> map) throws MetricException {
+    return toMetrics(map.getCache().size(), map.stats());
+  }
+
+  private static MetricsData toMetrics(long size, CacheStats stats) throws MetricException {
+    return new MetricsData()
+            .addData("size", size)
+            .addData("hitCount", stats.hitCount())
+            .addData("missCount", stats.missCount())
+            .addData("hitRate", stats.hitRate())
+            .addData("loadCount", stats.loadCount())
+            .addData("loadExceptionCount", stats.loadExceptionCount())
+            .addData("evictionCount", stats.evictionCount());
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+}
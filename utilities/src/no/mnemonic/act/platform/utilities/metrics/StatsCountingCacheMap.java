@@ -0,0 +1,76 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ForwardingConcurrentMap;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Map view of a Guava {@link Cache} which counts hits and misses.
+ * <p>
+ * Guava only records hits and misses when the cache is accessed through {@link Cache#getIfPresent(Object)} or
+ * {@link Cache#get(Object, java.util.concurrent.Callable)}, but not through the view returned by {@link Cache#asMap()}.
+ * This class counts them for {@link #get(Object)} (and thus {@link #getOrDefault(Object, Object)}) and
+ * {@link #computeIfAbsent(Object, Function)} instead, such that they are included in {@link #stats()}.
+ *
+ * @param <K> Type of keys
+ * @param <V> Type of values
+ */
+public class StatsCountingCacheMap<K, V> extends ForwardingConcurrentMap<K, V> {
+
+  private final Cache<K, V> cache;
+  private final ConcurrentMap<K, V> delegate;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  public StatsCountingCacheMap(Cache<K, V> cache) {
+    this.cache = cache;
+    this.delegate = cache.asMap();
+  }
+
+  @Override
+  public V get(Object key) {
+    return count(delegate.get(key));
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+    return value != null ? value : delegate.computeIfAbsent(key, mappingFunction);
+  }
+
+  /**
+   * Returns the statistics of the underlying cache including the hits and misses counted by this map.
+   *
+   * @return Statistics of cache
+   */
+  public CacheStats stats() {
+    return cache.stats().plus(new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0, 0));
+  }
+
+  /**
+   * Returns the underlying cache.
+   *
+   * @return Underlying cache
+   */
+  public Cache<K, V> getCache() {
+    return cache;
+  }
+
+  @Override
+  protected ConcurrentMap<K, V> delegate() {
+    return delegate;
+  }
+
+  private V count(V value) {
+    if (value != null) {
+      hitCount.increment();
+    } else {
+      missCount.increment();
+    }
+    return value;
+  }
+}
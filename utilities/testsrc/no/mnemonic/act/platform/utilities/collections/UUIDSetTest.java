@@ -0,0 +1,145 @@
+package no.mnemonic.act.platform.utilities.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class UUIDSetTest {
+
+  @Test
+  public void testAddAndContains() {
+    UUIDSet set = new UUIDSet();
+    UUID id = UUID.randomUUID();
+
+    assertFalse(set.contains(id));
+    assertTrue(set.add(id));
+    assertTrue(set.contains(id));
+    assertTrue(set.contains(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits())));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  public void testAddDuplicate() {
+    UUIDSet set = new UUIDSet();
+    UUID id = UUID.randomUUID();
+
+    assertTrue(set.add(id));
+    assertFalse(set.add(id));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  public void testAddZeroUUID() {
+    UUIDSet set = new UUIDSet();
+    UUID zero = new UUID(0, 0);
+
+    assertFalse(set.contains(zero));
+    assertTrue(set.add(zero));
+    assertFalse(set.add(zero));
+    assertTrue(set.contains(zero));
+    assertEquals(1, set.size());
+    assertEquals(Collections.singletonList(zero), new ArrayList<>(set));
+  }
+
+  @Test
+  public void testAddNullNotSupported() {
+    assertThrows(NullPointerException.class, () -> new UUIDSet().add(null));
+  }
+
+  @Test
+  public void testContainsOtherType() {
+    UUIDSet set = new UUIDSet();
+    set.add(new UUID(0, 0));
+
+    assertFalse(set.contains(null));
+    assertFalse(set.contains("00000000-0000-0000-0000-000000000000"));
+  }
+
+  @Test
+  public void testGrowKeepsAllElements() {
+    Set<UUID> expected = new HashSet<>();
+    UUIDSet set = new UUIDSet(0);
+    for (int i = 0; i < 10_000; i++) {
+      UUID id = UUID.randomUUID();
+      expected.add(id);
+      set.add(id);
+    }
+
+    assertEquals(expected.size(), set.size());
+    assertEquals(expected, set);
+    assertEquals(set, expected);
+    assertEquals(expected.hashCode(), set.hashCode());
+  }
+
+  @Test
+  public void testSequentialUUIDs() {
+    UUIDSet set = new UUIDSet();
+    for (long i = 1; i <= 10_000; i++) {
+      assertTrue(set.add(new UUID(0, i)));
+      assertTrue(set.add(new UUID(i, 0)));
+    }
+
+    assertEquals(20_000, set.size());
+    assertTrue(set.contains(new UUID(0, 9_999)));
+    assertTrue(set.contains(new UUID(9_999, 0)));
+    assertFalse(set.contains(new UUID(0, 10_001)));
+  }
+
+  @Test
+  public void testIterateAllElements() {
+    Set<UUID> expected = new HashSet<>(Arrays.asList(new UUID(0, 0), UUID.randomUUID(), UUID.randomUUID()));
+    UUIDSet set = new UUIDSet(expected);
+
+    List<UUID> iterated = new ArrayList<>();
+    Iterator<UUID> iterator = set.iterator();
+    while (iterator.hasNext()) {
+      iterated.add(iterator.next());
+    }
+
+    assertEquals(3, iterated.size());
+    assertEquals(expected, new HashSet<>(iterated));
+    assertThrows(NoSuchElementException.class, iterator::next);
+  }
+
+  @Test
+  public void testIterateEmptySet() {
+    assertFalse(new UUIDSet().iterator().hasNext());
+  }
+
+  @Test
+  public void testIterateAfterGrowFails() {
+    UUIDSet set = new UUIDSet(0);
+    set.add(UUID.randomUUID());
+    Iterator<UUID> iterator = set.iterator();
+    for (int i = 0; i < 100; i++) {
+      set.add(UUID.randomUUID());
+    }
+
+    assertThrows(ConcurrentModificationException.class, iterator::next);
+  }
+
+  @Test
+  public void testClear() {
+    UUIDSet set = new UUIDSet(Arrays.asList(new UUID(0, 0), UUID.randomUUID()));
+    set.clear();
+
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(new UUID(0, 0)));
+    assertFalse(set.iterator().hasNext());
+  }
+
+  @Test
+  public void testRemoveNotSupported() {
+    UUID id = UUID.randomUUID();
+    UUIDSet set = new UUIDSet(Collections.singletonList(id));
+
+    assertThrows(UnsupportedOperationException.class, () -> set.remove(id));
+  }
+
+  @Test
+  public void testNegativeExpectedSize() {
+    assertThrows(IllegalArgumentException.class, () -> new UUIDSet(-1));
+  }
+}
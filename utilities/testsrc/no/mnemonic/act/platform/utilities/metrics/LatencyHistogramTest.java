@@ -0,0 +1,118 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testSnapshotWithoutRecordings() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getTotalNanos());
+    assertEquals(0, snapshot.getMaxNanos());
+    assertEquals(0, snapshot.getMeanNanos());
+    assertEquals(0, snapshot.getPercentileNanos(0.99));
+  }
+
+  @Test
+  public void testRecordAggregatesValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10);
+    histogram.record(30);
+    histogram.record(-5);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(3, snapshot.getCount());
+    assertEquals(40, snapshot.getTotalNanos());
+    assertEquals(30, snapshot.getMaxNanos());
+    assertEquals(13, snapshot.getMeanNanos());
+  }
+
+  @Test
+  public void testRecordSince() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordSince(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(1, snapshot.getCount());
+    assertTrue(snapshot.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+  }
+
+  @Test
+  public void testGetPercentileWithinRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertWithinRelativeError(50_000_000, snapshot.getPercentileNanos(0.50));
+    assertWithinRelativeError(95_000_000, snapshot.getPercentileNanos(0.95));
+    assertWithinRelativeError(99_000_000, snapshot.getPercentileNanos(0.99));
+    assertEquals(100_000_000, snapshot.getPercentileNanos(1.0));
+  }
+
+  @Test
+  public void testGetPercentileNeverExceedsMax() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000_001);
+    assertEquals(1_000_001, histogram.snapshot().getPercentileNanos(0.5));
+  }
+
+  @Test
+  public void testGetPercentileWithInvalidQuantileThrowsException() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+    assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentileNanos(-0.1));
+    assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentileNanos(1.1));
+  }
+
+  @Test
+  public void testRecordExtremeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(Long.MAX_VALUE);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(2, snapshot.getCount());
+    assertEquals(0, snapshot.getPercentileNanos(0.5));
+    assertEquals(Long.MAX_VALUE, snapshot.getPercentileNanos(1.0));
+  }
+
+  @Test
+  public void testBucketBoundsCoverAllValues() {
+    long[] values = {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+      if (index > 0) assertTrue(value > LatencyHistogram.bucketUpperBound(index - 1));
+    }
+  }
+
+  @Test
+  public void testRecordConcurrently() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 1000; i++) {
+      long value = i;
+      executor.submit(() -> histogram.record(value));
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(999 * 1000 / 2, snapshot.getTotalNanos());
+    assertEquals(999, snapshot.getMaxNanos());
+  }
+
+  private void assertWithinRelativeError(long expected, long actual) {
+    assertTrue(String.format("Expected %d, but was %d.", expected, actual), actual >= expected);
+    assertTrue(String.format("Expected %d, but was %d.", expected, actual), actual <= expected + expected / 16);
+  }
+}
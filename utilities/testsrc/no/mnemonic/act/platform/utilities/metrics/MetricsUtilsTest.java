@@ -0,0 +1,67 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.mnemonic.commons.metrics.MetricException;
+import no.mnemonic.commons.metrics.Metrics;
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import org.junit.Test;
+
+import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+import static org.junit.Assert.assertEquals;
+
+public class MetricsUtilsTest {
+
+  @Test
+  public void testHistogramToMetrics() throws MetricException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000);
+    histogram.record(3_000);
+
+    Metrics metrics = MetricsUtils.toMetrics(histogram);
+    assertEquals(2L, metrics.getData("count"));
+    assertEquals(2L, metrics.getData("meanMicros"));
+    assertEquals(1L, metrics.getData("p50Micros"));
+    assertEquals(3L, metrics.getData("p99Micros"));
+    assertEquals(3L, metrics.getData("maxMicros"));
+  }
+
+  @Test
+  public void testMultipleHistogramsToMetrics() throws MetricException {
+    LatencyHistogram first = new LatencyHistogram();
+    first.record(1_000);
+
+    Metrics metrics = MetricsUtils.toMetrics(MapUtils.map(T("first", first), T("second", new LatencyHistogram())));
+    assertEquals(2, metrics.getSubMetrics().size());
+    assertEquals(1L, metrics.getSubMetrics("first").getData("count"));
+    assertEquals(0L, metrics.getSubMetrics("second").getData("count"));
+  }
+
+  @Test
+  public void testCacheToMetrics() throws MetricException {
+    Cache<String, String> cache = CacheBuilder.newBuilder().recordStats().build();
+    cache.put("key", "value");
+    cache.getIfPresent("key");
+    cache.getIfPresent("unknown");
+
+    Metrics metrics = MetricsUtils.toMetrics(cache);
+    assertEquals(1L, metrics.getData("size"));
+    assertEquals(1L, metrics.getData("hitCount"));
+    assertEquals(1L, metrics.getData("missCount"));
+    assertEquals(0.5, metrics.getData("hitRate"));
+  }
+
+  @Test
+  public void testStatsCountingCacheMapToMetrics() throws MetricException {
+    StatsCountingCacheMap<String, String> map = new StatsCountingCacheMap<>(CacheBuilder.newBuilder().recordStats().build());
+    map.put("key", "value");
+    map.get("key");
+    map.get("unknown");
+
+    Metrics metrics = MetricsUtils.toMetrics(map);
+    assertEquals(1L, metrics.getData("size"));
+    assertEquals(1L, metrics.getData("hitCount"));
+    assertEquals(1L, metrics.getData("missCount"));
+    assertEquals(0.5, metrics.getData("hitRate"));
+  }
+}
@@ -0,0 +1,45 @@
+package no.mnemonic.act.platform.utilities.metrics;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StatsCountingCacheMapTest {
+
+  private final StatsCountingCacheMap<String, String> map = new StatsCountingCacheMap<>(CacheBuilder.newBuilder()
+          .recordStats()
+          .build());
+
+  @Test
+  public void testGetCountsHitsAndMisses() {
+    map.put("key", "value");
+
+    assertEquals("value", map.get("key"));
+    assertEquals("default", map.getOrDefault("unknown", "default"));
+
+    CacheStats stats = map.stats();
+    assertEquals(1, stats.hitCount());
+    assertEquals(1, stats.missCount());
+    assertEquals(0.5, stats.hitRate(), 0.0);
+  }
+
+  @Test
+  public void testComputeIfAbsentCountsHitsAndMisses() {
+    assertEquals("computed", map.computeIfAbsent("key", key -> "computed"));
+    assertEquals("computed", map.computeIfAbsent("key", key -> "other"));
+    assertEquals("computed", map.getCache().getIfPresent("key"));
+
+    CacheStats stats = map.stats();
+    assertEquals(2, stats.hitCount());
+    assertEquals(1, stats.missCount());
+  }
+
+  @Test
+  public void testComputeIfAbsentWithNullValueCountsMiss() {
+    assertNull(map.computeIfAbsent("key", key -> null));
+    assertEquals(0, map.size());
+    assertEquals(1, map.stats().missCount());
+  }
+}